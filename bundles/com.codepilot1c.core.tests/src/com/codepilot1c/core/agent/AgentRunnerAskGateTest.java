@@ -23,6 +23,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
@@ -270,6 +271,8 @@ public class AgentRunnerAskGateTest {
         setField(registry, "tools", new HashMap<>(tools)); //$NON-NLS-1$
         setField(registry, "dynamicTools", new ConcurrentHashMap<String, ITool>()); //$NON-NLS-1$
         setField(registry, "gson", new Gson()); //$NON-NLS-1$
+        setField(registry, "surfaceGeneration", new AtomicLong()); //$NON-NLS-1$
+        setField(registry, "surfaceCache", new ConcurrentHashMap<>()); //$NON-NLS-1$
         setField(registry, "augmentor", ToolSurfaceAugmentor.passthrough()); //$NON-NLS-1$
         return registry;
     }
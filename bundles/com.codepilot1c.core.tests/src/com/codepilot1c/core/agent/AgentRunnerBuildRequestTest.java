@@ -14,6 +14,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -308,6 +309,8 @@ public class AgentRunnerBuildRequestTest {
         setField(registry, "dynamicToolCapabilities", //$NON-NLS-1$
                 new ConcurrentHashMap<String, DynamicToolCapability>());
         setField(registry, "gson", new Gson()); //$NON-NLS-1$
+        setField(registry, "surfaceGeneration", new AtomicLong()); //$NON-NLS-1$
+        setField(registry, "surfaceCache", new ConcurrentHashMap<>()); //$NON-NLS-1$
         setField(registry, "augmentor", ToolSurfaceAugmentor.passthrough()); //$NON-NLS-1$
         return registry;
     }
@@ -0,0 +1,146 @@
+package com.codepilot1c.core.agent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+import com.codepilot1c.core.agent.profiles.DynamicToolCapability;
+import com.codepilot1c.core.memory.compaction.SpeculativeCompactor;
+import com.codepilot1c.core.model.LlmMessage;
+import com.codepilot1c.core.model.LlmRequest;
+import com.codepilot1c.core.model.LlmResponse;
+import com.codepilot1c.core.model.LlmStreamChunk;
+import com.codepilot1c.core.provider.ILlmProvider;
+import com.codepilot1c.core.tools.ITool;
+import com.codepilot1c.core.tools.ToolRegistry;
+import com.codepilot1c.core.tools.surface.ToolSurfaceAugmentor;
+import com.google.gson.Gson;
+
+import sun.misc.Unsafe;
+
+public class AgentRunnerHistoryCompactionTest {
+
+    private static final SpeculativeCompactor.Policy POLICY =
+            new SpeculativeCompactor.Policy(true, 1_000, 80, 50, 4, 6);
+
+    @Test
+    public void runnerSendsPreparedSummaryInsteadOfHistoryHead() throws Exception {
+        List<LlmMessage> history = history(30, 100);
+        SpeculativeCompactor compactor = new SpeculativeCompactor(
+                (messages, targetTokens) -> CompletableFuture.completedFuture("summary of the head")); //$NON-NLS-1$
+        assertTrue(compactor.prepare(history, history.size() - 4).get(5, TimeUnit.SECONDS));
+
+        CapturingProvider provider = new CapturingProvider();
+        AgentRunner runner = new AgentRunner(provider, isolatedRegistry(), "system"); //$NON-NLS-1$
+        runner.setHistoryCompactor(compactor, POLICY);
+
+        AgentResult result = runner.run("next question", history, AgentConfig.builder().build()) //$NON-NLS-1$
+                .get(10, TimeUnit.SECONDS);
+
+        assertEquals(AgentState.COMPLETED, result.getFinalState());
+        assertEquals(1, provider.requests.size());
+        List<LlmMessage> sent = provider.requests.get(0).getMessages();
+        assertEquals("system prompt", sent.get(0).getContent()); //$NON-NLS-1$
+        assertEquals(SpeculativeCompactor.SUMMARY_MARKER + "\nsummary of the head", //$NON-NLS-1$
+                sent.get(1).getContent());
+        assertEquals("next question", sent.get(sent.size() - 1).getContent()); //$NON-NLS-1$
+        assertTrue(sent.size() < history.size());
+        assertEquals(1L, compactor.stats().hits());
+
+        LlmMessage summary = result.getConversationHistory().get(1);
+        assertNotNull(summary.getContent());
+        assertTrue(summary.getContent().startsWith(SpeculativeCompactor.SUMMARY_MARKER));
+    }
+
+    private static List<LlmMessage> history(int messages, int charsPerMessage) {
+        List<LlmMessage> history = new ArrayList<>();
+        history.add(LlmMessage.system("system prompt")); //$NON-NLS-1$
+        for (int i = 1; i < messages; i++) {
+            String text = i + ":" + "x".repeat(charsPerMessage); //$NON-NLS-1$ //$NON-NLS-2$
+            history.add(i % 2 == 1 ? LlmMessage.user(text) : LlmMessage.assistant(text));
+        }
+        return history;
+    }
+
+    private static ToolRegistry isolatedRegistry() throws Exception {
+        ToolRegistry registry = (ToolRegistry) unsafe().allocateInstance(ToolRegistry.class);
+        setField(registry, "tools", new HashMap<String, ITool>()); //$NON-NLS-1$
+        setField(registry, "dynamicTools", new ConcurrentHashMap<String, ITool>()); //$NON-NLS-1$
+        setField(registry, "dynamicToolCapabilities", //$NON-NLS-1$
+                new ConcurrentHashMap<String, DynamicToolCapability>());
+        setField(registry, "gson", new Gson()); //$NON-NLS-1$
+        setField(registry, "surfaceGeneration", new AtomicLong()); //$NON-NLS-1$
+        setField(registry, "surfaceCache", new ConcurrentHashMap<>()); //$NON-NLS-1$
+        setField(registry, "augmentor", ToolSurfaceAugmentor.passthrough()); //$NON-NLS-1$
+        return registry;
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = ToolRegistry.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    private static Unsafe unsafe() throws Exception {
+        Field field = Unsafe.class.getDeclaredField("theUnsafe"); //$NON-NLS-1$
+        field.setAccessible(true);
+        return (Unsafe) field.get(null);
+    }
+
+    private static final class CapturingProvider implements ILlmProvider {
+
+        private final List<LlmRequest> requests = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String getId() {
+            return "capturing"; //$NON-NLS-1$
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "Capturing"; //$NON-NLS-1$
+        }
+
+        @Override
+        public boolean isConfigured() {
+            return true;
+        }
+
+        @Override
+        public boolean supportsStreaming() {
+            return false;
+        }
+
+        @Override
+        public CompletableFuture<LlmResponse> complete(LlmRequest request) {
+            requests.add(request);
+            return CompletableFuture.completedFuture(LlmResponse.of("done")); //$NON-NLS-1$
+        }
+
+        @Override
+        public void streamComplete(LlmRequest request, Consumer<LlmStreamChunk> consumer) {
+            consumer.accept(LlmStreamChunk.complete(LlmResponse.FINISH_REASON_STOP));
+        }
+
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public void dispose() {
+        }
+    }
+}
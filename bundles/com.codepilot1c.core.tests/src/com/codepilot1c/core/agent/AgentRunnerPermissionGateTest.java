@@ -23,6 +23,7 @@ import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
@@ -502,6 +503,8 @@ public class AgentRunnerPermissionGateTest {
         setField(registry, "dynamicToolCapabilities", //$NON-NLS-1$
                 new ConcurrentHashMap<String, DynamicToolCapability>());
         setField(registry, "gson", new Gson()); //$NON-NLS-1$
+        setField(registry, "surfaceGeneration", new AtomicLong()); //$NON-NLS-1$
+        setField(registry, "surfaceCache", new ConcurrentHashMap<>()); //$NON-NLS-1$
         setField(registry, "augmentor", ToolSurfaceAugmentor.passthrough()); //$NON-NLS-1$
         return registry;
     }
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.agent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import com.codepilot1c.core.model.ToolCall;
+
+/**
+ * Tests for {@link ToolCallScheduler}: calls are completed by hand so the test controls
+ * exactly which ones are in flight.
+ */
+public class ToolCallSchedulerTest {
+
+    private final Map<String, CompletableFuture<Void>> inFlight = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final List<String> started = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    public void readOnlyCallsRunConcurrentlyUpToLimit() throws Exception {
+        ToolCallScheduler scheduler = scheduler(2, new AtomicBoolean());
+        List<ToolCall> calls = List.of(read("r1"), read("r2"), read("r3"));
+
+        CompletableFuture<ToolCallScheduler.BatchStats> batch = scheduler.run(scheduler.plan(calls));
+        assertEquals(List.of("r1", "r2"), started);
+
+        complete("r2");
+        assertEquals(List.of("r1", "r2", "r3"), started);
+        complete("r1");
+        complete("r3");
+
+        ToolCallScheduler.BatchStats stats = batch.get(5, TimeUnit.SECONDS);
+        assertEquals(3, stats.calls());
+        assertEquals(3, stats.parallelCalls());
+    }
+
+    @Test
+    public void mutatingCallIsBarrier() throws Exception {
+        ToolCallScheduler scheduler = scheduler(4, new AtomicBoolean());
+        List<ToolCall> calls = List.of(read("r1"), read("r2"), write("w1"), read("r3"), read("r4"));
+
+        List<List<ToolCall>> plan = scheduler.plan(calls);
+        assertEquals(3, plan.size());
+        assertTrue(ToolCallScheduler.hasParallelGroup(plan));
+
+        CompletableFuture<ToolCallScheduler.BatchStats> batch = scheduler.run(plan);
+        assertEquals(List.of("r1", "r2"), started);
+        complete("r1");
+        assertEquals(2, started.size());
+        complete("r2");
+        assertEquals(List.of("r1", "r2", "w1"), started);
+        complete("w1");
+        assertEquals(List.of("r1", "r2", "w1", "r3", "r4"), started);
+        complete("r4");
+        complete("r3");
+
+        assertEquals(5, batch.get(5, TimeUnit.SECONDS).calls());
+    }
+
+    @Test
+    public void limitOfOneKeepsSequentialChain() {
+        ToolCallScheduler scheduler = scheduler(1, new AtomicBoolean());
+        List<List<ToolCall>> plan = scheduler.plan(List.of(read("r1"), read("r2")));
+
+        assertEquals(2, plan.size());
+        assertFalse(ToolCallScheduler.hasParallelGroup(plan));
+        scheduler.run(plan);
+        assertEquals(List.of("r1"), started);
+        complete("r1");
+        assertEquals(List.of("r1", "r2"), started);
+    }
+
+    @Test
+    public void cancellationStopsLaunchingRemainingCalls() throws Exception {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        ToolCallScheduler scheduler = scheduler(2, cancelled);
+        List<ToolCall> calls = List.of(read("r1"), read("r2"), read("r3"), write("w1"));
+
+        CompletableFuture<ToolCallScheduler.BatchStats> batch = scheduler.run(scheduler.plan(calls));
+        cancelled.set(true);
+        complete("r1");
+        complete("r2");
+
+        assertEquals(List.of("r1", "r2"), started);
+        assertEquals(2, batch.get(5, TimeUnit.SECONDS).calls());
+    }
+
+    @Test
+    public void failedCallFailsBatchAfterRunningCallsFinish() {
+        ToolCallScheduler scheduler = scheduler(2, new AtomicBoolean());
+        CompletableFuture<ToolCallScheduler.BatchStats> batch =
+                scheduler.run(scheduler.plan(List.of(read("r1"), read("r2"), read("r3"))));
+
+        inFlight.remove("r1").completeExceptionally(new IllegalStateException("boom")); //$NON-NLS-1$
+        assertFalse(batch.isDone());
+        complete("r2");
+
+        assertTrue(batch.isCompletedExceptionally());
+        assertEquals(List.of("r1", "r2"), started);
+    }
+
+    private ToolCallScheduler scheduler(int limit, AtomicBoolean cancelled) {
+        return new ToolCallScheduler(limit,
+                call -> call.getName().startsWith("read") //$NON-NLS-1$
+                        ? ToolCallScheduler.Kind.READ_ONLY
+                        : ToolCallScheduler.Kind.MUTATING,
+                call -> {
+                    CompletableFuture<Void> future = new CompletableFuture<>();
+                    inFlight.put(call.getId(), future);
+                    started.add(call.getId());
+                    return future;
+                },
+                cancelled::get);
+    }
+
+    private void complete(String id) {
+        inFlight.remove(id).complete(null);
+    }
+
+    private static ToolCall read(String id) {
+        return new ToolCall(id, "read_file", "{}"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    private static ToolCall write(String id) {
+        return new ToolCall(id, "write_file", "{}"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+}
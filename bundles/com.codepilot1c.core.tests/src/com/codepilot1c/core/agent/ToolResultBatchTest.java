@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.agent;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.codepilot1c.core.model.LlmMessage;
+import com.codepilot1c.core.model.ToolCall;
+
+/**
+ * Tests for {@link ToolResultBatch}: results of a parallel batch complete out of order and
+ * must be committed one per call, in call order, whatever ids the model produced.
+ */
+public class ToolResultBatchTest {
+
+    @Test
+    public void duplicateAndBlankIdsKeepOneResultPerCall() {
+        ToolCall first = new ToolCall("call_1", "read_file", "{\"path\":\"a.bsl\"}"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        ToolCall duplicate = new ToolCall("call_1", "read_file", "{\"path\":\"b.bsl\"}"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        ToolCall blank = new ToolCall("", "grep", "{\"q\":\"x\"}"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        ToolCall otherBlank = new ToolCall("", "grep", "{\"q\":\"y\"}"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        ToolResultBatch batch = new ToolResultBatch(List.of(first, duplicate, blank, otherBlank));
+
+        // Completion order differs from call order
+        batch.put(otherBlank, LlmMessage.toolResult("", "y")); //$NON-NLS-1$ //$NON-NLS-2$
+        batch.put(duplicate, LlmMessage.toolResult("call_1", "b")); //$NON-NLS-1$ //$NON-NLS-2$
+        batch.put(blank, LlmMessage.toolResult("", "x")); //$NON-NLS-1$ //$NON-NLS-2$
+        batch.put(first, LlmMessage.toolResult("call_1", "a")); //$NON-NLS-1$ //$NON-NLS-2$
+
+        List<LlmMessage> history = new ArrayList<>();
+        batch.commitTo(history);
+        assertEquals(List.of("a", "b", "x", "y"), history.stream().map(LlmMessage::getContent).toList()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+    }
+
+    @Test
+    public void sameCallObjectTwiceFillsBothPositions() {
+        ToolCall call = new ToolCall("call_1", "read_file", "{}"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        ToolResultBatch batch = new ToolResultBatch(List.of(call, call));
+
+        batch.put(call, LlmMessage.toolResult("call_1", "first")); //$NON-NLS-1$ //$NON-NLS-2$
+        batch.put(call, LlmMessage.toolResult("call_1", "second")); //$NON-NLS-1$ //$NON-NLS-2$
+        batch.put(new ToolCall("call_9", "grep", "{}"), LlmMessage.toolResult("call_9", "stray")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+
+        List<LlmMessage> history = new ArrayList<>();
+        batch.commitTo(history);
+        assertEquals(List.of("first", "second", "stray"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                history.stream().map(LlmMessage::getContent).toList());
+    }
+}
@@ -12,6 +12,7 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -90,6 +91,8 @@ public class LangGraphAgentRunnerTest {
         setField(registry, "tools", new HashMap<>(tools)); //$NON-NLS-1$
         setField(registry, "dynamicTools", new ConcurrentHashMap<String, ITool>()); //$NON-NLS-1$
         setField(registry, "gson", new Gson()); //$NON-NLS-1$
+        setField(registry, "surfaceGeneration", new AtomicLong()); //$NON-NLS-1$
+        setField(registry, "surfaceCache", new ConcurrentHashMap<>()); //$NON-NLS-1$
         setField(registry, "augmentor", ToolSurfaceAugmentor.passthrough()); //$NON-NLS-1$
         return registry;
     }
@@ -0,0 +1,137 @@
+package com.codepilot1c.core.agent.prompts;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class PromptSourceCacheTest {
+
+    @Test
+    public void servesUnchangedContentFromMemory() throws Exception {
+        Path root = Files.createTempDirectory("prompt-cache"); //$NON-NLS-1$
+        Path file = root.resolve("AGENTS.md"); //$NON-NLS-1$
+        Files.writeString(file, "rules"); //$NON-NLS-1$
+        PromptSourceCache cache = new PromptSourceCache(false, 0, 0);
+
+        PromptSourceCache.Source first = cache.read(file);
+        PromptSourceCache.Source second = cache.read(file);
+
+        assertEquals("rules", first.content()); //$NON-NLS-1$
+        assertSame(first, second);
+        assertEquals(1, cache.getStats().reloads());
+        assertEquals(1, cache.getStats().hits());
+        assertNull(cache.read(root.resolve("missing.md"))); //$NON-NLS-1$
+    }
+
+    @Test
+    public void derivedValueIsRecomputedOnlyWhenASourceChanges() throws Exception {
+        Path root = Files.createTempDirectory("prompt-cache"); //$NON-NLS-1$
+        Files.writeString(root.resolve("a.md"), "alpha"); //$NON-NLS-1$ //$NON-NLS-2$
+        PromptSourceCache cache = new PromptSourceCache(false, 0, 0);
+        AtomicInteger computations = new AtomicInteger();
+
+        String first = cache.derive("joined", () -> join(cache, root, computations)); //$NON-NLS-1$
+        String second = cache.derive("joined", () -> join(cache, root, computations)); //$NON-NLS-1$
+        assertEquals("alpha", first); //$NON-NLS-1$
+        assertSame(first, second);
+        assertEquals(1, computations.get());
+
+        Files.writeString(root.resolve("b.md"), "beta"); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals("alpha|beta", cache.derive("joined", () -> join(cache, root, computations))); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(2, computations.get());
+
+        Files.writeString(root.resolve("a.md"), "ALPHA!"); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals("ALPHA!|beta", cache.derive("joined", () -> join(cache, root, computations))); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(3, computations.get());
+        assertEquals(1, cache.getStats().derivedHits());
+    }
+
+    @Test
+    public void memoizesParsedObjectsByContentHash() throws Exception {
+        Path root = Files.createTempDirectory("prompt-cache"); //$NON-NLS-1$
+        Files.writeString(root.resolve("one.md"), "same"); //$NON-NLS-1$ //$NON-NLS-2$
+        Files.writeString(root.resolve("two.md"), "same"); //$NON-NLS-1$ //$NON-NLS-2$
+        PromptSourceCache cache = new PromptSourceCache(false, 0, 0);
+        AtomicInteger parses = new AtomicInteger();
+
+        Object first = cache.memoize("layer", cache.read(root.resolve("one.md")).hash(), () -> { //$NON-NLS-1$ //$NON-NLS-2$
+            parses.incrementAndGet();
+            return new Object();
+        });
+        Object second = cache.memoize("layer", cache.read(root.resolve("two.md")).hash(), () -> { //$NON-NLS-1$ //$NON-NLS-2$
+            parses.incrementAndGet();
+            return new Object();
+        });
+
+        assertSame(first, second);
+        assertEquals(1, parses.get());
+    }
+
+    @Test
+    public void explicitInvalidationDropsCachedListing() throws Exception {
+        Path root = Files.createTempDirectory("prompt-cache"); //$NON-NLS-1$
+        // A long interval makes watched entries trusted; only invalidation can refresh them.
+        PromptSourceCache cache = new PromptSourceCache(true, 60_000, 16);
+        try {
+            assertTrue(cache.list(root).isEmpty());
+
+            Path skill = Files.createDirectories(root.resolve("review")); //$NON-NLS-1$
+            cache.invalidate(skill);
+
+            assertEquals(List.of(skill), cache.list(root));
+            assertTrue(cache.isDirectory(skill));
+        } finally {
+            cache.close();
+        }
+    }
+
+    @Test
+    public void watchEventsInvalidateTrustedEntries() throws Exception {
+        Path root = Files.createTempDirectory("prompt-cache"); //$NON-NLS-1$
+        Path file = root.resolve("Code.md"); //$NON-NLS-1$
+        Files.writeString(file, "v1"); //$NON-NLS-1$
+        PromptSourceCache cache = new PromptSourceCache(true, 60_000, 16);
+        try {
+            assertEquals("v1", cache.read(file).content()); //$NON-NLS-1$
+            assertTrue(cache.getStats().watchedDirectories() > 0);
+
+            Files.writeString(file, "version two"); //$NON-NLS-1$
+            long deadline = System.currentTimeMillis() + 20_000;
+            String content = cache.read(file).content();
+            while (!"version two".equals(content) && System.currentTimeMillis() < deadline) { //$NON-NLS-1$
+                Thread.sleep(50);
+                content = cache.read(file).content();
+            }
+
+            assertEquals("version two", content); //$NON-NLS-1$
+            assertTrue(cache.getStats().invalidations() > 0);
+        } finally {
+            cache.close();
+        }
+    }
+
+    private static String join(PromptSourceCache cache, Path root, AtomicInteger computations) {
+        computations.incrementAndGet();
+        StringBuilder joined = new StringBuilder();
+        for (Path child : cache.list(root)) {
+            try {
+                PromptSourceCache.Source source = cache.read(child);
+                if (source != null) {
+                    joined.append(joined.isEmpty() ? "" : "|").append(source.content()); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return joined.toString();
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.diff;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.codepilot1c.core.diff.LineDiffUtils.AlignedRow;
+import com.codepilot1c.core.diff.LineDiffUtils.DiffResult;
+
+/**
+ * Tests for {@link DiffEngine} and the utilities built on it.
+ */
+public class DiffEngineTest {
+
+    @Test
+    public void myersProducesMinimalScriptOnRandomInputs() {
+        Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            List<String> first = randomSequence(random, random.nextInt(40), 4);
+            List<String> second = mutate(random, first, 4);
+            DiffEngine.EditScript script = DiffEngine.diff(first, second, DiffEngine.Algorithm.MYERS);
+
+            assertValid(first, second, script);
+            assertFalse(script.approximate());
+            assertEquals(first.size() + second.size() - 2 * lcsLength(first, second), edits(script));
+        }
+    }
+
+    @Test
+    public void histogramProducesValidScriptOnRandomInputs() {
+        Random random = new Random(7);
+        for (int round = 0; round < 500; round++) {
+            List<String> first = randomSequence(random, random.nextInt(60), 8);
+            List<String> second = mutate(random, first, 8);
+            assertValid(first, second, DiffEngine.diff(first, second, DiffEngine.Algorithm.HISTOGRAM));
+        }
+    }
+
+    @Test
+    public void costLimitDegradesToValidApproximateScript() {
+        Random random = new Random(3);
+        List<String> first = randomSequence(random, 2_000, 3);
+        List<String> second = randomSequence(random, 2_000, 3);
+
+        DiffEngine.EditScript script = DiffEngine.diff(first, second, DiffEngine.Algorithm.MYERS, 8);
+
+        assertValid(first, second, script);
+        assertTrue(script.approximate());
+    }
+
+    @Test
+    public void replacedLineBecomesModifiedRow() {
+        DiffResult result = LineDiffUtils.computeDiff("a\nb\nc\nd", "a\nB\nc\nd\ne"); //$NON-NLS-1$ //$NON-NLS-2$
+
+        List<AlignedRow> rows = result.getAlignedRows();
+        assertEquals(5, rows.size());
+        assertEquals(AlignedRow.RowType.MODIFIED, rows.get(1).getType());
+        assertEquals("b", rows.get(1).getLeftContent()); //$NON-NLS-1$
+        assertEquals("B", rows.get(1).getRightContent()); //$NON-NLS-1$
+        assertEquals(AlignedRow.RowType.ADDED, rows.get(4).getType());
+        assertEquals(2, result.getAddedCount());
+        assertEquals(1, result.getDeletedCount());
+        assertEquals("@@ -1,4 +1,5 @@", result.getHunks().get(0).getHeader()); //$NON-NLS-1$
+    }
+
+    @Test
+    public void inlineDiffHighlightsChangedTokens() {
+        InlineDiffUtils.InlineDiffResult result = InlineDiffUtils.diff(
+                "Сообщить(Строка1);", "Сообщить(Строка2 + Суффикс);"); //$NON-NLS-1$ //$NON-NLS-2$
+
+        assertEquals(1, result.getLeftRanges().size());
+        assertEquals(9, result.getLeftRanges().get(0).getStart());
+        assertEquals(7, result.getLeftRanges().get(0).getLength());
+        assertEquals(1, result.getRightRanges().size());
+        assertEquals(9, result.getRightRanges().get(0).getStart());
+        assertEquals(17, result.getRightRanges().get(0).getLength());
+    }
+
+    private static void assertValid(List<String> first, List<String> second, DiffEngine.EditScript script) {
+        List<String> keptFirst = new ArrayList<>();
+        for (int i = 0; i < first.size(); i++) {
+            if (!script.deleted()[i]) {
+                keptFirst.add(first.get(i));
+            }
+        }
+        List<String> keptSecond = new ArrayList<>();
+        for (int j = 0; j < second.size(); j++) {
+            if (!script.added()[j]) {
+                keptSecond.add(second.get(j));
+            }
+        }
+        assertEquals(keptFirst, keptSecond);
+    }
+
+    private static int edits(DiffEngine.EditScript script) {
+        int count = 0;
+        for (boolean value : script.deleted()) {
+            count += value ? 1 : 0;
+        }
+        for (boolean value : script.added()) {
+            count += value ? 1 : 0;
+        }
+        return count;
+    }
+
+    private static int lcsLength(List<String> first, List<String> second) {
+        int[][] table = new int[first.size() + 1][second.size() + 1];
+        for (int i = first.size() - 1; i >= 0; i--) {
+            for (int j = second.size() - 1; j >= 0; j--) {
+                table[i][j] = first.get(i).equals(second.get(j))
+                        ? table[i + 1][j + 1] + 1
+                        : Math.max(table[i + 1][j], table[i][j + 1]);
+            }
+        }
+        return table[0][0];
+    }
+
+    private static List<String> randomSequence(Random random, int length, int alphabet) {
+        List<String> result = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            result.add(String.valueOf((char) ('a' + random.nextInt(alphabet))));
+        }
+        return result;
+    }
+
+    private static List<String> mutate(Random random, List<String> source, int alphabet) {
+        List<String> result = new ArrayList<>(source);
+        int edits = random.nextInt(10);
+        for (int i = 0; i < edits; i++) {
+            int position = result.isEmpty() ? 0 : random.nextInt(result.size());
+            String value = String.valueOf((char) ('a' + random.nextInt(alphabet)));
+            switch (random.nextInt(3)) {
+                case 0 -> result.add(position, value);
+                case 1 -> {
+                    if (!result.isEmpty()) {
+                        result.remove(position);
+                    }
+                }
+                default -> {
+                    if (!result.isEmpty()) {
+                        result.set(position, value);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+}
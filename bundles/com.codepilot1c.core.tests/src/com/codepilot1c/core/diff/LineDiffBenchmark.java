@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.diff;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Manual benchmark for {@link LineDiffUtils} on generated BSL modules; not run by the test suite.
+ *
+ * <p>For each module size it reports the time of {@link LineDiffUtils#computeDiff} for a few
+ * scattered edits, a moved procedure block and a rewrite of every tenth line, the edit counts of
+ * the histogram and Myers scripts, and the size of the {@code int[m+1][n+1]} table the previous LCS
+ * implementation allocated. Run {@link #main} with the test classpath.</p>
+ */
+public final class LineDiffBenchmark {
+    private static final int[] SIZES = { 1_000, 5_000, 15_000, 50_000 };
+    private static final int ROUNDS = 5;
+
+    private LineDiffBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        System.out.println("lines    scenario    diff-ms  histogram-edits  myers-edits  approx  lcs-table-mb"); //$NON-NLS-1$
+        for (int size : SIZES) {
+            Random random = new Random(size);
+            String[] original = module(size, random);
+            run(size, "scattered", original, scattered(original, random)); //$NON-NLS-1$
+            run(size, "moved", original, moved(original)); //$NON-NLS-1$
+            run(size, "rewrite", original, rewrite(original)); //$NON-NLS-1$
+        }
+    }
+
+    private static void run(int size, String scenario, String[] original, String[] modified) {
+        String oldText = String.join("\n", original); //$NON-NLS-1$
+        String newText = String.join("\n", modified); //$NON-NLS-1$
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long started = System.nanoTime();
+            LineDiffUtils.computeDiff(oldText, newText);
+            best = Math.min(best, System.nanoTime() - started);
+        }
+        DiffEngine.EditScript histogram = DiffEngine.diff(Arrays.asList(original), Arrays.asList(modified),
+                DiffEngine.Algorithm.HISTOGRAM);
+        DiffEngine.EditScript myers = DiffEngine.diff(Arrays.asList(original), Arrays.asList(modified),
+                DiffEngine.Algorithm.MYERS);
+        double tableMb = (original.length + 1.0) * (modified.length + 1.0) * Integer.BYTES / (1024 * 1024);
+        System.out.printf(Locale.ROOT, "%6d  %-10s  %8.1f  %15d  %11d  %6s  %12.0f%n", //$NON-NLS-1$
+                size, scenario, best / 1_000_000.0, edits(histogram), edits(myers),
+                histogram.approximate() || myers.approximate(), tableMb);
+    }
+
+    private static String[] module(int size, Random random) {
+        List<String> lines = new ArrayList<>(size);
+        int procedure = 0;
+        while (lines.size() < size) {
+            lines.add("Процедура Обработка" + procedure + "(Параметры) Экспорт"); //$NON-NLS-1$ //$NON-NLS-2$
+            int body = 5 + random.nextInt(30);
+            for (int i = 0; i < body; i++) {
+                switch (random.nextInt(5)) {
+                    case 0 -> lines.add("    Если Параметры.Свойство(\"Поле" + random.nextInt(50) + "\") Тогда"); //$NON-NLS-1$ //$NON-NLS-2$
+                    case 1 -> lines.add("    КонецЕсли;"); //$NON-NLS-1$
+                    case 2 -> lines.add(""); //$NON-NLS-1$
+                    case 3 -> lines.add("    Результат = Результат + " + random.nextInt(1_000) + ";"); //$NON-NLS-1$ //$NON-NLS-2$
+                    default -> lines.add("    Сообщить(\"Шаг " + procedure + "." + i + "\");"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                }
+            }
+            lines.add("КонецПроцедуры"); //$NON-NLS-1$
+            lines.add(""); //$NON-NLS-1$
+            procedure++;
+        }
+        return lines.subList(0, size).toArray(new String[0]);
+    }
+
+    private static String[] scattered(String[] original, Random random) {
+        List<String> lines = new ArrayList<>(Arrays.asList(original));
+        for (int i = 0; i < 20; i++) {
+            int position = random.nextInt(lines.size());
+            if (i % 2 == 0) {
+                lines.set(position, lines.get(position) + " // изменено"); //$NON-NLS-1$
+            } else {
+                lines.add(position, "    // добавлено " + i); //$NON-NLS-1$
+            }
+        }
+        return lines.toArray(new String[0]);
+    }
+
+    private static String[] moved(String[] original) {
+        List<String> lines = new ArrayList<>(Arrays.asList(original));
+        int from = lines.size() / 4;
+        List<String> block = new ArrayList<>(lines.subList(from, from + lines.size() / 10));
+        lines.subList(from, from + block.size()).clear();
+        lines.addAll(block);
+        return lines.toArray(new String[0]);
+    }
+
+    private static String[] rewrite(String[] original) {
+        String[] lines = original.clone();
+        for (int i = 0; i < lines.length; i += 10) {
+            lines[i] = lines[i] + " // " + i; //$NON-NLS-1$
+        }
+        return lines;
+    }
+
+    private static int edits(DiffEngine.EditScript script) {
+        int count = 0;
+        for (boolean value : script.deleted()) {
+            count += value ? 1 : 0;
+        }
+        for (boolean value : script.added()) {
+            count += value ? 1 : 0;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2024 Example
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.edit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Manual benchmark of the similarity window scan on large generated BSL modules.
+ *
+ * <p>Not a unit test (surefire only picks up {@code *Test}); run with
+ * {@code java ... com.codepilot1c.core.edit.FuzzyMatcherBenchmark [lines...]}. Compares
+ * {@link LegacySimilarityReference} with {@link SimilarityWindowScanner} for a short block with a
+ * typo (character LCS) and a long block (line LCS), at the match and the feedback threshold.</p>
+ */
+public final class FuzzyMatcherBenchmark {
+
+    private static final long NO_BUDGET = Long.MAX_VALUE / 4;
+
+    private FuzzyMatcherBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0
+                ? java.util.Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[] {2_000, 10_000};
+        for (int size : sizes) {
+            String[] docLines = module(size, new Random(3L));
+            run("short", docLines, block(docLines, size / 2, 12)); //$NON-NLS-1$
+            run("long", docLines, block(docLines, size / 3, 60)); //$NON-NLS-1$
+        }
+    }
+
+    private static void run(String name, String[] docLines, String search) {
+        int windowSize = search.split("\n", -1).length; //$NON-NLS-1$
+        for (double threshold : new double[] {0.75, 0.375}) {
+            long legacyStart = System.nanoTime();
+            List<SimilarityWindowScanner.Window> legacy =
+                    LegacySimilarityReference.scan(search, windowSize, docLines, threshold, 5);
+            long legacyNanos = System.nanoTime() - legacyStart;
+            long scanStart = System.nanoTime();
+            List<SimilarityWindowScanner.Window> scanned =
+                    new SimilarityWindowScanner(search, windowSize, docLines, NO_BUDGET).scan(threshold, 5);
+            long scanNanos = System.nanoTime() - scanStart;
+            System.out.printf("%-5s lines=%-6d block=%-5d threshold=%.3f legacy=%9.1f ms scanner=%8.1f ms same=%s%n", //$NON-NLS-1$
+                    name, docLines.length, search.length(), threshold, legacyNanos / 1e6, scanNanos / 1e6,
+                    legacy.equals(scanned));
+        }
+    }
+
+    private static String block(String[] docLines, int from, int count) {
+        List<String> lines = new ArrayList<>();
+        for (int i = from; i < from + count; i++) {
+            lines.add(docLines[i]);
+        }
+        lines.set(count / 2, lines.get(count / 2).replace("Результат", "Резултат")); //$NON-NLS-1$ //$NON-NLS-2$
+        return String.join("\n", lines); //$NON-NLS-1$
+    }
+
+    private static String[] module(int lineCount, Random random) {
+        String[] templates = {
+            "Процедура Обработать%d(Параметры) Экспорт", //$NON-NLS-1$
+            "    Результат = Новый Структура(\"Поле%d\", Неопределено);", //$NON-NLS-1$
+            "    Если Параметры.Свойство(\"Ключ%d\") Тогда", //$NON-NLS-1$
+            "        Результат.Поле%d = Параметры.Ключ;", //$NON-NLS-1$
+            "    КонецЕсли;", //$NON-NLS-1$
+            "    Запрос = Новый Запрос(\"ВЫБРАТЬ * ИЗ Справочник.Товары%d\");", //$NON-NLS-1$
+            "    // Комментарий %d", //$NON-NLS-1$
+            "КонецПроцедуры", //$NON-NLS-1$
+            "", //$NON-NLS-1$
+        };
+        String[] lines = new String[lineCount];
+        for (int i = 0; i < lineCount; i++) {
+            lines[i] = String.format(templates[i % templates.length], Integer.valueOf(random.nextInt(1000)));
+        }
+        return lines;
+    }
+}
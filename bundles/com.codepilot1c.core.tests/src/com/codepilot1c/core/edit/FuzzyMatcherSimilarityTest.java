@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2024 Example
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.edit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for the {@link MatchStrategy#SIMILARITY} strategy and candidate feedback.
+ *
+ * <p>{@link SimilarityWindowScanner} must reproduce the scores, order and tie-breaking of the
+ * quadratic scan it replaced ({@link LegacySimilarityReference}), in both character and line mode.</p>
+ */
+public class FuzzyMatcherSimilarityTest {
+
+    private static final long NO_BUDGET = Long.MAX_VALUE / 4;
+
+    @Test
+    public void scannerMatchesLegacyScanOnRandomDocuments() {
+        Random random = new Random(7L);
+        String[] vocabulary = {"Если", "Тогда", "КонецЕсли;", "Возврат", "Истина;", "Ложь;", "x = 1;", "", "  "}; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$
+        for (int round = 0; round < 300; round++) {
+            String[] docLines = new String[1 + random.nextInt(40)];
+            for (int i = 0; i < docLines.length; i++) {
+                docLines[i] = vocabulary[random.nextInt(vocabulary.length)]
+                        + (random.nextInt(4) == 0 ? vocabulary[random.nextInt(vocabulary.length)] : ""); //$NON-NLS-1$
+            }
+            int windowSize = 1 + random.nextInt(Math.min(6, docLines.length));
+            int from = random.nextInt(docLines.length - windowSize + 1);
+            StringBuilder search = new StringBuilder();
+            for (int i = 0; i < windowSize; i++) {
+                if (i > 0) {
+                    search.append('\n');
+                }
+                String line = docLines[from + i];
+                search.append(random.nextBoolean() && !line.isEmpty() ? line.substring(1) : line);
+            }
+            double threshold = random.nextInt(4) * 0.25;
+            assertSameWindows(search.toString(), windowSize, docLines, threshold);
+        }
+    }
+
+    @Test
+    public void scannerMatchesLegacyScanInLineMode() {
+        Random random = new Random(11L);
+        String[] docLines = new String[400];
+        for (int i = 0; i < docLines.length; i++) {
+            docLines[i] = "    Результат = Результат + Строка(" + random.nextInt(30) + ");"; //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        StringBuilder search = new StringBuilder();
+        for (int i = 100; i < 140; i++) {
+            if (i > 100) {
+                search.append('\n');
+            }
+            search.append(i % 7 == 0 ? "    // изменено" : docLines[i]); //$NON-NLS-1$
+        }
+        assertTrue(search.length() > SimilarityWindowScanner.LINE_MODE_THRESHOLD);
+        assertSameWindows(search.toString(), 40, docLines, 0.75);
+        assertSameWindows(search.toString(), 40, docLines, 0.375);
+    }
+
+    @Test
+    public void similarityStrategyFindsSlightlyWrongBlock() {
+        String doc = String.join("\n", //$NON-NLS-1$
+                "Процедура Первая()", //$NON-NLS-1$
+                "    Сообщить(\"Первая\");", //$NON-NLS-1$
+                "КонецПроцедуры", //$NON-NLS-1$
+                "", //$NON-NLS-1$
+                "Процедура Вторая()", //$NON-NLS-1$
+                "    Сообщить(\"Вторая строка\");", //$NON-NLS-1$
+                "КонецПроцедуры"); //$NON-NLS-1$
+        String search = "Процедура Вторая()\n    Сообщить(\"Вторая строк\");\nКонецПроцедуры"; //$NON-NLS-1$
+
+        MatchResult result = new FuzzyMatcher().findMatch(search, doc);
+
+        assertTrue(result.isSuccess());
+        MatchLocation location = result.getLocation().orElseThrow();
+        assertEquals(5, location.getStartLine());
+        assertEquals(doc.length(), location.getEndOffset());
+    }
+
+    @Test
+    public void failureFeedbackListsClosestCandidatesFirst() {
+        String doc = "Функция А()\nВозврат 1;\nКонецФункции\nФункция Б()\nВозврат 2;\nКонецФункции"; //$NON-NLS-1$
+        String search = "Функция В()\nВозврат 3;\nКонецФункцииXXXXXXXXXXXXXXXXX"; //$NON-NLS-1$
+
+        MatchResult result = new FuzzyMatcher(0.95).findMatch(search, doc);
+
+        assertFalse(result.isSuccess());
+        List<MatchResult.SimilarMatch> candidates = result.getCandidates();
+        assertFalse(candidates.isEmpty());
+        for (int i = 1; i < candidates.size(); i++) {
+            assertTrue(candidates.get(i - 1).similarity() >= candidates.get(i).similarity());
+        }
+    }
+
+    private static void assertSameWindows(String search, int windowSize, String[] docLines, double threshold) {
+        List<SimilarityWindowScanner.Window> expected =
+                LegacySimilarityReference.scan(search, windowSize, docLines, threshold, 5);
+        List<SimilarityWindowScanner.Window> actual =
+                new SimilarityWindowScanner(search, windowSize, docLines, NO_BUDGET).scan(threshold, 5);
+        assertEquals(search, expected, actual);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2024 Example
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.edit;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The quadratic window scan {@link FuzzyMatcher} used before {@link SimilarityWindowScanner}, kept
+ * as the reference for equivalence tests and the benchmark.
+ */
+final class LegacySimilarityReference {
+
+    private LegacySimilarityReference() {
+    }
+
+    static List<SimilarityWindowScanner.Window> scan(String searchText, int windowSize, String[] docLines,
+            double threshold, int limit) {
+        List<SimilarityWindowScanner.Window> windows = new ArrayList<>();
+        for (int docStart = 0; docStart <= docLines.length - windowSize; docStart++) {
+            StringBuilder windowBuilder = new StringBuilder();
+            for (int i = 0; i < windowSize; i++) {
+                if (i > 0) {
+                    windowBuilder.append("\n"); //$NON-NLS-1$
+                }
+                windowBuilder.append(docLines[docStart + i]);
+            }
+            double similarity = calculateSimilarity(searchText, windowBuilder.toString());
+            if (similarity >= threshold) {
+                windows.add(new SimilarityWindowScanner.Window(docStart, similarity));
+            }
+        }
+        windows.sort(Comparator.comparingDouble(SimilarityWindowScanner.Window::similarity).reversed());
+        return windows.subList(0, Math.min(windows.size(), limit));
+    }
+
+    static double calculateSimilarity(String s1, String s2) {
+        if (s1.isEmpty() || s2.isEmpty()) {
+            return s1.equals(s2) ? 1.0 : 0.0;
+        }
+        int lcsLength = longestCommonSubsequenceLength(s1, s2);
+        int maxLength = Math.max(s1.length(), s2.length());
+        return (double) lcsLength / maxLength;
+    }
+
+    private static int longestCommonSubsequenceLength(String s1, String s2) {
+        if (s1.length() > 1000 || s2.length() > 1000) {
+            return longestCommonSubsequenceLengthByLines(s1, s2);
+        }
+        int m = s1.length();
+        int n = s2.length();
+        int[] prev = new int[n + 1];
+        int[] curr = new int[n + 1];
+        for (int i = 1; i <= m; i++) {
+            for (int j = 1; j <= n; j++) {
+                if (s1.charAt(i - 1) == s2.charAt(j - 1)) {
+                    curr[j] = prev[j - 1] + 1;
+                } else {
+                    curr[j] = Math.max(prev[j], curr[j - 1]);
+                }
+            }
+            int[] temp = prev;
+            prev = curr;
+            curr = temp;
+            java.util.Arrays.fill(curr, 0);
+        }
+        return prev[n];
+    }
+
+    private static int longestCommonSubsequenceLengthByLines(String s1, String s2) {
+        String[] lines1 = s1.split("\n", -1); //$NON-NLS-1$
+        String[] lines2 = s2.split("\n", -1); //$NON-NLS-1$
+        int m = lines1.length;
+        int n = lines2.length;
+        int[] prev = new int[n + 1];
+        int[] curr = new int[n + 1];
+        for (int i = 1; i <= m; i++) {
+            for (int j = 1; j <= n; j++) {
+                if (lines1[i - 1].equals(lines2[j - 1])) {
+                    curr[j] = prev[j - 1] + 1;
+                } else {
+                    curr[j] = Math.max(prev[j], curr[j - 1]);
+                }
+            }
+            int[] temp = prev;
+            prev = curr;
+            curr = temp;
+            java.util.Arrays.fill(curr, 0);
+        }
+        int matchedLines = prev[n];
+        int avgLineLength = (s1.length() + s2.length()) / (m + n + 1);
+        return matchedLines * avgLineLength;
+    }
+}
@@ -0,0 +1,138 @@
+package com.codepilot1c.core.edt.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ArtifactPersistenceWaiterTest {
+
+    private static final IPath CONFIG = new Path("/Demo/src/Configuration/Configuration.mdo"); //$NON-NLS-1$
+
+    private ScheduledExecutorService scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void returnsImmediatelyWhenAlreadyPersisted() throws Exception {
+        ArtifactPersistenceWaiter waiter = new ArtifactPersistenceWaiter(() -> null, scheduler, 10);
+
+        assertTrue(waiter.await("config", CONFIG, () -> true, 1_000, 100)); //$NON-NLS-1$
+
+        ArtifactPersistenceWaiter.Stats stats = waiter.getStats().get("config"); //$NON-NLS-1$
+        assertEquals(1, stats.waits());
+        assertEquals(1, stats.byPoll());
+    }
+
+    @Test
+    public void resourceChangeEndsWaitBeforePoll() throws Exception {
+        // Fallback poll far beyond the deadline: only the change notification can end the wait in time.
+        ArtifactPersistenceWaiter waiter = new ArtifactPersistenceWaiter(() -> null, scheduler, 60_000);
+        AtomicBoolean written = new AtomicBoolean();
+
+        CompletableFuture<Boolean> future = waiter.whenPersisted("config", CONFIG, written::get, 30_000, 60_000); //$NON-NLS-1$
+        assertFalse(future.isDone());
+
+        written.set(true);
+        waiter.pathsChanged(List.of(new Path("/Demo/src/Other.mdo"), CONFIG)); //$NON-NLS-1$
+
+        assertTrue(future.get(5, TimeUnit.SECONDS).booleanValue());
+        ArtifactPersistenceWaiter.Stats stats = waiter.getStats().get("config"); //$NON-NLS-1$
+        assertEquals(1, stats.byEvent());
+        assertEquals(0, stats.timeouts());
+    }
+
+    @Test
+    public void fallbackPollBacksOffUntilPersisted() throws Exception {
+        ArtifactPersistenceWaiter waiter = new ArtifactPersistenceWaiter(() -> null, scheduler, 5);
+        AtomicInteger checks = new AtomicInteger();
+
+        assertTrue(waiter.await("form", CONFIG, () -> checks.incrementAndGet() >= 4, 5_000, 20)); //$NON-NLS-1$
+
+        assertEquals(4, checks.get());
+        assertEquals(1, waiter.getStats().get("form").byPoll()); //$NON-NLS-1$
+    }
+
+    @Test
+    public void deadlineCompletesWithFalseAndIsRecorded() throws Exception {
+        ArtifactPersistenceWaiter waiter = new ArtifactPersistenceWaiter(() -> null, scheduler, 5);
+
+        assertFalse(waiter.await("form", CONFIG, () -> false, 50, 10)); //$NON-NLS-1$
+
+        ArtifactPersistenceWaiter.Stats stats = waiter.getStats().get("form"); //$NON-NLS-1$
+        assertEquals(1, stats.timeouts());
+        assertTrue(stats.maxMs() >= 40);
+    }
+
+    @Test
+    public void blockedCheckDoesNotStallDeadlines() throws Exception {
+        ArtifactPersistenceWaiter waiter = new ArtifactPersistenceWaiter(() -> null, scheduler, 5);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger checks = new AtomicInteger();
+        // The first check runs on the caller; later ones block like a refresh waiting on a workspace rule.
+        BooleanSupplier blocking = () -> {
+            if (checks.incrementAndGet() > 1) {
+                awaitQuietly(release);
+            }
+            return false;
+        };
+        try {
+            CompletableFuture<Boolean> other = waiter.whenPersisted("config", CONFIG, () -> false, 100, 10); //$NON-NLS-1$
+            long startedAt = System.nanoTime();
+
+            assertFalse(waiter.await("form", CONFIG, blocking, 100, 10)); //$NON-NLS-1$
+
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) < 2_000);
+            assertFalse(other.get(2, TimeUnit.SECONDS).booleanValue());
+            assertEquals(1, waiter.getStats().get("form").timeouts()); //$NON-NLS-1$
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void recordsBlockingWaits() {
+        ArtifactPersistenceWaiter waiter = new ArtifactPersistenceWaiter(() -> null, scheduler, 5);
+
+        waiter.record("export", 30, true); //$NON-NLS-1$
+        waiter.record("export", 90, false); //$NON-NLS-1$
+
+        ArtifactPersistenceWaiter.Stats stats = waiter.getStats().get("export"); //$NON-NLS-1$
+        assertEquals(2, stats.waits());
+        assertEquals(1, stats.blocking());
+        assertEquals(1, stats.timeouts());
+        assertEquals(90, stats.maxMs());
+        assertEquals(60, stats.averageMs());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.codepilot1c.core.edt.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.codepilot1c.core.edt.forms.UpdateFormModelRequest;
+
+public class MetadataBatchRequestTest {
+
+    private static final String PROJECT = "Demo"; //$NON-NLS-1$
+
+    @Test
+    public void acceptsMixedOperationsOnOneProject() {
+        MetadataBatchRequest request = new MetadataBatchRequest(PROJECT, List.of(
+                MetadataBatchOperation.create(new CreateMetadataRequest(
+                        PROJECT, MetadataKind.DOCUMENT, "Invoice", null, null, Map.of())), //$NON-NLS-1$
+                MetadataBatchOperation.addChild(new AddMetadataChildRequest(
+                        PROJECT, "Document.Invoice", MetadataChildKind.ATTRIBUTE, "Amount", null, null, Map.of())), //$NON-NLS-1$ //$NON-NLS-2$
+                MetadataBatchOperation.update(new UpdateMetadataRequest(
+                        PROJECT, "Document.Invoice", Map.of("set", Map.of("posting", "Allow")))), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                MetadataBatchOperation.updateFormModel(new UpdateFormModelRequest(
+                        PROJECT, "Document.Invoice.Form.ItemForm", List.of(Map.of("op", "add_field")))))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+        request.validate();
+
+        assertEquals("create Document.Invoice", request.operations().get(0).describe()); //$NON-NLS-1$
+        assertEquals("add_child Document.Invoice ATTRIBUTE Amount", request.operations().get(1).describe()); //$NON-NLS-1$
+    }
+
+    @Test
+    public void rejectsEmptyBatch() {
+        assertRejected(new MetadataBatchRequest(PROJECT, List.of()), MetadataOperationCode.INVALID_METADATA_CHANGE);
+    }
+
+    @Test
+    public void rejectsOversizedBatch() {
+        List<MetadataBatchOperation> operations = new ArrayList<>();
+        for (int i = 0; i <= MetadataBatchRequest.MAX_OPERATIONS; i++) {
+            operations.add(MetadataBatchOperation.update(new UpdateMetadataRequest(
+                    PROJECT, "Catalog.Items", Map.of("set", Map.of("comment", "c" + i))))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        }
+        assertRejected(new MetadataBatchRequest(PROJECT, operations), MetadataOperationCode.INVALID_METADATA_CHANGE);
+    }
+
+    @Test
+    public void rejectsFormChildBecauseFormsHaveTheirOwnCreationFlow() {
+        MetadataBatchRequest request = new MetadataBatchRequest(PROJECT, List.of(
+                MetadataBatchOperation.addChild(new AddMetadataChildRequest(
+                        PROJECT, "Document.Invoice", MetadataChildKind.FORM, "ItemForm", null, null, Map.of())))); //$NON-NLS-1$ //$NON-NLS-2$
+
+        MetadataOperationException error = assertRejected(request, MetadataOperationCode.INVALID_METADATA_CHANGE);
+        assertTrue(error.getMessage().contains("create_form")); //$NON-NLS-1$
+    }
+
+    @Test
+    public void rejectsOperationForAnotherProject() {
+        MetadataBatchRequest request = new MetadataBatchRequest(PROJECT, List.of(
+                MetadataBatchOperation.update(new UpdateMetadataRequest(
+                        "Other", "Catalog.Items", Map.of("set", Map.of("comment", "x")))))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+
+        MetadataOperationException error = assertRejected(request, MetadataOperationCode.INVALID_METADATA_CHANGE);
+        assertTrue(error.getMessage().contains("#1")); //$NON-NLS-1$
+    }
+
+    @Test
+    public void parsesOpNamesCaseInsensitively() {
+        assertEquals(MetadataBatchOperation.Type.ADD_CHILD, MetadataBatchOperation.Type.fromString(" Add_Child ")); //$NON-NLS-1$
+        try {
+            MetadataBatchOperation.Type.fromString("delete"); //$NON-NLS-1$
+            fail("delete is not a batch op"); //$NON-NLS-1$
+        } catch (MetadataOperationException e) {
+            assertEquals(MetadataOperationCode.INVALID_METADATA_CHANGE, e.getCode());
+        }
+    }
+
+    private static MetadataOperationException assertRejected(MetadataBatchRequest request, MetadataOperationCode code) {
+        try {
+            request.validate();
+        } catch (MetadataOperationException e) {
+            assertEquals(code, e.getCode());
+            return e;
+        }
+        fail("Batch request should have been rejected"); //$NON-NLS-1$
+        return null;
+    }
+}
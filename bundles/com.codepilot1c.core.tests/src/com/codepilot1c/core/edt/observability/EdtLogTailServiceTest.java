@@ -0,0 +1,134 @@
+package com.codepilot1c.core.edt.observability;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EdtLogTailServiceTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void tailsLargeLogAcrossBlocksWithAbsoluteLineNumbers() throws Exception {
+        Path workspace = temporaryFolder.newFolder("workspace").toPath(); //$NON-NLS-1$
+        Path log = metadataLog(workspace);
+        StringBuilder content = new StringBuilder();
+        for (int i = 1; i <= 50_000; i++) {
+            content.append("[INFO] строка ").append(i).append(i % 7 == 0 ? "\r\n" : "\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        }
+        content.append("[INFO] unterminated"); //$NON-NLS-1$
+        Files.writeString(log, content, StandardCharsets.UTF_8);
+
+        EdtLogTailService service = new EdtLogTailService(workspace);
+        List<EdtLogLine> lines = service.tail(request("", 3)).lines(); //$NON-NLS-1$
+
+        assertEquals(List.of("[INFO] строка 49999", "[INFO] строка 50000", "[INFO] unterminated"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                texts(lines));
+        assertEquals(List.of(49_999, 50_000, 50_001),
+                lines.stream().map(EdtLogLine::lineNumber).collect(Collectors.toList()));
+
+        EdtLogLine sample = service.tail(new EdtLogTailService.Request("", "", "", 0L, "", false, 2_000)) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                .lines().get(0);
+        assertEquals("[INFO] строка 48002", sample.text()); //$NON-NLS-1$
+        assertEquals(48_002, sample.lineNumber());
+    }
+
+    @Test
+    public void mergesSourcesByEntryTimestamp() throws Exception {
+        Path workspace = temporaryFolder.newFolder("merge").toPath(); //$NON-NLS-1$
+        Files.writeString(metadataLog(workspace), """
+                !ENTRY a 1 0 2026-06-05 10:00:00.000
+                !MESSAGE first
+                !ENTRY a 1 0 2026-06-05 10:00:02.000
+                !MESSAGE third
+                """, StandardCharsets.UTF_8);
+        Path extra = workspace.resolve("extra.log"); //$NON-NLS-1$
+        Files.writeString(extra, """
+                !ENTRY b 1 0 2026-06-05 10:00:01.000
+                !MESSAGE second
+                """, StandardCharsets.UTF_8);
+
+        List<EdtLogLine> lines = new EdtLogTailService(workspace, List.of(extra)).tail(request("", 10)).lines(); //$NON-NLS-1$
+
+        assertEquals(List.of(
+                "!ENTRY a 1 0 2026-06-05 10:00:00.000", "!MESSAGE first", //$NON-NLS-1$ //$NON-NLS-2$
+                "!ENTRY b 1 0 2026-06-05 10:00:01.000", "!MESSAGE second", //$NON-NLS-1$ //$NON-NLS-2$
+                "!ENTRY a 1 0 2026-06-05 10:00:02.000", "!MESSAGE third"), //$NON-NLS-1$ //$NON-NLS-2$
+                texts(lines));
+        assertEquals(4, lines.get(5).lineNumber());
+    }
+
+    @Test
+    public void sinceCutoffDropsOlderEntriesWithTheirMessages() throws Exception {
+        Path workspace = temporaryFolder.newFolder("since").toPath(); //$NON-NLS-1$
+        Files.writeString(metadataLog(workspace), """
+                !ENTRY a 4 0 2026-06-05 09:00:00.000
+                !MESSAGE old failure
+                !ENTRY a 4 0 2026-06-05 11:00:00.000
+                !MESSAGE new failure
+                """, StandardCharsets.UTF_8);
+
+        List<EdtLogLine> lines = new EdtLogTailService(workspace)
+                .tail(new EdtLogTailService.Request("", "2026-06-05T10:00:00Z", "", 0L, "", false, 10)) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                .lines();
+
+        assertEquals(List.of("!ENTRY a 4 0 2026-06-05 11:00:00.000", "!MESSAGE new failure"), texts(lines)); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    @Test
+    public void followReturnsOnlyAppendedCompleteLines() throws Exception {
+        Path workspace = temporaryFolder.newFolder("follow").toPath(); //$NON-NLS-1$
+        Path log = metadataLog(workspace);
+        Files.writeString(log, "[INFO] one\n[INFO] two\n", StandardCharsets.UTF_8); //$NON-NLS-1$
+        EdtLogTailService service = new EdtLogTailService(workspace);
+
+        EdtLogTailService.Result first = service.follow(request("", 10), null); //$NON-NLS-1$
+        assertEquals(List.of("[INFO] one", "[INFO] two"), texts(first.lines())); //$NON-NLS-1$ //$NON-NLS-2$
+
+        append(log, "[ERROR] three\n[INFO] fou"); //$NON-NLS-1$
+        EdtLogTailService.Result second = service.follow(request("", 10), first.cursor()); //$NON-NLS-1$
+        assertEquals(List.of("[ERROR] three"), texts(second.lines())); //$NON-NLS-1$
+        assertEquals(3, second.lines().get(0).lineNumber());
+
+        append(log, "r\n"); //$NON-NLS-1$
+        EdtLogTailService.Result third = service.follow(request("", 10), second.cursor()); //$NON-NLS-1$
+        assertEquals(List.of("[INFO] four"), texts(third.lines())); //$NON-NLS-1$
+        assertEquals(4, third.lines().get(0).lineNumber());
+        assertTrue(service.follow(request("", 10), third.cursor()).lines().isEmpty()); //$NON-NLS-1$
+
+        // Truncation restarts the source from its beginning
+        Files.writeString(log, "[INFO] rotated\n", StandardCharsets.UTF_8); //$NON-NLS-1$
+        EdtLogTailService.Result rotated = service.follow(request("", 10), third.cursor()); //$NON-NLS-1$
+        assertEquals(List.of("[INFO] rotated"), texts(rotated.lines())); //$NON-NLS-1$
+        assertEquals(1, rotated.lines().get(0).lineNumber());
+    }
+
+    private static Path metadataLog(Path workspace) throws Exception {
+        Path log = workspace.resolve(".metadata/.log"); //$NON-NLS-1$
+        Files.createDirectories(log.getParent());
+        return log;
+    }
+
+    private static void append(Path log, String text) throws Exception {
+        Files.writeString(log, text, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+
+    private static EdtLogTailService.Request request(String opId, int maxLines) {
+        return new EdtLogTailService.Request("", "", opId, 0L, "", false, maxLines); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    private static List<String> texts(List<EdtLogLine> lines) {
+        return lines.stream().map(EdtLogLine::text).collect(Collectors.toList());
+    }
+}
@@ -1,5 +1,6 @@
 package com.codepilot1c.core.evaluation.benchmark;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -123,4 +124,34 @@ public class BenchmarkReportGeneratorTest {
         assertTrue(rates.get("a") > 0.9); // 100% //$NON-NLS-1$
         assertTrue(rates.get("b") < 0.1); // 0% //$NON-NLS-1$
     }
+
+    @Test
+    public void rendersLatencyPercentiles() {
+        BenchmarkRun run = BenchmarkRun.builder()
+                .scenarioId("S-001").providerId("a").success(true) //$NON-NLS-1$ //$NON-NLS-2$
+                .completionTokens(3000)
+                .llmTimeMs(60_000)
+                .llmRetries(2)
+                .firstTokenLatenciesMs(List.of(1200L, 400L, 800L))
+                .toolCalls(List.of(
+                        new ToolCallRecord("read_file", "c1", Map.of(), true, 20), //$NON-NLS-1$ //$NON-NLS-2$
+                        new ToolCallRecord("read_file", "c2", Map.of(), true, 40), //$NON-NLS-1$ //$NON-NLS-2$
+                        new ToolCallRecord("get_diagnostics", "c3", Map.of(), true, 1500))) //$NON-NLS-1$ //$NON-NLS-2$
+                .build();
+
+        BenchmarkSuiteResult result = new BenchmarkSuiteResult(List.of("a"), //$NON-NLS-1$
+                List.of(new BenchmarkComparison("S-001", "Test", "test", List.of(run))), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                Instant.now());
+
+        assertEquals(1200, run.getTimeToFirstTokenMs());
+        assertEquals(50.0, run.getTokensPerSecond(), 1e-9);
+        assertEquals(800, result.firstTokenStatsByProvider().get("a").p50Ms()); //$NON-NLS-1$
+        assertEquals(40, result.toolLatencyStats().get("read_file").p95Ms()); //$NON-NLS-1$
+
+        String html = BenchmarkReportGenerator.buildHtml(result);
+        assertTrue(html.contains("Tool Latency")); //$NON-NLS-1$
+        assertTrue(html.contains("800ms / 1.2s / 1.2s")); // TTFT p50 / p95 / p99 //$NON-NLS-1$
+        assertTrue(html.contains("50.0")); // tokens per second //$NON-NLS-1$
+        assertTrue(html.contains("get_diagnostics")); //$NON-NLS-1$
+    }
 }
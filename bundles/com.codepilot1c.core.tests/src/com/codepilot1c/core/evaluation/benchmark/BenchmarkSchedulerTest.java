@@ -0,0 +1,243 @@
+package com.codepilot1c.core.evaluation.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+import com.codepilot1c.core.model.LlmRequest;
+import com.codepilot1c.core.model.LlmResponse;
+import com.codepilot1c.core.model.LlmStreamChunk;
+import com.codepilot1c.core.provider.ILlmProvider;
+import com.codepilot1c.core.provider.LlmProviderException;
+
+public class BenchmarkSchedulerTest {
+
+    private static final BenchmarkScheduler.Limits LIMITS =
+            new BenchmarkScheduler.Limits(3, 2, 0, 1, 3, 1, 5);
+
+    @Test
+    public void respectsGlobalAndPerProviderLimits() {
+        BenchmarkScheduler scheduler = new BenchmarkScheduler(LIMITS);
+        List<CompletableFuture<String>> gates = new ArrayList<>();
+        List<String> started = new ArrayList<>();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (String pid : List.of("a", "a", "a", "b", "b")) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+            CompletableFuture<String> gate = new CompletableFuture<>();
+            gates.add(gate);
+            results.add(scheduler.submit(pid, false, () -> {
+                started.add(pid);
+                return gate;
+            }));
+        }
+
+        // Third "a" waits for its provider, first "b" fills the global limit
+        assertEquals(List.of("a", "a", "b"), started); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+        gates.get(0).complete("done"); //$NON-NLS-1$
+        assertEquals(List.of("a", "a", "b", "a"), started); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        assertEquals("done", results.get(0).join()); //$NON-NLS-1$
+
+        gates.forEach(g -> g.complete("done")); //$NON-NLS-1$
+        assertEquals(5, started.size());
+        assertTrue(results.stream().allMatch(CompletableFuture::isDone));
+    }
+
+    @Test
+    public void exclusiveRunsDoNotOverlap() {
+        BenchmarkScheduler scheduler = new BenchmarkScheduler(LIMITS);
+        AtomicInteger exclusiveRunning = new AtomicInteger();
+        List<CompletableFuture<Void>> gates = new ArrayList<>();
+        List<String> started = new ArrayList<>();
+        String[][] runs = { { "a", "x" }, { "b", "x" }, { "b", "r" } }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+        for (String[] run : runs) {
+            boolean exclusive = "x".equals(run[1]); //$NON-NLS-1$
+            CompletableFuture<Void> gate = new CompletableFuture<>();
+            gates.add(gate);
+            scheduler.submit(run[0], exclusive, () -> {
+                if (exclusive && exclusiveRunning.incrementAndGet() > 1) {
+                    fail("Exclusive runs overlapped"); //$NON-NLS-1$
+                }
+                started.add(run[0] + run[1]);
+                return gate.whenComplete((v, e) -> {
+                    if (exclusive) {
+                        exclusiveRunning.decrementAndGet();
+                    }
+                });
+            });
+        }
+
+        // The read-only run is not held back by the waiting exclusive one
+        assertEquals(List.of("ax", "br"), started); //$NON-NLS-1$ //$NON-NLS-2$
+        gates.get(0).complete(null);
+        assertEquals(List.of("ax", "br", "bx"), started); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    @Test
+    public void failingRunReleasesItsSlot() {
+        BenchmarkScheduler scheduler = new BenchmarkScheduler(new BenchmarkScheduler.Limits(1, 1, 0, 1, 0, 1, 1));
+        CompletableFuture<String> failed = scheduler.submit("a", false, () -> { //$NON-NLS-1$
+            throw new IllegalStateException("boom"); //$NON-NLS-1$
+        });
+        CompletableFuture<String> next = scheduler.submit("a", false, //$NON-NLS-1$
+                () -> CompletableFuture.completedFuture("ok")); //$NON-NLS-1$
+
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals("ok", next.join()); //$NON-NLS-1$
+    }
+
+    @Test
+    public void tokenBucketAllowsBurstThenPacesRequests() {
+        AtomicLong now = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(60, 2, now::get);
+
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertEquals(TimeUnit.SECONDS.toNanos(1), bucket.reserve());
+        // Reservations queue up behind each other
+        assertEquals(TimeUnit.SECONDS.toNanos(2), bucket.reserve());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(0, bucket.reserve());
+    }
+
+    @Test
+    public void latencyStatsUseNearestRank() {
+        List<Long> samples = new ArrayList<>();
+        for (long i = 100; i >= 1; i--) {
+            samples.add(i);
+        }
+        LatencyStats stats = LatencyStats.of(samples);
+
+        assertEquals(100, stats.count());
+        assertEquals(50, stats.p50Ms());
+        assertEquals(95, stats.p95Ms());
+        assertEquals(99, stats.p99Ms());
+        assertEquals(100, stats.maxMs());
+        assertEquals(50.5, stats.meanMs(), 1e-9);
+        assertTrue(LatencyStats.of(List.of()).isEmpty());
+    }
+
+    @Test
+    public void retriesRateLimitedStreamBeforeAnythingIsForwarded() {
+        FlakyProvider delegate = new FlakyProvider(2, 429);
+        MeteredLlmProvider metered = new MeteredLlmProvider(delegate, new TokenBucket(0, 1), LIMITS);
+        List<LlmStreamChunk> received = new ArrayList<>();
+
+        metered.streamComplete(null, received::add);
+
+        assertEquals(3, delegate.calls.get());
+        assertEquals(3, received.size());
+        assertFalse(received.stream().anyMatch(c -> c.getErrorMessage() != null));
+        MeteredLlmProvider.Metrics metrics = metered.metrics();
+        assertEquals(3, metrics.requests());
+        assertEquals(2, metrics.retries());
+        assertEquals(1, metrics.firstTokenLatenciesMs().size());
+        assertEquals(7, metrics.completionTokens());
+    }
+
+    @Test
+    public void requestsServedLocallyTakeNoRateLimitPermit() {
+        AtomicLong now = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(60, 1, now::get);
+        FlakyProvider delegate = new FlakyProvider(0, 0);
+        MeteredLlmProvider replayed = new MeteredLlmProvider(delegate, bucket, LIMITS, request -> true);
+
+        for (int i = 0; i < 3; i++) {
+            replayed.streamComplete(null, chunk -> { });
+        }
+
+        assertEquals(3, replayed.metrics().requests());
+        assertEquals(0L, replayed.metrics().rateLimitWaitMs());
+        // The single burst permit is still there for a request that reaches the provider
+        assertEquals(0L, bucket.reserve());
+        assertTrue(bucket.reserve() > 0);
+    }
+
+    @Test
+    public void doesNotRetryClientErrors() {
+        FlakyProvider delegate = new FlakyProvider(1, 400);
+        MeteredLlmProvider metered = new MeteredLlmProvider(delegate, new TokenBucket(0, 1), LIMITS);
+        List<LlmStreamChunk> received = new ArrayList<>();
+
+        try {
+            metered.streamComplete(null, received::add);
+            fail("Expected the provider error to propagate"); //$NON-NLS-1$
+        } catch (LlmProviderException e) {
+            assertEquals(400, e.getStatusCode());
+        }
+        assertEquals(1, delegate.calls.get());
+        // The held error chunk is delivered once the failure is final
+        assertEquals(1, received.size());
+        assertTrue(received.get(0).getErrorMessage() != null);
+    }
+
+    /**
+     * Streaming provider that fails a number of times before answering.
+     */
+    private static final class FlakyProvider implements ILlmProvider {
+
+        private final int failures;
+        private final int statusCode;
+        final AtomicInteger calls = new AtomicInteger();
+
+        FlakyProvider(int failures, int statusCode) {
+            this.failures = failures;
+            this.statusCode = statusCode;
+        }
+
+        @Override
+        public String getId() {
+            return "flaky"; //$NON-NLS-1$
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "Flaky"; //$NON-NLS-1$
+        }
+
+        @Override
+        public boolean isConfigured() {
+            return true;
+        }
+
+        @Override
+        public boolean supportsStreaming() {
+            return true;
+        }
+
+        @Override
+        public CompletableFuture<LlmResponse> complete(LlmRequest request) {
+            return CompletableFuture.failedFuture(new UnsupportedOperationException());
+        }
+
+        @Override
+        public void streamComplete(LlmRequest request, Consumer<LlmStreamChunk> consumer) {
+            if (calls.incrementAndGet() <= failures) {
+                consumer.accept(LlmStreamChunk.error("HTTP " + statusCode)); //$NON-NLS-1$
+                throw new LlmProviderException("HTTP " + statusCode, null, statusCode, null); //$NON-NLS-1$
+            }
+            consumer.accept(LlmStreamChunk.content("hello")); //$NON-NLS-1$
+            consumer.accept(LlmStreamChunk.usage(new LlmResponse.Usage(5, 7, 12)));
+            consumer.accept(LlmStreamChunk.complete("stop")); //$NON-NLS-1$
+        }
+
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public void dispose() {
+        }
+    }
+}
@@ -13,6 +13,7 @@ import org.junit.Before;
 
 import com.codepilot1c.core.evaluation.trace.AgentTraceSession;
 import com.codepilot1c.core.evaluation.trace.ArtifactLayout;
+import com.codepilot1c.core.evaluation.trace.TraceWriter;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
@@ -39,11 +40,13 @@ public abstract class AbstractTraceTest {
     }
 
     protected JsonObject readJson(Path file) throws IOException {
+        TraceWriter.flushAll();
         assertTrue("Expected file to exist: " + file, Files.exists(file));
         return JsonParser.parseString(Files.readString(file, StandardCharsets.UTF_8)).getAsJsonObject();
     }
 
     protected List<JsonObject> readJsonLines(Path file) throws IOException {
+        TraceWriter.flushAll();
         assertTrue("Expected file to exist: " + file, Files.exists(file));
         return Files.readAllLines(file, StandardCharsets.UTF_8).stream()
                 .filter(line -> !line.isBlank())
@@ -0,0 +1,237 @@
+package com.codepilot1c.core.evaluation.trace.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.codepilot1c.core.evaluation.trace.LlmRequestFingerprint;
+import com.codepilot1c.core.evaluation.trace.LlmResponseStore;
+import com.codepilot1c.core.evaluation.trace.RecordReplayLlmProvider;
+import com.codepilot1c.core.evaluation.trace.RecordReplayLlmProvider.Mode;
+import com.codepilot1c.core.evaluation.trace.RecordReplayLlmProvider.Timing;
+import com.codepilot1c.core.evaluation.trace.RecordedLlmResponse;
+import com.codepilot1c.core.model.LlmMessage;
+import com.codepilot1c.core.model.LlmRequest;
+import com.codepilot1c.core.model.LlmResponse;
+import com.codepilot1c.core.model.LlmStreamChunk;
+import com.codepilot1c.core.model.ToolCall;
+import com.codepilot1c.core.model.ToolDefinition;
+import com.codepilot1c.core.provider.ILlmProvider;
+import com.codepilot1c.core.provider.LlmProviderException;
+
+public class RecordReplayLlmProviderTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void fingerprintIgnoresCallIdsKeyOrderAndToolOrder() {
+        LlmRequest first = request("call_abc", "{\"path\":\"a.bsl\",\"limit\":5}", //$NON-NLS-1$ //$NON-NLS-2$
+                List.of(tool("read_file"), tool("grep"))); //$NON-NLS-1$ //$NON-NLS-2$
+        LlmRequest second = request("call_xyz", "{\"limit\":5, \"path\":\"a.bsl\"}", //$NON-NLS-1$ //$NON-NLS-2$
+                List.of(tool("grep"), tool("read_file"))); //$NON-NLS-1$ //$NON-NLS-2$
+        LlmRequest different = request("call_abc", "{\"path\":\"b.bsl\",\"limit\":5}", //$NON-NLS-1$ //$NON-NLS-2$
+                List.of(tool("read_file"), tool("grep"))); //$NON-NLS-1$ //$NON-NLS-2$
+
+        assertEquals(LlmRequestFingerprint.of("p", first), LlmRequestFingerprint.of("p", second)); //$NON-NLS-1$ //$NON-NLS-2$
+        assertNotEquals(LlmRequestFingerprint.of("p", first), LlmRequestFingerprint.of("p", different)); //$NON-NLS-1$ //$NON-NLS-2$
+        assertNotEquals(LlmRequestFingerprint.of("p", first), LlmRequestFingerprint.of("q", first)); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    @Test
+    public void recordedResponseReplaysStrictlyWithoutCallingProvider() throws Exception {
+        FakeProvider delegate = new FakeProvider();
+        LlmRequest request = request("call_1", "{}", List.of()); //$NON-NLS-1$ //$NON-NLS-2$
+        try (LlmResponseStore store = LlmResponseStore.open(temp.getRoot().toPath())) {
+            new RecordReplayLlmProvider(delegate, store, Mode.RECORD, Timing.FULL_SPEED)
+                    .complete(request).join();
+        }
+        assertEquals(1, delegate.calls.get());
+
+        try (LlmResponseStore store = LlmResponseStore.open(temp.getRoot().toPath())) {
+            RecordReplayLlmProvider replay =
+                    new RecordReplayLlmProvider(delegate, store, Mode.REPLAY_STRICT, Timing.FULL_SPEED);
+            LlmResponse response = replay.complete(request).join();
+            assertEquals("answer", response.getContent()); //$NON-NLS-1$
+            assertEquals(1, response.getToolCalls().size());
+            assertEquals(7, response.getUsage().getCompletionTokens());
+
+            // The same recording is served to the streaming API
+            List<LlmStreamChunk> chunks = new ArrayList<>();
+            replay.streamComplete(request, chunks::add);
+            assertTrue(chunks.stream().anyMatch(c -> "answer".equals(c.getContent()))); //$NON-NLS-1$
+            assertTrue(chunks.get(chunks.size() - 1).isComplete());
+
+            try {
+                replay.complete(request("call_1", "{\"other\":1}", List.of())).join(); //$NON-NLS-1$ //$NON-NLS-2$
+                fail("Strict replay must not fall back to the provider"); //$NON-NLS-1$
+            } catch (CompletionException e) {
+                assertTrue(e.getCause() instanceof LlmProviderException);
+            }
+            assertTrue(replay.hasRecording(request));
+            assertFalse(replay.hasRecording(request("call_1", "{\"other\":1}", List.of()))); //$NON-NLS-1$ //$NON-NLS-2$
+            assertEquals(2, store.stats().hits());
+
+            // The registry owns the delegate; disposing the decorator must leave it usable
+            replay.dispose();
+            assertFalse(delegate.disposed);
+        }
+        assertEquals(1, delegate.calls.get());
+    }
+
+    @Test
+    public void streamingRecordingReplaysWithOriginalTiming() throws Exception {
+        FakeProvider delegate = new FakeProvider();
+        LlmRequest request = request("call_1", "{}", List.of()); //$NON-NLS-1$ //$NON-NLS-2$
+        try (LlmResponseStore store = LlmResponseStore.open(temp.getRoot().toPath())) {
+            RecordReplayLlmProvider provider =
+                    new RecordReplayLlmProvider(delegate, store, Mode.REPLAY_OR_RECORD, Timing.ORIGINAL);
+            List<LlmStreamChunk> live = new ArrayList<>();
+            provider.streamComplete(request, live::add);
+            assertEquals(1, delegate.calls.get());
+
+            List<LlmStreamChunk> replayed = new ArrayList<>();
+            long started = System.nanoTime();
+            provider.streamComplete(request, replayed::add);
+            long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+            assertEquals(1, delegate.calls.get());
+            assertTrue("replay kept the recorded pacing: " + elapsedMs, elapsedMs >= 40); //$NON-NLS-1$
+            assertEquals(contentOf(live), contentOf(replayed));
+        }
+    }
+
+    @Test
+    public void tornTailIsTruncatedAndSegmentsRotate() throws Exception {
+        Path dir = temp.getRoot().toPath();
+        String keyA = LlmRequestFingerprint.of("p", request("a", "{}", List.of())); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        String keyB = LlmRequestFingerprint.of("p", request("b", "{\"x\":1}", List.of())); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        RecordedLlmResponse response = RecordedLlmResponse.of(LlmResponse.of("cached"), 10); //$NON-NLS-1$
+        try (LlmResponseStore store = LlmResponseStore.open(dir, 64)) {
+            store.put(keyA, response);
+            store.put(keyB, response);
+            assertEquals(2, store.stats().segments());
+        }
+        Path last;
+        try (Stream<Path> files = Files.list(dir)) {
+            last = files.sorted().reduce((a, b) -> b).orElseThrow();
+        }
+        long intact = Files.size(last);
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 1, 2, 3 }));
+        }
+
+        try (LlmResponseStore store = LlmResponseStore.open(dir, 64)) {
+            assertEquals(2, store.stats().entries());
+            assertEquals("cached", store.get(keyB).orElseThrow().toResponse().getContent()); //$NON-NLS-1$
+        }
+        assertEquals(intact, Files.size(last));
+    }
+
+    private static String contentOf(List<LlmStreamChunk> chunks) {
+        StringBuilder sb = new StringBuilder();
+        chunks.forEach(c -> sb.append(c.getContent() != null ? c.getContent() : "")); //$NON-NLS-1$
+        return sb.toString();
+    }
+
+    private static LlmRequest request(String callId, String arguments, List<ToolDefinition> tools) {
+        return LlmRequest.builder()
+                .model("test-model") //$NON-NLS-1$
+                .systemMessage("system") //$NON-NLS-1$
+                .userMessage("read the module") //$NON-NLS-1$
+                .addMessage(new LlmMessage(LlmMessage.Role.ASSISTANT, null,
+                        List.of(new ToolCall(callId, "read_file", arguments)), null)) //$NON-NLS-1$
+                .addMessage(new LlmMessage(LlmMessage.Role.TOOL, "contents", null, callId)) //$NON-NLS-1$
+                .tools(tools)
+                .build();
+    }
+
+    private static ToolDefinition tool(String name) {
+        return new ToolDefinition(name, name + " tool", "{\"type\":\"object\"}"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    private static final class FakeProvider implements ILlmProvider {
+
+        final AtomicInteger calls = new AtomicInteger();
+
+        volatile boolean disposed;
+
+        @Override
+        public String getId() {
+            return "fake-provider"; //$NON-NLS-1$
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "Fake Provider"; //$NON-NLS-1$
+        }
+
+        @Override
+        public boolean isConfigured() {
+            return true;
+        }
+
+        @Override
+        public boolean supportsStreaming() {
+            return true;
+        }
+
+        @Override
+        public CompletableFuture<LlmResponse> complete(LlmRequest request) {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(LlmResponse.builder()
+                    .content("answer") //$NON-NLS-1$
+                    .model("test-model") //$NON-NLS-1$
+                    .usage(new LlmResponse.Usage(11, 7, 18))
+                    .toolCalls(List.of(new ToolCall("call_9", "grep", "{\"q\":\"x\"}"))) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                    .finishReason(LlmResponse.FINISH_REASON_TOOL_USE)
+                    .build());
+        }
+
+        @Override
+        public void streamComplete(LlmRequest request, Consumer<LlmStreamChunk> consumer) {
+            calls.incrementAndGet();
+            consumer.accept(LlmStreamChunk.content("hel")); //$NON-NLS-1$
+            sleep(30);
+            consumer.accept(LlmStreamChunk.content("lo")); //$NON-NLS-1$
+            sleep(30);
+            consumer.accept(LlmStreamChunk.complete(LlmResponse.FINISH_REASON_STOP));
+        }
+
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+        }
+
+        private static void sleep(long ms) {
+            try {
+                Thread.sleep(ms);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
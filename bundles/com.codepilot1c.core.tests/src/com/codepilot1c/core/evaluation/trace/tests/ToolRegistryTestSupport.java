@@ -4,6 +4,7 @@ import java.lang.reflect.Field;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.codepilot1c.core.tools.ITool;
 import com.codepilot1c.core.tools.ToolRegistry;
@@ -22,6 +23,8 @@ final class ToolRegistryTestSupport {
             setField(registry, "tools", new HashMap<String, ITool>());
             setField(registry, "dynamicTools", new ConcurrentHashMap<String, ITool>());
             setField(registry, "gson", new Gson());
+            setField(registry, "surfaceGeneration", new AtomicLong());
+            setField(registry, "surfaceCache", new ConcurrentHashMap<>());
             return registry;
         } catch (ReflectiveOperationException e) {
             throw new IllegalStateException("Failed to create isolated ToolRegistry", e);
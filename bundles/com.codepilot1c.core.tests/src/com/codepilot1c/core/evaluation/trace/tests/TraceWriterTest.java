@@ -1,15 +1,23 @@
 package com.codepilot1c.core.evaluation.trace.tests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.Test;
 
+import com.codepilot1c.core.evaluation.trace.AgentTraceSession;
 import com.codepilot1c.core.evaluation.trace.ArtifactLayout;
 import com.codepilot1c.core.evaluation.trace.RunTraceMetadata;
 import com.codepilot1c.core.evaluation.trace.TraceEvent;
@@ -64,4 +72,140 @@ public class TraceWriterTest extends AbstractTraceTest {
 
         assertTrue(Files.isDirectory(layout.getArtifactsDirectory()));
     }
+
+    @Test
+    public void closeFlushesQueuedEventsBeforeTheFlushInterval() throws Exception {
+        ArtifactLayout layout = ArtifactLayout.create("run-test-close");
+        TraceWriter writer = new TraceWriter(layout, new TraceWriter.Settings(60_000L, 64, 0L, false));
+
+        for (int i = 0; i < 10; i++) {
+            writer.appendTools(event("tool-" + i, "tools", TraceEventType.TOOL_CALL));
+        }
+        writer.close();
+
+        List<String> lines = Files.readAllLines(layout.getToolsFile(), StandardCharsets.UTF_8);
+        assertEquals(10, lines.size());
+        assertTrue(lines.get(9).contains("tool-9"));
+
+        writer.appendTools(event("tool-after-close", "tools", TraceEventType.TOOL_RESULT));
+        writer.flush();
+        assertEquals(11, Files.readAllLines(layout.getToolsFile(), StandardCharsets.UTF_8).size());
+        writer.close();
+    }
+
+    @Test
+    public void countsEventsDroppedOnQueueOverflow() throws Exception {
+        ArtifactLayout layout = ArtifactLayout.create("run-test-drops");
+        TraceWriter writer = new TraceWriter(layout, new TraceWriter.Settings(60_000L, 1, 0L, false));
+
+        int total = 5_000;
+        for (int i = 0; i < total; i++) {
+            writer.appendLlm(event("llm-" + i, "llm", TraceEventType.LLM_REQUEST));
+        }
+        writer.close();
+
+        long written = Files.readAllLines(layout.getLlmFile(), StandardCharsets.UTF_8).size();
+        assertTrue(writer.getDroppedEventCount() > 0);
+        assertEquals(total, written + writer.getDroppedEventCount());
+    }
+
+    @Test
+    public void rotatesStreamFilesBySizeWithGzip() throws Exception {
+        ArtifactLayout layout = ArtifactLayout.create("run-test-rotate");
+        TraceWriter writer = new TraceWriter(layout, new TraceWriter.Settings(60_000L, 64, 200L, true));
+
+        for (int i = 0; i < 3; i++) {
+            writer.appendEvents(event("evt-" + i, "events", TraceEventType.AGENT_STEP));
+            writer.flush();
+        }
+        writer.close();
+
+        Path first = layout.getEventsFile().resolveSibling("events.1.jsonl.gz");
+        Path second = layout.getEventsFile().resolveSibling("events.2.jsonl.gz");
+        assertTrue(Files.exists(first));
+        assertTrue(Files.exists(second));
+        assertFalse(Files.exists(layout.getEventsFile().resolveSibling("events.1.jsonl")));
+        assertTrue(gunzip(first).contains("evt-0"));
+        assertTrue(gunzip(second).contains("evt-1"));
+        List<JsonObject> current = readJsonLines(layout.getEventsFile());
+        assertEquals(1, current.size());
+        assertEquals("evt-2", current.get(0).get("eventId").getAsString());
+    }
+
+    @Test
+    public void completingSessionFlushesEvents() throws Exception {
+        String previous = System.getProperty(TraceWriter.PROP_FLUSH_INTERVAL_MS);
+        System.setProperty(TraceWriter.PROP_FLUSH_INTERVAL_MS, "60000");
+        try {
+            AgentTraceSession session = AgentTraceSession.startMcpSession("session-flush", "http", null, "/mcp");
+            session.writeMcpEvent(TraceEventType.MCP_REQUEST, null, Map.of("method", "tools/list"));
+            session.markCompleted("STOPPED", null);
+
+            List<String> lines = Files.readAllLines(session.getLayout().getMcpFile(), StandardCharsets.UTF_8);
+            assertEquals(1, lines.size());
+            assertTrue(lines.get(0).contains("tools/list"));
+        } finally {
+            if (previous == null) {
+                System.clearProperty(TraceWriter.PROP_FLUSH_INTERVAL_MS);
+            } else {
+                System.setProperty(TraceWriter.PROP_FLUSH_INTERVAL_MS, previous);
+            }
+        }
+    }
+
+    @Test
+    public void uncompletedSessionReleasesItsStreamsWhenIdle() throws Exception {
+        String previous = System.getProperty(TraceWriter.PROP_IDLE_CLOSE_MS);
+        String previousFlush = System.getProperty(TraceWriter.PROP_FLUSH_INTERVAL_MS);
+        System.setProperty(TraceWriter.PROP_IDLE_CLOSE_MS, "100");
+        System.setProperty(TraceWriter.PROP_FLUSH_INTERVAL_MS, "20");
+        try {
+            AgentTraceSession session = AgentTraceSession.startMcpSession("session-abandoned", "http", null, "/mcp");
+            TraceWriter writer = session.getWriter();
+            session.writeMcpEvent(TraceEventType.MCP_REQUEST, null, Map.of("method", "tools/list"));
+            assertTrue(activeWriters().contains(writer));
+
+            // The session is never completed: the writer thread must still let go of it
+            long deadline = System.currentTimeMillis() + 5_000L;
+            while (activeWriters().contains(writer) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20L);
+            }
+            assertFalse(activeWriters().contains(writer));
+            assertEquals(1, Files.readAllLines(session.getLayout().getMcpFile(), StandardCharsets.UTF_8).size());
+
+            session.writeMcpEvent(TraceEventType.MCP_RESPONSE, null, Map.of("method", "tools/list"));
+            writer.flush();
+            assertEquals(2, Files.readAllLines(session.getLayout().getMcpFile(), StandardCharsets.UTF_8).size());
+            session.markCompleted("STOPPED", null);
+        } finally {
+            restore(TraceWriter.PROP_IDLE_CLOSE_MS, previous);
+            restore(TraceWriter.PROP_FLUSH_INTERVAL_MS, previousFlush);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<TraceWriter> activeWriters() throws Exception {
+        Field field = TraceWriter.class.getDeclaredField("ACTIVE");
+        field.setAccessible(true);
+        return (Set<TraceWriter>) field.get(null);
+    }
+
+    private static void restore(String key, String value) {
+        if (value == null) {
+            System.clearProperty(key);
+        } else {
+            System.setProperty(key, value);
+        }
+    }
+
+    private static TraceEvent event(String id, String channel, TraceEventType type) {
+        return new TraceEvent(id, null, "run-test", "session-test", channel, type,
+                Instant.parse("2026-03-06T12:00:00Z"), Map.of("payload", "x".repeat(80)));
+    }
+
+    private static String gunzip(Path file) throws Exception {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
 }
@@ -0,0 +1,122 @@
+package com.codepilot1c.core.git;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.gson.JsonObject;
+
+public class GitResultCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final GitResultCache cache = new GitResultCache();
+    private Path repo;
+    private GitService service;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeGitAvailable();
+        repo = temporaryFolder.newFolder("repo").toPath().toRealPath(); //$NON-NLS-1$
+        run(repo, "git", "init"); //$NON-NLS-1$ //$NON-NLS-2$
+        run(repo, "git", "config", "user.email", "test@example.com"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        run(repo, "git", "config", "user.name", "Test User"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        Files.writeString(repo.resolve("README.md"), "demo\n"); //$NON-NLS-1$ //$NON-NLS-2$
+        run(repo, "git", "add", "README.md"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        run(repo, "git", "commit", "-m", "Initial"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        cache.setTracking(true);
+        service = new GitService(() -> null, () -> null, cache);
+    }
+
+    @Test
+    public void repeatedInspectionIsServedFromMemory() {
+        JsonObject first = status("op-1"); //$NON-NLS-1$
+        JsonObject second = status("op-2"); //$NON-NLS-1$
+
+        assertFalse(first.has("cached")); //$NON-NLS-1$
+        assertTrue(second.get("cached").getAsBoolean()); //$NON-NLS-1$
+        assertEquals("op-2", second.get("op_id").getAsString()); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(first.get("entries"), second.get("entries")); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(1L, cache.stats().hits());
+    }
+
+    @Test
+    public void reportedWorkingTreeChangeInvalidatesEntry() throws Exception {
+        status("op-1"); //$NON-NLS-1$
+        Path readme = repo.resolve("README.md"); //$NON-NLS-1$
+        Files.writeString(readme, "changed\n"); //$NON-NLS-1$
+        cache.markChanged(readme);
+
+        JsonObject after = status("op-2"); //$NON-NLS-1$
+        assertFalse(after.has("cached")); //$NON-NLS-1$
+        assertTrue(after.get("entries").toString().contains("README.md")); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    @Test
+    public void externalCommitChangesFingerprint() throws Exception {
+        JsonObject before = service.inspect("op-1", GitOperation.LOG, repo, Map.of()); //$NON-NLS-1$
+        Files.writeString(repo.resolve("second.txt"), "x\n"); //$NON-NLS-1$ //$NON-NLS-2$
+        run(repo, "git", "add", "second.txt"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        run(repo, "git", "commit", "-m", "Second"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+        JsonObject after = service.inspect("op-2", GitOperation.LOG, repo, Map.of()); //$NON-NLS-1$
+        assertFalse(after.has("cached")); //$NON-NLS-1$
+        assertEquals(1, before.getAsJsonArray("commits").size()); //$NON-NLS-1$
+        assertEquals(2, after.getAsJsonArray("commits").size()); //$NON-NLS-1$
+    }
+
+    @Test
+    public void mutationClearsCache() {
+        service.inspect("op-1", GitOperation.BRANCH_LIST, repo, Map.of()); //$NON-NLS-1$
+        service.mutate("op-2", GitOperation.CREATE_BRANCH, repo, Map.of("branch", "feature")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+        JsonObject branches = service.inspect("op-3", GitOperation.BRANCH_LIST, repo, Map.of()); //$NON-NLS-1$
+        assertFalse(branches.has("cached")); //$NON-NLS-1$
+        assertEquals(2, branches.getAsJsonArray("branches").size()); //$NON-NLS-1$
+        assertEquals(1L, cache.stats().invalidations());
+    }
+
+    @Test
+    public void disabledCacheAlwaysRunsGit() {
+        cache.setTracking(false);
+        status("op-1"); //$NON-NLS-1$
+        assertFalse(status("op-2").has("cached")); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(0, cache.stats().entries());
+    }
+
+    private JsonObject status(String opId) {
+        return service.inspect(opId, GitOperation.STATUS, repo, Map.of());
+    }
+
+    private static void assumeGitAvailable() throws Exception {
+        try {
+            run(null, "git", "--version"); //$NON-NLS-1$ //$NON-NLS-2$
+        } catch (IOException e) {
+            Assume.assumeNoException(e);
+        }
+    }
+
+    private static void run(Path cwd, String... command) throws Exception {
+        ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true);
+        if (cwd != null) {
+            builder.directory(cwd.toFile());
+        }
+        Process process = builder.start();
+        process.getInputStream().readAllBytes();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Command failed: " + String.join(" ", command)); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+}
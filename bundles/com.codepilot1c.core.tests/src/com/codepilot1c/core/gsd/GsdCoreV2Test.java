@@ -25,6 +25,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import com.codepilot1c.core.filesystem.SecureDirectoryMutation.CapabilityPolicy;
+
 /** Focused production-slice tests for schema v2 and its lifecycle boundaries. */
 public class GsdCoreV2Test {
 
@@ -108,7 +110,9 @@ public class GsdCoreV2Test {
     @Test
     public void recoveryAdvancesGenerationAndRejectsAbaSnapshot() throws IOException {
         Path root = secureProject("recovery"); //$NON-NLS-1$
-        GsdStateStore store = new GsdStateStore(root);
+        // Recovery from state.json.bak needs the second commit to be a snapshot, not a journal record
+        GsdStateStore store = new GsdStateStore(root, null, CapabilityPolicy.REQUIRE_SECURE,
+                GsdStateStore.Tuning.SNAPSHOT_PER_COMMIT);
         GsdState first = store.save(GsdState.fresh("cycle-a")); //$NON-NLS-1$
         GsdState second = store.save(first.withPhase(GsdPhase.PLANNING));
         assertEquals(first.generation(), second.generation());
@@ -144,7 +148,7 @@ public class GsdCoreV2Test {
         GsdCommitOutcome outcome = store.commit(GsdState.fresh("cycle-projection")); //$NON-NLS-1$
 
         assertTrue(outcome.committed());
-        assertTrue(outcome.hasWarnings());
+        assertEquals(1, store.flushProjections().size());
         assertEquals(1L, outcome.state().revision());
         assertTrue(Files.isRegularFile(store.getGsdDirectory().resolve(GsdStateStore.STATE_JSON)));
         assertEquals(outcome.state(), store.loadReadOnly());
@@ -418,9 +422,12 @@ public class GsdCoreV2Test {
         Path root = secureProject("workflow-projection-warning"); //$NON-NLS-1$
         GsdStateStore store = new GsdStateStore(root);
         GsdState initial = store.save(GsdState.fresh("cycle-warning")); //$NON-NLS-1$
+        assertTrue(store.flushProjections().isEmpty());
         Path stateProjection = store.getGsdDirectory().resolve(GsdProjections.STATE_FILE);
         Files.delete(stateProjection);
         Files.createDirectory(stateProjection);
+        // The failure is kept until a regeneration succeeds, so every later commit reports it
+        assertEquals(1, store.flushProjections().size());
 
         GsdState state = warned(GsdWorkflowService.recordDecisionWithOutcome(
                 root.toString(), initial.token(), "d1", "scope", "ship", List.of())); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
@@ -18,6 +18,7 @@ import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.After;
 import org.junit.Before;
@@ -174,6 +175,8 @@ public class GsdFeatureDisablementIntegrationTest {
                 new ConcurrentHashMap<String, DynamicToolCapability>());
         setField(result, "effectiveToolSlots", new HashMap<>()); //$NON-NLS-1$
         setField(result, "gson", new Gson()); //$NON-NLS-1$
+        setField(result, "surfaceGeneration", new AtomicLong()); //$NON-NLS-1$
+        setField(result, "surfaceCache", new ConcurrentHashMap<>()); //$NON-NLS-1$
         setField(result, "descriptorRegistry", ToolDescriptorRegistry.createDetached()); //$NON-NLS-1$
         setField(result, "augmentor", ToolSurfaceAugmentor.passthrough()); //$NON-NLS-1$
         setField(result, "executionService", new ToolExecutionService(result)); //$NON-NLS-1$
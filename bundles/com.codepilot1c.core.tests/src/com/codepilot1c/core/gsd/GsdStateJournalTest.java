@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.gsd;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.codepilot1c.core.filesystem.SecureDirectoryMutation.CapabilityPolicy;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Journaled persistence of {@link GsdStateStore}: appends, compaction, torn and damaged
+ * journals, stale journals after an interrupted compaction, background projections, and a
+ * seeded recovery fuzz test over random crashes.
+ */
+public class GsdStateJournalTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final GsdStateStore.Tuning JOURNAL_ONLY =
+            new GsdStateStore.Tuning(1_000, 1L << 20, 0L);
+
+    private Path secureProject(String name) throws IOException {
+        return GsdTestSupport.secureProject(tmp.newFolder(name).toPath());
+    }
+
+    private static GsdStateStore store(Path root, GsdStateStore.Tuning tuning) throws IOException {
+        return new GsdStateStore(root, null, CapabilityPolicy.REQUIRE_SECURE, tuning);
+    }
+
+    /** Changes a scalar, edits one array element and appends another. */
+    private static GsdState mutate(GsdState state, int step) {
+        List<GsdDecision> decisions = new ArrayList<>(state.decisions());
+        if (!decisions.isEmpty() && step % 3 == 0) {
+            GsdDecision first = decisions.get(0);
+            decisions.set(0, GsdDecision.of(first.id(), first.summary() + " revised", //$NON-NLS-1$
+                    "step " + step)); //$NON-NLS-1$
+        }
+        if (step % 4 != 3) {
+            decisions.add(GsdDecision.of("decision-" + step, "summary " + step, "rationale " + step)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        }
+        return new GsdState(state.schemaVersion(), state.cycleId(), state.generation(),
+                state.revision(), state.phase(), "goal " + step, state.acceptanceCriteria(), //$NON-NLS-1$
+                decisions, state.tasks(), state.waves(), state.evidence(), state.shipment(),
+                state.transitionHistory(), state.usedCycleIds(),
+                step % 5 == 4 ? GsdSessionPointer.of("session-" + step, "stream") //$NON-NLS-1$ //$NON-NLS-2$
+                        : state.sessionPointer());
+    }
+
+    @Test
+    public void recordReplaysToTheCommittedTree() {
+        JsonObject base = JsonParser.parseString("{\"cycleId\":\"c\",\"generation\":0,\"revision\":1," //$NON-NLS-1$
+                + "\"goal\":\"a\",\"items\":[1,2,3,4],\"gone\":true}").getAsJsonObject(); //$NON-NLS-1$
+        JsonObject next = JsonParser.parseString("{\"cycleId\":\"c\",\"generation\":0,\"revision\":2," //$NON-NLS-1$
+                + "\"goal\":\"b\",\"items\":[1,9,3,4,5]}").getAsJsonObject(); //$NON-NLS-1$
+
+        byte[] header = GsdStateJournal.header(GsdStateJournal.tokenOf(base), 7L);
+        byte[] record = GsdStateJournal.record(base, next);
+        GsdStateJournal.Parsed parsed = GsdStateJournal.parse(concat(header, record));
+        String recordJson = new String(record, StandardCharsets.UTF_8);
+
+        assertNull(parsed.corruption);
+        assertEquals(1, parsed.records.size());
+        assertTrue(GsdStateJournal.extendsSnapshot(parsed, GsdStateJournal.tokenOf(base), 7L));
+        assertFalse(GsdStateJournal.extendsSnapshot(parsed, GsdStateJournal.tokenOf(base), 8L));
+        assertTrue("changed element is patched, not rewritten", recordJson.contains("\"patch\":{\"items\":{\"1\":9}}")); //$NON-NLS-1$ //$NON-NLS-2$
+        assertTrue(recordJson.contains("\"append\":{\"items\":[5]}")); //$NON-NLS-1$
+        assertTrue(recordJson.contains("\"remove\":[\"gone\"]")); //$NON-NLS-1$
+        GsdStateJournal.Replay replay = GsdStateJournal.replay(base, parsed.records);
+        assertNull(replay.corruption);
+        assertEquals(next, replay.tree);
+        assertEquals(4, base.getAsJsonArray("items").size()); //$NON-NLS-1$
+    }
+
+    @Test
+    public void tornTailIsDroppedButDamageBeforeTheEndIsCorruption() {
+        JsonObject base = JsonParser.parseString("{\"cycleId\":\"c\",\"generation\":0,\"revision\":1}") //$NON-NLS-1$
+                .getAsJsonObject();
+        JsonObject next = JsonParser.parseString("{\"cycleId\":\"c\",\"generation\":0,\"revision\":2}") //$NON-NLS-1$
+                .getAsJsonObject();
+        byte[] header = GsdStateJournal.header(GsdStateJournal.tokenOf(base), 1L);
+        byte[] journal = concat(header, GsdStateJournal.record(base, next));
+
+        GsdStateJournal.Parsed torn = GsdStateJournal.parse(Arrays.copyOf(journal, journal.length - 3));
+        assertTrue(torn.tornTail);
+        assertNull(torn.corruption);
+        assertEquals(header.length, torn.validLength);
+        assertTrue(torn.records.isEmpty());
+
+        byte[] damaged = concat(journal, GsdStateJournal.record(next, next));
+        damaged[header.length + 12] ^= 0x20;
+        GsdStateJournal.Parsed corrupt = GsdStateJournal.parse(damaged);
+        assertNotNull(corrupt.corruption);
+        assertTrue(corrupt.records.isEmpty());
+    }
+
+    @Test
+    public void ordinaryCommitsAppendWithoutRewritingTheSnapshot() throws IOException {
+        Path root = secureProject("append"); //$NON-NLS-1$
+        GsdStateStore store = store(root, JOURNAL_ONLY);
+        GsdState state = store.save(mutate(store.load(), 0));
+        Path gsd = store.getGsdDirectory();
+        byte[] snapshot = Files.readAllBytes(gsd.resolve(GsdStateStore.STATE_JSON));
+        assertFalse(Files.exists(gsd.resolve(GsdStateStore.STATE_JOURNAL)));
+
+        for (int step = 1; step <= 4; step++) {
+            state = store.save(mutate(state, step));
+        }
+
+        assertArrayEquals(snapshot, Files.readAllBytes(gsd.resolve(GsdStateStore.STATE_JSON)));
+        assertEquals(5, Files.readAllLines(gsd.resolve(GsdStateStore.STATE_JOURNAL)).size());
+        assertEquals(state, store(root, JOURNAL_ONLY).load());
+        assertEquals(state, store(root, JOURNAL_ONLY).loadReadOnly());
+        assertEquals(5L, state.revision());
+    }
+
+    @Test
+    public void journalIsCompactedIntoASnapshotEveryInterval() throws IOException {
+        Path root = secureProject("compaction"); //$NON-NLS-1$
+        GsdStateStore store = store(root, new GsdStateStore.Tuning(3, 1L << 20, 0L));
+        GsdState state = store.save(mutate(store.load(), 0));
+        List<GsdState> committed = new ArrayList<>();
+        for (int step = 1; step <= 3; step++) {
+            state = store.save(mutate(state, step));
+            committed.add(state);
+        }
+        Path gsd = store.getGsdDirectory();
+
+        GsdState snapshot = new GsdStateStore(root).loadReadOnly();
+        assertEquals(state, snapshot);
+        assertTrue(Files.readString(gsd.resolve(GsdStateStore.STATE_JSON)).contains("\"revision\": 4")); //$NON-NLS-1$
+        assertTrue("backup holds the journaled predecessor", Files.readString( //$NON-NLS-1$
+                gsd.resolve(GsdStateStore.STATE_BAK)).contains("\"revision\": 3")); //$NON-NLS-1$
+        assertEquals("journal is reset to its header", 1, //$NON-NLS-1$
+                Files.readAllLines(gsd.resolve(GsdStateStore.STATE_JOURNAL)).size());
+        assertEquals(committed.get(2), store.load());
+    }
+
+    @Test
+    public void tornAppendIsDroppedAndOverwrittenByTheNextCommit() throws IOException {
+        Path root = secureProject("torn"); //$NON-NLS-1$
+        GsdStateStore store = store(root, JOURNAL_ONLY);
+        GsdState state = store.save(mutate(store.load(), 0));
+        state = store.save(mutate(state, 1));
+        Path journal = store.getGsdDirectory().resolve(GsdStateStore.STATE_JOURNAL);
+        Files.write(journal, "0badc0de {\"type\":\"comm".getBytes(StandardCharsets.US_ASCII), //$NON-NLS-1$
+                java.nio.file.StandardOpenOption.APPEND);
+
+        assertEquals(state, store.load());
+        GsdState next = store.save(mutate(state, 2));
+
+        assertEquals(next, store(root, JOURNAL_ONLY).load());
+        assertFalse(Files.readString(journal).contains("0badc0de")); //$NON-NLS-1$
+    }
+
+    @Test
+    public void damagedRecordRecoversTheIntactPrefixWithANewGeneration() throws IOException {
+        Path root = secureProject("damaged"); //$NON-NLS-1$
+        GsdStateStore store = store(root, JOURNAL_ONLY);
+        GsdState state = store.save(mutate(store.load(), 0));
+        GsdState first = store.save(mutate(state, 1));
+        GsdState second = store.save(mutate(first, 2));
+        Path gsd = store.getGsdDirectory();
+        Path journal = gsd.resolve(GsdStateStore.STATE_JOURNAL);
+        List<String> lines = new ArrayList<>(Files.readAllLines(journal));
+        lines.set(2, lines.get(2).replace("goal 2", "goal X")); //$NON-NLS-1$ //$NON-NLS-2$
+        lines.add(lines.get(2));
+        Files.write(journal, lines);
+
+        try {
+            store.save(mutate(second, 3));
+            fail("commit over a damaged journal must fail closed"); //$NON-NLS-1$
+        } catch (GsdCorruptException expected) {
+            assertTrue(expected.getMessage().contains("recovery")); //$NON-NLS-1$
+        }
+        GsdState recovered = store.load();
+
+        assertEquals(first.recovered(), recovered);
+        assertTrue(Files.exists(gsd.resolve(GsdStateStore.STATE_JOURNAL_CORRUPT)));
+        assertFalse(Files.exists(journal));
+        GsdState next = store.save(mutate(recovered, 3));
+        assertEquals(next, store(root, JOURNAL_ONLY).load());
+    }
+
+    @Test
+    public void journalLeftBehindByAnInterruptedCompactionIsIgnoredAndKept() throws IOException {
+        Path root = secureProject("stale"); //$NON-NLS-1$
+        GsdStateStore store = store(root, new GsdStateStore.Tuning(3, 1L << 20, 0L));
+        GsdState state = store.save(mutate(store.load(), 0));
+        state = store.save(mutate(state, 1));
+        state = store.save(mutate(state, 2));
+        Path journal = store.getGsdDirectory().resolve(GsdStateStore.STATE_JOURNAL);
+        byte[] beforeCompaction = Files.readAllBytes(journal);
+        GsdState compacted = store.save(mutate(state, 3));
+        // Crash after state.json was replaced but before the journal was reset.
+        Files.write(journal, beforeCompaction);
+
+        assertEquals(compacted, store.load());
+        assertEquals(compacted, store.loadReadOnly());
+        GsdState next = store.save(mutate(compacted, 4));
+
+        assertEquals(next, store(root, JOURNAL_ONLY).load());
+        assertArrayEquals(beforeCompaction, Files.readAllBytes(
+                store.getGsdDirectory().resolve(GsdStateStore.STATE_JOURNAL_STALE)));
+    }
+
+    @Test
+    public void projectionsAreRegeneratedInTheBackgroundFromTheLatestState() throws IOException {
+        Path root = secureProject("projections"); //$NON-NLS-1$
+        GsdStateStore store = store(root, new GsdStateStore.Tuning(1_000, 1L << 20, 60_000L));
+        GsdState state = store.load();
+        for (int step = 0; step < 3; step++) {
+            state = store.save(mutate(state, step));
+        }
+        Path stateMd = store.getGsdDirectory().resolve(GsdProjections.STATE_FILE);
+        assertFalse("regeneration waits for the delay", //$NON-NLS-1$
+                Files.readString(stateMd).equals(GsdProjections.toStateMd(state)));
+
+        assertTrue(store.flushProjections().isEmpty());
+
+        assertEquals(GsdProjections.toStateMd(state), Files.readString(stateMd));
+        assertEquals(GsdProjections.toPlanMd(state), Files.readString(
+                store.getGsdDirectory().resolve(GsdProjections.PLAN_FILE)));
+    }
+
+    @Test
+    public void backgroundProjectionFailureIsReportedByTheNextCommit() throws IOException {
+        Path root = secureProject("projection-failure"); //$NON-NLS-1$
+        GsdStateStore store = store(root, new GsdStateStore.Tuning(1_000, 1L << 20, 60_000L));
+        GsdState state = store.save(mutate(store.load(), 0));
+        Files.delete(store.getGsdDirectory().resolve(GsdProjections.STATE_FILE));
+        Files.createDirectories(store.getGsdDirectory().resolve(GsdProjections.STATE_FILE));
+
+        assertEquals(1, store.flushProjections().size());
+        GsdCommitOutcome outcome = store.commit(mutate(state, 1));
+
+        assertTrue(outcome.committed());
+        assertTrue(outcome.projectionWarnings().get(0).contains("state committed")); //$NON-NLS-1$
+        assertEquals(outcome.state(), store.load());
+    }
+
+    /**
+     * Random commit sequences followed by a random crash image of the journal: a truncated
+     * append, a flipped byte, or trailing garbage. Loading must never invent a state: it yields
+     * a committed state unchanged, or the same content with a recovery generation, and the
+     * store accepts the next commit on top of it.
+     */
+    @Test
+    public void recoveryFuzzOnlyYieldsCommittedStates() throws IOException {
+        Random random = new Random(0x6A5D_2024L);
+        for (int round = 0; round < 60; round++) {
+            Path root = secureProject("fuzz-" + round); //$NON-NLS-1$
+            GsdStateStore.Tuning tuning = new GsdStateStore.Tuning(2 + random.nextInt(8), 1L << 20, 0L);
+            GsdStateStore store = store(root, tuning);
+            List<GsdState> committed = new ArrayList<>();
+            GsdState state = store.load();
+            int commits = 1 + random.nextInt(14);
+            for (int step = 0; step < commits; step++) {
+                state = store.save(mutate(state, step));
+                committed.add(state);
+            }
+            Path journal = store.getGsdDirectory().resolve(GsdStateStore.STATE_JOURNAL);
+            int crash = random.nextInt(3);
+            if (Files.exists(journal) && Files.size(journal) > 0) {
+                byte[] bytes = Files.readAllBytes(journal);
+                switch (crash) {
+                    case 0 -> bytes = Arrays.copyOf(bytes, random.nextInt(bytes.length));
+                    case 1 -> bytes[random.nextInt(bytes.length)] ^= (byte) (1 << random.nextInt(8));
+                    default -> {
+                        byte[] garbage = new byte[1 + random.nextInt(40)];
+                        random.nextBytes(garbage);
+                        for (int i = 0; i < garbage.length; i++) {
+                            garbage[i] = garbage[i] == '\n' ? (byte) ' ' : garbage[i];
+                        }
+                        bytes = concat(bytes, garbage);
+                    }
+                }
+                Files.write(journal, bytes);
+            }
+
+            GsdState loaded = store(root, tuning).load();
+
+            GsdState match = null;
+            for (GsdState candidate : committed) {
+                if (candidate.withGeneration(loaded.generation()).equals(loaded)) {
+                    match = candidate;
+                }
+            }
+            assertNotNull("round " + round + " loaded a state that was never committed", match); //$NON-NLS-1$ //$NON-NLS-2$
+            if (crash == 0 || crash == 2) {
+                assertEquals("round " + round + ": a torn append is not corruption", //$NON-NLS-1$ //$NON-NLS-2$
+                        match.generation(), loaded.generation());
+            }
+            if (loaded.generation() != match.generation()) {
+                assertEquals(match.recovered(), loaded);
+            }
+            GsdState next = store(root, tuning).save(mutate(loaded, commits));
+            assertEquals(next, store(root, tuning).load());
+            assertEquals(next, store(root, tuning).loadReadOnly());
+        }
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] joined = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, joined, first.length, second.length);
+        return joined;
+    }
+}
@@ -33,6 +33,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.Assume;
 import org.junit.rules.TemporaryFolder;
+import org.junit.rules.TestRule;
 
 import com.codepilot1c.core.filesystem.SecureDirectoryCapabilityException;
 import com.codepilot1c.core.filesystem.SecureDirectoryMutation;
@@ -48,6 +49,9 @@ public class GsdStateStoreTest {
     @Rule
     public TemporaryFolder tmp = new TemporaryFolder();
 
+    @Rule
+    public TestRule snapshotPerCommit = GsdTestSupport.snapshotPerCommit();
+
     private Path newProject() throws IOException {
         Path project = tmp.newFolder("project").toPath(); //$NON-NLS-1$
         Assume.assumeTrue("mutation tests require a real SecureDirectoryStream provider", //$NON-NLS-1$
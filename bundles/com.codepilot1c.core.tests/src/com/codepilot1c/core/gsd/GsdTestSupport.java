@@ -10,6 +10,8 @@ import java.nio.file.Path;
 import java.util.List;
 
 import org.junit.Assume;
+import org.junit.rules.ExternalResource;
+import org.junit.rules.TestRule;
 
 import com.codepilot1c.core.filesystem.SecureDirectoryMutation;
 
@@ -19,6 +21,26 @@ public final class GsdTestSupport {
     private GsdTestSupport() {
     }
 
+    /**
+     * Pins stores created during a test to one snapshot per commit with projections written
+     * inside the commit, for tests asserting that on-disk layout.
+     */
+    public static TestRule snapshotPerCommit() {
+        return new ExternalResource() {
+            @Override
+            protected void before() {
+                System.setProperty(GsdStateStore.SNAPSHOT_EVERY_PROPERTY, "1"); //$NON-NLS-1$
+                System.setProperty(GsdStateStore.PROJECTION_DELAY_PROPERTY, "0"); //$NON-NLS-1$
+            }
+
+            @Override
+            protected void after() {
+                System.clearProperty(GsdStateStore.SNAPSHOT_EVERY_PROPERTY);
+                System.clearProperty(GsdStateStore.PROJECTION_DELAY_PROPERTY);
+            }
+        };
+    }
+
     public static Path secureProject(Path project) throws IOException {
         Assume.assumeTrue("GSD mutation test requires a real SecureDirectoryStream provider", //$NON-NLS-1$
                 SecureDirectoryMutation.supportsSecureDirectoryStreams(project));
@@ -579,6 +579,7 @@ public class GsdVerificationGuardTest {
                 List.of(new GsdEvidence("e1", "verified", GsdProvenance.TESTED, List.of("t1"), Instant.EPOCH, GsdPhase.VERIFYING)), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
                 GsdSessionPointer.empty());
         store.save(state);
+        assertTrue(store.flushProjections().isEmpty());
 
         String planMd = Files.readString(store.getGsdDirectory().resolve(GsdProjections.PLAN_FILE), StandardCharsets.UTF_8);
         String stateMd = Files.readString(store.getGsdDirectory().resolve(GsdProjections.STATE_FILE), StandardCharsets.UTF_8);
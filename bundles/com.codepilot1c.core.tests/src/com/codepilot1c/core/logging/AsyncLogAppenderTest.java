@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AsyncLogAppenderTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void flushWritesQueuedEntriesInOrderAndForwardsThem() throws Exception {
+        Path file = temporaryFolder.getRoot().toPath().resolve("logs").resolve("app.log"); //$NON-NLS-1$ //$NON-NLS-2$
+        List<String> forwarded = new CopyOnWriteArrayList<>();
+        AsyncLogAppender<String> appender = new AsyncLogAppender<>("test", line -> line + "\n", //$NON-NLS-1$ //$NON-NLS-2$
+                forwarded::add, settings(64, 0L));
+        appender.setFile(file);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(appender.append(VibeLogger.Level.INFO, "entry " + i)); //$NON-NLS-1$
+        }
+        appender.flush();
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(10, lines.size());
+        assertEquals("entry 0", lines.get(0)); //$NON-NLS-1$
+        assertEquals("entry 9", lines.get(9)); //$NON-NLS-1$
+        assertEquals(lines, forwarded);
+        appender.close();
+    }
+
+    @Test
+    public void fullQueueDropsDebugBeforeInfoAndReportsDrops() throws Exception {
+        Path file = temporaryFolder.getRoot().toPath().resolve("drops.log"); //$NON-NLS-1$
+        AsyncLogAppender<String> appender = new AsyncLogAppender<>("test", line -> line + "\n", //$NON-NLS-1$ //$NON-NLS-2$
+                null, settings(16, 0L));
+        appender.setFile(file);
+        // Hold the writer so nothing is drained while the queue fills up
+        synchronized (lockOf(appender)) {
+            int acceptedDebug = 0;
+            for (int i = 0; i < 16; i++) {
+                if (appender.append(VibeLogger.Level.DEBUG, "debug " + i)) { //$NON-NLS-1$
+                    acceptedDebug++;
+                }
+            }
+            int acceptedInfo = 0;
+            for (int i = 0; i < 16; i++) {
+                if (appender.append(VibeLogger.Level.INFO, "info " + i)) { //$NON-NLS-1$
+                    acceptedInfo++;
+                }
+            }
+            assertTrue(appender.append(VibeLogger.Level.ERROR, "error")); //$NON-NLS-1$
+
+            assertEquals(8, acceptedDebug);
+            assertEquals(6, acceptedInfo);
+            assertEquals(8L, appender.getDroppedCount(VibeLogger.Level.DEBUG));
+            assertEquals(10L, appender.getDroppedCount(VibeLogger.Level.INFO));
+            assertEquals(0L, appender.getDroppedCount(VibeLogger.Level.ERROR));
+        }
+        appender.flush();
+
+        String text = Files.readString(file, StandardCharsets.UTF_8);
+        assertTrue(text.contains("Dropped 18 log entries on queue overflow (DEBUG=8, INFO=10)")); //$NON-NLS-1$
+        assertTrue(text.endsWith("error\n")); //$NON-NLS-1$
+        appender.close();
+    }
+
+    @Test
+    public void rotatesBySizeAndKeepsConfiguredBackups() throws Exception {
+        Path file = temporaryFolder.getRoot().toPath().resolve("rotate.log"); //$NON-NLS-1$
+        AsyncLogAppender<String> appender = new AsyncLogAppender<>("test", line -> line + "\n", //$NON-NLS-1$ //$NON-NLS-2$
+                null, settings(64, 100L));
+        appender.setFile(file);
+
+        for (int i = 0; i < 5; i++) {
+            appender.append(VibeLogger.Level.INFO, String.valueOf(i).repeat(60));
+            appender.flush();
+        }
+        appender.close();
+
+        assertEquals("4".repeat(60), Files.readString(file, StandardCharsets.UTF_8).strip()); //$NON-NLS-1$
+        assertEquals("3".repeat(60), Files.readString(file.resolveSibling("rotate.log.1")).strip()); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals("2".repeat(60), Files.readString(file.resolveSibling("rotate.log.2")).strip()); //$NON-NLS-1$ //$NON-NLS-2$
+        assertFalse(Files.exists(file.resolveSibling("rotate.log.3"))); //$NON-NLS-1$
+    }
+
+    @Test
+    public void clearEmptiesFileAndLaterEntriesReopenIt() throws Exception {
+        Path file = temporaryFolder.getRoot().toPath().resolve("clear.log"); //$NON-NLS-1$
+        AsyncLogAppender<String> appender = new AsyncLogAppender<>("test", line -> line + "\n", //$NON-NLS-1$ //$NON-NLS-2$
+                null, settings(64, 0L));
+        appender.setFile(file);
+        appender.append(VibeLogger.Level.INFO, "old"); //$NON-NLS-1$
+        appender.clear();
+        appender.append(VibeLogger.Level.INFO, "new"); //$NON-NLS-1$
+        appender.flush();
+
+        assertEquals(List.of("new"), Files.readAllLines(file, StandardCharsets.UTF_8)); //$NON-NLS-1$
+        appender.close();
+    }
+
+    @Test
+    public void closeStopsWriterAndLaterEntriesDoNotReopenFile() throws Exception {
+        Path file = temporaryFolder.getRoot().toPath().resolve("closed.log"); //$NON-NLS-1$
+        AsyncLogAppender<String> appender = new AsyncLogAppender<>("closing", line -> line + "\n", //$NON-NLS-1$ //$NON-NLS-2$
+                null, settings(64, 0L));
+        appender.setFile(file);
+        assertTrue(appender.append(VibeLogger.Level.INFO, "before close")); //$NON-NLS-1$
+        Thread writer = writerOf(appender);
+        assertTrue(writer.isAlive());
+
+        appender.close();
+
+        assertFalse(writer.isAlive());
+        assertEquals(List.of("before close"), Files.readAllLines(file, StandardCharsets.UTF_8)); //$NON-NLS-1$
+        Files.delete(file);
+        assertFalse(appender.append(VibeLogger.Level.ERROR, "after close")); //$NON-NLS-1$
+        appender.flush();
+        appender.close();
+        assertFalse(Files.exists(file));
+    }
+
+    private static AsyncLogAppender.Settings settings(int capacity, long maxFileBytes) {
+        return new AsyncLogAppender.Settings(60_000L, capacity, maxFileBytes, 2, false);
+    }
+
+    private static Thread writerOf(AsyncLogAppender<?> appender) throws Exception {
+        Field field = AsyncLogAppender.class.getDeclaredField("writerThread"); //$NON-NLS-1$
+        field.setAccessible(true);
+        return (Thread) field.get(appender);
+    }
+
+    private static Object lockOf(AsyncLogAppender<?> appender) throws Exception {
+        Field field = AsyncLogAppender.class.getDeclaredField("lock"); //$NON-NLS-1$
+        field.setAccessible(true);
+        return field.get(appender);
+    }
+}
@@ -0,0 +1,297 @@
+package com.codepilot1c.core.mcp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.codepilot1c.core.agent.profiles.DynamicToolCapability;
+import com.codepilot1c.core.mcp.config.McpServerConfig;
+import com.codepilot1c.core.mcp.model.McpMessage;
+import com.codepilot1c.core.mcp.model.McpServerState;
+import com.codepilot1c.core.mcp.model.McpTool;
+import com.codepilot1c.core.mcp.transport.IMcpTransport;
+import com.codepilot1c.core.tools.ITool;
+import com.codepilot1c.core.tools.ToolRegistry;
+import com.codepilot1c.core.tools.ToolResult;
+import com.codepilot1c.core.tools.surface.ToolSurfaceAugmentor;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import sun.misc.Unsafe;
+
+public class McpServerManagerTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void lazyServerConnectsOnFirstToolCallAndConcurrentCallsShareOneStart() throws Exception {
+        McpToolCatalogCache cache = new McpToolCatalogCache(temp.getRoot().toPath());
+        McpServerConfig config = config();
+        cache.store(config, "1.0", List.of(tool("search", "object"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        FakeServer server = new FakeServer(List.of(tool("search", "object"))); //$NON-NLS-1$ //$NON-NLS-2$
+        server.connectGate = new CountDownLatch(1);
+        ToolRegistry registry = isolatedRegistry();
+        McpServerManager manager = new McpServerManager(cache, server::transport, () -> registry);
+
+        manager.startServers(List.of(config), true);
+        assertEquals(0, server.connects.get());
+        ITool search = registry.getTool("mcp_local_search"); //$NON-NLS-1$
+        assertNotNull(search);
+
+        CompletableFuture<ToolResult> first = search.execute(Map.of());
+        CompletableFuture<ToolResult> second = search.execute(Map.of());
+        server.connectGate.countDown();
+
+        assertEquals("called search", first.get(5, TimeUnit.SECONDS).getContent()); //$NON-NLS-1$
+        assertEquals("called search", second.get(5, TimeUnit.SECONDS).getContent()); //$NON-NLS-1$
+        assertEquals(1, server.connects.get());
+        assertEquals(McpServerState.RUNNING, manager.getServerState(config.getId()));
+        McpServerManager.ServerMetrics metrics = manager.getServerMetrics(config.getId());
+        assertTrue(metrics.catalogHit());
+        assertTrue(metrics.connectMs() >= 0);
+        assertTrue(metrics.firstCallLatencyMs() >= 0);
+    }
+
+    @Test
+    public void listChangedReregistersOnlyChangedTools() throws Exception {
+        McpToolCatalogCache cache = new McpToolCatalogCache(temp.getRoot().toPath());
+        McpServerConfig config = config();
+        FakeServer server = new FakeServer(List.of(tool("search", "object"), tool("fetch", "object"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        ToolRegistry registry = isolatedRegistry();
+        McpServerManager manager = new McpServerManager(cache, server::transport, () -> registry);
+
+        manager.startServers(List.of(config), false);
+        assertNotNull(manager.startServer(config).get(5, TimeUnit.SECONDS));
+        ITool fetch = registry.getTool("mcp_local_fetch"); //$NON-NLS-1$
+        assertNotNull(fetch);
+        assertNotNull(registry.getTool("mcp_local_search")); //$NON-NLS-1$
+
+        server.tools = List.of(tool("fetch", "object"), tool("open", "object")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        McpMessage notification = new McpMessage();
+        notification.setMethod("notifications/tools/list_changed"); //$NON-NLS-1$
+        server.notificationHandler.accept(notification);
+
+        waitFor(() -> registry.getTool("mcp_local_open") != null); //$NON-NLS-1$
+        assertNull(registry.getTool("mcp_local_search")); //$NON-NLS-1$
+        assertSame(fetch, registry.getTool("mcp_local_fetch")); //$NON-NLS-1$
+        waitFor(() -> cache.load(config).map(catalog -> catalog.tools().size() == 2).orElse(false));
+        assertEquals(1, server.connects.get());
+    }
+
+    @Test
+    public void failedBackgroundStartUnregistersCachedTools() throws Exception {
+        McpToolCatalogCache cache = new McpToolCatalogCache(temp.getRoot().toPath());
+        McpServerConfig config = config();
+        cache.store(config, "1.0", List.of(tool("search", "object"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        FakeServer server = new FakeServer(List.of());
+        server.failConnect = true;
+        ToolRegistry registry = isolatedRegistry();
+        McpServerManager manager = new McpServerManager(cache, server::transport, () -> registry);
+
+        manager.startServers(List.of(config), false);
+
+        waitFor(() -> manager.getServerState(config.getId()) == McpServerState.ERROR);
+        waitFor(() -> registry.getTool("mcp_local_search") == null); //$NON-NLS-1$
+    }
+
+    @Test
+    public void repeatedFailedLazyStartsUnregisterCachedTools() throws Exception {
+        McpToolCatalogCache cache = new McpToolCatalogCache(temp.getRoot().toPath());
+        McpServerConfig config = config();
+        cache.store(config, "1.0", List.of(tool("search", "object"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        FakeServer server = new FakeServer(List.of());
+        server.failConnect = true;
+        ToolRegistry registry = isolatedRegistry();
+        McpServerManager manager = new McpServerManager(cache, server::transport, () -> registry);
+
+        manager.startServers(List.of(config), true);
+        ITool search = registry.getTool("mcp_local_search"); //$NON-NLS-1$
+        for (int i = 1; i < McpServerManager.MAX_LAZY_START_FAILURES; i++) {
+            assertFalse(search.execute(Map.of()).get(5, TimeUnit.SECONDS).isSuccess());
+            assertNotNull(registry.getTool("mcp_local_search")); //$NON-NLS-1$
+        }
+        assertFalse(search.execute(Map.of()).get(5, TimeUnit.SECONDS).isSuccess());
+        assertNull(registry.getTool("mcp_local_search")); //$NON-NLS-1$
+        assertEquals(McpServerManager.MAX_LAZY_START_FAILURES, server.connects.get());
+    }
+
+    private static McpServerConfig config() {
+        return McpServerConfig.builder()
+                .id("srv-1") //$NON-NLS-1$
+                .name("local") //$NON-NLS-1$
+                .enabled(true)
+                .command("fake-mcp") //$NON-NLS-1$
+                .build();
+    }
+
+    private static McpTool tool(String name, String type) {
+        JsonObject schema = new JsonObject();
+        schema.addProperty("type", type); //$NON-NLS-1$
+        return new McpTool(name, name + " tool", schema); //$NON-NLS-1$
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue("condition not met in time", System.nanoTime() < deadline); //$NON-NLS-1$
+            Thread.sleep(10);
+        }
+    }
+
+    private static ToolRegistry isolatedRegistry() throws Exception {
+        ToolRegistry registry = (ToolRegistry) unsafe().allocateInstance(ToolRegistry.class);
+        setField(registry, "tools", new HashMap<String, ITool>()); //$NON-NLS-1$
+        setField(registry, "dynamicTools", new ConcurrentHashMap<String, ITool>()); //$NON-NLS-1$
+        setField(registry, "dynamicToolCapabilities", //$NON-NLS-1$
+                new ConcurrentHashMap<String, DynamicToolCapability>());
+        setField(registry, "gson", new Gson()); //$NON-NLS-1$
+        setField(registry, "surfaceCache", new ConcurrentHashMap<>()); //$NON-NLS-1$
+        setField(registry, "augmentor", ToolSurfaceAugmentor.passthrough()); //$NON-NLS-1$
+        setField(registry, "surfaceGeneration", new AtomicLong()); //$NON-NLS-1$
+        return registry;
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = ToolRegistry.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    private static Unsafe unsafe() throws Exception {
+        Field field = Unsafe.class.getDeclaredField("theUnsafe"); //$NON-NLS-1$
+        field.setAccessible(true);
+        return (Unsafe) field.get(null);
+    }
+
+    /**
+     * In-process MCP server answering initialize, tools/list and tools/call.
+     */
+    private static final class FakeServer {
+
+        final AtomicInteger connects = new AtomicInteger();
+        volatile List<McpTool> tools;
+        volatile CountDownLatch connectGate;
+        volatile boolean failConnect;
+        volatile Consumer<McpMessage> notificationHandler;
+
+        FakeServer(List<McpTool> tools) {
+            this.tools = tools;
+        }
+
+        IMcpTransport transport(McpServerConfig config) {
+            return new IMcpTransport() {
+
+                private volatile boolean connected;
+
+                @Override
+                public void connect() throws IOException {
+                    connects.incrementAndGet();
+                    CountDownLatch gate = connectGate;
+                    if (gate != null) {
+                        try {
+                            gate.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new IOException(e);
+                        }
+                    }
+                    if (failConnect) {
+                        throw new IOException("server process exited"); //$NON-NLS-1$
+                    }
+                    connected = true;
+                }
+
+                @Override
+                public void disconnect() {
+                    connected = false;
+                }
+
+                @Override
+                public boolean isConnected() {
+                    return connected;
+                }
+
+                @Override
+                public CompletableFuture<McpMessage> send(McpMessage message) {
+                    McpMessage response = new McpMessage();
+                    response.setRawId(message.getRawId());
+                    response.setResult(answer(message));
+                    return CompletableFuture.completedFuture(response);
+                }
+
+                @Override
+                public CompletableFuture<Void> sendNotification(McpMessage message) {
+                    return CompletableFuture.completedFuture(null);
+                }
+
+                @Override
+                public void setNotificationHandler(Consumer<McpMessage> handler) {
+                    notificationHandler = handler;
+                }
+
+                @Override
+                public void close() {
+                    disconnect();
+                }
+            };
+        }
+
+        private JsonObject answer(McpMessage request) {
+            Gson gson = new Gson();
+            JsonObject result = new JsonObject();
+            switch (request.getMethod()) {
+                case "initialize" -> { //$NON-NLS-1$
+                    JsonObject capabilities = new JsonObject();
+                    capabilities.add("tools", new JsonObject()); //$NON-NLS-1$
+                    JsonObject serverInfo = new JsonObject();
+                    serverInfo.addProperty("name", "fake"); //$NON-NLS-1$ //$NON-NLS-2$
+                    serverInfo.addProperty("version", "1.0"); //$NON-NLS-1$ //$NON-NLS-2$
+                    result.addProperty("protocolVersion", config().getPreferredProtocolVersion()); //$NON-NLS-1$
+                    result.add("capabilities", capabilities); //$NON-NLS-1$
+                    result.add("serverInfo", serverInfo); //$NON-NLS-1$
+                }
+                case "tools/list" -> { //$NON-NLS-1$
+                    JsonArray list = new JsonArray();
+                    tools.forEach(tool -> list.add(gson.toJsonTree(tool)));
+                    result.add("tools", list); //$NON-NLS-1$
+                }
+                case "tools/call" -> { //$NON-NLS-1$
+                    JsonObject params = gson.toJsonTree(request.getParams()).getAsJsonObject();
+                    JsonObject text = new JsonObject();
+                    text.addProperty("type", "text"); //$NON-NLS-1$ //$NON-NLS-2$
+                    text.addProperty("text", "called " + params.get("name").getAsString()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                    JsonArray content = new JsonArray();
+                    content.add(text);
+                    result.add("content", content); //$NON-NLS-1$
+                }
+                default -> {
+                    // Other requests are acknowledged with an empty result
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.codepilot1c.core.mcp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.codepilot1c.core.mcp.config.McpServerConfig;
+import com.codepilot1c.core.mcp.model.McpTool;
+import com.google.gson.JsonObject;
+
+public class McpToolCatalogCacheTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void catalogRoundTripsForTheSameConfiguration() {
+        McpToolCatalogCache cache = new McpToolCatalogCache(temp.getRoot().toPath());
+        McpServerConfig config = config("server", true); //$NON-NLS-1$
+        cache.store(config, "1.2.0", List.of(tool("search", "object"), tool("fetch", "object"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+
+        McpToolCatalogCache.Catalog catalog = new McpToolCatalogCache(temp.getRoot().toPath())
+                .load(config("server", false)).orElseThrow(); //$NON-NLS-1$
+        assertEquals("1.2.0", catalog.serverVersion()); //$NON-NLS-1$
+        assertEquals(2, catalog.tools().size());
+        assertEquals("search", catalog.tools().get(0).getName()); //$NON-NLS-1$
+        assertEquals("object", catalog.tools().get(0).getInputSchema().get("type").getAsString()); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    @Test
+    public void changedConfigurationOrCorruptFileMissesTheCatalog() throws Exception {
+        Path dir = temp.getRoot().toPath();
+        McpToolCatalogCache cache = new McpToolCatalogCache(dir);
+        cache.store(config("server", true), null, List.of(tool("search", "object"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+        assertFalse(cache.load(config("other-server", true)).isPresent()); //$NON-NLS-1$
+        assertTrue(cache.load(config("server", true)).isPresent()); //$NON-NLS-1$
+
+        try (var files = Files.list(dir)) {
+            Files.writeString(files.findFirst().orElseThrow(), "{not json"); //$NON-NLS-1$
+        }
+        assertFalse(cache.load(config("server", true)).isPresent()); //$NON-NLS-1$
+    }
+
+    @Test
+    public void diffReportsOnlyChangedTools() {
+        List<McpTool> before = List.of(tool("a", "object"), tool("b", "object"), tool("c", "object")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+        List<McpTool> after = List.of(tool("a", "object"), tool("b", "string"), tool("d", "object")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+
+        McpToolCatalogCache.CatalogDiff diff = McpToolCatalogCache.diff(before, after);
+        assertEquals(List.of("d"), diff.added().stream().map(McpTool::getName).toList()); //$NON-NLS-1$
+        assertEquals(List.of("b"), diff.changed().stream().map(McpTool::getName).toList()); //$NON-NLS-1$
+        assertEquals(List.of("c"), diff.removed()); //$NON-NLS-1$
+        assertTrue(McpToolCatalogCache.diff(after, after).isEmpty());
+    }
+
+    private static McpServerConfig config(String command, boolean enabled) {
+        return McpServerConfig.builder()
+                .id("srv-1") //$NON-NLS-1$
+                .name("local") //$NON-NLS-1$
+                .enabled(enabled)
+                .command(command)
+                .build();
+    }
+
+    private static McpTool tool(String name, String schemaType) {
+        JsonObject schema = new JsonObject();
+        schema.addProperty("type", schemaType); //$NON-NLS-1$
+        return new McpTool(name, name + " tool", schema); //$NON-NLS-1$
+    }
+}
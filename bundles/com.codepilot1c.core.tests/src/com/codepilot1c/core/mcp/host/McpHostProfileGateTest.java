@@ -27,8 +27,10 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.After;
 import org.junit.Before;
@@ -40,6 +42,7 @@ import com.codepilot1c.core.agent.profiles.AgentProfileRegistry;
 import com.codepilot1c.core.agent.profiles.DynamicToolCapability;
 import com.codepilot1c.core.evaluation.trace.AgentTraceSession;
 import com.codepilot1c.core.evaluation.trace.ArtifactLayout;
+import com.codepilot1c.core.evaluation.trace.TraceWriter;
 import com.codepilot1c.core.mcp.host.prompt.IMcpPromptProvider;
 import com.codepilot1c.core.mcp.host.session.McpHostSession;
 import com.codepilot1c.core.mcp.model.McpContent;
@@ -595,6 +598,7 @@ public class McpHostProfileGateTest {
                 .route(call(tool.getName(), Map.of()), session);
 
         Path toolsFile = session.getTraceSession().getLayout().getToolsFile();
+        TraceWriter.flushAll();
         assertTrue(!Files.exists(toolsFile) || Files.readAllLines(toolsFile).isEmpty());
     }
 
@@ -780,6 +784,7 @@ public class McpHostProfileGateTest {
     }
 
     private List<JsonObject> readJsonLines(Path file) throws IOException {
+        TraceWriter.flushAll();
         return Files.readAllLines(file, StandardCharsets.UTF_8).stream()
                 .filter(line -> !line.isBlank())
                 .map(line -> JsonParser.parseString(line).getAsJsonObject())
@@ -801,6 +806,8 @@ public class McpHostProfileGateTest {
         setField(registry, "dynamicToolCapabilities", //$NON-NLS-1$
                 new HashMap<String, DynamicToolCapability>());
         setField(registry, "gson", new Gson()); //$NON-NLS-1$
+        setField(registry, "surfaceGeneration", new AtomicLong()); //$NON-NLS-1$
+        setField(registry, "surfaceCache", new ConcurrentHashMap<>()); //$NON-NLS-1$
         return registry;
     }
 
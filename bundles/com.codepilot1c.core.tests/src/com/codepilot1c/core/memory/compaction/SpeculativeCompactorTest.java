@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.memory.compaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Test;
+
+import com.codepilot1c.core.model.LlmMessage;
+
+public class SpeculativeCompactorTest {
+
+    private static final SpeculativeCompactor.Policy POLICY =
+            new SpeculativeCompactor.Policy(true, 1_000, 80, 50, 4, 6);
+
+    private final List<List<LlmMessage>> summarized = new ArrayList<>();
+    private CompletableFuture<String> pendingSummary = new CompletableFuture<>();
+    private final SpeculativeCompactor compactor = new SpeculativeCompactor((messages, targetTokens) -> {
+        summarized.add(messages);
+        return pendingSummary;
+    });
+
+    @Test
+    public void prefetchStartsOnceHistoryPassesPrefetchThreshold() {
+        List<LlmMessage> history = history(12, 100);
+        compactor.observe(history, POLICY);
+        assertTrue(summarized.isEmpty());
+
+        history.add(LlmMessage.user("x".repeat(1_000))); //$NON-NLS-1$
+        compactor.observe(history, POLICY);
+        compactor.observe(history, POLICY);
+
+        assertEquals(1, summarized.size());
+        assertTrue(compactor.isPreparing());
+        // The system prompt is pinned and never sent to the summarizer
+        assertEquals(LlmMessage.Role.USER, summarized.get(0).get(0).getRole());
+    }
+
+    @Test
+    public void preparedSummaryIsSwappedInWhenThresholdIsCrossed() {
+        List<LlmMessage> history = history(30, 100);
+        compactor.observe(history, POLICY);
+        pendingSummary.complete("summary"); //$NON-NLS-1$
+        history.add(LlmMessage.user("next question")); //$NON-NLS-1$
+
+        List<LlmMessage> compacted = compactor.compactIfNeeded(history, POLICY);
+
+        assertEquals("system prompt", compacted.get(0).getContent()); //$NON-NLS-1$
+        assertEquals(SpeculativeCompactor.SUMMARY_MARKER + "\nsummary", compacted.get(1).getContent()); //$NON-NLS-1$
+        assertEquals("next question", compacted.get(compacted.size() - 1).getContent()); //$NON-NLS-1$
+        assertEquals(2 + 5, compacted.size());
+        assertEquals(1L, compactor.stats().hits());
+    }
+
+    @Test
+    public void missStartsBackgroundSummaryWithoutBlocking() {
+        List<LlmMessage> history = history(30, 100);
+
+        assertNull(compactor.compactIfNeeded(history, POLICY));
+        assertEquals(1, summarized.size());
+        assertEquals(1L, compactor.stats().misses());
+
+        pendingSummary.complete("summary"); //$NON-NLS-1$
+        assertEquals(1 + 1 + 4, compactor.compactIfNeeded(history, POLICY).size());
+    }
+
+    @Test
+    public void rewrittenHeadInvalidatesPreparedSummary() {
+        List<LlmMessage> history = history(30, 100);
+        compactor.prepare(history, 20);
+        pendingSummary.complete("summary"); //$NON-NLS-1$
+
+        history.set(3, LlmMessage.user("edited")); //$NON-NLS-1$
+        assertNull(compactor.take(history, 20));
+    }
+
+    @Test
+    public void failedSummaryIsReportedAndResetIgnoresLateResults() {
+        List<LlmMessage> history = history(30, 100);
+        compactor.prepare(history, 20);
+        pendingSummary.complete(null);
+        assertTrue(compactor.lastPreparationFailed());
+        assertEquals(1L, compactor.stats().failed());
+
+        pendingSummary = new CompletableFuture<>();
+        compactor.prepare(history, 20);
+        compactor.reset();
+        pendingSummary.complete("late"); //$NON-NLS-1$
+
+        assertFalse(compactor.lastPreparationFailed());
+        assertNull(compactor.take(history, 20));
+    }
+
+    private static List<LlmMessage> history(int messages, int charsPerMessage) {
+        List<LlmMessage> history = new ArrayList<>();
+        history.add(LlmMessage.system("system prompt")); //$NON-NLS-1$
+        for (int i = 1; i < messages; i++) {
+            String text = i + ":" + "x".repeat(charsPerMessage); //$NON-NLS-1$ //$NON-NLS-2$
+            history.add(i % 2 == 1 ? LlmMessage.user(text) : LlmMessage.assistant(text));
+        }
+        return history;
+    }
+}
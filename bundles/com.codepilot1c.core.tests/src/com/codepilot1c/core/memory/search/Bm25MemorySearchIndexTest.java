@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.memory.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.codepilot1c.core.memory.MemoryEntry;
+
+public class Bm25MemorySearchIndexTest {
+
+    private static final String PROJECT = "/work/project"; //$NON-NLS-1$
+
+    private final Bm25MemorySearchIndex index = new Bm25MemorySearchIndex();
+
+    @Test
+    public void ranksRareTermsAboveCommonOnes() {
+        index.index(PROJECT, entry("a", "Проведение документа пишет движения в регистр накопления")); //$NON-NLS-1$ //$NON-NLS-2$
+        index.index(PROJECT, entry("b", "Документ заказа хранит табличную часть товаров")); //$NON-NLS-1$ //$NON-NLS-2$
+        index.index(PROJECT, entry("c", "Документ поступления тоже документ")); //$NON-NLS-1$ //$NON-NLS-2$
+
+        List<IMemorySearchIndex.ScoredEntry> hits = index.search(PROJECT, "регистры документов", 10); //$NON-NLS-1$
+
+        assertEquals(3, hits.size());
+        assertEquals("a", hits.get(0).entry().getKey()); //$NON-NLS-1$
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+    }
+
+    @Test
+    public void stemsEnglishInflections() {
+        index.index(PROJECT, entry("a", "The indexer rebuilds indexes on startup")); //$NON-NLS-1$ //$NON-NLS-2$
+        index.index(PROJECT, entry("b", "Unrelated preference about formatting")); //$NON-NLS-1$ //$NON-NLS-2$
+
+        List<IMemorySearchIndex.ScoredEntry> hits = index.search(PROJECT, "index rebuilding", 10); //$NON-NLS-1$
+
+        assertEquals(1, hits.size());
+        assertEquals("a", hits.get(0).entry().getKey()); //$NON-NLS-1$
+    }
+
+    @Test
+    public void reindexingSameKeyReplacesAndRemoveDrops() {
+        index.index(PROJECT, entry("a", "Используем обработку Выгрузка")); //$NON-NLS-1$ //$NON-NLS-2$
+        index.index(PROJECT, entry("a", "Используем обработку Загрузка")); //$NON-NLS-1$ //$NON-NLS-2$
+
+        assertTrue(index.search(PROJECT, "выгрузка", 5).isEmpty()); //$NON-NLS-1$
+        assertEquals(1, index.search(PROJECT, "обработку", 5).size()); //$NON-NLS-1$
+
+        index.remove(PROJECT, "a"); //$NON-NLS-1$
+        assertTrue(index.search(PROJECT, "загрузка", 5).isEmpty()); //$NON-NLS-1$
+    }
+
+    @Test
+    public void topKIsBoundedAndOrdered() {
+        for (int i = 0; i < 50; i++) {
+            index.index(PROJECT, entry("k" + i, "общий модуль " + "общий ".repeat(i % 7))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        }
+
+        List<IMemorySearchIndex.ScoredEntry> hits = index.search(PROJECT, "общий", 5); //$NON-NLS-1$
+
+        assertEquals(5, hits.size());
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).score() >= hits.get(i).score());
+        }
+    }
+
+    @Test
+    public void findSimilarMatchesLinearJaccardScores() {
+        InMemorySearchIndex linear = new InMemorySearchIndex();
+        String[] contents = {
+            "Справочник Номенклатура хранит товары и услуги", //$NON-NLS-1$
+            "Справочник Контрагенты хранит покупателей", //$NON-NLS-1$
+            "Регистр сведений цены номенклатуры", //$NON-NLS-1$
+        };
+        for (int i = 0; i < contents.length; i++) {
+            index.index(PROJECT, entry("e" + i, contents[i])); //$NON-NLS-1$
+            linear.index(PROJECT, entry("e" + i, contents[i])); //$NON-NLS-1$
+        }
+        String probe = "Справочник Номенклатура хранит товары"; //$NON-NLS-1$
+
+        List<IMemorySearchIndex.ScoredEntry> expected = linear.findSimilar(PROJECT, probe, 3);
+        List<IMemorySearchIndex.ScoredEntry> actual = index.findSimilar(PROJECT, probe, 3);
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).entry().getKey(), actual.get(i).entry().getKey());
+            assertEquals(expected.get(i).score(), actual.get(i).score(), 1e-9);
+        }
+    }
+
+    private static MemoryEntry entry(String key, String content) {
+        return MemoryEntry.builder(key, content).build();
+    }
+}
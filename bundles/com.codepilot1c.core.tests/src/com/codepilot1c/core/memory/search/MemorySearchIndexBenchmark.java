@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.memory.search;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+import com.codepilot1c.core.memory.MemoryEntry;
+
+/**
+ * Manual benchmark comparing {@link InMemorySearchIndex} and {@link Bm25MemorySearchIndex}.
+ *
+ * <p>Not a unit test (surefire only picks up {@code *Test}); run with
+ * {@code java ... com.codepilot1c.core.memory.search.MemorySearchIndexBenchmark [sizes...]}.
+ * Reports build time and mean latency of {@code search} and {@code findSimilar} after warm-up.</p>
+ */
+public final class MemorySearchIndexBenchmark {
+
+    private static final String PROJECT = "/bench"; //$NON-NLS-1$
+    private static final int QUERIES = 200;
+    private static final int VOCABULARY_SIZE = 20_000;
+    private static final String[] WORDS = {
+        "справочник", "документ", "регистр", "накопления", "сведений", "проведение", "номенклатура", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+        "контрагенты", "обработка", "форма", "модуль", "общий", "запрос", "отчет", "права", "роль", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$
+        "index", "search", "memory", "session", "provider", "tool", "build", "deploy", "test", "cache" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$
+    };
+
+    private MemorySearchIndexBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0
+                ? java.util.Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[] {1_000, 10_000, 100_000};
+        for (int size : sizes) {
+            run("jaccard", size, InMemorySearchIndex::new); //$NON-NLS-1$
+            run("bm25", size, Bm25MemorySearchIndex::new); //$NON-NLS-1$
+        }
+    }
+
+    private static void run(String name, int size, Supplier<IMemorySearchIndex> factory) {
+        Random random = new Random(17L);
+        IMemorySearchIndex index = factory.get();
+        long buildStart = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            index.index(PROJECT, MemoryEntry.builder("k" + i, sentence(random, 12 + random.nextInt(20))).build()); //$NON-NLS-1$
+        }
+        long buildNanos = System.nanoTime() - buildStart;
+
+        String[] queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = sentence(random, 3);
+        }
+        long sink = 0;
+        for (String query : queries) {
+            sink += index.search(PROJECT, query, 10).size();
+        }
+        long searchStart = System.nanoTime();
+        for (String query : queries) {
+            sink += index.search(PROJECT, query, 10).size();
+        }
+        long searchNanos = System.nanoTime() - searchStart;
+        long similarStart = System.nanoTime();
+        for (String query : queries) {
+            sink += index.findSimilar(PROJECT, query, 3).size();
+        }
+        long similarNanos = System.nanoTime() - similarStart;
+
+        System.out.printf("%-8s n=%-7d build=%8.1f ms  search=%8.3f ms/op  findSimilar=%8.3f ms/op  (%d)%n", //$NON-NLS-1$
+                name, size, buildNanos / 1e6, searchNanos / 1e6 / QUERIES, similarNanos / 1e6 / QUERIES, sink);
+    }
+
+    /**
+     * Builds a sentence over a {@value #VOCABULARY_SIZE}-word vocabulary with a roughly Zipfian
+     * (log-uniform rank) distribution, so common words hit most entries and rare ones only a few.
+     */
+    private static String sentence(Random random, int words) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            int rank = (int) Math.exp(random.nextDouble() * Math.log(VOCABULARY_SIZE)) - 1;
+            builder.append(WORDS[rank % WORDS.length]);
+            if (rank >= WORDS.length) {
+                builder.append(rank / WORDS.length);
+            }
+        }
+        return builder.toString();
+    }
+}
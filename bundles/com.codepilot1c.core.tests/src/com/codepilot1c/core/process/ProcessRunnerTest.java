@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.process;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link ProcessRunner}. Child processes are single-file Java programs, so the tests do
+ * not depend on platform shells.
+ */
+public class ProcessRunnerTest {
+
+    private static final String EMITTER = """
+            public class Emit {
+                public static void main(String[] args) throws Exception {
+                    int lines = Integer.parseInt(args[0]);
+                    StringBuilder out = new StringBuilder();
+                    for (int i = 1; i <= lines; i++) {
+                        out.append("line ").append(i).append('\\n');
+                    }
+                    System.out.print(out);
+                    System.out.flush();
+                    System.err.println("done " + lines);
+                    if (args.length > 1) {
+                        Thread.sleep(Long.parseLong(args[1]));
+                    }
+                    System.exit(3);
+                }
+            }
+            """; //$NON-NLS-1$
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void drainsOutputLargerThanPipeBufferAndKeepsTail() throws Exception {
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        ProcessOutcome outcome = ProcessRunner.run(emitter("200000"), ProcessOptions.builder() //$NON-NLS-1$
+                .timeout(Duration.ofSeconds(60))
+                .stdoutLimit(1024)
+                .listener((error, line) -> {
+                    if (!error) {
+                        lines.add(line);
+                    }
+                })
+                .build());
+
+        assertTrue(outcome.finished());
+        assertEquals(3, outcome.exitCode());
+        assertTrue(outcome.stdout().truncated());
+        assertTrue(outcome.stdout().bytes() > 2_000_000L);
+        assertTrue(outcome.stdout().text().endsWith("line 200000\n")); //$NON-NLS-1$
+        assertEquals(List.of("line 199999", "line 200000"), outcome.stdout().tailLines(2)); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals("done 200000", outcome.stderr().text().strip()); //$NON-NLS-1$
+        assertFalse(outcome.stderr().truncated());
+        assertEquals(200_000, lines.size());
+        assertEquals("line 1", lines.get(0)); //$NON-NLS-1$
+    }
+
+    @Test
+    public void timeoutTerminatesProcessAndKeepsOutputInLog() throws Exception {
+        Path log = temporaryFolder.getRoot().toPath().resolve("run.log"); //$NON-NLS-1$
+        ProcessOutcome outcome = ProcessRunner.run(emitter("3", "60000"), ProcessOptions.builder() //$NON-NLS-1$ //$NON-NLS-2$
+                .timeout(Duration.ofSeconds(5))
+                .mergeErrorStream(true)
+                .terminationGrace(Duration.ofSeconds(1))
+                .logFile(log)
+                .build());
+
+        assertTrue(outcome.timedOut());
+        assertFalse(outcome.finished());
+        assertNotNull(outcome.termination());
+        assertFalse(outcome.termination().rootAlive());
+        assertEquals(List.of("line 1", "line 2", "line 3", "done 3"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                Files.readAllLines(log, StandardCharsets.UTF_8));
+        assertEquals(List.of("line 3", "done 3"), outcome.stdout().tailLines(2)); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    @Test
+    public void tailBufferKeepsLastBytesAcrossGrowth() {
+        ProcessRunner.TailBuffer buffer = new ProcessRunner.TailBuffer(20_000);
+        byte[] chunk = new byte[3_000];
+        for (int i = 0; i < 10; i++) {
+            Arrays.fill(chunk, (byte) ('a' + i));
+            buffer.write(chunk, 0, chunk.length);
+        }
+
+        String text = buffer.asString();
+        assertEquals(20_000, text.length());
+        assertTrue(buffer.truncated());
+        assertEquals(30_000L, buffer.total());
+        assertEquals("d".repeat(2_000) + "e".repeat(3_000), text.substring(0, 5_000)); //$NON-NLS-1$ //$NON-NLS-2$
+        assertTrue(text.endsWith("j".repeat(3_000))); //$NON-NLS-1$
+    }
+
+    @Test
+    public void markedTextStartsAtLineBoundaryAfterTruncationMarker() {
+        ProcessRunner.TailBuffer buffer = new ProcessRunner.TailBuffer(25);
+        byte[] output = "first line\nsecond line\nthird line\n".getBytes(StandardCharsets.UTF_8); //$NON-NLS-1$
+        buffer.write(output, 0, output.length);
+        ProcessOutcome.Output captured = new ProcessOutcome.Output(buffer.asString(), buffer.total(),
+                buffer.truncated(), null);
+
+        assertEquals("e\nsecond line\nthird line\n", captured.text()); //$NON-NLS-1$
+        assertEquals(ProcessOutcome.Output.truncationMarker(11) + "\nsecond line\nthird line\n", captured.markedText()); //$NON-NLS-1$
+        assertEquals(11L, ProcessOutcome.Output.truncatedBytes(captured.markedText().lines().findFirst().orElseThrow()));
+        assertEquals(-1L, ProcessOutcome.Output.truncatedBytes("third line")); //$NON-NLS-1$
+        assertEquals("whole\n", new ProcessOutcome.Output("whole\n", 6L, false, null).markedText()); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    private ProcessBuilder emitter(String... args) throws Exception {
+        Path source = temporaryFolder.getRoot().toPath().resolve("Emit.java"); //$NON-NLS-1$
+        Files.writeString(source, EMITTER, StandardCharsets.UTF_8);
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        command.add(source.toString());
+        command.addAll(List.of(args));
+        return new ProcessBuilder(command);
+    }
+}
@@ -4,9 +4,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Test;
@@ -17,6 +19,8 @@ import com.codepilot1c.core.model.LlmContentPart;
 import com.codepilot1c.core.model.LlmMessage;
 import com.codepilot1c.core.model.LlmRequest;
 import com.codepilot1c.core.model.ToolCall;
+import com.codepilot1c.core.model.ToolDefinition;
+import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
@@ -185,6 +189,59 @@ public class DynamicLlmProviderRequestBodyTest {
         assertEquals(BackendConfig.DEFAULT_MAX_OUTPUT_TOKENS, body.get("max_tokens").getAsInt()); //$NON-NLS-1$
     }
 
+    @Test
+    public void warmProviderProducesSameBodyAsFreshProviderAcrossSteps() throws Exception {
+        DynamicLlmProvider warm = new DynamicLlmProvider(configured(ProviderType.OPENAI_COMPATIBLE, "qwen3-coder")); //$NON-NLS-1$
+        ToolDefinition readFile = new ToolDefinition("read_file", "Reads <file> & returns \"text\"", //$NON-NLS-1$ //$NON-NLS-2$
+                "{\"type\":\"object\",\"properties\":{\"path\":{\"type\":\"string\"}}}"); //$NON-NLS-1$
+        ToolDefinition broken = new ToolDefinition("broken", "schema is not json", "{not json"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        List<LlmMessage> history = new ArrayList<>();
+        history.add(LlmMessage.user("Прочитай модуль, текст \u0000codepilot1c:tools\u0000 не трогай")); //$NON-NLS-1$
+
+        for (int step = 0; step < 3; step++) {
+            List<LlmMessage> messages = new ArrayList<>();
+            // The system prompt is recreated every step, as ToolPromptRenderer does
+            messages.add(LlmMessage.system("Ты помощник 1С")); //$NON-NLS-1$
+            messages.addAll(history);
+            LlmRequest request = LlmRequest.builder()
+                    .messages(messages)
+                    .tools(List.of(readFile, broken))
+                    .build();
+
+            String expected = buildOpenAiBody(
+                    new DynamicLlmProvider(configured(ProviderType.OPENAI_COMPATIBLE, "qwen3-coder")), request); //$NON-NLS-1$
+            assertEquals(expected, buildOpenAiBody(warm, request));
+            // Splicing must match serializing the whole JsonObject in one go
+            assertEquals(new Gson().toJson(JsonParser.parseString(expected)), expected);
+
+            String callId = "call-" + step; //$NON-NLS-1$
+            history.add(LlmMessage.assistantWithToolCalls("", List.of( //$NON-NLS-1$
+                    new ToolCall(callId, "read_file", "{\"path\":\"Module" + step + ".bsl\"}")))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+            history.add(LlmMessage.toolResult(callId, "Процедура Тест" + step + "()\nКонецПроцедуры")); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+
+        Field cacheField = DynamicLlmProvider.class.getDeclaredField("openAiBodyCache"); //$NON-NLS-1$
+        cacheField.setAccessible(true);
+        long[] counters = ((OpenAiRequestBodyCache) cacheField.get(warm)).getMessageCounters();
+        // Steps have 2, 4 and 6 messages; only the messages added since the previous step are encoded
+        assertEquals(6, counters[0]);
+        assertEquals(6, counters[1]);
+    }
+
+    @Test
+    public void requestOverrideReplacingMessagesIsNotSpliced() {
+        String skeleton = "{\"messages\":\"\\u0000codepilot1c:messages\\u0000\",\"tools\":[]}"; //$NON-NLS-1$
+        assertEquals("{\"messages\":[{}],\"tools\":[]}", //$NON-NLS-1$
+                OpenAiRequestBodyCache.splice(skeleton, "[{}]", "[{\"x\":1}]")); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    private static String buildOpenAiBody(DynamicLlmProvider provider, LlmRequest request) throws Exception {
+        Method method = DynamicLlmProvider.class.getDeclaredMethod(
+                "buildOpenAiRequestBody", LlmRequest.class, ProviderExecutionPlan.class); //$NON-NLS-1$
+        method.setAccessible(true);
+        return (String) method.invoke(provider, request, ProviderExecutionPlan.streaming(true));
+    }
+
     private static LlmProviderConfig configured(ProviderType type, String model) {
         LlmProviderConfig config = new LlmProviderConfig();
         config.setId("test-" + type.name()); //$NON-NLS-1$
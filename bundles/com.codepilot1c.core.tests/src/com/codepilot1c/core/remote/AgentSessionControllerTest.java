@@ -38,6 +38,7 @@ import com.codepilot1c.core.agent.IAgentRunner;
 import com.codepilot1c.core.agent.events.AgentCompletedEvent;
 import com.codepilot1c.core.agent.events.AgentStepEvent;
 import com.codepilot1c.core.agent.events.IAgentEventListener;
+import com.codepilot1c.core.agent.events.StreamChunkEvent;
 import com.codepilot1c.core.agent.profiles.AgentProfile;
 import com.codepilot1c.core.memory.project.ProjectMemoryInitializationService;
 import com.codepilot1c.core.memory.project.ProjectMemoryInitializationService.Mode;
@@ -547,6 +548,30 @@ public class AgentSessionControllerTest {
         }
     }
 
+    @Test
+    public void consecutiveStreamChunksAreCoalescedBeforeNextEvent() throws Exception {
+        long baseline = controller.getEventsAfter(0).stream()
+                .mapToLong(RemoteEvent::getSequence)
+                .max()
+                .orElse(0L);
+        Method handler = AgentSessionController.class.getDeclaredMethod(
+                "handleAgentEvent", com.codepilot1c.core.agent.events.AgentEvent.class); //$NON-NLS-1$
+        handler.setAccessible(true);
+
+        handler.invoke(controller, new StreamChunkEvent(1, "Hel", false, null)); //$NON-NLS-1$
+        handler.invoke(controller, new StreamChunkEvent(1, "lo, ", false, null)); //$NON-NLS-1$
+        handler.invoke(controller, new StreamChunkEvent(1, "world", false, null)); //$NON-NLS-1$
+        handler.invoke(controller, new AgentStepEvent(1, 2, "probe")); //$NON-NLS-1$
+
+        List<RemoteEvent> emitted = controller.getEventsAfter(baseline);
+        assertEquals(2, emitted.size());
+        assertEquals("stream_chunk", emitted.get(0).getType()); //$NON-NLS-1$
+        assertEquals("Hello, world", emitted.get(0).getPayload().get("content")); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(Integer.valueOf(3), emitted.get(0).getPayload().get("chunks")); //$NON-NLS-1$
+        assertEquals("agent_step", emitted.get(1).getType()); //$NON-NLS-1$
+        assertEquals(emitted.get(0).getSequence() + 1, emitted.get(1).getSequence());
+    }
+
     private void setControllerField(String name, Object value) throws Exception {
         Field field = AgentSessionController.class.getDeclaredField(name);
         field.setAccessible(true);
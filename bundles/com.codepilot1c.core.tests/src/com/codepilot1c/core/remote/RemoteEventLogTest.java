@@ -0,0 +1,72 @@
+package com.codepilot1c.core.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class RemoteEventLogTest {
+
+    @Test
+    public void returnsEventsAfterSequenceInOrder() {
+        RemoteEventLog log = new RemoteEventLog(8);
+        appendRange(log, 1, 5);
+
+        assertEquals(List.of(4L, 5L), sequences(log.after(3)));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), sequences(log.after(0)));
+        assertTrue(log.after(5).isEmpty());
+        assertTrue(log.after(Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    public void keepsOnlyLastCapacityEventsAfterWraparound() {
+        RemoteEventLog log = new RemoteEventLog(4);
+        appendRange(log, 1, 10);
+
+        assertEquals(10L, log.lastSequence());
+        assertEquals(List.of(7L, 8L, 9L, 10L), sequences(log.after(0)));
+        assertEquals(List.of(7L, 8L, 9L, 10L), sequences(log.after(5)));
+        assertEquals(List.of(9L, 10L), sequences(log.after(8)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonIncreasingSequence() {
+        RemoteEventLog log = new RemoteEventLog(4);
+        appendRange(log, 1, 2);
+        log.append(event(2));
+    }
+
+    @Test
+    public void readersSeeConsistentSuffixWhileWriterAppends() throws Exception {
+        RemoteEventLog log = new RemoteEventLog(64);
+        Thread writer = new Thread(() -> appendRange(log, 1, 200_000));
+        writer.start();
+        while (writer.isAlive()) {
+            List<RemoteEvent> events = log.after(0);
+            for (int i = 1; i < events.size(); i++) {
+                assertTrue(events.get(i).getSequence() > events.get(i - 1).getSequence());
+            }
+            assertTrue(events.size() <= 64);
+        }
+        writer.join();
+        assertEquals(64, log.after(0).size());
+    }
+
+    private static void appendRange(RemoteEventLog log, long first, long last) {
+        for (long sequence = first; sequence <= last; sequence++) {
+            log.append(event(sequence));
+        }
+    }
+
+    private static RemoteEvent event(long sequence) {
+        return new RemoteEvent("test", "session", sequence, Instant.now(), Map.of()); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    private static List<Long> sequences(List<RemoteEvent> events) {
+        return events.stream().map(RemoteEvent::getSequence).toList();
+    }
+}
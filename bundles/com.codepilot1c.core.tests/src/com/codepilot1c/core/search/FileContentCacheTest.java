@@ -0,0 +1,112 @@
+package com.codepilot1c.core.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class FileContentCacheTest {
+
+    @Test
+    public void linesMatchBufferedReaderSemantics() throws Exception {
+        String[] samples = {
+            "", "a", "a\n", "a\nb", "a\r\nb\r\n", "a\rb\r", "\n\n", "a\r\r\nb", "\r\n", "x\n\ny" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$
+        };
+        for (String sample : samples) {
+            FileText text = FileText.of(sample);
+            assertEquals(sample, readLines(sample), new ArrayList<>(text.lines()));
+            assertEquals(sample, text.text());
+        }
+    }
+
+    @Test
+    public void rangeViewAndNormalizedText() {
+        FileText text = FileText.decode("\uFEFFfirst\r\nsecond\rthird".getBytes(StandardCharsets.UTF_8), //$NON-NLS-1$
+                StandardCharsets.UTF_8);
+
+        assertEquals(3, text.lineCount());
+        assertEquals("first", text.line(0)); //$NON-NLS-1$
+        assertEquals(List.of("second", "third"), text.lines(1, 3)); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals("first\nsecond\nthird\n", text.normalizedText()); //$NON-NLS-1$
+    }
+
+    @Test
+    public void servesEntryWhileStampIsUnchanged() throws Exception {
+        FileContentCache cache = new FileContentCache(1024 * 1024);
+        AtomicInteger loads = new AtomicInteger();
+
+        FileText first = cache.get("/p/a.bsl", 1, StandardCharsets.UTF_8, () -> bytes("v1", loads)); //$NON-NLS-1$ //$NON-NLS-2$
+        FileText second = cache.get("/p/a.bsl", 1, StandardCharsets.UTF_8, () -> bytes("v1", loads)); //$NON-NLS-1$ //$NON-NLS-2$
+        FileText changed = cache.get("/p/a.bsl", 2, StandardCharsets.UTF_8, () -> bytes("v2", loads)); //$NON-NLS-1$ //$NON-NLS-2$
+
+        assertSame(first, second);
+        assertEquals("v2", changed.text()); //$NON-NLS-1$
+        assertEquals(2, loads.get());
+        FileContentCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(1, stats.entries());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedWithinByteBudget() throws Exception {
+        String body = "x".repeat(1000); //$NON-NLS-1$
+        long entryBytes = FileText.of(body).estimatedBytes();
+        FileContentCache cache = new FileContentCache(entryBytes * 4);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (String path : List.of("/a", "/b", "/c", "/d")) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+            cache.get(path, 1, StandardCharsets.UTF_8, () -> bytes(body, loads));
+        }
+        cache.get("/a", 1, StandardCharsets.UTF_8, () -> bytes(body, loads)); //$NON-NLS-1$
+        cache.get("/e", 1, StandardCharsets.UTF_8, () -> bytes(body, loads)); //$NON-NLS-1$
+        int before = loads.get();
+        cache.get("/a", 1, StandardCharsets.UTF_8, () -> bytes(body, loads)); //$NON-NLS-1$
+        cache.get("/b", 1, StandardCharsets.UTF_8, () -> bytes(body, loads)); //$NON-NLS-1$
+
+        assertEquals("only the least recently used entry was evicted", before + 1, loads.get()); //$NON-NLS-1$
+        assertTrue(cache.stats().bytes() <= entryBytes * 4);
+        assertTrue(cache.stats().evictions() >= 1);
+    }
+
+    @Test
+    public void invalidationAndMissingFilesAreNotServed() throws Exception {
+        FileContentCache cache = new FileContentCache(1024 * 1024);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("/p/src/a.bsl", 1, StandardCharsets.UTF_8, () -> bytes("a", loads)); //$NON-NLS-1$ //$NON-NLS-2$
+        cache.get("/q/b.bsl", 1, StandardCharsets.UTF_8, () -> bytes("b", loads)); //$NON-NLS-1$ //$NON-NLS-2$
+        cache.invalidateIf(path -> path.startsWith("/p/")); //$NON-NLS-1$
+        cache.get("/p/src/a.bsl", 1, StandardCharsets.UTF_8, () -> bytes("a", loads)); //$NON-NLS-1$ //$NON-NLS-2$
+        cache.get("/gone", FileContentCache.NULL_STAMP, StandardCharsets.UTF_8, () -> bytes("", loads)); //$NON-NLS-1$ //$NON-NLS-2$
+        cache.get("/gone", FileContentCache.NULL_STAMP, StandardCharsets.UTF_8, () -> bytes("", loads)); //$NON-NLS-1$ //$NON-NLS-2$
+
+        assertEquals(5, loads.get());
+        assertEquals(1, cache.stats().invalidations());
+        assertEquals(2, cache.stats().entries());
+    }
+
+    private static byte[] bytes(String text, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> readLines(String text) throws Exception {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new StringReader(text))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,74 @@
+package com.codepilot1c.core.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class TrigramIndexTest {
+
+    @Test
+    public void rejectsOnlyIndexedFilesWithoutTrigrams() {
+        TrigramIndex index = new TrigramIndex();
+        index.put("/P/src/A.bsl", 1L, "Процедура ПриОткрытии()\nКонецПроцедуры"); //$NON-NLS-1$ //$NON-NLS-2$
+        index.put("/P/src/B.bsl", 1L, "Функция Вычислить()\nКонецФункции"); //$NON-NLS-1$ //$NON-NLS-2$
+
+        TrigramIndex.Candidates candidates = index.candidates(TrigramQuery.literal("приоткрытии")); //$NON-NLS-1$
+
+        assertTrue(candidates.mayMatch("/P/src/A.bsl", 1L)); //$NON-NLS-1$
+        assertFalse(candidates.mayMatch("/P/src/B.bsl", 1L)); //$NON-NLS-1$
+        assertTrue("stale stamp must be scanned", candidates.mayMatch("/P/src/B.bsl", 2L)); //$NON-NLS-1$ //$NON-NLS-2$
+        assertTrue("unknown file must be scanned", candidates.mayMatch("/P/src/C.bsl", 1L)); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    @Test
+    public void reindexAndRemoveReplacePostings() {
+        TrigramIndex index = new TrigramIndex();
+        index.put("/P/a.xml", 1L, "<name>Alpha</name>"); //$NON-NLS-1$ //$NON-NLS-2$
+        index.put("/P/a.xml", 2L, "<name>Beta</name>"); //$NON-NLS-1$ //$NON-NLS-2$
+
+        assertFalse(index.candidates(TrigramQuery.literal("alpha")).mayMatch("/P/a.xml", 2L)); //$NON-NLS-1$ //$NON-NLS-2$
+        assertTrue(index.candidates(TrigramQuery.literal("beta")).mayMatch("/P/a.xml", 2L)); //$NON-NLS-1$ //$NON-NLS-2$
+
+        index.removeIf(path -> path.startsWith("/P/")); //$NON-NLS-1$
+        assertEquals(0, index.size());
+        assertEquals(0, index.trigramCount());
+    }
+
+    @Test
+    public void candidatesNeverMissARegexMatch() {
+        Random random = new Random(42L);
+        String alphabet = "abcABCабвАБВ .()|"; //$NON-NLS-1$
+        String[] patterns = {"abc", "aBc|вба", "ab+c", "(ab)?cab", "a.bc", "б\\.а\\(", "\\Qa(b\\E", "AB{2}c"}; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$
+        for (int round = 0; round < 200; round++) {
+            TrigramIndex index = new TrigramIndex();
+            String[] texts = new String[20];
+            for (int file = 0; file < texts.length; file++) {
+                StringBuilder text = new StringBuilder();
+                for (int i = 0; i < 40; i++) {
+                    text.append(random.nextInt(10) == 0 ? '\n' : alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                texts[file] = text.toString();
+                index.put("f" + file, 0L, texts[file]); //$NON-NLS-1$
+            }
+            for (String source : patterns) {
+                TrigramQuery query = TrigramQuery.regex(source);
+                if (query == null) {
+                    continue;
+                }
+                Pattern pattern = Pattern.compile(source, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+                TrigramIndex.Candidates candidates = index.candidates(query);
+                for (int file = 0; file < texts.length; file++) {
+                    boolean matches = texts[file].lines().anyMatch(line -> pattern.matcher(line).find());
+                    if (matches) {
+                        assertTrue(source + " in " + texts[file], candidates.mayMatch("f" + file, 0L)); //$NON-NLS-1$ //$NON-NLS-2$
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.codepilot1c.core.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class TrigramQueryTest {
+
+    @Test
+    public void literalRequiresEveryTrigramCaseFolded() {
+        TrigramQuery query = TrigramQuery.literal("НаСервере"); //$NON-NLS-1$
+
+        assertNotNull(query);
+        assertEquals(1, query.clauses().size());
+        assertEquals(trigrams("насервере"), asSet(query.clauses().get(0))); //$NON-NLS-1$
+    }
+
+    @Test
+    public void shortLiteralFallsBackToFullScan() {
+        assertNull(TrigramQuery.literal("ab")); //$NON-NLS-1$
+    }
+
+    @Test
+    public void regexKeepsOnlyMandatoryLiteralRuns() {
+        TrigramQuery query = TrigramQuery.regex("Процедура\\s+Foo(Bar)?x*yz\\.bsl"); //$NON-NLS-1$
+
+        assertNotNull(query);
+        Set<Long> expected = trigrams("процедура"); //$NON-NLS-1$
+        expected.addAll(trigrams("foo")); //$NON-NLS-1$
+        expected.addAll(trigrams("yz.bsl")); //$NON-NLS-1$
+        assertEquals(expected, asSet(query.clauses().get(0)));
+    }
+
+    @Test
+    public void topLevelAlternationProducesClauses() {
+        TrigramQuery query = TrigramQuery.regex("Найти|Выбрать"); //$NON-NLS-1$
+
+        assertNotNull(query);
+        assertEquals(2, query.clauses().size());
+        assertEquals(trigrams("найти"), asSet(query.clauses().get(0))); //$NON-NLS-1$
+        assertEquals(trigrams("выбрать"), asSet(query.clauses().get(1))); //$NON-NLS-1$
+    }
+
+    @Test
+    public void quotedPatternIsLiteral() {
+        TrigramQuery query = TrigramQuery.regex("\\Qa.b(c)\\E"); //$NON-NLS-1$
+
+        assertNotNull(query);
+        assertEquals(trigrams("a.b(c)"), asSet(query.clauses().get(0))); //$NON-NLS-1$
+    }
+
+    @Test
+    public void undecomposablePatternsFallBackToFullScan() {
+        assertNull(TrigramQuery.regex("[a-z]+\\d")); //$NON-NLS-1$
+        assertNull(TrigramQuery.regex("abc|x")); //$NON-NLS-1$
+        assertNull(TrigramQuery.regex("(?x) a b c d")); //$NON-NLS-1$
+        assertNull(TrigramQuery.regex("ab?c")); //$NON-NLS-1$
+        assertNull(TrigramQuery.regex("\\u0041BC")); //$NON-NLS-1$
+    }
+
+    @Test
+    public void optionalTailCharacterIsDropped() {
+        TrigramQuery query = TrigramQuery.regex("Экспортs?"); //$NON-NLS-1$
+
+        assertNotNull(query);
+        assertEquals(trigrams("экспорт"), asSet(query.clauses().get(0))); //$NON-NLS-1$
+        assertTrue(asSet(TrigramQuery.regex("abc{2,}").clauses().get(0)).equals(trigrams("abc"))); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    private static Set<Long> trigrams(String text) {
+        Set<Long> result = new HashSet<>();
+        TrigramQuery.addTrigrams(text, result);
+        return result;
+    }
+
+    private static Set<Long> asSet(long[] values) {
+        Set<Long> result = new HashSet<>();
+        Arrays.stream(values).forEach(value -> result.add(Long.valueOf(value)));
+        return result;
+    }
+}
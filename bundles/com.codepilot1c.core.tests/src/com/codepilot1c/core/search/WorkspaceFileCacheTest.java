@@ -0,0 +1,83 @@
+package com.codepilot1c.core.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResourceStatus;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class WorkspaceFileCacheTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void externalChangeWithoutRefreshIsNotServedFromCache() throws Exception {
+        Path disk = temp.newFile("Module.bsl").toPath(); //$NON-NLS-1$
+        Files.writeString(disk, "Процедура А()\nКонецПроцедуры\n", StandardCharsets.UTF_8); //$NON-NLS-1$
+        WorkspaceFile workspace = new WorkspaceFile(disk);
+        IFile file = workspace.proxy();
+        WorkspaceFileCache cache = WorkspaceFileCache.getInstance();
+
+        assertEquals("Процедура А()\nКонецПроцедуры\n", cache.read(file).text()); //$NON-NLS-1$
+
+        // A shell command or git rewrites the file; the workspace stamp does not change.
+        Files.writeString(disk, "Процедура Б()\nКонецПроцедуры\n", StandardCharsets.UTF_8); //$NON-NLS-1$
+        workspace.outOfSync = true;
+
+        // The read an edit starts from must fail rather than return the old text.
+        assertThrows(IOException.class, () -> cache.read(file));
+
+        workspace.outOfSync = false;
+        workspace.stamp++;
+        assertEquals("Процедура Б()\nКонецПроцедуры\n", cache.read(file).text()); //$NON-NLS-1$
+    }
+
+    private static final class WorkspaceFile {
+
+        private final Path disk;
+        volatile boolean outOfSync;
+        volatile long stamp = 1;
+
+        WorkspaceFile(Path disk) {
+            this.disk = disk;
+        }
+
+        IFile proxy() {
+            org.eclipse.core.runtime.Path fullPath = new org.eclipse.core.runtime.Path(
+                    "/Project/src/" + disk.getFileName()); //$NON-NLS-1$
+            return (IFile) Proxy.newProxyInstance(IFile.class.getClassLoader(), new Class<?>[] { IFile.class },
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "getFullPath" -> fullPath; //$NON-NLS-1$
+                        case "getModificationStamp" -> stamp; //$NON-NLS-1$
+                        case "getCharset" -> "UTF-8"; //$NON-NLS-1$ //$NON-NLS-2$
+                        case "isSynchronized" -> !outOfSync; //$NON-NLS-1$
+                        case "getContents" -> contents(args != null && args.length > 0 && (Boolean) args[0]); //$NON-NLS-1$
+                        case "hashCode" -> System.identityHashCode(proxy); //$NON-NLS-1$
+                        case "equals" -> proxy == args[0]; //$NON-NLS-1$
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        private ByteArrayInputStream contents(boolean force) throws Exception {
+            if (outOfSync && !force) {
+                throw new CoreException(new Status(IStatus.ERROR, "test", IResourceStatus.OUT_OF_SYNC_LOCAL, //$NON-NLS-1$
+                        "Resource is out of sync with the file system: " + disk.getFileName(), null)); //$NON-NLS-1$
+            }
+            return new ByteArrayInputStream(Files.readAllBytes(disk));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.codepilot1c.core.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.codepilot1c.core.session.ISessionStore.SessionSummary;
+
+public class FileSessionStoreTest {
+
+    @Rule
+    public TemporaryFolder temporary = new TemporaryFolder();
+
+    @Test
+    public void roundTripsSessionThroughStreamingLoad() throws Exception {
+        FileSessionStore store = new FileSessionStore(temporary.newFolder("sessions").toPath()); //$NON-NLS-1$
+        Session session = session("s-1", "/work/a", "Первый"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        session.addMessage(SessionMessage.user("Привет")); //$NON-NLS-1$
+        session.addMessage(SessionMessage.assistant("visible answer", "private reasoning")); //$NON-NLS-1$ //$NON-NLS-2$
+        session.setTotalTokens(42);
+        store.save(session);
+
+        Session loaded = store.load("s-1").orElseThrow(); //$NON-NLS-1$
+        assertEquals("Первый", loaded.getTitle()); //$NON-NLS-1$
+        assertEquals("/work/a", loaded.getProjectPath()); //$NON-NLS-1$
+        assertEquals(42, loaded.getTotalTokens());
+        assertEquals(2, loaded.getMessageCount());
+        assertEquals("Привет", loaded.getMessages().get(0).getContent()); //$NON-NLS-1$
+        assertEquals("private reasoning", loaded.getMessages().get(1).getReasoningContent()); //$NON-NLS-1$
+    }
+
+    @Test
+    public void malformedOrEmptySessionLoadsAsEmpty() throws Exception {
+        Path directory = temporary.newFolder("broken").toPath(); //$NON-NLS-1$
+        FileSessionStore store = new FileSessionStore(directory);
+        Files.writeString(directory.resolve("bad.json"), "{\"id\":\"bad\",\"messages\":[{", StandardCharsets.UTF_8); //$NON-NLS-1$ //$NON-NLS-2$
+        Files.writeString(directory.resolve("empty.json"), "", StandardCharsets.UTF_8); //$NON-NLS-1$ //$NON-NLS-2$
+
+        assertFalse(store.load("bad").isPresent()); //$NON-NLS-1$
+        assertFalse(store.load("empty").isPresent()); //$NON-NLS-1$
+        assertTrue(store.listAll().isEmpty());
+    }
+
+    @Test
+    public void listsAndFiltersByProjectFromManifest() throws Exception {
+        Path directory = temporary.newFolder("listing").toPath(); //$NON-NLS-1$
+        FileSessionStore store = new FileSessionStore(directory);
+        Instant now = Instant.now();
+        store.save(session("a", "/work/a", "A", now.minusSeconds(30), 1)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        store.save(session("b", "/work/b", "B", now.minusSeconds(20), 2)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        store.save(session("c", "/work/a", "C", now.minusSeconds(10), 3)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+        assertTrue(Files.isRegularFile(directory.resolve("sessions.index"))); //$NON-NLS-1$
+        assertEquals(List.of("c", "b", "a"), ids(store.listAll())); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        assertEquals(List.of("c", "a"), ids(store.listByProject("/work/a"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        assertEquals(List.of("c"), ids(store.listRecent(1))); //$NON-NLS-1$
+        assertEquals(3, store.listAll().get(0).getMessageCount());
+
+        FileSessionStore reopened = new FileSessionStore(directory);
+        assertEquals(List.of("c", "a"), ids(reopened.listByProject("/work/a"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    @Test
+    public void listingTrustsManifestWhileFileStampIsUnchanged() throws Exception {
+        Path directory = temporary.newFolder("stamps").toPath(); //$NON-NLS-1$
+        FileSessionStore store = new FileSessionStore(directory);
+        store.save(session("x", "/work/x", "Old", Instant.now(), 1)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        Path file = directory.resolve("x.json"); //$NON-NLS-1$
+        FileTime stamp = Files.getLastModifiedTime(file);
+
+        // Same size and stamp: the listing must come from the manifest, not from the body
+        String body = Files.readString(file, StandardCharsets.UTF_8);
+        Files.writeString(file, body.replace("\"Old\"", "\"New\""), StandardCharsets.UTF_8); //$NON-NLS-1$ //$NON-NLS-2$
+        Files.setLastModifiedTime(file, stamp);
+        assertEquals("Old", new FileSessionStore(directory).listAll().get(0).getTitle()); //$NON-NLS-1$
+
+        // A changed stamp invalidates the entry
+        Files.setLastModifiedTime(file, FileTime.from(stamp.toInstant().plusSeconds(5)));
+        assertEquals("New", new FileSessionStore(directory).listAll().get(0).getTitle()); //$NON-NLS-1$
+    }
+
+    @Test
+    public void deleteAndPurgeMaintainManifest() throws Exception {
+        Path directory = temporary.newFolder("purge").toPath(); //$NON-NLS-1$
+        FileSessionStore store = new FileSessionStore(directory);
+        Instant old = Instant.now().minus(Duration.ofDays(40));
+        Session archived = session("old-archived", "/p", "1", old, 1); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        archived.setStatus(Session.SessionStatus.ARCHIVED);
+        archived.setUpdatedAt(old);
+        store.save(archived);
+        store.save(session("old-active", "/p", "2", old, 1)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        store.save(session("fresh", "/p", "3", Instant.now(), 1)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+        assertEquals(1, store.purgeOldSessions(30));
+        assertFalse(store.exists("old-archived")); //$NON-NLS-1$
+        assertTrue(store.delete("fresh")); //$NON-NLS-1$
+        assertEquals(List.of("old-active"), ids(store.listAll())); //$NON-NLS-1$
+
+        String manifest = Files.readString(directory.resolve("sessions.index"), StandardCharsets.UTF_8); //$NON-NLS-1$
+        assertFalse(manifest.contains("old-archived")); //$NON-NLS-1$
+        assertFalse(manifest.contains("fresh")); //$NON-NLS-1$
+    }
+
+    @Test
+    public void rebuildsCorruptManifestAndPicksUpForeignFiles() throws Exception {
+        Path directory = temporary.newFolder("rebuild").toPath(); //$NON-NLS-1$
+        FileSessionStore store = new FileSessionStore(directory);
+        store.save(session("kept", "/p", "K", Instant.now(), 2)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        Files.copy(directory.resolve("kept.json"), directory.resolve("copied.json")); //$NON-NLS-1$ //$NON-NLS-2$
+        Files.writeString(directory.resolve("sessions.index"), "{not json", StandardCharsets.UTF_8); //$NON-NLS-1$ //$NON-NLS-2$
+
+        List<SessionSummary> listed = new FileSessionStore(directory).listAll();
+        assertEquals(2, listed.size());
+        assertTrue(listed.stream().allMatch(summary -> summary.getMessageCount() == 2));
+    }
+
+    private static Session session(String id, String projectPath, String title) {
+        Session session = new Session(id);
+        session.setProjectPath(projectPath);
+        session.setProjectName(projectPath.substring(projectPath.lastIndexOf('/') + 1));
+        session.setTitle(title);
+        return session;
+    }
+
+    private static Session session(String id, String projectPath, String title, Instant updatedAt, int messages) {
+        Session session = session(id, projectPath, title);
+        for (int i = 0; i < messages; i++) {
+            session.addMessage(SessionMessage.user("message " + i)); //$NON-NLS-1$
+        }
+        session.setUpdatedAt(updatedAt);
+        return session;
+    }
+
+    private static List<String> ids(List<SessionSummary> summaries) {
+        return summaries.stream().map(SessionSummary::getId).collect(Collectors.toList());
+    }
+}
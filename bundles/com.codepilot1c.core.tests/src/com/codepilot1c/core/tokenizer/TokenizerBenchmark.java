@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.tokenizer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Manual benchmark for the tokenizers on real transcripts; not run by the test suite.
+ *
+ * <p>Pass a directory as the first argument (for example the trace artifacts under
+ * {@code ~/.codepilot1c}); every {@code .jsonl}, {@code .json}, {@code .md}, {@code .txt}
+ * and {@code .bsl} file below it, up to {@value #MAX_CORPUS_CHARS} characters, is used as
+ * one text. Without an argument the built-in calibration corpus is used. For every family
+ * it reports throughput of the exact and approximate counters and the error of the
+ * approximate counter and the former 3.5 chars/token heuristic against the exact count.
+ * Exact columns need the tiktoken vocabularies in {@link TokenizerService#PROP_VOCABULARY_DIR}.
+ * Run {@link #main} with the test classpath.</p>
+ */
+public final class TokenizerBenchmark {
+    private static final int MAX_CORPUS_CHARS = 50_000_000;
+    private static final int ROUNDS = 3;
+
+    private TokenizerBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> texts = args.length > 0 ? load(Path.of(args[0])) : CalibrationCorpus.SAMPLES;
+        long chars = texts.stream().mapToLong(String::length).sum();
+        System.out.printf(Locale.ROOT, "texts=%d chars=%d%n", texts.size(), chars); //$NON-NLS-1$
+        System.out.println("family        exact-MB/s  approx-MB/s  exact-tokens  approx-err%  legacy-err%"); //$NON-NLS-1$
+        TokenizerService service = TokenizerService.getInstance();
+        for (TokenizerFamily family : TokenizerFamily.values()) {
+            Tokenizer exact = service.getTokenizer(family);
+            Tokenizer approximate = service.getApproximateTokenizer(family);
+            double approxSpeed = throughput(approximate, texts, chars);
+            if (!exact.isExact()) {
+                System.out.printf(Locale.ROOT, "%-12s  %10s  %11.1f  %12s  %11s  %11s%n", //$NON-NLS-1$
+                        family, "-", approxSpeed, "-", "-", "-"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                continue;
+            }
+            double exactSpeed = throughput(exact, texts, chars);
+            long exactTokens = 0;
+            double approxError = 0;
+            double legacyError = 0;
+            for (String text : texts) {
+                int expected = exact.count(text);
+                exactTokens += expected;
+                approxError += Math.abs(approximate.count(text) - expected);
+                legacyError += Math.abs(Math.ceil(text.length() / 3.5) - expected);
+            }
+            System.out.printf(Locale.ROOT, "%-12s  %10.1f  %11.1f  %12d  %11.1f  %11.1f%n", //$NON-NLS-1$
+                    family, exactSpeed, approxSpeed, exactTokens,
+                    100.0 * approxError / exactTokens, 100.0 * legacyError / exactTokens);
+        }
+    }
+
+    private static double throughput(Tokenizer tokenizer, List<String> texts, long chars) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long started = System.nanoTime();
+            for (String text : texts) {
+                tokenizer.count(text);
+            }
+            best = Math.min(best, System.nanoTime() - started);
+        }
+        return chars * 2.0 / (1024 * 1024) / (best / 1_000_000_000.0);
+    }
+
+    private static List<String> load(Path root) throws IOException {
+        List<String> texts = new ArrayList<>();
+        long total = 0;
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)
+                    .filter(TokenizerBenchmark::isTranscript)::iterator) {
+                if (total >= MAX_CORPUS_CHARS) {
+                    break;
+                }
+                String text = Files.readString(file, StandardCharsets.UTF_8);
+                texts.add(text);
+                total += text.length();
+            }
+        }
+        return texts;
+    }
+
+    private static boolean isTranscript(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".jsonl") || name.endsWith(".json") || name.endsWith(".md") //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                || name.endsWith(".txt") || name.endsWith(".bsl"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.tokenizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.codepilot1c.core.model.LlmMessage;
+import com.codepilot1c.core.provider.config.LlmProviderConfig;
+import com.codepilot1c.core.provider.config.ProviderType;
+
+public class TokenizerServiceTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void resolvesFamilyFromProviderTypeAndModel() {
+        assertEquals(TokenizerFamily.O200K, TokenizerFamily.resolve(ProviderType.OPENAI_COMPATIBLE, "gpt-4o-mini")); //$NON-NLS-1$
+        assertEquals(TokenizerFamily.O200K, TokenizerFamily.resolve(ProviderType.OPENAI_COMPATIBLE, "o3-mini")); //$NON-NLS-1$
+        assertEquals(TokenizerFamily.CL100K, TokenizerFamily.resolve(ProviderType.OPENAI_COMPATIBLE, "gpt-4-turbo")); //$NON-NLS-1$
+        assertEquals(TokenizerFamily.CLAUDE, TokenizerFamily.resolve(ProviderType.OPENAI_COMPATIBLE,
+                "anthropic/claude-sonnet-4")); //$NON-NLS-1$
+        assertEquals(TokenizerFamily.OPEN_WEIGHTS, TokenizerFamily.resolve(ProviderType.OPENAI_COMPATIBLE,
+                "qwen/qwen3-coder")); //$NON-NLS-1$
+        assertEquals(TokenizerFamily.RUSSIAN, TokenizerFamily.resolve(ProviderType.OPENAI_COMPATIBLE, "GigaChat-2-Max")); //$NON-NLS-1$
+        assertEquals(TokenizerFamily.CLAUDE, TokenizerFamily.resolve(ProviderType.ANTHROPIC, "custom")); //$NON-NLS-1$
+        assertEquals(TokenizerFamily.GENERIC, TokenizerFamily.resolve(null, null));
+    }
+
+    @Test
+    public void bytePairMergesFollowRankOrder() {
+        Map<String, Integer> ranks = byteRanks();
+        ranks.put("ab", 200); //$NON-NLS-1$
+        ranks.put("abc", 201); //$NON-NLS-1$
+        BpeTokenizer tokenizer = BpeTokenizer.fromRanks("test", ranks, TokenizerFamily.CL100K.getPattern()); //$NON-NLS-1$
+
+        assertEquals(2, tokenizer.count("abcab")); //$NON-NLS-1$
+        assertEquals(1, tokenizer.count("abc")); //$NON-NLS-1$
+        // Pre-tokenization keeps the leading space with the word: " abc" cannot merge past the space
+        assertEquals(3, tokenizer.count("abc abc")); //$NON-NLS-1$
+        assertEquals(0, tokenizer.count("")); //$NON-NLS-1$
+    }
+
+    @Test
+    public void installedVocabularyGivesExactCountsAndCalibratesEstimate() throws Exception {
+        Path directory = temporaryFolder.newFolder("tokenizers").toPath(); //$NON-NLS-1$
+        writeVocabulary(directory.resolve("cl100k_base.tiktoken"), byteRanks()); //$NON-NLS-1$
+        TokenizerService service = new TokenizerService(directory, () -> config("gpt-4"), true); //$NON-NLS-1$
+
+        Tokenizer exact = service.getTokenizer(TokenizerFamily.CL100K);
+        assertTrue(exact.isExact());
+        // Without merges every UTF-8 byte is a token: Cyrillic letters take two
+        assertEquals(6, service.count("абв")); //$NON-NLS-1$
+
+        Tokenizer approximate = service.getApproximateTokenizer(TokenizerFamily.CL100K);
+        for (String sample : CalibrationCorpus.SAMPLES) {
+            int expected = exact.count(sample);
+            assertEquals(expected, approximate.count(sample), expected * 0.15);
+        }
+        assertFalse(service.getTokenizer(TokenizerFamily.CLAUDE).isExact());
+    }
+
+    @Test
+    public void messageCountsAreMemoizedPerInstanceAndTokenizer() {
+        LlmProviderConfig[] active = { config("gpt-4o") }; //$NON-NLS-1$
+        TokenizerService service = new TokenizerService(null, () -> active[0], false);
+        List<LlmMessage> history = new ArrayList<>(List.of(LlmMessage.user("Привет"), LlmMessage.assistant("Hello"))); //$NON-NLS-1$ //$NON-NLS-2$
+
+        int first = service.count(history);
+        history.add(LlmMessage.user("ещё")); //$NON-NLS-1$
+        int second = service.count(history);
+
+        assertTrue(second > first);
+        assertEquals(3L, service.getStats().messageMisses());
+        assertEquals(2L, service.getStats().messageHits());
+
+        active[0] = config("GigaChat-2"); //$NON-NLS-1$
+        service.count(history);
+        assertEquals(6L, service.getStats().messageMisses());
+    }
+
+    @Test
+    public void bundledVocabularyIsPreferredOverTheUserDirectory() throws Exception {
+        Path bundle = temporaryFolder.newFolder("bundle").toPath(); //$NON-NLS-1$
+        Path resources = Files.createDirectories(bundle.resolve("resources/tokenizers")); //$NON-NLS-1$
+        Map<String, Integer> merged = byteRanks();
+        merged.put("ab", 200); //$NON-NLS-1$
+        writeVocabulary(resources.resolve("cl100k_base.tiktoken"), merged); //$NON-NLS-1$
+        Path userDirectory = temporaryFolder.newFolder("user").toPath(); //$NON-NLS-1$
+        writeVocabulary(userDirectory.resolve("cl100k_base.tiktoken"), byteRanks()); //$NON-NLS-1$
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { bundle.toUri().toURL() }, null)) {
+            TokenizerService service = new TokenizerService(loader, userDirectory, () -> config("gpt-4"), true); //$NON-NLS-1$
+            assertTrue(service.getTokenizer(TokenizerFamily.CL100K).isExact());
+            assertEquals(1, service.count("ab")); //$NON-NLS-1$
+        }
+        TokenizerService withoutBundle = new TokenizerService(null, userDirectory, () -> config("gpt-4"), true); //$NON-NLS-1$
+        assertEquals(2, withoutBundle.count("ab")); //$NON-NLS-1$
+        assertFalse(new TokenizerService(null, null, () -> config("gpt-4"), true) //$NON-NLS-1$
+                .getTokenizer(TokenizerFamily.CL100K).isExact());
+    }
+
+    @Test
+    public void longTextCountsAreMemoizedWithoutRetainingTheText() throws Exception {
+        Path directory = temporaryFolder.newFolder("tokenizers").toPath(); //$NON-NLS-1$
+        writeVocabulary(directory.resolve("cl100k_base.tiktoken"), byteRanks()); //$NON-NLS-1$
+        TokenizerService service = new TokenizerService(directory, () -> config("gpt-4"), true); //$NON-NLS-1$
+        String text = "ab ".repeat(200) + "b"; //$NON-NLS-1$ //$NON-NLS-2$
+        WeakReference<String> counted = new WeakReference<>(text);
+
+        assertEquals(601, service.count(text));
+        assertEquals(601, service.count(new String(text.toCharArray())));
+        assertEquals(601, service.count("ab ".repeat(200) + "c")); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(1L, service.getStats().textHits());
+        assertEquals(2L, service.getStats().textMisses());
+
+        text = null;
+        for (int i = 0; i < 20 && counted.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(counted.get());
+    }
+
+    private static Map<String, Integer> byteRanks() {
+        Map<String, Integer> ranks = new LinkedHashMap<>();
+        for (int b = 0; b < 128; b++) {
+            ranks.put(String.valueOf((char) b), b);
+        }
+        return ranks;
+    }
+
+    private static void writeVocabulary(Path file, Map<String, Integer> ranks) throws Exception {
+        StringBuilder text = new StringBuilder();
+        ranks.forEach((token, rank) -> text
+                .append(Base64.getEncoder().encodeToString(token.getBytes(StandardCharsets.UTF_8)))
+                .append(' ').append(rank).append('\n'));
+        Files.writeString(file, text, StandardCharsets.US_ASCII);
+    }
+
+    private static LlmProviderConfig config(String model) {
+        LlmProviderConfig config = new LlmProviderConfig();
+        config.setType(ProviderType.OPENAI_COMPATIBLE);
+        config.setModel(model);
+        return config;
+    }
+}
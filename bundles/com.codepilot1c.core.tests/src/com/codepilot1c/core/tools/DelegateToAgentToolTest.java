@@ -11,6 +11,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 import org.junit.After;
@@ -119,6 +120,8 @@ public class DelegateToAgentToolTest {
         setToolRegistryField(registry, "tools", new HashMap<String, ITool>()); //$NON-NLS-1$
         setToolRegistryField(registry, "dynamicTools", new ConcurrentHashMap<String, ITool>()); //$NON-NLS-1$
         setToolRegistryField(registry, "gson", new Gson()); //$NON-NLS-1$
+        setToolRegistryField(registry, "surfaceGeneration", new AtomicLong()); //$NON-NLS-1$
+        setToolRegistryField(registry, "surfaceCache", new ConcurrentHashMap<>()); //$NON-NLS-1$
         return registry;
     }
 
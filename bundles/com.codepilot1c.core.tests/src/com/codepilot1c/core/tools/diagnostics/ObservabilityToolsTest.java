@@ -10,6 +10,7 @@ import java.lang.reflect.Proxy;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
@@ -163,6 +164,31 @@ public class ObservabilityToolsTest {
         assertFalse(tool.isMutating());
     }
 
+    @Test
+    public void tailEdtLogsFollowsFromTheCursorTheCallerPassesBack() throws IOException {
+        Path workspace = temporaryFolder.newFolder("workspace").toPath(); //$NON-NLS-1$
+        Path runLog = workspace.resolve(".codepilot/runs/edt_update_infobase/obs-1/update.log"); //$NON-NLS-1$
+        Files.createDirectories(runLog.getParent());
+        Files.writeString(runLog, "[INFO] op_id=obs-1 first\n", StandardCharsets.UTF_8); //$NON-NLS-1$
+        TailEdtLogsTool tool = new TailEdtLogsTool(new EdtLogTailService(workspace));
+
+        String cursor = json(tool.execute(Map.of()).join()).getAsJsonObject("data") //$NON-NLS-1$
+                .get("cursor").getAsString(); //$NON-NLS-1$
+        Files.writeString(runLog, "[INFO] op_id=obs-1 second\n", StandardCharsets.UTF_8, //$NON-NLS-1$
+                StandardOpenOption.APPEND);
+        // Another session tails in between; it must not move this caller's position
+        tool.execute(Map.of()).join();
+
+        JsonArray lines = json(tool.execute(Map.of("follow", Boolean.TRUE, "cursor", cursor)).join()) //$NON-NLS-1$ //$NON-NLS-2$
+                .getAsJsonObject("data").getAsJsonArray("lines"); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).getAsJsonObject().get("text").getAsString().contains("second")); //$NON-NLS-1$ //$NON-NLS-2$
+
+        ToolResult forged = tool.execute(Map.of("follow", Boolean.TRUE, "cursor", "not a cursor")).join(); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        assertFalse(forged.isSuccess());
+        assertEquals("INVALID_ARGUMENT", json(forged).get("error_code").getAsString()); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
     private static JsonObject json(ToolResult result) {
         String payload = result.isSuccess() ? result.getContent() : result.getErrorMessage();
         return JsonParser.parseString(payload).getAsJsonObject();
@@ -9,6 +9,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.Test;
 
@@ -58,6 +59,8 @@ public class DiscoverToolsToolSurfaceTest {
         setRegistryField(registry, "tools", new HashMap<String, ITool>()); //$NON-NLS-1$
         setRegistryField(registry, "dynamicTools", new ConcurrentHashMap<String, ITool>()); //$NON-NLS-1$
         setRegistryField(registry, "gson", new Gson()); //$NON-NLS-1$
+        setRegistryField(registry, "surfaceGeneration", new AtomicLong()); //$NON-NLS-1$
+        setRegistryField(registry, "surfaceCache", new ConcurrentHashMap<>()); //$NON-NLS-1$
         setRegistryField(registry, "augmentor", ToolSurfaceAugmentor.defaultAugmentor()); //$NON-NLS-1$
         return registry;
     }
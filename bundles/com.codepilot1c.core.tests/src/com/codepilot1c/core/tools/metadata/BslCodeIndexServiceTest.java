@@ -0,0 +1,256 @@
+package com.codepilot1c.core.tools.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.IResourceVisitor;
+import org.eclipse.core.runtime.Path;
+import org.junit.Test;
+
+import com.codepilot1c.core.edt.metadata.EdtMetadataGateway;
+import com.google.gson.JsonObject;
+
+public class BslCodeIndexServiceTest {
+
+    private static final String PROJECT = "IndexProject"; //$NON-NLS-1$
+    private static final String FIRST_PATH = "CommonModules/Первый/Module.bsl"; //$NON-NLS-1$
+    private static final String SECOND_PATH = "CommonModules/Второй/Module.bsl"; //$NON-NLS-1$
+    private static final String FIRST_TEXT = """
+            Процедура Старт() Экспорт
+                Помощник();
+            КонецПроцедуры
+
+            Процедура Помощник()
+            КонецПроцедуры
+            """;
+    private static final String SECOND_TEXT = """
+            Функция Вычислить() Экспорт
+                Возврат 1;
+            КонецФункции
+            """;
+
+    private final Map<String, MutableFile> files = new LinkedHashMap<>();
+
+    @Test
+    public void reparsesOnlyModulesWithChangedTimeStamp() {
+        files.put(FIRST_PATH, new MutableFile(FIRST_TEXT, 1L));
+        files.put(SECOND_PATH, new MutableFile(SECOND_TEXT, 1L));
+        EdtProjectAnalysisSupport support = support();
+
+        JsonObject built = support.projectCallGraph(PROJECT, ""); //$NON-NLS-1$
+        JsonObject builtStatus = support.codeIndexStatus(PROJECT);
+        assertEquals(3, built.get("project_total_methods").getAsInt()); //$NON-NLS-1$
+        assertEquals("built", builtStatus.get("source").getAsString()); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(2, builtStatus.get("reparsed_modules").getAsInt()); //$NON-NLS-1$
+        assertEquals("stamp_scan", builtStatus.get("tracking").getAsString()); //$NON-NLS-1$ //$NON-NLS-2$
+
+        JsonObject cached = support.projectCallGraph(PROJECT, ""); //$NON-NLS-1$
+        JsonObject cachedStatus = support.codeIndexStatus(PROJECT);
+        assertEquals(built, cached);
+        assertEquals("memory", cachedStatus.get("source").getAsString()); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(0, cachedStatus.get("reparsed_modules").getAsInt()); //$NON-NLS-1$
+        assertEquals(builtStatus.get("generation"), cachedStatus.get("generation")); //$NON-NLS-1$ //$NON-NLS-2$
+
+        files.get(SECOND_PATH).update(SECOND_TEXT + """
+
+                Процедура Новая()
+                    Вычислить();
+                КонецПроцедуры
+                """, 2L);
+        JsonObject updated = support.projectCallGraph(PROJECT, ""); //$NON-NLS-1$
+        JsonObject updatedStatus = support.codeIndexStatus(PROJECT);
+        assertEquals(4, updated.get("project_total_methods").getAsInt()); //$NON-NLS-1$
+        assertEquals(2, updated.get("total_edges").getAsInt()); //$NON-NLS-1$
+        assertEquals("incremental", updatedStatus.get("source").getAsString()); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(1, updatedStatus.get("reparsed_modules").getAsInt()); //$NON-NLS-1$
+    }
+
+    @Test
+    public void dropsRemovedModulesFromHierarchy() {
+        files.put(FIRST_PATH, new MutableFile(FIRST_TEXT, 1L));
+        files.put(SECOND_PATH, new MutableFile(SECOND_TEXT, 1L));
+        EdtProjectAnalysisSupport support = support();
+
+        assertEquals(2, support.projectCallGraph(PROJECT, "").get("project_total_modules").getAsInt()); //$NON-NLS-1$ //$NON-NLS-2$
+
+        files.remove(SECOND_PATH);
+        JsonObject graph = support.projectCallGraph(PROJECT, ""); //$NON-NLS-1$
+        assertEquals(1, graph.get("project_total_modules").getAsInt()); //$NON-NLS-1$
+        assertEquals(2, graph.get("project_total_methods").getAsInt()); //$NON-NLS-1$
+
+        JsonObject hierarchy = support.methodCallHierarchy(PROJECT, "Старт", "", "callees", 1); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        assertEquals(1, hierarchy.getAsJsonArray("callees").size()); //$NON-NLS-1$
+    }
+
+    @Test
+    public void resourceDeltasDoNotWaitForRunningParse() throws Exception {
+        files.put(FIRST_PATH, new MutableFile(FIRST_TEXT, 1L));
+        IProject project = project();
+        IFile first = file(project, FIRST_PATH, files.get(FIRST_PATH));
+        CountDownLatch parsing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BslCodeIndexService.ModuleSource source = new BslCodeIndexService.ModuleSource() {
+            @Override
+            public List<IFile> modules(IProject ignored) {
+                return List.of(first);
+            }
+
+            @Override
+            public String modulePath(IFile file) {
+                return FIRST_PATH;
+            }
+
+            @Override
+            public BslCodeIndexService.IndexedModule parse(IFile file) {
+                parsing.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new BslCodeIndexService.IndexedModule("CommonModule.Первый", FIRST_PATH, 1L, //$NON-NLS-1$
+                        List.of(), List.of());
+            }
+        };
+        BslCodeIndexService service = BslCodeIndexService.getInstance();
+        CompletableFuture<BslCodeIndexService.Snapshot> build =
+                CompletableFuture.supplyAsync(() -> service.snapshot(project, source));
+        try {
+            assertTrue(parsing.await(5, TimeUnit.SECONDS));
+
+            CompletableFuture<Void> delta = CompletableFuture.runAsync(
+                    () -> service.resourceChanged(changeEvent(first)));
+            delta.get(2, TimeUnit.SECONDS);
+            assertTrue(service.status(project).get("pending_changes").getAsInt() > 0); //$NON-NLS-1$
+        } finally {
+            release.countDown();
+        }
+        assertEquals(1, build.get(10, TimeUnit.SECONDS).modules().size());
+    }
+
+    private IResourceChangeEvent changeEvent(IFile file) {
+        IResourceDelta delta = (IResourceDelta) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[] {IResourceDelta.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getResource" -> file; //$NON-NLS-1$
+                    case "getKind" -> Integer.valueOf(IResourceDelta.ADDED); //$NON-NLS-1$
+                    case "accept" -> { //$NON-NLS-1$
+                        ((IResourceDeltaVisitor) args[0]).visit((IResourceDelta) proxy);
+                        yield null;
+                    }
+                    default -> defaultValue(method.getReturnType());
+                });
+        return (IResourceChangeEvent) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[] {IResourceChangeEvent.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getType" -> Integer.valueOf(IResourceChangeEvent.POST_CHANGE); //$NON-NLS-1$
+                    case "getDelta" -> delta; //$NON-NLS-1$
+                    default -> defaultValue(method.getReturnType());
+                });
+    }
+
+    private EdtProjectAnalysisSupport support() {
+        IProject project = project();
+        return new EdtProjectAnalysisSupport(new EdtMetadataGateway() {
+            @Override
+            public IProject resolveProject(String projectName) {
+                return project;
+            }
+        });
+    }
+
+    private IProject project() {
+        IProject[] projectRef = new IProject[1];
+        projectRef[0] = (IProject) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[] {IProject.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getName" -> PROJECT; //$NON-NLS-1$
+                    case "exists", "isOpen" -> Boolean.TRUE; //$NON-NLS-1$ //$NON-NLS-2$
+                    case "getType" -> Integer.valueOf(IResource.PROJECT); //$NON-NLS-1$
+                    case "getFullPath" -> new Path("/" + PROJECT); //$NON-NLS-1$ //$NON-NLS-2$
+                    case "accept" -> { //$NON-NLS-1$
+                        if (args[0] instanceof IResourceVisitor visitor) {
+                            for (Map.Entry<String, MutableFile> entry : new ArrayList<>(files.entrySet())) {
+                                visitor.visit(file(projectRef[0], entry.getKey(), entry.getValue()));
+                            }
+                        }
+                        yield null;
+                    }
+                    case "hashCode" -> Integer.valueOf(System.identityHashCode(proxy)); //$NON-NLS-1$
+                    case "equals" -> Boolean.valueOf(proxy == args[0]); //$NON-NLS-1$
+                    default -> defaultValue(method.getReturnType());
+                });
+        return projectRef[0];
+    }
+
+    private IFile file(IProject project, String relativePath, MutableFile state) {
+        String name = relativePath.substring(relativePath.lastIndexOf('/') + 1);
+        return (IFile) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[] {IFile.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getName" -> name; //$NON-NLS-1$
+                    case "getFileExtension" -> "bsl"; //$NON-NLS-1$ //$NON-NLS-2$
+                    case "getProject" -> project; //$NON-NLS-1$
+                    case "getType" -> Integer.valueOf(IResource.FILE); //$NON-NLS-1$
+                    case "exists" -> Boolean.TRUE; //$NON-NLS-1$
+                    case "getFullPath" -> new Path("/" + PROJECT + "/src/" + relativePath); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                    case "getProjectRelativePath" -> new Path("src/" + relativePath); //$NON-NLS-1$ //$NON-NLS-2$
+                    case "getLocation" -> new Path("/tmp/" + PROJECT + "/src/" + relativePath); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                    case "getLocalTimeStamp" -> Long.valueOf(state.timeStamp); //$NON-NLS-1$
+                    case "getContents" -> new ByteArrayInputStream(state.text.getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+                    case "hashCode" -> Integer.valueOf(System.identityHashCode(proxy)); //$NON-NLS-1$
+                    case "equals" -> Boolean.valueOf(proxy == args[0]); //$NON-NLS-1$
+                    default -> defaultValue(method.getReturnType());
+                });
+    }
+
+    private Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return Boolean.FALSE;
+        }
+        if (type == int.class) {
+            return Integer.valueOf(0);
+        }
+        if (type == long.class) {
+            return Long.valueOf(0L);
+        }
+        return null;
+    }
+
+    private static final class MutableFile {
+
+        private String text;
+        private long timeStamp;
+
+        MutableFile(String text, long timeStamp) {
+            this.text = text;
+            this.timeStamp = timeStamp;
+        }
+
+        void update(String newText, long newTimeStamp) {
+            this.text = newText;
+            this.timeStamp = newTimeStamp;
+        }
+    }
+}
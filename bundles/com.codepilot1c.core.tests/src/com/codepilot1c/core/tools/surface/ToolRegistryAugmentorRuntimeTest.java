@@ -11,6 +11,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.Test;
 
@@ -102,6 +103,8 @@ public class ToolRegistryAugmentorRuntimeTest {
         setRegistryField(registry, "tools", new HashMap<String, com.codepilot1c.core.tools.ITool>()); //$NON-NLS-1$
         setRegistryField(registry, "dynamicTools", new ConcurrentHashMap<String, com.codepilot1c.core.tools.ITool>()); //$NON-NLS-1$
         setRegistryField(registry, "gson", new Gson()); //$NON-NLS-1$
+        setRegistryField(registry, "surfaceGeneration", new AtomicLong()); //$NON-NLS-1$
+        setRegistryField(registry, "surfaceCache", new ConcurrentHashMap<>()); //$NON-NLS-1$
         setRegistryField(registry, "augmentor", ToolSurfaceAugmentor.defaultAugmentor()); //$NON-NLS-1$
         return registry;
     }
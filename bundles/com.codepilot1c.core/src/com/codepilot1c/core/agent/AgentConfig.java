@@ -35,9 +35,13 @@ public class AgentConfig {
     /** Максимальный размер вывода инструмента по умолчанию (100KB) */
     public static final int DEFAULT_MAX_TOOL_OUTPUT_SIZE = 100 * 1024;
 
+    /** Сколько read-only инструментов из одного ответа модели выполняются одновременно */
+    public static final int DEFAULT_MAX_PARALLEL_TOOL_CALLS = 4;
+
     private final int maxSteps;
     private final long timeoutMs;
     private final int maxToolOutputSize;
+    private final int maxParallelToolCalls;
     private final Set<String> enabledTools;
     private final Set<String> disabledTools;
     private final boolean streamingEnabled;
@@ -54,6 +58,7 @@ public class AgentConfig {
         this.maxSteps = builder.maxSteps;
         this.timeoutMs = builder.timeoutMs;
         this.maxToolOutputSize = builder.maxToolOutputSize;
+        this.maxParallelToolCalls = builder.maxParallelToolCalls;
         this.enabledTools = Collections.unmodifiableSet(new HashSet<>(builder.enabledTools));
         this.disabledTools = Collections.unmodifiableSet(new HashSet<>(builder.disabledTools));
         this.streamingEnabled = builder.streamingEnabled;
@@ -114,6 +119,17 @@ public class AgentConfig {
         return maxToolOutputSize;
     }
 
+    /**
+     * Максимальное число read-only вызовов инструментов, выполняемых одновременно.
+     * Изменяющие вызовы и вызовы с подтверждением всегда выполняются по порядку;
+     * значение 1 отключает параллельное выполнение.
+     *
+     * @return лимит параллельных вызовов (&gt;= 1)
+     */
+    public int getMaxParallelToolCalls() {
+        return maxParallelToolCalls;
+    }
+
     /**
      * Набор явно включенных инструментов.
      * Если пустой - используются все доступные инструменты.
@@ -227,6 +243,7 @@ public class AgentConfig {
         return "AgentConfig{" +
                 "maxSteps=" + maxSteps +
                 ", timeoutMs=" + timeoutMs +
+                ", maxParallelToolCalls=" + maxParallelToolCalls +
                 ", streaming=" + streamingEnabled +
                 ", profile=" + profileName +
                 ", delegationDepth=" + delegationDepth +
@@ -243,6 +260,7 @@ public class AgentConfig {
         private int maxSteps = DEFAULT_MAX_STEPS;
         private long timeoutMs = DEFAULT_TIMEOUT_MS;
         private int maxToolOutputSize = DEFAULT_MAX_TOOL_OUTPUT_SIZE;
+        private int maxParallelToolCalls = DEFAULT_MAX_PARALLEL_TOOL_CALLS;
         private Set<String> enabledTools = new HashSet<>();
         private Set<String> disabledTools = new HashSet<>();
         private boolean streamingEnabled = true;
@@ -270,6 +288,7 @@ public class AgentConfig {
                 this.maxSteps = config.maxSteps;
                 this.timeoutMs = config.timeoutMs;
                 this.maxToolOutputSize = config.maxToolOutputSize;
+                this.maxParallelToolCalls = config.maxParallelToolCalls;
                 this.enabledTools = new HashSet<>(config.enabledTools);
                 this.disabledTools = new HashSet<>(config.disabledTools);
                 this.streamingEnabled = config.streamingEnabled;
@@ -353,6 +372,21 @@ public class AgentConfig {
             return this;
         }
 
+        /**
+         * Устанавливает лимит одновременно выполняемых read-only вызовов инструментов.
+         *
+         * @param maxParallelToolCalls лимит (&gt; 0), 1 — строго последовательное выполнение
+         * @return this builder
+         */
+        public Builder maxParallelToolCalls(int maxParallelToolCalls) {
+            if (maxParallelToolCalls <= 0) {
+                throw new IllegalArgumentException(
+                        "maxParallelToolCalls must be positive: " + maxParallelToolCalls); //$NON-NLS-1$
+            }
+            this.maxParallelToolCalls = maxParallelToolCalls;
+            return this;
+        }
+
         /**
          * Устанавливает список разрешенных инструментов.
          *
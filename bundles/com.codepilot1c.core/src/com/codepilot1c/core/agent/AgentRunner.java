@@ -52,6 +52,7 @@ import com.codepilot1c.core.agent.prompts.ToolPromptRenderer;
 import com.codepilot1c.core.evaluation.trace.AgentTraceSession;
 import com.codepilot1c.core.evaluation.trace.TraceEventType;
 import com.codepilot1c.core.evaluation.trace.TracingLlmProvider;
+import com.codepilot1c.core.memory.compaction.SpeculativeCompactor;
 import com.codepilot1c.core.model.LlmMessage;
 import com.codepilot1c.core.model.LlmRequest;
 import com.codepilot1c.core.model.LlmResponse;
@@ -107,6 +108,7 @@ import com.google.gson.JsonObject;
 public class AgentRunner implements IAgentRunner {
 
     private static final String PLUGIN_ID = "com.codepilot1c.core";
+    private static final String READ_ONLY_TAG = "read-only"; //$NON-NLS-1$
     private static final String PROP_PROMPT_TELEMETRY_ENABLED =
             "codepilot1c.prompt.telemetry.enabled"; //$NON-NLS-1$
 
@@ -132,6 +134,9 @@ public class AgentRunner implements IAgentRunner {
     // Thread-safe conversation history with object lock
     private final Object historyLock = new Object();
     private List<LlmMessage> conversationHistory = new ArrayList<>();
+    /** Results of a parallel tool batch by call position, until they are appended in call order. */
+    private ToolResultBatch deferredToolResults;
+    private final Object toolCompletionLock = new Object();
 
     private ToolGraphRouter toolGraphRouter;
     private final ToolContextGate contextGate = new ToolContextGate();
@@ -149,6 +154,8 @@ public class AgentRunner implements IAgentRunner {
     private final Map<Integer, String> stepTraceEventIds = new ConcurrentHashMap<>();
     private final Map<String, String> toolTraceEventIds = new ConcurrentHashMap<>();
     private final Map<String, Boolean> authorizedToolSensitivity = new ConcurrentHashMap<>();
+    private volatile SpeculativeCompactor historyCompactor;
+    private volatile SpeculativeCompactor.Policy historyCompactionPolicy;
 
     /**
      * Создает AgentRunner.
@@ -174,6 +181,21 @@ public class AgentRunner implements IAgentRunner {
         this(provider, toolRegistry, null);
     }
 
+    /**
+     * Включает сжатие истории между шагами агента заранее подготовленной сводкой.
+     *
+     * <p>Перед каждым запросом к LLM история сжимается, если превышен порог политики
+     * и сводка уже готова; иначе сводка готовится в фоне и шаг не ждет ее.</p>
+     *
+     * @param compactor компактор истории, {@code null} отключает сжатие
+     * @param policy пороги сжатия
+     */
+    @Override
+    public void setHistoryCompactor(SpeculativeCompactor compactor, SpeculativeCompactor.Policy policy) {
+        this.historyCompactionPolicy = policy;
+        this.historyCompactor = compactor;
+    }
+
     @Override
     public CompletableFuture<AgentResult> run(String prompt, AgentConfig config) {
         return run(prompt, new ArrayList<>(), config);
@@ -341,6 +363,8 @@ public class AgentRunner implements IAgentRunner {
         emit(new AgentStepEvent(step, config.getMaxSteps(), "Отправка запроса к LLM"));
         state.set(AgentState.RUNNING);
 
+        compactHistoryIfReady();
+
         // Build request with tools
         LlmRequest request = buildRequest(config);
 
@@ -478,19 +502,29 @@ public class AgentRunner implements IAgentRunner {
                 : String.valueOf(System.identityHashCode(this));
         ToolLogger.getInstance().setAgentContext(sessionId, currentStep.get());
 
-        // Process tool calls sequentially
-        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
-
-        for (ToolCall call : toolCalls) {
-            chain = chain.thenCompose(v -> {
-                if (cancelRequested.get()) {
-                    return CompletableFuture.completedFuture(null);
-                }
-                return executeSingleToolCall(call, config);
-            });
+        // Read-only calls run concurrently, mutating and confirmation-gated calls stay ordered
+        ToolCallScheduler scheduler = new ToolCallScheduler(config.getMaxParallelToolCalls(),
+                call -> classifyToolCall(call, config),
+                call -> executeSingleToolCall(call, config),
+                cancelRequested::get);
+        List<List<ToolCall>> plan = scheduler.plan(toolCalls);
+        boolean parallel = ToolCallScheduler.hasParallelGroup(plan);
+        if (parallel) {
+            // Results complete out of order; they are appended to history in call order below
+            synchronized (historyLock) {
+                deferredToolResults = new ToolResultBatch(toolCalls);
+            }
         }
+        int step = currentStep.get();
 
-        return chain.thenCompose(v -> {
+        return scheduler.run(plan).whenComplete((stats, error) -> {
+            if (parallel) {
+                commitDeferredToolResults();
+            }
+        }).thenCompose(stats -> {
+            if (parallel) {
+                traceToolBatch(step, stats, config.getMaxParallelToolCalls());
+            }
             if (cancelRequested.get()) {
                 return completeCancelled();
             }
@@ -506,6 +540,67 @@ public class AgentRunner implements IAgentRunner {
         });
     }
 
+    /**
+     * Определяет, можно ли выполнять вызов параллельно с соседними.
+     *
+     * <p>Параллельно выполняются только инструменты, объявленные через {@link com.codepilot1c.core.tools.ToolMeta} как
+     * неизменяющие и помеченные тегом {@code read-only}, если правила доступа не требуют для них
+     * подтверждения. Неизвестный инструмент только добавляет ошибку в историю и тоже безопасен.</p>
+     */
+    private ToolCallScheduler.Kind classifyToolCall(ToolCall call, AgentConfig config) {
+        ToolResolution resolution = toolRegistry.resolveTool(call.getName());
+        ITool tool = resolution.tool();
+        if (tool == null) {
+            return ToolCallScheduler.Kind.READ_ONLY;
+        }
+        if (tool.requiresConfirmation()) {
+            return ToolCallScheduler.Kind.CONFIRMATION_REQUIRED;
+        }
+        if (tool.isMutating() || tool.isDestructive()
+                || resolution.dynamicCapability() == DynamicToolCapability.MUTATING
+                || tool.getTags() == null || !tool.getTags().contains(READ_ONLY_TAG)) {
+            return ToolCallScheduler.Kind.MUTATING;
+        }
+        AgentProfile profile = resolveProfile(config);
+        ProfilePermissionGate.GateResult gate = ProfilePermissionGate.evaluate(
+                profile.getDefaultPermissions(), globalRulesSafe(), call.getName(),
+                parseArguments(call.getArguments()));
+        if (gate.decision() == ProfilePermissionGate.GateDecision.ASK) {
+            return ToolCallScheduler.Kind.CONFIRMATION_REQUIRED;
+        }
+        return ToolCallScheduler.Kind.READ_ONLY;
+    }
+
+    /**
+     * Добавляет отложенные результаты пакета в историю в порядке вызовов.
+     */
+    private void commitDeferredToolResults() {
+        synchronized (historyLock) {
+            ToolResultBatch results = deferredToolResults;
+            deferredToolResults = null;
+            if (results != null) {
+                results.commitTo(conversationHistory);
+            }
+        }
+    }
+
+    private void traceToolBatch(int step, ToolCallScheduler.BatchStats stats, int maxParallel) {
+        if (traceSession == null || stats == null) {
+            return;
+        }
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("step", Integer.valueOf(step)); //$NON-NLS-1$
+        payload.put("tool_calls", Integer.valueOf(stats.calls())); //$NON-NLS-1$
+        payload.put("parallel_tool_calls", Integer.valueOf(stats.parallelCalls())); //$NON-NLS-1$
+        payload.put("max_parallel_tool_calls", Integer.valueOf(maxParallel)); //$NON-NLS-1$
+        payload.put("wall_clock_ms", Long.valueOf(stats.wallClockMs())); //$NON-NLS-1$
+        payload.put("sequential_ms", Long.valueOf(stats.sequentialMs())); //$NON-NLS-1$
+        payload.put("saved_ms", Long.valueOf(stats.savedMs())); //$NON-NLS-1$
+        String parentEventId = stepTraceEventIds.get(Integer.valueOf(step));
+        traceSession.writeAgentEvent(TraceEventType.TOOL_BATCH,
+                parentEventId != null ? parentEventId : agentStartedTraceEventId, payload);
+    }
+
     /**
      * Выполняет один вызов инструмента.
      */
@@ -518,7 +613,7 @@ public class AgentRunner implements IAgentRunner {
         if (tool == null) {
             // Unknown tool - add error result and emit event
             ToolResult errorResult = ToolResult.failure("Неизвестный инструмент: " + toolName);
-            addToolResult(call.getId(), errorResult);
+            addToolResult(call, errorResult);
             emit(new ToolResultEvent(step, toolName, call.getId(), errorResult, 0));
             return CompletableFuture.completedFuture(null);
         }
@@ -529,7 +624,7 @@ public class AgentRunner implements IAgentRunner {
         AgentProfile profile = resolveProfile(config);
         if (!isAllowedByConfig(config, profile, resolution)) {
             ToolResult disabledResult = ToolResult.failure("Инструмент отключен: " + toolName);
-            addToolResult(call.getId(), disabledResult);
+            addToolResult(call, disabledResult);
             emit(new ToolResultEvent(step, toolName, call.getId(), disabledResult, 0));
             return CompletableFuture.completedFuture(null);
         }
@@ -541,7 +636,7 @@ public class AgentRunner implements IAgentRunner {
             ToolResult deniedResult = permissionDenied(
                     toolName, profile.getId(), null, "tool_not_in_profile", //$NON-NLS-1$
                     "profile", null); //$NON-NLS-1$
-            addToolResult(call.getId(), deniedResult);
+            addToolResult(call, deniedResult);
             emit(new ToolResultEvent(step, toolName, call.getId(), deniedResult, 0));
             return CompletableFuture.completedFuture(null);
         }
@@ -560,7 +655,7 @@ public class AgentRunner implements IAgentRunner {
             ToolResult deniedResult = permissionDenied(
                     toolName, profile.getId(), resource, reasonCode,
                     gate.layer(), ruleDescription);
-            addToolResult(call.getId(), deniedResult);
+            addToolResult(call, deniedResult);
             emit(new ToolResultEvent(step, toolName, call.getId(), deniedResult, 0));
             log(new Status(IStatus.WARNING, PLUGIN_ID, String.format(
                     "permission_denied tool=%s profile=%s layer=%s resource=%s", //$NON-NLS-1$
@@ -628,7 +723,7 @@ public class AgentRunner implements IAgentRunner {
                             : "confirmation_unavailable_tool_policy", //$NON-NLS-1$
                     layer,
                     gateAsk && gate.rule() != null ? gate.rule().getDescription() : null);
-            addToolResult(call.getId(), denied);
+            addToolResult(call, denied);
             emit(new ToolResultEvent(step, call.getName(), call.getId(), denied, 0));
             log(new Status(IStatus.WARNING, PLUGIN_ID, String.format(
                     "confirmation_unavailable tool=%s profile=%s layer=%s", //$NON-NLS-1$
@@ -659,7 +754,7 @@ public class AgentRunner implements IAgentRunner {
                 case SKIPPED:
                     toolResult = ToolResult.success("Операция пропущена пользователем",
                             ToolResult.ToolResultType.CONFIRMATION);
-                    addToolResult(call.getId(), toolResult);
+                    addToolResult(call, toolResult);
                     emit(new ToolResultEvent(step, call.getName(), call.getId(), toolResult, 0));
                     return CompletableFuture.completedFuture(null);
                 case DENIED:
@@ -674,7 +769,7 @@ public class AgentRunner implements IAgentRunner {
                     data.addProperty("rule_description", ""); //$NON-NLS-1$ //$NON-NLS-2$
                     toolResult = ToolResult.failure(
                             "Операция отклонена пользователем", data); //$NON-NLS-1$
-                    addToolResult(call.getId(), toolResult);
+                    addToolResult(call, toolResult);
                     emit(new ToolResultEvent(step, call.getName(), call.getId(), toolResult, 0));
                     return CompletableFuture.completedFuture(null);
             }
@@ -684,7 +779,7 @@ public class AgentRunner implements IAgentRunner {
             if (error instanceof CancellationException ||
                     (error.getCause() instanceof CancellationException)) {
                 ToolResult cancelResult = ToolResult.failure("Операция отменена");
-                addToolResult(call.getId(), cancelResult);
+                addToolResult(call, cancelResult);
                 emit(new ToolResultEvent(step, call.getName(), call.getId(), cancelResult, 0));
             }
             return null;
@@ -717,35 +812,49 @@ public class AgentRunner implements IAgentRunner {
                         ToolExecutionService.staleResolutionResult(call.getName())));
         return dispatched
                 .handle((result, error) -> {
-                    long executionTime = System.currentTimeMillis() - toolStartTime;
-                    toolCallsCount.incrementAndGet();
-
-                    ToolResult toolResult;
-                    if (error != null) {
-                        toolResult = ToolResult.failure("Ошибка: " + error.getMessage());
-                    } else {
-                        toolResult = result;
+                    synchronized (toolCompletionLock) {
+                        completeToolCall(call, step, toolStartTime, result, error);
                     }
+                    return null;
+                });
+    }
 
-                    if (toolGraphRouter != null) {
-                        toolGraphRouter.onToolResult(call.getName(), toolResult);
-                    }
+    /**
+     * Учитывает результат инструмента. Вызывается под {@code toolCompletionLock}: вызовы
+     * параллельной группы завершаются на разных потоках.
+     */
+    private void completeToolCall(ToolCall call, int step, long toolStartTime, ToolResult result, Throwable error) {
+        long executionTime = System.currentTimeMillis() - toolStartTime;
+        toolCallsCount.incrementAndGet();
+
+        ToolResult toolResult;
+        if (error != null) {
+            toolResult = ToolResult.failure("Ошибка: " + error.getMessage());
+        } else {
+            toolResult = result;
+        }
 
-                    addToolResult(call.getId(), toolResult);
-                    emit(new ToolResultEvent(step, call.getName(), call.getId(),
-                            toolResult, executionTime));
+        if (toolGraphRouter != null) {
+            toolGraphRouter.onToolResult(call.getName(), toolResult);
+        }
 
-                    return null;
-                });
+        addToolResult(call, toolResult);
+        emit(new ToolResultEvent(step, call.getName(), call.getId(),
+                toolResult, executionTime));
     }
 
     /**
      * Добавляет результат инструмента в историю.
      */
-    private void addToolResult(String callId, ToolResult result) {
+    private void addToolResult(ToolCall call, ToolResult result) {
         String content = result.getContentForLlm(maxToolResultHistoryChars);
         synchronized (historyLock) {
-            conversationHistory.add(LlmMessage.toolResult(callId, content));
+            LlmMessage message = LlmMessage.toolResult(call.getId(), content);
+            if (deferredToolResults != null) {
+                deferredToolResults.put(call, message);
+            } else {
+                conversationHistory.add(message);
+            }
         }
     }
 
@@ -767,6 +876,23 @@ public class AgentRunner implements IAgentRunner {
         return config.isToolAllowed(toolName);
     }
 
+    /**
+     * Подменяет голову истории готовой фоновой сводкой, не блокируя шаг.
+     */
+    private void compactHistoryIfReady() {
+        SpeculativeCompactor compactor = historyCompactor;
+        SpeculativeCompactor.Policy policy = historyCompactionPolicy;
+        if (compactor == null || policy == null) {
+            return;
+        }
+        synchronized (historyLock) {
+            List<LlmMessage> compacted = compactor.compactIfNeeded(conversationHistory, policy);
+            if (compacted != null) {
+                conversationHistory = new ArrayList<>(compacted);
+            }
+        }
+    }
+
     private LlmRequest buildRequest(AgentConfig config) {
         List<ToolDefinition> tools = new ArrayList<>();
         ToolGraphToolFilter graphFilter = toolGraphRouter != null
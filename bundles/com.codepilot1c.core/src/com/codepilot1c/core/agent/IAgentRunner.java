@@ -11,6 +11,7 @@ import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import com.codepilot1c.core.agent.events.IAgentEventListener;
+import com.codepilot1c.core.memory.compaction.SpeculativeCompactor;
 import com.codepilot1c.core.model.LlmMessage;
 
 /**
@@ -95,6 +96,17 @@ public interface IAgentRunner {
         return getState().isActive();
     }
 
+    /**
+     * Включает сжатие истории между шагами агента заранее подготовленной сводкой.
+     *
+     * <p>По умолчанию не поддерживается и игнорируется.</p>
+     *
+     * @param compactor компактор истории, {@code null} отключает сжатие
+     * @param policy пороги сжатия
+     */
+    default void setHistoryCompactor(SpeculativeCompactor compactor, SpeculativeCompactor.Policy policy) {
+    }
+
     /**
      * Добавляет слушателя событий агента.
      *
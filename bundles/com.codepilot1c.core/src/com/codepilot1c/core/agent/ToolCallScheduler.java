@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.agent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import com.codepilot1c.core.model.ToolCall;
+
+/**
+ * Выполняет пакет вызовов инструментов из одного ответа модели.
+ *
+ * <p>Подряд идущие вызовы {@link Kind#READ_ONLY} образуют группу и запускаются одновременно,
+ * не более {@code maxConcurrency} за раз. Каждый вызов {@link Kind#MUTATING} или
+ * {@link Kind#CONFIRMATION_REQUIRED} — барьер: он стартует после завершения всех предыдущих
+ * вызовов, а следующие ждут его. При {@code maxConcurrency == 1} поведение совпадает с
+ * последовательной цепочкой.</p>
+ *
+ * <p>Планировщик не трогает историю диалога: порядок результатов восстанавливает вызывающий код.</p>
+ */
+final class ToolCallScheduler {
+
+    /**
+     * Класс вызова с точки зрения планирования.
+     */
+    enum Kind {
+        /** Без побочных эффектов, можно выполнять параллельно. */
+        READ_ONLY,
+        /** Меняет состояние проекта, выполняется строго по порядку. */
+        MUTATING,
+        /** Требует подтверждения пользователя, выполняется строго по порядку. */
+        CONFIRMATION_REQUIRED
+    }
+
+    /**
+     * Итоги выполнения пакета.
+     *
+     * @param calls число запущенных вызовов
+     * @param parallelCalls сколько из них попало в параллельные группы
+     * @param wallClockMs реальное время выполнения пакета
+     * @param sequentialMs сумма длительностей вызовов, то есть время последовательного выполнения
+     */
+    record BatchStats(int calls, int parallelCalls, long wallClockMs, long sequentialMs) {
+
+        /** Сэкономленное время относительно последовательного выполнения. */
+        long savedMs() {
+            return Math.max(0L, sequentialMs - wallClockMs);
+        }
+    }
+
+    private final int maxConcurrency;
+    private final Function<ToolCall, Kind> classifier;
+    private final Function<ToolCall, CompletableFuture<Void>> executor;
+    private final BooleanSupplier cancelled;
+
+    /**
+     * @param maxConcurrency максимум одновременно выполняемых read-only вызовов
+     * @param classifier классификатор вызова
+     * @param executor выполняет один вызов
+     * @param cancelled сигнал отмены: после него новые вызовы не запускаются
+     */
+    ToolCallScheduler(int maxConcurrency, Function<ToolCall, Kind> classifier,
+            Function<ToolCall, CompletableFuture<Void>> executor, BooleanSupplier cancelled) {
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.classifier = classifier;
+        this.executor = executor;
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Возвращает, есть ли в плане хотя бы одна параллельная группа.
+     */
+    static boolean hasParallelGroup(List<List<ToolCall>> plan) {
+        return plan.stream().anyMatch(group -> group.size() > 1);
+    }
+
+    /**
+     * Выполняет план, построенный {@link #plan}, и возвращает статистику пакета.
+     */
+    CompletableFuture<BatchStats> run(List<List<ToolCall>> plan) {
+        long started = System.nanoTime();
+        AtomicInteger launched = new AtomicInteger();
+        AtomicInteger parallel = new AtomicInteger();
+        AtomicLong busyNanos = new AtomicLong();
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (List<ToolCall> group : plan) {
+            chain = chain.thenCompose(v -> runGroup(group, launched, parallel, busyNanos));
+        }
+        return chain.thenApply(v -> new BatchStats(launched.get(), parallel.get(),
+                (System.nanoTime() - started) / 1_000_000L, busyNanos.get() / 1_000_000L));
+    }
+
+    /**
+     * Разбивает пакет на группы: подряд идущие read-only вызовы вместе, остальные по одному.
+     */
+    List<List<ToolCall>> plan(List<ToolCall> calls) {
+        List<List<ToolCall>> groups = new ArrayList<>();
+        List<ToolCall> readOnly = new ArrayList<>();
+        for (ToolCall call : calls) {
+            if (maxConcurrency > 1 && classifier.apply(call) == Kind.READ_ONLY) {
+                readOnly.add(call);
+                continue;
+            }
+            if (!readOnly.isEmpty()) {
+                groups.add(readOnly);
+                readOnly = new ArrayList<>();
+            }
+            groups.add(List.of(call));
+        }
+        if (!readOnly.isEmpty()) {
+            groups.add(readOnly);
+        }
+        return groups;
+    }
+
+    private CompletableFuture<Void> runGroup(List<ToolCall> group, AtomicInteger launched,
+            AtomicInteger parallel, AtomicLong busyNanos) {
+        if (group.size() > 1) {
+            parallel.addAndGet(group.size());
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Window window = new Window(group, done, launched, busyNanos);
+        int initial = Math.min(maxConcurrency, group.size());
+        for (int i = 0; i < initial; i++) {
+            window.launchNext();
+        }
+        return done;
+    }
+
+    /**
+     * Скользящее окно группы: завершение вызова запускает следующий.
+     */
+    private final class Window {
+
+        private final List<ToolCall> group;
+        private final CompletableFuture<Void> done;
+        private final AtomicInteger launched;
+        private final AtomicLong busyNanos;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger finished = new AtomicInteger();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Window(List<ToolCall> group, CompletableFuture<Void> done, AtomicInteger launched, AtomicLong busyNanos) {
+            this.group = group;
+            this.done = done;
+            this.launched = launched;
+            this.busyNanos = busyNanos;
+        }
+
+        void launchNext() {
+            int index = next.getAndIncrement();
+            if (index >= group.size()) {
+                return;
+            }
+            if (cancelled.getAsBoolean() || failure.get() != null) {
+                // Не запускаем оставшиеся вызовы, но учитываем их, чтобы группа завершилась
+                finish();
+                launchNext();
+                return;
+            }
+            launched.incrementAndGet();
+            long callStarted = System.nanoTime();
+            CompletableFuture<Void> call;
+            try {
+                call = executor.apply(group.get(index));
+            } catch (RuntimeException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            call.whenComplete((v, error) -> {
+                busyNanos.addAndGet(System.nanoTime() - callStarted);
+                if (error != null) {
+                    failure.compareAndSet(null, error);
+                }
+                finish();
+                launchNext();
+            });
+        }
+
+        private void finish() {
+            if (finished.incrementAndGet() == group.size()) {
+                Throwable error = failure.get();
+                if (error != null) {
+                    done.completeExceptionally(error);
+                } else {
+                    done.complete(null);
+                }
+            }
+        }
+    }
+}
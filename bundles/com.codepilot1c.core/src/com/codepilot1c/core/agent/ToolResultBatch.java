@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.agent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.codepilot1c.core.model.LlmMessage;
+import com.codepilot1c.core.model.ToolCall;
+
+/**
+ * Результаты параллельного пакета вызовов до их добавления в историю.
+ *
+ * <p>Результаты хранятся по позиции вызова в ответе модели, а не по его идентификатору:
+ * некоторые OpenAI-совместимые бэкенды и локальные модели присылают пустые или повторяющиеся
+ * id, и при хранении по id один результат затирал бы другой, оставляя tool_call без ответа.
+ * Позиция определяется по идентичности объекта {@link ToolCall}; повторно переданный тот же
+ * объект занимает следующую свободную позицию.</p>
+ *
+ * <p>Класс не потокобезопасен, вызывающий код синхронизирует доступ.</p>
+ */
+final class ToolResultBatch {
+
+    private final List<ToolCall> calls;
+    private final LlmMessage[] results;
+    private final List<LlmMessage> unmatched = new ArrayList<>();
+
+    ToolResultBatch(List<ToolCall> calls) {
+        this.calls = List.copyOf(calls);
+        this.results = new LlmMessage[calls.size()];
+    }
+
+    /**
+     * Запоминает результат вызова.
+     *
+     * @param call вызов из пакета
+     * @param message сообщение с результатом
+     */
+    void put(ToolCall call, LlmMessage message) {
+        for (int i = 0; i < results.length; i++) {
+            if (calls.get(i) == call && results[i] == null) {
+                results[i] = message;
+                return;
+            }
+        }
+        // Вызов не из этого пакета: не теряем результат, добавим его в конце
+        unmatched.add(message);
+    }
+
+    /**
+     * Добавляет накопленные результаты в историю в порядке вызовов.
+     *
+     * @param history история диалога
+     */
+    void commitTo(List<LlmMessage> history) {
+        for (LlmMessage message : results) {
+            if (message != null) {
+                history.add(message);
+            }
+        }
+        history.addAll(unmatched);
+    }
+}
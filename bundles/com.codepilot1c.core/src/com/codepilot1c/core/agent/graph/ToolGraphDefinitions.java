@@ -82,7 +82,7 @@ final class ToolGraphDefinitions {
         );
         Set<String> mutateTools = Set.of(
                 "create_metadata", "add_metadata_child", "update_metadata", "delete_metadata", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
-                "author_yaxunit_tests" //$NON-NLS-1$
+                "apply_metadata_batch", "author_yaxunit_tests" //$NON-NLS-1$ //$NON-NLS-2$
         );
         Set<String> diagTools = Set.of("get_diagnostics", "edt_diagnostics"); //$NON-NLS-1$ //$NON-NLS-2$
 
@@ -283,7 +283,7 @@ final class ToolGraphDefinitions {
         );
         Set<String> metadataTools = Set.of(
                 "create_metadata", "add_metadata_child", "update_metadata", "delete_metadata", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
-                "ensure_module_artifact" //$NON-NLS-1$
+                "apply_metadata_batch", "ensure_module_artifact" //$NON-NLS-1$ //$NON-NLS-2$
         );
         Set<String> implementationTools = Set.of(
                 "create_form", "apply_form_recipe", "mutate_form_model", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
@@ -347,6 +347,7 @@ final class ToolGraphDefinitions {
 
         Set<String> semanticMutationTools = Set.of(
                 "create_metadata", "add_metadata_child", "update_metadata", "delete_metadata", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                "apply_metadata_batch", //$NON-NLS-1$
                 "create_form", "apply_form_recipe", "mutate_form_model", "ensure_module_artifact", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
                 "dcs_manage", "dcs_create_main_schema", "dcs_upsert_query_dataset", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
                 "dcs_upsert_parameter", "dcs_upsert_calculated_field" //$NON-NLS-1$ //$NON-NLS-2$
@@ -21,6 +21,7 @@ import com.codepilot1c.core.agent.AgentResult;
 import com.codepilot1c.core.agent.AgentRunner;
 import com.codepilot1c.core.agent.AgentState;
 import com.codepilot1c.core.agent.events.IAgentEventListener;
+import com.codepilot1c.core.memory.compaction.SpeculativeCompactor;
 import com.codepilot1c.core.model.LlmMessage;
 import com.codepilot1c.core.provider.ILlmProvider;
 import com.codepilot1c.core.tools.ToolRegistry;
@@ -39,6 +40,8 @@ final class LangGraphAgentRunContext {
     private final AtomicReference<AgentRunner> activeRunner;
     private final AtomicReference<AgentResult> lastResult;
     private final boolean studioMode;
+    private SpeculativeCompactor historyCompactor;
+    private SpeculativeCompactor.Policy historyCompactionPolicy;
 
     LangGraphAgentRunContext(
             ILlmProvider provider,
@@ -61,6 +64,11 @@ final class LangGraphAgentRunContext {
         this.studioMode = studioMode;
     }
 
+    void setHistoryCompactor(SpeculativeCompactor compactor, SpeculativeCompactor.Policy policy) {
+        this.historyCompactor = compactor;
+        this.historyCompactionPolicy = policy;
+    }
+
     Map<String, Object> run(String prompt) {
         Map<String, Object> output = new HashMap<>();
         output.put("agentId", "agent"); //$NON-NLS-1$ //$NON-NLS-2$
@@ -81,6 +89,7 @@ final class LangGraphAgentRunContext {
         }
 
         AgentRunner runner = new AgentRunner(provider, toolRegistry, baseSystemPrompt);
+        runner.setHistoryCompactor(historyCompactor, historyCompactionPolicy);
         if (listeners != null) {
             for (IAgentEventListener listener : listeners) {
                 if (listener != null) {
@@ -27,6 +27,7 @@ import com.codepilot1c.core.agent.AgentResult;
 import com.codepilot1c.core.agent.AgentState;
 import com.codepilot1c.core.agent.IAgentRunner;
 import com.codepilot1c.core.agent.events.IAgentEventListener;
+import com.codepilot1c.core.memory.compaction.SpeculativeCompactor;
 import com.codepilot1c.core.model.LlmMessage;
 import com.codepilot1c.core.provider.ILlmProvider;
 import com.codepilot1c.core.tools.ToolRegistry;
@@ -48,6 +49,8 @@ public class LangGraphAgentRunner implements IAgentRunner {
 
     private volatile List<LlmMessage> lastHistory = new ArrayList<>();
     private volatile int lastSteps = 0;
+    private volatile SpeculativeCompactor historyCompactor;
+    private volatile SpeculativeCompactor.Policy historyCompactionPolicy;
 
     public LangGraphAgentRunner(ILlmProvider provider, ToolRegistry toolRegistry) {
         this(provider, toolRegistry, ""); //$NON-NLS-1$
@@ -59,6 +62,12 @@ public class LangGraphAgentRunner implements IAgentRunner {
         this.baseSystemPrompt = baseSystemPrompt != null ? baseSystemPrompt : ""; //$NON-NLS-1$
     }
 
+    @Override
+    public void setHistoryCompactor(SpeculativeCompactor compactor, SpeculativeCompactor.Policy policy) {
+        this.historyCompactionPolicy = policy;
+        this.historyCompactor = compactor;
+    }
+
     @Override
     public CompletableFuture<AgentResult> run(String prompt, AgentConfig config) {
         return run(prompt, List.of(), config);
@@ -89,6 +98,7 @@ public class LangGraphAgentRunner implements IAgentRunner {
                         lastResult,
                         false
                 );
+                context.setHistoryCompactor(historyCompactor, historyCompactionPolicy);
 
                 org.bsc.langgraph4j.StateGraph<org.bsc.langgraph4j.state.AgentState> graph =
                         LangGraphAgentGraphFactory.buildGraph(context);
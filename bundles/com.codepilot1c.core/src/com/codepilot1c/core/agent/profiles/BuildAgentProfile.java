@@ -98,6 +98,7 @@ public class BuildAgentProfile implements AgentProfile {
             "ensure_module_artifact",
             "update_metadata",
             "mutate_form_model",
+            "apply_metadata_batch",
             "delete_metadata",
             "render_template",
             "inspect_template",
@@ -267,6 +268,9 @@ public class BuildAgentProfile implements AgentProfile {
                 PermissionRule.ask("mutate_form_model")
                         .withDescription("Обновление модели управляемых форм EDT")
                         .forAllResources(),
+                PermissionRule.ask("apply_metadata_batch")
+                        .withDescription("Пакетное изменение метаданных EDT одной транзакцией")
+                        .forAllResources(),
                 PermissionRule.ask("delete_metadata")
                         .withDescription("Удаление объектов метаданных EDT")
                         .forAllResources(),
@@ -7,8 +7,7 @@
  */
 package com.codepilot1c.core.agent.prompts;
 
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -18,6 +17,9 @@ import com.codepilot1c.core.memory.project.ProjectMemoryContextService;
 
 /**
  * Loads layered instruction files with source provenance.
+ *
+ * <p>Files are read through {@link PromptSourceCache}; layers are recomputed only when one of
+ * the files or directories they were discovered from changes.</p>
  */
 public final class InstructionContextService {
 
@@ -43,6 +45,7 @@ public final class InstructionContextService {
     }
 
     private final WorkspacePromptSourceResolver sourceResolver;
+    private final PromptSourceCache cache;
 
     public InstructionContextService() {
         this(new WorkspacePromptSourceResolver());
@@ -53,11 +56,17 @@ public final class InstructionContextService {
     }
 
     InstructionContextService(WorkspacePromptSourceResolver sourceResolver) {
+        this(sourceResolver, PromptSourceCache.getInstance());
+    }
+
+    InstructionContextService(WorkspacePromptSourceResolver sourceResolver, PromptSourceCache cache) {
         this.sourceResolver = sourceResolver;
+        this.cache = cache;
     }
 
     public List<InstructionLayer> loadAgentsLayers() {
-        return discoverLayers("AGENTS.md", LayerKind.AGENTS); //$NON-NLS-1$
+        return cache.derive("agents-layers:" + sourceResolver.getProjectStart() + ':' //$NON-NLS-1$
+                + sourceResolver.getUserHome(), () -> discoverLayers("AGENTS.md", LayerKind.AGENTS)); //$NON-NLS-1$
     }
 
     public List<InstructionLayer> loadAgentsLayers(String projectPath) {
@@ -74,10 +83,12 @@ public final class InstructionContextService {
         }
         try {
             Path projectRoot = Path.of(projectPath).toAbsolutePath().normalize();
-            if (!Files.isDirectory(projectRoot)) {
-                return List.of();
-            }
-            return loadProjectMemoryCodeLayer(projectRoot);
+            return cache.derive("code-layers:" + projectRoot, () -> { //$NON-NLS-1$
+                if (!cache.isDirectory(projectRoot)) {
+                    return List.<InstructionLayer>of();
+                }
+                return loadProjectMemoryCodeLayer(projectRoot);
+            });
         } catch (RuntimeException e) {
             return List.of();
         }
@@ -93,7 +104,7 @@ public final class InstructionContextService {
             if (projectStart.equals(currentStart != null ? currentStart.toAbsolutePath().normalize() : null)) {
                 return this;
             }
-            return new InstructionContextService(sourceResolver.withProjectStart(projectStart));
+            return new InstructionContextService(sourceResolver.withProjectStart(projectStart), cache);
         } catch (RuntimeException e) {
             return this;
         }
@@ -114,6 +125,16 @@ public final class InstructionContextService {
     }
 
     private List<InstructionLayer> loadProjectMemoryCodeLayer(Path projectRoot) {
+        // The read itself bypasses the cache; record the alias lookup and content it depends on.
+        for (Path child : cache.list(projectRoot)) {
+            if (ProjectMemoryContextService.isAliasFileName(child.getFileName().toString())) {
+                try {
+                    cache.read(child);
+                } catch (IOException e) {
+                    // Reported by the read below.
+                }
+            }
+        }
         ProjectMemoryContextService.ReadResult result =
                 new ProjectMemoryContextService().readForPrompt(projectRoot, CODE_PROMPT_BUDGET_BYTES);
         ProjectMemoryContextService.Status status = result.getStatus();
@@ -135,14 +156,21 @@ public final class InstructionContextService {
     }
 
     private void addCandidate(Map<String, InstructionLayer> layers, Path candidate, LayerKind kind) {
-        if (candidate == null || !Files.isRegularFile(candidate)) {
+        if (candidate == null) {
             return;
         }
         try {
-            String content = Files.readString(candidate, StandardCharsets.UTF_8).strip();
-            if (!content.isEmpty()) {
-                Path source = candidate.toRealPath();
-                layers.put(source.toString(), new InstructionLayer(kind, source.toString(), content));
+            PromptSourceCache.Source file = cache.read(candidate);
+            if (file == null) {
+                return;
+            }
+            String source = file.realPath().toString();
+            InstructionLayer layer = cache.memoize("instruction-layer:" + kind + ':' + source, file.hash(), () -> { //$NON-NLS-1$
+                String content = file.content().strip();
+                return content.isEmpty() ? null : new InstructionLayer(kind, source, content);
+            });
+            if (layer != null) {
+                layers.put(source, layer);
             }
         } catch (Exception e) {
             // Ignore unreadable layer and keep remaining context discovery alive.
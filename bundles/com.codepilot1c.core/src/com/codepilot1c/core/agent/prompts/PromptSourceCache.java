@@ -0,0 +1,587 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.agent.prompts;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import com.codepilot1c.core.logging.VibeLogger;
+
+/**
+ * Caches the files prompts are assembled from: AGENTS.md and Code.md layers, skills and memory files.
+ *
+ * <p>File attributes, contents and directory listings are kept in memory. Directories holding
+ * cached paths are registered with a {@link WatchService}, and change events drop the affected
+ * entries; while a path is watched its attributes are trusted for
+ * {@code codepilot1c.prompt.sourceCache.statIntervalMs} before being checked again, which also
+ * bounds staleness on platforms whose watch service polls. Paths that cannot be watched are
+ * checked on every access.</p>
+ *
+ * <p>{@link #derive(String, Supplier)} caches a value computed from cached sources and records
+ * every source the computation looked at; the value is reused until one of them changes.
+ * {@link #memoize(String, String, Supplier)} reuses objects parsed from identical content.</p>
+ *
+ * <p>In-process writers call {@link #invalidate(Path)} after writing so the next read is
+ * never served from a stale entry.</p>
+ */
+public final class PromptSourceCache {
+
+    private static final VibeLogger.CategoryLogger LOG = VibeLogger.forClass(PromptSourceCache.class);
+
+    private static final long STAT_INTERVAL_MS =
+            Long.getLong("codepilot1c.prompt.sourceCache.statIntervalMs", 2_000L); //$NON-NLS-1$
+    private static final int MAX_WATCHED_DIRECTORIES =
+            Integer.getInteger("codepilot1c.prompt.sourceCache.maxWatchedDirectories", 256); //$NON-NLS-1$
+    private static final int MAX_CONTENT_ENTRIES = 512;
+    private static final int MAX_DERIVED_ENTRIES = 256;
+    private static final int MAX_MEMOIZED_ENTRIES = 1_024;
+
+    private static volatile PromptSourceCache instance;
+
+    /**
+     * Content of a prompt source file.
+     *
+     * @param path     normalized absolute path
+     * @param realPath path with symbolic links resolved
+     * @param content  file content decoded as UTF-8
+     * @param hash     SHA-256 of the content
+     */
+    public record Source(Path path, Path realPath, String content, String hash) {
+    }
+
+    /**
+     * Cache counters.
+     *
+     * @param hits               reads and listings served from memory
+     * @param reloads            reads and listings that went to disk
+     * @param fileStats          attribute reads performed
+     * @param derivedHits        derived values reused
+     * @param derivedMisses      derived values computed
+     * @param invalidations      invalidations by watch events or explicit calls
+     * @param watchedDirectories directories currently registered with the watch service
+     */
+    public record Stats(long hits, long reloads, long fileStats, long derivedHits, long derivedMisses,
+            long invalidations, int watchedDirectories) {
+
+        public double hitRate() {
+            long total = hits + reloads;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+
+    private enum Kind {
+        MISSING, FILE, DIRECTORY, OTHER
+    }
+
+    private record Stamp(Kind kind, FileTime modified, long size, Object fileKey) {
+
+        static final Stamp MISSING = new Stamp(Kind.MISSING, null, -1L, null);
+
+        static Stamp of(Path path) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                Kind kind = attributes.isRegularFile() ? Kind.FILE
+                        : attributes.isDirectory() ? Kind.DIRECTORY : Kind.OTHER;
+                return new Stamp(kind, attributes.lastModifiedTime(), attributes.size(), attributes.fileKey());
+            } catch (IOException | RuntimeException e) {
+                return MISSING;
+            }
+        }
+    }
+
+    private record StatEntry(Stamp stamp, boolean watched, long checkedNanos) {
+    }
+
+    private record ContentEntry(Stamp stamp, Source source) {
+    }
+
+    private record ListEntry(Stamp stamp, List<Path> children) {
+    }
+
+    private enum DependencyKind {
+        KIND, LIST, CONTENT
+    }
+
+    private record DependencyKey(DependencyKind kind, Path path) {
+    }
+
+    private record Dependency(DependencyKey key, Object observed) {
+    }
+
+    private record DerivedEntry(List<Dependency> dependencies, Object value) {
+    }
+
+    private final boolean watchEnabled;
+    private final long statIntervalNanos;
+    private final int maxWatchedDirectories;
+    private final Object lock = new Object();
+    private final Map<Path, StatEntry> stats = new HashMap<>();
+    private final Map<Path, ContentEntry> contents = lru(MAX_CONTENT_ENTRIES);
+    private final Map<Path, ListEntry> listings = lru(MAX_CONTENT_ENTRIES);
+    private final Map<String, DerivedEntry> derived = lru(MAX_DERIVED_ENTRIES);
+    private final Map<String, Object> memoized = lru(MAX_MEMOIZED_ENTRIES);
+    private final Map<Path, WatchKey> watchedDirectories = new HashMap<>();
+    private final Map<WatchKey, Path> directoriesByKey = new HashMap<>();
+    private final ThreadLocal<Deque<Map<DependencyKey, Dependency>>> recording =
+            ThreadLocal.withInitial(ArrayDeque::new);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong fileStats = new AtomicLong();
+    private final AtomicLong derivedHits = new AtomicLong();
+    private final AtomicLong derivedMisses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private WatchService watchService;
+    private boolean watchUnavailable;
+    private long epoch;
+
+    private PromptSourceCache() {
+        this(true, STAT_INTERVAL_MS, MAX_WATCHED_DIRECTORIES);
+    }
+
+    PromptSourceCache(boolean watchEnabled, long statIntervalMs, int maxWatchedDirectories) {
+        this.watchEnabled = watchEnabled;
+        this.statIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, statIntervalMs));
+        this.maxWatchedDirectories = maxWatchedDirectories;
+    }
+
+    public static PromptSourceCache getInstance() {
+        if (instance == null) {
+            synchronized (PromptSourceCache.class) {
+                if (instance == null) {
+                    instance = new PromptSourceCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Reads a file as UTF-8.
+     *
+     * @return the content, or {@code null} if the path is not a regular file
+     * @throws IOException if the file exists but cannot be read or decoded
+     */
+    public Source read(Path file) throws IOException {
+        Path path = normalize(file);
+        if (path == null) {
+            return null;
+        }
+        Source source;
+        try {
+            source = lookupContent(path);
+        } catch (IOException e) {
+            record(new Dependency(new DependencyKey(DependencyKind.CONTENT, path), null));
+            throw e;
+        }
+        record(new Dependency(new DependencyKey(DependencyKind.CONTENT, path), source != null ? source.hash() : null));
+        return source;
+    }
+
+    /**
+     * Lists the entries of a directory, sorted by path.
+     *
+     * @return the entries, empty if the path is not a readable directory
+     */
+    public List<Path> list(Path directory) {
+        Path path = normalize(directory);
+        if (path == null) {
+            return List.of();
+        }
+        List<Path> children = lookupListing(path);
+        record(new Dependency(new DependencyKey(DependencyKind.LIST, path), children));
+        return children;
+    }
+
+    public boolean exists(Path path) {
+        return kind(path) != Kind.MISSING;
+    }
+
+    public boolean isRegularFile(Path path) {
+        return kind(path) == Kind.FILE;
+    }
+
+    public boolean isDirectory(Path path) {
+        return kind(path) == Kind.DIRECTORY;
+    }
+
+    /**
+     * Returns the value cached under {@code key}, computing it when any source read, listed or
+     * checked by the previous computation has changed since.
+     *
+     * <p>Sources are recorded only when accessed through this cache; the loader must not read
+     * prompt sources directly.</p>
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T derive(String key, Supplier<T> loader) {
+        DerivedEntry entry;
+        synchronized (lock) {
+            entry = derived.get(key);
+        }
+        if (entry != null && entry.dependencies().stream().allMatch(this::isCurrent)) {
+            derivedHits.incrementAndGet();
+            entry.dependencies().forEach(this::record);
+            return (T) entry.value();
+        }
+        derivedMisses.incrementAndGet();
+        Deque<Map<DependencyKey, Dependency>> frames = recording.get();
+        Map<DependencyKey, Dependency> frame = new LinkedHashMap<>();
+        frames.push(frame);
+        T value;
+        try {
+            value = loader.get();
+        } finally {
+            frames.pop();
+        }
+        synchronized (lock) {
+            derived.put(key, new DerivedEntry(List.copyOf(frame.values()), value));
+        }
+        return value;
+    }
+
+    /**
+     * Returns the object previously parsed from content with the same hash, or parses it.
+     *
+     * @param namespace distinguishes parsers and any context the parser depends on besides the content
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T memoize(String namespace, String hash, Supplier<T> parser) {
+        String key = namespace + '\u0000' + hash;
+        synchronized (lock) {
+            Object cached = memoized.get(key);
+            if (cached != null) {
+                return (T) cached;
+            }
+        }
+        T value = parser.get();
+        if (value != null) {
+            synchronized (lock) {
+                memoized.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Drops everything cached for the path and below it, and the listing of its parent.
+     */
+    public void invalidate(Path path) {
+        Path normalized = normalize(path);
+        if (normalized != null) {
+            invalidateTree(normalized, normalized.getParent());
+        }
+    }
+
+    public Stats getStats() {
+        int watched;
+        synchronized (lock) {
+            watched = watchedDirectories.size();
+        }
+        return new Stats(hits.get(), reloads.get(), fileStats.get(), derivedHits.get(), derivedMisses.get(),
+                invalidations.get(), watched);
+    }
+
+    /**
+     * Stops the watcher thread of the shared cache, if it was ever used.
+     */
+    public static void stopInstance() {
+        PromptSourceCache cache = instance;
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    /**
+     * Stops the watch service; the cache keeps working with attribute checks on every access.
+     */
+    void close() {
+        synchronized (lock) {
+            watchUnavailable = true;
+            watchedDirectories.clear();
+            directoriesByKey.clear();
+            stats.clear();
+            if (watchService != null) {
+                try {
+                    watchService.close();
+                } catch (IOException e) {
+                    // Nothing left to release.
+                }
+                watchService = null;
+            }
+        }
+    }
+
+    private Kind kind(Path file) {
+        Path path = normalize(file);
+        if (path == null) {
+            return Kind.MISSING;
+        }
+        Kind kind = stamp(path).kind();
+        record(new Dependency(new DependencyKey(DependencyKind.KIND, path), kind));
+        return kind;
+    }
+
+    private Source lookupContent(Path path) throws IOException {
+        Stamp stamp = stamp(path);
+        if (stamp.kind() != Kind.FILE) {
+            return null;
+        }
+        synchronized (lock) {
+            ContentEntry entry = contents.get(path);
+            if (entry != null && entry.stamp().equals(stamp)) {
+                hits.incrementAndGet();
+                return entry.source();
+            }
+        }
+        reloads.incrementAndGet();
+        String content = Files.readString(path, StandardCharsets.UTF_8);
+        Source source = new Source(path, path.toRealPath(), content, sha256(content));
+        synchronized (lock) {
+            contents.put(path, new ContentEntry(stamp, source));
+        }
+        return source;
+    }
+
+    private List<Path> lookupListing(Path path) {
+        Stamp stamp = stamp(path);
+        if (stamp.kind() != Kind.DIRECTORY) {
+            return List.of();
+        }
+        synchronized (lock) {
+            ListEntry entry = listings.get(path);
+            if (entry != null && entry.stamp().equals(stamp)) {
+                hits.incrementAndGet();
+                return entry.children();
+            }
+        }
+        reloads.incrementAndGet();
+        List<Path> children;
+        try (Stream<Path> entries = Files.list(path)) {
+            children = entries.map(PromptSourceCache::normalize).filter(Objects::nonNull).sorted().toList();
+        } catch (IOException | RuntimeException e) {
+            return List.of();
+        }
+        synchronized (lock) {
+            listings.put(path, new ListEntry(stamp, children));
+        }
+        return children;
+    }
+
+    private boolean isCurrent(Dependency dependency) {
+        Path path = dependency.key().path();
+        return switch (dependency.key().kind()) {
+            case KIND -> stamp(path).kind() == dependency.observed();
+            case LIST -> lookupListing(path).equals(dependency.observed());
+            case CONTENT -> {
+                try {
+                    Source source = lookupContent(path);
+                    yield Objects.equals(source != null ? source.hash() : null, dependency.observed());
+                } catch (IOException e) {
+                    yield false;
+                }
+            }
+        };
+    }
+
+    private void record(Dependency dependency) {
+        for (Map<DependencyKey, Dependency> frame : recording.get()) {
+            frame.putIfAbsent(dependency.key(), dependency);
+        }
+    }
+
+    private Stamp stamp(Path path) {
+        long now = System.nanoTime();
+        long observedEpoch;
+        synchronized (lock) {
+            StatEntry entry = stats.get(path);
+            if (entry != null && entry.watched() && now - entry.checkedNanos() < statIntervalNanos) {
+                return entry.stamp();
+            }
+            observedEpoch = epoch;
+        }
+        fileStats.incrementAndGet();
+        Stamp stamp = Stamp.of(path);
+        boolean watched = watchEnabled && ensureWatched(path, stamp);
+        synchronized (lock) {
+            // An invalidation racing with this check may describe a change the stamp missed.
+            stats.put(path, new StatEntry(stamp, watched && epoch == observedEpoch, now));
+        }
+        return stamp;
+    }
+
+    /**
+     * Watches the nearest existing ancestor of the path, which reports its creation, change and
+     * removal, and a directory itself, which reports changes of its entries.
+     */
+    private boolean ensureWatched(Path path, Stamp stamp) {
+        Path anchor = path.getParent();
+        while (anchor != null && !isWatched(anchor) && !Files.isDirectory(anchor)) {
+            anchor = anchor.getParent();
+        }
+        if (anchor == null || !watchDirectory(anchor)) {
+            return false;
+        }
+        return stamp.kind() != Kind.DIRECTORY || watchDirectory(path);
+    }
+
+    private boolean isWatched(Path directory) {
+        synchronized (lock) {
+            return watchedDirectories.containsKey(directory);
+        }
+    }
+
+    private boolean watchDirectory(Path directory) {
+        synchronized (lock) {
+            if (watchedDirectories.containsKey(directory)) {
+                return true;
+            }
+            if (watchUnavailable || watchedDirectories.size() >= maxWatchedDirectories) {
+                return false;
+            }
+            if (watchService == null) {
+                try {
+                    watchService = FileSystems.getDefault().newWatchService();
+                } catch (IOException | RuntimeException e) {
+                    watchUnavailable = true;
+                    LOG.warn("Watch service unavailable, prompt sources are checked on every access: %s", //$NON-NLS-1$
+                            e.getMessage());
+                    return false;
+                }
+                startWatcher(watchService);
+            }
+            try {
+                WatchKey key = directory.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+                watchedDirectories.put(directory, key);
+                directoriesByKey.put(key, directory);
+                return true;
+            } catch (IOException | RuntimeException e) {
+                LOG.debug("Cannot watch %s: %s", directory, e.getMessage()); //$NON-NLS-1$
+                return false;
+            }
+        }
+    }
+
+    private void startWatcher(WatchService service) {
+        Thread thread = new Thread(() -> runWatcher(service), "CodePilot1C-PromptSourceWatcher"); //$NON-NLS-1$
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void runWatcher(WatchService service) {
+        while (true) {
+            WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ClosedWatchServiceException e) {
+                return;
+            }
+            Path directory;
+            synchronized (lock) {
+                directory = directoriesByKey.get(key);
+            }
+            List<WatchEvent<?>> events = key.pollEvents();
+            if (directory == null) {
+                key.cancel();
+                continue;
+            }
+            for (WatchEvent<?> event : events) {
+                if (event.kind() == OVERFLOW || !(event.context() instanceof Path name)) {
+                    invalidateTree(directory, directory);
+                } else {
+                    invalidateTree(directory.resolve(name), directory);
+                }
+            }
+            if (!key.reset()) {
+                synchronized (lock) {
+                    watchedDirectories.remove(directory, key);
+                    directoriesByKey.remove(key);
+                }
+                invalidateTree(directory, directory.getParent());
+            }
+        }
+    }
+
+    private void invalidateTree(Path root, Path changedDirectory) {
+        synchronized (lock) {
+            epoch++;
+            stats.keySet().removeIf(path -> path.startsWith(root));
+            contents.keySet().removeIf(path -> path.startsWith(root));
+            listings.keySet().removeIf(path -> path.startsWith(root));
+            if (changedDirectory != null) {
+                stats.remove(changedDirectory);
+                listings.remove(changedDirectory);
+            }
+        }
+        invalidations.incrementAndGet();
+    }
+
+    private static Path normalize(Path path) {
+        if (path == null) {
+            return null;
+        }
+        try {
+            return path.toAbsolutePath().normalize();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String sha256(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256") //$NON-NLS-1$
+                    .digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder(digest.length * 2);
+            for (byte value : digest) {
+                builder.append(Character.forDigit((value >> 4) & 0xF, 16)).append(Character.forDigit(value & 0xF, 16));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is unavailable", e); //$NON-NLS-1$
+        }
+    }
+
+    private static <K, V> Map<K, V> lru(int maxEntries) {
+        return new LinkedHashMap<>(64, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+}
@@ -8,8 +8,11 @@
 package com.codepilot1c.core.agent.prompts;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -33,6 +36,7 @@ import com.codepilot1c.core.skills.SkillDefinition;
 public final class SystemPromptAssembler {
 
     private static final String PLUGIN_ID = "com.codepilot1c.core"; //$NON-NLS-1$
+    private static final int MAX_RENDERED_HEADS = 32;
 
     public record PromptAssembly(
             String prompt,
@@ -78,6 +82,30 @@ public final class SystemPromptAssembler {
     private final SkillCatalog skillCatalog;
     private final ContributorAssembler contributorAssembler;
 
+    /**
+     * Rendered base prompt, profile addition and instruction layers. Layers come from
+     * {@link PromptSourceCache} and are the same instances while their files are unchanged,
+     * so comparing keys is cheap.
+     */
+    private final Map<RenderedHeadKey, String> renderedHeads = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<RenderedHeadKey, String> eldest) {
+                    return size() > MAX_RENDERED_HEADS;
+                }
+            });
+
+    private record RenderedHeadKey(
+            String profileName,
+            String basePrompt,
+            String promptAddition,
+            boolean backendSelectedInUi,
+            List<InstructionContextService.InstructionLayer> agentsLayers,
+            List<InstructionContextService.InstructionLayer> codeLayers) {
+    }
+
     @FunctionalInterface
     interface ContributorAssembler {
         String assemble(PromptAssemblyContext ctx);
@@ -172,14 +200,8 @@ public final class SystemPromptAssembler {
         List<InstructionContextService.InstructionLayer> codeLayers =
                 instructionContextService.loadCodeLayers(backendSelectedInUi, input.projectPath());
         List<SkillDefinition> skills = loadRequestedSkills(input.requestedSkills(), backendSelectedInUi);
-        String effectiveBasePrompt = AgentPromptTemplates.adaptForBackend(input.basePrompt(), backendSelectedInUi);
-        String effectivePromptAddition = AgentPromptTemplates.adaptForBackend(input.promptAddition(), backendSelectedInUi);
 
-        StringBuilder prompt = new StringBuilder();
-        appendDistinct(prompt, effectiveBasePrompt);
-        appendDistinct(prompt, effectivePromptAddition);
-        appendInstructionLayers(prompt, "AGENTS.md", agentsLayers); //$NON-NLS-1$
-        appendInstructionLayers(prompt, "Code.md", codeLayers); //$NON-NLS-1$
+        StringBuilder prompt = new StringBuilder(renderedHead(input, backendSelectedInUi, agentsLayers, codeLayers));
 
         // Memory contributors: Platform Knowledge [300], Project Metadata [400], Memory [500]
         appendContributors(prompt, input, backendSelectedInUi);
@@ -193,6 +215,29 @@ public final class SystemPromptAssembler {
         return new PromptAssembly(effectivePrompt, agentsLayers, codeLayers, skills, backendSelectedInUi);
     }
 
+    /**
+     * Renders the base prompt, profile addition and AGENTS.md/Code.md layers, reusing the
+     * rendering of the previous assembly for the same profile when nothing has changed.
+     */
+    private String renderedHead(AssemblyInput input, boolean backendSelectedInUi,
+            List<InstructionContextService.InstructionLayer> agentsLayers,
+            List<InstructionContextService.InstructionLayer> codeLayers) {
+        RenderedHeadKey key = new RenderedHeadKey(input.profileName(), input.basePrompt(), input.promptAddition(),
+                backendSelectedInUi, agentsLayers, codeLayers);
+        String cached = renderedHeads.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        StringBuilder head = new StringBuilder();
+        appendDistinct(head, AgentPromptTemplates.adaptForBackend(input.basePrompt(), backendSelectedInUi));
+        appendDistinct(head, AgentPromptTemplates.adaptForBackend(input.promptAddition(), backendSelectedInUi));
+        appendInstructionLayers(head, "AGENTS.md", agentsLayers); //$NON-NLS-1$
+        appendInstructionLayers(head, "Code.md", codeLayers); //$NON-NLS-1$
+        String rendered = head.toString();
+        renderedHeads.put(key, rendered);
+        return rendered;
+    }
+
     /**
      * Appends memory contributor sections between Code.md and Skills.
      */
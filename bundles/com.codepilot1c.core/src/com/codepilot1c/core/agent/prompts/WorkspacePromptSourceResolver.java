@@ -7,7 +7,6 @@
  */
 package com.codepilot1c.core.agent.prompts;
 
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
@@ -73,8 +72,9 @@ public final class WorkspacePromptSourceResolver {
      * Returns true if the directory contains a project/repo root marker.
      */
     private static boolean isProjectRoot(Path directory) {
+        PromptSourceCache cache = PromptSourceCache.getInstance();
         return ROOT_MARKERS.stream()
-                .anyMatch(marker -> Files.exists(directory.resolve(marker)));
+                .anyMatch(marker -> cache.exists(directory.resolve(marker)));
     }
 
     public List<Path> hiddenPromptCandidates(String fileName) {
@@ -94,6 +94,10 @@ public final class WorkspacePromptSourceResolver {
         return projectStart;
     }
 
+    Path getUserHome() {
+        return userHome;
+    }
+
     public List<Path> systemPromptOverrideCandidates(boolean backendSelectedInUi) {
         List<Path> candidates = new ArrayList<>(hiddenPromptCandidates("system.md")); //$NON-NLS-1$
         if (backendSelectedInUi) {
@@ -0,0 +1,389 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.diff;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sequence diff engine shared by {@link LineDiffUtils} and {@link InlineDiffUtils}.
+ *
+ * <p>Elements are interned to integers, the common prefix and suffix are trimmed, and the rest is
+ * compared with one of two algorithms:
+ * <ul>
+ *   <li>{@link Algorithm#MYERS} - Myers' O(ND) algorithm with the linear-space middle-snake
+ *       refinement, producing a minimal edit script;</li>
+ *   <li>{@link Algorithm#HISTOGRAM} - histogram diff: splits on the rarest common run of elements
+ *       (typically unique lines such as procedure headers) and falls back to Myers inside regions
+ *       without such anchors. Edit scripts are slightly longer but align with code structure.</li>
+ * </ul>
+ *
+ * <p>Memory is O(N + M). When the edit distance of a region exceeds the cost limit the search
+ * stops at the furthest-reaching point and splits there; the result is still a valid, though not
+ * minimal, edit script and is flagged as {@linkplain EditScript#approximate() approximate}.</p>
+ */
+final class DiffEngine {
+
+    /**
+     * Diff algorithm.
+     */
+    enum Algorithm {
+        /** Minimal edit script. */
+        MYERS,
+        /** Anchored on rare common elements, Myers inside. */
+        HISTOGRAM
+    }
+
+    /**
+     * Marks of deleted elements of the first sequence and added elements of the second one.
+     * Unmarked elements of both sequences match each other in order.
+     *
+     * @param deleted per-element deletion flags of the first sequence
+     * @param added per-element addition flags of the second sequence
+     * @param approximate whether the cost limit was hit somewhere
+     */
+    record EditScript(boolean[] deleted, boolean[] added, boolean approximate) {
+    }
+
+    /** Lower bound of the cost limit, as in GNU diff. */
+    static final int MIN_COST_LIMIT = 4096;
+
+    /** Occurrence count above which an element is not used as a histogram anchor. */
+    private static final int MAX_CHAIN_LENGTH = 64;
+
+    private final int[] a;
+    private final int[] b;
+    private final boolean[] deleted;
+    private final boolean[] added;
+    private final int costLimit;
+    private final int[] forward;
+    private final int[] backward;
+    private final int diagonalOffset;
+    private boolean approximate;
+
+    private DiffEngine(int[] a, int[] b, int costLimit) {
+        this.a = a;
+        this.b = b;
+        this.deleted = new boolean[a.length];
+        this.added = new boolean[b.length];
+        this.costLimit = costLimit;
+        this.forward = new int[a.length + b.length + 3];
+        this.backward = new int[a.length + b.length + 3];
+        this.diagonalOffset = b.length + 1;
+    }
+
+    /**
+     * Computes an edit script with the default cost limit.
+     */
+    static <T> EditScript diff(List<T> first, List<T> second, Algorithm algorithm) {
+        return diff(first, second, algorithm, defaultCostLimit(first.size(), second.size()));
+    }
+
+    /**
+     * Computes an edit script.
+     *
+     * @param first original sequence
+     * @param second modified sequence
+     * @param algorithm algorithm to use
+     * @param costLimit edit distance per region after which the search turns heuristic
+     * @return edit script
+     */
+    static <T> EditScript diff(List<T> first, List<T> second, Algorithm algorithm, int costLimit) {
+        Map<T, Integer> ids = new HashMap<>();
+        int[] a = intern(first, ids);
+        int[] b = intern(second, ids);
+        DiffEngine engine = new DiffEngine(a, b, Math.max(1, costLimit));
+        if (algorithm == Algorithm.HISTOGRAM) {
+            engine.histogram(ids.size());
+        } else {
+            engine.myers(0, a.length, 0, b.length);
+        }
+        return new EditScript(engine.deleted, engine.added, engine.approximate);
+    }
+
+    /**
+     * GNU diff heuristic: about the square root of the number of diagonals, at least
+     * {@link #MIN_COST_LIMIT}.
+     */
+    static int defaultCostLimit(int firstSize, int secondSize) {
+        long diagonals = (long) firstSize + secondSize + 3;
+        int bits = 64 - Long.numberOfLeadingZeros(diagonals);
+        return Math.max(MIN_COST_LIMIT, 1 << Math.min(30, bits / 2));
+    }
+
+    private static <T> int[] intern(List<T> values, Map<T, Integer> ids) {
+        int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            Integer id = ids.computeIfAbsent(values.get(i), ignored -> Integer.valueOf(ids.size()));
+            result[i] = id.intValue();
+        }
+        return result;
+    }
+
+    // --- Myers ---------------------------------------------------------------------------------
+
+    /**
+     * Diffs {@code a[xoff, xlim)} against {@code b[yoff, ylim)}. Regions are kept on an explicit
+     * stack, so deep splits cannot overflow the thread stack.
+     */
+    private void myers(int xoff, int xlim, int yoff, int ylim) {
+        ArrayDeque<int[]> regions = new ArrayDeque<>();
+        regions.push(new int[] { xoff, xlim, yoff, ylim });
+        while (!regions.isEmpty()) {
+            int[] region = regions.pop();
+            int x0 = region[0];
+            int x1 = region[1];
+            int y0 = region[2];
+            int y1 = region[3];
+            while (x0 < x1 && y0 < y1 && a[x0] == b[y0]) {
+                x0++;
+                y0++;
+            }
+            while (x1 > x0 && y1 > y0 && a[x1 - 1] == b[y1 - 1]) {
+                x1--;
+                y1--;
+            }
+            if (x0 == x1) {
+                Arrays.fill(added, y0, y1, true);
+            } else if (y0 == y1) {
+                Arrays.fill(deleted, x0, x1, true);
+            } else {
+                long middle = middleSnake(x0, x1, y0, y1);
+                int xmid = (int) (middle >>> 32);
+                int ymid = (int) middle;
+                if ((xmid == x0 && ymid == y0) || (xmid == x1 && ymid == y1)) {
+                    // No progress possible: report the region as replaced
+                    Arrays.fill(deleted, x0, x1, true);
+                    Arrays.fill(added, y0, y1, true);
+                    approximate = true;
+                } else {
+                    regions.push(new int[] { xmid, x1, ymid, y1 });
+                    regions.push(new int[] { x0, xmid, y0, ymid });
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the midpoint of a shortest edit path of a region whose first and last elements differ,
+     * searching forwards and backwards at once. Returns {@code x << 32 | y}.
+     */
+    private long middleSnake(int xoff, int xlim, int yoff, int ylim) {
+        int[] fd = forward;
+        int[] bd = backward;
+        int off = diagonalOffset;
+        int dmin = xoff - ylim;
+        int dmax = xlim - yoff;
+        int fmid = xoff - yoff;
+        int bmid = xlim - ylim;
+        int fmin = fmid;
+        int fmax = fmid;
+        int bmin = bmid;
+        int bmax = bmid;
+        boolean odd = ((fmid - bmid) & 1) != 0;
+
+        fd[off + fmid] = xoff;
+        bd[off + bmid] = xlim;
+
+        for (int cost = 1;; cost++) {
+            if (fmin > dmin) {
+                fd[off + --fmin - 1] = -1;
+            } else {
+                ++fmin;
+            }
+            if (fmax < dmax) {
+                fd[off + ++fmax + 1] = -1;
+            } else {
+                --fmax;
+            }
+            for (int d = fmax; d >= fmin; d -= 2) {
+                int tlo = fd[off + d - 1];
+                int thi = fd[off + d + 1];
+                int x = tlo >= thi ? tlo + 1 : thi;
+                int y = x - d;
+                while (x < xlim && y < ylim && a[x] == b[y]) {
+                    x++;
+                    y++;
+                }
+                fd[off + d] = x;
+                if (odd && bmin <= d && d <= bmax && bd[off + d] <= x) {
+                    return pack(x, y);
+                }
+            }
+
+            if (bmin > dmin) {
+                bd[off + --bmin - 1] = Integer.MAX_VALUE;
+            } else {
+                ++bmin;
+            }
+            if (bmax < dmax) {
+                bd[off + ++bmax + 1] = Integer.MAX_VALUE;
+            } else {
+                --bmax;
+            }
+            for (int d = bmax; d >= bmin; d -= 2) {
+                int tlo = bd[off + d - 1];
+                int thi = bd[off + d + 1];
+                int x = tlo < thi ? tlo : thi - 1;
+                int y = x - d;
+                while (x > xoff && y > yoff && a[x - 1] == b[y - 1]) {
+                    x--;
+                    y--;
+                }
+                bd[off + d] = x;
+                if (!odd && fmin <= d && d <= fmax && x <= fd[off + d]) {
+                    return pack(x, y);
+                }
+            }
+
+            if (cost >= costLimit) {
+                approximate = true;
+                return furthestReach(xoff, xlim, yoff, ylim, fmin, fmax, bmin, bmax);
+            }
+        }
+    }
+
+    /**
+     * Cost limit reached: splits at the point that got furthest from its corner, forward or
+     * backward.
+     */
+    private long furthestReach(int xoff, int xlim, int yoff, int ylim, int fmin, int fmax, int bmin, int bmax) {
+        int off = diagonalOffset;
+        int forwardBest = -1;
+        int forwardX = xoff;
+        for (int d = fmax; d >= fmin; d -= 2) {
+            int x = Math.min(forward[off + d], xlim);
+            int y = x - d;
+            if (y > ylim) {
+                x = ylim + d;
+                y = ylim;
+            }
+            if (forwardBest < x + y) {
+                forwardBest = x + y;
+                forwardX = x;
+            }
+        }
+        int backwardBest = Integer.MAX_VALUE;
+        int backwardX = xlim;
+        for (int d = bmax; d >= bmin; d -= 2) {
+            int x = Math.max(xoff, backward[off + d]);
+            int y = x - d;
+            if (y < yoff) {
+                x = yoff + d;
+                y = yoff;
+            }
+            if (x + y < backwardBest) {
+                backwardBest = x + y;
+                backwardX = x;
+            }
+        }
+        if ((xlim + ylim) - backwardBest < forwardBest - (xoff + yoff)) {
+            return pack(forwardX, forwardBest - forwardX);
+        }
+        return pack(backwardX, backwardBest - backwardX);
+    }
+
+    private static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    // --- Histogram -----------------------------------------------------------------------------
+
+    /**
+     * Histogram diff over the whole input. Each region is split on its best anchor: the common run
+     * whose rarest element occurs least often in the first sequence, longer runs winning ties.
+     */
+    private void histogram(int idCount) {
+        int[] head = new int[idCount];
+        int[] count = new int[idCount];
+        int[] next = new int[a.length];
+        Arrays.fill(head, -1);
+
+        ArrayDeque<int[]> regions = new ArrayDeque<>();
+        regions.push(new int[] { 0, a.length, 0, b.length });
+        while (!regions.isEmpty()) {
+            int[] region = regions.pop();
+            int x0 = region[0];
+            int x1 = region[1];
+            int y0 = region[2];
+            int y1 = region[3];
+            while (x0 < x1 && y0 < y1 && a[x0] == b[y0]) {
+                x0++;
+                y0++;
+            }
+            while (x1 > x0 && y1 > y0 && a[x1 - 1] == b[y1 - 1]) {
+                x1--;
+                y1--;
+            }
+            if (x0 == x1 || y0 == y1) {
+                Arrays.fill(deleted, x0, x1, true);
+                Arrays.fill(added, y0, y1, true);
+                continue;
+            }
+
+            for (int i = x1 - 1; i >= x0; i--) {
+                int id = a[i];
+                next[i] = head[id];
+                head[id] = i;
+                count[id]++;
+            }
+            int bestLow = MAX_CHAIN_LENGTH + 1;
+            int bestLength = 0;
+            int bestX = -1;
+            int bestY = -1;
+            int y = y0;
+            while (y < y1) {
+                int id = b[y];
+                int nextY = y + 1;
+                if (count[id] > 0 && count[id] <= bestLow) {
+                    for (int x = head[id]; x >= 0; x = next[x]) {
+                        int startX = x;
+                        int startY = y;
+                        while (startX > x0 && startY > y0 && a[startX - 1] == b[startY - 1]) {
+                            startX--;
+                            startY--;
+                        }
+                        int endX = x + 1;
+                        int endY = y + 1;
+                        while (endX < x1 && endY < y1 && a[endX] == b[endY]) {
+                            endX++;
+                            endY++;
+                        }
+                        int low = count[id];
+                        for (int k = startX; k < endX && low > 1; k++) {
+                            low = Math.min(low, count[a[k]]);
+                        }
+                        int length = endX - startX;
+                        if (low < bestLow || (low == bestLow && length > bestLength)) {
+                            bestLow = low;
+                            bestLength = length;
+                            bestX = startX;
+                            bestY = startY;
+                        }
+                        nextY = Math.max(nextY, endY);
+                    }
+                }
+                y = nextY;
+            }
+            for (int i = x0; i < x1; i++) {
+                head[a[i]] = -1;
+                count[a[i]] = 0;
+            }
+
+            if (bestLength == 0) {
+                myers(x0, x1, y0, y1);
+            } else {
+                regions.push(new int[] { bestX + bestLength, x1, bestY + bestLength, y1 });
+                regions.push(new int[] { x0, bestX, y0, bestY });
+            }
+        }
+    }
+}
@@ -22,7 +22,7 @@ import java.util.List;
 public class InlineDiffUtils {
 
     /** Maximum tokens per line before falling back to simpler algorithm */
-    private static final int MAX_TOKENS = 200;
+    private static final int MAX_TOKENS = 5_000;
 
     /**
      * Represents a highlight range within a string.
@@ -129,7 +129,7 @@ public class InlineDiffUtils {
             return diffByPrefixSuffix(left, right);
         }
 
-        // Compute LCS-based diff on tokens
+        // Compute minimal diff on tokens
         return diffByTokens(left, right, leftTokens, rightTokens);
     }
 
@@ -180,50 +180,34 @@ public class InlineDiffUtils {
     }
 
     /**
-     * Computes diff using LCS on tokens.
+     * Computes a minimal token diff with {@link DiffEngine}.
      */
     private static InlineDiffResult diffByTokens(String left, String right,
             List<Token> leftTokens, List<Token> rightTokens) {
-        int m = leftTokens.size();
-        int n = rightTokens.size();
-
-        // Build LCS table
-        int[][] lcs = new int[m + 1][n + 1];
-        for (int i = m - 1; i >= 0; i--) {
-            for (int j = n - 1; j >= 0; j--) {
-                if (leftTokens.get(i).text.equals(rightTokens.get(j).text)) {
-                    lcs[i][j] = 1 + lcs[i + 1][j + 1];
-                } else {
-                    lcs[i][j] = Math.max(lcs[i + 1][j], lcs[i][j + 1]);
-                }
-            }
+        List<String> leftTexts = new ArrayList<>(leftTokens.size());
+        for (Token token : leftTokens) {
+            leftTexts.add(token.text);
         }
+        List<String> rightTexts = new ArrayList<>(rightTokens.size());
+        for (Token token : rightTokens) {
+            rightTexts.add(token.text);
+        }
+        DiffEngine.EditScript script = DiffEngine.diff(leftTexts, rightTexts, DiffEngine.Algorithm.MYERS);
 
-        // Backtrack to find non-matching tokens
-        List<HighlightRange> leftRanges = new ArrayList<>();
-        List<HighlightRange> rightRanges = new ArrayList<>();
+        return new InlineDiffResult(
+                mergeAdjacentRanges(changedRanges(leftTokens, script.deleted())),
+                mergeAdjacentRanges(changedRanges(rightTokens, script.added())));
+    }
 
-        int i = 0, j = 0;
-        while (i < m || j < n) {
-            if (i < m && j < n && leftTokens.get(i).text.equals(rightTokens.get(j).text)) {
-                // Tokens match
-                i++;
-                j++;
-            } else if (j < n && (i >= m || lcs[i][j + 1] >= lcs[i + 1][j])) {
-                // Token added on right
-                Token t = rightTokens.get(j);
-                rightRanges.add(new HighlightRange(t.start, t.length));
-                j++;
-            } else if (i < m) {
-                // Token removed from left
-                Token t = leftTokens.get(i);
-                leftRanges.add(new HighlightRange(t.start, t.length));
-                i++;
+    private static List<HighlightRange> changedRanges(List<Token> tokens, boolean[] changed) {
+        List<HighlightRange> ranges = new ArrayList<>();
+        for (int i = 0; i < changed.length; i++) {
+            if (changed[i]) {
+                Token t = tokens.get(i);
+                ranges.add(new HighlightRange(t.start, t.length));
             }
         }
-
-        // Merge adjacent ranges
-        return new InlineDiffResult(mergeAdjacentRanges(leftRanges), mergeAdjacentRanges(rightRanges));
+        return ranges;
     }
 
     /**
@@ -8,11 +8,15 @@
 package com.codepilot1c.core.diff;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 /**
- * Utility for computing line-level diffs using Myers algorithm.
+ * Utility for computing line-level diffs.
+ *
+ * <p>Lines are compared with the histogram algorithm of {@link DiffEngine}, which runs in linear
+ * memory, so large modules can be diffed without a quadratic table.</p>
  *
  * <p>Provides functionality for:
  * <ul>
@@ -259,7 +263,6 @@ public class LineDiffUtils {
         String[] oldLines = splitLines(oldText);
         String[] newLines = splitLines(newText);
 
-        // Compute LCS-based diff using Myers-like algorithm
         List<DiffLine> diffLines = computeDiffLines(oldLines, newLines);
 
         // Build hunks with context
@@ -291,43 +294,30 @@ public class LineDiffUtils {
     }
 
     /**
-     * Computes diff lines using LCS-based algorithm.
+     * Computes diff lines. Within a changed block deletions precede additions, so a replaced line
+     * becomes a {@link AlignedRow.RowType#MODIFIED} row.
      */
     private static List<DiffLine> computeDiffLines(String[] oldLines, String[] newLines) {
+        DiffEngine.EditScript script = DiffEngine.diff(Arrays.asList(oldLines), Arrays.asList(newLines),
+                DiffEngine.Algorithm.HISTOGRAM);
+        boolean[] deleted = script.deleted();
+        boolean[] added = script.added();
         int m = oldLines.length;
         int n = newLines.length;
 
-        // Compute LCS using dynamic programming
-        int[][] lcs = new int[m + 1][n + 1];
-        for (int i = m - 1; i >= 0; i--) {
-            for (int j = n - 1; j >= 0; j--) {
-                if (oldLines[i].equals(newLines[j])) {
-                    lcs[i][j] = 1 + lcs[i + 1][j + 1];
-                } else {
-                    lcs[i][j] = Math.max(lcs[i + 1][j], lcs[i][j + 1]);
-                }
-            }
-        }
-
-        // Backtrack to build diff
-        List<DiffLine> result = new ArrayList<>();
+        List<DiffLine> result = new ArrayList<>(Math.max(m, n));
         int i = 0, j = 0;
-        int oldLineNum = 1, newLineNum = 1;
-
         while (i < m || j < n) {
-            if (i < m && j < n && oldLines[i].equals(newLines[j])) {
-                // Lines match - unchanged
-                result.add(new DiffLine(LineType.UNCHANGED, oldLines[i], oldLineNum++, newLineNum++));
+            if (i < m && deleted[i]) {
+                result.add(new DiffLine(LineType.DELETED, oldLines[i], i + 1, -1));
                 i++;
+            } else if (j < n && added[j]) {
+                result.add(new DiffLine(LineType.ADDED, newLines[j], -1, j + 1));
                 j++;
-            } else if (j < n && (i >= m || lcs[i][j + 1] >= lcs[i + 1][j])) {
-                // Line added in new
-                result.add(new DiffLine(LineType.ADDED, newLines[j], -1, newLineNum++));
-                j++;
-            } else if (i < m) {
-                // Line deleted from old
-                result.add(new DiffLine(LineType.DELETED, oldLines[i], oldLineNum++, -1));
+            } else {
+                result.add(new DiffLine(LineType.UNCHANGED, oldLines[i], i + 1, j + 1));
                 i++;
+                j++;
             }
         }
 
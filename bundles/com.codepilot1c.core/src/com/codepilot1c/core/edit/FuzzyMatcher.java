@@ -8,10 +8,8 @@
 package com.codepilot1c.core.edit;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import com.codepilot1c.core.logging.VibeLogger;
 
@@ -39,6 +37,9 @@ public class FuzzyMatcher {
     /** Maximum number of candidates to return in feedback */
     private static final int MAX_CANDIDATES = 5;
 
+    /** Wall-clock cap for one similarity scan over a large document */
+    private static final long SIMILARITY_TIME_BUDGET_NANOS = 2_000_000_000L;
+
     private final double similarityThreshold;
 
     /**
@@ -225,50 +226,32 @@ public class FuzzyMatcher {
             return MatchResult.failure("Пустой текст для сравнения"); //$NON-NLS-1$
         }
 
-        double bestSimilarity = 0;
-        int bestStart = -1;
-        int bestEnd = -1;
-        List<MatchResult.SimilarMatch> candidates = new ArrayList<>();
-
-        // Sliding window approach
         int windowSize = searchLines.length;
-        for (int docStart = 0; docStart <= docLines.length - windowSize; docStart++) {
-            // Build window text
-            StringBuilder windowBuilder = new StringBuilder();
-            for (int i = 0; i < windowSize; i++) {
-                if (i > 0) windowBuilder.append("\n"); //$NON-NLS-1$
-                windowBuilder.append(docLines[docStart + i]);
-            }
-            String windowText = windowBuilder.toString();
-
-            double similarity = calculateSimilarity(searchText, windowText);
+        SimilarityWindowScanner scanner = new SimilarityWindowScanner(searchText, windowSize, docLines,
+                SIMILARITY_TIME_BUDGET_NANOS);
+        List<SimilarityWindowScanner.Window> windows = scanner.scan(similarityThreshold, MAX_CANDIDATES);
+        logBudget(scanner, docLines.length);
 
-            if (similarity >= similarityThreshold) {
-                int startOffset = getLineOffset(documentContent, docStart);
-                int endOffset = getLineEndOffset(documentContent, docStart + windowSize - 1);
-                String matchedText = documentContent.substring(startOffset, endOffset);
-
-                candidates.add(new MatchResult.SimilarMatch(
-                        matchedText, docStart + 1, docStart + windowSize, similarity));
-
-                if (similarity > bestSimilarity) {
-                    bestSimilarity = similarity;
-                    bestStart = startOffset;
-                    bestEnd = endOffset;
-                }
+        if (!windows.isEmpty()) {
+            int[] lineStarts = lineStarts(documentContent);
+            List<MatchResult.SimilarMatch> candidates = new ArrayList<>();
+            for (SimilarityWindowScanner.Window window : windows) {
+                int startOffset = lineStarts[window.startLine()];
+                int endOffset = lineEnd(lineStarts, documentContent, window.startLine() + windowSize - 1);
+                candidates.add(new MatchResult.SimilarMatch(documentContent.substring(startOffset, endOffset),
+                        window.startLine() + 1, window.startLine() + windowSize, window.similarity()));
             }
-        }
-
-        if (bestStart >= 0) {
             // Check if we have multiple high-quality matches
-            candidates.sort(Comparator.comparingDouble(MatchResult.SimilarMatch::similarity).reversed());
             if (candidates.size() > 1 && candidates.get(1).similarity() > similarityThreshold + 0.1) {
                 // Multiple good matches - ambiguous
-                return MatchResult.ambiguous(candidates.subList(0, Math.min(candidates.size(), MAX_CANDIDATES)));
+                return MatchResult.ambiguous(candidates);
             }
 
+            SimilarityWindowScanner.Window best = windows.get(0);
+            int bestStart = lineStarts[best.startLine()];
+            int bestEnd = lineEnd(lineStarts, documentContent, best.startLine() + windowSize - 1);
             return createSuccessResult(bestStart, bestEnd - bestStart, documentContent,
-                    MatchStrategy.SIMILARITY, bestSimilarity);
+                    MatchStrategy.SIMILARITY, best.similarity());
         }
 
         return MatchResult.failure("Похожий текст не найден (порог сходства: " + //$NON-NLS-1$
@@ -298,30 +281,31 @@ public class FuzzyMatcher {
         String[] searchLines = searchText.split("\n", -1); //$NON-NLS-1$
         String[] docLines = documentContent.split("\n", -1); //$NON-NLS-1$
 
-        List<MatchResult.SimilarMatch> candidates = new ArrayList<>();
         int windowSize = Math.max(1, searchLines.length);
 
         // Lower threshold for candidate finding
         double candidateThreshold = similarityThreshold * 0.5;
 
-        for (int docStart = 0; docStart <= docLines.length - windowSize; docStart++) {
-            StringBuilder windowBuilder = new StringBuilder();
-            for (int i = 0; i < windowSize; i++) {
-                if (i > 0) windowBuilder.append("\n"); //$NON-NLS-1$
-                windowBuilder.append(docLines[docStart + i]);
-            }
-            String windowText = windowBuilder.toString();
-
-            double similarity = calculateSimilarity(searchText, windowText);
-            if (similarity >= candidateThreshold) {
-                candidates.add(new MatchResult.SimilarMatch(
-                        windowText, docStart + 1, docStart + windowSize, similarity));
-            }
+        SimilarityWindowScanner scanner = new SimilarityWindowScanner(searchText, windowSize, docLines,
+                SIMILARITY_TIME_BUDGET_NANOS);
+        List<SimilarityWindowScanner.Window> windows = scanner.scan(candidateThreshold, MAX_CANDIDATES);
+        logBudget(scanner, docLines.length);
+
+        List<MatchResult.SimilarMatch> candidates = new ArrayList<>(windows.size());
+        for (SimilarityWindowScanner.Window window : windows) {
+            String windowText = String.join("\n", //$NON-NLS-1$
+                    Arrays.asList(docLines).subList(window.startLine(), window.startLine() + windowSize));
+            candidates.add(new MatchResult.SimilarMatch(
+                    windowText, window.startLine() + 1, window.startLine() + windowSize, window.similarity()));
         }
+        return candidates;
+    }
 
-        // Sort by similarity and limit
-        candidates.sort(Comparator.comparingDouble(MatchResult.SimilarMatch::similarity).reversed());
-        return candidates.subList(0, Math.min(candidates.size(), MAX_CANDIDATES));
+    private void logBudget(SimilarityWindowScanner scanner, int documentLines) {
+        if (scanner.budgetExceeded()) {
+            LOG.warn("FuzzyMatcher: поиск похожих фрагментов прерван по бюджету времени (%d мс, строк: %d)", //$NON-NLS-1$
+                    SIMILARITY_TIME_BUDGET_NANOS / 1_000_000L, documentLines);
+        }
     }
 
     /**
@@ -436,7 +420,7 @@ public class FuzzyMatcher {
             }
         }
         map[sb.length()] = len;
-        int[] trimmed = java.util.Arrays.copyOf(map, sb.length() + 1);
+        int[] trimmed = Arrays.copyOf(map, sb.length() + 1);
         return new NormalizationMap(sb.toString(), trimmed);
     }
 
@@ -510,92 +494,34 @@ public class FuzzyMatcher {
     }
 
     /**
-     * Counts newlines in text.
+     * Returns the offset of every line start ({@code \n}-separated).
      */
-    private int countLines(String text) {
-        int count = 0;
+    private int[] lineStarts(String text) {
+        int[] starts = new int[countLines(text) + 1];
+        int line = 1;
         for (int i = 0; i < text.length(); i++) {
-            if (text.charAt(i) == '\n') count++;
-        }
-        return count;
-    }
-
-    /**
-     * Calculates similarity between two strings using LCS ratio.
-     */
-    private double calculateSimilarity(String s1, String s2) {
-        if (s1.isEmpty() || s2.isEmpty()) {
-            return s1.equals(s2) ? 1.0 : 0.0;
+            if (text.charAt(i) == '\n') {
+                starts[line++] = i + 1;
+            }
         }
-
-        int lcsLength = longestCommonSubsequenceLength(s1, s2);
-        int maxLength = Math.max(s1.length(), s2.length());
-        return (double) lcsLength / maxLength;
+        return starts;
     }
 
     /**
-     * Computes length of longest common subsequence.
+     * Same as {@link #getLineEndOffset} using precomputed line starts.
      */
-    private int longestCommonSubsequenceLength(String s1, String s2) {
-        // Optimize for large strings - use line-based comparison
-        if (s1.length() > 1000 || s2.length() > 1000) {
-            return longestCommonSubsequenceLengthByLines(s1, s2);
-        }
-
-        int m = s1.length();
-        int n = s2.length();
-
-        // Use space-optimized LCS
-        int[] prev = new int[n + 1];
-        int[] curr = new int[n + 1];
-
-        for (int i = 1; i <= m; i++) {
-            for (int j = 1; j <= n; j++) {
-                if (s1.charAt(i - 1) == s2.charAt(j - 1)) {
-                    curr[j] = prev[j - 1] + 1;
-                } else {
-                    curr[j] = Math.max(prev[j], curr[j - 1]);
-                }
-            }
-            int[] temp = prev;
-            prev = curr;
-            curr = temp;
-            java.util.Arrays.fill(curr, 0);
-        }
-
-        return prev[n];
+    private int lineEnd(int[] lineStarts, String text, int lineIndex) {
+        return lineIndex + 1 < lineStarts.length ? lineStarts[lineIndex + 1] - 1 : text.length();
     }
 
     /**
-     * Line-based LCS for large strings.
+     * Counts newlines in text.
      */
-    private int longestCommonSubsequenceLengthByLines(String s1, String s2) {
-        String[] lines1 = s1.split("\n", -1); //$NON-NLS-1$
-        String[] lines2 = s2.split("\n", -1); //$NON-NLS-1$
-
-        int m = lines1.length;
-        int n = lines2.length;
-
-        int[] prev = new int[n + 1];
-        int[] curr = new int[n + 1];
-
-        for (int i = 1; i <= m; i++) {
-            for (int j = 1; j <= n; j++) {
-                if (lines1[i - 1].equals(lines2[j - 1])) {
-                    curr[j] = prev[j - 1] + 1;
-                } else {
-                    curr[j] = Math.max(prev[j], curr[j - 1]);
-                }
-            }
-            int[] temp = prev;
-            prev = curr;
-            curr = temp;
-            java.util.Arrays.fill(curr, 0);
+    private int countLines(String text) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') count++;
         }
-
-        // Convert line count to approximate character count
-        int matchedLines = prev[n];
-        int avgLineLength = (s1.length() + s2.length()) / (m + n + 1);
-        return matchedLines * avgLineLength;
+        return count;
     }
 }
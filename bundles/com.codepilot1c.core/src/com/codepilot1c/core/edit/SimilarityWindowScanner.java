@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.edit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Scores every line window of a document against a search block and keeps the best ones.
+ *
+ * <p>The score is the one {@link FuzzyMatcher} has always used: the LCS length divided by the longer
+ * of the two texts, where texts longer than {@value #LINE_MODE_THRESHOLD} characters compare whole
+ * lines and scale the matched line count by the average line length. It is computed much faster:</p>
+ * <ul>
+ *   <li>a window is skipped without an LCS when the multiset overlap of its characters (or lines)
+ *       with the search block, which bounds the LCS from above, cannot reach the threshold or beat
+ *       the current top-k; the overlap is maintained incrementally while the window slides;</li>
+ *   <li>the LCS itself uses the bit-parallel algorithm of Crochemore et al., O(⌈m/64⌉·n) per
+ *       window, with match masks built once for the search block and a state vector reused across
+ *       windows;</li>
+ *   <li>a wall-clock budget stops the scan on pathological inputs; {@link #budgetExceeded()}
+ *       reports that the result may be partial.</li>
+ * </ul>
+ * <p>Ties are broken by the earlier window, as the stable sort in the previous implementation did.</p>
+ */
+final class SimilarityWindowScanner {
+
+    /** Texts longer than this are compared line by line. */
+    static final int LINE_MODE_THRESHOLD = 1000;
+
+    private static final int BUDGET_CHECK_INTERVAL = 64;
+
+    private static final Comparator<Window> WORST_FIRST = Comparator.comparingDouble(Window::similarity)
+            .thenComparing(Comparator.comparingInt(Window::startLine).reversed());
+
+    private final int searchLength;
+    private final int windowSize;
+    private final String[] docLines;
+    private final long budgetNanos;
+
+    private final char[] alphabet;
+    private final int[] searchCharCounts;
+    private final int newlineOverlap;
+    private final long[][] charMasks;
+
+    private final int searchLineCount;
+    private final int[] searchLineCounts;
+    private final int[] docLineSlots;
+    private final long[][] lineMasks;
+
+    private final long[] state;
+    private boolean budgetExceeded;
+
+    /**
+     * @param searchText the search block
+     * @param windowSize number of document lines per window
+     * @param docLines document split on {@code \n}
+     * @param budgetNanos wall-clock budget for one {@link #scan}
+     */
+    SimilarityWindowScanner(String searchText, int windowSize, String[] docLines, long budgetNanos) {
+        this.searchLength = searchText.length();
+        this.windowSize = windowSize;
+        this.docLines = docLines;
+        this.budgetNanos = budgetNanos;
+
+        char[] chars = searchText.toCharArray();
+        char[] sorted = chars.clone();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        this.alphabet = Arrays.copyOf(sorted, distinct);
+        this.searchCharCounts = new int[distinct];
+        this.charMasks = new long[distinct][words(searchLength)];
+        for (int i = 0; i < chars.length; i++) {
+            int slot = charSlot(chars[i]);
+            searchCharCounts[slot]++;
+            charMasks[slot][i >>> 6] |= 1L << i;
+        }
+        int newlineSlot = charSlot('\n');
+        this.newlineOverlap = newlineSlot >= 0 ? Math.min(searchCharCounts[newlineSlot], windowSize - 1) : 0;
+
+        String[] searchLines = searchText.split("\n", -1); //$NON-NLS-1$
+        this.searchLineCount = searchLines.length;
+        Map<String, Integer> lineSlots = new HashMap<>();
+        for (String line : searchLines) {
+            lineSlots.putIfAbsent(line, Integer.valueOf(lineSlots.size()));
+        }
+        this.searchLineCounts = new int[lineSlots.size()];
+        this.lineMasks = new long[lineSlots.size()][words(searchLineCount)];
+        for (int i = 0; i < searchLines.length; i++) {
+            int slot = lineSlots.get(searchLines[i]).intValue();
+            searchLineCounts[slot]++;
+            lineMasks[slot][i >>> 6] |= 1L << i;
+        }
+        this.docLineSlots = new int[docLines.length];
+        for (int i = 0; i < docLines.length; i++) {
+            Integer slot = lineSlots.get(docLines[i]);
+            docLineSlots[i] = slot != null ? slot.intValue() : -1;
+        }
+        this.state = new long[Math.max(words(searchLength), words(searchLineCount))];
+    }
+
+    /**
+     * Returns up to {@code limit} windows scoring at least {@code threshold}, best first.
+     */
+    List<Window> scan(double threshold, int limit) {
+        budgetExceeded = false;
+        int windowCount = docLines.length - windowSize + 1;
+        if (windowCount <= 0 || limit <= 0) {
+            return List.of();
+        }
+        long deadline = System.nanoTime() + budgetNanos;
+        int[] windowCharCounts = new int[alphabet.length];
+        int[] windowLineCounts = new int[searchLineCounts.length];
+        int charOverlap = 0;
+        int lineOverlap = 0;
+        int windowLength = windowSize - 1;
+        for (int i = 0; i < windowSize - 1; i++) {
+            charOverlap += addLine(i, windowCharCounts);
+            lineOverlap += addLineSlot(i, windowLineCounts);
+            windowLength += docLines[i].length();
+        }
+
+        PriorityQueue<Window> best = new PriorityQueue<>(limit, WORST_FIRST);
+        for (int start = 0; start < windowCount; start++) {
+            int last = start + windowSize - 1;
+            charOverlap += addLine(last, windowCharCounts);
+            lineOverlap += addLineSlot(last, windowLineCounts);
+            windowLength += docLines[last].length();
+            if (start > 0) {
+                charOverlap -= removeLine(start - 1, windowCharCounts);
+                lineOverlap -= removeLineSlot(start - 1, windowLineCounts);
+                windowLength -= docLines[start - 1].length();
+            }
+
+            if (start % BUDGET_CHECK_INTERVAL == 0 && start > 0 && System.nanoTime() > deadline) {
+                budgetExceeded = true;
+                break;
+            }
+
+            Window worst = best.size() == limit ? best.peek() : null;
+            double similarity = similarity(start, windowLength, charOverlap + newlineOverlap, lineOverlap,
+                    threshold, worst != null ? worst.similarity() : -1.0);
+            if (Double.isNaN(similarity) || similarity < threshold) {
+                continue;
+            }
+            Window window = new Window(start, similarity);
+            if (worst == null) {
+                best.add(window);
+            } else if (WORST_FIRST.compare(window, worst) > 0) {
+                best.poll();
+                best.add(window);
+            }
+        }
+        List<Window> result = new ArrayList<>(best);
+        result.sort(WORST_FIRST.reversed());
+        return result;
+    }
+
+    /**
+     * Returns whether the last {@link #scan} stopped early because of the time budget.
+     */
+    boolean budgetExceeded() {
+        return budgetExceeded;
+    }
+
+    /**
+     * Scores one window, or returns {@code NaN} when the upper bound shows that it cannot reach the
+     * threshold or beat {@code floor}.
+     */
+    private double similarity(int start, int windowLength, int charOverlap, int lineOverlap,
+            double threshold, double floor) {
+        if (searchLength == 0 || windowLength == 0) {
+            return searchLength == windowLength ? 1.0 : 0.0;
+        }
+        int maxLength = Math.max(searchLength, windowLength);
+        if (searchLength > LINE_MODE_THRESHOLD || windowLength > LINE_MODE_THRESHOLD) {
+            int averageLineLength = (searchLength + windowLength) / (searchLineCount + windowSize + 1);
+            if (!mayQualify((double) lineOverlap * averageLineLength / maxLength, threshold, floor)) {
+                return Double.NaN;
+            }
+            int matchedLines = lineLcs(start);
+            return (double) (matchedLines * averageLineLength) / maxLength;
+        }
+        if (!mayQualify((double) charOverlap / maxLength, threshold, floor)) {
+            return Double.NaN;
+        }
+        return (double) charLcs(start) / maxLength;
+    }
+
+    private static boolean mayQualify(double upperBound, double threshold, double floor) {
+        return upperBound >= threshold && upperBound > floor;
+    }
+
+    private int charLcs(int start) {
+        int words = words(searchLength);
+        initState(words, searchLength);
+        for (int line = start; line < start + windowSize; line++) {
+            if (line > start) {
+                step(charMaskOf('\n'), words, searchLength);
+            }
+            String text = docLines[line];
+            for (int i = 0; i < text.length(); i++) {
+                step(charMaskOf(text.charAt(i)), words, searchLength);
+            }
+        }
+        return searchLength - popCount(words);
+    }
+
+    private int lineLcs(int start) {
+        int words = words(searchLineCount);
+        initState(words, searchLineCount);
+        for (int line = start; line < start + windowSize; line++) {
+            int slot = docLineSlots[line];
+            step(slot >= 0 ? lineMasks[slot] : null, words, searchLineCount);
+        }
+        return searchLineCount - popCount(words);
+    }
+
+    private void initState(int words, int bits) {
+        Arrays.fill(state, 0, words, -1L);
+        int tail = bits & 63;
+        if (tail != 0) {
+            state[words - 1] = (1L << tail) - 1;
+        }
+    }
+
+    /**
+     * One column of the bit-parallel LCS: {@code V = (V + (V & M)) | (V & ~M)}.
+     */
+    private void step(long[] mask, int words, int bits) {
+        if (mask == null) {
+            return;
+        }
+        long carry = 0;
+        for (int w = 0; w < words; w++) {
+            long v = state[w];
+            long u = v & mask[w];
+            long sum = v + u + carry;
+            carry = Long.compareUnsigned(sum, v) < 0 || (carry != 0 && sum == v) ? 1 : 0;
+            state[w] = sum | (v & ~mask[w]);
+        }
+        int tail = bits & 63;
+        if (tail != 0) {
+            state[words - 1] &= (1L << tail) - 1;
+        }
+    }
+
+    private int popCount(int words) {
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(state[w]);
+        }
+        return count;
+    }
+
+    private long[] charMaskOf(char ch) {
+        int slot = charSlot(ch);
+        return slot >= 0 ? charMasks[slot] : null;
+    }
+
+    private int charSlot(char ch) {
+        int slot = Arrays.binarySearch(alphabet, ch);
+        return slot >= 0 ? slot : -1;
+    }
+
+    private int addLine(int line, int[] counts) {
+        int gained = 0;
+        String text = docLines[line];
+        for (int i = 0; i < text.length(); i++) {
+            int slot = charSlot(text.charAt(i));
+            if (slot >= 0 && counts[slot]++ < searchCharCounts[slot]) {
+                gained++;
+            }
+        }
+        return gained;
+    }
+
+    private int removeLine(int line, int[] counts) {
+        int lost = 0;
+        String text = docLines[line];
+        for (int i = 0; i < text.length(); i++) {
+            int slot = charSlot(text.charAt(i));
+            if (slot >= 0 && --counts[slot] < searchCharCounts[slot]) {
+                lost++;
+            }
+        }
+        return lost;
+    }
+
+    private int addLineSlot(int line, int[] counts) {
+        int slot = docLineSlots[line];
+        return slot >= 0 && counts[slot]++ < searchLineCounts[slot] ? 1 : 0;
+    }
+
+    private int removeLineSlot(int line, int[] counts) {
+        int slot = docLineSlots[line];
+        return slot >= 0 && --counts[slot] < searchLineCounts[slot] ? 1 : 0;
+    }
+
+    private static int words(int bits) {
+        return Math.max(1, (bits + 63) >>> 6);
+    }
+
+    /**
+     * A scored window; {@code startLine} is zero-based.
+     */
+    record Window(int startLine, double similarity) {
+    }
+}
@@ -1,7 +1,6 @@
 package com.codepilot1c.core.edt.ast;
 
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -34,6 +33,7 @@ import com._1c.g5.v8.dt.core.platform.IConfigurationProvider;
 import com._1c.g5.v8.dt.metadata.mdclass.Configuration;
 import com._1c.g5.v8.dt.metadata.mdclass.MdObject;
 import com.codepilot1c.core.edt.BmObjectHelper;
+import com.codepilot1c.core.search.WorkspaceFileCache;
 
 /**
  * Reference search service using EDT BM and Xtext reference finder.
@@ -332,10 +332,9 @@ public class EdtReferenceService {
         }
 
         private List<String> readFileLines(IFile sourceFile) {
-            try (InputStream in = sourceFile.getContents()) {
-                String content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
-                return List.of(content.split("\\R", -1)); //$NON-NLS-1$
-            } catch (Exception e) {
+            try {
+                return WorkspaceFileCache.getInstance().read(sourceFile).lines();
+            } catch (IOException e) {
                 return List.of();
             }
         }
@@ -0,0 +1,441 @@
+package com.codepilot1c.core.edt.metadata;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+
+import com.codepilot1c.core.logging.VibeLogger;
+
+/**
+ * Waits until an artifact written by an EDT export (an owner {@code .mdo}, {@code Configuration.mdo})
+ * satisfies a persistence check.
+ *
+ * <p>A single workspace {@link IResourceChangeListener} re-runs the check as soon as the watched
+ * file changes, so a wait normally ends within one resource delta of the write. Because EDT may
+ * write to disk outside the workspace until the next refresh, every wait also polls with a short
+ * initial interval that backs off to the caller's poll interval, and gives up at the deadline.</p>
+ *
+ * <p>Checks may refresh the file and block on a workspace rule or slow IO, so they never run on the
+ * scheduler thread that fires polls and deadlines: an immediate first check runs on the caller,
+ * later ones on a separate check executor, at most one per wait at a time. A deadline completes the
+ * wait with {@code false} even while a check is still blocked, and {@link #await} is bounded by the
+ * deadline plus a small slack on its own.</p>
+ *
+ * <p>Wait times are recorded per metric name, together with what ended each wait (event, poll or
+ * timeout). Blocking derived-data waits that cannot be event-driven are recorded through
+ * {@link #record(String, long, boolean)}. The totals are logged when the plugin stops.</p>
+ */
+public final class ArtifactPersistenceWaiter {
+
+    private static final VibeLogger.CategoryLogger LOG = VibeLogger.forClass(ArtifactPersistenceWaiter.class);
+
+    /** First fallback poll delay; doubled after each miss up to the caller's poll interval. */
+    private static final long MIN_POLL_MS = Long.getLong("codepilot1c.edt.persistence.minPollMs", 25L); //$NON-NLS-1$
+
+    /** Extra time {@link #await} allows past the deadline before giving up on its own. */
+    private static final long AWAIT_SLACK_MS = 1_000L;
+
+    private static volatile ArtifactPersistenceWaiter instance;
+
+    private final Supplier<IWorkspace> workspaceSupplier;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService checkExecutor;
+    private final long minPollMs;
+    private final Map<IPath, Set<Watch>> watches = new ConcurrentHashMap<>();
+    private final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+    private final AtomicBoolean listenerRegistered = new AtomicBoolean();
+    private final IResourceChangeListener listener = this::resourceChanged;
+
+    private ArtifactPersistenceWaiter() {
+        this(ArtifactPersistenceWaiter::workspaceOrNull, newScheduler(), MIN_POLL_MS);
+    }
+
+    ArtifactPersistenceWaiter(Supplier<IWorkspace> workspaceSupplier, ScheduledExecutorService scheduler,
+            long minPollMs) {
+        this(workspaceSupplier, scheduler, newCheckExecutor(), minPollMs);
+    }
+
+    ArtifactPersistenceWaiter(Supplier<IWorkspace> workspaceSupplier, ScheduledExecutorService scheduler,
+            ExecutorService checkExecutor, long minPollMs) {
+        this.workspaceSupplier = workspaceSupplier;
+        this.scheduler = scheduler;
+        this.checkExecutor = checkExecutor;
+        this.minPollMs = Math.max(1L, minPollMs);
+    }
+
+    public static ArtifactPersistenceWaiter getInstance() {
+        if (instance == null) {
+            synchronized (ArtifactPersistenceWaiter.class) {
+                if (instance == null) {
+                    instance = new ArtifactPersistenceWaiter();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Starts waiting for {@code persisted} to hold.
+     *
+     * @param metric    metric name the wait is recorded under
+     * @param path      workspace-relative full path of the watched file
+     * @param persisted persistence check; may refresh and read the file, must not throw
+     * @param timeoutMs deadline after which the future completes with {@code false}
+     * @param maxPollMs upper bound of the fallback poll interval
+     * @return a future completing with {@code true} once persisted, {@code false} at the deadline
+     */
+    public CompletableFuture<Boolean> whenPersisted(String metric, IPath path, BooleanSupplier persisted,
+            long timeoutMs, long maxPollMs) {
+        return start(metric, path, persisted, timeoutMs, maxPollMs).future;
+    }
+
+    /**
+     * Blocks until {@code persisted} holds or the deadline passes.
+     *
+     * @return {@code true} if persisted, {@code false} on timeout
+     * @throws InterruptedException if the calling thread is interrupted; the wait is cancelled
+     */
+    public boolean await(String metric, IPath path, BooleanSupplier persisted, long timeoutMs, long maxPollMs)
+            throws InterruptedException {
+        Watch watch = start(metric, path, persisted, timeoutMs, maxPollMs);
+        try {
+            return watch.future.get(Math.max(0L, timeoutMs) + AWAIT_SLACK_MS, TimeUnit.MILLISECONDS).booleanValue();
+        } catch (InterruptedException e) {
+            watch.future.cancel(false);
+            throw e;
+        } catch (TimeoutException e) {
+            // The deadline task did not run in time; do not depend on the scheduler to end the wait.
+            watch.expire();
+            return false;
+        } catch (ExecutionException | CancellationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Records a wait measured by the caller, for waits that block inside EDT.
+     */
+    public void record(String metric, long elapsedMs, boolean completed) {
+        metric(metric).record(completed ? Source.BLOCKING : Source.TIMEOUT, elapsedMs);
+    }
+
+    /**
+     * Logs the recorded waits and stops the shared waiter, if it was ever used.
+     */
+    public static void stopInstance() {
+        ArtifactPersistenceWaiter waiter = instance;
+        if (waiter != null) {
+            waiter.stop();
+        }
+    }
+
+    /**
+     * Unregisters the resource listener, logs the recorded waits and stops the executors.
+     */
+    void stop() {
+        IWorkspace workspace = workspaceSupplier.get();
+        if (workspace != null && listenerRegistered.compareAndSet(true, false)) {
+            workspace.removeResourceChangeListener(listener);
+        }
+        getStats().forEach((name, stats) -> LOG.info(
+                "Persistence waits %s: waits=%d event=%d poll=%d blocking=%d timeouts=%d avg=%dms max=%dms", //$NON-NLS-1$
+                name, stats.waits(), stats.byEvent(), stats.byPoll(), stats.blocking(), stats.timeouts(),
+                stats.averageMs(), stats.maxMs()));
+        for (Set<Watch> pathWatches : watches.values()) {
+            pathWatches.forEach(Watch::expire);
+        }
+        scheduler.shutdownNow();
+        checkExecutor.shutdownNow();
+    }
+
+    /**
+     * Returns a snapshot of the recorded waits, keyed by metric name.
+     */
+    public Map<String, Stats> getStats() {
+        Map<String, Stats> snapshot = new TreeMap<>();
+        metrics.forEach((name, metric) -> snapshot.put(name, metric.snapshot()));
+        return snapshot;
+    }
+
+    /**
+     * Re-checks the waits registered for the given paths; called from the resource listener.
+     */
+    void pathsChanged(Iterable<IPath> paths) {
+        for (IPath path : paths) {
+            Set<Watch> pathWatches = watches.get(path);
+            if (pathWatches == null) {
+                continue;
+            }
+            for (Watch watch : pathWatches) {
+                // Resource listeners must not touch the workspace: the check may refresh the file.
+                watch.submitCheck(Source.EVENT, null);
+            }
+        }
+    }
+
+    private void resourceChanged(IResourceChangeEvent event) {
+        IResourceDelta delta = event.getDelta();
+        if (delta == null || watches.isEmpty()) {
+            return;
+        }
+        for (IPath path : watches.keySet()) {
+            if (delta.findMember(path) != null) {
+                pathsChanged(Set.of(path));
+            }
+        }
+    }
+
+    private Watch start(String metric, IPath path, BooleanSupplier persisted, long timeoutMs, long maxPollMs) {
+        Watch watch = new Watch(metric, path, persisted, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs),
+                Math.max(minPollMs, maxPollMs));
+        if (watch.check(Source.POLL)) {
+            return watch;
+        }
+        ensureListener();
+        watches.computeIfAbsent(path, key -> ConcurrentHashMap.newKeySet()).add(watch);
+        watch.future.whenComplete((result, error) -> watch.close());
+        watch.schedulePoll(minPollMs);
+        watch.scheduleDeadline(timeoutMs);
+        return watch;
+    }
+
+    private void ensureListener() {
+        if (listenerRegistered.get()) {
+            return;
+        }
+        IWorkspace workspace = workspaceSupplier.get();
+        if (workspace != null && listenerRegistered.compareAndSet(false, true)) {
+            workspace.addResourceChangeListener(listener, IResourceChangeEvent.POST_CHANGE);
+        }
+    }
+
+    private Metric metric(String name) {
+        return metrics.computeIfAbsent(name, key -> new Metric());
+    }
+
+    private static IWorkspace workspaceOrNull() {
+        try {
+            return ResourcesPlugin.getWorkspace();
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    private static ScheduledExecutorService newScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CodePilot1C-ArtifactPersistenceWaiter"); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static ExecutorService newCheckExecutor() {
+        AtomicLong counter = new AtomicLong();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable,
+                    "CodePilot1C-ArtifactPersistenceCheck-" + counter.incrementAndGet()); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * What ended a wait.
+     */
+    private enum Source {
+        EVENT, POLL, BLOCKING, TIMEOUT
+    }
+
+    /**
+     * Recorded waits of one metric.
+     *
+     * @param waits      number of waits
+     * @param byEvent    waits ended by a resource change event
+     * @param byPoll     waits ended by the fallback poll (including an immediate first check)
+     * @param blocking   waits measured around a blocking EDT call that completed
+     * @param timeouts   waits that reached their deadline
+     * @param totalMs    sum of wait times
+     * @param maxMs      longest wait
+     */
+    public record Stats(long waits, long byEvent, long byPoll, long blocking, long timeouts, long totalMs, long maxMs) {
+
+        public long averageMs() {
+            return waits == 0 ? 0 : totalMs / waits;
+        }
+    }
+
+    private static final class Metric {
+
+        private final AtomicLong byEvent = new AtomicLong();
+        private final AtomicLong byPoll = new AtomicLong();
+        private final AtomicLong blocking = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+        private final AtomicLong totalMs = new AtomicLong();
+        private final AtomicLong maxMs = new AtomicLong();
+
+        void record(Source source, long elapsedMs) {
+            switch (source) {
+                case EVENT -> byEvent.incrementAndGet();
+                case POLL -> byPoll.incrementAndGet();
+                case BLOCKING -> blocking.incrementAndGet();
+                case TIMEOUT -> timeouts.incrementAndGet();
+            }
+            totalMs.addAndGet(elapsedMs);
+            maxMs.accumulateAndGet(elapsedMs, Math::max);
+        }
+
+        Stats snapshot() {
+            long event = byEvent.get();
+            long poll = byPoll.get();
+            long block = blocking.get();
+            long timeout = timeouts.get();
+            return new Stats(event + poll + block + timeout, event, poll, block, timeout, totalMs.get(), maxMs.get());
+        }
+    }
+
+    private final class Watch {
+
+        private final String metric;
+        private final IPath path;
+        private final BooleanSupplier persisted;
+        private final long deadlineNanos;
+        private final long maxPollMs;
+        private final long startedNanos = System.nanoTime();
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        private final AtomicBoolean checkQueued = new AtomicBoolean();
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private volatile ScheduledFuture<?> pollTask;
+        private volatile ScheduledFuture<?> deadlineTask;
+
+        Watch(String metric, IPath path, BooleanSupplier persisted, long deadlineNanos, long maxPollMs) {
+            this.metric = metric;
+            this.path = path;
+            this.persisted = persisted;
+            this.deadlineNanos = deadlineNanos;
+            this.maxPollMs = maxPollMs;
+        }
+
+        /**
+         * Runs the persistence check; checks of one wait never run concurrently.
+         */
+        synchronized boolean check(Source source) {
+            if (future.isDone()) {
+                return true;
+            }
+            boolean ok;
+            try {
+                ok = persisted.getAsBoolean();
+            } catch (RuntimeException e) {
+                LOG.debug("Persistence check failed for %s: %s", path, e.getMessage()); //$NON-NLS-1$
+                ok = false;
+            }
+            if (ok) {
+                finish(source, true);
+                return true;
+            }
+            if (source == Source.TIMEOUT || System.nanoTime() - deadlineNanos >= 0) {
+                finish(Source.TIMEOUT, false);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Runs a check on the check executor unless one is already queued for this wait.
+         *
+         * @param afterMiss run on the check executor when the check did not end the wait, may be null
+         */
+        void submitCheck(Source source, Runnable afterMiss) {
+            if (future.isDone()) {
+                return;
+            }
+            if (!checkQueued.compareAndSet(false, true)) {
+                // A check is still queued or blocked; keep the poll cadence without piling up checks.
+                if (afterMiss != null) {
+                    afterMiss.run();
+                }
+                return;
+            }
+            try {
+                checkExecutor.execute(() -> {
+                    boolean done;
+                    try {
+                        done = check(source);
+                    } finally {
+                        checkQueued.set(false);
+                    }
+                    if (!done && afterMiss != null) {
+                        afterMiss.run();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                checkQueued.set(false);
+                expire();
+            }
+        }
+
+        void schedulePoll(long delayMs) {
+            pollTask = scheduler.schedule(() -> submitCheck(Source.POLL,
+                    () -> schedulePoll(Math.min(delayMs * 2, maxPollMs))), delayMs, TimeUnit.MILLISECONDS);
+        }
+
+        void scheduleDeadline(long timeoutMs) {
+            // Completes the wait without running the check, which may be blocked on another thread.
+            deadlineTask = scheduler.schedule(this::expire, Math.max(0L, timeoutMs), TimeUnit.MILLISECONDS);
+        }
+
+        void expire() {
+            finish(Source.TIMEOUT, false);
+        }
+
+        void close() {
+            Set<Watch> pathWatches = watches.get(path);
+            if (pathWatches != null) {
+                pathWatches.remove(this);
+                if (pathWatches.isEmpty()) {
+                    watches.remove(path, pathWatches);
+                }
+            }
+            ScheduledFuture<?> poll = pollTask;
+            if (poll != null) {
+                poll.cancel(false);
+            }
+            ScheduledFuture<?> deadline = deadlineTask;
+            if (deadline != null) {
+                deadline.cancel(false);
+            }
+        }
+
+        private void finish(Source source, boolean result) {
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+            // A check and the deadline may race; only the first records the wait.
+            if (finished.compareAndSet(false, true)) {
+                metric(metric).record(source, elapsedMs);
+                LOG.debug("Persistence wait %s for %s ended by %s after %dms", metric, path, source, elapsedMs); //$NON-NLS-1$
+                future.complete(Boolean.valueOf(result));
+            }
+        }
+    }
+}
@@ -242,6 +242,7 @@ public class EdtMetadataService {
     private final EventHandlerTargetResolver eventHandlerTargetResolver;
     private final ModuleFileWriter moduleFileWriter;
     private final ExtendedMethodCallTypeResolver extendedMethodCallTypeResolver;
+    private final ArtifactPersistenceWaiter persistenceWaiter;
 
     private record TypeSpec(
             String typeQuery,
@@ -291,6 +292,7 @@ public class EdtMetadataService {
         this.eventHandlerTargetResolver = eventHandlerTargetResolver;
         this.moduleFileWriter = moduleFileWriter;
         this.extendedMethodCallTypeResolver = new ExtendedMethodCallTypeResolver();
+        this.persistenceWaiter = ArtifactPersistenceWaiter.getInstance();
     }
 
     public boolean isEdtAvailable() {
@@ -333,41 +335,8 @@ public class EdtMetadataService {
 
         executeWrite(project, transaction -> {
             LOG.debug("[%s] Transaction started for createMetadata", opId); //$NON-NLS-1$
-            Configuration txConfiguration = transaction.toTransactionObject(configuration);
-            if (txConfiguration == null) {
-                LOG.error("[%s] Failed to map configuration into transaction", opId); //$NON-NLS-1$
-                throw new MetadataOperationException(
-                        MetadataOperationCode.EDT_TRANSACTION_FAILED,
-                        "Cannot access configuration in BM transaction", false); //$NON-NLS-1$
-            }
-
-            if (existsTopLevel(txConfiguration, request.kind(), request.name())) {
-                LOG.warn("[%s] Metadata already exists: %s", opId, fqn); //$NON-NLS-1$
-                throw new MetadataOperationException(
-                        MetadataOperationCode.METADATA_ALREADY_EXISTS,
-                        "Metadata object already exists: " + fqn, false); //$NON-NLS-1$
-            }
-
-            MdObject object = createTopLevelObject(request.kind());
-            LOG.debug("[%s] Created object instance: %s", opId, object.eClass().getName()); //$NON-NLS-1$
-            setCommonProperties(object, request.name(), request.synonym(), request.comment(), txConfiguration);
-            MdObject txObject = attachTopLevelObject(transaction, project, object, fqn);
-            LOG.debug("[%s] Attached top object by FQN=%s", opId, fqn); //$NON-NLS-1$
-            ensureUuidsRecursively(txObject, opId, fqn);
-            // Keep eager link for immediate in-memory visibility in EDT UI.
-            addTopLevelObject(txConfiguration, request.kind(), txObject);
-            applyTopLevelProperties(
-                    txConfiguration,
-                    txObject,
-                    request.kind(),
-                    request.properties(),
-                    transaction,
-                    capturedTopLevelPropertyTypes,
-                    platformVersion,
-                    opId,
-                    fqn);
-            LOG.debug("[%s] Eager linked object into Configuration collections", opId); //$NON-NLS-1$
-            LOG.debug("[%s] Transaction steps completed for %s", opId, fqn); //$NON-NLS-1$
+            createTopLevelInTransaction(project, transaction, configuration, request,
+                    capturedTopLevelPropertyTypes, platformVersion, opId);
             return null;
         });
         rebindTopLevelIntoConfiguration(project, request.kind(), request.name(), fqn, opId);
@@ -521,19 +490,8 @@ public class EdtMetadataService {
         }
 
         List<PendingStub> pendingStubs = new ArrayList<>();
-        List<String> operationSummaries = executeWrite(project, transaction -> {
-            Configuration txConfiguration = toTransactionConfigurationOrNull(transaction, configuration);
-            MdObject resolved = resolveObjectForTransaction(project, transaction, txConfiguration, request.formFqn());
-            if (!(resolved instanceof BasicForm basicForm)) {
-                throw new MetadataOperationException(
-                        MetadataOperationCode.METADATA_NOT_FOUND,
-                        "Form metadata not found: " + request.formFqn(), false); //$NON-NLS-1$
-            }
-            Form formModel = resolveManagedFormModel(basicForm, request.formFqn());
-            List<String> applied = applyFormModelOperations(formModel, request.operations(), pendingStubs);
-            ensureUuidsRecursively(basicForm, opId, request.formFqn());
-            return applied;
-        });
+        List<String> operationSummaries = executeWrite(project, transaction -> updateFormModelInTransaction(
+                project, transaction, configuration, request, pendingStubs, opId));
 
         String topLevelFqn = extractTopLevelFqn(request.formFqn());
         forceExportTopLevelObject(project, topLevelFqn, opId);
@@ -1459,27 +1417,8 @@ public class EdtMetadataService {
 
         String childFqn = executeWrite(project, transaction -> {
             LOG.debug("[%s] Transaction started for addMetadataChild", opId); //$NON-NLS-1$
-            if (externalProject
-                    && (request.childKind() == MetadataChildKind.ATTRIBUTE
-                            || request.childKind() == MetadataChildKind.TABULAR_SECTION)) {
-                return createGenericChildInExternalProject(project, request, transaction, capturedTypes);
-            }
-            if (configuration == null) {
-                if (!externalProject) {
-                    throw new MetadataOperationException(
-                            MetadataOperationCode.EDT_TRANSACTION_FAILED,
-                            "Cannot access configuration in BM transaction", false); //$NON-NLS-1$
-                }
-                return createGenericChildInExternalProject(project, request, transaction, capturedTypes);
-            }
-            Configuration txConfiguration = transaction.toTransactionObject(configuration);
-            if (txConfiguration == null) {
-                LOG.error("[%s] Failed to map configuration into transaction", opId); //$NON-NLS-1$
-                throw new MetadataOperationException(
-                        MetadataOperationCode.EDT_TRANSACTION_FAILED,
-                        "Cannot access configuration in BM transaction", false); //$NON-NLS-1$
-            }
-            return createGenericChild(txConfiguration, request, transaction, capturedTypes);
+            return addChildInTransaction(project, transaction, configuration, externalProject, request,
+                    capturedTypes, opId);
         });
         verifyObjectPersisted(project, childFqn, opId);
 
@@ -4546,29 +4485,8 @@ public class EdtMetadataService {
         final String[] persistenceFqn = new String[1];
 
         String targetFqn = executeWrite(project, transaction -> {
-            Configuration txConfiguration = transaction.toTransactionObject(configuration);
-            if (txConfiguration == null) {
-                throw new MetadataOperationException(
-                        MetadataOperationCode.EDT_TRANSACTION_FAILED,
-                        "Cannot access configuration in BM transaction", false); //$NON-NLS-1$
-            }
-            StandardAttributeTarget standardAttribute =
-                    resolveStandardAttributeTarget(txConfiguration, request.targetFqn());
-            if (standardAttribute != null) {
-                applyStandardAttributeChanges(standardAttribute, request.changes());
-                persistenceFqn[0] = standardAttribute.parentFqn();
-                return request.targetFqn();
-            }
-            MdObject target = resolveByFqn(txConfiguration, request.targetFqn());
-            if (target == null) {
-                throw new MetadataOperationException(
-                        MetadataOperationCode.METADATA_NOT_FOUND,
-                        "Metadata object not found: " + request.targetFqn(), false); //$NON-NLS-1$
-            }
-            applyObjectChanges(txConfiguration, target, request.changes(), request.targetFqn(),
-                    transaction, capturedTypes, platformVersion);
-            ensureUuidsRecursively(target, opId, request.targetFqn());
-            persistenceFqn[0] = request.targetFqn();
+            persistenceFqn[0] = updateInTransaction(transaction, configuration, request,
+                    capturedTypes, platformVersion, opId);
             return request.targetFqn();
         });
 
@@ -4590,6 +4508,337 @@ public class EdtMetadataService {
                 "Metadata object updated successfully"); //$NON-NLS-1$
     }
 
+    /**
+     * Applies an ordered list of metadata mutations in a single BM transaction.
+     *
+     * <p>Every operation runs in the same transaction, so later operations see objects created by
+     * earlier ones and a failure in any of them rolls back the whole batch. Each touched top-level
+     * object is force-exported once after the commit and the project is refreshed once, instead of
+     * once per operation as with the single-operation methods.</p>
+     */
+    public MetadataBatchResult applyMetadataBatch(MetadataBatchRequest request) {
+        String opId = LogSanitizer.newId("edt-batch"); //$NON-NLS-1$
+        long startedAt = System.currentTimeMillis();
+        request.validate();
+        List<MetadataBatchOperation> operations = request.operations();
+        LOG.info("[%s] applyMetadataBatch START project=%s operations=%d", //$NON-NLS-1$
+                opId, request.projectName(), Integer.valueOf(operations.size()));
+        gateway.ensureMutationRuntimeAvailable();
+        IProject project = requireProject(request.projectName());
+        readinessChecker.ensureReady(project);
+        repairConfigurationMissingUuids(project, opId);
+
+        IConfigurationProvider configurationProvider = gateway.getConfigurationProvider();
+        Configuration configuration = configurationProvider.getConfiguration(project);
+        final boolean externalProject = isExternalProject(project);
+        if (configuration == null && !externalProject) {
+            throw new MetadataOperationException(
+                    MetadataOperationCode.EDT_SERVICE_UNAVAILABLE,
+                    "Cannot resolve project configuration", false); //$NON-NLS-1$
+        }
+
+        // Type references are resolved up front in read transactions, as the single-operation paths do;
+        // types introduced by the batch itself are therefore not visible to later type references.
+        List<Map<String, TypeItem>> preResolvedTypes = new ArrayList<>(operations.size());
+        for (MetadataBatchOperation operation : operations) {
+            preResolvedTypes.add(preResolveBatchOperationTypes(project, operation));
+        }
+        final String platformVersion = resolvePlatformVersionString(project);
+
+        List<BatchStepOutcome> outcomes = new ArrayList<>(operations.size());
+        int[] currentIndex = {-1};
+        try {
+            executeWrite(project, transaction -> {
+                outcomes.clear();
+                for (int i = 0; i < operations.size(); i++) {
+                    currentIndex[0] = i;
+                    outcomes.add(applyBatchOperationInTransaction(project, transaction, configuration,
+                            externalProject, operations.get(i), preResolvedTypes.get(i), platformVersion,
+                            opId + "#" + (i + 1))); //$NON-NLS-1$
+                }
+                currentIndex[0] = -1;
+                return null;
+            });
+        } catch (MetadataOperationException e) {
+            int failedIndex = currentIndex[0];
+            String failedStep = failedIndex < 0
+                    ? "Batch commit failed" //$NON-NLS-1$
+                    : "Batch operation #" + (failedIndex + 1) + " (" //$NON-NLS-1$ //$NON-NLS-2$
+                            + operations.get(failedIndex).describe() + ") failed"; //$NON-NLS-1$
+            LOG.warn("[%s] applyMetadataBatch ROLLBACK in %s: %s: %s", opId, //$NON-NLS-1$
+                    LogSanitizer.formatDuration(System.currentTimeMillis() - startedAt),
+                    failedStep,
+                    e.getMessage());
+            throw new MetadataOperationException(
+                    e.getCode(),
+                    failedStep + ": " + e.getMessage() + ". All " + operations.size() //$NON-NLS-1$ //$NON-NLS-2$
+                            + " operations were rolled back; nothing was changed.", //$NON-NLS-1$
+                    e.isRecoverable(),
+                    e);
+        }
+
+        Set<String> topLevelFqns = new LinkedHashSet<>();
+        for (int i = 0; i < operations.size(); i++) {
+            MetadataBatchOperation operation = operations.get(i);
+            if (operation.type() == MetadataBatchOperation.Type.CREATE) {
+                CreateMetadataRequest create = operation.create();
+                rebindTopLevelIntoConfiguration(project, create.kind(), create.name(),
+                        outcomes.get(i).persistenceFqn(), opId);
+            }
+            topLevelFqns.add(extractTopLevelFqn(outcomes.get(i).persistenceFqn()));
+        }
+        boolean derivedDataReady = true;
+        for (String topLevelFqn : topLevelFqns) {
+            // Non-short-circuiting: every touched object must be exported even after a wait timed out.
+            derivedDataReady &= forceExportTopLevelObject(project, topLevelFqn, opId);
+        }
+
+        List<MetadataOperationResult> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            MetadataBatchOperation operation = operations.get(i);
+            BatchStepOutcome outcome = outcomes.get(i);
+            MetadataOperationResult result = outcome.result();
+            if (operation.type() == MetadataBatchOperation.Type.CREATE) {
+                verifyTopLevelPersisted(project, outcome.persistenceFqn(), opId);
+                verifyConfigurationEntryPersisted(project, operation.create().kind(), outcome.persistenceFqn(), opId);
+            } else {
+                verifyObjectPersisted(project, outcome.persistenceFqn(), opId);
+            }
+            if (operation.type() == MetadataBatchOperation.Type.ADD_CHILD
+                    && operation.addChild().childKind() == MetadataChildKind.TEMPLATE) {
+                AddMetadataChildRequest child = operation.addChild();
+                String templateArtifactPath = ensureTemplateArtifact(project, child.parentFqn(), child.name(),
+                        resolveTemplateType(child.properties()), opId);
+                if (templateArtifactPath != null) {
+                    result = new MetadataOperationResult(result.success(), result.projectName(), result.kind(),
+                            result.name(), result.fqn(),
+                            result.message() + ". Template artifact: " + templateArtifactPath); //$NON-NLS-1$
+                }
+            }
+            results.add(result);
+        }
+        refreshProjectSafely(project);
+        LOG.info("[%s] applyMetadataBatch SUCCESS in %s operations=%d exported=%s derivedDataReady=%s", opId, //$NON-NLS-1$
+                LogSanitizer.formatDuration(System.currentTimeMillis() - startedAt),
+                Integer.valueOf(operations.size()),
+                topLevelFqns,
+                Boolean.valueOf(derivedDataReady));
+        return new MetadataBatchResult(request.projectName(), results, List.copyOf(topLevelFqns), derivedDataReady);
+    }
+
+    private Map<String, TypeItem> preResolveBatchOperationTypes(IProject project, MetadataBatchOperation operation) {
+        return switch (operation.type()) {
+            case CREATE -> preResolveTopLevelPropertyTypes(project, operation.create().properties());
+            case ADD_CHILD -> preResolveChildTypes(project, operation.addChild());
+            case UPDATE -> preResolveTypeStrings(project, collectTypeStrings(operation.update().changes()));
+            case UPDATE_FORM_MODEL -> Map.of();
+        };
+    }
+
+    private BatchStepOutcome applyBatchOperationInTransaction(
+            IProject project,
+            IBmPlatformTransaction transaction,
+            Configuration configuration,
+            boolean externalProject,
+            MetadataBatchOperation operation,
+            Map<String, TypeItem> preResolvedTypes,
+            String platformVersion,
+            String opId
+    ) {
+        LOG.debug("[%s] Batch step: %s", opId, operation.describe()); //$NON-NLS-1$
+        switch (operation.type()) {
+            case CREATE -> {
+                CreateMetadataRequest create = operation.create();
+                String fqn = createTopLevelInTransaction(project, transaction, configuration, create,
+                        preResolvedTypes, platformVersion, opId);
+                return new BatchStepOutcome(new MetadataOperationResult(true, create.projectName(),
+                        create.kind().name(), create.name(), fqn, "Metadata object created"), fqn); //$NON-NLS-1$
+            }
+            case ADD_CHILD -> {
+                AddMetadataChildRequest child = operation.addChild();
+                String childFqn = addChildInTransaction(project, transaction, configuration, externalProject,
+                        child, preResolvedTypes, opId);
+                return new BatchStepOutcome(new MetadataOperationResult(true, child.projectName(),
+                        child.childKind().name(), extractNameFromFqn(childFqn), childFqn,
+                        "Metadata child object created"), childFqn); //$NON-NLS-1$
+            }
+            case UPDATE -> {
+                UpdateMetadataRequest update = operation.update();
+                String persistenceFqn = updateInTransaction(transaction, configuration, update,
+                        preResolvedTypes, platformVersion, opId);
+                return new BatchStepOutcome(new MetadataOperationResult(true, update.projectName(), "UPDATE", //$NON-NLS-1$
+                        extractNameFromFqn(update.targetFqn()), update.targetFqn(),
+                        "Metadata object updated"), persistenceFqn); //$NON-NLS-1$
+            }
+            case UPDATE_FORM_MODEL -> {
+                UpdateFormModelRequest formRequest = operation.updateFormModel();
+                List<PendingStub> pendingStubs = new ArrayList<>();
+                List<String> applied = updateFormModelInTransaction(project, transaction, configuration,
+                        formRequest, pendingStubs, opId);
+                if (!pendingStubs.isEmpty()) {
+                    // Handler stubs are BSL files written after the commit with their own compensation;
+                    // they cannot be part of an all-or-nothing BM transaction.
+                    throw new MetadataOperationException(
+                            MetadataOperationCode.INVALID_METADATA_CHANGE,
+                            "Form operations that generate BSL handler stubs (" //$NON-NLS-1$
+                                    + String.join(", ", pendingStubs.stream().map(PendingStub::handlerName).toList()) //$NON-NLS-1$
+                                    + ") are not supported in a batch; apply them with mutate_form_model", //$NON-NLS-1$
+                            false);
+                }
+                return new BatchStepOutcome(new MetadataOperationResult(true, formRequest.projectName(),
+                        "UPDATE_FORM_MODEL", extractNameFromFqn(formRequest.formFqn()), formRequest.formFqn(), //$NON-NLS-1$
+                        "Form model updated, operations applied: " + applied.size()), formRequest.formFqn()); //$NON-NLS-1$
+            }
+            default -> throw new MetadataOperationException(
+                    MetadataOperationCode.INVALID_METADATA_CHANGE,
+                    "Unsupported batch op: " + operation.type(), false); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Outcome of one batch step inside the transaction; {@code persistenceFqn} is the object to
+     * export and verify after the commit.
+     */
+    private record BatchStepOutcome(MetadataOperationResult result, String persistenceFqn) {
+    }
+
+    private String createTopLevelInTransaction(
+            IProject project,
+            IBmPlatformTransaction transaction,
+            Configuration configuration,
+            CreateMetadataRequest request,
+            Map<String, TypeItem> topLevelPropertyTypes,
+            String platformVersion,
+            String opId
+    ) {
+        String fqn = request.kind().getFqnPrefix() + "." + request.name(); //$NON-NLS-1$
+        Configuration txConfiguration = transaction.toTransactionObject(configuration);
+        if (txConfiguration == null) {
+            LOG.error("[%s] Failed to map configuration into transaction", opId); //$NON-NLS-1$
+            throw new MetadataOperationException(
+                    MetadataOperationCode.EDT_TRANSACTION_FAILED,
+                    "Cannot access configuration in BM transaction", false); //$NON-NLS-1$
+        }
+
+        if (existsTopLevel(txConfiguration, request.kind(), request.name())) {
+            LOG.warn("[%s] Metadata already exists: %s", opId, fqn); //$NON-NLS-1$
+            throw new MetadataOperationException(
+                    MetadataOperationCode.METADATA_ALREADY_EXISTS,
+                    "Metadata object already exists: " + fqn, false); //$NON-NLS-1$
+        }
+
+        MdObject object = createTopLevelObject(request.kind());
+        LOG.debug("[%s] Created object instance: %s", opId, object.eClass().getName()); //$NON-NLS-1$
+        setCommonProperties(object, request.name(), request.synonym(), request.comment(), txConfiguration);
+        MdObject txObject = attachTopLevelObject(transaction, project, object, fqn);
+        LOG.debug("[%s] Attached top object by FQN=%s", opId, fqn); //$NON-NLS-1$
+        ensureUuidsRecursively(txObject, opId, fqn);
+        // Keep eager link for immediate in-memory visibility in EDT UI.
+        addTopLevelObject(txConfiguration, request.kind(), txObject);
+        applyTopLevelProperties(
+                txConfiguration,
+                txObject,
+                request.kind(),
+                request.properties(),
+                transaction,
+                topLevelPropertyTypes,
+                platformVersion,
+                opId,
+                fqn);
+        LOG.debug("[%s] Eager linked object into Configuration collections", opId); //$NON-NLS-1$
+        LOG.debug("[%s] Transaction steps completed for %s", opId, fqn); //$NON-NLS-1$
+        return fqn;
+    }
+
+    private String addChildInTransaction(
+            IProject project,
+            IBmPlatformTransaction transaction,
+            Configuration configuration,
+            boolean externalProject,
+            AddMetadataChildRequest request,
+            Map<String, TypeItem> preResolvedTypes,
+            String opId
+    ) {
+        if (externalProject
+                && (request.childKind() == MetadataChildKind.ATTRIBUTE
+                        || request.childKind() == MetadataChildKind.TABULAR_SECTION)) {
+            return createGenericChildInExternalProject(project, request, transaction, preResolvedTypes);
+        }
+        if (configuration == null) {
+            if (!externalProject) {
+                throw new MetadataOperationException(
+                        MetadataOperationCode.EDT_TRANSACTION_FAILED,
+                        "Cannot access configuration in BM transaction", false); //$NON-NLS-1$
+            }
+            return createGenericChildInExternalProject(project, request, transaction, preResolvedTypes);
+        }
+        Configuration txConfiguration = transaction.toTransactionObject(configuration);
+        if (txConfiguration == null) {
+            LOG.error("[%s] Failed to map configuration into transaction", opId); //$NON-NLS-1$
+            throw new MetadataOperationException(
+                    MetadataOperationCode.EDT_TRANSACTION_FAILED,
+                    "Cannot access configuration in BM transaction", false); //$NON-NLS-1$
+        }
+        return createGenericChild(txConfiguration, request, transaction, preResolvedTypes);
+    }
+
+    /**
+     * Applies {@code request.changes()} inside the transaction and returns the FQN that must be
+     * exported and verified afterwards (the owner for standard attributes).
+     */
+    private String updateInTransaction(
+            IBmPlatformTransaction transaction,
+            Configuration configuration,
+            UpdateMetadataRequest request,
+            Map<String, TypeItem> preResolvedTypes,
+            String platformVersion,
+            String opId
+    ) {
+        Configuration txConfiguration = configuration == null ? null : transaction.toTransactionObject(configuration);
+        if (txConfiguration == null) {
+            throw new MetadataOperationException(
+                    MetadataOperationCode.EDT_TRANSACTION_FAILED,
+                    "Cannot access configuration in BM transaction", false); //$NON-NLS-1$
+        }
+        StandardAttributeTarget standardAttribute =
+                resolveStandardAttributeTarget(txConfiguration, request.targetFqn());
+        if (standardAttribute != null) {
+            applyStandardAttributeChanges(standardAttribute, request.changes());
+            return standardAttribute.parentFqn();
+        }
+        MdObject target = resolveByFqn(txConfiguration, request.targetFqn());
+        if (target == null) {
+            throw new MetadataOperationException(
+                    MetadataOperationCode.METADATA_NOT_FOUND,
+                    "Metadata object not found: " + request.targetFqn(), false); //$NON-NLS-1$
+        }
+        applyObjectChanges(txConfiguration, target, request.changes(), request.targetFqn(),
+                transaction, preResolvedTypes, platformVersion);
+        ensureUuidsRecursively(target, opId, request.targetFqn());
+        return request.targetFqn();
+    }
+
+    private List<String> updateFormModelInTransaction(
+            IProject project,
+            IBmPlatformTransaction transaction,
+            Configuration configuration,
+            UpdateFormModelRequest request,
+            List<PendingStub> pendingStubs,
+            String opId
+    ) {
+        Configuration txConfiguration = toTransactionConfigurationOrNull(transaction, configuration);
+        MdObject resolved = resolveObjectForTransaction(project, transaction, txConfiguration, request.formFqn());
+        if (!(resolved instanceof BasicForm basicForm)) {
+            throw new MetadataOperationException(
+                    MetadataOperationCode.METADATA_NOT_FOUND,
+                    "Form metadata not found: " + request.formFqn(), false); //$NON-NLS-1$
+        }
+        Form formModel = resolveManagedFormModel(basicForm, request.formFqn());
+        List<String> applied = applyFormModelOperations(formModel, request.operations(), pendingStubs);
+        ensureUuidsRecursively(basicForm, opId, request.formFqn());
+        return applied;
+    }
+
     public FieldTypeCandidatesResult listFieldTypeCandidates(FieldTypeCandidatesRequest request) {
         request.validate();
         IProject project = requireProject(request.projectName());
@@ -5771,34 +6020,36 @@ public class EdtMetadataService {
         }
 
         long startedAt = System.currentTimeMillis();
-        long deadline = startedAt + waitMs;
-
-        while (System.currentTimeMillis() < deadline) {
-            refreshFileSafely(ownerMdoFile);
-
-            String ownerContent = readFileSafely(ownerMdoFile);
-            if (ownerContent == null) {
-                ownerContent = readFileFromDiskSafely(ownerMdoFile);
-            }
-            boolean formEntryInOwner = containsFormEntryInOwnerMdo(ownerContent, formName);
-            if (formEntryInOwner) {
-                String diagnostics = "materialized in " //$NON-NLS-1$
-                        + LogSanitizer.formatDuration(System.currentTimeMillis() - startedAt)
-                        + ", storage=embedded-in-owner-mdo" //$NON-NLS-1$
-                        + ", ownerMdo=" + toAbsolutePath(ownerMdoFile); //$NON-NLS-1$
-                return new FormArtifactPaths(
-                        toAbsolutePath(ownerMdoFile),
-                        null,
-                        diagnostics);
-            }
-            try {
-                Thread.sleep(FORM_MATERIALIZATION_POLL_MS);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new MetadataOperationException(
-                        MetadataOperationCode.EDT_TRANSACTION_FAILED,
-                        "Interrupted while waiting form materialization for " + ownerFqn + ".Form." + formName, true, e); //$NON-NLS-1$ //$NON-NLS-2$
-            }
+        boolean materialized;
+        try {
+            materialized = persistenceWaiter.await(
+                    "form-materialization", //$NON-NLS-1$
+                    ownerMdoFile.getFullPath(),
+                    () -> {
+                        refreshFileSafely(ownerMdoFile);
+                        String content = readFileSafely(ownerMdoFile);
+                        if (content == null) {
+                            content = readFileFromDiskSafely(ownerMdoFile);
+                        }
+                        return containsFormEntryInOwnerMdo(content, formName);
+                    },
+                    waitMs,
+                    FORM_MATERIALIZATION_POLL_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MetadataOperationException(
+                    MetadataOperationCode.EDT_TRANSACTION_FAILED,
+                    "Interrupted while waiting form materialization for " + ownerFqn + ".Form." + formName, true, e); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        if (materialized) {
+            String diagnostics = "materialized in " //$NON-NLS-1$
+                    + LogSanitizer.formatDuration(System.currentTimeMillis() - startedAt)
+                    + ", storage=embedded-in-owner-mdo" //$NON-NLS-1$
+                    + ", ownerMdo=" + toAbsolutePath(ownerMdoFile); //$NON-NLS-1$
+            return new FormArtifactPaths(
+                    toAbsolutePath(ownerMdoFile),
+                    null,
+                    diagnostics);
         }
 
         String ownerContent = readFileSafely(ownerMdoFile);
@@ -11362,22 +11613,25 @@ public class EdtMetadataService {
     private void verifyConfigurationEntryPersisted(IProject project, MetadataKind kind, String fqn, String opId) {
         IFile configFile = project.getFile("src/Configuration/Configuration.mdo"); //$NON-NLS-1$
         long startedAt = System.currentTimeMillis();
-        long deadline = startedAt + CONFIG_SERIALIZATION_WAIT_MS;
-        while (System.currentTimeMillis() < deadline) {
-            refreshFileSafely(configFile);
-            if (hasConfigurationEntry(configFile, kind, fqn)) {
+        try {
+            if (persistenceWaiter.await(
+                    "configuration-serialization", //$NON-NLS-1$
+                    configFile.getFullPath(),
+                    () -> {
+                        refreshFileSafely(configFile);
+                        return hasConfigurationEntry(configFile, kind, fqn);
+                    },
+                    CONFIG_SERIALIZATION_WAIT_MS,
+                    CONFIG_SERIALIZATION_POLL_MS)) {
                 LOG.debug("[%s] Configuration serialization verified in %s for %s", opId, // $NON-NLS-1$
                         LogSanitizer.formatDuration(System.currentTimeMillis() - startedAt), fqn);
                 return;
             }
-            try {
-                Thread.sleep(CONFIG_SERIALIZATION_POLL_MS);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new MetadataOperationException(
-                        MetadataOperationCode.EDT_TRANSACTION_FAILED,
-                        "Interrupted while waiting configuration serialization for " + fqn, true, e); //$NON-NLS-1$
-            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MetadataOperationException(
+                    MetadataOperationCode.EDT_TRANSACTION_FAILED,
+                    "Interrupted while waiting configuration serialization for " + fqn, true, e); //$NON-NLS-1$
         }
 
         // Last attempt with explicit full refresh and direct disk read.
@@ -11462,12 +11716,14 @@ public class EdtMetadataService {
                     MetadataOperationCode.EDT_SERVICE_UNAVAILABLE,
                     "Cannot resolve derived-data manager for project: " + dtProject.getName(), false); //$NON-NLS-1$
         }
+        long startedAt = System.currentTimeMillis();
         try {
             boolean done = ddManager.waitComputation(
                     EXPORT_DERIVED_WAIT_MS,
                     true,
                     EXPORT_SEGMENT_OBJECTS,
                     EXPORT_SEGMENT_BLOBS);
+            persistenceWaiter.record("export-derived-data", System.currentTimeMillis() - startedAt, done); //$NON-NLS-1$
             LOG.debug("[%s] waitComputation(EXP_O,EXP_B) for %s: %s", opId, fqn, done); //$NON-NLS-1$
             if (!done) {
                 // The BM commit is authoritative for the operation result. A derived-data export that
@@ -11498,8 +11754,10 @@ public class EdtMetadataService {
                     "Cannot resolve derived-data manager for project: " + dtProject.getName(), false); //$NON-NLS-1$
         }
 
+        long startedAt = System.currentTimeMillis();
         try {
             boolean importantDone = ddManager.waitImportantDataComputations(EXPORT_DERIVED_WAIT_MS);
+            persistenceWaiter.record("derived-data-flush", System.currentTimeMillis() - startedAt, importantDone); //$NON-NLS-1$
             LOG.debug("[%s] waitImportantDataComputations for %s: %s", opId, fqn, importantDone); //$NON-NLS-1$
             if (!importantDone) {
                 LOG.warn("[%s] waitImportantDataComputations timed out for %s in %dms", opId, fqn, EXPORT_DERIVED_WAIT_MS); //$NON-NLS-1$
@@ -0,0 +1,121 @@
+package com.codepilot1c.core.edt.metadata;
+
+import java.util.Locale;
+
+import com.codepilot1c.core.edt.forms.UpdateFormModelRequest;
+
+/**
+ * One step of a metadata batch: exactly one of the request fields is set, matching {@link #type()}.
+ */
+public record MetadataBatchOperation(
+        Type type,
+        CreateMetadataRequest create,
+        AddMetadataChildRequest addChild,
+        UpdateMetadataRequest update,
+        UpdateFormModelRequest updateFormModel
+) {
+
+    /**
+     * Supported batch step kinds.
+     */
+    public enum Type {
+        CREATE("create"), //$NON-NLS-1$
+        ADD_CHILD("add_child"), //$NON-NLS-1$
+        UPDATE("update"), //$NON-NLS-1$
+        UPDATE_FORM_MODEL("update_form_model"); //$NON-NLS-1$
+
+        private final String op;
+
+        Type(String op) {
+            this.op = op;
+        }
+
+        public String getOp() {
+            return op;
+        }
+
+        public static Type fromString(String value) {
+            String normalized = value == null ? "" : value.trim().toLowerCase(Locale.ROOT); //$NON-NLS-1$
+            for (Type type : values()) {
+                if (type.op.equals(normalized)) {
+                    return type;
+                }
+            }
+            throw new MetadataOperationException(
+                    MetadataOperationCode.INVALID_METADATA_CHANGE,
+                    "Unsupported batch op: " + value + ". Supported: create, add_child, update, update_form_model", //$NON-NLS-1$ //$NON-NLS-2$
+                    false);
+        }
+    }
+
+    public static MetadataBatchOperation create(CreateMetadataRequest request) {
+        return new MetadataBatchOperation(Type.CREATE, request, null, null, null);
+    }
+
+    public static MetadataBatchOperation addChild(AddMetadataChildRequest request) {
+        return new MetadataBatchOperation(Type.ADD_CHILD, null, request, null, null);
+    }
+
+    public static MetadataBatchOperation update(UpdateMetadataRequest request) {
+        return new MetadataBatchOperation(Type.UPDATE, null, null, request, null);
+    }
+
+    public static MetadataBatchOperation updateFormModel(UpdateFormModelRequest request) {
+        return new MetadataBatchOperation(Type.UPDATE_FORM_MODEL, null, null, null, request);
+    }
+
+    /**
+     * Returns the project the wrapped request targets.
+     */
+    public String projectName() {
+        return switch (type) {
+            case CREATE -> create.projectName();
+            case ADD_CHILD -> addChild.projectName();
+            case UPDATE -> update.projectName();
+            case UPDATE_FORM_MODEL -> updateFormModel.projectName();
+        };
+    }
+
+    /**
+     * Returns a short human-readable description used in logs and error messages.
+     */
+    public String describe() {
+        return switch (type) {
+            case CREATE -> type.getOp() + " " + create.kind().getFqnPrefix() + "." + create.name(); //$NON-NLS-1$ //$NON-NLS-2$
+            case ADD_CHILD -> type.getOp() + " " + addChild.parentFqn() + " " + addChild.childKind() //$NON-NLS-1$ //$NON-NLS-2$
+                    + (addChild.name() == null ? "" : " " + addChild.name()); //$NON-NLS-1$ //$NON-NLS-2$
+            case UPDATE -> type.getOp() + " " + update.targetFqn(); //$NON-NLS-1$
+            case UPDATE_FORM_MODEL -> type.getOp() + " " + updateFormModel.formFqn(); //$NON-NLS-1$
+        };
+    }
+
+    public void validate() {
+        if (type == null) {
+            throw new MetadataOperationException(
+                    MetadataOperationCode.INVALID_METADATA_CHANGE,
+                    "batch operation type is required", false); //$NON-NLS-1$
+        }
+        switch (type) {
+            case CREATE -> requirePresent(create).validate();
+            case ADD_CHILD -> {
+                requirePresent(addChild).validate();
+                if (addChild.childKind() == MetadataChildKind.FORM) {
+                    throw new MetadataOperationException(
+                            MetadataOperationCode.INVALID_METADATA_CHANGE,
+                            "FORM children cannot be created inside a metadata batch; use create_form", false); //$NON-NLS-1$
+                }
+            }
+            case UPDATE -> requirePresent(update).validate();
+            case UPDATE_FORM_MODEL -> requirePresent(updateFormModel).validate();
+        }
+    }
+
+    private <T> T requirePresent(T request) {
+        if (request == null) {
+            throw new MetadataOperationException(
+                    MetadataOperationCode.INVALID_METADATA_CHANGE,
+                    "batch operation " + type.getOp() + " has no request", false); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return request;
+    }
+}
@@ -0,0 +1,47 @@
+package com.codepilot1c.core.edt.metadata;
+
+import java.util.List;
+
+/**
+ * Request for applying an ordered list of metadata mutations in one BM transaction.
+ */
+public record MetadataBatchRequest(
+        String projectName,
+        List<MetadataBatchOperation> operations
+) {
+    public static final int MAX_OPERATIONS = 200;
+
+    public void validate() {
+        if (projectName == null || projectName.isBlank()) {
+            throw new MetadataOperationException(
+                    MetadataOperationCode.PROJECT_NOT_FOUND,
+                    "projectName is required", false); //$NON-NLS-1$
+        }
+        if (operations == null || operations.isEmpty()) {
+            throw new MetadataOperationException(
+                    MetadataOperationCode.INVALID_METADATA_CHANGE,
+                    "operations must not be empty", false); //$NON-NLS-1$
+        }
+        if (operations.size() > MAX_OPERATIONS) {
+            throw new MetadataOperationException(
+                    MetadataOperationCode.INVALID_METADATA_CHANGE,
+                    "Too many batch operations: " + operations.size() + " (max " + MAX_OPERATIONS + ")", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                    false);
+        }
+        for (int i = 0; i < operations.size(); i++) {
+            MetadataBatchOperation operation = operations.get(i);
+            if (operation == null) {
+                throw new MetadataOperationException(
+                        MetadataOperationCode.INVALID_METADATA_CHANGE,
+                        "Batch operation #" + (i + 1) + " is empty", false); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            operation.validate();
+            if (!projectName.equals(operation.projectName())) {
+                throw new MetadataOperationException(
+                        MetadataOperationCode.INVALID_METADATA_CHANGE,
+                        "Batch operation #" + (i + 1) + " targets project " + operation.projectName() //$NON-NLS-1$ //$NON-NLS-2$
+                                + ", expected " + projectName, false); //$NON-NLS-1$
+            }
+        }
+    }
+}
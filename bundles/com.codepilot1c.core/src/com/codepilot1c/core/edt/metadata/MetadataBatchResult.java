@@ -0,0 +1,32 @@
+package com.codepilot1c.core.edt.metadata;
+
+import java.util.List;
+
+/**
+ * Result of a committed metadata batch: one entry per operation, in request order.
+ */
+public record MetadataBatchResult(
+        String projectName,
+        List<MetadataOperationResult> operations,
+        List<String> exportedObjects,
+        boolean derivedDataReady
+) {
+    public String formatForLlm() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("✅ Пакет операций с метаданными применён одной транзакцией.\n"); //$NON-NLS-1$
+        sb.append("Проект: ").append(projectName == null ? "" : projectName).append('\n'); //$NON-NLS-1$ //$NON-NLS-2$
+        sb.append("Операций: ").append(operations.size()).append('\n'); //$NON-NLS-1$
+        for (int i = 0; i < operations.size(); i++) {
+            MetadataOperationResult result = operations.get(i);
+            sb.append(i + 1).append(". ").append(result.kind()) //$NON-NLS-1$
+                    .append(' ').append(result.fqn())
+                    .append(" - ").append(result.message()).append('\n'); //$NON-NLS-1$
+        }
+        sb.append("Выгружено объектов: ").append(String.join(", ", exportedObjects)).append('\n'); //$NON-NLS-1$ //$NON-NLS-2$
+        if (!derivedDataReady) {
+            sb.append("Derived-data recomputation is still in progress, so the project may briefly report " //$NON-NLS-1$
+                    + "PROJECT_NOT_READY; re-run reads shortly. Do NOT re-apply this batch.\n"); //$NON-NLS-1$
+        }
+        return sb.toString();
+    }
+}
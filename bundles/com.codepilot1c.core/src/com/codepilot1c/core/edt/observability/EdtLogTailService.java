@@ -1,9 +1,11 @@
 package com.codepilot1c.core.edt.observability;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
@@ -12,11 +14,15 @@ import java.time.format.DateTimeParseException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
@@ -44,10 +50,40 @@ public class EdtLogTailService {
         }
     }
 
-    public record Result(Path workspaceRoot, List<Path> sources, List<EdtLogLine> lines) {
+    public record Result(Path workspaceRoot, List<Path> sources, List<EdtLogLine> lines, Cursor cursor) {
         public Result {
             sources = List.copyOf(sources == null ? List.of() : sources);
             lines = List.copyOf(lines == null ? List.of() : lines);
+            cursor = cursor == null ? Cursor.empty() : cursor;
+        }
+
+        public Result(Path workspaceRoot, List<Path> sources, List<EdtLogLine> lines) {
+            this(workspaceRoot, sources, lines, Cursor.empty());
+        }
+    }
+
+    /**
+     * Read position of one source: the end of its last complete line. {@code fileId} detects a
+     * log that was rotated or recreated under the same name.
+     */
+    public record Position(String fileId, long offset) {
+        public Position {
+            fileId = normalize(fileId);
+            offset = Math.max(0L, offset);
+        }
+    }
+
+    /**
+     * Per-source positions returned by every tail; pass it to {@link #follow} to read only lines
+     * appended since.
+     */
+    public record Cursor(Map<Path, Position> positions) {
+        public Cursor {
+            positions = Map.copyOf(positions == null ? Map.of() : positions);
+        }
+
+        public static Cursor empty() {
+            return new Cursor(Map.of());
         }
     }
 
@@ -63,9 +99,13 @@ public class EdtLogTailService {
             Pattern.compile("^\\s*\\[(ERROR|WARN|INFO|DEBUG|TRACE)\\]\\s+.*$", Pattern.CASE_INSENSITIVE); //$NON-NLS-1$
     private static final DateTimeFormatter EDT_TIMESTAMP =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS", Locale.ROOT); //$NON-NLS-1$
+    /** Lines read past {@code maxLines} while looking for the entry header of the earliest lines. */
+    private static final int HEADER_LOOKBACK_LINES = 256;
+    private static final int MAX_LINE_CHECKPOINTS = 1_024;
 
     private final Path workspaceRoot;
     private final List<Path> extraSources;
+    private final Map<Path, LineCheckpoint> lineCheckpoints = new ConcurrentHashMap<>();
 
     public EdtLogTailService() {
         this(resolveWorkspaceRoot(), List.of());
@@ -80,7 +120,28 @@ public class EdtLogTailService {
         this.extraSources = List.copyOf(extraSources == null ? List.of() : extraSources);
     }
 
+    /**
+     * Returns the last {@code maxLines} matching lines of all sources, merged by timestamp.
+     *
+     * <p>Each file is read backwards from its end and only until enough matching lines are
+     * collected or an entry older than {@code since} is reached. Lines without a timestamp of
+     * their own (for example {@code !MESSAGE} after {@code !ENTRY}) are ordered by the entry they
+     * belong to; files without timestamps are ordered by modification time.</p>
+     */
     public Result tail(Request request) {
+        return tail(request, null, true);
+    }
+
+    /**
+     * Returns matching lines appended after {@code cursor}, at most {@code maxLines} of them. Sources
+     * missing from the cursor, or rotated since, are tailed as new. An unterminated last line is
+     * left for the next poll.
+     */
+    public Result follow(Request request, Cursor cursor) {
+        return tail(request, cursor == null ? Cursor.empty() : cursor, false);
+    }
+
+    private Result tail(Request request, Cursor cursor, boolean includePartialLine) {
         Request effective = request == null
                 ? new Request("", "", "", 0L, "", false, DEFAULT_MAX_LINES) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
                 : request;
@@ -89,24 +150,186 @@ public class EdtLogTailService {
             return new Result(null, List.of(), List.of());
         }
         Set<Path> sources = discoverSources(root);
-        ArrayDeque<EdtLogLine> tail = new ArrayDeque<>();
         Optional<Instant> since = parseSince(effective.since());
+        List<SourceTail> tails = new ArrayList<>();
+        Map<Path, Position> positions = new LinkedHashMap<>();
         for (Path source : sources) {
             if (!isAllowedSource(root, source) || !Files.isRegularFile(source)) {
                 continue;
             }
-            List<String> lines = readLines(source);
-            for (int i = 0; i < lines.size(); i++) {
-                EdtLogLine line = parseLine(root, source, i + 1, lines.get(i));
-                if (matches(line, effective, since)) {
-                    tail.addLast(line);
-                    while (tail.size() > effective.maxLines()) {
-                        tail.removeFirst();
+            Position previous = cursor == null ? null : cursor.positions().get(source);
+            try {
+                SourceTail sourceTail = tailSource(root, source, effective, since, previous, includePartialLine);
+                tails.add(sourceTail);
+                positions.put(source, sourceTail.position());
+            } catch (IOException e) {
+                // Unreadable or vanished source; callers still receive other sources.
+            }
+        }
+        return new Result(root, List.copyOf(sources), merge(tails, effective.maxLines()), new Cursor(positions));
+    }
+
+    private SourceTail tailSource(Path root, Path source, Request request, Optional<Instant> since,
+            Position previous, boolean includePartialLine) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        String fileId = fileId(attributes);
+        Instant modified = attributes.lastModifiedTime().toInstant();
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long floor = previous != null && previous.fileId().equals(fileId) && previous.offset() <= size
+                    ? previous.offset()
+                    : 0L;
+            long completeEnd = ReverseLogReader.completeLinesEnd(channel, floor, size);
+            Position position = new Position(fileId, completeEnd);
+            if (since.isPresent() && modified.isBefore(since.get())) {
+                return new SourceTail(List.of(), position);
+            }
+
+            SourceScan scan = new SourceScan(root, source, request, since);
+            long earliest = ReverseLogReader.readBackward(channel, floor,
+                    includePartialLine ? size : completeEnd, scan);
+            if (scan.collected.isEmpty()) {
+                return new SourceTail(List.of(), position);
+            }
+            long linesBefore = linesBefore(source, fileId, channel, earliest);
+            return new SourceTail(scan.toLines(linesBefore, modified), position);
+        }
+    }
+
+    /**
+     * Keeps the newest {@code maxLines} lines of all sources. Sources are consumed from their ends,
+     * so the order of lines within one file is always preserved.
+     */
+    private static List<EdtLogLine> merge(List<SourceTail> tails, int maxLines) {
+        int[] remaining = new int[tails.size()];
+        PriorityQueue<Integer> newest = new PriorityQueue<>((left, right) -> {
+            KeyedLine a = tails.get(left).lines().get(remaining[left] - 1);
+            KeyedLine b = tails.get(right).lines().get(remaining[right] - 1);
+            int byKey = b.key().compareTo(a.key());
+            return byKey != 0 ? byKey : Integer.compare(right, left);
+        });
+        for (int i = 0; i < tails.size(); i++) {
+            remaining[i] = tails.get(i).lines().size();
+            if (remaining[i] > 0) {
+                newest.add(i);
+            }
+        }
+        ArrayDeque<EdtLogLine> result = new ArrayDeque<>();
+        while (!newest.isEmpty() && result.size() < maxLines) {
+            int index = newest.poll();
+            result.addFirst(tails.get(index).lines().get(--remaining[index]).line());
+            if (remaining[index] > 0) {
+                newest.add(index);
+            }
+        }
+        return List.copyOf(result);
+    }
+
+    private long linesBefore(Path source, String fileId, FileChannel channel, long offset) throws IOException {
+        LineCheckpoint checkpoint = lineCheckpoints.get(source);
+        boolean reusable = checkpoint != null && checkpoint.fileId().equals(fileId) && checkpoint.offset() <= offset;
+        long lines = reusable ? checkpoint.lines() : 0L;
+        lines += ReverseLogReader.countNewlines(channel, reusable ? checkpoint.offset() : 0L, offset);
+        if (!reusable || checkpoint.offset() < offset) {
+            if (lineCheckpoints.size() >= MAX_LINE_CHECKPOINTS) {
+                lineCheckpoints.clear();
+            }
+            lineCheckpoints.put(source, new LineCheckpoint(fileId, offset, lines));
+        }
+        return lines;
+    }
+
+    private static String fileId(BasicFileAttributes attributes) {
+        Object key = attributes.fileKey();
+        return key != null ? key.toString() : String.valueOf(attributes.creationTime().toMillis());
+    }
+
+    /**
+     * Collects matching lines of one file while it is read backwards. Lines are kept newest first;
+     * {@code unresolvedFrom} marks those still waiting for the timestamp of their entry header.
+     */
+    private static final class SourceScan implements ReverseLogReader.LineVisitor {
+
+        private final Path root;
+        private final Path source;
+        private final Request request;
+        private final Optional<Instant> since;
+        private final List<KeyedLine> collected = new ArrayList<>();
+        private int processed;
+        private int unresolvedFrom;
+        private int lookback = -1;
+
+        SourceScan(Path root, Path source, Request request, Optional<Instant> since) {
+            this.root = root;
+            this.source = source;
+            this.request = request;
+            this.since = since;
+        }
+
+        @Override
+        public boolean visit(long start, String text) {
+            int fromEnd = processed++;
+            EdtLogLine line = parseLine(root, source, 0, text);
+            Instant stamp = parseLineInstant(line.timestamp()).orElse(null);
+            if (stamp != null && since.isPresent() && stamp.isBefore(since.get())) {
+                // Everything from here back is older; lines read since this header belong to it
+                collected.subList(unresolvedFrom, collected.size()).clear();
+                return false;
+            }
+            if (lookback < 0 && matches(line, request, since)) {
+                collected.add(new KeyedLine(fromEnd, line, null));
+            }
+            if (stamp != null) {
+                for (int i = unresolvedFrom; i < collected.size(); i++) {
+                    collected.set(i, collected.get(i).withKey(stamp));
+                }
+                unresolvedFrom = collected.size();
+                if (lookback >= 0) {
+                    return false;
+                }
+            }
+            if (lookback < 0) {
+                if (collected.size() >= request.maxLines()) {
+                    if (unresolvedFrom == collected.size()) {
+                        return false;
                     }
+                    lookback = HEADER_LOOKBACK_LINES;
                 }
+                return true;
             }
+            return --lookback > 0;
         }
-        return new Result(root, List.copyOf(sources), List.copyOf(tail));
+
+        /**
+         * Returns collected lines in file order with line numbers and merge keys. Lines whose header
+         * was not reached take the key of the next entry, or the file modification time.
+         */
+        List<KeyedLine> toLines(long linesBefore, Instant modified) {
+            Instant fallback = unresolvedFrom > 0 ? collected.get(unresolvedFrom - 1).key() : modified;
+            List<KeyedLine> lines = new ArrayList<>(collected.size());
+            for (int i = collected.size() - 1; i >= 0; i--) {
+                KeyedLine candidate = collected.get(i);
+                long number = linesBefore + processed - candidate.fromEnd();
+                EdtLogLine line = candidate.line();
+                lines.add(new KeyedLine(candidate.fromEnd(), new EdtLogLine(line.source(), line.path(),
+                        (int) Math.min(Integer.MAX_VALUE, number), line.text(), line.timestamp(), line.level(),
+                        line.opId(), line.pid(), line.infobase()),
+                        candidate.key() != null ? candidate.key() : fallback));
+            }
+            return lines;
+        }
+    }
+
+    private record KeyedLine(int fromEnd, EdtLogLine line, Instant key) {
+        KeyedLine withKey(Instant value) {
+            return new KeyedLine(fromEnd, line, value);
+        }
+    }
+
+    private record SourceTail(List<KeyedLine> lines, Position position) {
+    }
+
+    private record LineCheckpoint(String fileId, long offset, long lines) {
     }
 
     private Set<Path> discoverSources(Path root) {
@@ -147,14 +370,6 @@ public class EdtLogTailService {
         return name.endsWith(".log") || name.endsWith(".txt") || name.contains("log"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
     }
 
-    private static List<String> readLines(Path source) {
-        try {
-            return Files.readAllLines(source, StandardCharsets.UTF_8);
-        } catch (IOException e) {
-            return List.of();
-        }
-    }
-
     private static EdtLogLine parseLine(Path root, Path source, int lineNumber, String text) {
         String line = text == null ? "" : text; //$NON-NLS-1$
         String level = inferLevel(line);
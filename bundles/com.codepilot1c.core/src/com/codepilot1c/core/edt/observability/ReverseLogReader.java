@@ -0,0 +1,137 @@
+package com.codepilot1c.core.edt.observability;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads log lines from the end of a file towards its start in fixed-size blocks, so the cost of a
+ * tail depends on how many lines are needed rather than on the file size.
+ *
+ * <p>Lines are separated by {@code \n}; a trailing {@code \r} is dropped. Because {@code \n} never
+ * occurs inside a multi-byte UTF-8 sequence, blocks can be split on raw bytes and every line is
+ * decoded once. Lines longer than {@link #MAX_LINE_BYTES} keep only their beginning.</p>
+ */
+final class ReverseLogReader {
+
+    static final int BLOCK_SIZE = 64 * 1024;
+    static final int MAX_LINE_BYTES = 1024 * 1024;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    @FunctionalInterface
+    interface LineVisitor {
+
+        /**
+         * @param start file offset of the first byte of the line
+         * @param text decoded line without its terminator
+         * @return {@code false} to stop reading
+         */
+        boolean visit(long start, String text);
+    }
+
+    private ReverseLogReader() {
+    }
+
+    /**
+     * Visits the lines of {@code [floor, end)} from last to first. {@code floor} must be a line
+     * start; an unterminated segment before {@code end} counts as a line.
+     *
+     * @return start offset of the earliest visited line, or {@code end} if the range is empty
+     */
+    static long readBackward(FileChannel channel, long floor, long end, LineVisitor visitor) throws IOException {
+        long position = end;
+        long segmentEnd = end;
+        byte[] pending = EMPTY;
+        while (position > floor) {
+            int length = (int) Math.min(BLOCK_SIZE, position - floor);
+            position -= length;
+            byte[] buffer = new byte[length + pending.length];
+            readFully(channel, ByteBuffer.wrap(buffer, 0, length), position);
+            System.arraycopy(pending, 0, buffer, length, pending.length);
+
+            int lineEnd = buffer.length;
+            for (int i = length - 1; i >= 0; i--) {
+                if (buffer[i] != '\n') {
+                    continue;
+                }
+                long start = position + i + 1;
+                // The empty segment after a final newline is not a line
+                if ((segmentEnd != end || start != end) && !visitor.visit(start, decode(buffer, i + 1, lineEnd))) {
+                    return start;
+                }
+                segmentEnd = position + i;
+                lineEnd = i;
+            }
+            pending = lineEnd == buffer.length && lineEnd <= MAX_LINE_BYTES
+                    ? buffer
+                    : Arrays.copyOf(buffer, Math.min(lineEnd, MAX_LINE_BYTES));
+        }
+        if (floor < end) {
+            visitor.visit(floor, decode(pending, 0, pending.length));
+            return floor;
+        }
+        return end;
+    }
+
+    /**
+     * Returns the offset just after the last {@code \n} in {@code [floor, size)}, or {@code floor}
+     * when the range holds no complete line.
+     */
+    static long completeLinesEnd(FileChannel channel, long floor, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE);
+        long position = size;
+        while (position > floor) {
+            int length = (int) Math.min(BLOCK_SIZE, position - floor);
+            position -= length;
+            buffer.clear().limit(length);
+            readFully(channel, buffer, position);
+            for (int i = length - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+        }
+        return floor;
+    }
+
+    /**
+     * Counts {@code \n} bytes in {@code [from, to)}.
+     */
+    static long countNewlines(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE);
+        byte[] bytes = buffer.array();
+        long count = 0;
+        long position = from;
+        while (position < to) {
+            int length = (int) Math.min(BLOCK_SIZE, to - position);
+            buffer.clear().limit(length);
+            readFully(channel, buffer, position);
+            for (int i = 0; i < length; i++) {
+                if (bytes[i] == '\n') {
+                    count++;
+                }
+            }
+            position += length;
+        }
+        return count;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                throw new IOException("Log file shrank while reading"); //$NON-NLS-1$
+            }
+            offset += read;
+        }
+    }
+
+    private static String decode(byte[] bytes, int from, int to) {
+        int end = to > from && bytes[to - 1] == '\r' ? to - 1 : to;
+        return new String(bytes, from, end - from, StandardCharsets.UTF_8);
+    }
+}
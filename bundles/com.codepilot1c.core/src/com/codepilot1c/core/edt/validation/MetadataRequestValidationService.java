@@ -28,6 +28,8 @@ import com.codepilot1c.core.edt.metadata.CreateMetadataRequest;
 import com.codepilot1c.core.edt.metadata.DeleteMetadataRequest;
 import com.codepilot1c.core.edt.metadata.EdtMetadataGateway;
 import com.codepilot1c.core.edt.metadata.EnsureModuleArtifactRequest;
+import com.codepilot1c.core.edt.metadata.MetadataBatchOperation;
+import com.codepilot1c.core.edt.metadata.MetadataBatchRequest;
 import com.codepilot1c.core.edt.metadata.MetadataChildKind;
 import com.codepilot1c.core.edt.metadata.MetadataKind;
 import com.codepilot1c.core.edt.metadata.MetadataOperationCode;
@@ -905,6 +907,99 @@ public class MetadataRequestValidationService {
         return payload;
     }
 
+    /**
+     * Normalizes every step of a metadata batch with the normalizer of the matching single-operation
+     * tool, so a batch token certifies exactly what the separate tokens would have.
+     */
+    public Map<String, Object> normalizeMetadataBatchPayload(
+            String projectName,
+            List<Map<String, Object>> operations
+    ) {
+        if (projectName == null || projectName.isBlank()) {
+            throw new MetadataOperationException(
+                    MetadataOperationCode.PROJECT_NOT_FOUND,
+                    "projectName is required", false); //$NON-NLS-1$
+        }
+        if (operations == null || operations.isEmpty()) {
+            throw new MetadataOperationException(
+                    MetadataOperationCode.INVALID_METADATA_CHANGE,
+                    "operations must not be empty", false); //$NON-NLS-1$
+        }
+        if (operations.size() > MetadataBatchRequest.MAX_OPERATIONS) {
+            throw new MetadataOperationException(
+                    MetadataOperationCode.INVALID_METADATA_CHANGE,
+                    "Too many batch operations: " + operations.size() //$NON-NLS-1$
+                            + " (max " + MetadataBatchRequest.MAX_OPERATIONS + ")", false); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        List<Map<String, Object>> normalizedOperations = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            try {
+                normalizedOperations.add(normalizeMetadataBatchOperation(projectName, operations.get(i)));
+            } catch (MetadataOperationException e) {
+                throw new MetadataOperationException(
+                        e.getCode(),
+                        "Batch operation #" + (i + 1) + ": " + e.getMessage(), //$NON-NLS-1$ //$NON-NLS-2$
+                        e.isRecoverable(),
+                        e);
+            }
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("project", projectName); //$NON-NLS-1$
+        payload.put("operations", normalizedOperations); //$NON-NLS-1$
+        return payload;
+    }
+
+    private Map<String, Object> normalizeMetadataBatchOperation(String projectName, Map<String, Object> operation) {
+        MetadataBatchOperation.Type type = MetadataBatchOperation.Type.fromString(asString(operation.get("op"))); //$NON-NLS-1$
+        Map<String, Object> normalized = switch (type) {
+            case CREATE -> normalizeCreatePayload(
+                    projectName,
+                    asString(operation.get("kind")), //$NON-NLS-1$
+                    asString(operation.get("name")), //$NON-NLS-1$
+                    asOptionalString(operation.get("synonym")), //$NON-NLS-1$
+                    asOptionalString(operation.get("comment")), //$NON-NLS-1$
+                    asMap(operation.get("properties")), //$NON-NLS-1$
+                    asOptionalBoolean(operation.get("allow_auto_prefix"))); //$NON-NLS-1$
+            case ADD_CHILD -> {
+                String childKind = asString(operation.get("child_kind")); //$NON-NLS-1$
+                if (MetadataChildKind.fromString(childKind) == MetadataChildKind.FORM) {
+                    throw new MetadataOperationException(
+                            MetadataOperationCode.INVALID_METADATA_CHANGE,
+                            "FORM children cannot be created inside a metadata batch; use create_form", false); //$NON-NLS-1$
+                }
+                Map<String, Object> childProps = new LinkedHashMap<>(asMap(operation.get("properties"))); //$NON-NLS-1$
+                Object templateType = operation.get("template_type"); //$NON-NLS-1$
+                if (templateType != null && !childProps.containsKey("template_type")) { //$NON-NLS-1$
+                    childProps.put("template_type", templateType); //$NON-NLS-1$
+                }
+                yield normalizeAddChildPayload(
+                        projectName,
+                        asString(operation.get("parent_fqn")), //$NON-NLS-1$
+                        childKind,
+                        asString(operation.get("name")), //$NON-NLS-1$
+                        asOptionalString(operation.get("synonym")), //$NON-NLS-1$
+                        asOptionalString(operation.get("comment")), //$NON-NLS-1$
+                        childProps);
+            }
+            case UPDATE -> normalizeUpdatePayload(
+                    projectName,
+                    asString(operation.get("target_fqn")), //$NON-NLS-1$
+                    asMap(operation.get("changes"))); //$NON-NLS-1$
+            case UPDATE_FORM_MODEL -> normalizeUpdateFormModelPayload(
+                    projectName,
+                    asString(operation.get("form_fqn")), //$NON-NLS-1$
+                    asListOfMaps(operation.get("operations"))); //$NON-NLS-1$
+        };
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("op", type.getOp()); //$NON-NLS-1$
+        normalized.forEach((key, value) -> {
+            if (!"project".equals(key)) { //$NON-NLS-1$
+                result.put(key, value);
+            }
+        });
+        return result;
+    }
+
     public Map<String, Object> normalizeMutateRoleRightsPayload(
             String projectName,
             String role,
@@ -1382,6 +1477,14 @@ public class MetadataRequestValidationService {
                 checks.add("Операция mutate_form_model валидирована по обязательным полям."); //$NON-NLS-1$
                 yield payload;
             }
+            case APPLY_METADATA_BATCH -> {
+                Map<String, Object> payload = normalizeMetadataBatchPayload(
+                        coalesceProject(request.projectName(), request.payload()),
+                        asListOfMaps(request.payload().get("operations"))); //$NON-NLS-1$
+                checks.add("Операция apply_metadata_batch валидирована: каждая операция пакета проверена " //$NON-NLS-1$
+                        + "по правилам соответствующего инструмента."); //$NON-NLS-1$
+                yield payload;
+            }
             case MUTATE_ROLE_RIGHTS -> {
                 Map<String, Object> payload = normalizeMutateRoleRightsPayload(
                         coalesceProject(request.projectName(), request.payload()),
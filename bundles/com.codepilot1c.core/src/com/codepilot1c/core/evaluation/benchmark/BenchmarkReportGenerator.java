@@ -22,6 +22,7 @@ import com.codepilot1c.core.logging.VibeLogger;
  *   <li>Per-scenario comparison table: provider x metrics</li>
  *   <li>Detailed assertion results per run</li>
  *   <li>Token usage and timing comparison</li>
+ *   <li>Latency percentiles: time to first token, run time, and per-tool execution time</li>
  * </ul>
  */
 public class BenchmarkReportGenerator {
@@ -61,6 +62,7 @@ public class BenchmarkReportGenerator {
 
         appendHeader(sb, result);
         appendSummaryTable(sb, result);
+        appendToolLatencyTable(sb, result);
 
         for (BenchmarkComparison comparison : result.comparisons()) {
             appendScenarioSection(sb, comparison, result.providerIds());
@@ -85,10 +87,14 @@ public class BenchmarkReportGenerator {
         sb.append("<h2>Summary</h2>\n"); //$NON-NLS-1$
         sb.append("<table class=\"summary\">\n<thead><tr>"); //$NON-NLS-1$
         sb.append("<th>Provider</th><th>Pass Rate</th><th>Avg Tokens</th>"); //$NON-NLS-1$
+        sb.append("<th>TTFT p50 / p95 / p99</th><th>Tokens/s</th><th>Run Time p50 / p95 / p99</th>"); //$NON-NLS-1$
         sb.append("</tr></thead>\n<tbody>\n"); //$NON-NLS-1$
 
         Map<String, Double> passRates = result.passRateByProvider();
         Map<String, Double> avgTokens = result.avgTokensByProvider();
+        Map<String, LatencyStats> firstToken = result.firstTokenStatsByProvider();
+        Map<String, Double> tokensPerSecond = result.tokensPerSecondByProvider();
+        Map<String, LatencyStats> runTime = result.runTimeStatsByProvider();
 
         for (String pid : result.providerIds()) {
             double rate = passRates.getOrDefault(pid, 0.0);
@@ -100,6 +106,32 @@ public class BenchmarkReportGenerator {
             sb.append("<td class=\"").append(rateClass).append("\">"); //$NON-NLS-1$ //$NON-NLS-2$
             sb.append(String.format(Locale.ROOT, "%.0f%%", rate * 100)).append("</td>"); //$NON-NLS-1$ //$NON-NLS-2$
             sb.append("<td>").append(String.format(Locale.ROOT, "%.0f", tokens)).append("</td>"); //$NON-NLS-1$ //$NON-NLS-2$
+            sb.append("<td>").append(formatPercentiles(firstToken.get(pid))).append("</td>"); //$NON-NLS-1$ //$NON-NLS-2$
+            sb.append("<td>").append(formatRate(tokensPerSecond.getOrDefault(pid, 0.0))).append("</td>"); //$NON-NLS-1$ //$NON-NLS-2$
+            sb.append("<td>").append(formatPercentiles(runTime.get(pid))).append("</td>"); //$NON-NLS-1$ //$NON-NLS-2$
+            sb.append("</tr>\n"); //$NON-NLS-1$
+        }
+        sb.append("</tbody></table>\n"); //$NON-NLS-1$
+    }
+
+    private static void appendToolLatencyTable(StringBuilder sb, BenchmarkSuiteResult result) {
+        Map<String, LatencyStats> toolStats = result.toolLatencyStats();
+        if (toolStats.isEmpty()) {
+            return;
+        }
+        sb.append("<h2>Tool Latency</h2>\n"); //$NON-NLS-1$
+        sb.append("<table class=\"tool-latency\">\n<thead><tr>"); //$NON-NLS-1$
+        sb.append("<th>Tool</th><th>Calls</th><th>p50</th><th>p95</th><th>p99</th><th>Max</th>"); //$NON-NLS-1$
+        sb.append("</tr></thead>\n<tbody>\n"); //$NON-NLS-1$
+        for (Map.Entry<String, LatencyStats> entry : toolStats.entrySet()) {
+            LatencyStats stats = entry.getValue();
+            sb.append("<tr>"); //$NON-NLS-1$
+            sb.append("<td>").append(esc(entry.getKey())).append("</td>"); //$NON-NLS-1$ //$NON-NLS-2$
+            sb.append("<td>").append(stats.count()).append("</td>"); //$NON-NLS-1$ //$NON-NLS-2$
+            sb.append("<td>").append(formatTime(stats.p50Ms())).append("</td>"); //$NON-NLS-1$ //$NON-NLS-2$
+            sb.append("<td>").append(formatTime(stats.p95Ms())).append("</td>"); //$NON-NLS-1$ //$NON-NLS-2$
+            sb.append("<td>").append(formatTime(stats.p99Ms())).append("</td>"); //$NON-NLS-1$ //$NON-NLS-2$
+            sb.append("<td>").append(formatTime(stats.maxMs())).append("</td>"); //$NON-NLS-1$ //$NON-NLS-2$
             sb.append("</tr>\n"); //$NON-NLS-1$
         }
         sb.append("</tbody></table>\n"); //$NON-NLS-1$
@@ -118,6 +150,7 @@ public class BenchmarkReportGenerator {
         sb.append("<table class=\"comparison\">\n<thead><tr>"); //$NON-NLS-1$
         sb.append("<th>Provider</th><th>Result</th><th>Steps</th>"); //$NON-NLS-1$
         sb.append("<th>Tool Calls</th><th>Tokens</th><th>Time</th>"); //$NON-NLS-1$
+        sb.append("<th>TTFT</th><th>Tokens/s</th><th>Retries</th>"); //$NON-NLS-1$
         sb.append("<th>Failed Assertions</th>"); //$NON-NLS-1$
         sb.append("</tr></thead>\n<tbody>\n"); //$NON-NLS-1$
 
@@ -134,6 +167,10 @@ public class BenchmarkReportGenerator {
             sb.append("<td>").append(run.getTotalToolCalls()).append("</td>"); //$NON-NLS-1$ //$NON-NLS-2$
             sb.append("<td>").append(formatTokens(run.getTotalTokens())).append("</td>"); //$NON-NLS-1$ //$NON-NLS-2$
             sb.append("<td>").append(formatTime(run.getExecutionTimeMs())).append("</td>"); //$NON-NLS-1$ //$NON-NLS-2$
+            sb.append("<td>").append(run.getTimeToFirstTokenMs() >= 0 //$NON-NLS-1$
+                    ? formatTime(run.getTimeToFirstTokenMs()) : "-").append("</td>"); //$NON-NLS-1$ //$NON-NLS-2$
+            sb.append("<td>").append(formatRate(run.getTokensPerSecond())).append("</td>"); //$NON-NLS-1$ //$NON-NLS-2$
+            sb.append("<td>").append(run.getLlmRetries()).append("</td>"); //$NON-NLS-1$ //$NON-NLS-2$
 
             // Failed assertions detail
             sb.append("<td>"); //$NON-NLS-1$
@@ -231,6 +268,21 @@ public class BenchmarkReportGenerator {
         return ms + "ms"; //$NON-NLS-1$
     }
 
+    private static String formatPercentiles(LatencyStats stats) {
+        if (stats == null || stats.isEmpty()) {
+            return "-"; //$NON-NLS-1$
+        }
+        return formatTime(stats.p50Ms()) + " / " + formatTime(stats.p95Ms()) //$NON-NLS-1$
+                + " / " + formatTime(stats.p99Ms()); //$NON-NLS-1$
+    }
+
+    private static String formatRate(double tokensPerSecond) {
+        if (tokensPerSecond <= 0) {
+            return "-"; //$NON-NLS-1$
+        }
+        return String.format(Locale.ROOT, "%.1f", tokensPerSecond); //$NON-NLS-1$
+    }
+
     private static String esc(String text) {
         if (text == null) {
             return ""; //$NON-NLS-1$
@@ -1,15 +1,17 @@
 package com.codepilot1c.core.evaluation.benchmark;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Result of running a single {@link EvalScenario} against a single LLM provider.
  * <p>
- * Captures tool call sequence, token usage, timing, and assertion results.
+ * Captures tool call sequence, token usage, timing, LLM latency, and assertion results.
  */
 public class BenchmarkRun {
 
@@ -34,6 +36,13 @@ public class BenchmarkRun {
     private final long executionTimeMs;
     private final int agentSteps;
 
+    // LLM latency metrics
+    private final int llmRequests;
+    private final int llmRetries;
+    private final long rateLimitWaitMs;
+    private final long llmTimeMs;
+    private final List<Long> firstTokenLatenciesMs;
+
     // Result
     private final boolean success;
     private final String finalResponse;
@@ -62,6 +71,13 @@ public class BenchmarkRun {
         this.totalTokens = builder.totalTokens;
         this.executionTimeMs = builder.executionTimeMs;
         this.agentSteps = builder.agentSteps;
+        this.llmRequests = builder.llmRequests;
+        this.llmRetries = builder.llmRetries;
+        this.rateLimitWaitMs = builder.rateLimitWaitMs;
+        this.llmTimeMs = builder.llmTimeMs;
+        this.firstTokenLatenciesMs = builder.firstTokenLatenciesMs != null
+                ? Collections.unmodifiableList(builder.firstTokenLatenciesMs)
+                : Collections.emptyList();
         this.success = builder.success;
         this.finalResponse = builder.finalResponse;
         this.errorMessage = builder.errorMessage;
@@ -129,6 +145,55 @@ public class BenchmarkRun {
         return agentSteps;
     }
 
+    /**
+     * @return LLM requests sent during the run, including retries
+     */
+    public int getLlmRequests() {
+        return llmRequests;
+    }
+
+    /**
+     * @return LLM requests repeated after a 429 or 5xx response
+     */
+    public int getLlmRetries() {
+        return llmRetries;
+    }
+
+    /**
+     * @return time spent waiting for rate-limit permits
+     */
+    public long getRateLimitWaitMs() {
+        return rateLimitWaitMs;
+    }
+
+    /**
+     * @return time spent in LLM requests, excluding rate-limit waits and retry backoff
+     */
+    public long getLlmTimeMs() {
+        return llmTimeMs;
+    }
+
+    /**
+     * @return time to first token of every successful LLM request, in request order
+     */
+    public List<Long> getFirstTokenLatenciesMs() {
+        return firstTokenLatenciesMs;
+    }
+
+    /**
+     * @return time to first token of the first LLM request, or {@code -1} if unknown
+     */
+    public long getTimeToFirstTokenMs() {
+        return firstTokenLatenciesMs.isEmpty() ? -1 : firstTokenLatenciesMs.get(0);
+    }
+
+    /**
+     * @return completion tokens per second of LLM request time, or {@code 0} if unknown
+     */
+    public double getTokensPerSecond() {
+        return llmTimeMs > 0 ? completionTokens * 1000.0 / llmTimeMs : 0.0;
+    }
+
     public boolean isSuccess() {
         return success;
     }
@@ -172,6 +237,19 @@ public class BenchmarkRun {
                 .toList();
     }
 
+    /**
+     * @return execution time distribution per tool name, sorted by tool name
+     */
+    public Map<String, LatencyStats> getToolLatencyStats() {
+        Map<String, List<Long>> samples = new TreeMap<>();
+        for (ToolCallRecord tc : toolCalls) {
+            samples.computeIfAbsent(tc.toolName(), k -> new ArrayList<>()).add(tc.executionTimeMs());
+        }
+        Map<String, LatencyStats> stats = new LinkedHashMap<>();
+        samples.forEach((tool, values) -> stats.put(tool, LatencyStats.of(values)));
+        return stats;
+    }
+
     // -- Inner types --
 
     /**
@@ -212,6 +290,11 @@ public class BenchmarkRun {
         private int totalTokens;
         private long executionTimeMs;
         private int agentSteps;
+        private int llmRequests;
+        private int llmRetries;
+        private long rateLimitWaitMs;
+        private long llmTimeMs;
+        private List<Long> firstTokenLatenciesMs;
         private boolean success;
         private String finalResponse;
         private String errorMessage;
@@ -235,6 +318,11 @@ public class BenchmarkRun {
         public Builder totalTokens(int val) { this.totalTokens = val; return this; }
         public Builder executionTimeMs(long val) { this.executionTimeMs = val; return this; }
         public Builder agentSteps(int val) { this.agentSteps = val; return this; }
+        public Builder llmRequests(int val) { this.llmRequests = val; return this; }
+        public Builder llmRetries(int val) { this.llmRetries = val; return this; }
+        public Builder rateLimitWaitMs(long val) { this.rateLimitWaitMs = val; return this; }
+        public Builder llmTimeMs(long val) { this.llmTimeMs = val; return this; }
+        public Builder firstTokenLatenciesMs(List<Long> val) { this.firstTokenLatenciesMs = val; return this; }
         public Builder success(boolean val) { this.success = val; return this; }
         public Builder finalResponse(String val) { this.finalResponse = val; return this; }
         public Builder errorMessage(String val) { this.errorMessage = val; return this; }
@@ -0,0 +1,168 @@
+package com.codepilot1c.core.evaluation.benchmark;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for the agent runs of one benchmark suite.
+ * <p>
+ * Runs are queued in submission order and started as soon as the global and per-provider
+ * concurrency limits allow; a run blocked on its provider does not hold back runs for other
+ * providers. Exclusive runs (scenarios that mutate the workspace) never overlap each other but may
+ * run alongside read-only scenarios. Each provider also gets one {@link TokenBucket} that all its
+ * runs draw from per LLM request.
+ */
+public final class BenchmarkScheduler {
+
+    private final Limits limits;
+    private final ArrayDeque<Task<?>> queue = new ArrayDeque<>();
+    private final Map<String, Integer> runningByProvider = new HashMap<>();
+    private final Map<String, TokenBucket> rateLimiters = new ConcurrentHashMap<>();
+    private int running;
+    private boolean exclusiveRunning;
+
+    public BenchmarkScheduler(Limits limits) {
+        this.limits = limits;
+    }
+
+    public Limits limits() {
+        return limits;
+    }
+
+    /**
+     * Queues a run and starts it once the limits allow.
+     *
+     * @param providerId provider the run talks to
+     * @param exclusive whether the run must not overlap other exclusive runs
+     * @param run starts the run; invoked at most once, possibly on another run's completion thread
+     * @return future completing with the run's result
+     */
+    public <T> CompletableFuture<T> submit(String providerId, boolean exclusive,
+            Supplier<CompletableFuture<T>> run) {
+        Task<T> task = new Task<>(providerId, exclusive, run);
+        synchronized (this) {
+            queue.add(task);
+        }
+        dispatch();
+        return task.result;
+    }
+
+    /**
+     * Returns the rate limiter shared by all runs against the provider.
+     */
+    TokenBucket rateLimiter(String providerId) {
+        return rateLimiters.computeIfAbsent(providerId,
+                id -> new TokenBucket(limits.requestsPerMinute(), limits.burst()));
+    }
+
+    private void dispatch() {
+        List<Task<?>> ready = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Task<?>> iterator = queue.iterator();
+            while (iterator.hasNext() && running < limits.maxConcurrentRuns()) {
+                Task<?> task = iterator.next();
+                int providerRunning = runningByProvider.getOrDefault(task.providerId, 0);
+                if (providerRunning >= limits.maxConcurrentRunsPerProvider()
+                        || (task.exclusive && exclusiveRunning)) {
+                    continue;
+                }
+                iterator.remove();
+                running++;
+                runningByProvider.put(task.providerId, providerRunning + 1);
+                exclusiveRunning |= task.exclusive;
+                ready.add(task);
+            }
+        }
+        for (Task<?> task : ready) {
+            task.start().whenComplete((v, e) -> {
+                release(task);
+                dispatch();
+            });
+        }
+    }
+
+    private synchronized void release(Task<?> task) {
+        running--;
+        runningByProvider.merge(task.providerId, -1, Integer::sum);
+        if (task.exclusive) {
+            exclusiveRunning = false;
+        }
+    }
+
+    private static final class Task<T> {
+
+        final String providerId;
+        final boolean exclusive;
+        final Supplier<CompletableFuture<T>> run;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Task(String providerId, boolean exclusive, Supplier<CompletableFuture<T>> run) {
+            this.providerId = providerId;
+            this.exclusive = exclusive;
+            this.run = run;
+        }
+
+        CompletableFuture<T> start() {
+            CompletableFuture<T> started;
+            try {
+                started = run.get();
+            } catch (RuntimeException e) {
+                started = CompletableFuture.failedFuture(e);
+            }
+            started.whenComplete((value, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+            return started;
+        }
+    }
+
+    /**
+     * Concurrency, rate and retry limits of a benchmark suite.
+     *
+     * @param maxConcurrentRuns agent runs in flight across all providers
+     * @param maxConcurrentRunsPerProvider agent runs in flight against one provider
+     * @param requestsPerMinute sustained LLM requests per minute per provider; {@code 0} disables
+     *        rate limiting
+     * @param burst LLM requests a provider may receive back to back after an idle period
+     * @param maxRetries retries of one LLM request after a 429 or 5xx response
+     * @param initialBackoffMs backoff before the first retry, doubled for each further retry
+     * @param maxBackoffMs upper bound of one backoff; a longer {@code Retry-After} is not retried
+     */
+    public record Limits(int maxConcurrentRuns, int maxConcurrentRunsPerProvider, double requestsPerMinute,
+            int burst, int maxRetries, long initialBackoffMs, long maxBackoffMs) {
+
+        public Limits {
+            maxConcurrentRuns = Math.max(1, maxConcurrentRuns);
+            maxConcurrentRunsPerProvider = Math.max(1, maxConcurrentRunsPerProvider);
+            burst = Math.max(1, burst);
+            maxRetries = Math.max(0, maxRetries);
+            initialBackoffMs = Math.max(1, initialBackoffMs);
+            maxBackoffMs = Math.max(initialBackoffMs, maxBackoffMs);
+        }
+
+        /**
+         * Default limits, overridable with {@code codepilot1c.benchmark.*} system properties.
+         */
+        public static Limits defaults() {
+            return new Limits(
+                    Integer.getInteger("codepilot1c.benchmark.maxConcurrentRuns", 8), //$NON-NLS-1$
+                    Integer.getInteger("codepilot1c.benchmark.maxConcurrentRunsPerProvider", 2), //$NON-NLS-1$
+                    Integer.getInteger("codepilot1c.benchmark.requestsPerMinute", 60), //$NON-NLS-1$
+                    Integer.getInteger("codepilot1c.benchmark.burst", 4), //$NON-NLS-1$
+                    Integer.getInteger("codepilot1c.benchmark.maxRetries", 4), //$NON-NLS-1$
+                    Long.getLong("codepilot1c.benchmark.initialBackoffMs", 1_000L), //$NON-NLS-1$
+                    Long.getLong("codepilot1c.benchmark.maxBackoffMs", 60_000L)); //$NON-NLS-1$
+        }
+    }
+}
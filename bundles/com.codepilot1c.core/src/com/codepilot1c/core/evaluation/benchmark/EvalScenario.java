@@ -103,6 +103,16 @@ public class EvalScenario {
         return assertions;
     }
 
+    /**
+     * Whether running this scenario may change the workspace. Only scenarios that assert
+     * {@code max_mutating_calls: 0} are treated as read-only.
+     */
+    public boolean mutatesWorkspace() {
+        return assertions == null || assertions.getToolBehavior() == null
+                || assertions.getToolBehavior().getMaxMutatingCalls() == null
+                || assertions.getToolBehavior().getMaxMutatingCalls().intValue() > 0;
+    }
+
     // -- Inner model classes --
 
     public static class ExpectedToolPath {
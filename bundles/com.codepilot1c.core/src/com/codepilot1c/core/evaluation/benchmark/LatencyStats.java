@@ -0,0 +1,51 @@
+package com.codepilot1c.core.evaluation.benchmark;
+
+import java.util.Collection;
+
+/**
+ * Latency distribution of a set of samples in milliseconds.
+ * <p>
+ * Percentiles use the nearest-rank method, so every reported value is an observed sample.
+ *
+ * @param count number of samples
+ * @param meanMs arithmetic mean
+ * @param p50Ms median
+ * @param p95Ms 95th percentile
+ * @param p99Ms 99th percentile
+ * @param maxMs largest sample
+ */
+public record LatencyStats(int count, double meanMs, long p50Ms, long p95Ms, long p99Ms, long maxMs) {
+
+    /** Distribution of an empty sample set. */
+    public static final LatencyStats EMPTY = new LatencyStats(0, 0.0, 0, 0, 0, 0);
+
+    /**
+     * Computes the distribution of the given samples; negative samples are ignored.
+     */
+    public static LatencyStats of(Collection<Long> samplesMs) {
+        long[] sorted = samplesMs.stream()
+                .filter(v -> v != null && v >= 0)
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+        if (sorted.length == 0) {
+            return EMPTY;
+        }
+        double sum = 0;
+        for (long v : sorted) {
+            sum += v;
+        }
+        return new LatencyStats(sorted.length, sum / sorted.length,
+                percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+                sorted[sorted.length - 1]);
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
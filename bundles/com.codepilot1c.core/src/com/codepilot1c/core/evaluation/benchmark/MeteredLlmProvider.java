@@ -0,0 +1,367 @@
+package com.codepilot1c.core.evaluation.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import com.codepilot1c.core.logging.VibeLogger;
+import com.codepilot1c.core.model.LlmRequest;
+import com.codepilot1c.core.model.LlmResponse;
+import com.codepilot1c.core.model.LlmStreamChunk;
+import com.codepilot1c.core.provider.ILlmProvider;
+import com.codepilot1c.core.provider.LlmProviderException;
+import com.codepilot1c.core.provider.LlmRequestCancellation;
+import com.codepilot1c.core.provider.ProviderCapabilities;
+
+/**
+ * Decorates the provider of one benchmark run with rate limiting, retries and latency capture.
+ * <p>
+ * Every LLM request that reaches the provider first takes a permit from the provider's shared
+ * {@link TokenBucket}; requests answered locally, such as replays of recorded responses, skip it
+ * and are never retried. Requests
+ * failing with 429 or 5xx are retried with exponential backoff and jitter; retrying the request
+ * rather than the whole agent run keeps workspace mutations from being repeated. A streaming
+ * request is only retried while nothing has been forwarded to the agent yet.
+ * <p>
+ * Time to first token is measured from the moment the request is sent (after any rate-limit wait)
+ * to the first content, reasoning or tool-call chunk; for non-streaming requests it is the time to
+ * the complete response.
+ */
+class MeteredLlmProvider implements ILlmProvider {
+
+    private static final VibeLogger.CategoryLogger LOG = VibeLogger.forClass(MeteredLlmProvider.class);
+
+    private final ILlmProvider delegate;
+    private final TokenBucket rateLimiter;
+    private final BenchmarkScheduler.Limits limits;
+    private final Predicate<LlmRequest> servedLocally;
+
+    private final List<Long> firstTokenLatencies = new ArrayList<>();
+    private long llmTimeMs;
+    private long rateLimitWaitMs;
+    private int requests;
+    private int retries;
+    private int promptTokens;
+    private int completionTokens;
+    private int totalTokens;
+    private String model;
+
+    MeteredLlmProvider(ILlmProvider delegate, TokenBucket rateLimiter, BenchmarkScheduler.Limits limits) {
+        this(delegate, rateLimiter, limits, request -> false);
+    }
+
+    /**
+     * @param servedLocally tells which requests the delegate answers without contacting the provider
+     */
+    MeteredLlmProvider(ILlmProvider delegate, TokenBucket rateLimiter, BenchmarkScheduler.Limits limits,
+            Predicate<LlmRequest> servedLocally) {
+        this.delegate = delegate;
+        this.rateLimiter = rateLimiter;
+        this.limits = limits;
+        this.servedLocally = servedLocally;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public String getDisplayName() {
+        return delegate.getDisplayName();
+    }
+
+    @Override
+    public boolean isConfigured() {
+        return delegate.isConfigured();
+    }
+
+    @Override
+    public boolean supportsStreaming() {
+        return delegate.supportsStreaming();
+    }
+
+    @Override
+    public ProviderCapabilities getCapabilities() {
+        return delegate.getCapabilities();
+    }
+
+    @Override
+    public CompletableFuture<LlmResponse> complete(LlmRequest request) {
+        return complete(request, new LlmRequestCancellation());
+    }
+
+    @Override
+    public CompletableFuture<LlmResponse> complete(LlmRequest request, LlmRequestCancellation cancellation) {
+        if (servedLocally.test(request)) {
+            long sentAt = System.nanoTime();
+            return delegate.complete(request, cancellation).whenComplete((response, error) -> {
+                long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentAt);
+                recordRequest(error == null ? elapsedMs : -1, elapsedMs);
+                if (response != null) {
+                    recordResponse(response.getModel(), response.getUsage());
+                }
+            });
+        }
+        CompletableFuture<LlmResponse> result = new CompletableFuture<>();
+        cancellation.onCancel(() -> result.cancel(true));
+        attemptComplete(request, cancellation, result, 0);
+        return result;
+    }
+
+    private void attemptComplete(LlmRequest request, LlmRequestCancellation cancellation,
+            CompletableFuture<LlmResponse> result, int attempt) {
+        long waitNanos = rateLimiter.reserve();
+        addRateLimitWait(TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS))
+                .thenCompose(v -> {
+                    if (result.isDone()) {
+                        return CompletableFuture.<LlmResponse>failedFuture(new CancellationException());
+                    }
+                    long sentAt = System.nanoTime();
+                    return delegate.complete(request, cancellation).whenComplete((response, error) -> {
+                        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentAt);
+                        recordRequest(error == null ? elapsedMs : -1, elapsedMs);
+                        if (response != null) {
+                            recordResponse(response.getModel(), response.getUsage());
+                        }
+                    });
+                })
+                .whenComplete((response, error) -> {
+                    if (error == null) {
+                        result.complete(response);
+                        return;
+                    }
+                    long backoffMs = retryDelayMs(unwrap(error), attempt);
+                    if (backoffMs < 0 || result.isDone() || cancellation.isCancelled()) {
+                        result.completeExceptionally(unwrap(error));
+                        return;
+                    }
+                    onRetry(attempt, backoffMs, unwrap(error));
+                    CompletableFuture.delayedExecutor(backoffMs, TimeUnit.MILLISECONDS)
+                            .execute(() -> attemptComplete(request, cancellation, result, attempt + 1));
+                });
+    }
+
+    @Override
+    public void streamComplete(LlmRequest request, Consumer<LlmStreamChunk> consumer) {
+        streamComplete(request, consumer, new LlmRequestCancellation());
+    }
+
+    @Override
+    public void streamComplete(LlmRequest request, Consumer<LlmStreamChunk> consumer,
+            LlmRequestCancellation cancellation) {
+        if (servedLocally.test(request)) {
+            StreamAttempt stream = new StreamAttempt(consumer);
+            boolean succeeded = false;
+            try {
+                delegate.streamComplete(request, stream, cancellation);
+                succeeded = true;
+            } finally {
+                stream.finish(succeeded);
+                stream.releaseHeldError();
+            }
+            return;
+        }
+        for (int attempt = 0;; attempt++) {
+            try {
+                addRateLimitWait(rateLimiter.acquire());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for the rate limiter"); //$NON-NLS-1$
+            }
+            StreamAttempt stream = new StreamAttempt(consumer);
+            try {
+                delegate.streamComplete(request, stream, cancellation);
+            } catch (RuntimeException e) {
+                stream.finish(false);
+                long backoffMs = stream.forwarded ? -1 : retryDelayMs(e, attempt);
+                if (backoffMs < 0 || cancellation.isCancelled()) {
+                    stream.releaseHeldError();
+                    throw e;
+                }
+                onRetry(attempt, backoffMs, e);
+                sleep(backoffMs);
+                continue;
+            }
+            stream.finish(true);
+            stream.releaseHeldError();
+            return;
+        }
+    }
+
+    @Override
+    public void cancel() {
+        delegate.cancel();
+    }
+
+    @Override
+    public void dispose() {
+        // The delegate is owned by the provider registry and shared with other runs.
+    }
+
+    /**
+     * Returns the metrics collected so far.
+     */
+    synchronized Metrics metrics() {
+        return new Metrics(requests, retries, rateLimitWaitMs, llmTimeMs, List.copyOf(firstTokenLatencies),
+                promptTokens, completionTokens, totalTokens, model);
+    }
+
+    /**
+     * Returns the backoff before the next retry, or {@code -1} if the error must not be retried.
+     */
+    long retryDelayMs(Throwable error, int attempt) {
+        if (!(error instanceof LlmProviderException e) || attempt >= limits.maxRetries()
+                || e.isSpendWindowError() || e.isBudgetExhausted()
+                || !(e.isRateLimitError() || e.getStatusCode() >= 500)) {
+            return -1;
+        }
+        long ceiling = Math.min(limits.maxBackoffMs(), limits.initialBackoffMs() << Math.min(attempt, 20));
+        // Equal jitter: keeps at least half the backoff while de-synchronizing concurrent runs
+        long delay = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+        LlmProviderException.RateLimitDetails details = e.getRateLimitDetails();
+        if (details != null && details.retryAfterSeconds() > 0) {
+            long retryAfterMs = TimeUnit.SECONDS.toMillis(details.retryAfterSeconds());
+            if (retryAfterMs > limits.maxBackoffMs()) {
+                return -1;
+            }
+            delay = Math.max(delay, retryAfterMs);
+        }
+        return delay;
+    }
+
+    private void onRetry(int attempt, long backoffMs, Throwable error) {
+        synchronized (this) {
+            retries++;
+        }
+        LOG.info("  [%s] LLM request failed (%s), retry %d/%d in %dms", //$NON-NLS-1$
+                getId(), error.getMessage(), attempt + 1, limits.maxRetries(), backoffMs);
+    }
+
+    private synchronized void addRateLimitWait(long waitMs) {
+        rateLimitWaitMs += waitMs;
+    }
+
+    private synchronized void recordRequest(long firstTokenMs, long elapsedMs) {
+        requests++;
+        llmTimeMs += elapsedMs;
+        if (firstTokenMs >= 0) {
+            firstTokenLatencies.add(firstTokenMs);
+        }
+    }
+
+    private synchronized void recordResponse(String responseModel, LlmResponse.Usage usage) {
+        if (model == null && responseModel != null && !responseModel.isBlank()) {
+            model = responseModel;
+        }
+        if (usage != null) {
+            promptTokens += usage.getPromptTokens();
+            completionTokens += usage.getCompletionTokens();
+            totalTokens += usage.getTotalTokens();
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable current = error;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted during retry backoff"); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Forwards the chunks of one streaming attempt, holding back an error chunk until it is known
+     * whether the attempt will be retried.
+     */
+    private final class StreamAttempt implements Consumer<LlmStreamChunk> {
+
+        private final Consumer<LlmStreamChunk> consumer;
+        private final long sentAt = System.nanoTime();
+        private long firstTokenMs = -1;
+        private long completedMs = -1;
+        private LlmStreamChunk heldError;
+        private LlmResponse.Usage usage;
+        boolean forwarded;
+
+        StreamAttempt(Consumer<LlmStreamChunk> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void accept(LlmStreamChunk chunk) {
+            if (chunk == null) {
+                return;
+            }
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentAt);
+            if (chunk.getErrorMessage() != null && !forwarded) {
+                heldError = chunk;
+                return;
+            }
+            if (firstTokenMs < 0 && ((chunk.getContent() != null && !chunk.getContent().isEmpty())
+                    || chunk.hasReasoning()
+                    || chunk.hasToolCalls())) {
+                firstTokenMs = elapsedMs;
+            }
+            if (chunk.hasUsage()) {
+                usage = chunk.getUsage();
+            }
+            if (chunk.isComplete() && completedMs < 0) {
+                completedMs = elapsedMs;
+            }
+            forwarded = true;
+            consumer.accept(chunk);
+        }
+
+        void finish(boolean succeeded) {
+            long elapsedMs = completedMs >= 0 ? completedMs
+                    : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentAt);
+            recordRequest(succeeded ? firstTokenMs : -1, elapsedMs);
+            recordResponse(null, usage);
+        }
+
+        void releaseHeldError() {
+            if (heldError != null) {
+                LlmStreamChunk chunk = heldError;
+                heldError = null;
+                forwarded = true;
+                consumer.accept(chunk);
+            }
+        }
+    }
+
+    /**
+     * LLM-side metrics of one benchmark run.
+     *
+     * @param requests LLM requests sent, including retries
+     * @param retries requests repeated after a 429 or 5xx response
+     * @param rateLimitWaitMs time spent waiting for rate-limit permits
+     * @param llmTimeMs time spent in LLM requests, excluding rate-limit waits and backoff
+     * @param firstTokenLatenciesMs time to first token of every successful request
+     * @param promptTokens prompt tokens reported by the provider
+     * @param completionTokens completion tokens reported by the provider
+     * @param totalTokens total tokens reported by the provider
+     * @param model model reported by the provider, or {@code null}
+     */
+    record Metrics(int requests, int retries, long rateLimitWaitMs, long llmTimeMs,
+            List<Long> firstTokenLatenciesMs, int promptTokens, int completionTokens, int totalTokens,
+            String model) {
+    }
+}
@@ -8,19 +8,22 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import com.codepilot1c.core.agent.AgentConfig;
-import com.codepilot1c.core.agent.AgentResult;
 import com.codepilot1c.core.agent.AgentRunner;
 import com.codepilot1c.core.agent.events.AgentEvent;
 import com.codepilot1c.core.agent.events.IAgentEventListener;
 import com.codepilot1c.core.agent.events.ToolCallEvent;
 import com.codepilot1c.core.agent.events.ToolResultEvent;
 import com.codepilot1c.core.evaluation.benchmark.BenchmarkRun.ToolCallRecord;
+import com.codepilot1c.core.evaluation.trace.LlmResponseStore;
+import com.codepilot1c.core.evaluation.trace.RecordReplayLlmProvider;
 import com.codepilot1c.core.logging.VibeLogger;
 import com.codepilot1c.core.model.LlmMessage;
 import com.codepilot1c.core.model.LlmResponse;
@@ -44,6 +47,12 @@ import com.codepilot1c.core.tools.ToolRegistry;
  * BenchmarkSuiteResult result = future.join();
  * BenchmarkReportGenerator.generate(result, outputPath);
  * }</pre>
+ * <p>
+ * Runs are admitted through a {@link BenchmarkScheduler}: concurrency is bounded globally and per
+ * provider, scenarios that mutate the workspace never overlap each other, and every LLM request
+ * is rate limited and retried on 429/5xx by a {@link MeteredLlmProvider} that also records
+ * token usage and time to first token. With {@link #setResponseCache} the runs record or replay
+ * LLM responses, so unchanged suites can be re-run offline.
  */
 public class ModelBenchmarkRunner {
 
@@ -52,15 +61,45 @@ public class ModelBenchmarkRunner {
     private final ToolRegistry toolRegistry;
     private final LlmProviderRegistry providerRegistry;
     private final AssertionEvaluator assertionEvaluator;
+    private final BenchmarkScheduler.Limits limits;
+    private volatile ResponseCache responseCache;
 
     public ModelBenchmarkRunner() {
         this(ToolRegistry.getInstance(), LlmProviderRegistry.getInstance());
     }
 
     public ModelBenchmarkRunner(ToolRegistry toolRegistry, LlmProviderRegistry providerRegistry) {
+        this(toolRegistry, providerRegistry, BenchmarkScheduler.Limits.defaults());
+    }
+
+    public ModelBenchmarkRunner(ToolRegistry toolRegistry, LlmProviderRegistry providerRegistry,
+            BenchmarkScheduler.Limits limits) {
         this.toolRegistry = toolRegistry;
         this.providerRegistry = providerRegistry;
         this.assertionEvaluator = new AssertionEvaluator();
+        this.limits = limits;
+    }
+
+    /**
+     * Routes LLM requests of subsequent runs through a record/replay response cache.
+     * <p>
+     * With {@link RecordReplayLlmProvider.Mode#REPLAY_STRICT} runs never contact a provider, so
+     * they skip rate limiting and do not require the provider to be configured.
+     *
+     * @param store recorded responses; owned by the caller
+     * @param mode how recordings are used
+     * @param timing pace of replayed responses
+     */
+    public void setResponseCache(LlmResponseStore store, RecordReplayLlmProvider.Mode mode,
+            RecordReplayLlmProvider.Timing timing) {
+        this.responseCache = new ResponseCache(store, mode, timing);
+    }
+
+    /**
+     * Stops using the response cache.
+     */
+    public void clearResponseCache() {
+        this.responseCache = null;
     }
 
     // -- Suite-level execution --
@@ -78,12 +117,14 @@ public class ModelBenchmarkRunner {
             List<String> providerIds,
             AgentConfig baseConfig) {
 
-        LOG.info("Starting benchmark suite: %d scenarios x %d providers", //$NON-NLS-1$
-                scenarios.size(), providerIds.size());
+        LOG.info("Starting benchmark suite: %d scenarios x %d providers (max %d runs, %d per provider)", //$NON-NLS-1$
+                scenarios.size(), providerIds.size(),
+                limits.maxConcurrentRuns(), limits.maxConcurrentRunsPerProvider());
 
+        BenchmarkScheduler scheduler = new BenchmarkScheduler(limits);
         List<CompletableFuture<BenchmarkComparison>> futures = new ArrayList<>();
         for (EvalScenario scenario : scenarios) {
-            futures.add(runComparison(scenario, providerIds, baseConfig));
+            futures.add(runComparison(scenario, providerIds, baseConfig, scheduler));
         }
 
         return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
@@ -102,7 +143,7 @@ public class ModelBenchmarkRunner {
     // -- Scenario-level comparison --
 
     /**
-     * Run a single scenario against multiple providers in parallel.
+     * Run a single scenario against multiple providers in parallel, within the runner's limits.
      *
      * @param scenario the eval scenario
      * @param providerIds providers to benchmark
@@ -113,11 +154,21 @@ public class ModelBenchmarkRunner {
             EvalScenario scenario,
             List<String> providerIds,
             AgentConfig baseConfig) {
+        return runComparison(scenario, providerIds, baseConfig, new BenchmarkScheduler(limits));
+    }
+
+    private CompletableFuture<BenchmarkComparison> runComparison(
+            EvalScenario scenario,
+            List<String> providerIds,
+            AgentConfig baseConfig,
+            BenchmarkScheduler scheduler) {
 
-        LOG.info("Running scenario '%s' against %d providers", scenario.getId(), providerIds.size()); //$NON-NLS-1$
+        LOG.info("Queueing scenario '%s' against %d providers", scenario.getId(), providerIds.size()); //$NON-NLS-1$
 
+        boolean exclusive = scenario.mutatesWorkspace();
         List<CompletableFuture<BenchmarkRun>> futures = providerIds.stream()
-                .map(pid -> runSingle(scenario, pid, baseConfig))
+                .map(pid -> scheduler.submit(pid, exclusive,
+                        () -> runSingle(scenario, pid, baseConfig, scheduler)))
                 .toList();
 
         return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
@@ -147,8 +198,20 @@ public class ModelBenchmarkRunner {
             EvalScenario scenario,
             String providerId,
             AgentConfig baseConfig) {
+        return runSingle(scenario, providerId, baseConfig, new BenchmarkScheduler(limits));
+    }
 
-        ILlmProvider provider = providerRegistry.getProvider(providerId);
+    private CompletableFuture<BenchmarkRun> runSingle(
+            EvalScenario scenario,
+            String providerId,
+            AgentConfig baseConfig,
+            BenchmarkScheduler scheduler) {
+
+        ILlmProvider registered = providerRegistry.getProvider(providerId);
+        ResponseCache cache = responseCache;
+        ILlmProvider provider = registered != null && cache != null
+                ? new RecordReplayLlmProvider(registered, cache.store(), cache.mode(), cache.timing())
+                : registered;
         if (provider == null) {
             return CompletableFuture.completedFuture(
                     BenchmarkRun.builder()
@@ -177,8 +240,13 @@ public class ModelBenchmarkRunner {
         LOG.info("  [%s] Starting scenario '%s'", providerId, scenario.getId()); //$NON-NLS-1$
         Instant startedAt = Instant.now();
 
-        // Set up agent runner with event collection
-        AgentRunner runner = new AgentRunner(provider, toolRegistry);
+        // Set up agent runner with event collection and rate-limited, metered LLM access
+        boolean offline = cache != null && cache.mode() == RecordReplayLlmProvider.Mode.REPLAY_STRICT;
+        // Replayed responses never reach the provider, so they take no rate-limit permit
+        MeteredLlmProvider metered = new MeteredLlmProvider(provider,
+                offline ? TokenBucket.unlimited() : scheduler.rateLimiter(providerId), scheduler.limits(),
+                provider instanceof RecordReplayLlmProvider replay ? replay::hasRecording : request -> false);
+        AgentRunner runner = new AgentRunner(metered, toolRegistry);
         ToolCallCollector collector = new ToolCallCollector();
         runner.addListener(collector);
 
@@ -191,14 +259,25 @@ public class ModelBenchmarkRunner {
         return runner.run(scenario.getPrompt(), benchmarkConfig)
                 .handle((result, error) -> {
                     Instant completedAt = Instant.now();
+                    MeteredLlmProvider.Metrics metrics = metered.metrics();
 
                     BenchmarkRun.Builder builder = BenchmarkRun.builder()
                             .scenarioId(scenario.getId())
                             .providerId(providerId)
                             .providerDisplayName(provider.getDisplayName())
+                            .modelName(metrics.model())
                             .startedAt(startedAt)
                             .completedAt(completedAt)
-                            .toolCalls(collector.getToolCalls());
+                            .toolCalls(collector.getToolCalls())
+                            .promptTokens(metrics.promptTokens())
+                            .completionTokens(metrics.completionTokens())
+                            .totalTokens(metrics.totalTokens() > 0 ? metrics.totalTokens()
+                                    : metrics.promptTokens() + metrics.completionTokens())
+                            .llmRequests(metrics.requests())
+                            .llmRetries(metrics.retries())
+                            .rateLimitWaitMs(metrics.rateLimitWaitMs())
+                            .llmTimeMs(metrics.llmTimeMs())
+                            .firstTokenLatenciesMs(metrics.firstTokenLatenciesMs());
 
                     if (error != null) {
                         builder.success(false)
@@ -211,71 +290,29 @@ public class ModelBenchmarkRunner {
                                 .errorMessage(result.getErrorMessage())
                                 .agentSteps(result.getStepsExecuted())
                                 .executionTimeMs(result.getExecutionTimeMs());
-
-                        // Extract token usage from conversation history
-                        TokenAccumulator tokens = extractTokenUsage(result);
-                        builder.promptTokens(tokens.promptTokens)
-                                .completionTokens(tokens.completionTokens)
-                                .totalTokens(tokens.totalTokens);
                     }
 
-                    BenchmarkRun run = builder.build();
-
-                    // Evaluate assertions
+                    // Evaluate assertions against the run, then attach the results
                     List<AssertionResult> assertionResults =
-                            assertionEvaluator.evaluate(scenario, run);
-                    run = BenchmarkRun.builder()
-                            .scenarioId(run.getScenarioId())
-                            .providerId(run.getProviderId())
-                            .providerDisplayName(run.getProviderDisplayName())
-                            .modelName(run.getModelName())
-                            .startedAt(run.getStartedAt())
-                            .completedAt(run.getCompletedAt())
-                            .toolCalls(run.getToolCalls())
-                            .totalToolCalls(run.getTotalToolCalls())
-                            .toolCallCounts(new LinkedHashMap<>(run.getToolCallCounts()))
-                            .promptTokens(run.getPromptTokens())
-                            .completionTokens(run.getCompletionTokens())
-                            .totalTokens(run.getTotalTokens())
-                            .executionTimeMs(run.getExecutionTimeMs())
-                            .agentSteps(run.getAgentSteps())
-                            .success(run.isSuccess())
-                            .finalResponse(run.getFinalResponse())
-                            .errorMessage(run.getErrorMessage())
-                            .traceRunId(run.getTraceRunId())
-                            .assertionResults(assertionResults)
-                            .build();
-
-                    LOG.info("  [%s] Scenario '%s' completed: %s (tools=%d, tokens=%d, time=%dms)", //$NON-NLS-1$
+                            assertionEvaluator.evaluate(scenario, builder.build());
+                    BenchmarkRun run = builder.assertionResults(assertionResults).build();
+
+                    LOG.info("  [%s] Scenario '%s' completed: %s (tools=%d, tokens=%d, time=%dms, ttft=%dms, retries=%d)", //$NON-NLS-1$
                             providerId, scenario.getId(),
                             run.allAssertionsPassed() ? "PASS" : "FAIL", //$NON-NLS-1$ //$NON-NLS-2$
                             run.getTotalToolCalls(),
                             run.getTotalTokens(),
-                            run.getExecutionTimeMs());
+                            run.getExecutionTimeMs(),
+                            run.getTimeToFirstTokenMs(),
+                            run.getLlmRetries());
 
                     runner.dispose();
                     return run;
                 });
     }
 
-    // -- Token extraction --
-
-    private static TokenAccumulator extractTokenUsage(AgentResult result) {
-        TokenAccumulator acc = new TokenAccumulator();
-        if (result == null || result.getConversationHistory() == null) {
-            return acc;
-        }
-        // Token usage is tracked per LLM response in the trace session.
-        // For the benchmark, we estimate from conversation steps.
-        // The actual token counts come from TracingLlmProvider which writes to trace files.
-        // Here we use step count as proxy; real token data comes from trace JSONL.
-        return acc;
-    }
-
-    private static class TokenAccumulator {
-        int promptTokens;
-        int completionTokens;
-        int totalTokens;
+    private record ResponseCache(LlmResponseStore store, RecordReplayLlmProvider.Mode mode,
+            RecordReplayLlmProvider.Timing timing) {
     }
 
     // -- Event collector --
@@ -382,5 +419,74 @@ public class ModelBenchmarkRunner {
             }
             return avgs;
         }
+
+        /**
+         * Agent run duration distribution per provider.
+         */
+        public Map<String, LatencyStats> runTimeStatsByProvider() {
+            return statsByProvider(run -> List.of(run.getExecutionTimeMs()));
+        }
+
+        /**
+         * Time-to-first-token distribution per provider over all LLM requests.
+         */
+        public Map<String, LatencyStats> firstTokenStatsByProvider() {
+            return statsByProvider(BenchmarkRun::getFirstTokenLatenciesMs);
+        }
+
+        /**
+         * Completion tokens per second of LLM request time per provider.
+         */
+        public Map<String, Double> tokensPerSecondByProvider() {
+            Map<String, long[]> totals = new LinkedHashMap<>();
+            for (String pid : providerIds) {
+                totals.put(pid, new long[2]);
+            }
+            for (BenchmarkComparison comp : comparisons) {
+                for (BenchmarkRun run : comp.getRuns()) {
+                    long[] t = totals.computeIfAbsent(run.getProviderId(), k -> new long[2]);
+                    t[0] += run.getCompletionTokens();
+                    t[1] += run.getLlmTimeMs();
+                }
+            }
+            Map<String, Double> rates = new LinkedHashMap<>();
+            totals.forEach((pid, t) -> rates.put(pid, t[1] > 0 ? t[0] * 1000.0 / t[1] : 0.0));
+            return rates;
+        }
+
+        /**
+         * Tool execution time distribution per tool name across all runs, sorted by tool name.
+         */
+        public Map<String, LatencyStats> toolLatencyStats() {
+            Map<String, List<Long>> samples = new TreeMap<>();
+            for (BenchmarkComparison comp : comparisons) {
+                for (BenchmarkRun run : comp.getRuns()) {
+                    for (ToolCallRecord tc : run.getToolCalls()) {
+                        samples.computeIfAbsent(tc.toolName(), k -> new ArrayList<>())
+                                .add(tc.executionTimeMs());
+                    }
+                }
+            }
+            Map<String, LatencyStats> stats = new LinkedHashMap<>();
+            samples.forEach((tool, values) -> stats.put(tool, LatencyStats.of(values)));
+            return stats;
+        }
+
+        private Map<String, LatencyStats> statsByProvider(
+                Function<BenchmarkRun, List<Long>> samplesOf) {
+            Map<String, List<Long>> samples = new LinkedHashMap<>();
+            for (String pid : providerIds) {
+                samples.put(pid, new ArrayList<>());
+            }
+            for (BenchmarkComparison comp : comparisons) {
+                for (BenchmarkRun run : comp.getRuns()) {
+                    samples.computeIfAbsent(run.getProviderId(), k -> new ArrayList<>())
+                            .addAll(samplesOf.apply(run));
+                }
+            }
+            Map<String, LatencyStats> stats = new LinkedHashMap<>();
+            samples.forEach((pid, values) -> stats.put(pid, LatencyStats.of(values)));
+            return stats;
+        }
     }
 }
@@ -0,0 +1,72 @@
+package com.codepilot1c.core.evaluation.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token-bucket rate limiter shared by all benchmark runs against one provider.
+ * <p>
+ * Permits are reserved rather than polled: a caller that finds the bucket empty takes a permit
+ * on credit and is told how long to wait, so concurrent callers queue up in arrival order without
+ * spinning and the long-run rate never exceeds the configured one.
+ */
+final class TokenBucket {
+
+    private final double permitsPerNano;
+    private final double capacity;
+    private final LongSupplier nanoClock;
+    private double available;
+    private long refilledAt;
+
+    /**
+     * @param permitsPerMinute sustained request rate; {@code 0} or less disables limiting
+     * @param burst permits that may be taken back to back after an idle period
+     */
+    TokenBucket(double permitsPerMinute, int burst) {
+        this(permitsPerMinute, burst, System::nanoTime);
+    }
+
+    TokenBucket(double permitsPerMinute, int burst, LongSupplier nanoClock) {
+        this.permitsPerNano = permitsPerMinute / TimeUnit.MINUTES.toNanos(1);
+        this.capacity = Math.max(1, burst);
+        this.nanoClock = nanoClock;
+        this.available = capacity;
+        this.refilledAt = nanoClock.getAsLong();
+    }
+
+    /**
+     * Returns a bucket that never makes callers wait.
+     */
+    static TokenBucket unlimited() {
+        return new TokenBucket(0, 1);
+    }
+
+    /**
+     * Takes one permit and returns how long the caller must wait before using it.
+     *
+     * @return wait in nanoseconds, {@code 0} if the permit is available now
+     */
+    synchronized long reserve() {
+        if (permitsPerNano <= 0) {
+            return 0;
+        }
+        long now = nanoClock.getAsLong();
+        available = Math.min(capacity, available + (now - refilledAt) * permitsPerNano);
+        refilledAt = now;
+        available -= 1;
+        return available >= 0 ? 0 : (long) Math.ceil(-available / permitsPerNano);
+    }
+
+    /**
+     * Takes one permit, sleeping until it becomes available.
+     *
+     * @return time spent waiting in milliseconds
+     */
+    long acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos);
+    }
+}
@@ -4,7 +4,8 @@
  * Core workflow:
  * <ol>
  *   <li>Load eval scenarios from {@code evals/} JSON files via {@link EvalScenario}</li>
- *   <li>Run scenarios against multiple providers via {@link ModelBenchmarkRunner}</li>
+ *   <li>Run scenarios against multiple providers via {@link ModelBenchmarkRunner}, admitted by a
+ *       {@link BenchmarkScheduler} within concurrency, rate and retry limits</li>
  *   <li>Evaluate assertions via {@link AssertionEvaluator}</li>
  *   <li>Generate HTML comparison report via {@link BenchmarkReportGenerator}</li>
  * </ol>
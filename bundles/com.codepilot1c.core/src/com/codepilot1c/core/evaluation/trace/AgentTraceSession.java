@@ -13,8 +13,11 @@ import com.codepilot1c.core.provider.ILlmProvider;
 
 /**
  * Runtime context for a single trace run.
+ *
+ * <p>Events are written asynchronously by {@link TraceWriter}; {@link #markCompleted} and
+ * {@link #close()} flush them to disk.</p>
  */
-public class AgentTraceSession {
+public class AgentTraceSession implements AutoCloseable {
 
     public static final String PROP_TRACE_ENABLED = "codepilot1c.agent.trace.enabled"; //$NON-NLS-1$
 
@@ -157,6 +160,19 @@ public class AgentTraceSession {
         metadata.setStatus(status != null ? status : "COMPLETED"); //$NON-NLS-1$
         metadata.setCompletedAt(Instant.now());
         metadata.setErrorMessage(errorMessage);
+        long dropped = writer.getDroppedEventCount();
+        if (dropped > 0) {
+            metadata.putAttribute("trace_dropped_events", Long.valueOf(dropped)); //$NON-NLS-1$
+        }
         writer.writeRunMetadata(metadata);
+        close();
+    }
+
+    /**
+     * Flushes queued events and releases the trace files. Events written afterwards reopen them.
+     */
+    @Override
+    public void close() {
+        writer.close();
     }
 }
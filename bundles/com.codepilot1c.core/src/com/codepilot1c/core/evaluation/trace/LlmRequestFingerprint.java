@@ -0,0 +1,165 @@
+package com.codepilot1c.core.evaluation.trace;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.codepilot1c.core.model.LlmContentPart;
+import com.codepilot1c.core.model.LlmMessage;
+import com.codepilot1c.core.model.LlmRequest;
+import com.codepilot1c.core.model.ToolCall;
+import com.codepilot1c.core.model.ToolDefinition;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Content address of an LLM request, used as the key of recorded responses.
+ *
+ * <p>The hash covers the provider, model, tool choice, messages and tool surface. Everything else
+ * (sampling parameters, token limits, streaming) is deliberately left out so a recording can be
+ * replayed through either API. The request is normalized first: line endings are unified, JSON
+ * tool arguments and parameter schemas are re-serialized with sorted keys, tools are ordered by
+ * name, and tool call ids are replaced by their order of first appearance, since providers
+ * generate fresh ids on every run.</p>
+ */
+public final class LlmRequestFingerprint {
+
+    private static final Gson GSON = new Gson();
+
+    private LlmRequestFingerprint() {
+    }
+
+    /**
+     * Returns the hex SHA-256 of the normalized request.
+     *
+     * @param providerId provider the request is sent to
+     * @param request the request
+     * @return 64 lowercase hex characters
+     */
+    public static String of(String providerId, LlmRequest request) {
+        byte[] canonical = GSON.toJson(canonicalRequest(providerId, request)).getBytes(StandardCharsets.UTF_8);
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(canonical)); //$NON-NLS-1$
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Returns the normalized form that {@link #of(String, LlmRequest)} hashes.
+     */
+    public static JsonObject canonicalRequest(String providerId, LlmRequest request) {
+        Map<String, String> callIds = new HashMap<>();
+        JsonObject out = new JsonObject();
+        out.addProperty("provider", providerId); //$NON-NLS-1$
+        out.addProperty("model", request.getModel()); //$NON-NLS-1$
+        out.addProperty("tool_choice", request.getToolChoice() != null ? request.getToolChoice().name() : null); //$NON-NLS-1$
+
+        JsonArray messages = new JsonArray();
+        for (LlmMessage message : request.getMessages()) {
+            JsonObject item = new JsonObject();
+            item.addProperty("role", message.getRole().getValue()); //$NON-NLS-1$
+            item.addProperty("content", text(message.getContent())); //$NON-NLS-1$
+            if (message.hasContentParts()) {
+                JsonArray parts = new JsonArray();
+                for (LlmContentPart part : message.getContentParts()) {
+                    JsonObject partJson = new JsonObject();
+                    partJson.addProperty("type", part.getType().name()); //$NON-NLS-1$
+                    partJson.addProperty("text", text(part.getText())); //$NON-NLS-1$
+                    if (part.getAttachment() != null) {
+                        // Attachments are addressed by content; ids and cache paths change per run
+                        partJson.addProperty("mime", part.getAttachment().getMimeType()); //$NON-NLS-1$
+                        partJson.addProperty("sha256", part.getAttachment().getSha256()); //$NON-NLS-1$
+                    }
+                    parts.add(partJson);
+                }
+                item.add("parts", parts); //$NON-NLS-1$
+            }
+            if (message.getToolCallId() != null) {
+                item.addProperty("tool_call_id", callId(callIds, message.getToolCallId())); //$NON-NLS-1$
+            }
+            if (message.hasToolCalls()) {
+                JsonArray calls = new JsonArray();
+                for (ToolCall call : message.getToolCalls()) {
+                    JsonObject callJson = new JsonObject();
+                    callJson.addProperty("id", callId(callIds, call.getId())); //$NON-NLS-1$
+                    callJson.addProperty("name", call.getName()); //$NON-NLS-1$
+                    callJson.add("arguments", json(call.getArguments())); //$NON-NLS-1$
+                    calls.add(callJson);
+                }
+                item.add("tool_calls", calls); //$NON-NLS-1$
+            }
+            messages.add(item);
+        }
+        out.add("messages", messages); //$NON-NLS-1$
+
+        JsonArray tools = new JsonArray();
+        if (request.hasTools()) {
+            List<ToolDefinition> sorted = new ArrayList<>(request.getTools());
+            sorted.sort(Comparator.comparing(ToolDefinition::getName, Comparator.nullsFirst(Comparator.naturalOrder())));
+            for (ToolDefinition tool : sorted) {
+                JsonObject item = new JsonObject();
+                item.addProperty("name", tool.getName()); //$NON-NLS-1$
+                item.addProperty("description", text(tool.getDescription())); //$NON-NLS-1$
+                item.add("parameters", json(tool.getParametersSchema())); //$NON-NLS-1$
+                tools.add(item);
+            }
+        }
+        out.add("tools", tools); //$NON-NLS-1$
+        return out;
+    }
+
+    private static String callId(Map<String, String> callIds, String id) {
+        if (id == null) {
+            return null;
+        }
+        return callIds.computeIfAbsent(id, k -> "call_" + (callIds.size() + 1)); //$NON-NLS-1$
+    }
+
+    private static String text(String value) {
+        return value != null ? value.replace("\r\n", "\n") : null; //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * Parses a JSON string into a tree with sorted keys; non-JSON text is kept as a string.
+     */
+    private static JsonElement json(String value) {
+        if (value == null || value.isBlank()) {
+            return JsonNull.INSTANCE;
+        }
+        try {
+            return sorted(JsonParser.parseString(value));
+        } catch (JsonParseException e) {
+            return new JsonPrimitive(text(value));
+        }
+    }
+
+    private static JsonElement sorted(JsonElement element) {
+        if (element.isJsonObject()) {
+            Map<String, JsonElement> members = new TreeMap<>();
+            element.getAsJsonObject().entrySet().forEach(e -> members.put(e.getKey(), sorted(e.getValue())));
+            JsonObject out = new JsonObject();
+            members.forEach(out::add);
+            return out;
+        }
+        if (element.isJsonArray()) {
+            JsonArray out = new JsonArray();
+            element.getAsJsonArray().forEach(e -> out.add(sorted(e)));
+            return out;
+        }
+        return element;
+    }
+}
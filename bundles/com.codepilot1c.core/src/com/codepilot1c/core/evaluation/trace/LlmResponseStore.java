@@ -0,0 +1,355 @@
+package com.codepilot1c.core.evaluation.trace;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.codepilot1c.core.logging.VibeLogger;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+/**
+ * Append-only, content-addressed store of recorded LLM responses.
+ *
+ * <p>Entries live in segment files {@code responses-NNNNN.seg} under one directory. A segment
+ * starts with an 8-byte magic and holds records of the form
+ * {@code key(32) | length(4) | crc32(4) | payload(length)}, where the key is the raw request
+ * fingerprint and the payload is the raw-deflated compact JSON of a {@link RecordedLlmResponse}.
+ * The directory is scanned once on open to build an in-memory index of key to record location;
+ * payloads are read back on demand. Re-recording a key appends a new record that shadows the old
+ * one. A new segment is started when the active one would grow past the size limit.</p>
+ *
+ * <p>A torn record at the end of the last segment (an interrupted write) is truncated on open;
+ * a damaged record anywhere else ends indexing of that segment and is reported in the log.</p>
+ */
+public final class LlmResponseStore implements AutoCloseable {
+
+    /** Size in bytes at which a new segment is started. */
+    public static final String PROP_SEGMENT_BYTES = "codepilot1c.agent.llmcache.segment.bytes"; //$NON-NLS-1$
+
+    private static final VibeLogger.CategoryLogger LOG = VibeLogger.forClass(LlmResponseStore.class);
+
+    private static final byte[] MAGIC = "CPLLMRC1".getBytes(StandardCharsets.US_ASCII); //$NON-NLS-1$
+    private static final int KEY_BYTES = 32;
+    private static final int RECORD_HEADER_BYTES = KEY_BYTES + 4 + 4;
+    private static final String SEGMENT_PREFIX = "responses-"; //$NON-NLS-1$
+    private static final String SEGMENT_SUFFIX = ".seg"; //$NON-NLS-1$
+    private static final Gson GSON = new Gson();
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final List<FileChannel> segments = new ArrayList<>();
+    private final Map<String, Location> index = new HashMap<>();
+    private long hits;
+    private long misses;
+    private long writes;
+
+    private LlmResponseStore(Path directory, long maxSegmentBytes) {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+
+    /**
+     * Opens the store in a directory, creating it if needed, with the segment size from
+     * {@link #PROP_SEGMENT_BYTES} (64 MiB by default).
+     */
+    public static LlmResponseStore open(Path directory) throws IOException {
+        return open(directory, Long.getLong(PROP_SEGMENT_BYTES, 64L * 1024 * 1024));
+    }
+
+    public static LlmResponseStore open(Path directory, long maxSegmentBytes) throws IOException {
+        Files.createDirectories(directory);
+        LlmResponseStore store = new LlmResponseStore(directory, maxSegmentBytes);
+        try {
+            store.load();
+        } catch (IOException | RuntimeException e) {
+            store.close();
+            throw e;
+        }
+        return store;
+    }
+
+    /**
+     * Returns the response recorded for a request fingerprint.
+     *
+     * @param key hex fingerprint from {@link LlmRequestFingerprint}
+     * @return the recorded response, or empty if none is stored or it cannot be read
+     */
+    public synchronized Optional<RecordedLlmResponse> get(String key) {
+        Location location = index.get(key);
+        if (location == null || segments.isEmpty()) {
+            misses++;
+            return Optional.empty();
+        }
+        try {
+            ByteBuffer payload = ByteBuffer.allocate(location.length());
+            FileChannel channel = segments.get(location.segment());
+            while (payload.hasRemaining()) {
+                if (channel.read(payload, location.offset() + payload.position()) < 0) {
+                    throw new IOException("Unexpected end of segment"); //$NON-NLS-1$
+                }
+            }
+            RecordedLlmResponse response = decode(payload.array());
+            hits++;
+            return Optional.of(response);
+        } catch (IOException | DataFormatException | RuntimeException e) {
+            LOG.warn("Failed to read recorded LLM response %s: %s", key, e.getMessage()); //$NON-NLS-1$
+            misses++;
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns whether a response is recorded for a request fingerprint, without reading it or
+     * counting a hit or miss.
+     *
+     * @param key hex fingerprint from {@link LlmRequestFingerprint}
+     */
+    public synchronized boolean contains(String key) {
+        return !segments.isEmpty() && index.containsKey(key);
+    }
+
+    /**
+     * Records the response of a request, replacing any earlier recording of the same fingerprint.
+     */
+    public synchronized void put(String key, RecordedLlmResponse response) throws IOException {
+        byte[] keyBytes = HexFormat.of().parseHex(key);
+        if (keyBytes.length != KEY_BYTES) {
+            throw new IllegalArgumentException("Fingerprint must be 32 bytes: " + key); //$NON-NLS-1$
+        }
+        if (segments.isEmpty()) {
+            throw new IOException("LLM response store is closed: " + directory); //$NON-NLS-1$
+        }
+        byte[] payload = encode(response);
+        FileChannel active = segments.get(segments.size() - 1);
+        long size = active.size();
+        if (size > MAGIC.length && size + RECORD_HEADER_BYTES + payload.length > maxSegmentBytes) {
+            active = createSegment(segments.size());
+            size = active.size();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + payload.length);
+        record.put(keyBytes).putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        long position = size;
+        while (record.hasRemaining()) {
+            position += active.write(record, position);
+        }
+        index.put(key, new Location(segments.size() - 1, size + RECORD_HEADER_BYTES, payload.length));
+        writes++;
+    }
+
+    /**
+     * Returns the number of fingerprints with a recorded response and the hit/miss counters.
+     */
+    public synchronized Stats stats() {
+        long bytes = 0;
+        for (FileChannel segment : segments) {
+            try {
+                bytes += segment.size();
+            } catch (IOException e) {
+                // Size is informational only
+            }
+        }
+        return new Stats(index.size(), segments.size(), bytes, hits, misses, writes);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        IOException failure = null;
+        for (FileChannel segment : segments) {
+            try {
+                if (segment.isOpen()) {
+                    segment.force(false);
+                    segment.close();
+                }
+            } catch (IOException e) {
+                failure = failure != null ? failure : e;
+            }
+        }
+        segments.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // -- Segment scanning --
+
+    private void load() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(p -> {
+                String name = p.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+        for (int i = 0; i < files.size(); i++) {
+            if (!files.get(i).equals(segmentPath(i))) {
+                throw new IOException("Unexpected segment sequence in " + directory + ": " + files.get(i)); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            boolean last = i == files.size() - 1;
+            FileChannel channel = FileChannel.open(files.get(i), last
+                    ? new StandardOpenOption[] { StandardOpenOption.READ, StandardOpenOption.WRITE }
+                    : new StandardOpenOption[] { StandardOpenOption.READ });
+            segments.add(channel);
+            scan(i, channel, last);
+        }
+        if (segments.isEmpty()) {
+            createSegment(0);
+        }
+    }
+
+    private void scan(int segment, FileChannel channel, boolean last) throws IOException {
+        long size = channel.size();
+        ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+        readFully(channel, magic, 0);
+        if (magic.hasRemaining() || !Arrays.equals(magic.array(), MAGIC)) {
+            throw new IOException("Not an LLM response segment: " + segmentPath(segment)); //$NON-NLS-1$
+        }
+        long position = MAGIC.length;
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        while (position < size) {
+            header.clear();
+            readFully(channel, header, position);
+            String damage = null;
+            int length = -1;
+            if (header.hasRemaining()) {
+                damage = "truncated record header"; //$NON-NLS-1$
+            } else {
+                header.flip();
+                byte[] key = new byte[KEY_BYTES];
+                header.get(key);
+                length = header.getInt();
+                int expectedCrc = header.getInt();
+                if (length < 0 || position + RECORD_HEADER_BYTES + length > size) {
+                    damage = "truncated record"; //$NON-NLS-1$
+                } else {
+                    ByteBuffer payload = ByteBuffer.allocate(length);
+                    readFully(channel, payload, position + RECORD_HEADER_BYTES);
+                    CRC32 crc = new CRC32();
+                    crc.update(payload.array());
+                    if ((int) crc.getValue() != expectedCrc) {
+                        damage = "checksum mismatch"; //$NON-NLS-1$
+                    } else {
+                        index.put(HexFormat.of().formatHex(key),
+                                new Location(segment, position + RECORD_HEADER_BYTES, length));
+                    }
+                }
+            }
+            if (damage != null) {
+                if (last) {
+                    LOG.warn("Truncating torn tail of %s at %d (%s)", segmentPath(segment), position, damage); //$NON-NLS-1$
+                    channel.truncate(position);
+                } else {
+                    LOG.warn("Ignoring damaged records of %s from %d (%s)", segmentPath(segment), position, damage); //$NON-NLS-1$
+                }
+                return;
+            }
+            position += RECORD_HEADER_BYTES + length;
+        }
+    }
+
+    private FileChannel createSegment(int segment) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer magic = ByteBuffer.wrap(MAGIC);
+        while (magic.hasRemaining()) {
+            channel.write(magic, magic.position());
+        }
+        segments.add(channel);
+        return channel;
+    }
+
+    private Path segmentPath(int segment) {
+        return directory.resolve(String.format("%s%05d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX)); //$NON-NLS-1$
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return;
+            }
+        }
+    }
+
+    // -- Payload encoding --
+
+    private static byte[] encode(RecordedLlmResponse response) {
+        byte[] json = GSON.toJson(response.toJson()).getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(json);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 3 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static RecordedLlmResponse decode(byte[] payload) throws DataFormatException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(payload);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated payload"); //$NON-NLS-1$
+                }
+                out.write(buffer, 0, n);
+            }
+            JsonObject json = GSON.fromJson(out.toString(StandardCharsets.UTF_8), JsonObject.class);
+            return RecordedLlmResponse.fromJson(json);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private record Location(int segment, long offset, int length) {
+    }
+
+    /**
+     * Store size and cumulative counters.
+     *
+     * @param entries fingerprints with a recorded response
+     * @param segments segment files
+     * @param bytes total size of the segment files
+     * @param hits lookups that returned a response
+     * @param misses lookups that found nothing or an unreadable record
+     * @param writes responses recorded since the store was opened
+     */
+    public record Stats(int entries, int segments, long bytes, long hits, long misses, long writes) {
+
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+}
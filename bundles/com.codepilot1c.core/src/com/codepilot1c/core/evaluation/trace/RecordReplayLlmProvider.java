@@ -0,0 +1,242 @@
+package com.codepilot1c.core.evaluation.trace;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.codepilot1c.core.logging.VibeLogger;
+import com.codepilot1c.core.model.LlmRequest;
+import com.codepilot1c.core.model.LlmResponse;
+import com.codepilot1c.core.model.LlmStreamChunk;
+import com.codepilot1c.core.provider.ILlmProvider;
+import com.codepilot1c.core.provider.LlmProviderException;
+import com.codepilot1c.core.provider.LlmRequestCancellation;
+import com.codepilot1c.core.provider.ProviderCapabilities;
+
+/**
+ * Decorates an LLM provider with a record/replay response cache.
+ *
+ * <p>Requests are addressed by {@link LlmRequestFingerprint}. Depending on the {@link Mode}, a
+ * recorded response is replayed without contacting the provider, or the provider is called and
+ * its successful response recorded in the {@link LlmResponseStore}. Replays reproduce the original
+ * chunk timing or run at full speed, see {@link Timing}. Failed, cancelled or errored responses
+ * are never recorded.</p>
+ */
+public class RecordReplayLlmProvider implements ILlmProvider {
+
+    private static final VibeLogger.CategoryLogger LOG = VibeLogger.forClass(RecordReplayLlmProvider.class);
+
+    /**
+     * How recorded responses are used.
+     */
+    public enum Mode {
+        /** Always call the provider and record its response, replacing earlier recordings. */
+        RECORD,
+        /** Only replay; a request without a recording fails without contacting the provider. */
+        REPLAY_STRICT,
+        /** Replay when a recording exists, otherwise call the provider and record the response. */
+        REPLAY_OR_RECORD;
+
+        /**
+         * Parses {@code record}, {@code replay-strict} or {@code replay-or-record}.
+         */
+        public static Mode parse(String value) {
+            return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Pace of replayed responses.
+     */
+    public enum Timing {
+        /** Deliver each chunk at its recorded offset from the request. */
+        ORIGINAL,
+        /** Deliver everything immediately. */
+        FULL_SPEED
+    }
+
+    private final ILlmProvider delegate;
+    private final LlmResponseStore store;
+    private final Mode mode;
+    private final Timing timing;
+
+    public RecordReplayLlmProvider(ILlmProvider delegate, LlmResponseStore store, Mode mode, Timing timing) {
+        this.delegate = delegate;
+        this.store = store;
+        this.mode = mode;
+        this.timing = timing;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public String getDisplayName() {
+        return delegate.getDisplayName();
+    }
+
+    @Override
+    public boolean isConfigured() {
+        return mode == Mode.REPLAY_STRICT || delegate.isConfigured();
+    }
+
+    @Override
+    public boolean supportsStreaming() {
+        return delegate.supportsStreaming();
+    }
+
+    @Override
+    public ProviderCapabilities getCapabilities() {
+        return delegate.getCapabilities();
+    }
+
+    @Override
+    public CompletableFuture<LlmResponse> complete(LlmRequest request) {
+        return complete(request, new LlmRequestCancellation());
+    }
+
+    @Override
+    public CompletableFuture<LlmResponse> complete(LlmRequest request, LlmRequestCancellation cancellation) {
+        String key = LlmRequestFingerprint.of(getId(), request);
+        Optional<RecordedLlmResponse> recorded = lookup(key);
+        if (recorded.isPresent()) {
+            LlmResponse response = recorded.get().toResponse();
+            if (timing == Timing.FULL_SPEED || recorded.get().getDurationMs() <= 0) {
+                return CompletableFuture.completedFuture(response);
+            }
+            CompletableFuture<LlmResponse> delayed = CompletableFuture.supplyAsync(() -> response,
+                    CompletableFuture.delayedExecutor(recorded.get().getDurationMs(), TimeUnit.MILLISECONDS));
+            cancellation.onCancel(() -> delayed.cancel(true));
+            return delayed;
+        }
+        if (mode == Mode.REPLAY_STRICT) {
+            return CompletableFuture.failedFuture(missing(key));
+        }
+        long sentAt = System.nanoTime();
+        return delegate.complete(request, cancellation).whenComplete((response, error) -> {
+            if (response != null && error == null && !cancellation.isCancelled()) {
+                record(key, RecordedLlmResponse.of(response,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentAt)));
+            }
+        });
+    }
+
+    @Override
+    public void streamComplete(LlmRequest request, Consumer<LlmStreamChunk> consumer) {
+        streamComplete(request, consumer, new LlmRequestCancellation());
+    }
+
+    @Override
+    public void streamComplete(LlmRequest request, Consumer<LlmStreamChunk> consumer,
+            LlmRequestCancellation cancellation) {
+        String key = LlmRequestFingerprint.of(getId(), request);
+        Optional<RecordedLlmResponse> recorded = lookup(key);
+        if (recorded.isPresent()) {
+            replay(recorded.get(), consumer, cancellation);
+            return;
+        }
+        if (mode == Mode.REPLAY_STRICT) {
+            LlmProviderException error = missing(key);
+            consumer.accept(LlmStreamChunk.error(error.getMessage()));
+            throw error;
+        }
+
+        long sentAt = System.nanoTime();
+        List<RecordedLlmResponse.Chunk> chunks = new ArrayList<>();
+        boolean[] failed = new boolean[1];
+        delegate.streamComplete(request, chunk -> {
+            if (chunk != null) {
+                if (chunk.getErrorMessage() != null) {
+                    failed[0] = true;
+                } else if (carriesData(chunk)) {
+                    chunks.add(new RecordedLlmResponse.Chunk(
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentAt),
+                            chunk.getContent(), chunk.hasReasoning() ? chunk.getReasoningContent() : null,
+                            chunk.getToolCalls(), chunk.getUsage(),
+                            chunk.isComplete() ? nonNull(chunk.getFinishReason()) : null));
+                }
+            }
+            consumer.accept(chunk);
+        }, cancellation);
+        boolean completed = chunks.stream().anyMatch(c -> c.finishReason() != null);
+        if (completed && !failed[0] && !cancellation.isCancelled()) {
+            record(key, new RecordedLlmResponse(null, null, chunks));
+        }
+    }
+
+    @Override
+    public void cancel() {
+        delegate.cancel();
+    }
+
+    @Override
+    public void dispose() {
+        // The delegate is owned by the provider registry and shared with other runs.
+    }
+
+    /**
+     * Returns whether a request will be answered from a recording without contacting the provider.
+     *
+     * @param request the request
+     * @return {@code true} if a recording exists and the mode replays it
+     */
+    public boolean hasRecording(LlmRequest request) {
+        return mode != Mode.RECORD && store.contains(LlmRequestFingerprint.of(getId(), request));
+    }
+
+    private Optional<RecordedLlmResponse> lookup(String key) {
+        return mode == Mode.RECORD ? Optional.empty() : store.get(key);
+    }
+
+    private void replay(RecordedLlmResponse recorded, Consumer<LlmStreamChunk> consumer,
+            LlmRequestCancellation cancellation) {
+        long startedAt = System.nanoTime();
+        for (RecordedLlmResponse.Chunk chunk : recorded.getChunks()) {
+            if (timing == Timing.ORIGINAL) {
+                long waitMs = chunk.offsetMs() - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+                if (waitMs > 0) {
+                    try {
+                        Thread.sleep(waitMs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new CancellationException("Interrupted while replaying a recorded response"); //$NON-NLS-1$
+                    }
+                }
+            }
+            if (cancellation.isCancelled()) {
+                return;
+            }
+            RecordedLlmResponse.emit(chunk, consumer);
+        }
+    }
+
+    private void record(String key, RecordedLlmResponse response) {
+        try {
+            store.put(key, response);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Failed to record LLM response %s: %s", key, e.getMessage()); //$NON-NLS-1$
+        }
+    }
+
+    private LlmProviderException missing(String key) {
+        return new LlmProviderException("No recorded LLM response for request " + key //$NON-NLS-1$
+                + " (provider " + getId() + ", mode " + mode + ")"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    private static boolean carriesData(LlmStreamChunk chunk) {
+        return (chunk.getContent() != null && !chunk.getContent().isEmpty()) || chunk.hasReasoning()
+                || chunk.hasToolCalls() || chunk.hasUsage() || chunk.isComplete();
+    }
+
+    private static String nonNull(String finishReason) {
+        return finishReason != null ? finishReason : LlmResponse.FINISH_REASON_STOP;
+    }
+}
@@ -0,0 +1,188 @@
+package com.codepilot1c.core.evaluation.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.codepilot1c.core.model.LlmResponse;
+import com.codepilot1c.core.model.LlmStreamChunk;
+import com.codepilot1c.core.model.ToolCall;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * An LLM response as recorded for replay: the chunks the provider produced, each with its offset
+ * from the moment the request was sent.
+ *
+ * <p>A response recorded through the non-streaming API is a single chunk at the response latency,
+ * so either kind of recording can be replayed through either API.</p>
+ */
+public final class RecordedLlmResponse {
+
+    private final String model;
+    private final String resolvedModel;
+    private final List<Chunk> chunks;
+
+    RecordedLlmResponse(String model, String resolvedModel, List<Chunk> chunks) {
+        this.model = model;
+        this.resolvedModel = resolvedModel;
+        this.chunks = List.copyOf(chunks);
+    }
+
+    /**
+     * Records a complete response.
+     *
+     * @param response the response
+     * @param latencyMs time from sending the request to receiving the response
+     */
+    public static RecordedLlmResponse of(LlmResponse response, long latencyMs) {
+        return new RecordedLlmResponse(response.getModel(), response.getResolvedModel(), List.of(new Chunk(
+                latencyMs, response.getContent(), response.getReasoningContent(), response.getToolCalls(),
+                response.getUsage(), response.getFinishReason() != null
+                        ? response.getFinishReason() : LlmResponse.FINISH_REASON_STOP)));
+    }
+
+    public List<Chunk> getChunks() {
+        return chunks;
+    }
+
+    /**
+     * @return offset of the last chunk, i.e. the recorded duration of the request
+     */
+    public long getDurationMs() {
+        return chunks.isEmpty() ? 0 : chunks.get(chunks.size() - 1).offsetMs();
+    }
+
+    /**
+     * Assembles the chunks into a complete response.
+     */
+    public LlmResponse toResponse() {
+        StringBuilder content = new StringBuilder();
+        StringBuilder reasoning = null;
+        List<ToolCall> toolCalls = new ArrayList<>();
+        LlmResponse.Usage usage = null;
+        String finishReason = null;
+        for (Chunk chunk : chunks) {
+            if (chunk.content() != null) {
+                content.append(chunk.content());
+            }
+            if (chunk.reasoning() != null) {
+                reasoning = reasoning == null ? new StringBuilder() : reasoning;
+                reasoning.append(chunk.reasoning());
+            }
+            toolCalls.addAll(chunk.toolCalls());
+            usage = chunk.usage() != null ? chunk.usage() : usage;
+            finishReason = chunk.finishReason() != null ? chunk.finishReason() : finishReason;
+        }
+        return LlmResponse.builder()
+                .content(content.toString())
+                .model(model)
+                .resolvedModel(resolvedModel)
+                .usage(usage)
+                .finishReason(finishReason)
+                .toolCalls(toolCalls)
+                .reasoningContent(reasoning != null ? reasoning.toString() : null)
+                .build();
+    }
+
+    /**
+     * Emits one chunk as the stream chunks a provider would have produced.
+     */
+    static void emit(Chunk chunk, Consumer<LlmStreamChunk> consumer) {
+        if (chunk.reasoning() != null) {
+            consumer.accept(LlmStreamChunk.reasoning(chunk.reasoning()));
+        }
+        if (chunk.content() != null && !chunk.content().isEmpty()) {
+            consumer.accept(LlmStreamChunk.content(chunk.content()));
+        }
+        if (!chunk.toolCalls().isEmpty()) {
+            consumer.accept(LlmStreamChunk.toolCalls(chunk.toolCalls()));
+        }
+        if (chunk.usage() != null) {
+            consumer.accept(LlmStreamChunk.usage(chunk.usage()));
+        }
+        if (chunk.finishReason() != null) {
+            consumer.accept(LlmStreamChunk.complete(chunk.finishReason()));
+        }
+    }
+
+    // -- Compact JSON form used by the segment store --
+
+    JsonObject toJson() {
+        JsonObject out = new JsonObject();
+        out.addProperty("m", model); //$NON-NLS-1$
+        out.addProperty("rm", resolvedModel); //$NON-NLS-1$
+        JsonArray items = new JsonArray();
+        for (Chunk chunk : chunks) {
+            JsonObject item = new JsonObject();
+            item.addProperty("t", chunk.offsetMs()); //$NON-NLS-1$
+            item.addProperty("c", chunk.content()); //$NON-NLS-1$
+            item.addProperty("r", chunk.reasoning()); //$NON-NLS-1$
+            if (!chunk.toolCalls().isEmpty()) {
+                JsonArray calls = new JsonArray();
+                for (ToolCall call : chunk.toolCalls()) {
+                    JsonArray callJson = new JsonArray();
+                    callJson.add(call.getId());
+                    callJson.add(call.getName());
+                    callJson.add(call.getArguments());
+                    calls.add(callJson);
+                }
+                item.add("tc", calls); //$NON-NLS-1$
+            }
+            if (chunk.usage() != null) {
+                JsonArray usage = new JsonArray();
+                usage.add(chunk.usage().getPromptTokens());
+                usage.add(chunk.usage().getCachedPromptTokens());
+                usage.add(chunk.usage().getCompletionTokens());
+                usage.add(chunk.usage().getTotalTokens());
+                item.add("u", usage); //$NON-NLS-1$
+            }
+            item.addProperty("f", chunk.finishReason()); //$NON-NLS-1$
+            items.add(item);
+        }
+        out.add("k", items); //$NON-NLS-1$
+        return out;
+    }
+
+    static RecordedLlmResponse fromJson(JsonObject json) {
+        List<Chunk> chunks = new ArrayList<>();
+        for (JsonElement element : json.getAsJsonArray("k")) { //$NON-NLS-1$
+            JsonObject item = element.getAsJsonObject();
+            List<ToolCall> toolCalls = new ArrayList<>();
+            if (item.has("tc")) { //$NON-NLS-1$
+                for (JsonElement call : item.getAsJsonArray("tc")) { //$NON-NLS-1$
+                    JsonArray callJson = call.getAsJsonArray();
+                    toolCalls.add(new ToolCall(string(callJson.get(0)), string(callJson.get(1)),
+                            string(callJson.get(2))));
+                }
+            }
+            LlmResponse.Usage usage = null;
+            if (item.has("u")) { //$NON-NLS-1$
+                JsonArray u = item.getAsJsonArray("u"); //$NON-NLS-1$
+                usage = new LlmResponse.Usage(u.get(0).getAsInt(), u.get(1).getAsInt(), u.get(2).getAsInt(),
+                        u.get(3).getAsInt());
+            }
+            chunks.add(new Chunk(item.get("t").getAsLong(), string(item.get("c")), string(item.get("r")), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                    toolCalls, usage, string(item.get("f")))); //$NON-NLS-1$
+        }
+        return new RecordedLlmResponse(string(json.get("m")), string(json.get("rm")), chunks); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    private static String string(JsonElement element) {
+        return element == null || element.isJsonNull() ? null : element.getAsString();
+    }
+
+    /**
+     * One recorded chunk; a non-null {@code finishReason} marks the end of the response.
+     *
+     * @param offsetMs time from sending the request to receiving this chunk
+     */
+    public record Chunk(long offsetMs, String content, String reasoning, List<ToolCall> toolCalls,
+            LlmResponse.Usage usage, String finishReason) {
+
+        public Chunk {
+            toolCalls = toolCalls != null ? List.copyOf(toolCalls) : List.of();
+        }
+    }
+}
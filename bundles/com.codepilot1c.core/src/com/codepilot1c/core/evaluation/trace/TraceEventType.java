@@ -14,6 +14,7 @@ public enum TraceEventType {
     LLM_STREAM_CHUNK,
     TOOL_CALL,
     TOOL_RESULT,
+    TOOL_BATCH,
     MCP_SESSION_CREATED,
     MCP_REQUEST,
     MCP_RESPONSE,
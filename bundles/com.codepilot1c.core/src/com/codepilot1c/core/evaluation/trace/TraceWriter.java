@@ -1,16 +1,29 @@
 package com.codepilot1c.core.evaluation.trace;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
 
 import com.codepilot1c.core.logging.LogSanitizer;
 import com.codepilot1c.core.logging.VibeLogger;
@@ -22,25 +35,81 @@ import com.google.gson.reflect.TypeToken;
 
 /**
  * Writes run metadata and JSONL events to the canonical trace layout.
+ *
+ * <p>Run metadata is written synchronously. Events are sanitized and serialized on the caller thread,
+ * then queued per stream (events/llm/tools/mcp) in a bounded queue; a single shared writer thread
+ * drains the queues of all open writers every flush interval, appends each batch through a
+ * {@link FileChannel} kept open for the life of the writer and forces it once per batch. A full
+ * queue drops the event and counts it in {@link #getDroppedEventCount()} instead of blocking the
+ * agent loop.</p>
+ *
+ * <p>When a stream file would grow past the size limit it is rotated to {@code <name>.<n>.jsonl}
+ * (optionally gzip-compressed), and a fresh file is started under the canonical name.</p>
+ *
+ * <p>{@link #flush()} makes everything queued so far visible on disk; {@link #close()} also closes
+ * the channels. A writer that has had nothing to write for the idle timeout is closed the same way
+ * by the writer thread, so sessions that are never completed do not keep file descriptors or stay
+ * in the set of active writers. Appending after either kind of close reopens the streams in append
+ * mode.</p>
  */
-public class TraceWriter {
+public class TraceWriter implements AutoCloseable {
+
+    /** Flush interval of the writer thread, in milliseconds. */
+    public static final String PROP_FLUSH_INTERVAL_MS = "codepilot1c.agent.trace.flush.ms"; //$NON-NLS-1$
+
+    /** Capacity of the queue of one stream; events beyond it are dropped. */
+    public static final String PROP_QUEUE_CAPACITY = "codepilot1c.agent.trace.queue.capacity"; //$NON-NLS-1$
+
+    /** Size in bytes at which a stream file is rotated; {@code 0} disables rotation. */
+    public static final String PROP_MAX_FILE_BYTES = "codepilot1c.agent.trace.rotate.bytes"; //$NON-NLS-1$
+
+    /** Whether rotated stream files are gzip-compressed. */
+    public static final String PROP_GZIP_ROTATED = "codepilot1c.agent.trace.rotate.gzip"; //$NON-NLS-1$
+
+    /** Time without new events after which the streams of a writer are closed, in milliseconds. */
+    public static final String PROP_IDLE_CLOSE_MS = "codepilot1c.agent.trace.idle.close.ms"; //$NON-NLS-1$
+
+    private static final long DEFAULT_IDLE_CLOSE_MS = 30_000L;
 
     private static final VibeLogger.CategoryLogger LOG = VibeLogger.forClass(TraceWriter.class);
 
     private static final OpenOption[] APPEND_OPTIONS = new OpenOption[] {
         StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE,
         StandardOpenOption.APPEND
     };
 
+    private static final Set<TraceWriter> ACTIVE = ConcurrentHashMap.newKeySet();
+    private static final Object THREAD_LOCK = new Object();
+    private static volatile Thread writerThread;
+
     private final ArtifactLayout layout;
+    private final Settings settings;
     private final Gson lineGson;
     private final Gson prettyGson;
     private final Object lock = new Object();
+    private final Stream events;
+    private final Stream llm;
+    private final Stream tools;
+    private final Stream mcp;
+    private final AtomicBoolean registered = new AtomicBoolean();
+    private final AtomicBoolean wakeRequested = new AtomicBoolean();
+    private volatile long nextDrainNanos;
+    private volatile long lastActivityNanos;
 
     public TraceWriter(ArtifactLayout layout) {
+        this(layout, Settings.fromSystemProperties());
+    }
+
+    public TraceWriter(ArtifactLayout layout, Settings settings) {
         this.layout = layout;
+        this.settings = settings;
         this.lineGson = createGson(false);
         this.prettyGson = createGson(true);
+        this.events = new Stream(layout.getEventsFile());
+        this.llm = new Stream(layout.getLlmFile());
+        this.tools = new Stream(layout.getToolsFile());
+        this.mcp = new Stream(layout.getMcpFile());
     }
 
     private Gson createGson(boolean pretty) {
@@ -58,51 +127,196 @@ public class TraceWriter {
         return layout;
     }
 
+    public Settings getSettings() {
+        return settings;
+    }
+
     public void writeRunMetadata(RunTraceMetadata metadata) {
         if (metadata == null) {
             return;
         }
-        writeJson(layout.getRunMetadataFile(), sanitizeValue(metadata), prettyGson, false);
+        Path path = layout.getRunMetadataFile();
+        String json = prettyGson.toJson(sanitizeValue(metadata));
+        synchronized (lock) {
+            try {
+                Files.createDirectories(path.getParent());
+                Files.writeString(path, json + System.lineSeparator(), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                LOG.error("Failed to write trace file %s", e, path); //$NON-NLS-1$
+            }
+        }
     }
 
     public void appendEvents(TraceEvent event) {
-        appendLine(layout.getEventsFile(), event);
+        appendLine(events, event);
     }
 
     public void appendLlm(TraceEvent event) {
-        appendLine(layout.getLlmFile(), event);
+        appendLine(llm, event);
     }
 
     public void appendTools(TraceEvent event) {
-        appendLine(layout.getToolsFile(), event);
+        appendLine(tools, event);
     }
 
     public void appendMcp(TraceEvent event) {
-        appendLine(layout.getMcpFile(), event);
+        appendLine(mcp, event);
+    }
+
+    /**
+     * Returns the number of events dropped because a stream queue was full.
+     */
+    public long getDroppedEventCount() {
+        return events.dropped.get() + llm.dropped.get() + tools.dropped.get() + mcp.dropped.get();
+    }
+
+    /**
+     * Writes and forces every event queued so far.
+     */
+    public void flush() {
+        drain();
+    }
+
+    /**
+     * Flushes the queues and closes the stream files.
+     */
+    @Override
+    public void close() {
+        release();
+        long dropped = getDroppedEventCount();
+        if (dropped > 0) {
+            LOG.warn("Trace %s dropped %d events on queue overflow", layout.getRunDirectory(), Long.valueOf(dropped)); //$NON-NLS-1$
+        }
     }
 
-    private void appendLine(Path path, TraceEvent event) {
+    /**
+     * Drains the queues, closes the channels and leaves the active set.
+     */
+    private void release() {
+        ACTIVE.remove(this);
+        registered.set(false);
+        synchronized (lock) {
+            drain();
+            for (Stream stream : streams()) {
+                stream.closeChannel();
+            }
+        }
+        // An append that raced with the release re-registers so the writer thread still picks it up
+        for (Stream stream : streams()) {
+            if (!stream.queue.isEmpty()) {
+                register();
+                break;
+            }
+        }
+    }
+
+    private boolean isIdle(long now) {
+        if (now - lastActivityNanos < settings.idleCloseNanos()) {
+            return false;
+        }
+        for (Stream stream : streams()) {
+            if (!stream.queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Flushes every open writer; used before reading trace files that may still be queued.
+     */
+    public static void flushAll() {
+        for (TraceWriter writer : ACTIVE) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Closes every open writer; called when the core plugin stops.
+     */
+    public static void closeAll() {
+        for (TraceWriter writer : ACTIVE) {
+            writer.close();
+        }
+    }
+
+    private void appendLine(Stream stream, TraceEvent event) {
         if (event == null) {
             return;
         }
-        writeJson(path, sanitizeValue(event), lineGson, true);
+        String line = lineGson.toJson(sanitizeValue(event)) + System.lineSeparator();
+        if (!stream.queue.offer(line)) {
+            if (stream.dropped.getAndIncrement() == 0) {
+                LOG.warn("Trace queue for %s is full, dropping events", stream.path); //$NON-NLS-1$
+            }
+            return;
+        }
+        register();
+        if (stream.queue.size() >= stream.highWaterMark && wakeRequested.compareAndSet(false, true)) {
+            LockSupport.unpark(writerThread);
+        }
     }
 
-    private void writeJson(Path path, Object payload, Gson gson, boolean append) {
+    private void register() {
+        if (registered.compareAndSet(false, true)) {
+            lastActivityNanos = System.nanoTime();
+            nextDrainNanos = lastActivityNanos + settings.flushIntervalNanos();
+            ACTIVE.add(this);
+            ensureWriterThread();
+        }
+    }
+
+    private void drain() {
         synchronized (lock) {
-            try {
-                Files.createDirectories(path.getParent());
-                String json = gson.toJson(payload);
-                if (append) {
-                    Files.writeString(path, json + System.lineSeparator(), StandardCharsets.UTF_8, APPEND_OPTIONS);
-                } else {
-                    Files.writeString(path, json + System.lineSeparator(), StandardCharsets.UTF_8,
-                            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
-                            StandardOpenOption.WRITE);
+            wakeRequested.set(false);
+            nextDrainNanos = System.nanoTime() + settings.flushIntervalNanos();
+            boolean wrote = false;
+            for (Stream stream : streams()) {
+                wrote |= stream.drain();
+            }
+            if (wrote) {
+                lastActivityNanos = System.nanoTime();
+            }
+        }
+    }
+
+    private Stream[] streams() {
+        return new Stream[] { events, llm, tools, mcp };
+    }
+
+    private static void ensureWriterThread() {
+        synchronized (THREAD_LOCK) {
+            if (writerThread == null) {
+                Thread thread = new Thread(TraceWriter::writerLoop, "codepilot1c-trace-writer"); //$NON-NLS-1$
+                thread.setDaemon(true);
+                writerThread = thread;
+                thread.start();
+            }
+        }
+    }
+
+    private static void writerLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            long now = System.nanoTime();
+            long sleepNanos = TimeUnit.SECONDS.toNanos(1);
+            for (TraceWriter writer : ACTIVE) {
+                if (writer.wakeRequested.get() || now - writer.nextDrainNanos >= 0) {
+                    try {
+                        writer.drain();
+                    } catch (RuntimeException e) {
+                        LOG.error("Trace writer failed for %s", e, writer.layout.getRunDirectory()); //$NON-NLS-1$
+                    }
                 }
-            } catch (IOException e) {
-                LOG.error("Failed to write trace file %s", e, path); //$NON-NLS-1$
+                if (writer.isIdle(System.nanoTime())) {
+                    LOG.debug("Closing idle trace streams of %s", writer.layout.getRunDirectory()); //$NON-NLS-1$
+                    writer.release();
+                    continue;
+                }
+                sleepNanos = Math.min(sleepNanos, Math.max(0L, writer.nextDrainNanos - System.nanoTime()));
             }
+            LockSupport.parkNanos(TraceWriter.class, Math.max(sleepNanos, TimeUnit.MILLISECONDS.toNanos(1)));
         }
     }
 
@@ -141,4 +355,142 @@ public class TraceWriter {
         }
         return value;
     }
+
+    /**
+     * Tuning of the asynchronous event pipeline.
+     *
+     * @param flushIntervalMillis how often the writer thread drains the queues
+     * @param queueCapacity events buffered per stream before new ones are dropped
+     * @param maxFileBytes size at which a stream file is rotated, {@code 0} to never rotate
+     * @param gzipRotated whether rotated files are gzip-compressed
+     * @param idleCloseMillis time without new events after which the streams are closed
+     */
+    public record Settings(long flushIntervalMillis, int queueCapacity, long maxFileBytes, boolean gzipRotated,
+            long idleCloseMillis) {
+
+        public Settings {
+            flushIntervalMillis = Math.max(1L, flushIntervalMillis);
+            queueCapacity = Math.max(1, queueCapacity);
+            maxFileBytes = Math.max(0L, maxFileBytes);
+            idleCloseMillis = Math.max(flushIntervalMillis, idleCloseMillis);
+        }
+
+        public Settings(long flushIntervalMillis, int queueCapacity, long maxFileBytes, boolean gzipRotated) {
+            this(flushIntervalMillis, queueCapacity, maxFileBytes, gzipRotated, DEFAULT_IDLE_CLOSE_MS);
+        }
+
+        public static Settings fromSystemProperties() {
+            return new Settings(
+                    Long.getLong(PROP_FLUSH_INTERVAL_MS, 200L).longValue(),
+                    Integer.getInteger(PROP_QUEUE_CAPACITY, 8192).intValue(),
+                    Long.getLong(PROP_MAX_FILE_BYTES, 64L * 1024 * 1024).longValue(),
+                    Boolean.getBoolean(PROP_GZIP_ROTATED),
+                    Long.getLong(PROP_IDLE_CLOSE_MS, DEFAULT_IDLE_CLOSE_MS).longValue());
+        }
+
+        long flushIntervalNanos() {
+            return TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        }
+
+        long idleCloseNanos() {
+            return TimeUnit.MILLISECONDS.toNanos(idleCloseMillis);
+        }
+    }
+
+    /**
+     * One JSONL stream: its queue and, on the draining thread, its open channel.
+     */
+    private final class Stream {
+
+        private final Path path;
+        private final ArrayBlockingQueue<String> queue;
+        private final int highWaterMark;
+        private final AtomicLong dropped = new AtomicLong();
+        private final List<String> batch = new ArrayList<>();
+        private FileChannel channel;
+        private long size;
+        private int nextRotation = 1;
+
+        Stream(Path path) {
+            this.path = path;
+            this.queue = new ArrayBlockingQueue<>(settings.queueCapacity());
+            this.highWaterMark = Math.max(1, settings.queueCapacity() * 3 / 4);
+        }
+
+        /** Called under the writer lock; returns whether anything was written. */
+        boolean drain() {
+            if (queue.drainTo(batch) == 0) {
+                return false;
+            }
+            try {
+                StringBuilder text = new StringBuilder();
+                for (String line : batch) {
+                    text.append(line);
+                }
+                byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+                if (channel == null) {
+                    open();
+                }
+                if (settings.maxFileBytes() > 0 && size > 0 && size + bytes.length > settings.maxFileBytes()) {
+                    rotate();
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                size += bytes.length;
+                channel.force(false);
+            } catch (IOException e) {
+                LOG.error("Failed to write trace file %s", e, path); //$NON-NLS-1$
+                closeChannel();
+            } finally {
+                batch.clear();
+            }
+            return true;
+        }
+
+        private void open() throws IOException {
+            Files.createDirectories(path.getParent());
+            channel = FileChannel.open(path, APPEND_OPTIONS);
+            size = channel.size();
+        }
+
+        private void rotate() throws IOException {
+            closeChannel();
+            while (Files.exists(rotatedPath(nextRotation, false)) || Files.exists(rotatedPath(nextRotation, true))) {
+                nextRotation++;
+            }
+            Path target = rotatedPath(nextRotation++, settings.gzipRotated());
+            if (settings.gzipRotated()) {
+                try (InputStream in = Files.newInputStream(path);
+                        OutputStream out = new GZIPOutputStream(Files.newOutputStream(target))) {
+                    in.transferTo(out);
+                }
+                Files.delete(path);
+            } else {
+                Files.move(path, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            open();
+        }
+
+        private Path rotatedPath(int index, boolean gzip) {
+            String name = path.getFileName().toString();
+            int dot = name.lastIndexOf('.');
+            String rotated = name.substring(0, dot) + '.' + index + name.substring(dot);
+            return path.resolveSibling(gzip ? rotated + ".gz" : rotated); //$NON-NLS-1$
+        }
+
+        void closeChannel() {
+            if (channel == null) {
+                return;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOG.warn("Failed to close trace file %s: %s", path, e.getMessage()); //$NON-NLS-1$
+            }
+            channel = null;
+            size = 0;
+        }
+    }
 }
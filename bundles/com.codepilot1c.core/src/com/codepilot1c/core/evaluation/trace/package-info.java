@@ -1,4 +1,9 @@
 /**
  * Structured trace infrastructure for agent evaluation runs.
+ *
+ * <p>JSONL events are buffered and written by a background thread; see {@link com.codepilot1c.core.evaluation.trace.TraceWriter}.</p>
+ *
+ * <p>LLM responses can be recorded and replayed by request fingerprint for deterministic, offline
+ * re-runs; see {@link com.codepilot1c.core.evaluation.trace.RecordReplayLlmProvider}.</p>
  */
 package com.codepilot1c.core.evaluation.trace;
@@ -0,0 +1,309 @@
+package com.codepilot1c.core.git;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+
+import com.codepilot1c.core.logging.VibeLogger;
+import com.google.gson.JsonObject;
+
+/**
+ * Shared cache of read-only {@link GitService#inspect} payloads.
+ *
+ * <p>An entry is valid while the repository fingerprint is unchanged: the contents of {@code HEAD}
+ * and of the ref it points to, the size and modification time of the index, packed refs, local
+ * branch refs and config, and a working-tree generation that is bumped by Eclipse resource deltas
+ * under the repository root. The fingerprint is read from the git directory without starting a
+ * process. Entries also expire after {@link #TTL_MS} to cover edits that Eclipse does not see, and
+ * every mutating operation clears the cache.</p>
+ *
+ * <p>Results are served only while delta tracking is active, that is between {@link #start()} and
+ * {@link #stop()}.</p>
+ */
+public final class GitResultCache implements IResourceChangeListener {
+
+    private static final VibeLogger.CategoryLogger LOG = VibeLogger.forClass(GitResultCache.class);
+
+    /** Maximum age of an entry in milliseconds. */
+    static final long TTL_MS = Long.getLong("codepilot1c.git.cacheTtlMs", 30_000L); //$NON-NLS-1$
+    private static final int MAX_ENTRIES = 64;
+
+    private static final GitResultCache INSTANCE = new GitResultCache();
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Path, AtomicLong> workTreeGenerations = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private volatile boolean tracking;
+
+    GitResultCache() {
+    }
+
+    /**
+     * Returns the process-wide cache.
+     *
+     * @return shared instance
+     */
+    public static GitResultCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts resource delta tracking and enables the cache.
+     */
+    public void start() {
+        ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+        tracking = true;
+    }
+
+    /**
+     * Stops delta tracking and drops all entries.
+     */
+    public void stop() {
+        tracking = false;
+        try {
+            ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+        } catch (IllegalStateException e) {
+            LOG.debug("Workspace already closed, skipping listener removal"); //$NON-NLS-1$
+        }
+        clear();
+    }
+
+    /**
+     * Enables or disables the cache without a workspace; working-tree changes must then be
+     * reported through {@link #markChanged(Path)}.
+     */
+    void setTracking(boolean value) {
+        tracking = value;
+    }
+
+    /**
+     * Reads the current fingerprint of a repository.
+     *
+     * @param repoRoot working tree root
+     * @return fingerprint, or {@code null} if the cache is disabled or the git directory cannot be read
+     */
+    Fingerprint fingerprint(Path repoRoot) {
+        if (!tracking || repoRoot == null) {
+            return null;
+        }
+        Path root = repoRoot.toAbsolutePath().normalize();
+        long generation = workTreeGenerations.computeIfAbsent(root, key -> new AtomicLong()).get();
+        try {
+            GitDirs dirs = GitDirs.resolve(root);
+            if (dirs == null) {
+                return null;
+            }
+            String head = Files.readString(dirs.gitDir().resolve("HEAD"), StandardCharsets.UTF_8).trim(); //$NON-NLS-1$
+            String headTarget = ""; //$NON-NLS-1$
+            if (head.startsWith("ref: ")) { //$NON-NLS-1$
+                Path ref = dirs.commonDir().resolve(head.substring(5).trim());
+                if (Files.isRegularFile(ref)) {
+                    headTarget = Files.readString(ref, StandardCharsets.UTF_8).trim();
+                }
+            }
+            return new Fingerprint(head, headTarget,
+                    stamp(dirs.gitDir().resolve("index")), //$NON-NLS-1$
+                    stamp(dirs.commonDir().resolve("packed-refs")), //$NON-NLS-1$
+                    stamp(dirs.commonDir().resolve("refs").resolve("heads")), //$NON-NLS-1$ //$NON-NLS-2$
+                    stamp(dirs.commonDir().resolve("config")), //$NON-NLS-1$
+                    generation);
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Cannot fingerprint git repository %s: %s", root, e.getMessage()); //$NON-NLS-1$
+            return null;
+        }
+    }
+
+    /**
+     * Returns a copy of the cached payload with the given operation id.
+     *
+     * @param key operation and arguments
+     * @param fingerprint current fingerprint, or {@code null} to bypass the cache
+     * @param opId id of the current operation
+     * @return cached payload, or {@code null} on a miss
+     */
+    JsonObject get(String key, Fingerprint fingerprint, String opId) {
+        if (fingerprint == null) {
+            return null;
+        }
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry == null || !entry.fingerprint.equals(fingerprint)
+                || System.currentTimeMillis() - entry.createdAt > TTL_MS) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        JsonObject copy = entry.payload.deepCopy();
+        copy.addProperty("op_id", opId); //$NON-NLS-1$
+        copy.addProperty("cached", true); //$NON-NLS-1$
+        return copy;
+    }
+
+    /**
+     * Stores a payload under the fingerprint taken before the command ran.
+     *
+     * <p>The working-tree generation comes from {@code before}, so a change reported while the
+     * command was running makes the entry stale; the file stamps are read again, because a status
+     * command may refresh the index itself.</p>
+     */
+    void put(String key, Fingerprint before, Path repoRoot, JsonObject payload) {
+        if (before == null) {
+            return;
+        }
+        Fingerprint after = fingerprint(repoRoot);
+        if (after == null || !after.head().equals(before.head()) || !after.headTarget().equals(before.headTarget())) {
+            return;
+        }
+        Entry entry = new Entry(after.withGeneration(before.workTreeGeneration()), payload.deepCopy(),
+                System.currentTimeMillis());
+        synchronized (entries) {
+            entries.put(key, entry);
+            if (entries.size() > MAX_ENTRIES) {
+                entries.remove(entries.keySet().iterator().next());
+            }
+        }
+    }
+
+    /**
+     * Drops every entry. Called after each mutating operation.
+     */
+    public void clear() {
+        synchronized (entries) {
+            if (!entries.isEmpty()) {
+                invalidations.incrementAndGet();
+            }
+            entries.clear();
+        }
+    }
+
+    /**
+     * Records a working-tree change at {@code location}.
+     */
+    void markChanged(Path location) {
+        for (Map.Entry<Path, AtomicLong> generation : workTreeGenerations.entrySet()) {
+            if (location.startsWith(generation.getKey())) {
+                generation.getValue().incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Returns hit, miss and invalidation counters.
+     */
+    public Stats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new Stats(size, hits.get(), misses.get(), invalidations.get());
+    }
+
+    @Override
+    public void resourceChanged(IResourceChangeEvent event) {
+        IResourceDelta delta = event.getDelta();
+        if (delta == null || workTreeGenerations.isEmpty()) {
+            return;
+        }
+        List<Path> changed = new ArrayList<>();
+        try {
+            delta.accept(child -> {
+                IResource resource = child.getResource();
+                if (resource.getType() != IResource.FILE) {
+                    return true;
+                }
+                if (child.getKind() != IResourceDelta.CHANGED
+                        || (child.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) != 0) {
+                    IPath location = resource.getLocation();
+                    if (location != null) {
+                        changed.add(location.toFile().toPath().toAbsolutePath().normalize());
+                    }
+                }
+                return false;
+            });
+        } catch (CoreException e) {
+            LOG.warn("Failed to process resource delta for git cache: %s", e.getMessage()); //$NON-NLS-1$
+            workTreeGenerations.values().forEach(AtomicLong::incrementAndGet);
+            return;
+        }
+        for (Path location : changed) {
+            markChanged(location);
+        }
+    }
+
+    private static String stamp(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return "-"; //$NON-NLS-1$
+        }
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return attributes.lastModifiedTime().toMillis() + ":" + attributes.size(); //$NON-NLS-1$
+    }
+
+    /**
+     * Repository state an entry was computed for.
+     */
+    record Fingerprint(String head, String headTarget, String index, String packedRefs, String heads,
+            String config, long workTreeGeneration) {
+
+        Fingerprint withGeneration(long generation) {
+            return new Fingerprint(head, headTarget, index, packedRefs, heads, config, generation);
+        }
+    }
+
+    /**
+     * Cache size and counters.
+     */
+    public record Stats(int entries, long hits, long misses, long invalidations) {
+    }
+
+    private record Entry(Fingerprint fingerprint, JsonObject payload, long createdAt) {
+    }
+
+    /**
+     * Git directory of a working tree and the common directory holding refs and config; they
+     * differ for linked worktrees.
+     */
+    private record GitDirs(Path gitDir, Path commonDir) {
+
+        static GitDirs resolve(Path root) throws IOException {
+            Path dotGit = root.resolve(".git"); //$NON-NLS-1$
+            Path gitDir;
+            if (Files.isDirectory(dotGit)) {
+                gitDir = dotGit;
+            } else if (Files.isRegularFile(dotGit)) {
+                String content = Files.readString(dotGit, StandardCharsets.UTF_8).trim();
+                if (!content.startsWith("gitdir:")) { //$NON-NLS-1$
+                    return null;
+                }
+                gitDir = root.resolve(content.substring("gitdir:".length()).trim()).normalize(); //$NON-NLS-1$
+            } else {
+                return null;
+            }
+            Path commonDir = gitDir;
+            Path commonFile = gitDir.resolve("commondir"); //$NON-NLS-1$
+            if (Files.isRegularFile(commonFile)) {
+                commonDir = gitDir.resolve(Files.readString(commonFile, StandardCharsets.UTF_8).trim()).normalize();
+            }
+            return new GitDirs(gitDir, commonDir);
+        }
+    }
+}
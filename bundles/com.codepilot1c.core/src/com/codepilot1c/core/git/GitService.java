@@ -4,11 +4,11 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
-import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IWorkspace;
@@ -18,6 +18,9 @@ import org.eclipse.jgit.lib.Repository;
 
 import com._1c.g5.v8.dt.common.git.GitUtils;
 import com.codepilot1c.core.logging.VibeLogger;
+import com.codepilot1c.core.process.ProcessOptions;
+import com.codepilot1c.core.process.ProcessOutcome;
+import com.codepilot1c.core.process.ProcessRunner;
 import com.codepilot1c.core.session.Session;
 import com.codepilot1c.core.session.SessionManager;
 import com.google.gson.JsonArray;
@@ -32,9 +35,12 @@ public class GitService {
     private static final int INSPECT_TIMEOUT_SECONDS = 30;
     private static final int MUTATE_TIMEOUT_SECONDS = 300;
     private static final int OUTPUT_TAIL_LIMIT = 4000;
+    private static final int STDOUT_CAPTURE_LIMIT = 16 * 1024 * 1024;
+    private static final int STDERR_CAPTURE_LIMIT = 256 * 1024;
     private final Supplier<Path> contextProjectPathResolver;
     private final Supplier<String> contextProjectNameResolver;
     private final GitContextResolver contextResolver;
+    private final GitResultCache resultCache;
 
     public GitService() {
         this(GitService::resolveDefaultContextProjectPath, GitService::resolveDefaultContextProjectName);
@@ -45,14 +51,27 @@ public class GitService {
     }
 
     public GitService(Supplier<Path> contextProjectPathResolver, Supplier<String> contextProjectNameResolver) {
+        this(contextProjectPathResolver, contextProjectNameResolver, GitResultCache.getInstance());
+    }
+
+    GitService(Supplier<Path> contextProjectPathResolver, Supplier<String> contextProjectNameResolver,
+            GitResultCache resultCache) {
         this.contextProjectPathResolver = contextProjectPathResolver;
         this.contextProjectNameResolver = contextProjectNameResolver;
         this.contextResolver = new GitContextResolver(this.contextProjectPathResolver, this.contextProjectNameResolver);
+        this.resultCache = resultCache;
     }
 
     public JsonObject inspect(String opId, GitOperation operation, Path repoPath, Map<String, Object> parameters) {
         GitContextResolution context = requireRepositoryContext(repoPath, asOptionalString(parameters.get("project_name"))); //$NON-NLS-1$
-        return switch (operation) {
+        String cacheKey = cacheKey(operation, context, parameters);
+        GitResultCache.Fingerprint fingerprint = resultCache.fingerprint(context.repoRoot());
+        JsonObject cached = resultCache.get(cacheKey, fingerprint, opId);
+        if (cached != null) {
+            LOG.debug("[%s] git %s served from cache", opId, operation); //$NON-NLS-1$
+            return cached;
+        }
+        JsonObject result = switch (operation) {
             case STATUS -> inspectStatus(opId, context);
             case BRANCH_LIST -> inspectBranches(opId, context);
             case REMOTE_LIST -> inspectRemotes(opId, context);
@@ -62,9 +81,20 @@ public class GitService {
             default -> throw new GitToolException(GitErrorCode.INVALID_ARGUMENT,
                     "Operation is not supported by git_inspect: " + operation); //$NON-NLS-1$
         };
+        resultCache.put(cacheKey, fingerprint, context.repoRoot(), result);
+        return result;
     }
 
     public JsonObject mutate(String opId, GitOperation operation, Path repoPath, Map<String, Object> parameters) {
+        try {
+            return runMutation(opId, operation, repoPath, parameters);
+        } finally {
+            // Even a failed mutation may have changed refs, index or working tree
+            resultCache.clear();
+        }
+    }
+
+    private JsonObject runMutation(String opId, GitOperation operation, Path repoPath, Map<String, Object> parameters) {
         return switch (operation) {
             case INIT -> mutateInit(opId, repoPath, asOptionalString(parameters.get("initial_branch"))); //$NON-NLS-1$
             case CLONE -> mutateClone(opId, repoPath, requireString(parameters.get("remote_url")), //$NON-NLS-1$
@@ -117,7 +147,7 @@ public class GitService {
         JsonObject json = basePayload(opId, GitOperation.BRANCH_LIST, context, output);
         JsonArray branches = new JsonArray();
         for (String line : splitLines(output.stdout())) {
-            if (line.isBlank()) {
+            if (line.isBlank() || ProcessOutcome.Output.truncatedBytes(line) >= 0) {
                 continue;
             }
             String[] parts = line.split("\t", -1); //$NON-NLS-1$
@@ -138,7 +168,7 @@ public class GitService {
         JsonObject json = basePayload(opId, GitOperation.REMOTE_LIST, context, output);
         JsonArray remotes = new JsonArray();
         for (String line : splitLines(output.stdout())) {
-            if (line.isBlank()) {
+            if (line.isBlank() || ProcessOutcome.Output.truncatedBytes(line) >= 0) {
                 continue;
             }
             String[] parts = line.trim().split("\\s+"); //$NON-NLS-1$
@@ -163,7 +193,7 @@ public class GitService {
         JsonObject json = basePayload(opId, GitOperation.LOG, context, output);
         JsonArray commits = new JsonArray();
         for (String line : splitLines(output.stdout())) {
-            if (line.isBlank()) {
+            if (line.isBlank() || ProcessOutcome.Output.truncatedBytes(line) >= 0) {
                 continue;
             }
             String[] parts = line.split("\t", 5); //$NON-NLS-1$
@@ -323,6 +353,21 @@ public class GitService {
         }
     }
 
+    private static String cacheKey(GitOperation operation, GitContextResolution context, Map<String, Object> parameters) {
+        StringBuilder key = new StringBuilder(operation.name())
+                .append('\n').append(safePath(context.repoRoot()))
+                .append('\n').append(safePath(context.projectPath()))
+                .append('\n').append(context.projectName() == null ? "" : context.projectName()) //$NON-NLS-1$
+                .append('\n').append(context.resolutionSource() == null ? "" : context.resolutionSource()); //$NON-NLS-1$
+        if (operation == GitOperation.LOG) {
+            key.append('\n').append(asPositiveInt(parameters.get("limit"), 20)); //$NON-NLS-1$
+        } else if (operation == GitOperation.DIFF_SUMMARY) {
+            key.append('\n').append(defaultString(parameters.get("base_ref"), "")) //$NON-NLS-1$ //$NON-NLS-2$
+                    .append('\n').append(defaultString(parameters.get("head_ref"), "")); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return key.toString();
+    }
+
     private CommandOutput runRepoCommand(String opId, GitContextResolution context, int timeoutSeconds, List<String> command) {
         return runCommand(opId, context.repoRoot(), timeoutSeconds, command);
     }
@@ -331,30 +376,34 @@ public class GitService {
         LOG.info("[%s] git command cwd=%s command=%s", opId, cwd, command); //$NON-NLS-1$
         ProcessBuilder builder = new ProcessBuilder(command);
         builder.directory(cwd == null ? null : cwd.toFile());
+        ProcessOutcome outcome;
         try {
-            Process process = builder.start();
-            boolean finished = process.waitFor(timeoutSeconds, TimeUnit.SECONDS);
-            if (!finished) {
-                process.destroyForcibly();
-                throw new GitToolException(GitErrorCode.TIMEOUT,
-                        "Git command timed out after " + timeoutSeconds + " seconds"); //$NON-NLS-1$ //$NON-NLS-2$
-            }
-            String stdout = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
-            String stderr = new String(process.getErrorStream().readAllBytes(), StandardCharsets.UTF_8);
-            CommandOutput output = new CommandOutput(command, process.exitValue(), stdout, stderr);
-            if (output.exitCode() != 0) {
-                throw classifyCommandFailure(output);
-            }
-            return output;
-        } catch (GitToolException e) {
-            throw e;
+            outcome = ProcessRunner.run(builder, ProcessOptions.builder()
+                    .timeout(Duration.ofSeconds(timeoutSeconds))
+                    .stdoutLimit(STDOUT_CAPTURE_LIMIT)
+                    .stderrLimit(STDERR_CAPTURE_LIMIT)
+                    .build());
         } catch (IOException e) {
             throw new GitToolException(GitErrorCode.GIT_EXECUTABLE_NOT_FOUND,
                     "Failed to start git executable: " + e.getMessage(), e); //$NON-NLS-1$
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new GitToolException(GitErrorCode.TIMEOUT, "Git command interrupted", e); //$NON-NLS-1$
         }
+        if (outcome.interrupted()) {
+            throw new GitToolException(GitErrorCode.TIMEOUT, "Git command interrupted"); //$NON-NLS-1$
+        }
+        if (outcome.timedOut()) {
+            throw new GitToolException(GitErrorCode.TIMEOUT,
+                    "Git command timed out after " + timeoutSeconds + " seconds"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        if (outcome.stdout().truncated()) {
+            LOG.warn("[%s] git stdout truncated to last %d of %d bytes", opId, STDOUT_CAPTURE_LIMIT, //$NON-NLS-1$
+                    outcome.stdout().bytes());
+        }
+        CommandOutput output = new CommandOutput(command, outcome.exitCode(), outcome.stdout().markedText(),
+                outcome.stderr().markedText(), outcome.durationMillis(), outcome.truncated());
+        if (output.exitCode() != 0) {
+            throw classifyCommandFailure(output);
+        }
+        return output;
     }
 
     private GitToolException classifyCommandFailure(CommandOutput output) {
@@ -519,6 +568,8 @@ public class GitService {
         json.add("command", command); //$NON-NLS-1$
         json.addProperty("stdout_tail", truncate(output.stdout())); //$NON-NLS-1$
         json.addProperty("stderr_tail", truncate(output.stderr())); //$NON-NLS-1$
+        json.addProperty("duration_ms", output.durationMs()); //$NON-NLS-1$
+        json.addProperty("output_truncated", output.truncated()); //$NON-NLS-1$
         return json;
     }
 
@@ -541,7 +592,21 @@ public class GitService {
         if (normalized.length() <= OUTPUT_TAIL_LIMIT) {
             return normalized;
         }
-        return normalized.substring(normalized.length() - OUTPUT_TAIL_LIMIT);
+        // Keep whole lines: start after the first line break inside the tail window
+        int cut = normalized.length() - OUTPUT_TAIL_LIMIT;
+        int newline = normalized.indexOf('\n', cut - 1);
+        if (newline >= 0 && newline < normalized.length() - 1) {
+            cut = newline + 1;
+        }
+        String head = normalized.substring(0, cut);
+        long dropped = head.getBytes(StandardCharsets.UTF_8).length;
+        int markerEnd = head.indexOf('\n');
+        long earlier = markerEnd >= 0 ? ProcessOutcome.Output.truncatedBytes(head.substring(0, markerEnd)) : -1L;
+        if (earlier >= 0) {
+            // The capture already replaced the start of the stream with a marker line
+            dropped += earlier - head.substring(0, markerEnd + 1).getBytes(StandardCharsets.UTF_8).length;
+        }
+        return ProcessOutcome.Output.truncationMarker(dropped) + '\n' + normalized.substring(cut);
     }
 
     private static String safePath(Path path) {
@@ -604,6 +669,7 @@ public class GitService {
         return result;
     }
 
-    private record CommandOutput(List<String> command, int exitCode, String stdout, String stderr) {
+    private record CommandOutput(List<String> command, int exitCode, String stdout, String stderr, long durationMs,
+            boolean truncated) {
     }
 }
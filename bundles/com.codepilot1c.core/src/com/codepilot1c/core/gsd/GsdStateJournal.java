@@ -0,0 +1,371 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.gsd;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Codec for {@code state.journal}, the append-only transition log layered over the
+ * {@code state.json} snapshot. Performs no I/O.
+ *
+ * <p>Every line is {@code <crc32 hex> <json>\n}. The first line is a header binding the journal
+ * to one snapshot by its {@link GsdConcurrencyToken} and the CRC-32 of the snapshot bytes. Each
+ * following line records one commit as a top-level diff between the JSON trees of consecutive
+ * states ({@code set}, {@code remove}, {@code patch} of changed array elements, {@code append}
+ * of new array elements) together with the token it starts from and the token it produces.</p>
+ *
+ * <p>A damaged final line is a torn append and is dropped. A damaged line followed by more data,
+ * a record that does not start from the previous token, or a record whose result does not carry
+ * its own token is corruption: only the records before it are trusted.</p>
+ */
+final class GsdStateJournal {
+
+    static final String TYPE_SNAPSHOT = "snapshot"; //$NON-NLS-1$
+    static final String TYPE_COMMIT = "commit"; //$NON-NLS-1$
+
+    private static final int CRC_DIGITS = 8;
+    private static final Gson COMPACT = new GsonBuilder().disableHtmlEscaping().create();
+
+    private GsdStateJournal() {
+    }
+
+    /**
+     * Encodes the header line for a journal extending the given snapshot.
+     *
+     * @param snapshotToken token of the state stored in {@code state.json}
+     * @param snapshotCrc CRC-32 of the {@code state.json} bytes
+     */
+    static byte[] header(GsdConcurrencyToken snapshotToken, long snapshotCrc) {
+        JsonObject header = new JsonObject();
+        header.addProperty("type", TYPE_SNAPSHOT); //$NON-NLS-1$
+        header.add("token", tokenJson(snapshotToken)); //$NON-NLS-1$
+        header.addProperty("crc", snapshotCrc); //$NON-NLS-1$
+        return line(header);
+    }
+
+    /**
+     * Encodes one commit as the diff between two state trees.
+     *
+     * @param base tree of the state the commit starts from
+     * @param next tree of the committed state
+     */
+    static byte[] record(JsonObject base, JsonObject next) {
+        JsonObject set = new JsonObject();
+        JsonObject patch = new JsonObject();
+        JsonObject append = new JsonObject();
+        JsonArray remove = new JsonArray();
+        for (Map.Entry<String, JsonElement> entry : next.entrySet()) {
+            String key = entry.getKey();
+            JsonElement now = entry.getValue();
+            JsonElement old = base.get(key);
+            if (now.equals(old)) {
+                continue;
+            }
+            if (old != null && old.isJsonArray() && now.isJsonArray()
+                    && diffArray(old.getAsJsonArray(), now.getAsJsonArray(), key, patch, append)) {
+                continue;
+            }
+            set.add(key, now);
+        }
+        for (String key : base.keySet()) {
+            if (!next.has(key)) {
+                remove.add(key);
+            }
+        }
+        JsonObject record = new JsonObject();
+        record.addProperty("type", TYPE_COMMIT); //$NON-NLS-1$
+        record.add("base", tokenJson(tokenOf(base))); //$NON-NLS-1$
+        record.add("token", tokenJson(tokenOf(next))); //$NON-NLS-1$
+        addIfNotEmpty(record, "remove", remove); //$NON-NLS-1$
+        addIfNotEmpty(record, "set", set); //$NON-NLS-1$
+        addIfNotEmpty(record, "patch", patch); //$NON-NLS-1$
+        addIfNotEmpty(record, "append", append); //$NON-NLS-1$
+        return line(record);
+    }
+
+    /** CRC-32 used for both line checksums and the snapshot binding. */
+    static long crc(byte[] bytes) {
+        return crc(bytes, 0, bytes.length);
+    }
+
+    /** Returns whether a parsed header belongs to the given snapshot. */
+    static boolean extendsSnapshot(Parsed parsed, GsdConcurrencyToken snapshotToken, long snapshotCrc) {
+        if (parsed.header == null) {
+            return false;
+        }
+        try {
+            return snapshotToken.equals(token(parsed.header.get("token"))) //$NON-NLS-1$
+                    && parsed.header.get("crc").getAsLong() == snapshotCrc; //$NON-NLS-1$
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Splits journal bytes into the header and the checksummed records.
+     */
+    static Parsed parse(byte[] bytes) {
+        JsonObject header = null;
+        List<JsonObject> records = new ArrayList<>();
+        int offset = 0;
+        while (offset < bytes.length) {
+            int end = indexOfNewline(bytes, offset);
+            if (end < 0) {
+                return new Parsed(header, records, offset, true, null);
+            }
+            JsonObject line = decodeLine(bytes, offset, end);
+            if (line == null) {
+                if (end + 1 == bytes.length) {
+                    return new Parsed(header, records, offset, true, null);
+                }
+                return new Parsed(header, records, offset, false,
+                        "damaged journal line at byte " + offset); //$NON-NLS-1$
+            }
+            String type = line.has("type") ? line.get("type").getAsString() : ""; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            if (header == null) {
+                if (!TYPE_SNAPSHOT.equals(type)) {
+                    return new Parsed(null, records, 0, false, "journal does not start with a snapshot header"); //$NON-NLS-1$
+                }
+                header = line;
+            } else if (TYPE_COMMIT.equals(type)) {
+                records.add(line);
+            } else {
+                return new Parsed(header, records, offset, false,
+                        "unexpected journal record type '" + type + "' at byte " + offset); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            offset = end + 1;
+        }
+        return new Parsed(header, records, offset, false, null);
+    }
+
+    /**
+     * Applies records to a snapshot tree, stopping at the first one that does not chain.
+     * The snapshot tree is not modified.
+     */
+    static Replay replay(JsonObject snapshot, List<JsonObject> records) {
+        JsonObject tree = snapshot;
+        for (int i = 0; i < records.size(); i++) {
+            JsonObject record = records.get(i);
+            try {
+                GsdConcurrencyToken current = tokenOf(tree);
+                GsdConcurrencyToken base = token(record.get("base")); //$NON-NLS-1$
+                if (!current.equals(base)) {
+                    return new Replay(tree, i, "journal record " + i + " starts from " + base //$NON-NLS-1$ //$NON-NLS-2$
+                            + " but the state is at " + current); //$NON-NLS-1$
+                }
+                JsonObject next = apply(tree, record);
+                GsdConcurrencyToken expected = token(record.get("token")); //$NON-NLS-1$
+                if (!expected.equals(tokenOf(next))) {
+                    return new Replay(tree, i, "journal record " + i + " does not produce " + expected); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+                tree = next;
+            } catch (RuntimeException e) {
+                return new Replay(tree, i, "journal record " + i + " cannot be applied: " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+        }
+        return new Replay(tree, records.size(), null);
+    }
+
+    /** Reads the concurrency token from the top-level fields of a state tree. */
+    static GsdConcurrencyToken tokenOf(JsonObject tree) {
+        return new GsdConcurrencyToken(tree.get("cycleId").getAsString(), //$NON-NLS-1$
+                tree.get("generation").getAsLong(), tree.get("revision").getAsLong()); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    // ---- Internals -------------------------------------------------------
+
+    /** Diffs two arrays as in-place patches plus appended elements; false when a set is smaller. */
+    private static boolean diffArray(JsonArray old, JsonArray now, String key, JsonObject patch,
+            JsonObject append) {
+        if (now.size() < old.size()) {
+            return false;
+        }
+        JsonObject changed = new JsonObject();
+        for (int i = 0; i < old.size(); i++) {
+            if (!old.get(i).equals(now.get(i))) {
+                changed.add(Integer.toString(i), now.get(i));
+            }
+        }
+        if (changed.size() * 2 > old.size()) {
+            return false;
+        }
+        if (changed.size() > 0) {
+            patch.add(key, changed);
+        }
+        if (now.size() > old.size()) {
+            JsonArray tail = new JsonArray(now.size() - old.size());
+            for (int i = old.size(); i < now.size(); i++) {
+                tail.add(now.get(i));
+            }
+            append.add(key, tail);
+        }
+        return true;
+    }
+
+    /** Returns a new tree; arrays touched by the record are copied, untouched values are shared. */
+    private static JsonObject apply(JsonObject tree, JsonObject record) {
+        JsonObject next = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : tree.entrySet()) {
+            next.add(entry.getKey(), entry.getValue());
+        }
+        if (record.has("remove")) { //$NON-NLS-1$
+            for (JsonElement key : record.getAsJsonArray("remove")) { //$NON-NLS-1$
+                next.remove(key.getAsString());
+            }
+        }
+        if (record.has("set")) { //$NON-NLS-1$
+            for (Map.Entry<String, JsonElement> entry : record.getAsJsonObject("set").entrySet()) { //$NON-NLS-1$
+                next.add(entry.getKey(), entry.getValue());
+            }
+        }
+        if (record.has("patch")) { //$NON-NLS-1$
+            for (Map.Entry<String, JsonElement> entry : record.getAsJsonObject("patch").entrySet()) { //$NON-NLS-1$
+                JsonArray target = copyOfArray(next, entry.getKey());
+                for (Map.Entry<String, JsonElement> element : entry.getValue().getAsJsonObject().entrySet()) {
+                    target.set(Integer.parseInt(element.getKey()), element.getValue());
+                }
+            }
+        }
+        if (record.has("append")) { //$NON-NLS-1$
+            for (Map.Entry<String, JsonElement> entry : record.getAsJsonObject("append").entrySet()) { //$NON-NLS-1$
+                copyOfArray(next, entry.getKey()).addAll(entry.getValue().getAsJsonArray());
+            }
+        }
+        return next;
+    }
+
+    private static JsonArray copyOfArray(JsonObject tree, String key) {
+        JsonElement element = tree.get(key);
+        if (element == null || !element.isJsonArray()) {
+            throw new IllegalStateException("field '" + key + "' is not an array"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        JsonArray copy = new JsonArray(element.getAsJsonArray().size());
+        copy.addAll(element.getAsJsonArray());
+        tree.add(key, copy);
+        return copy;
+    }
+
+    private static JsonObject tokenJson(GsdConcurrencyToken token) {
+        JsonObject json = new JsonObject();
+        json.addProperty("cycleId", token.cycleId()); //$NON-NLS-1$
+        json.addProperty("generation", token.generation()); //$NON-NLS-1$
+        json.addProperty("revision", token.revision()); //$NON-NLS-1$
+        return json;
+    }
+
+    private static GsdConcurrencyToken token(JsonElement element) {
+        return tokenOf(element.getAsJsonObject());
+    }
+
+    private static void addIfNotEmpty(JsonObject record, String key, JsonElement value) {
+        if (value.isJsonArray() ? value.getAsJsonArray().size() > 0 : value.getAsJsonObject().size() > 0) {
+            record.add(key, value);
+        }
+    }
+
+    private static byte[] line(JsonObject json) {
+        byte[] body = COMPACT.toJson(json).getBytes(StandardCharsets.UTF_8);
+        byte[] prefix = String.format("%08x ", crc(body)).getBytes(StandardCharsets.US_ASCII); //$NON-NLS-1$
+        byte[] line = new byte[prefix.length + body.length + 1];
+        System.arraycopy(prefix, 0, line, 0, prefix.length);
+        System.arraycopy(body, 0, line, prefix.length, body.length);
+        line[line.length - 1] = '\n';
+        return line;
+    }
+
+    /** Decodes one line without its newline; {@code null} when the checksum or JSON is invalid. */
+    private static JsonObject decodeLine(byte[] bytes, int start, int end) {
+        int bodyStart = start + CRC_DIGITS + 1;
+        if (end <= bodyStart || bytes[bodyStart - 1] != ' ') {
+            return null;
+        }
+        long expected = 0;
+        for (int i = start; i < start + CRC_DIGITS; i++) {
+            int digit = Character.digit(bytes[i], 16);
+            if (digit < 0) {
+                return null;
+            }
+            expected = (expected << 4) | digit;
+        }
+        if (crc(bytes, bodyStart, end - bodyStart) != expected) {
+            return null;
+        }
+        try {
+            JsonElement json = JsonParser.parseString(
+                    new String(bytes, bodyStart, end - bodyStart, StandardCharsets.UTF_8));
+            return json.isJsonObject() ? json.getAsJsonObject() : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static long crc(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return crc.getValue();
+    }
+
+    private static int indexOfNewline(byte[] bytes, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Result of {@link #parse(byte[])}. */
+    static final class Parsed {
+        /** Header line, or {@code null} when the journal holds no complete header. */
+        final JsonObject header;
+        /** Intact commit records in order. */
+        final List<JsonObject> records;
+        /** Length of the prefix made of the header and intact records. */
+        final long validLength;
+        /** Whether a damaged final line was dropped. */
+        final boolean tornTail;
+        /** Reason the journal is corrupt, or {@code null}. */
+        final String corruption;
+
+        Parsed(JsonObject header, List<JsonObject> records, long validLength, boolean tornTail,
+                String corruption) {
+            this.header = header;
+            this.records = records;
+            this.validLength = validLength;
+            this.tornTail = tornTail;
+            this.corruption = corruption;
+        }
+    }
+
+    /** Result of {@link #replay(JsonObject, List)}. */
+    static final class Replay {
+        /** Tree after the last record that applied cleanly. */
+        final JsonObject tree;
+        /** Number of records applied. */
+        final int applied;
+        /** Reason replay stopped early, or {@code null}. */
+        final String corruption;
+
+        Replay(JsonObject tree, int applied, String corruption) {
+            this.tree = tree;
+            this.applied = applied;
+            this.corruption = corruption;
+        }
+    }
+}
@@ -11,6 +11,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
 import java.nio.channels.OverlappingFileLockException;
@@ -23,9 +24,16 @@ import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 import com.codepilot1c.core.filesystem.AnchoredUnixRead;
@@ -48,9 +56,10 @@ import com.google.gson.stream.JsonWriter;
 /**
  * Persists {@link GsdState} under {@code <project>/.codepilot1c/gsd}.
  *
- * <p>{@code state.json} is the single source of truth. {@code STATE.md} and {@code PLAN.md}
- * are deterministic projections regenerated by this store from JSON and carry no
- * independent state. Writes are atomic: a temp file is written in the GSD directory,
+ * <p>The authoritative state is the {@code state.json} snapshot plus the commits appended to
+ * {@code state.journal} after it. {@code STATE.md} and {@code PLAN.md} are deterministic
+ * projections regenerated by this store from that state and carry no independent state.
+ * Writes are atomic: a temp file is written in the GSD directory,
  * {@link FileChannel#force(boolean) force}d to disk, and moved into place with
  * a same-directory rename through an open, validated {@link java.nio.file.SecureDirectoryStream}
  * handle. Java 17 providers without that API fail closed before the first mutation; pathname
@@ -59,10 +68,9 @@ import com.google.gson.stream.JsonWriter;
  * <p>Optimistic concurrency is enforced via the cycle/generation/revision
  * {@link GsdConcurrencyToken} <b>under a cross-process
  * {@link FileLock}</b> on {@code .codepilot1c/gsd/state.lock}: {@link #save(GsdState)}
- * acquires the lock, checks that {@code state.revision()} equals the revision on disk,
- * backs up the previous {@code state.json} to {@code state.json.bak}, persists the new
- * state with {@code revision + 1}, regenerates projections, and releases the lock — all
- * as one critical section, so two writers cannot both pass the CAS. Within a single
+ * acquires the lock, checks that the state's token equals the current token on disk,
+ * persists the new state with {@code revision + 1}, and releases the lock — all as one
+ * critical section, so two writers cannot both pass the CAS. Within a single
  * JVM the OS {@link FileLock} is owned by the process; a second channel on the same
  * lock file throws {@link OverlappingFileLockException} instead of blocking, so the
  * store additionally serializes threads with a per-directory-identity {@link
@@ -82,6 +90,28 @@ import com.google.gson.stream.JsonWriter;
  * {@code state.json}, no {@code .bak}) yields a fresh {@link GsdState#fresh()} without
  * writing a primary state file; missing Markdown projections may still be generated.</p>
  *
+ * <p>Journal and snapshots: an ordinary commit appends one checksummed diff record to
+ * {@code state.journal} and forces only that file (see {@link GsdStateJournal}). Every
+ * {@code codepilot1c.gsd.snapshotEvery} commits, or once the journal exceeds
+ * {@code codepilot1c.gsd.journalMaxBytes}, the commit is written as a new snapshot instead:
+ * the previous state goes to {@code state.json.bak}, the new one to {@code state.json}, and
+ * the journal is reset to a header bound to that snapshot. The first commit and every cycle
+ * replacement are snapshots. A torn final journal line is an unacknowledged append and is
+ * dropped. A damaged record followed by more data is corruption: {@link #load()} recovers the
+ * snapshot plus the intact records with an advanced generation and quarantines the journal to
+ * {@code state.journal.corrupt}; commits are rejected until then. A journal that does not
+ * extend the current snapshot (e.g. left behind by a crash during compaction) is ignored and
+ * moved to {@code state.journal.stale} before a new one is written. With
+ * {@code snapshotEvery=1} every commit is a snapshot and no journal is written.</p>
+ *
+ * <p>Projections: after a journaled commit, {@code STATE.md} and {@code PLAN.md} are
+ * regenerated in the background once {@code codepilot1c.gsd.projectionDelayMs} have passed,
+ * so a burst of commits regenerates them once. The background task reads the latest committed
+ * state under the lock and rewrites only files whose content changed, so the projections stay
+ * a pure function of the state. A background failure is reported as a warning of the next
+ * {@link #commit(GsdState)}; {@link #flushProjections()} regenerates them synchronously. With
+ * a delay of zero they are regenerated inside every commit.</p>
+ *
  * <p>The {@link GsdGuard} invariants are validated before any write, so a state that would
  * close work on {@link GsdProvenance#INFERRED}-only evidence can never reach disk.</p>
  *
@@ -111,10 +141,29 @@ public final class GsdStateStore {
     public static final String STATE_CORRUPT = "state.json.corrupt"; //$NON-NLS-1$
     /** Cross-process inter-process lock file. */
     public static final String STATE_LOCK = "state.lock"; //$NON-NLS-1$
+    /** Commits appended after the {@code state.json} snapshot. */
+    public static final String STATE_JOURNAL = "state.journal"; //$NON-NLS-1$
+    /** Forensic copy of a journal with a damaged record. */
+    public static final String STATE_JOURNAL_CORRUPT = "state.journal.corrupt"; //$NON-NLS-1$
+    /** Journal that no longer extends the current snapshot, kept instead of being deleted. */
+    public static final String STATE_JOURNAL_STALE = "state.journal.stale"; //$NON-NLS-1$
+
+    /** System property: commits per snapshot; {@code 1} writes every commit as a snapshot. */
+    static final String SNAPSHOT_EVERY_PROPERTY = "codepilot1c.gsd.snapshotEvery"; //$NON-NLS-1$
+    /** System property: journal size that forces the next commit to be a snapshot. */
+    static final String JOURNAL_MAX_BYTES_PROPERTY = "codepilot1c.gsd.journalMaxBytes"; //$NON-NLS-1$
+    /** System property: projection regeneration delay; {@code 0} regenerates inside the commit. */
+    static final String PROJECTION_DELAY_PROPERTY = "codepilot1c.gsd.projectionDelayMs"; //$NON-NLS-1$
+
+    private static final String PROJECTION_WARNING =
+            "state committed but projections were not fully regenerated: "; //$NON-NLS-1$
 
     /** Hard ceiling for the descriptor-anchored read-only state path. */
     static final long MAX_READ_ONLY_STATE_BYTES = 16L * 1024L * 1024L;
 
+    /** Read-only reads retried while a concurrent compaction swaps snapshot and journal. */
+    private static final int READ_ONLY_ATTEMPTS = 3;
+
     /**
      * Per-directory-identity JVM mutexes. {@link FileLock} is held by the JVM as a whole: a second
      * {@link FileChannel} on the same path in the same process does <em>not</em> block on
@@ -128,6 +177,17 @@ public final class GsdStateStore {
     private static final ConcurrentHashMap<Object, ReentrantLock> JVM_LOCKS =
             new ConcurrentHashMap<>();
 
+    /** Pending background projection per GSD directory, shared by all store instances. */
+    private static final ConcurrentHashMap<Path, PendingProjection> PROJECTIONS =
+            new ConcurrentHashMap<>();
+
+    private static final ScheduledExecutorService PROJECTION_EXECUTOR =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "CodePilot1C-GsdProjections"); //$NON-NLS-1$
+                thread.setDaemon(true);
+                return thread;
+            });
+
     private final Path projectRoot;
     private final Path gsdDir;
     private final Path statePath;
@@ -135,6 +195,7 @@ public final class GsdStateStore {
     private final Gson gson;
     private final BoundRoot boundProjectRoot;
     private final SecureDirectoryMutation.MutationHook mutationHook;
+    private final Tuning tuning;
 
     /**
      * Creates a store confined to {@code <projectRoot>/.codepilot1c/gsd}.
@@ -153,6 +214,11 @@ public final class GsdStateStore {
 
     GsdStateStore(Path projectRoot, SecureDirectoryMutation.MutationHook mutationHook,
             CapabilityPolicy capabilityPolicy) throws IOException {
+        this(projectRoot, mutationHook, capabilityPolicy, Tuning.fromSystemProperties());
+    }
+
+    GsdStateStore(Path projectRoot, SecureDirectoryMutation.MutationHook mutationHook,
+            CapabilityPolicy capabilityPolicy, Tuning tuning) throws IOException {
         this.projectRoot = normalizeRoot(projectRoot);
         Path candidate = this.projectRoot.resolve(GSD_DIR_NAME).toAbsolutePath().normalize();
         if (!candidate.startsWith(this.projectRoot)) {
@@ -167,6 +233,7 @@ public final class GsdStateStore {
         this.boundProjectRoot = SecureDirectoryMutation.bindRoot(
                 this.projectRoot, capabilityPolicy);
         this.mutationHook = mutationHook;
+        this.tuning = Objects.requireNonNull(tuning, "tuning"); //$NON-NLS-1$
     }
 
     /**
@@ -217,7 +284,7 @@ public final class GsdStateStore {
                 regenerateProjectionsIfMissing(directory, fresh);
                 return fresh;
             }
-            if (outcome.recovered) {
+            if (outcome.recovered || outcome.journalCorruption != null) {
                 if (outcome.primaryWasCorrupt) {
                     quarantineCorruptPrimary(directory); // propagates IOException on failure
                 }
@@ -226,6 +293,11 @@ public final class GsdStateStore {
                 // Advance the recovery fence in both copies. Repeated recovery without
                 // an intervening save must still produce a new generation.
                 atomicWrite(directory, STATE_BAK, toBytes(recovered), Mutation.BACKUP);
+                // The journal extended the snapshot that was just replaced; keep it for forensics.
+                if (directory.exists(STATE_JOURNAL)) {
+                    directory.move(STATE_JOURNAL, outcome.journalCorruption != null
+                            ? STATE_JOURNAL_CORRUPT : STATE_JOURNAL_STALE, Mutation.QUARANTINE.operation);
+                }
                 writeProjectionsUnlocked(directory, recovered);
                 return recovered;
             } else if (outcome.migrated) {
@@ -235,6 +307,10 @@ public final class GsdStateStore {
                 writeProjectionsUnlocked(directory, outcome.state);
             } else {
                 regenerateProjectionsIfMissing(directory, outcome.state);
+                if (outcome.journal.records > 0 && tuning.projectionDelayMs() > 0) {
+                    // Journaled commits of an earlier session may not have been projected yet.
+                    scheduleProjectionsIfBehind(outcome.state.concurrencyToken());
+                }
             }
             return outcome.state;
         });
@@ -252,7 +328,11 @@ public final class GsdStateStore {
      *
      * <p>Behavior:</p>
      * <ul>
-     *   <li>Primary {@code state.json} exists and parses correctly → returns the parsed state.</li>
+     *   <li>Primary {@code state.json} exists and parses correctly → returns the parsed state
+     *       with the intact {@code state.journal} records applied; a journal that does not
+     *       extend the snapshot read (a concurrent compaction) causes a bounded re-read.</li>
+     *   <li>{@code state.journal} has a damaged record before its end → throws
+     *       {@link GsdCorruptException}.</li>
      *   <li>Primary {@code state.json} exists but is corrupt → throws
      *       {@link GsdCorruptException} (caller surfaces the error in the UI).</li>
      *   <li>Primary {@code state.json} does not exist → returns {@link GsdState#fresh()}.</li>
@@ -280,31 +360,55 @@ public final class GsdStateStore {
      * @throws IOException          on I/O failure reading the primary
      */
     public GsdState loadReadOnly() throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            AnchoredUnixRead.Result result = readAnchored(STATE_JSON);
+            if (!result.exists()) {
+                return GsdState.fresh();
+            }
+            ParsedState parsed = parseState(result.bytes(), statePath);
+            if (parsed.migrated) {
+                return parsed.state;
+            }
+            AnchoredUnixRead.Result journal = readAnchored(STATE_JOURNAL);
+            ReadOutcome outcome = replayJournal(parsed.state, result.bytes(),
+                    journal.exists() ? journal.bytes() : null);
+            if (outcome.journalCorruption != null) {
+                throw new GsdCorruptException("GSD " + STATE_JOURNAL + " is corrupt: " //$NON-NLS-1$ //$NON-NLS-2$
+                        + outcome.journalCorruption);
+            }
+            // A writer compacts by replacing state.json first and resetting the journal second;
+            // a journal from the other side of that boundary is re-read, not applied.
+            if (!outcome.journal.orphaned || attempt == READ_ONLY_ATTEMPTS) {
+                return outcome.state;
+            }
+        }
+    }
+
+    private AnchoredUnixRead.Result readAnchored(String fileName) throws IOException {
         boundProjectRoot.verifyCurrent();
         AnchoredUnixRead.Result result;
         try {
             result = AnchoredUnixRead.read(projectRoot,
-                    Path.of(GSD_DIR_NAME).resolve(STATE_JSON),
+                    Path.of(GSD_DIR_NAME).resolve(fileName),
                     MAX_READ_ONLY_STATE_BYTES, mutationHook);
         } catch (AnchoredUnixRead.ReadLimitExceededException e) {
-            throw new GsdCorruptException("GSD state exceeds the anchored read-only limit of " //$NON-NLS-1$
+            throw new GsdCorruptException("GSD " + fileName //$NON-NLS-1$
+                    + " exceeds the anchored read-only limit of " //$NON-NLS-1$
                     + MAX_READ_ONLY_STATE_BYTES + " bytes", e); //$NON-NLS-1$
         } catch (LinkageError e) {
-            throw new SecureDirectoryCapabilityException(statePath,
+            throw new SecureDirectoryCapabilityException(gsdDir.resolve(fileName),
                     "JNA anchored-read capability is unavailable", e); //$NON-NLS-1$
         }
         boundProjectRoot.verifyCurrent();
-        if (!result.exists()) {
-            return GsdState.fresh();
-        }
-        return parseState(result.bytes(), statePath).state;
+        return result;
     }
 
     /**
      * Persists the state atomically under the cross-process lock. Enforces
-     * {@link GsdGuard} and optimistic revision before writing. Backs up the previous
-     * {@code state.json} to {@code state.json.bak}, writes the new state with
-     * {@code revision + 1}, and attempts to regenerate {@code STATE.md}/{@code PLAN.md}.
+     * {@link GsdGuard} and optimistic revision before writing. Appends the new state with
+     * {@code revision + 1} to the journal, or writes it as a snapshot after backing up the
+     * previous state to {@code state.json.bak}, and regenerates {@code STATE.md}/{@code PLAN.md}
+     * inline or in the background (see the class documentation).
      * Use {@link #commit(GsdState)} when projection warnings must be observed.
      *
      * @param state the state to persist; its full {@link GsdState#concurrencyToken()} is checked
@@ -333,9 +437,13 @@ public final class GsdStateStore {
         GsdGuard.validate(validated); // fail-closed before any write / before the lock
 
         return withLock(directory -> {
-            validateBeforeSave(directory, validated);
+            ReadOutcome current = validateBeforeSave(directory, validated);
             GsdState next = validated.withRevision(validated.revision() + 1L);
-            commitAuthoritative(directory, next);
+            if (current.state == null) {
+                commitSnapshot(directory, current, next);
+            } else {
+                commitJournaled(directory, current, next);
+            }
             return projectionOutcome(directory, next);
         });
     }
@@ -355,7 +463,8 @@ public final class GsdStateStore {
         GsdState validated = Objects.requireNonNull(newCycle, "newCycle"); //$NON-NLS-1$
         return withLock(directory -> {
             ReadOutcome outcome = readOutcome(directory);
-            if (outcome.state == null || outcome.recovered || outcome.migrated) {
+            if (outcome.state == null || outcome.recovered || outcome.migrated
+                    || outcome.journalCorruption != null) {
                 throw new GsdCorruptException(
                         "cannot replace cycle until primary state is loaded and current"); //$NON-NLS-1$
             }
@@ -367,7 +476,7 @@ public final class GsdStateStore {
             // incidental transition-revision monotonicity violation.
             GsdCycleRules.validateReplacement(outcome.state, validated);
             GsdGuard.validate(validated);
-            commitAuthoritative(directory, validated);
+            commitSnapshot(directory, outcome, validated);
             return projectionOutcome(directory, validated);
         });
     }
@@ -380,20 +489,90 @@ public final class GsdStateStore {
         }
     }
 
-    private void commitAuthoritative(SecureDirectoryMutation directory, GsdState next)
-            throws IOException {
+    /**
+     * Writes {@code next} as the new snapshot. The backup receives the current state, which is
+     * the raw {@code state.json} unless journaled commits were applied on top of it. An existing
+     * journal is reset to an empty one bound to the new snapshot, or quarantined if it did not
+     * extend the old one either.
+     */
+    private void commitSnapshot(SecureDirectoryMutation directory, ReadOutcome current,
+            GsdState next) throws IOException {
         if (directory.exists(STATE_JSON)) {
-            atomicWrite(directory, STATE_BAK, directory.readAllBytes(STATE_JSON), Mutation.BACKUP);
+            byte[] previous = current.journal.records > 0
+                    ? toBytes(current.state) : directory.readAllBytes(STATE_JSON);
+            atomicWrite(directory, STATE_BAK, previous, Mutation.BACKUP);
+        }
+        byte[] snapshot = toBytes(next);
+        atomicWrite(directory, STATE_JSON, snapshot, Mutation.STATE);
+        if (directory.exists(STATE_JOURNAL)) {
+            if (current.journal.orphaned) {
+                directory.move(STATE_JOURNAL, STATE_JOURNAL_STALE, Mutation.QUARANTINE.operation);
+            } else {
+                atomicWrite(directory, STATE_JOURNAL, GsdStateJournal.header(
+                        next.concurrencyToken(), GsdStateJournal.crc(snapshot)), Mutation.JOURNAL);
+            }
+        }
+    }
+
+    /**
+     * Appends {@code next} to the journal, or writes it as a snapshot when the journal is due
+     * for compaction.
+     */
+    private void commitJournaled(SecureDirectoryMutation directory, ReadOutcome current,
+            GsdState next) throws IOException {
+        if (tuning.snapshotEvery() <= 1) {
+            commitSnapshot(directory, current, next);
+            return;
+        }
+        JournalState journal = current.journal;
+        byte[] record = GsdStateJournal.record(tree(current.state), tree(next));
+        boolean appendable = journal.current && journal.validLength > 0;
+        int records = appendable ? journal.records : 0;
+        long length = appendable ? journal.validLength : 0L;
+        if (records + 1 >= tuning.snapshotEvery() || length + record.length > tuning.journalMaxBytes()) {
+            commitSnapshot(directory, current, next);
+        } else if (appendable) {
+            appendToJournal(directory, journal.validLength, record);
+        } else {
+            if (journal.orphaned) {
+                directory.move(STATE_JOURNAL, STATE_JOURNAL_STALE, Mutation.QUARANTINE.operation);
+            }
+            byte[] header = GsdStateJournal.header(journal.snapshotToken, journal.snapshotCrc);
+            byte[] content = Arrays.copyOf(header, header.length + record.length);
+            System.arraycopy(record, 0, content, header.length, record.length);
+            atomicWrite(directory, STATE_JOURNAL, content, Mutation.JOURNAL);
+        }
+    }
+
+    /**
+     * Appends one record at the end of the intact journal prefix and forces it to disk. A torn
+     * tail left by an earlier crash is truncated first so the record stays line-aligned.
+     */
+    private void appendToJournal(SecureDirectoryMutation directory, long validLength, byte[] record)
+            throws IOException {
+        try (FileChannel channel = directory.openFileChannel(STATE_JOURNAL,
+                Set.of(StandardOpenOption.WRITE), Mutation.JOURNAL.operation)) {
+            if (channel.size() > validLength) {
+                channel.truncate(validLength);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            long position = validLength;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            channel.force(false);
         }
-        atomicWrite(directory, STATE_JSON, toBytes(next), Mutation.STATE);
     }
 
     private GsdCommitOutcome projectionOutcome(SecureDirectoryMutation directory, GsdState next) {
+        if (tuning.projectionDelayMs() > 0) {
+            return new GsdCommitOutcome(next, true, scheduleProjections());
+        }
         List<String> warnings = new ArrayList<>();
         try {
             writeProjectionsUnlocked(directory, next);
         } catch (IOException | RuntimeException e) {
-            warnings.add("state committed but projections were not fully regenerated: " //$NON-NLS-1$
+            warnings.add(PROJECTION_WARNING
                     + e.getClass().getSimpleName() + ": " + e.getMessage()); //$NON-NLS-1$
         }
         return new GsdCommitOutcome(next, true, warnings);
@@ -403,14 +582,14 @@ public final class GsdStateStore {
      * Pre-save validation under lock. Returns the state found on disk (for revision
      * comparison and stale-revision checks). Handles three cases:
      * <ul>
-     *   <li>Fresh project ({@code state==null}): returns {@code null} to signal
+     *   <li>Fresh project ({@code state==null}): returns an outcome without state to signal
      *       no prior state exists.</li>
-     *   <li>Recovery needed ({@code recovered==true}): fails closed with
+     *   <li>Recovery needed ({@code recovered==true} or a corrupt journal): fails closed with
      *       {@link GsdCorruptException} because only a validated primary may be backed up.</li>
      *   <li>Normal state on disk: returns the valid state for CAS checking.</li>
      * </ul>
      */
-    private void validateBeforeSave(SecureDirectoryMutation directory, GsdState validated)
+    private ReadOutcome validateBeforeSave(SecureDirectoryMutation directory, GsdState validated)
             throws IOException {
         ReadOutcome outcome = readOutcome(directory);
 
@@ -420,7 +599,7 @@ public final class GsdStateStore {
                 throw new GsdStaleRevisionException(
                         validated.revision(), GsdState.INITIAL_REVISION);
             }
-            return;
+            return outcome;
         }
 
         // If the store had to recover (primary was corrupt or missing),
@@ -431,6 +610,11 @@ public final class GsdStateStore {
             throw new GsdCorruptException(
                     "GSD primary requires recovery or migration; save rejected until load() completes"); //$NON-NLS-1$
         }
+        if (outcome.journalCorruption != null) {
+            throw new GsdCorruptException("GSD " + STATE_JOURNAL //$NON-NLS-1$
+                    + " requires recovery; save rejected until load() completes: " //$NON-NLS-1$
+                    + outcome.journalCorruption);
+        }
 
         // Compare the complete identity; revision-only comparison permits ABA after
         // recovery or cycle replacement.
@@ -444,6 +628,7 @@ public final class GsdStateStore {
             throw new IllegalArgumentException(
                     "ordinary commit must preserve the used-cycle identity fence"); //$NON-NLS-1$
         }
+        return outcome;
     }
 
     /**
@@ -462,6 +647,42 @@ public final class GsdStateStore {
         });
     }
 
+    /**
+     * Regenerates {@code STATE.md} and {@code PLAN.md} from the committed state now, instead of
+     * waiting for a pending background regeneration.
+     *
+     * @return projection warnings; empty when the projections are current
+     */
+    public List<String> flushProjections() {
+        PendingProjection pending = PROJECTIONS.computeIfAbsent(gsdDir, k -> new PendingProjection());
+        synchronized (pending) {
+            if (pending.future != null) {
+                pending.future.cancel(false);
+                pending.future = null;
+            }
+        }
+        String failure = refreshProjections(pending);
+        return failure == null ? List.of() : List.of(failure);
+    }
+
+    /**
+     * Runs every pending background projection synchronously, e.g. before the platform stops.
+     */
+    public static void flushAllProjections() {
+        for (Map.Entry<Path, PendingProjection> entry : PROJECTIONS.entrySet()) {
+            PendingProjection pending = entry.getValue();
+            GsdStateStore store;
+            synchronized (pending) {
+                if (pending.future == null || !pending.future.cancel(false)) {
+                    continue;
+                }
+                pending.future = null;
+                store = pending.store;
+            }
+            store.refreshProjections(pending);
+        }
+    }
+
     // ---- Internals -------------------------------------------------------
 
     private void writeProjectionsUnlocked(SecureDirectoryMutation directory, GsdState state)
@@ -472,6 +693,92 @@ public final class GsdStateStore {
                 GsdProjections.toPlanMd(state), Mutation.PROJECTION);
     }
 
+    /** Schedules a background regeneration unless one is pending; returns the last failure. */
+    private List<String> scheduleProjections() {
+        PendingProjection pending = PROJECTIONS.computeIfAbsent(gsdDir, k -> new PendingProjection());
+        synchronized (pending) {
+            pending.store = this;
+            if (pending.future == null) {
+                // Commits arriving while this one is pending are covered by the same run.
+                pending.future = PROJECTION_EXECUTOR.schedule(() -> runPendingProjection(pending),
+                        tuning.projectionDelayMs(), TimeUnit.MILLISECONDS);
+            }
+            return pending.failure == null ? List.of() : List.of(pending.failure);
+        }
+    }
+
+    private void scheduleProjectionsIfBehind(GsdConcurrencyToken token) {
+        PendingProjection pending = PROJECTIONS.get(gsdDir);
+        boolean projected;
+        if (pending == null) {
+            projected = false;
+        } else {
+            synchronized (pending) {
+                projected = token.equals(pending.projected);
+            }
+        }
+        if (!projected) {
+            scheduleProjections();
+        }
+    }
+
+    private static void runPendingProjection(PendingProjection pending) {
+        GsdStateStore store;
+        synchronized (pending) {
+            pending.future = null;
+            store = pending.store;
+        }
+        store.refreshProjections(pending);
+    }
+
+    /**
+     * Regenerates projections from the state committed at the time the lock is taken, so a
+     * delayed run never publishes an older state than the one on disk. States that still need
+     * {@link #load()} to recover or migrate are left to it.
+     *
+     * @return the failure warning, or {@code null} on success
+     */
+    private String refreshProjections(PendingProjection pending) {
+        try {
+            GsdConcurrencyToken token = withLock(directory -> {
+                ReadOutcome outcome = readOutcome(directory);
+                if (outcome.state == null || outcome.recovered || outcome.migrated
+                        || outcome.journalCorruption != null) {
+                    return null;
+                }
+                writeProjectionIfChanged(directory, GsdProjections.STATE_FILE,
+                        GsdProjections.toStateMd(outcome.state));
+                writeProjectionIfChanged(directory, GsdProjections.PLAN_FILE,
+                        GsdProjections.toPlanMd(outcome.state));
+                return outcome.state.concurrencyToken();
+            });
+            synchronized (pending) {
+                pending.failure = null;
+                if (token != null) {
+                    pending.projected = token;
+                }
+            }
+            return null;
+        } catch (IOException | RuntimeException e) {
+            String failure = PROJECTION_WARNING
+                    + e.getClass().getSimpleName() + ": " + e.getMessage(); //$NON-NLS-1$
+            synchronized (pending) {
+                pending.failure = failure;
+            }
+            LOGGER.log(System.Logger.Level.WARNING, "GSD projections in {0}: {1}", gsdDir, failure); //$NON-NLS-1$
+            return failure;
+        }
+    }
+
+    private void writeProjectionIfChanged(SecureDirectoryMutation directory, String fileName,
+            String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (directory.exists(fileName) && Arrays.equals(directory.readAllBytes(fileName), bytes)) {
+            return;
+        }
+        atomicWrite(directory, fileName, bytes, Mutation.PROJECTION);
+    }
+
     /**
      * Executes {@code action} while holding an exclusive cross-process {@link FileLock}
      * on {@code state.lock}. The lock file is created on demand. Because {@link FileLock}
@@ -547,13 +854,21 @@ public final class GsdStateStore {
     private ReadOutcome readOutcome(SecureDirectoryMutation directory) throws IOException {
         boolean primaryCorrupt = false;
         if (directory.exists(STATE_JSON)) {
+            byte[] bytes = directory.readAllBytes(STATE_JSON);
+            ParsedState parsed = null;
             try {
-                ParsedState parsed = parseState(
-                        directory.readAllBytes(STATE_JSON), statePath);
-                return new ReadOutcome(parsed.state, false, false, parsed.migrated);
+                parsed = parseState(bytes, statePath);
             } catch (GsdCorruptException e) {
                 primaryCorrupt = true;
             }
+            if (parsed != null && parsed.migrated) {
+                return new ReadOutcome(parsed.state, false, false, true);
+            }
+            if (parsed != null) {
+                // Journal damage is handled separately and never triggers backup recovery.
+                return replayJournal(parsed.state, bytes, directory.exists(STATE_JOURNAL)
+                        ? directory.readAllBytes(STATE_JOURNAL) : null);
+            }
         }
         if (directory.exists(STATE_BAK)) {
             try {
@@ -579,6 +894,49 @@ public final class GsdStateStore {
         return new ReadOutcome(null, false, false, false);
     }
 
+    /**
+     * Applies the journal to a parsed snapshot. A journal bound to another snapshot is ignored;
+     * a damaged record yields the state before it together with the corruption reason.
+     */
+    private ReadOutcome replayJournal(GsdState snapshot, byte[] snapshotBytes, byte[] journalBytes) {
+        GsdConcurrencyToken snapshotToken = snapshot.concurrencyToken();
+        long snapshotCrc = GsdStateJournal.crc(snapshotBytes);
+        if (journalBytes == null) {
+            return new ReadOutcome(snapshot, new JournalState(snapshotToken, snapshotCrc,
+                    false, false, 0, 0L), null);
+        }
+        GsdStateJournal.Parsed parsed = GsdStateJournal.parse(journalBytes);
+        if (parsed.header == null && parsed.corruption != null) {
+            // Records behind a damaged header cannot be attributed to any snapshot.
+            return new ReadOutcome(snapshot, new JournalState(snapshotToken, snapshotCrc,
+                    false, true, 0, 0L), parsed.corruption);
+        }
+        if (!GsdStateJournal.extendsSnapshot(parsed, snapshotToken, snapshotCrc)) {
+            // An empty or torn header carries nothing; another snapshot's journal is kept.
+            return new ReadOutcome(snapshot, new JournalState(snapshotToken, snapshotCrc,
+                    false, parsed.header != null, 0, 0L), null);
+        }
+        GsdStateJournal.Replay replay = GsdStateJournal.replay(tree(snapshot), parsed.records);
+        String corruption = replay.corruption != null ? replay.corruption : parsed.corruption;
+        GsdState state = snapshot;
+        if (replay.applied > 0) {
+            try {
+                state = gson.fromJson(replay.tree, GsdState.class);
+                GsdGuard.validate(state);
+            } catch (RuntimeException e) {
+                state = snapshot;
+                corruption = "journaled state is invalid: " + e.getMessage(); //$NON-NLS-1$
+            }
+        }
+        JournalState journal = new JournalState(snapshotToken, snapshotCrc, true, false,
+                replay.applied, parsed.validLength);
+        return new ReadOutcome(state, journal, corruption);
+    }
+
+    private JsonObject tree(GsdState state) {
+        return gson.toJsonTree(state).getAsJsonObject();
+    }
+
     /**
      * Moves the corrupt primary {@code state.json} to {@code state.json.corrupt} for
      * forensic analysis. Fails closed by propagating any {@link IOException}; the
@@ -714,7 +1072,8 @@ public final class GsdStateStore {
         STATE("gsd-state"), //$NON-NLS-1$
         BACKUP("gsd-backup"), //$NON-NLS-1$
         PROJECTION("gsd-projection"), //$NON-NLS-1$
-        QUARANTINE("gsd-quarantine"); //$NON-NLS-1$
+        QUARANTINE("gsd-quarantine"), //$NON-NLS-1$
+        JOURNAL("gsd-journal"); //$NON-NLS-1$
 
         private final String operation;
 
@@ -825,12 +1184,82 @@ public final class GsdStateStore {
         final boolean primaryWasCorrupt;
         final boolean recovered;
         final boolean migrated;
+        /** Journal layered over the primary; {@link JournalState#NONE} without a valid primary. */
+        final JournalState journal;
+        /** Why the journal could not be fully applied, or {@code null}. */
+        final String journalCorruption;
 
         ReadOutcome(GsdState state, boolean primaryWasCorrupt, boolean recovered, boolean migrated) {
             this.state = state;
             this.primaryWasCorrupt = primaryWasCorrupt;
             this.recovered = recovered;
             this.migrated = migrated;
+            this.journal = JournalState.NONE;
+            this.journalCorruption = null;
+        }
+
+        ReadOutcome(GsdState state, JournalState journal, String journalCorruption) {
+            this.state = state;
+            this.primaryWasCorrupt = false;
+            this.recovered = false;
+            this.migrated = false;
+            this.journal = journal;
+            this.journalCorruption = journalCorruption;
+        }
+    }
+
+    /** Journal as found next to a valid primary snapshot. */
+    private static final class JournalState {
+        static final JournalState NONE = new JournalState(null, 0L, false, false, 0, 0L);
+
+        final GsdConcurrencyToken snapshotToken;
+        final long snapshotCrc;
+        /** The journal extends the snapshot and its records were applied. */
+        final boolean current;
+        /** The journal belongs to another snapshot and holds data worth keeping. */
+        final boolean orphaned;
+        final int records;
+        /** Length of the intact prefix; appends start here. */
+        final long validLength;
+
+        JournalState(GsdConcurrencyToken snapshotToken, long snapshotCrc, boolean current,
+                boolean orphaned, int records, long validLength) {
+            this.snapshotToken = snapshotToken;
+            this.snapshotCrc = snapshotCrc;
+            this.current = current;
+            this.orphaned = orphaned;
+            this.records = records;
+            this.validLength = validLength;
+        }
+    }
+
+    /** Background projection bookkeeping for one GSD directory. */
+    private static final class PendingProjection {
+        /** Most recent store that scheduled a run; its hook and confinement are used. */
+        GsdStateStore store;
+        ScheduledFuture<?> future;
+        /** Warning of the last failed run, cleared by the next successful one. */
+        String failure;
+        /** Token last projected in this JVM. */
+        GsdConcurrencyToken projected;
+    }
+
+    /**
+     * Journal and projection tuning, read from system properties when a store is created.
+     *
+     * @param snapshotEvery commits per snapshot; {@code 1} writes every commit as a snapshot
+     * @param journalMaxBytes journal size that makes the next commit a snapshot
+     * @param projectionDelayMs background projection delay; {@code 0} projects inside the commit
+     */
+    record Tuning(int snapshotEvery, long journalMaxBytes, long projectionDelayMs) {
+
+        /** Snapshot per commit with synchronous projections: the layout before the journal. */
+        static final Tuning SNAPSHOT_PER_COMMIT = new Tuning(1, 0L, 0L);
+
+        static Tuning fromSystemProperties() {
+            return new Tuning(Integer.getInteger(SNAPSHOT_EVERY_PROPERTY, 32),
+                    Long.getLong(JOURNAL_MAX_BYTES_PROPERTY, 1024L * 1024L),
+                    Long.getLong(PROJECTION_DELAY_PROPERTY, 250L));
         }
     }
 
@@ -9,9 +9,11 @@
  * Get-Things-Done (GSD) project-level state.
  *
  * <p>The first independent slice of GSD: a typed model of project-level state persisted
- * under {@code <project>/.codepilot1c/gsd}. {@code state.json} is the single source of
- * truth; {@code STATE.md} and {@code PLAN.md} are deterministic projections regenerated
- * from JSON. The store provides cycle/generation/revision concurrency tokens, atomic writes
+ * under {@code <project>/.codepilot1c/gsd}. The {@code state.json} snapshot plus the
+ * checksummed commits in {@code state.journal} are the single source of truth; {@code STATE.md}
+ * and {@code PLAN.md} are deterministic projections regenerated from that state in the
+ * background. The store provides cycle/generation/revision concurrency tokens, periodic
+ * journal compaction, atomic writes
  * (temp + {@link java.nio.channels.FileChannel#force} + {@link java.nio.file.StandardCopyOption#ATOMIC_MOVE}),
  * schema migration, generation-fenced backup recovery, filesystem confinement, and
  * closure guards for verified evidence, acceptance criteria, and completed shipment.</p>
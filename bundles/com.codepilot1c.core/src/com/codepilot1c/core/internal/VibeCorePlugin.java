@@ -42,7 +42,12 @@ import com.codepilot1c.core.http.DefaultHttpClientFactory;
 import com.codepilot1c.core.http.HttpClientFactory;
 import com.codepilot1c.core.backend.BackendConfig;
 import com.codepilot1c.core.backend.BackendService;
+import com.codepilot1c.core.agent.prompts.PromptSourceCache;
+import com.codepilot1c.core.edt.metadata.ArtifactPersistenceWaiter;
 import com.codepilot1c.core.edt.runtime.EdtLaunchProcessRegistry;
+import com.codepilot1c.core.evaluation.trace.TraceWriter;
+import com.codepilot1c.core.git.GitResultCache;
+import com.codepilot1c.core.gsd.GsdStateStore;
 import com.codepilot1c.core.logging.VibeLogger;
 import com.codepilot1c.core.mcp.host.McpHostManager;
 import com.codepilot1c.core.mcp.McpServerManager;
@@ -52,6 +57,10 @@ import com.codepilot1c.core.provider.config.ProviderType;
 import com.codepilot1c.core.provider.LlmProviderRegistry;
 import com.codepilot1c.core.remote.IRemoteWorkbenchBridge;
 import com.codepilot1c.core.state.VibeStateService;
+import com.codepilot1c.core.search.WorkspaceFileCache;
+import com.codepilot1c.core.search.WorkspaceTrigramIndex;
+import com.codepilot1c.core.tools.ToolLogger;
+import com.codepilot1c.core.tools.metadata.BslCodeIndexService;
 import com.codepilot1c.core.tools.workspace.BackgroundJobRegistry;
 
 /**
@@ -112,6 +121,34 @@ public class VibeCorePlugin extends Plugin {
         // Initialize persistent memory subsystem (contributor pipeline)
         com.codepilot1c.core.memory.MemoryService.initialize();
 
+        // Keep the BSL call-graph index current from resource deltas.
+        try {
+            BslCodeIndexService.getInstance().start();
+        } catch (Exception e) {
+            vibeLogger.error("Core", "Failed to start BSL code index", e); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+
+        // Track resource deltas for the text search trigram index (built lazily on first search).
+        try {
+            WorkspaceTrigramIndex.getInstance().start();
+        } catch (Exception e) {
+            vibeLogger.error("Core", "Failed to start trigram index", e); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+
+        // Drop cached file contents shared by read/grep/edit tools as resources change.
+        try {
+            WorkspaceFileCache.getInstance().start();
+        } catch (Exception e) {
+            vibeLogger.error("Core", "Failed to start file content cache", e); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+
+        // Serve repeated read-only git inspections from memory until the repository changes.
+        try {
+            GitResultCache.getInstance().start();
+        } catch (Exception e) {
+            vibeLogger.error("Core", "Failed to start git result cache", e); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+
         // Initialize LLM providers and set initial state.
         // If no providers are configured, plugin still starts but shows NOT_CONFIGURED.
         try {
@@ -228,6 +265,46 @@ public class VibeCorePlugin extends Plugin {
         } catch (Exception e) {
             logWarn("Error shutting down background job registry", e); //$NON-NLS-1$
         }
+        try {
+            ArtifactPersistenceWaiter.stopInstance();
+        } catch (Exception e) {
+            logWarn("Error stopping artifact persistence waiter", e); //$NON-NLS-1$
+        }
+        try {
+            BslCodeIndexService.getInstance().stop();
+        } catch (Exception e) {
+            logWarn("Error stopping BSL code index", e); //$NON-NLS-1$
+        }
+        try {
+            WorkspaceTrigramIndex.getInstance().stop();
+        } catch (Exception e) {
+            logWarn("Error stopping trigram index", e); //$NON-NLS-1$
+        }
+        try {
+            WorkspaceFileCache.getInstance().stop();
+        } catch (Exception e) {
+            logWarn("Error stopping file content cache", e); //$NON-NLS-1$
+        }
+        try {
+            GitResultCache.getInstance().stop();
+        } catch (Exception e) {
+            logWarn("Error stopping git result cache", e); //$NON-NLS-1$
+        }
+        try {
+            PromptSourceCache.stopInstance();
+        } catch (Exception e) {
+            logWarn("Error stopping prompt source watcher", e); //$NON-NLS-1$
+        }
+        try {
+            GsdStateStore.flushAllProjections();
+        } catch (Exception e) {
+            logWarn("Error flushing GSD projections", e); //$NON-NLS-1$
+        }
+        try {
+            TraceWriter.closeAll();
+        } catch (Exception e) {
+            logWarn("Error flushing agent traces", e); //$NON-NLS-1$
+        }
 
         // Dispose HTTP client factory
         if (httpClientFactory != null) {
@@ -295,6 +372,13 @@ public class VibeCorePlugin extends Plugin {
         closeTracker(remoteWorkbenchBridgeTracker);
         remoteWorkbenchBridgeTracker = null;
 
+        try {
+            ToolLogger.shutdown();
+            VibeLogger.getInstance().shutdown();
+        } catch (Exception e) {
+            logWarn("Error flushing log files", e); //$NON-NLS-1$
+        }
+
         plugin = null;
         super.stop(context);
     }
@@ -0,0 +1,448 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.logging;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Асинхронная запись лога в файл.
+ *
+ * <p>Вызывающий поток только кладёт запись в ограниченную очередь; форматирование, запись в
+ * файл и пересылка записи (например, в Eclipse {@code ILog}) выполняются одним фоновым потоком.
+ * Поток забирает из очереди всё накопленное раз в интервал сброса или сразу, когда очередь
+ * заполнена наполовину, и пишет пакет одним вызовом в {@link FileChannel}, открытый на всё время
+ * работы.</p>
+ *
+ * <p>При заполнении очереди сначала отбрасываются записи DEBUG (после половины ёмкости), затем
+ * INFO (после 7/8), а WARN и ERROR принимаются до полного заполнения. Число отброшенных записей
+ * по уровням доступно через {@link #getDroppedCount(VibeLogger.Level)} и отмечается строкой в
+ * самом файле.</p>
+ *
+ * <p>Файл ротируется по размеру и при смене даты: {@code name} переименовывается в
+ * {@code name.1}, старые копии сдвигаются, самая старая удаляется.</p>
+ *
+ * <p>{@link #close()} окончателен: поток записи останавливается, очередь записывается, файл
+ * закрывается, а последующие записи и сбросы игнорируются и файл больше не открывают.</p>
+ *
+ * @param <T> тип записи
+ */
+public final class AsyncLogAppender<T> {
+
+    /** Интервал сброса очереди в файл, мс. */
+    public static final String PROP_FLUSH_INTERVAL_MS = "codepilot1c.log.flush.ms"; //$NON-NLS-1$
+
+    /** Ёмкость очереди записей. */
+    public static final String PROP_QUEUE_CAPACITY = "codepilot1c.log.queue.capacity"; //$NON-NLS-1$
+
+    /** Размер файла в байтах, при котором он ротируется; {@code 0} отключает ротацию по размеру. */
+    public static final String PROP_MAX_FILE_BYTES = "codepilot1c.log.rotate.bytes"; //$NON-NLS-1$
+
+    /** Число хранимых ротированных файлов. */
+    public static final String PROP_MAX_BACKUPS = "codepilot1c.log.rotate.backups"; //$NON-NLS-1$
+
+    /** Отключает ежедневную ротацию. */
+    public static final String PROP_NO_DAILY_ROTATION = "codepilot1c.log.rotate.daily.disabled"; //$NON-NLS-1$
+
+    /** Сколько {@link #close()} ждёт завершения потока записи, мс. */
+    private static final long CLOSE_JOIN_TIMEOUT_MS = 2_000L;
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS"); //$NON-NLS-1$
+
+    private final String name;
+    private final Function<T, String> formatter;
+    private final Consumer<T> forwarder;
+    private final Settings settings;
+    private final ArrayBlockingQueue<T> queue;
+    private final int debugLimit;
+    private final int infoLimit;
+    private final AtomicLongArray dropped = new AtomicLongArray(VibeLogger.Level.values().length);
+    private final AtomicBoolean wakeRequested = new AtomicBoolean();
+    private final Object lock = new Object();
+    private final List<T> batch = new ArrayList<>();
+    private final long[] reportedDrops = new long[VibeLogger.Level.values().length];
+    private volatile Path file;
+    private volatile Thread writerThread;
+    private volatile boolean closed;
+    private FileChannel channel;
+    private long size;
+    private LocalDate openedOn;
+    private boolean failed;
+
+    /**
+     * @param name короткое имя для потока записи
+     * @param formatter превращает запись в текст файла, включая перевод строки
+     * @param forwarder дополнительный получатель записей в потоке записи, или {@code null}
+     * @param settings параметры очереди и ротации
+     */
+    public AsyncLogAppender(String name, Function<T, String> formatter, Consumer<T> forwarder, Settings settings) {
+        this.name = name;
+        this.formatter = formatter;
+        this.forwarder = forwarder;
+        this.settings = settings;
+        this.queue = new ArrayBlockingQueue<>(settings.queueCapacity());
+        this.debugLimit = Math.max(1, settings.queueCapacity() / 2);
+        this.infoLimit = Math.max(1, settings.queueCapacity() - settings.queueCapacity() / 8);
+    }
+
+    /**
+     * Устанавливает файл лога; {@code null} отключает запись в файл, пересылка продолжается.
+     */
+    public void setFile(Path path) {
+        synchronized (lock) {
+            if (closed || (path == null ? file == null : path.equals(file))) {
+                return;
+            }
+            drainLocked();
+            closeChannel();
+            file = path;
+        }
+    }
+
+    /**
+     * Возвращает текущий файл лога.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Ставит запись в очередь.
+     *
+     * @return {@code false}, если запись отброшена из-за заполненной очереди или appender закрыт
+     */
+    public boolean append(VibeLogger.Level level, T record) {
+        if (closed) {
+            return false;
+        }
+        int queued = queue.size();
+        int limit = switch (level) {
+            case DEBUG -> debugLimit;
+            case INFO -> infoLimit;
+            default -> Integer.MAX_VALUE;
+        };
+        if (queued >= limit || !queue.offer(record)) {
+            dropped.incrementAndGet(level.ordinal());
+            return false;
+        }
+        Thread thread = writerThread;
+        if (thread == null) {
+            thread = ensureWriterThread();
+        }
+        if (thread != null && queued + 1 >= debugLimit && wakeRequested.compareAndSet(false, true)) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    /**
+     * Возвращает число записей уровня, отброшенных из-за заполненной очереди.
+     */
+    public long getDroppedCount(VibeLogger.Level level) {
+        return dropped.get(level.ordinal());
+    }
+
+    /**
+     * Возвращает общее число отброшенных записей.
+     */
+    public long getDroppedCount() {
+        long total = 0;
+        for (int i = 0; i < dropped.length(); i++) {
+            total += dropped.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Записывает всё, что уже стоит в очереди.
+     */
+    public void flush() {
+        synchronized (lock) {
+            if (!closed) {
+                drainLocked();
+            }
+        }
+    }
+
+    /**
+     * Записывает очередь и удаляет файл; следующие записи создадут его заново.
+     */
+    public void clear() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            drainLocked();
+            closeChannel();
+            Path target = file;
+            if (target != null) {
+                try {
+                    Files.deleteIfExists(target);
+                } catch (IOException e) {
+                    reportFailure(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Останавливает поток записи, записывает очередь и закрывает файл. Последующие записи
+     * игнорируются. Повторный вызов ничего не делает.
+     */
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            thread = writerThread;
+        }
+        if (thread != null) {
+            stopWriter(thread);
+        }
+        synchronized (lock) {
+            drainLocked();
+            closeChannel();
+        }
+    }
+
+    /**
+     * Будит поток записи и ждёт его завершения. Прерывание используется только если поток не
+     * вышел сам: прерванная запись в {@link FileChannel} закрывает канал и теряет пакет.
+     */
+    private void stopWriter(Thread thread) {
+        if (thread == Thread.currentThread()) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(CLOSE_JOIN_TIMEOUT_MS / 2);
+            if (thread.isAlive()) {
+                thread.interrupt();
+                thread.join(CLOSE_JOIN_TIMEOUT_MS / 2);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            System.err.println("Log writer " + name + " did not stop within " //$NON-NLS-1$ //$NON-NLS-2$
+                    + CLOSE_JOIN_TIMEOUT_MS + " ms"); //$NON-NLS-1$
+        }
+    }
+
+    private synchronized Thread ensureWriterThread() {
+        if (closed) {
+            return null;
+        }
+        if (writerThread == null) {
+            Thread thread = new Thread(this::writerLoop, "codepilot1c-log-" + name); //$NON-NLS-1$
+            thread.setDaemon(true);
+            writerThread = thread;
+            thread.start();
+        }
+        return writerThread;
+    }
+
+    private void writerLoop() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(settings.flushIntervalMillis());
+        while (!closed && !Thread.currentThread().isInterrupted()) {
+            if (!wakeRequested.get()) {
+                LockSupport.parkNanos(this, intervalNanos);
+            }
+            wakeRequested.set(false);
+            if (closed) {
+                return;
+            }
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                System.err.println("Log writer " + name + " failed: " + e); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+        }
+    }
+
+    /** Вызывается под {@link #lock}. */
+    private void drainLocked() {
+        String dropNotice = dropNotice();
+        if (queue.drainTo(batch) == 0 && dropNotice == null) {
+            return;
+        }
+        try {
+            Path target = file;
+            StringBuilder text = target != null ? new StringBuilder() : null;
+            if (text != null && dropNotice != null) {
+                text.append(dropNotice);
+            }
+            for (T record : batch) {
+                if (text != null) {
+                    text.append(formatter.apply(record));
+                }
+                if (forwarder != null) {
+                    try {
+                        forwarder.accept(record);
+                    } catch (RuntimeException e) {
+                        // A failing forwarder must not stop the writer
+                    }
+                }
+            }
+            if (text != null && text.length() > 0) {
+                write(target, text.toString().getBytes(StandardCharsets.UTF_8));
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private void write(Path target, byte[] bytes) {
+        try {
+            if (channel == null) {
+                open(target);
+            }
+            if (size > 0 && (settings.maxFileBytes() > 0 && size + bytes.length > settings.maxFileBytes()
+                    || settings.dailyRotation() && !LocalDate.now().equals(openedOn))) {
+                rotate(target);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            size += bytes.length;
+            failed = false;
+        } catch (IOException e) {
+            closeChannel();
+            reportFailure(e);
+        }
+    }
+
+    private void open(Path target) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        size = channel.size();
+        openedOn = size > 0
+                ? LocalDate.ofInstant(Files.getLastModifiedTime(target).toInstant(), ZoneId.systemDefault())
+                : LocalDate.now();
+    }
+
+    private void rotate(Path target) throws IOException {
+        closeChannel();
+        if (settings.maxBackups() <= 0) {
+            Files.deleteIfExists(target);
+        } else {
+            Files.deleteIfExists(backup(target, settings.maxBackups()));
+            for (int index = settings.maxBackups() - 1; index >= 1; index--) {
+                Path source = backup(target, index);
+                if (Files.exists(source)) {
+                    Files.move(source, backup(target, index + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(target, backup(target, 1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        open(target);
+    }
+
+    private static Path backup(Path target, int index) {
+        return target.resolveSibling(target.getFileName() + "." + index); //$NON-NLS-1$
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing left to flush
+        }
+        channel = null;
+        size = 0;
+    }
+
+    private void reportFailure(IOException e) {
+        // Reported once per failure streak: the logger may be writing to this very file
+        if (!failed) {
+            failed = true;
+            System.err.println("Failed to write log file " + file + ": " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
+    /** Строка о записях, отброшенных с прошлого отчёта, или {@code null}. */
+    private String dropNotice() {
+        StringBuilder counts = null;
+        long total = 0;
+        for (VibeLogger.Level level : VibeLogger.Level.values()) {
+            long current = dropped.get(level.ordinal());
+            long delta = current - reportedDrops[level.ordinal()];
+            if (delta == 0) {
+                continue;
+            }
+            reportedDrops[level.ordinal()] = current;
+            total += delta;
+            counts = counts == null ? new StringBuilder() : counts.append(", "); //$NON-NLS-1$
+            counts.append(level.name()).append('=').append(delta);
+        }
+        if (counts == null) {
+            return null;
+        }
+        return "[" + TIMESTAMP_FORMAT.format(LocalDateTime.now()) + "] [WARN] [AsyncLogAppender] " //$NON-NLS-1$ //$NON-NLS-2$
+                + "Dropped " + total + " log entries on queue overflow (" + counts + ")\n"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    /**
+     * Параметры очереди и ротации.
+     *
+     * @param flushIntervalMillis как часто поток записи забирает очередь
+     * @param queueCapacity ёмкость очереди
+     * @param maxFileBytes размер файла для ротации, {@code 0} — без ротации по размеру
+     * @param maxBackups сколько ротированных файлов хранить
+     * @param dailyRotation ротировать ли файл при смене даты
+     */
+    public record Settings(long flushIntervalMillis, int queueCapacity, long maxFileBytes, int maxBackups,
+            boolean dailyRotation) {
+
+        public Settings {
+            flushIntervalMillis = Math.max(1L, flushIntervalMillis);
+            queueCapacity = Math.max(2, queueCapacity);
+            maxFileBytes = Math.max(0L, maxFileBytes);
+            maxBackups = Math.max(0, maxBackups);
+        }
+
+        public static Settings fromSystemProperties() {
+            return new Settings(
+                    Long.getLong(PROP_FLUSH_INTERVAL_MS, 200L).longValue(),
+                    Integer.getInteger(PROP_QUEUE_CAPACITY, 8192).intValue(),
+                    Long.getLong(PROP_MAX_FILE_BYTES, 10L * 1024 * 1024).longValue(),
+                    Integer.getInteger(PROP_MAX_BACKUPS, 3).intValue(),
+                    !Boolean.getBoolean(PROP_NO_DAILY_ROTATION));
+        }
+    }
+}
@@ -12,7 +12,6 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -34,10 +33,13 @@ import org.osgi.framework.FrameworkUtil;
  * <p>Поддерживает:</p>
  * <ul>
  *   <li>Логирование в Eclipse log</li>
- *   <li>Логирование в файл</li>
+ *   <li>Логирование в файл с ротацией</li>
  *   <li>Callback для UI отображения</li>
  *   <li>Фильтрацию по уровню</li>
  * </ul>
+ *
+ * <p>Запись в файл и в Eclipse log выполняется асинхронно через {@link AsyncLogAppender}, поэтому
+ * логирование не блокирует UI-поток и потоки агента на вводе-выводе.</p>
  */
 public class VibeLogger {
 
@@ -123,10 +125,13 @@ public class VibeLogger {
         }
     }
 
-    private Level minLevel = Level.DEBUG;
-    private boolean logToEclipse = true;
-    private boolean logToFile = false;
-    private Path logFilePath;
+    private volatile Level minLevel = Level.DEBUG;
+    private volatile boolean logToEclipse = true;
+    private volatile boolean logToFile = false;
+    private volatile Path logFilePath;
+    private final AsyncLogAppender<LogEntry> appender = new AsyncLogAppender<>("vibe", //$NON-NLS-1$
+            entry -> entry.toString() + "\n", this::forwardToEclipse, //$NON-NLS-1$
+            AsyncLogAppender.Settings.fromSystemProperties());
     private final List<LogEntry> memoryLog = new CopyOnWriteArrayList<>();
     private final List<Consumer<LogEntry>> listeners = new CopyOnWriteArrayList<>();
 
@@ -170,6 +175,7 @@ public class VibeLogger {
      */
     public void setLogToFile(boolean enabled) {
         this.logToFile = enabled;
+        appender.setFile(enabled ? logFilePath : null);
     }
 
     /**
@@ -177,6 +183,9 @@ public class VibeLogger {
      */
     public void setLogFilePath(Path path) {
         this.logFilePath = path;
+        if (logToFile) {
+            appender.setFile(path);
+        }
     }
 
     /**
@@ -283,14 +292,37 @@ public class VibeLogger {
             }
         }
 
-        // Log to Eclipse
-        if (logToEclipse) {
-            logToEclipse(entry);
+        // Log to Eclipse and file on the writer thread
+        if (logToEclipse || logToFile) {
+            appender.append(level, entry);
         }
+    }
 
-        // Log to file
-        if (logToFile) {
-            logToFile(entry);
+    /**
+     * Записывает в файл и Eclipse log все записи, ожидающие в очереди.
+     */
+    public void flush() {
+        appender.flush();
+    }
+
+    /**
+     * Останавливает поток записи, записывает очередь и закрывает лог-файл; вызывается при
+     * остановке плагина. Последующие записи в файл и Eclipse log не попадают.
+     */
+    public void shutdown() {
+        appender.close();
+    }
+
+    /**
+     * Возвращает число записей, отброшенных из-за переполнения очереди записи.
+     */
+    public long getDroppedEntryCount() {
+        return appender.getDroppedCount();
+    }
+
+    private void forwardToEclipse(LogEntry entry) {
+        if (logToEclipse) {
+            logToEclipse(entry);
         }
     }
 
@@ -326,20 +358,6 @@ public class VibeLogger {
         }
     }
 
-    private void logToFile(LogEntry entry) {
-        if (logFilePath == null) {
-            return;
-        }
-
-        try {
-            Files.writeString(logFilePath, entry.toString() + "\n", //$NON-NLS-1$
-                    StandardOpenOption.CREATE,
-                    StandardOpenOption.APPEND);
-        } catch (IOException e) {
-            // Ignore file write errors
-        }
-    }
-
     // --- Memory log access ---
 
     /**
@@ -373,7 +391,9 @@ public class VibeLogger {
      * Очищает лог-файл.
      */
     public void clearLogFile() {
-        if (logFilePath != null) {
+        if (logToFile) {
+            appender.clear();
+        } else if (logFilePath != null) {
             try {
                 Files.deleteIfExists(logFilePath);
             } catch (IOException e) {
@@ -11,16 +11,25 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import com.codepilot1c.core.logging.VibeLogger;
 import com.codepilot1c.core.mcp.client.McpClient;
 import com.codepilot1c.core.mcp.config.McpServerConfig;
 import com.codepilot1c.core.mcp.config.McpServerConfigStore;
+import com.codepilot1c.core.mcp.model.McpServerCapabilities;
 import com.codepilot1c.core.mcp.model.McpServerState;
 import com.codepilot1c.core.mcp.model.McpTool;
 import com.codepilot1c.core.mcp.transport.IMcpTransport;
@@ -32,11 +41,32 @@ import com.codepilot1c.core.tools.ToolRegistry;
  *
  * <p>This class handles starting/stopping MCP servers and registering
  * their tools with the ToolRegistry.</p>
+ *
+ * <p>At startup the last known tool catalog of each server is loaded from
+ * {@link McpToolCatalogCache} and registered immediately, so tool registration
+ * does not wait for external processes or HTTP sessions. Servers are then
+ * connected in the background, or on the first tool call when the
+ * {@value #PROP_CONNECT_MODE} system property is {@code lazy}. Once connected,
+ * and on every {@code notifications/tools/list_changed}, the live tool list is
+ * diffed against the registered one and only the changed tools are
+ * re-registered. A server without a cached catalog is always connected at
+ * startup, since its tools are not known otherwise.</p>
+ *
+ * <p>Cached tools of a server that cannot be started are unregistered when a
+ * background start fails, or after {@value #MAX_LAZY_START_FAILURES} consecutive
+ * failed starts triggered by tool calls, so the model stops seeing tools that
+ * cannot run.</p>
  */
 public class McpServerManager {
 
     private static final VibeLogger.CategoryLogger LOG = VibeLogger.forClass(McpServerManager.class);
 
+    /** System property selecting when servers with a cached catalog connect: {@code background} or {@code lazy}. */
+    public static final String PROP_CONNECT_MODE = "codepilot1c.mcp.connect"; //$NON-NLS-1$
+
+    /** Consecutive failed starts triggered by tool calls after which cached tools are unregistered. */
+    static final int MAX_LAZY_START_FAILURES = 3;
+
     private static McpServerManager instance;
 
     private final Map<String, McpClient> clients = new ConcurrentHashMap<>();
@@ -44,7 +74,12 @@ public class McpServerManager {
     private final Map<String, String> serverErrors = new ConcurrentHashMap<>();
     private final Map<String, CompletableFuture<McpClient>> startingServers = new ConcurrentHashMap<>();
     private final List<IMcpServerListener> listeners = new CopyOnWriteArrayList<>();
-    private final McpTransportFactory transportFactory = new McpTransportFactory();
+    private final Function<McpServerConfig, IMcpTransport> transportFactory;
+    private final McpToolCatalogCache catalogCache;
+    private final Supplier<ToolRegistry> toolRegistry;
+    private final Map<String, ServerTools> registeredTools = new ConcurrentHashMap<>();
+    private final Map<String, MetricsHolder> metrics = new ConcurrentHashMap<>();
+    private volatile long startupTimeMs = -1;
 
     /**
      * Returns the singleton instance.
@@ -59,17 +94,57 @@ public class McpServerManager {
     }
 
     private McpServerManager() {
+        this(McpToolCatalogCache.openDefault(), new McpTransportFactory()::create, ToolRegistry::getInstance);
+    }
+
+    /**
+     * Creates a manager with explicit collaborators; used by tests.
+     *
+     * @param catalogCache the tool catalog cache
+     * @param transportFactory creates the transport of a server
+     * @param toolRegistry supplies the registry tools are registered in
+     */
+    McpServerManager(McpToolCatalogCache catalogCache, Function<McpServerConfig, IMcpTransport> transportFactory,
+            Supplier<ToolRegistry> toolRegistry) {
+        this.catalogCache = catalogCache;
+        this.transportFactory = transportFactory;
+        this.toolRegistry = toolRegistry;
     }
 
     /**
      * Starts all enabled MCP servers.
      */
     public void startEnabledServers() {
-        List<McpServerConfig> configs = McpServerConfigStore.getInstance().getEnabledServers();
+        boolean lazy = "lazy".equals(System.getProperty(PROP_CONNECT_MODE, "background") //$NON-NLS-1$ //$NON-NLS-2$
+            .trim().toLowerCase(Locale.ROOT));
+        startServers(McpServerConfigStore.getInstance().getEnabledServers(), lazy);
+    }
+
+    /**
+     * Registers cached tools of the given servers and connects those that are not
+     * left to connect on their first tool call.
+     *
+     * @param configs the servers to start
+     * @param lazy whether servers with a cached catalog connect on first tool call
+     */
+    void startServers(List<McpServerConfig> configs, boolean lazy) {
+        long startedAt = System.nanoTime();
         LOG.info("Starting %d enabled MCP servers", configs.size());
+        int cached = 0;
         for (McpServerConfig config : configs) {
-            startServer(config);
+            boolean catalogHit = registerCachedTools(config);
+            if (catalogHit) {
+                cached++;
+            }
+            if (catalogHit && lazy) {
+                LOG.info("MCP server '%s' will connect on first tool call", config.getName());
+            } else {
+                startServer(config, true);
+            }
         }
+        startupTimeMs = (System.nanoTime() - startedAt) / 1_000_000;
+        LOG.info("MCP tool registration finished in %d ms (%d of %d servers from cached catalog)",
+            startupTimeMs, cached, configs.size());
     }
 
     /**
@@ -79,6 +154,18 @@ public class McpServerManager {
      * @return a future containing the client
      */
     public CompletableFuture<McpClient> startServer(McpServerConfig config) {
+        return startServer(config, true);
+    }
+
+    /**
+     * Starts a server, either in the background or for a tool call waiting on it.
+     *
+     * <p>A failed background start unregisters the server's cached tools right away;
+     * a failed start for a tool call does so only after
+     * {@value #MAX_LAZY_START_FAILURES} consecutive failures, so that one transient
+     * error does not drop the tools from the model's view.</p>
+     */
+    private synchronized CompletableFuture<McpClient> startServer(McpServerConfig config, boolean background) {
         String serverId = config.getId();
 
         // Already running?
@@ -89,7 +176,7 @@ public class McpServerManager {
 
         // Prevent concurrent starts of the same server
         CompletableFuture<McpClient> existingStart = startingServers.get(serverId);
-        if (existingStart != null) {
+        if (existingStart != null && !existingStart.isDone()) {
             LOG.debug("MCP server '%s' already starting, waiting...", config.getName());
             return existingStart;
         }
@@ -101,6 +188,7 @@ public class McpServerManager {
         serverErrors.remove(serverId);
         notifyStateChanged(config, McpServerState.STARTING);
 
+        long startedAt = System.nanoTime();
         IMcpTransport transport = createTransport(config);
         McpClient client = new McpClient(
             config.getName(),
@@ -121,6 +209,9 @@ public class McpServerManager {
             .thenApply(v -> {
                 clients.put(serverId, client);
                 registerToolsFromServer(config, client);
+                MetricsHolder holder = metricsFor(serverId);
+                holder.connectMs = (System.nanoTime() - startedAt) / 1_000_000;
+                holder.startFailures.set(0);
                 serverStates.put(serverId, McpServerState.RUNNING);
                 notifyStateChanged(config, McpServerState.RUNNING);
                 LOG.info("MCP server '%s' started with %d tools",
@@ -133,13 +224,18 @@ public class McpServerManager {
                 serverErrors.put(serverId, e.getMessage());
                 notifyStateChanged(config, McpServerState.ERROR);
                 client.close();
+                int failures = metricsFor(serverId).startFailures.incrementAndGet();
+                if ((background || failures >= MAX_LAZY_START_FAILURES) && unregisterToolsFromServer(serverId)) {
+                    LOG.warn("Unregistered cached tools of MCP server '%s' after %d failed start(s)",
+                        config.getName(), failures);
+                }
                 return null;
-            })
-            .whenComplete((result, error) -> {
-                startingServers.remove(serverId);
             });
 
+        // Tool calls may trigger a lazy start concurrently, so register the
+        // pending start before its completion can remove it
         startingServers.put(serverId, startFuture);
+        startFuture.whenComplete((result, error) -> startingServers.remove(serverId, startFuture));
         return startFuture;
     }
 
@@ -150,25 +246,56 @@ public class McpServerManager {
      */
     public void stopServer(String serverId) {
         McpClient client = clients.remove(serverId);
+        boolean hadTools = unregisterToolsFromServer(serverId);
         if (client != null) {
-            unregisterToolsFromServer(serverId, client);
             client.close();
+            LOG.info("MCP server stopped: %s", client.getServerName());
+        }
+        if (client != null || hadTools) {
             serverStates.put(serverId, McpServerState.STOPPED);
             serverErrors.remove(serverId);
-            LOG.info("MCP server stopped: %s", client.getServerName());
             notifyServerStopped(serverId);
         }
     }
 
     /**
-     * Stops all MCP servers.
+     * Stops all MCP servers, including those whose cached tools are
+     * registered but which have not connected yet.
      */
     public void stopAllServers() {
-        for (String serverId : new ArrayList<>(clients.keySet())) {
+        List<String> serverIds = new ArrayList<>(clients.keySet());
+        for (String serverId : registeredTools.keySet()) {
+            if (!serverIds.contains(serverId)) {
+                serverIds.add(serverId);
+            }
+        }
+        for (String serverId : serverIds) {
+            LOG.info("MCP server '%s' metrics: %s", serverId, getServerMetrics(serverId));
             stopServer(serverId);
         }
     }
 
+    /**
+     * Returns the time {@link #startEnabledServers()} took to register the
+     * tools of all enabled servers, not counting background connections.
+     *
+     * @return startup time in milliseconds, or -1 if servers were not started yet
+     */
+    public long getStartupTimeMs() {
+        return startupTimeMs;
+    }
+
+    /**
+     * Returns startup and first-call metrics of a server.
+     *
+     * @param serverId the server ID
+     * @return the metrics
+     */
+    public ServerMetrics getServerMetrics(String serverId) {
+        MetricsHolder holder = metrics.get(serverId);
+        return holder != null ? holder.snapshot() : ServerMetrics.NONE;
+    }
+
     /**
      * Gets the state of a server.
      *
@@ -237,40 +364,109 @@ public class McpServerManager {
     }
 
     private IMcpTransport createTransport(McpServerConfig config) {
-        return transportFactory.create(config);
+        return transportFactory.apply(config);
     }
 
-    private void registerToolsFromServer(McpServerConfig config, McpClient client) {
-        ToolRegistry registry = ToolRegistry.getInstance();
-        String prefix = "mcp_" + client.getServerName().replaceAll("[^a-zA-Z0-9_]", "_").toLowerCase() + "_";
+    private boolean registerCachedTools(McpServerConfig config) {
+        long startedAt = System.nanoTime();
+        Optional<McpToolCatalogCache.Catalog> catalog = catalogCache.load(config);
+        MetricsHolder holder = metricsFor(config.getId());
+        holder.catalogHit = catalog.isPresent();
+        if (catalog.isEmpty()) {
+            return false;
+        }
+        holder.catalogVersion = catalog.get().serverVersion();
+        holder.cachedTools = catalog.get().tools().size();
+        syncTools(config, catalog.get().tools());
+        LOG.info("Registered %d cached tools of MCP server '%s' in %d ms",
+            holder.cachedTools, config.getName(), (System.nanoTime() - startedAt) / 1_000_000);
+        return true;
+    }
 
-        // Register initial tools
-        for (McpTool mcpTool : client.getTools()) {
-            McpToolAdapter adapter = new McpToolAdapter(
-                    client, mcpTool, config.isTrustedReadOnlyTool(mcpTool.getName()));
-            registry.registerDynamicTool(adapter, adapter.getDynamicToolCapability());
-            LOG.debug("Registered MCP tool: %s", adapter.getName());
+    private void registerToolsFromServer(McpServerConfig config, McpClient client) {
+        McpToolCatalogCache.CatalogDiff diff = syncTools(config, client.getTools());
+        String serverVersion = serverVersionOf(client);
+        MetricsHolder holder = metricsFor(config.getId());
+        if (holder.catalogHit && !Objects.equals(holder.catalogVersion, serverVersion)) {
+            LOG.info("MCP server '%s' version changed from %s to %s",
+                config.getName(), holder.catalogVersion, serverVersion);
+        }
+        if (!diff.isEmpty() || !holder.catalogHit || !Objects.equals(holder.catalogVersion, serverVersion)) {
+            catalogCache.store(config, serverVersion, client.getTools());
+            holder.catalogVersion = serverVersion;
         }
 
-        // Set listener for dynamic tools updates
+        // Re-sync incrementally on list_changed notifications
         client.setToolsChangedListener(newTools -> {
-            LOG.info("Re-registering tools for %s due to list_changed notification", client.getServerName());
-            // Unregister old tools
-            registry.unregisterToolsByPrefix(prefix);
-            // Register new tools
-            for (McpTool mcpTool : newTools) {
-                McpToolAdapter adapter = new McpToolAdapter(
-                        client, mcpTool, config.isTrustedReadOnlyTool(mcpTool.getName()));
-                registry.registerDynamicTool(adapter, adapter.getDynamicToolCapability());
-                LOG.debug("Re-registered MCP tool: %s", adapter.getName());
+            McpToolCatalogCache.CatalogDiff changes = syncTools(config, newTools);
+            LOG.info("Tools of %s changed: %d added, %d updated, %d removed",
+                client.getServerName(), changes.added().size(), changes.changed().size(),
+                changes.removed().size());
+            if (!changes.isEmpty()) {
+                catalogCache.store(config, serverVersionOf(client), newTools);
             }
         });
     }
 
-    private void unregisterToolsFromServer(String serverId, McpClient client) {
-        ToolRegistry registry = ToolRegistry.getInstance();
-        String prefix = "mcp_" + client.getServerName().replaceAll("[^a-zA-Z0-9_]", "_").toLowerCase() + "_";
-        registry.unregisterToolsByPrefix(prefix);
+    private synchronized McpToolCatalogCache.CatalogDiff syncTools(McpServerConfig config, List<McpTool> tools) {
+        ToolRegistry registry = toolRegistry.get();
+        ServerTools known = registeredTools.computeIfAbsent(config.getId(),
+            id -> new ServerTools(toolPrefix(config.getName())));
+        McpToolCatalogCache.CatalogDiff diff = McpToolCatalogCache.diff(known.tools.values(), tools);
+        for (String name : diff.removed()) {
+            registry.unregisterDynamicTool(known.prefix + name);
+            known.tools.remove(name);
+            LOG.debug("Unregistered MCP tool: %s", known.prefix + name);
+        }
+        List<McpTool> updated = new ArrayList<>(diff.added());
+        updated.addAll(diff.changed());
+        for (McpTool mcpTool : updated) {
+            McpToolAdapter adapter = new McpToolAdapter(config.getName(), () -> connection(config), mcpTool,
+                config.isTrustedReadOnlyTool(mcpTool.getName()), ms -> recordCall(config, ms));
+            registry.registerDynamicTool(adapter, adapter.getDynamicToolCapability());
+            known.tools.put(mcpTool.getName(), mcpTool);
+            LOG.debug("Registered MCP tool: %s", adapter.getName());
+        }
+        return diff;
+    }
+
+    private CompletableFuture<McpClient> connection(McpServerConfig config) {
+        McpClient client = clients.get(config.getId());
+        if (client != null) {
+            return CompletableFuture.completedFuture(client);
+        }
+        return startServer(config, false).thenCompose(started -> started != null
+            ? CompletableFuture.completedFuture(started)
+            : CompletableFuture.failedFuture(new IllegalStateException("MCP server '" + config.getName() //$NON-NLS-1$
+                + "' is not available: " + serverErrors.get(config.getId())))); //$NON-NLS-1$
+    }
+
+    private void recordCall(McpServerConfig config, long latencyMs) {
+        if (metricsFor(config.getId()).firstCallLatencyMs.compareAndSet(-1, latencyMs)) {
+            LOG.info("First tool call to MCP server '%s' took %d ms", config.getName(), latencyMs);
+        }
+    }
+
+    private synchronized boolean unregisterToolsFromServer(String serverId) {
+        ServerTools known = registeredTools.remove(serverId);
+        if (known == null) {
+            return false;
+        }
+        toolRegistry.get().unregisterToolsByPrefix(known.prefix);
+        return true;
+    }
+
+    private MetricsHolder metricsFor(String serverId) {
+        return metrics.computeIfAbsent(serverId, id -> new MetricsHolder());
+    }
+
+    private static String serverVersionOf(McpClient client) {
+        McpServerCapabilities capabilities = client.getCapabilities();
+        return capabilities != null ? capabilities.getServerVersion() : null;
+    }
+
+    private static String toolPrefix(String serverName) {
+        return "mcp_" + serverName.replaceAll("[^a-zA-Z0-9_]", "_").toLowerCase() + "_";
     }
 
     private void notifyStateChanged(McpServerConfig config, McpServerState state) {
@@ -292,4 +488,43 @@ public class McpServerManager {
             }
         }
     }
+
+    /**
+     * Startup and first-call metrics of one server.
+     *
+     * @param catalogHit whether tools were registered from the cached catalog
+     * @param cachedTools number of tools registered from the cached catalog
+     * @param connectMs time to connect, initialize and list tools, or -1 if not connected yet
+     * @param firstCallLatencyMs duration of the first tool call, including any connection it
+     *        waited for, or -1 if no tool was called yet
+     */
+    public record ServerMetrics(boolean catalogHit, int cachedTools, long connectMs, long firstCallLatencyMs) {
+
+        /** Metrics of a server that was never started. */
+        public static final ServerMetrics NONE = new ServerMetrics(false, 0, -1, -1);
+    }
+
+    private static final class ServerTools {
+
+        final String prefix;
+        final Map<String, McpTool> tools = new LinkedHashMap<>();
+
+        ServerTools(String prefix) {
+            this.prefix = prefix;
+        }
+    }
+
+    private static final class MetricsHolder {
+
+        volatile boolean catalogHit;
+        volatile int cachedTools;
+        volatile String catalogVersion;
+        volatile long connectMs = -1;
+        final AtomicLong firstCallLatencyMs = new AtomicLong(-1);
+        final AtomicInteger startFailures = new AtomicInteger();
+
+        ServerMetrics snapshot() {
+            return new ServerMetrics(catalogHit, cachedTools, connectMs, firstCallLatencyMs.get());
+        }
+    }
 }
@@ -11,6 +11,8 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
 
 import com.codepilot1c.core.mcp.client.McpClient;
 import com.codepilot1c.core.mcp.model.McpContent;
@@ -24,14 +26,17 @@ import com.codepilot1c.core.tools.ToolResult;
 /**
  * Adapts an MCP tool to the ITool interface.
  *
- * <p>This allows MCP tools to be used seamlessly with the existing tool system.</p>
+ * <p>This allows MCP tools to be used seamlessly with the existing tool system.
+ * An adapter may be created from a cached tool definition before the server is
+ * connected; the connection is then obtained when the tool is first executed.</p>
  */
 public class McpToolAdapter implements ITool {
 
-    private final McpClient client;
+    private final Supplier<CompletableFuture<McpClient>> connection;
     private final McpTool mcpTool;
     private final String serverName;
     private final DynamicToolCapability dynamicToolCapability;
+    private final LongConsumer callLatencyListener;
 
     /**
      * Creates a new adapter.
@@ -52,10 +57,27 @@ public class McpToolAdapter implements ITool {
      * @param locallyTrustedReadOnly exact local per-server/tool trust decision
      */
     public McpToolAdapter(McpClient client, McpTool mcpTool, boolean locallyTrustedReadOnly) {
-        this.client = client;
+        this(client.getServerName(), () -> CompletableFuture.completedFuture(client), mcpTool,
+                locallyTrustedReadOnly, null);
+    }
+
+    /**
+     * Creates an adapter whose client is resolved on each call, connecting the
+     * server on first use if needed.
+     *
+     * @param serverName server display name
+     * @param connection supplies the connected client
+     * @param mcpTool tool definition, possibly from the persisted catalog
+     * @param locallyTrustedReadOnly exact local per-server/tool trust decision
+     * @param callLatencyListener receives the duration of each call in milliseconds, may be null
+     */
+    McpToolAdapter(String serverName, Supplier<CompletableFuture<McpClient>> connection, McpTool mcpTool,
+            boolean locallyTrustedReadOnly, LongConsumer callLatencyListener) {
+        this.connection = connection;
         this.mcpTool = mcpTool;
-        this.serverName = client.getServerName();
+        this.serverName = serverName;
         this.dynamicToolCapability = dynamicToolCapabilityOf(mcpTool, locallyTrustedReadOnly);
+        this.callLatencyListener = callLatencyListener;
     }
 
     @Override
@@ -82,8 +104,15 @@ public class McpToolAdapter implements ITool {
     @Override
     public CompletableFuture<ToolResult> execute(Map<String, Object> params) {
         Map<String, Object> normalizedParams = normalizeParams(params);
-        return client.callTool(mcpTool.getName(), normalizedParams)
-            .thenCompose(this::convertResultAsync)
+        long startedAt = System.nanoTime();
+        return connection.get()
+            .thenCompose(client -> client.callTool(mcpTool.getName(), normalizedParams)
+                .thenCompose(result -> convertResultAsync(client, result)))
+            .whenComplete((result, error) -> {
+                if (callLatencyListener != null) {
+                    callLatencyListener.accept((System.nanoTime() - startedAt) / 1_000_000);
+                }
+            })
             .exceptionally(e -> {
                 String errorMsg = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
                 return ToolResult.failure("MCP tool error: " + errorMsg);
@@ -108,7 +137,7 @@ public class McpToolAdapter implements ITool {
         return normalized;
     }
 
-    private CompletableFuture<ToolResult> convertResultAsync(McpToolResult mcpResult) {
+    private CompletableFuture<ToolResult> convertResultAsync(McpClient client, McpToolResult mcpResult) {
         if (mcpResult.isError()) {
             return CompletableFuture.completedFuture(ToolResult.failure(extractErrorText(mcpResult)));
         }
@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.mcp;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.eclipse.core.runtime.IPath;
+
+import com.codepilot1c.core.internal.VibeCorePlugin;
+import com.codepilot1c.core.logging.VibeLogger;
+import com.codepilot1c.core.mcp.config.McpServerConfig;
+import com.codepilot1c.core.mcp.model.McpTool;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * Persists the last known tool catalog of each MCP server.
+ *
+ * <p>A catalog is stored per server and keyed by a hash of the server configuration, so editing
+ * the command, URL, headers or protocol settings invalidates it. The server-reported version is
+ * stored alongside and compared once the server is connected. The cache lets
+ * {@link McpServerManager} register tools before the server process or HTTP session exists.</p>
+ *
+ * <p>The directory defaults to {@code mcp-catalog} under the plugin state location and can be
+ * overridden with the {@value #PROP_CATALOG_DIR} system property.</p>
+ */
+public final class McpToolCatalogCache {
+
+    private static final VibeLogger.CategoryLogger LOG = VibeLogger.forClass(McpToolCatalogCache.class);
+
+    /** System property overriding the catalog directory. */
+    public static final String PROP_CATALOG_DIR = "codepilot1c.mcp.catalog.dir"; //$NON-NLS-1$
+
+    private static final String ROOT_DIR = "mcp-catalog"; //$NON-NLS-1$
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path directory;
+    private final Gson gson = new Gson();
+
+    /**
+     * Creates a cache stored in the given directory.
+     *
+     * @param directory catalog directory, created on first write
+     */
+    public McpToolCatalogCache(Path directory) {
+        this.directory = Objects.requireNonNull(directory, "directory"); //$NON-NLS-1$
+    }
+
+    /**
+     * Creates a cache in the default location.
+     *
+     * @return the cache
+     */
+    public static McpToolCatalogCache openDefault() {
+        return new McpToolCatalogCache(resolveDirectory());
+    }
+
+    /**
+     * Loads the catalog stored for a server if it was written for the same configuration.
+     *
+     * @param config the server configuration
+     * @return the catalog, or empty if missing, unreadable or written for another configuration
+     */
+    public Optional<Catalog> load(McpServerConfig config) {
+        Path file = fileFor(config);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try {
+            JsonObject json = JsonParser.parseString(Files.readString(file, StandardCharsets.UTF_8))
+                .getAsJsonObject();
+            if (json.get("format").getAsInt() != FORMAT_VERSION //$NON-NLS-1$
+                    || !configHash(config).equals(json.get("configHash").getAsString())) { //$NON-NLS-1$
+                LOG.debug("MCP tool catalog for '%s' is stale, ignoring", config.getName()); //$NON-NLS-1$
+                return Optional.empty();
+            }
+            List<McpTool> tools = new ArrayList<>();
+            for (JsonElement element : json.getAsJsonArray("tools")) { //$NON-NLS-1$
+                tools.add(gson.fromJson(element, McpTool.class));
+            }
+            JsonElement version = json.get("serverVersion"); //$NON-NLS-1$
+            return Optional.of(new Catalog(
+                version == null || version.isJsonNull() ? null : version.getAsString(),
+                json.get("savedAt").getAsLong(), //$NON-NLS-1$
+                tools));
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Failed to read MCP tool catalog %s: %s", file, e.getMessage()); //$NON-NLS-1$
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the catalog of a connected server, replacing the previous one.
+     *
+     * @param config the server configuration
+     * @param serverVersion version from the server's {@code serverInfo}, may be {@code null}
+     * @param tools the tools the server currently lists
+     */
+    public void store(McpServerConfig config, String serverVersion, Collection<McpTool> tools) {
+        JsonObject json = new JsonObject();
+        json.addProperty("format", FORMAT_VERSION); //$NON-NLS-1$
+        json.addProperty("configHash", configHash(config)); //$NON-NLS-1$
+        json.addProperty("serverVersion", serverVersion); //$NON-NLS-1$
+        json.addProperty("savedAt", System.currentTimeMillis()); //$NON-NLS-1$
+        JsonArray items = new JsonArray();
+        for (McpTool tool : tools) {
+            items.add(gson.toJsonTree(tool));
+        }
+        json.add("tools", items); //$NON-NLS-1$
+
+        Path file = fileFor(config);
+        try {
+            Files.createDirectories(directory);
+            Path tmp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp"); //$NON-NLS-1$
+            try {
+                Files.writeString(tmp, gson.toJson(json), StandardCharsets.UTF_8);
+                try {
+                    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to store MCP tool catalog %s: %s", file, e.getMessage()); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Removes the catalog stored for a server.
+     *
+     * @param config the server configuration
+     */
+    public void remove(McpServerConfig config) {
+        try {
+            Files.deleteIfExists(fileFor(config));
+        } catch (IOException e) {
+            LOG.warn("Failed to remove MCP tool catalog for '%s': %s", config.getName(), e.getMessage()); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Hashes the parts of a configuration that determine which server is reached and how.
+     * The {@code enabled} flag is excluded so toggling a server keeps its catalog.
+     *
+     * @param config the server configuration
+     * @return hex SHA-256 of the configuration
+     */
+    static String configHash(McpServerConfig config) {
+        JsonObject json = config.toJson();
+        json.remove("enabled"); //$NON-NLS-1$
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+            return HexFormat.of().formatHex(digest.digest(json.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Compares two tool lists by name and full definition.
+     *
+     * @param previous tools known before
+     * @param current tools listed now
+     * @return the tools to add, remove and replace
+     */
+    static CatalogDiff diff(Collection<McpTool> previous, Collection<McpTool> current) {
+        Gson gson = new Gson();
+        Map<String, McpTool> before = byName(previous);
+        Map<String, McpTool> after = byName(current);
+        List<McpTool> added = new ArrayList<>();
+        List<McpTool> changed = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        for (Map.Entry<String, McpTool> entry : after.entrySet()) {
+            McpTool old = before.get(entry.getKey());
+            if (old == null) {
+                added.add(entry.getValue());
+            } else if (!gson.toJsonTree(old).equals(gson.toJsonTree(entry.getValue()))) {
+                changed.add(entry.getValue());
+            }
+        }
+        for (String name : before.keySet()) {
+            if (!after.containsKey(name)) {
+                removed.add(name);
+            }
+        }
+        return new CatalogDiff(added, changed, removed);
+    }
+
+    private static Map<String, McpTool> byName(Collection<McpTool> tools) {
+        Map<String, McpTool> map = new LinkedHashMap<>();
+        if (tools != null) {
+            for (McpTool tool : tools) {
+                if (tool != null && tool.getName() != null) {
+                    map.put(tool.getName(), tool);
+                }
+            }
+        }
+        return map;
+    }
+
+    private Path fileFor(McpServerConfig config) {
+        String id = config.getId() != null ? config.getId() : config.getName();
+        return directory.resolve(id.replaceAll("[^a-zA-Z0-9_.-]", "_") + ".json"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    private static Path resolveDirectory() {
+        String override = System.getProperty(PROP_CATALOG_DIR);
+        if (override != null && !override.isBlank()) {
+            return Path.of(override);
+        }
+        VibeCorePlugin plugin = VibeCorePlugin.getDefault();
+        if (plugin != null) {
+            IPath stateLocation = plugin.getStateLocation();
+            if (stateLocation != null) {
+                return Path.of(stateLocation.toOSString()).resolve(ROOT_DIR);
+            }
+        }
+        return Path.of(System.getProperty("user.home"), ".codepilot1c", ROOT_DIR); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * A stored tool catalog.
+     *
+     * @param serverVersion version the server reported when the catalog was written, may be {@code null}
+     * @param savedAt write time in epoch milliseconds
+     * @param tools the tools
+     */
+    public record Catalog(String serverVersion, long savedAt, List<McpTool> tools) {
+
+        public Catalog {
+            tools = List.copyOf(tools);
+        }
+    }
+
+    /**
+     * Difference between two tool lists.
+     *
+     * @param added tools that are new
+     * @param changed tools whose definition changed
+     * @param removed names of tools that disappeared
+     */
+    record CatalogDiff(List<McpTool> added, List<McpTool> changed, List<String> removed) {
+
+        boolean isEmpty() {
+            return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+        }
+    }
+}
@@ -13,8 +13,10 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
@@ -34,11 +36,13 @@ import com.codepilot1c.core.remote.RemoteEvent;
 /**
  * HTTP handlers for the embedded remote web companion.
  */
-final class RemoteWebController implements AgentSessionController.RemoteEventListener {
+final class RemoteWebController {
 
     private static final VibeLogger.CategoryLogger LOG = VibeLogger.forClass(RemoteWebController.class);
     private static final String SESSION_COOKIE = "CP_REMOTE_SESSION"; //$NON-NLS-1$
     private static final Duration SESSION_TTL = Duration.ofHours(8);
+    /** Events an SSE client may lag behind before it is disconnected and left to resume by sequence. */
+    private static final int SSE_QUEUE_CAPACITY = 4_096;
 
     private final Gson gson = new Gson();
     private final McpHostOAuthService oauthService;
@@ -54,7 +58,6 @@ final class RemoteWebController implements AgentSessionController.RemoteEventLis
         this.oauthService = oauthService;
         this.authMode = authMode;
         this.controller = controller;
-        this.controller.addRemoteEventListener(this, 0L);
     }
 
     HttpHandler staticHandler() {
@@ -66,7 +69,6 @@ final class RemoteWebController implements AgentSessionController.RemoteEventLis
     }
 
     void dispose() {
-        controller.removeRemoteEventListener(this);
         for (SseConnection connection : new ArrayList<>(sseConnections)) {
             connection.close();
         }
@@ -75,16 +77,6 @@ final class RemoteWebController implements AgentSessionController.RemoteEventLis
         sessions.clear();
     }
 
-    @Override
-    public void onRemoteEvent(RemoteEvent event) {
-        for (SseConnection connection : new ArrayList<>(sseConnections)) {
-            if (!connection.send(event)) {
-                sseConnections.remove(connection);
-                connection.close();
-            }
-        }
-    }
-
     private void handleStatic(HttpExchange exchange) throws IOException {
         String path = exchange.getRequestURI() != null ? exchange.getRequestURI().getPath() : "/remote/"; //$NON-NLS-1$
         if ("/remote".equals(path)) { //$NON-NLS-1$
@@ -227,6 +219,7 @@ final class RemoteWebController implements AgentSessionController.RemoteEventLis
         exchange.sendResponseHeaders(200, 0);
         SseConnection connection = new SseConnection(exchange.getResponseBody(), authSession);
         sseConnections.add(connection);
+        connection.start();
         controller.addRemoteEventListener(connection, fromSequence);
         trace(authSession, TraceEventType.REMOTE_COMMAND, Map.of("path", "/remote/api/events", "fromSequence", Long.valueOf(fromSequence))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
     }
@@ -594,21 +587,56 @@ final class RemoteWebController implements AgentSessionController.RemoteEventLis
         }
     }
 
-    private final class SseConnection implements AgentSessionController.RemoteEventListener {
+    /**
+     * One event stream. The controller only enqueues events; a dedicated writer thread sends
+     * them, so a slow client cannot hold up event publication. A client that falls more than
+     * {@link #SSE_QUEUE_CAPACITY} events behind is disconnected and resumes from its last
+     * sequence when it reconnects.
+     */
+    private final class SseConnection implements AgentSessionController.RemoteEventListener, Runnable {
         private final OutputStream outputStream;
         private final RemoteAuthSession authSession;
+        private final BlockingQueue<RemoteEvent> queue = new LinkedBlockingQueue<>(SSE_QUEUE_CAPACITY);
+        private final Thread writer;
+        private volatile boolean closed;
 
         private SseConnection(OutputStream outputStream, RemoteAuthSession authSession) {
             this.outputStream = outputStream;
             this.authSession = authSession;
+            this.writer = new Thread(this, "codepilot1c-remote-sse"); //$NON-NLS-1$
+            this.writer.setDaemon(true);
+        }
+
+        private void start() {
+            writer.start();
         }
 
         @Override
         public void onRemoteEvent(RemoteEvent event) {
-            send(event);
+            if (closed || queue.offer(event)) {
+                return;
+            }
+            LOG.warn("SSE client %s fell behind at sequence %d, disconnecting", //$NON-NLS-1$
+                    authSession.clientId, Long.valueOf(event.getSequence()));
+            trace(authSession, TraceEventType.REMOTE_COMMAND, Map.of("action", "sse_overflow")); //$NON-NLS-1$ //$NON-NLS-2$
+            close();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!closed) {
+                    if (!send(queue.take())) {
+                        break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            close();
         }
 
-        private synchronized boolean send(RemoteEvent event) {
+        private boolean send(RemoteEvent event) {
             try {
                 String payload = "event: " + event.getType() + "\n" //$NON-NLS-1$ //$NON-NLS-2$
                         + "data: " + gson.toJson(event) + "\n\n"; //$NON-NLS-1$ //$NON-NLS-2$
@@ -616,12 +644,22 @@ final class RemoteWebController implements AgentSessionController.RemoteEventLis
                 outputStream.flush();
                 return true;
             } catch (IOException e) {
-                trace(authSession, TraceEventType.REMOTE_COMMAND, Map.of("action", "sse_disconnect")); //$NON-NLS-1$ //$NON-NLS-2$
+                if (!closed) {
+                    trace(authSession, TraceEventType.REMOTE_COMMAND, Map.of("action", "sse_disconnect")); //$NON-NLS-1$ //$NON-NLS-2$
+                }
                 return false;
             }
         }
 
         private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            controller.removeRemoteEventListener(this);
+            sseConnections.remove(this);
+            queue.clear();
+            writer.interrupt();
             try {
                 outputStream.close();
             } catch (IOException e) {
@@ -12,6 +12,7 @@
  * <ul>
  *   <li>{@link com.codepilot1c.core.mcp.McpServerManager} - Server lifecycle management</li>
  *   <li>{@link com.codepilot1c.core.mcp.McpToolAdapter} - Adapts MCP tools to ITool</li>
+ *   <li>{@link com.codepilot1c.core.mcp.McpToolCatalogCache} - Persisted tool catalogs for startup without connecting</li>
  *   <li>{@link com.codepilot1c.core.mcp.IMcpServerListener} - Server events</li>
  * </ul>
  *
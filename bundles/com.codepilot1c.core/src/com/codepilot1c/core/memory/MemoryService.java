@@ -21,8 +21,8 @@ import com.codepilot1c.core.memory.prompt.MemoryPromptContributor;
 import com.codepilot1c.core.memory.prompt.PlatformKnowledgeContributor;
 import com.codepilot1c.core.memory.prompt.ProjectMetadataContributor;
 import com.codepilot1c.core.memory.prompt.PromptContextContributorRegistry;
+import com.codepilot1c.core.memory.search.Bm25MemorySearchIndex;
 import com.codepilot1c.core.memory.search.IMemorySearchIndex;
-import com.codepilot1c.core.memory.search.InMemorySearchIndex;
 import com.codepilot1c.core.memory.store.IMemoryStore;
 import com.codepilot1c.core.memory.store.IMemoryStore.MemoryStoreException;
 import com.codepilot1c.core.memory.store.MarkdownMemoryStore;
@@ -41,8 +41,8 @@ public final class MemoryService {
     /** Cached store instances to prevent race conditions on parallel writes. */
     private static final ConcurrentHashMap<String, IMemoryStore> storeCache = new ConcurrentHashMap<>();
 
-    /** Search index for memory entries (Jaccard-based dedup + search). */
-    private static volatile IMemorySearchIndex searchIndex = new InMemorySearchIndex();
+    /** Search index for memory entries (BM25 search, Jaccard dedup). */
+    private static volatile IMemorySearchIndex searchIndex = new Bm25MemorySearchIndex();
 
     /** Jaccard overlap threshold for deduplication. */
     private static final double DEDUP_THRESHOLD = 0.7;
@@ -179,7 +179,7 @@ public final class MemoryService {
     }
 
     /**
-     * Sets a custom search index implementation (e.g., BM25 from rag bundle).
+     * Sets a custom search index implementation (e.g., a Lucene-backed index from the rag bundle).
      *
      * @param index the search index to use
      */
@@ -195,7 +195,7 @@ public final class MemoryService {
     static void reset() {
         initialized = false;
         storeCache.clear();
-        searchIndex = new InMemorySearchIndex();
+        searchIndex = new Bm25MemorySearchIndex();
         PromptContextContributorRegistry.getInstance().clear();
         ProjectMetadataDetector.invalidateAll();
     }
@@ -8,6 +8,7 @@
 package com.codepilot1c.core.memory.compaction;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -15,7 +16,6 @@ import org.eclipse.core.runtime.Platform;
 
 import com.codepilot1c.core.model.LlmMessage;
 import com.codepilot1c.core.model.LlmRequest;
-import com.codepilot1c.core.model.LlmResponse;
 import com.codepilot1c.core.provider.ILlmProvider;
 import com.codepilot1c.core.provider.LlmProviderRegistry;
 import com.codepilot1c.core.settings.VibePreferenceConstants;
@@ -79,9 +79,31 @@ public final class LlmCompactionService {
      * @return compacted summary, or {@code null} if compaction is not possible
      */
     public String compact(List<LlmMessage> messages, int maxTokens) {
-        if (!isEnabled() || messages == null || messages.isEmpty()) {
+        try {
+            return compactAsync(messages, maxTokens).get(COMPACTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            // Fall back to null — caller uses truncation instead
+            Platform.getLog(LlmCompactionService.class)
+                    .warn("LLM compaction failed, falling back to truncation", e); //$NON-NLS-1$
             return null;
         }
+    }
+
+    /**
+     * Starts LLM summarization of a conversation history without blocking the caller.
+     *
+     * <p>Uses the model configured in {@link VibePreferenceConstants#PREF_COMPACTION_MODEL} when
+     * set, so background compaction can run on a cheaper model than the chat itself. The returned
+     * future never completes exceptionally: failures and timeouts complete it with {@code null}.</p>
+     *
+     * @param messages  the conversation messages to compact
+     * @param maxTokens target token budget for the compacted result
+     * @return future summary, completing with {@code null} if compaction is not possible
+     */
+    public CompletableFuture<String> compactAsync(List<LlmMessage> messages, int maxTokens) {
+        if (!isEnabled() || messages == null || messages.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
 
         String transcript = buildTranscript(messages);
         String compactionPrompt = buildCompactionPrompt(transcript, maxTokens);
@@ -89,26 +111,51 @@ public final class LlmCompactionService {
         try {
             ILlmProvider provider = LlmProviderRegistry.getInstance().getActiveProvider();
             if (provider == null || !provider.isConfigured()) {
-                return null;
+                return CompletableFuture.completedFuture(null);
             }
 
-            LlmRequest request = LlmRequest.builder()
+            LlmRequest.Builder requestBuilder = LlmRequest.builder()
                     .systemMessage("You are a conversation compactor. Produce a concise summary.") //$NON-NLS-1$
                     .userMessage(compactionPrompt)
-                    .build();
-
-            LlmResponse response = provider.complete(request)
-                    .get(COMPACTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
-            if (response != null && response.getContent() != null && !response.getContent().isBlank()) {
-                return response.getContent().strip();
+                    .stream(false);
+            // Empty compaction model → fall back to the active provider's own configured model.
+            String compactionModel = getCompactionModel();
+            if (!compactionModel.isBlank()) {
+                requestBuilder.model(compactionModel);
             }
+
+            return provider.complete(requestBuilder.build())
+                    .orTimeout(COMPACTION_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .handle((response, error) -> {
+                        if (error != null) {
+                            Platform.getLog(LlmCompactionService.class)
+                                    .warn("LLM compaction failed, falling back to truncation", error); //$NON-NLS-1$
+                            return null;
+                        }
+                        if (response != null && response.getContent() != null
+                                && !response.getContent().isBlank()) {
+                            return response.getContent().strip();
+                        }
+                        return null;
+                    });
         } catch (Exception e) {
-            // Fall back to null — caller uses truncation instead
             Platform.getLog(LlmCompactionService.class)
                     .warn("LLM compaction failed, falling back to truncation", e); //$NON-NLS-1$
+            return CompletableFuture.completedFuture(null);
         }
+    }
 
-        return null;
+    private static String getCompactionModel() {
+        try {
+            String model = Platform.getPreferencesService()
+                    .getString("com.codepilot1c.core", //$NON-NLS-1$
+                            VibePreferenceConstants.PREF_COMPACTION_MODEL,
+                            VibePreferenceConstants.PREF_COMPACTION_MODEL_DEFAULT,
+                            null);
+            return model != null ? model : VibePreferenceConstants.PREF_COMPACTION_MODEL_DEFAULT;
+        } catch (Exception e) {
+            return VibePreferenceConstants.PREF_COMPACTION_MODEL_DEFAULT;
+        }
     }
 
     private String buildTranscript(List<LlmMessage> messages) {
@@ -0,0 +1,369 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.memory.compaction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.core.runtime.Platform;
+
+import com.codepilot1c.core.model.LlmConversationSanitizer;
+import com.codepilot1c.core.model.LlmMessage;
+import com.codepilot1c.core.settings.VibePreferenceConstants;
+import com.codepilot1c.core.tokenizer.TokenizerService;
+
+/**
+ * Pre-computes conversation summaries in the background so that history compaction
+ * does not wait for an LLM round-trip.
+ *
+ * <p>Callers report history growth through {@link #observe(List, Policy)}. Once the
+ * estimated size passes the policy's prefetch threshold, the stable head of the
+ * history (everything before the verbatim tail, never splitting a tool-call block)
+ * is snapshotted and summarized asynchronously via {@link LlmCompactionService#compactAsync}.
+ * When the compaction threshold is crossed later, {@link #take(List, int)} swaps the
+ * prepared summary in, provided the history still starts with the summarized head.
+ * Leading system messages (the system prompt) are kept verbatim and never summarized.</p>
+ *
+ * <p>All state is guarded by the instance monitor; summaries complete on the
+ * provider's threads. A history edit that rewrites the head simply makes the
+ * prepared summary unusable, so stale summaries are never applied.</p>
+ */
+public final class SpeculativeCompactor {
+
+    /** Marks the system message that carries a compacted summary. */
+    public static final String SUMMARY_MARKER = "[COMPACT_SUMMARY]"; //$NON-NLS-1$
+
+    /** Minimum token target requested from the summarizer. */
+    private static final int MIN_SUMMARY_TOKENS = 200;
+
+    /** A prepared summary is refreshed once this many more messages became summarizable. */
+    private static final int REFRESH_SLACK_MESSAGES = 4;
+
+    /**
+     * Produces a summary for a slice of history; completes with {@code null} on failure.
+     */
+    @FunctionalInterface
+    public interface Summarizer {
+        CompletableFuture<String> summarize(List<LlmMessage> messages, int targetTokens);
+    }
+
+    /**
+     * Compaction thresholds for one history.
+     *
+     * @param enabled          whether automatic compaction and prefetch are allowed
+     * @param tokenBudget      history token budget
+     * @param thresholdPercent share of the budget at which the history is compacted
+     * @param prefetchPercent  share of the budget at which the summary is prepared
+     * @param tailMessages     number of most recent messages kept verbatim
+     * @param minMessages      histories shorter than this are never compacted
+     */
+    public record Policy(boolean enabled, int tokenBudget, int thresholdPercent, int prefetchPercent,
+            int tailMessages, int minMessages) {
+
+        /**
+         * Builds a policy from the chat auto-compaction and LLM compaction preferences.
+         *
+         * @param tokenBudget history token budget of the caller
+         * @param minMessages minimum history length for compaction
+         * @return the policy
+         */
+        public static Policy fromPreferences(int tokenBudget, int minMessages) {
+            boolean enabled = getBoolean(VibePreferenceConstants.PREF_CHAT_AUTO_COMPACT_ENABLED, true)
+                    && LlmCompactionService.getInstance().isEnabled();
+            int threshold = clamp(getInt(VibePreferenceConstants.PREF_CHAT_AUTO_COMPACT_THRESHOLD_PERCENT, 85),
+                    50, 95);
+            int tail = clamp(getInt(VibePreferenceConstants.LLM_COMPACTION_TAIL_MESSAGES,
+                    VibePreferenceConstants.LLM_COMPACTION_TAIL_MESSAGES_DEFAULT), 4, 64);
+            return new Policy(enabled, tokenBudget, threshold, Math.max(40, threshold - 15), tail, minMessages);
+        }
+
+        int compactAtTokens() {
+            return (int) ((long) tokenBudget * thresholdPercent / 100);
+        }
+
+        int prefetchAtTokens() {
+            return (int) ((long) tokenBudget * Math.min(prefetchPercent, thresholdPercent) / 100);
+        }
+
+        int keepFrom(List<LlmMessage> history) {
+            int desired = Math.max(0, history.size() - tailMessages);
+            return LlmConversationSanitizer.findSafeCompactionStart(history, desired);
+        }
+
+        private static boolean getBoolean(String key, boolean defaultValue) {
+            try {
+                return Platform.getPreferencesService().getBoolean("com.codepilot1c.core", key, //$NON-NLS-1$
+                        defaultValue, null);
+            } catch (Exception e) {
+                return defaultValue;
+            }
+        }
+
+        private static int getInt(String key, int defaultValue) {
+            try {
+                return Platform.getPreferencesService().getInt("com.codepilot1c.core", key, //$NON-NLS-1$
+                        defaultValue, null);
+            } catch (Exception e) {
+                return defaultValue;
+            }
+        }
+
+        private static int clamp(int value, int min, int max) {
+            return Math.max(min, Math.min(max, value));
+        }
+    }
+
+    /**
+     * Counters describing how often compaction could use a prepared summary.
+     *
+     * @param prepared summaries produced in the background
+     * @param failed   background summaries that failed or came back empty
+     * @param hits     compactions served by a prepared summary
+     * @param misses   compactions that found no usable summary
+     */
+    public record Stats(long prepared, long failed, long hits, long misses) {
+    }
+
+    private record Prepared(List<LlmMessage> head, int pinned, String summary) {
+    }
+
+    private final Summarizer summarizer;
+
+    private Prepared prepared;
+    private CompletableFuture<Boolean> running;
+    private int runningHeadSize;
+    private long generation;
+    private boolean lastFailed;
+    private long preparedCount;
+    private long failedCount;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a compactor backed by {@link LlmCompactionService}.
+     */
+    public SpeculativeCompactor() {
+        this(LlmCompactionService.getInstance()::compactAsync);
+    }
+
+    /**
+     * Creates a compactor with a custom summarizer.
+     *
+     * @param summarizer produces summaries for history slices
+     */
+    public SpeculativeCompactor(Summarizer summarizer) {
+        this.summarizer = Objects.requireNonNull(summarizer, "summarizer"); //$NON-NLS-1$
+    }
+
+    /**
+     * Reports the current history. Starts a background summary of the stable head once the
+     * history passes the prefetch threshold and no sufficiently fresh summary exists.
+     *
+     * @param history the conversation history
+     * @param policy  compaction thresholds
+     */
+    public synchronized void observe(List<LlmMessage> history, Policy policy) {
+        if (history == null || !policy.enabled() || history.size() < policy.minMessages()
+                || estimateTokens(history) < policy.prefetchAtTokens()) {
+            return;
+        }
+        int keepFrom = policy.keepFrom(history);
+        if (isRunning() && runningHeadSize + REFRESH_SLACK_MESSAGES > keepFrom) {
+            return;
+        }
+        if (prepared != null && isPrefix(prepared.head(), history)
+                && prepared.head().size() + REFRESH_SLACK_MESSAGES > keepFrom) {
+            return;
+        }
+        start(history, keepFrom);
+    }
+
+    /**
+     * Compacts the history when it crossed the policy's threshold and a prepared summary is
+     * available. Without one, a background summary is started and {@code null} is returned so
+     * the caller proceeds with the full history this time.
+     *
+     * @param history the conversation history
+     * @param policy  compaction thresholds
+     * @return the compacted history, or {@code null} if no compaction was applied
+     */
+    public synchronized List<LlmMessage> compactIfNeeded(List<LlmMessage> history, Policy policy) {
+        if (history == null || !policy.enabled() || history.size() < policy.minMessages()
+                || estimateTokens(history) < policy.compactAtTokens()) {
+            observe(history, policy);
+            return null;
+        }
+        int keepFrom = policy.keepFrom(history);
+        List<LlmMessage> compacted = take(history, keepFrom);
+        if (compacted == null) {
+            prepare(history, keepFrom);
+        }
+        return compacted;
+    }
+
+    /**
+     * Builds the compacted history from the prepared summary, if it still applies.
+     *
+     * @param history  the conversation history
+     * @param keepFrom index of the first message that must stay verbatim
+     * @return pinned system messages, the summary and the rest of the history; or {@code null}
+     *         if no prepared summary covers a prefix of {@code history} ending at or before
+     *         {@code keepFrom}
+     */
+    public synchronized List<LlmMessage> take(List<LlmMessage> history, int keepFrom) {
+        Prepared candidate = prepared;
+        if (history == null || candidate == null || candidate.head().size() > keepFrom
+                || !isPrefix(candidate.head(), history)) {
+            misses++;
+            return null;
+        }
+        int covered = candidate.head().size();
+        List<LlmMessage> compacted = new ArrayList<>(candidate.pinned() + 1 + history.size() - covered);
+        compacted.addAll(history.subList(0, candidate.pinned()));
+        compacted.add(LlmMessage.system(SUMMARY_MARKER + "\n" + candidate.summary())); //$NON-NLS-1$
+        compacted.addAll(history.subList(covered, history.size()));
+        prepared = null;
+        hits++;
+        return compacted;
+    }
+
+    /**
+     * Starts summarizing {@code history[0, keepFrom)} in the background unless a summary is
+     * already being prepared.
+     *
+     * @param history  the conversation history
+     * @param keepFrom index of the first message that stays verbatim
+     * @return future completing with {@code true} once a summary is ready for {@link #take}
+     */
+    public synchronized CompletableFuture<Boolean> prepare(List<LlmMessage> history, int keepFrom) {
+        if (isRunning()) {
+            return running;
+        }
+        return start(history, keepFrom);
+    }
+
+    /**
+     * Returns whether the most recent background summary failed.
+     */
+    public synchronized boolean lastPreparationFailed() {
+        return lastFailed;
+    }
+
+    /**
+     * Returns whether a background summary is in progress.
+     */
+    public synchronized boolean isPreparing() {
+        return isRunning();
+    }
+
+    /**
+     * Drops the prepared summary and ignores any summary still in flight.
+     */
+    public synchronized void reset() {
+        generation++;
+        prepared = null;
+        running = null;
+        lastFailed = false;
+    }
+
+    /**
+     * Returns usage counters.
+     */
+    public synchronized Stats stats() {
+        return new Stats(preparedCount, failedCount, hits, misses);
+    }
+
+    private CompletableFuture<Boolean> start(List<LlmMessage> history, int keepFrom) {
+        int end = Math.max(0, Math.min(keepFrom, history.size()));
+        int pinned = countPinned(history, end);
+        if (end <= pinned) {
+            return CompletableFuture.completedFuture(false);
+        }
+        List<LlmMessage> head = Collections.unmodifiableList(new ArrayList<>(history.subList(0, end)));
+        List<LlmMessage> region = head.subList(pinned, end);
+        int targetTokens = Math.max(MIN_SUMMARY_TOKENS, estimateTokens(region) / 4);
+        long startedGeneration = ++generation;
+
+        CompletableFuture<String> summary;
+        try {
+            summary = summarizer.summarize(region, targetTokens);
+        } catch (RuntimeException e) {
+            summary = CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Boolean> result = summary.handle((text, error) -> {
+            synchronized (this) {
+                if (startedGeneration != generation) {
+                    return false;
+                }
+                running = null;
+                if (error != null || text == null || text.isBlank()) {
+                    failedCount++;
+                    lastFailed = true;
+                    return false;
+                }
+                prepared = new Prepared(head, pinned, text.strip());
+                preparedCount++;
+                lastFailed = false;
+                return true;
+            }
+        });
+        if (!result.isDone()) {
+            running = result;
+            runningHeadSize = end;
+        }
+        return result;
+    }
+
+    private boolean isRunning() {
+        return running != null && !running.isDone();
+    }
+
+    private static int countPinned(List<LlmMessage> history, int end) {
+        int pinned = 0;
+        while (pinned < end) {
+            LlmMessage message = history.get(pinned);
+            if (message == null || message.getRole() != LlmMessage.Role.SYSTEM
+                    || (message.getContent() != null && message.getContent().startsWith(SUMMARY_MARKER))) {
+                break;
+            }
+            pinned++;
+        }
+        return pinned;
+    }
+
+    private static boolean isPrefix(List<LlmMessage> head, List<LlmMessage> history) {
+        if (head.size() > history.size()) {
+            return false;
+        }
+        for (int i = 0; i < head.size(); i++) {
+            if (!sameMessage(head.get(i), history.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameMessage(LlmMessage a, LlmMessage b) {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null) {
+            return false;
+        }
+        return a.getRole() == b.getRole()
+                && Objects.equals(a.getContent(), b.getContent())
+                && Objects.equals(a.getToolCallId(), b.getToolCallId());
+    }
+
+    private static int estimateTokens(List<LlmMessage> messages) {
+        return TokenizerService.getInstance().count(messages);
+    }
+}
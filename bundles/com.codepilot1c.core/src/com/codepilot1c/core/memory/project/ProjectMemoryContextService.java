@@ -22,6 +22,8 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
+import com.codepilot1c.core.agent.prompts.PromptSourceCache;
+
 public class ProjectMemoryContextService {
 
     public static final String CANONICAL_FILE_NAME = "Code.md"; //$NON-NLS-1$
@@ -181,6 +183,7 @@ public class ProjectMemoryContextService {
         try {
             Files.createDirectories(root);
             Files.writeString(target, Objects.requireNonNullElse(content, ""), StandardCharsets.UTF_8); //$NON-NLS-1$
+            PromptSourceCache.getInstance().invalidate(target);
             return new WriteResult(Status.FOUND, target, null);
         } catch (IOException e) {
             return new WriteResult(Status.WRITE_ERROR, target, e.getMessage());
@@ -223,6 +226,13 @@ public class ProjectMemoryContextService {
         return AliasScanResult.found(findPreferredAlias(exactChildren));
     }
 
+    /**
+     * Returns true if a file with this exact name is read as project memory.
+     */
+    public static boolean isAliasFileName(String fileName) {
+        return Arrays.asList(ALIASES).contains(fileName);
+    }
+
     static Path findPreferredAlias(Map<String, Path> exactChildren) {
         for (String alias : ALIASES) {
             Path candidate = exactChildren.get(alias);
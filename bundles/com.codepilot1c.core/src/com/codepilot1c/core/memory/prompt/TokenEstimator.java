@@ -7,21 +7,17 @@
  */
 package com.codepilot1c.core.memory.prompt;
 
+import com.codepilot1c.core.tokenizer.TokenizerService;
+
 /**
- * Simple token estimation for memory budget management.
- *
- * <p>Uses a heuristic of ~4 characters per token for mixed Russian/English text.
- * This is intentionally conservative to avoid budget overruns.</p>
+ * Token counting for memory budget management.
  *
- * <p>For Cyrillic-heavy 1C content, actual token counts may be higher
- * (Cyrillic characters use more tokens than Latin), so we use a ratio of 3.5
- * characters per token as a safer estimate.</p>
+ * <p>Delegates to {@link TokenizerService}, which counts with the active model's tokenizer:
+ * exactly when its vocabulary is installed, otherwise with an estimate weighted per
+ * character class (Cyrillic, Latin, digits, punctuation) instead of a fixed ratio.</p>
  */
 public final class TokenEstimator {
 
-    /** Characters per token ratio for mixed Russian/English text. */
-    private static final double CHARS_PER_TOKEN = 3.5;
-
     private TokenEstimator() {
     }
 
@@ -35,7 +31,7 @@ public final class TokenEstimator {
         if (text == null || text.isEmpty()) {
             return 0;
         }
-        return (int) Math.ceil(text.length() / CHARS_PER_TOKEN);
+        return TokenizerService.getInstance().count(text);
     }
 
     /**
@@ -50,13 +46,20 @@ public final class TokenEstimator {
             return ""; //$NON-NLS-1$
         }
 
-        int maxChars = (int) (maxTokens * CHARS_PER_TOKEN);
-        if (text.length() <= maxChars) {
+        int tokens = estimate(text);
+        if (tokens <= maxTokens) {
             return text;
         }
 
-        // Truncate at a line boundary if possible
+        // Cut proportionally to this text's own density, then shrink until it fits
+        int maxChars = (int) ((long) text.length() * maxTokens / tokens);
         String truncated = text.substring(0, maxChars);
+        while (maxChars > 0 && estimate(truncated) > maxTokens) {
+            maxChars = maxChars * 9 / 10;
+            truncated = text.substring(0, maxChars);
+        }
+
+        // Truncate at a line boundary if possible
         int lastNewline = truncated.lastIndexOf('\n');
         if (lastNewline > maxChars / 2) {
             truncated = truncated.substring(0, lastNewline);
@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.memory.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.codepilot1c.core.memory.MemoryEntry;
+
+/**
+ * In-memory inverted index with BM25 ranking.
+ *
+ * <p>Each project keeps posting lists from stemmed terms (see {@link MemoryStemmer}) to documents,
+ * so {@link #search} only touches entries that share at least one term with the query, and top-k
+ * selection uses a bounded heap instead of sorting every hit.</p>
+ *
+ * <p>{@link #findSimilar} keeps the Jaccard semantics of {@link InMemorySearchIndex} because
+ * {@code MemoryService} compares its scores against a fixed dedup threshold. It uses a second set of
+ * postings over the unstemmed tokens to count the overlap per document, without comparing token
+ * sets.</p>
+ *
+ * <p>Entries are keyed by {@link MemoryEntry#getKey()}: indexing an entry with an existing key
+ * replaces the previous one. Thread-safe: one read/write lock per project.</p>
+ */
+public final class Bm25MemorySearchIndex implements IMemorySearchIndex {
+
+    /** Term frequency saturation. */
+    private static final double K1 = 1.2;
+    /** Document length normalization. */
+    private static final double B = 0.75;
+
+    private static final Comparator<Hit> WORST_FIRST =
+            Comparator.comparingDouble(Hit::score).thenComparing(Comparator.comparingLong(Hit::ordinal).reversed());
+
+    private final ConcurrentHashMap<String, ProjectIndex> projects = new ConcurrentHashMap<>();
+
+    @Override
+    public void index(String projectPath, MemoryEntry entry) {
+        if (projectPath == null || entry == null) {
+            return;
+        }
+        List<String> tokens = InMemorySearchIndex.tokenList(entry.getContent());
+        if (tokens.isEmpty()) {
+            return;
+        }
+        projects.computeIfAbsent(projectPath, k -> new ProjectIndex()).put(entry, tokens);
+    }
+
+    @Override
+    public void remove(String projectPath, String key) {
+        if (projectPath == null || key == null) {
+            return;
+        }
+        ProjectIndex index = projects.get(projectPath);
+        if (index != null) {
+            index.remove(key);
+        }
+    }
+
+    @Override
+    public List<ScoredEntry> search(String projectPath, String query, int maxResults) {
+        if (projectPath == null || query == null || query.isBlank() || maxResults <= 0) {
+            return List.of();
+        }
+        ProjectIndex index = projects.get(projectPath);
+        if (index == null) {
+            return List.of();
+        }
+        Set<String> terms = new HashSet<>();
+        for (String token : InMemorySearchIndex.tokenize(query)) {
+            terms.add(MemoryStemmer.stem(token));
+        }
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        return index.search(terms, maxResults);
+    }
+
+    @Override
+    public List<ScoredEntry> findSimilar(String projectPath, String content, int topK) {
+        if (projectPath == null || content == null || content.isBlank() || topK <= 0) {
+            return List.of();
+        }
+        ProjectIndex index = projects.get(projectPath);
+        if (index == null) {
+            return List.of();
+        }
+        Set<String> tokens = InMemorySearchIndex.tokenize(content);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        return index.findSimilar(tokens, topK);
+    }
+
+    @Override
+    public void clear(String projectPath) {
+        if (projectPath != null) {
+            projects.remove(projectPath);
+        }
+    }
+
+    private static List<ScoredEntry> drain(PriorityQueue<Hit> heap) {
+        List<Hit> hits = new ArrayList<>(heap);
+        hits.sort(WORST_FIRST.reversed());
+        List<ScoredEntry> result = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            result.add(new ScoredEntry(hit.document().entry, hit.score()));
+        }
+        return result;
+    }
+
+    private static void offer(PriorityQueue<Hit> heap, int limit, Hit hit) {
+        if (heap.size() < limit) {
+            heap.add(hit);
+        } else if (WORST_FIRST.compare(hit, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(hit);
+        }
+    }
+
+    private record Hit(Document document, double score) {
+
+        long ordinal() {
+            return document.ordinal;
+        }
+    }
+
+    private static final class Document {
+
+        private final long ordinal;
+        private final MemoryEntry entry;
+        private final Set<String> tokens;
+        private final Map<String, Integer> termFrequencies;
+        private final int length;
+
+        Document(long ordinal, MemoryEntry entry, Set<String> tokens, Map<String, Integer> termFrequencies,
+                int length) {
+            this.ordinal = ordinal;
+            this.entry = entry;
+            this.tokens = tokens;
+            this.termFrequencies = termFrequencies;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Postings of one project.
+     */
+    private static final class ProjectIndex {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<String, Document> documentsByKey = new HashMap<>();
+        private final Map<String, Map<Document, Integer>> postings = new HashMap<>();
+        private final Map<String, Set<Document>> tokenPostings = new HashMap<>();
+        private long nextOrdinal;
+        private long totalLength;
+
+        void put(MemoryEntry entry, List<String> tokenList) {
+            Set<String> tokens = new HashSet<>(tokenList);
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String token : tokenList) {
+                frequencies.merge(MemoryStemmer.stem(token), Integer.valueOf(1), Integer::sum);
+            }
+            int length = tokenList.size();
+            lock.writeLock().lock();
+            try {
+                String key = entry.getKey() != null ? entry.getKey() : "#" + nextOrdinal; //$NON-NLS-1$
+                removeLocked(key);
+                Document document = new Document(nextOrdinal++, entry, tokens, frequencies, length);
+                documentsByKey.put(key, document);
+                totalLength += length;
+                for (Map.Entry<String, Integer> term : frequencies.entrySet()) {
+                    postings.computeIfAbsent(term.getKey(), t -> new HashMap<>()).put(document, term.getValue());
+                }
+                for (String token : tokens) {
+                    tokenPostings.computeIfAbsent(token, t -> new HashSet<>()).add(document);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(String key) {
+            lock.writeLock().lock();
+            try {
+                removeLocked(key);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void removeLocked(String key) {
+            Document document = documentsByKey.remove(key);
+            if (document == null) {
+                return;
+            }
+            totalLength -= document.length;
+            for (String term : document.termFrequencies.keySet()) {
+                Map<Document, Integer> posting = postings.get(term);
+                if (posting != null) {
+                    posting.remove(document);
+                    if (posting.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+            for (String token : document.tokens) {
+                Set<Document> posting = tokenPostings.get(token);
+                if (posting != null) {
+                    posting.remove(document);
+                    if (posting.isEmpty()) {
+                        tokenPostings.remove(token);
+                    }
+                }
+            }
+        }
+
+        List<ScoredEntry> search(Set<String> terms, int limit) {
+            lock.readLock().lock();
+            try {
+                int documentCount = documentsByKey.size();
+                if (documentCount == 0) {
+                    return List.of();
+                }
+                double averageLength = (double) totalLength / documentCount;
+                Map<Document, double[]> scores = new HashMap<>();
+                for (String term : terms) {
+                    Map<Document, Integer> posting = postings.get(term);
+                    if (posting == null) {
+                        continue;
+                    }
+                    double idf = Math.log(1.0 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+                    for (Map.Entry<Document, Integer> hit : posting.entrySet()) {
+                        Document document = hit.getKey();
+                        double tf = hit.getValue().intValue();
+                        double norm = K1 * (1.0 - B + B * document.length / averageLength);
+                        scores.computeIfAbsent(document, d -> new double[1])[0] += idf * tf * (K1 + 1.0) / (tf + norm);
+                    }
+                }
+                PriorityQueue<Hit> heap = new PriorityQueue<>(Math.min(limit, Math.max(1, scores.size())), WORST_FIRST);
+                for (Map.Entry<Document, double[]> score : scores.entrySet()) {
+                    if (!score.getKey().entry.isExpired()) {
+                        offer(heap, limit, new Hit(score.getKey(), score.getValue()[0]));
+                    }
+                }
+                return drain(heap);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<ScoredEntry> findSimilar(Set<String> tokens, int limit) {
+            lock.readLock().lock();
+            try {
+                Map<Document, int[]> overlaps = new HashMap<>();
+                for (String token : tokens) {
+                    Set<Document> posting = tokenPostings.get(token);
+                    if (posting != null) {
+                        for (Document document : posting) {
+                            overlaps.computeIfAbsent(document, d -> new int[1])[0]++;
+                        }
+                    }
+                }
+                PriorityQueue<Hit> heap = new PriorityQueue<>(Math.min(limit, Math.max(1, overlaps.size())), WORST_FIRST);
+                for (Map.Entry<Document, int[]> overlap : overlaps.entrySet()) {
+                    int intersection = overlap.getValue()[0];
+                    int union = tokens.size() + overlap.getKey().tokens.size() - intersection;
+                    offer(heap, limit, new Hit(overlap.getKey(), (double) intersection / union));
+                }
+                return drain(heap);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
@@ -14,13 +14,14 @@ import com.codepilot1c.core.memory.MemoryEntry;
 /**
  * Search index for memory entries.
  *
- * <p>Default implementation is {@link InMemorySearchIndex} (Jaccard-based).
- * Future BM25 implementation in the rag bundle can replace it via OSGi service registry.</p>
+ * <p>Default implementation is {@link Bm25MemorySearchIndex} (inverted index, BM25 ranking);
+ * {@link InMemorySearchIndex} is the linear Jaccard scan it replaced.</p>
  */
 public interface IMemorySearchIndex {
 
     /**
-     * Indexes a memory entry for future search.
+     * Indexes a memory entry for future search. Implementations keyed by
+     * {@link MemoryEntry#getKey()} replace a previously indexed entry with the same key.
      *
      * @param projectPath project this entry belongs to
      * @param entry       the entry to index
@@ -47,6 +48,14 @@ public interface IMemorySearchIndex {
      */
     List<ScoredEntry> findSimilar(String projectPath, String content, int topK);
 
+    /**
+     * Removes the entry with the given key from the index.
+     *
+     * @param projectPath project the entry belongs to
+     * @param key         memory entry key
+     */
+    void remove(String projectPath, String key);
+
     /**
      * Removes all entries for the given project from the index.
      *
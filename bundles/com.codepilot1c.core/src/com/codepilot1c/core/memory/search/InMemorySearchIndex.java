@@ -21,12 +21,10 @@ import com.codepilot1c.core.memory.MemoryEntry;
 /**
  * In-memory search index using Jaccard token similarity.
  *
- * <p>This is a lightweight default implementation that requires no Lucene dependency.
+ * <p>This is a lightweight implementation that requires no Lucene dependency.
  * It tokenizes content into lowercase words and computes Jaccard similarity for search
- * and deduplication. Suitable for small-to-medium memory stores (hundreds of entries).</p>
- *
- * <p>Future BM25 implementation in {@code com.codepilot1c.rag} can replace this
- * via the {@link IMemorySearchIndex} interface and OSGi service registry.</p>
+ * and deduplication by scanning every entry. Suitable for small memory stores (hundreds of
+ * entries); {@link Bm25MemorySearchIndex} is the default for larger ones.</p>
  *
  * <p>Thread-safe: uses {@link ConcurrentHashMap} and {@link CopyOnWriteArrayList}.</p>
  */
@@ -111,6 +109,17 @@ public final class InMemorySearchIndex implements IMemorySearchIndex {
         return scored.size() <= topK ? scored : scored.subList(0, topK);
     }
 
+    @Override
+    public void remove(String projectPath, String key) {
+        if (projectPath == null || key == null) {
+            return;
+        }
+        CopyOnWriteArrayList<IndexedEntry> entries = projectEntries.get(projectPath);
+        if (entries != null) {
+            entries.removeIf(indexed -> key.equals(indexed.entry.getKey()));
+        }
+    }
+
     @Override
     public void clear(String projectPath) {
         if (projectPath != null) {
@@ -125,12 +134,21 @@ public final class InMemorySearchIndex implements IMemorySearchIndex {
      * Splits on non-alphanumeric (including Cyrillic) characters.
      */
     static Set<String> tokenize(String text) {
+        List<String> tokens = tokenList(text);
+        return tokens.isEmpty() ? Set.of() : new HashSet<>(tokens);
+    }
+
+    /**
+     * Tokenizes text like {@link #tokenize(String)} but keeps repeated tokens in order, as needed
+     * for term frequencies.
+     */
+    static List<String> tokenList(String text) {
         if (text == null || text.isBlank()) {
-            return Set.of();
+            return List.of();
         }
         // Split on non-letter/non-digit (supports Cyrillic via Unicode categories)
         String[] parts = text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"); //$NON-NLS-1$
-        Set<String> tokens = new HashSet<>();
+        List<String> tokens = new ArrayList<>(parts.length);
         for (String part : parts) {
             if (part.length() >= MIN_TOKEN_LENGTH) {
                 tokens.add(part);
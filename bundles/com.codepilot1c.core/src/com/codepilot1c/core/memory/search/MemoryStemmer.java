@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.memory.search;
+
+/**
+ * Light suffix-stripping stemmer for Russian and English memory tokens.
+ *
+ * <p>Not a full Snowball implementation: it removes the most frequent inflectional endings so that
+ * "справочника"/"справочники" and "indexes"/"indexing" land on the same index term. Stems are never
+ * shorter than {@link #MIN_STEM_LENGTH} characters; shorter tokens are returned unchanged.</p>
+ */
+final class MemoryStemmer {
+
+    private static final int MIN_STEM_LENGTH = 3;
+
+    private static final String[] RU_REFLEXIVE = {"ся", "сь"}; //$NON-NLS-1$ //$NON-NLS-2$
+
+    /** Russian endings, longest first so the greedy match removes the whole ending. */
+    private static final String[] RU_ENDINGS = {
+        "ившись", "ывшись", "иями", "ями", "ами", "ией", "иям", "ием", "иях", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$
+        "ость", "ости", "ого", "его", "ому", "ему", "ыми", "ими", "ешь", "ете", "ите", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$ //$NON-NLS-11$
+        "ять", "ать", "ить", "еть", "уть", "ыть", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+        "ее", "ие", "ые", "ое", "ей", "ий", "ый", "ой", "ем", "им", "ым", "ом", "их", "ых", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$ //$NON-NLS-11$ //$NON-NLS-12$ //$NON-NLS-13$ //$NON-NLS-14$
+        "ую", "юю", "ая", "яя", "ою", "ею", "ам", "ям", "ах", "ях", "ов", "ев", "ия", "ья", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$ //$NON-NLS-11$ //$NON-NLS-12$ //$NON-NLS-13$ //$NON-NLS-14$
+        "ию", "ью", "ии", "ье", "ет", "ут", "ют", "ат", "ят", "ит", "ла", "ло", "ли", "на", "но", "ны", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$ //$NON-NLS-11$ //$NON-NLS-12$ //$NON-NLS-13$ //$NON-NLS-14$ //$NON-NLS-15$ //$NON-NLS-16$
+        "а", "я", "о", "е", "ы", "и", "у", "ю", "ь", "й" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$
+    };
+
+    private MemoryStemmer() {
+    }
+
+    /**
+     * Returns the stem of a lowercase token.
+     */
+    static String stem(String token) {
+        if (token == null || token.length() <= MIN_STEM_LENGTH) {
+            return token;
+        }
+        return isCyrillic(token) ? stemRussian(token) : stemEnglish(token);
+    }
+
+    private static String stemRussian(String token) {
+        String word = token;
+        for (String suffix : RU_REFLEXIVE) {
+            if (word.endsWith(suffix) && word.length() - suffix.length() >= MIN_STEM_LENGTH) {
+                word = word.substring(0, word.length() - suffix.length());
+                break;
+            }
+        }
+        for (String suffix : RU_ENDINGS) {
+            if (word.endsWith(suffix) && word.length() - suffix.length() >= MIN_STEM_LENGTH) {
+                return word.substring(0, word.length() - suffix.length());
+            }
+        }
+        return word;
+    }
+
+    private static String stemEnglish(String token) {
+        String word = token;
+        if (word.endsWith("sses")) { //$NON-NLS-1$
+            word = word.substring(0, word.length() - 2);
+        } else if (word.endsWith("ies") && word.length() > 4) { //$NON-NLS-1$
+            word = word.substring(0, word.length() - 3) + 'y';
+        } else if (word.endsWith("es") && endsWithSibilant(word, 2)) { //$NON-NLS-1$
+            word = word.substring(0, word.length() - 2);
+        } else if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us") && !word.endsWith("is")) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+            word = word.substring(0, word.length() - 1);
+        }
+        for (String suffix : new String[] {"ing", "ed", "ly"}) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            if (word.endsWith(suffix) && word.length() - suffix.length() >= MIN_STEM_LENGTH) {
+                word = undouble(word.substring(0, word.length() - suffix.length()));
+                break;
+            }
+        }
+        return word;
+    }
+
+    private static boolean endsWithSibilant(String word, int suffixLength) {
+        String stem = word.substring(0, word.length() - suffixLength);
+        return stem.endsWith("s") || stem.endsWith("x") || stem.endsWith("z") //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                || stem.endsWith("ch") || stem.endsWith("sh"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    private static String undouble(String stem) {
+        int length = stem.length();
+        if (length > MIN_STEM_LENGTH && stem.charAt(length - 1) == stem.charAt(length - 2)
+                && "lsz".indexOf(stem.charAt(length - 1)) < 0) { //$NON-NLS-1$
+            return stem.substring(0, length - 1);
+        }
+        return stem;
+    }
+
+    private static boolean isCyrillic(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (Character.UnicodeBlock.of(token.charAt(i)) == Character.UnicodeBlock.CYRILLIC) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -22,6 +22,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import com.codepilot1c.core.agent.prompts.PromptSourceCache;
 import com.codepilot1c.core.memory.MemoryCategory;
 import com.codepilot1c.core.memory.MemoryEntry;
 import com.codepilot1c.core.memory.MemoryQuery;
@@ -39,6 +40,9 @@ import com.codepilot1c.core.memory.RetentionPolicy;
  * <p>Each {@code ##} heading = one MemoryEntry.
  * HTML comments {@code <!-- key:value -->} encode metadata (optional).
  * Missing {@code ##} → entire file as single entry.</p>
+ *
+ * <p>Files are read through {@link PromptSourceCache}, so recalls do not touch the disk
+ * while both files are unchanged.</p>
  */
 public class MarkdownMemoryStore implements IMemoryStore {
 
@@ -73,6 +77,7 @@ public class MarkdownMemoryStore implements IMemoryStore {
                     StandardCharsets.UTF_8,
                     StandardOpenOption.CREATE,
                     StandardOpenOption.APPEND);
+            PromptSourceCache.getInstance().invalidate(targetFile);
         } catch (IOException e) {
             throw new MemoryStoreException("Failed to write memory entry: " + entry.getKey(), e); //$NON-NLS-1$
         }
@@ -124,13 +129,12 @@ public class MarkdownMemoryStore implements IMemoryStore {
     // --- Parsing ---
 
     List<MemoryEntry> parseFile(Path file, MemoryVisibility defaultVisibility) throws MemoryStoreException {
-        if (!Files.exists(file)) {
-            return List.of();
-        }
-
         try {
-            String content = Files.readString(file, StandardCharsets.UTF_8);
-            return parseMarkdown(content, defaultVisibility);
+            PromptSourceCache.Source source = PromptSourceCache.getInstance().read(file);
+            if (source == null) {
+                return List.of();
+            }
+            return parseMarkdown(source.content(), defaultVisibility);
         } catch (IOException e) {
             throw new MemoryStoreException("Failed to read memory file: " + file, e); //$NON-NLS-1$
         }
@@ -295,6 +299,7 @@ public class MarkdownMemoryStore implements IMemoryStore {
             sb.append(formatEntry(entry));
         }
         Files.writeString(file, sb.toString(), StandardCharsets.UTF_8);
+        PromptSourceCache.getInstance().invalidate(file);
     }
 
     // --- Duration parsing ---
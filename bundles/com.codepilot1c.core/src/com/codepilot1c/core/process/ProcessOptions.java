@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.process;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings of one {@link ProcessRunner#run(ProcessBuilder, ProcessOptions)} call.
+ */
+public final class ProcessOptions {
+
+    /** Default number of bytes kept in memory per stream. */
+    public static final int DEFAULT_CAPTURE_BYTES = 64 * 1024;
+
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(60);
+    private static final Duration DEFAULT_TERMINATION_GRACE = Duration.ofSeconds(5);
+    private static final Duration DEFAULT_DRAIN_TIMEOUT = Duration.ofSeconds(5);
+
+    private final Duration timeout;
+    private final int stdoutLimit;
+    private final int stderrLimit;
+    private final boolean mergeErrorStream;
+    private final Path logFile;
+    private final ProcessOutputListener listener;
+    private final Duration terminationGrace;
+    private final Duration drainTimeout;
+
+    private ProcessOptions(Builder builder) {
+        this.timeout = builder.timeout;
+        this.stdoutLimit = builder.stdoutLimit;
+        this.stderrLimit = builder.stderrLimit;
+        this.mergeErrorStream = builder.mergeErrorStream;
+        this.logFile = builder.logFile;
+        this.listener = builder.listener;
+        this.terminationGrace = builder.terminationGrace;
+        this.drainTimeout = builder.drainTimeout;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public int getStdoutLimit() {
+        return stdoutLimit;
+    }
+
+    public int getStderrLimit() {
+        return stderrLimit;
+    }
+
+    public boolean isMergeErrorStream() {
+        return mergeErrorStream;
+    }
+
+    public Path getLogFile() {
+        return logFile;
+    }
+
+    public ProcessOutputListener getListener() {
+        return listener;
+    }
+
+    public Duration getTerminationGrace() {
+        return terminationGrace;
+    }
+
+    public Duration getDrainTimeout() {
+        return drainTimeout;
+    }
+
+    /**
+     * Builder for {@link ProcessOptions}.
+     */
+    public static final class Builder {
+
+        private Duration timeout = DEFAULT_TIMEOUT;
+        private int stdoutLimit = DEFAULT_CAPTURE_BYTES;
+        private int stderrLimit = DEFAULT_CAPTURE_BYTES;
+        private boolean mergeErrorStream;
+        private Path logFile;
+        private ProcessOutputListener listener;
+        private Duration terminationGrace = DEFAULT_TERMINATION_GRACE;
+        private Duration drainTimeout = DEFAULT_DRAIN_TIMEOUT;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets how long the process may run before its tree is terminated.
+         */
+        public Builder timeout(Duration value) {
+            this.timeout = positive(value, DEFAULT_TIMEOUT);
+            return this;
+        }
+
+        /**
+         * Sets how many trailing bytes of stdout are kept in memory.
+         */
+        public Builder stdoutLimit(int bytes) {
+            this.stdoutLimit = Math.max(1, bytes);
+            return this;
+        }
+
+        /**
+         * Sets how many trailing bytes of stderr are kept in memory.
+         */
+        public Builder stderrLimit(int bytes) {
+            this.stderrLimit = Math.max(1, bytes);
+            return this;
+        }
+
+        /**
+         * Reads stderr through stdout, preserving the interleaving of both streams.
+         */
+        public Builder mergeErrorStream(boolean value) {
+            this.mergeErrorStream = value;
+            return this;
+        }
+
+        /**
+         * Appends the complete output of both streams to a file while it is read.
+         */
+        public Builder logFile(Path value) {
+            this.logFile = value;
+            return this;
+        }
+
+        /**
+         * Receives every output line as soon as it is read.
+         */
+        public Builder listener(ProcessOutputListener value) {
+            this.listener = value;
+            return this;
+        }
+
+        /**
+         * Sets how long a terminated process may take to exit before it is killed forcibly.
+         */
+        public Builder terminationGrace(Duration value) {
+            this.terminationGrace = positive(value, DEFAULT_TERMINATION_GRACE);
+            return this;
+        }
+
+        /**
+         * Sets how long to wait for the remaining output after the process exited.
+         */
+        public Builder drainTimeout(Duration value) {
+            this.drainTimeout = positive(value, DEFAULT_DRAIN_TIMEOUT);
+            return this;
+        }
+
+        public ProcessOptions build() {
+            return new ProcessOptions(this);
+        }
+
+        private static Duration positive(Duration value, Duration fallback) {
+            return value == null || value.isZero() || value.isNegative() ? fallback : value;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.process;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a process run by {@link ProcessRunner}.
+ *
+ * @param exitCode exit value, or {@code -1} if the process did not exit
+ * @param timedOut whether the timeout expired
+ * @param interrupted whether the waiting thread was interrupted
+ * @param durationMillis wall time from start until the output was drained
+ * @param stdout captured standard output (both streams when they are merged)
+ * @param stderr captured standard error; empty when the streams are merged
+ * @param termination what the process-tree kill observed, or {@code null} if it was not needed
+ */
+public record ProcessOutcome(
+        int exitCode,
+        boolean timedOut,
+        boolean interrupted,
+        long durationMillis,
+        Output stdout,
+        Output stderr,
+        Termination termination) {
+
+    /**
+     * Returns whether the process exited on its own.
+     */
+    public boolean finished() {
+        return !timedOut && !interrupted;
+    }
+
+    /**
+     * Returns whether some output was dropped from the in-memory capture.
+     */
+    public boolean truncated() {
+        return stdout.truncated() || stderr.truncated();
+    }
+
+    /**
+     * Captured output of one stream.
+     *
+     * @param text trailing part of the stream decoded as UTF-8
+     * @param bytes total number of bytes read
+     * @param truncated whether {@code text} misses the beginning of the stream
+     * @param readError message of the error that stopped reading, or {@code null}
+     */
+    public record Output(String text, long bytes, boolean truncated, String readError) {
+
+        static final Output EMPTY = new Output("", 0L, false, null); //$NON-NLS-1$
+
+        private static final String MARKER_PREFIX = "\u2026"; //$NON-NLS-1$
+        private static final String MARKER_SUFFIX = " bytes truncated"; //$NON-NLS-1$
+
+        /**
+         * Returns the captured text starting at a line boundary. When the capture is truncated its
+         * first, partial line is replaced by a {@link #truncationMarker(long) marker line} counting
+         * every byte of the stream that is not returned.
+         */
+        public String markedText() {
+            if (!truncated) {
+                return text;
+            }
+            int newline = text.indexOf('\n');
+            String kept = newline >= 0 ? text.substring(newline + 1) : text;
+            long dropped = bytes - kept.getBytes(StandardCharsets.UTF_8).length;
+            return truncationMarker(dropped) + '\n' + kept;
+        }
+
+        /**
+         * Returns the line that stands for dropped output, e.g. {@code "\u2026120 bytes truncated"}.
+         *
+         * @param droppedBytes number of bytes dropped
+         */
+        public static String truncationMarker(long droppedBytes) {
+            return MARKER_PREFIX + droppedBytes + MARKER_SUFFIX;
+        }
+
+        /**
+         * Returns the byte count of a {@link #truncationMarker(long) marker line}.
+         *
+         * @param line a line of output
+         * @return the number of dropped bytes, or {@code -1} if the line is not a marker
+         */
+        public static long truncatedBytes(String line) {
+            if (line == null || !line.startsWith(MARKER_PREFIX) || !line.endsWith(MARKER_SUFFIX)) {
+                return -1L;
+            }
+            try {
+                return Long.parseLong(line.substring(MARKER_PREFIX.length(), line.length() - MARKER_SUFFIX.length()));
+            } catch (NumberFormatException e) {
+                return -1L;
+            }
+        }
+
+        /**
+         * Returns at most {@code maxLines} last complete lines. When the capture is truncated its
+         * first, partial line is skipped.
+         */
+        public List<String> tailLines(int maxLines) {
+            if (text.isEmpty() || maxLines <= 0) {
+                return List.of();
+            }
+            String[] lines = text.split("\\R", -1); //$NON-NLS-1$
+            int end = lines.length;
+            if (lines[end - 1].isEmpty()) {
+                end--;
+            }
+            int start = truncated ? 1 : 0;
+            start = Math.max(start, end - maxLines);
+            List<String> result = new ArrayList<>(Math.max(0, end - start));
+            for (int i = start; i < end; i++) {
+                result.add(lines[i]);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * State observed while terminating the process tree.
+     *
+     * @param descendantCount descendants found before termination
+     * @param aliveDescendants descendants still alive afterwards
+     * @param rootAlive whether the process itself is still alive afterwards
+     * @param bytesBefore output bytes read when termination started
+     * @param bytesAfter output bytes read when termination finished
+     */
+    public record Termination(int descendantCount, int aliveDescendants, boolean rootAlive,
+            long bytesBefore, long bytesAfter) {
+    }
+}
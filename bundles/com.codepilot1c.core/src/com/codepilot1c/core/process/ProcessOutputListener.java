@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.process;
+
+/**
+ * Receives process output line by line while the process is running.
+ *
+ * <p>Called on the reader thread of the stream; implementations must be quick and must not
+ * throw.</p>
+ */
+@FunctionalInterface
+public interface ProcessOutputListener {
+
+    /**
+     * @param errorStream {@code true} for lines read from a separate stderr stream
+     * @param line line without its terminator
+     */
+    void onLine(boolean errorStream, String line);
+}
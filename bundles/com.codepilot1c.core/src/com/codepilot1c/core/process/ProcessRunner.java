@@ -0,0 +1,375 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.process;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Runs external processes with both output streams drained concurrently.
+ *
+ * <p>Each stream is read by its own daemon thread from the moment the process starts, so a child
+ * that writes more than the pipe buffer never blocks while the caller waits for it. Only the
+ * trailing part of each stream is kept in memory; the complete output can be appended to a log
+ * file and observed line by line through a {@link ProcessOutputListener}. When the timeout
+ * expires or the waiting thread is interrupted, the whole process tree is terminated.</p>
+ */
+public final class ProcessRunner {
+
+    private static final int CHUNK_SIZE = 8192;
+    private static final int MAX_LINE_BYTES = 64 * 1024;
+
+    private ProcessRunner() {
+    }
+
+    /**
+     * Starts the process and waits for it within the configured timeout.
+     *
+     * <p>Standard input is closed right after start unless the builder redirects it. If the
+     * calling thread is interrupted, the process tree is terminated, the interrupt flag is
+     * restored and the outcome is marked as interrupted.</p>
+     *
+     * @param builder configured process builder
+     * @param options run settings
+     * @return outcome with the captured output
+     * @throws IOException if the process cannot be started or the log file cannot be opened
+     */
+    public static ProcessOutcome run(ProcessBuilder builder, ProcessOptions options) throws IOException {
+        if (options.isMergeErrorStream()) {
+            builder.redirectErrorStream(true);
+        }
+        LogSink log = LogSink.open(options.getLogFile());
+        long started = System.nanoTime();
+        Process process;
+        try {
+            process = builder.start();
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+        if (builder.redirectInput() == ProcessBuilder.Redirect.PIPE) {
+            closeQuietly(process.getOutputStream());
+        }
+
+        Drainer stdout = Drainer.start(process.getInputStream(), false, options.getStdoutLimit(), log,
+                options.getListener());
+        Drainer stderr = options.isMergeErrorStream()
+                ? null
+                : Drainer.start(process.getErrorStream(), true, options.getStderrLimit(), log, options.getListener());
+
+        boolean timedOut = false;
+        boolean interrupted = false;
+        ProcessOutcome.Termination termination = null;
+        try {
+            if (!process.waitFor(options.getTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                timedOut = true;
+            }
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        if (timedOut || interrupted) {
+            long before = bytes(stdout, stderr);
+            termination = terminateTree(process, options);
+            termination = new ProcessOutcome.Termination(termination.descendantCount(),
+                    termination.aliveDescendants(), termination.rootAlive(), before, bytes(stdout, stderr));
+        }
+
+        long drainDeadline = System.nanoTime() + options.getDrainTimeout().toNanos();
+        ProcessOutcome.Output stdoutOutput = stdout.finish(drainDeadline);
+        ProcessOutcome.Output stderrOutput = stderr == null ? ProcessOutcome.Output.EMPTY : stderr.finish(drainDeadline);
+        log.close();
+        int exitCode = process.isAlive() ? -1 : process.exitValue();
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return new ProcessOutcome(exitCode, timedOut, interrupted, durationMillis, stdoutOutput, stderrOutput,
+                termination);
+    }
+
+    /**
+     * Terminates the process together with its descendants: a normal termination first, then a
+     * forcible one when the grace period is over.
+     */
+    static ProcessOutcome.Termination terminateTree(Process process, ProcessOptions options) {
+        List<ProcessHandle> descendants = process.descendants().collect(Collectors.toList());
+        for (ProcessHandle handle : descendants) {
+            handle.destroy();
+        }
+        process.destroy();
+        long graceMillis = options.getTerminationGrace().toMillis();
+        boolean interrupted = false;
+        try {
+            if (!process.waitFor(graceMillis, TimeUnit.MILLISECONDS)) {
+                for (ProcessHandle handle : descendants) {
+                    handle.destroyForcibly();
+                }
+                process.destroyForcibly();
+                process.waitFor(graceMillis, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            interrupted = true;
+            for (ProcessHandle handle : descendants) {
+                handle.destroyForcibly();
+            }
+            process.destroyForcibly();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        int alive = (int) descendants.stream().filter(ProcessHandle::isAlive).count();
+        return new ProcessOutcome.Termination(descendants.size(), alive, process.isAlive(), 0L, 0L);
+    }
+
+    private static long bytes(Drainer stdout, Drainer stderr) {
+        return stdout.buffer.total() + (stderr == null ? 0L : stderr.buffer.total());
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // The process may already have exited
+        }
+    }
+
+    /**
+     * Reads one stream until its end.
+     */
+    private static final class Drainer implements Runnable {
+
+        private final InputStream input;
+        private final boolean errorStream;
+        private final TailBuffer buffer;
+        private final LogSink log;
+        private final ProcessOutputListener listener;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private final Thread thread;
+        private volatile String failure;
+
+        private Drainer(InputStream input, boolean errorStream, int limit, LogSink log, ProcessOutputListener listener) {
+            this.input = input;
+            this.errorStream = errorStream;
+            this.buffer = new TailBuffer(limit);
+            this.log = log;
+            this.listener = listener;
+            this.thread = new Thread(this, errorStream
+                    ? "codepilot1c-process-stderr" //$NON-NLS-1$
+                    : "codepilot1c-process-stdout"); //$NON-NLS-1$
+            this.thread.setDaemon(true);
+        }
+
+        static Drainer start(InputStream input, boolean errorStream, int limit, LogSink log,
+                ProcessOutputListener listener) {
+            Drainer drainer = new Drainer(input, errorStream, limit, log, listener);
+            drainer.thread.start();
+            return drainer;
+        }
+
+        @Override
+        public void run() {
+            try (InputStream source = input) {
+                byte[] chunk = new byte[CHUNK_SIZE];
+                int read;
+                while ((read = source.read(chunk)) >= 0) {
+                    buffer.write(chunk, 0, read);
+                    log.write(chunk, read);
+                    if (listener != null) {
+                        splitLines(chunk, read);
+                    }
+                }
+            } catch (IOException e) {
+                failure = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            }
+            if (listener != null && line.size() > 0) {
+                emitLine();
+            }
+        }
+
+        /**
+         * Waits for the end of the stream. A descendant that survived termination may still hold
+         * the pipe open; the stream is closed then so the reader thread ends.
+         */
+        ProcessOutcome.Output finish(long deadlineNanos) {
+            boolean interrupted = false;
+            try {
+                thread.join(Math.max(1L, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime())));
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+            if (thread.isAlive()) {
+                closeQuietly(input);
+                if (failure == null) {
+                    failure = "output still open after process exit"; //$NON-NLS-1$
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return new ProcessOutcome.Output(buffer.asString(), buffer.total(), buffer.truncated(), failure);
+        }
+
+        private void splitLines(byte[] chunk, int length) {
+            int from = 0;
+            for (int i = 0; i < length; i++) {
+                if (chunk[i] == '\n') {
+                    appendLine(chunk, from, i - from);
+                    emitLine();
+                    from = i + 1;
+                }
+            }
+            appendLine(chunk, from, length - from);
+        }
+
+        private void appendLine(byte[] chunk, int from, int length) {
+            int room = MAX_LINE_BYTES - line.size();
+            if (room > 0) {
+                line.write(chunk, from, Math.min(room, length));
+            }
+        }
+
+        private void emitLine() {
+            byte[] bytes = line.toByteArray();
+            int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+            line.reset();
+            try {
+                listener.onLine(errorStream, new String(bytes, 0, length, StandardCharsets.UTF_8));
+            } catch (RuntimeException e) {
+                // A failing listener must not stop draining
+            }
+        }
+    }
+
+    /**
+     * Keeps the last {@code limit} bytes of a stream. The array grows on demand, so a generous
+     * limit costs nothing for short outputs.
+     */
+    static final class TailBuffer {
+
+        private static final int INITIAL_CAPACITY = 8192;
+
+        private final int limit;
+        private byte[] bytes;
+        private int start;
+        private int size;
+        private long total;
+
+        TailBuffer(int limit) {
+            this.limit = limit;
+            this.bytes = new byte[Math.min(limit, INITIAL_CAPACITY)];
+        }
+
+        synchronized void write(byte[] source, int offset, int length) {
+            total += length;
+            if (size + length > bytes.length && bytes.length < limit) {
+                grow(Math.min(limit, Math.max(bytes.length * 2, size + length)));
+            }
+            int capacity = bytes.length;
+            if (length >= capacity) {
+                System.arraycopy(source, offset + length - capacity, bytes, 0, capacity);
+                start = 0;
+                size = capacity;
+                return;
+            }
+            int end = (start + size) % capacity;
+            int first = Math.min(length, capacity - end);
+            System.arraycopy(source, offset, bytes, end, first);
+            System.arraycopy(source, offset + first, bytes, 0, length - first);
+            int grown = size + length;
+            if (grown > capacity) {
+                start = (start + grown - capacity) % capacity;
+                size = capacity;
+            } else {
+                size = grown;
+            }
+        }
+
+        synchronized long total() {
+            return total;
+        }
+
+        synchronized boolean truncated() {
+            return total > size;
+        }
+
+        synchronized String asString() {
+            byte[] linear = linear();
+            int from = 0;
+            if (total > size) {
+                // Do not start in the middle of a multi-byte character
+                while (from < linear.length && from < 3 && (linear[from] & 0xC0) == 0x80) {
+                    from++;
+                }
+            }
+            return new String(linear, from, linear.length - from, StandardCharsets.UTF_8);
+        }
+
+        private void grow(int capacity) {
+            byte[] linear = linear();
+            bytes = new byte[capacity];
+            System.arraycopy(linear, 0, bytes, 0, linear.length);
+            start = 0;
+        }
+
+        private byte[] linear() {
+            byte[] result = new byte[size];
+            int first = Math.min(size, bytes.length - start);
+            System.arraycopy(bytes, start, result, 0, first);
+            System.arraycopy(bytes, 0, result, first, size - first);
+            return result;
+        }
+    }
+
+    /**
+     * Optional log file shared by both readers.
+     */
+    private static final class LogSink {
+
+        private static final LogSink NONE = new LogSink(null);
+
+        private final OutputStream output;
+        private boolean failed;
+
+        private LogSink(OutputStream output) {
+            this.output = output;
+        }
+
+        static LogSink open(Path file) throws IOException {
+            if (file == null) {
+                return NONE;
+            }
+            return new LogSink(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        }
+
+        synchronized void write(byte[] chunk, int length) {
+            if (output == null || failed) {
+                return;
+            }
+            try {
+                output.write(chunk, 0, length);
+            } catch (IOException e) {
+                failed = true;
+            }
+        }
+
+        synchronized void close() {
+            if (output != null) {
+                closeQuietly(output);
+            }
+        }
+    }
+}
@@ -79,6 +79,7 @@ public class DynamicLlmProvider implements ILlmProvider {
     private final OpenAiModelCompatibilityPolicy openAiCompatibilityPolicy;
     private final ProviderHttpTransport httpTransport;
     private final Gson gson;
+    private final OpenAiRequestBodyCache openAiBodyCache = new OpenAiRequestBodyCache();
     private final ILlmProvider codexDelegate;
     private final Function<LlmProviderConfig, String> apiKeyResolver;
     private final IntSupplier requestTimeoutSupplier;
@@ -705,24 +706,20 @@ public class DynamicLlmProvider implements ILlmProvider {
             body.add("stream_options", streamOptions); //$NON-NLS-1$
         }
 
-        JsonArray messages = new JsonArray();
-
-        // Add all messages (including system messages and tool results)
+        // Messages and tools are spliced in as pre-serialized fragments: only messages added since
+        // the previous step are encoded again, and the prefix stays byte-identical between steps.
         List<LlmMessage> sanitizedMessages = LlmConversationSanitizer
                 .sanitizeForOpenAiToolCalls(request.getMessages());
-        for (LlmMessage msg : sanitizedMessages) {
-            messages.add(serializeMessage(msg, caps));
-        }
-
-        body.add("messages", messages); //$NON-NLS-1$
+        String messagesJson = openAiBodyCache.messagesJson(sanitizedMessages, caps.supportsImageInput(),
+                msg -> gson.toJson(serializeMessage(msg, caps)));
+        body.addProperty("messages", OpenAiRequestBodyCache.MESSAGES_PLACEHOLDER); //$NON-NLS-1$
 
         // Add tools if present
+        String toolsJson = null;
         if (request.hasTools()) {
-            JsonArray tools = new JsonArray();
-            for (ToolDefinition tool : request.getTools()) {
-                tools.add(serializeToolDefinition(tool));
-            }
-            body.add("tools", tools); //$NON-NLS-1$
+            toolsJson = openAiBodyCache.toolsJson(request.getTools(),
+                    tool -> gson.toJson(serializeToolDefinition(tool)));
+            body.addProperty("tools", OpenAiRequestBodyCache.TOOLS_PLACEHOLDER); //$NON-NLS-1$
             LOG.debug("Added %d tools to request", request.getTools().size()); //$NON-NLS-1$
 
             // Add tool_choice
@@ -735,7 +732,7 @@ public class DynamicLlmProvider implements ILlmProvider {
         executionPlan.getRequestOverrides().entrySet()
                 .forEach(entry -> body.add(entry.getKey(), entry.getValue().deepCopy()));
 
-        return gson.toJson(body);
+        return OpenAiRequestBodyCache.splice(gson.toJson(body), messagesJson, toolsJson);
     }
 
     /**
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.provider.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+import com.codepilot1c.core.model.LlmMessage;
+import com.codepilot1c.core.model.ToolDefinition;
+
+/**
+ * Reuses serialized fragments of OpenAI-compatible request bodies between agent steps.
+ *
+ * <p>Consecutive requests of one conversation share the whole history except the last few
+ * messages, and usually send the same tool definitions. Serialized tool fragments are kept per
+ * {@link ToolDefinition} instance; message fragments are kept for the last few conversations and
+ * reused for the longest leading run of messages that did not change. Only the tail is serialized
+ * again.</p>
+ *
+ * <p>The body skeleton is built with placeholders that are replaced by the joined fragments, so the
+ * output is byte-identical to serializing the full {@code JsonObject}.</p>
+ */
+final class OpenAiRequestBodyCache {
+
+    static final String MESSAGES_PLACEHOLDER = "\u0000codepilot1c:messages\u0000"; //$NON-NLS-1$
+    static final String TOOLS_PLACEHOLDER = "\u0000codepilot1c:tools\u0000"; //$NON-NLS-1$
+
+    private static final int MAX_CONVERSATIONS = 4;
+
+    private final Map<ToolDefinition, String> toolFragments = new WeakHashMap<>();
+    private final List<Conversation> conversations = new ArrayList<>();
+    private long reusedMessages;
+    private long serializedMessages;
+
+    /**
+     * Returns the JSON array of serialized messages, reusing the cached prefix.
+     *
+     * @param messages sanitized messages in request order
+     * @param imageInput whether the provider accepts image input; fragments are not shared across it
+     * @param serializer serializes one message to compact JSON
+     * @return JSON array text
+     */
+    String messagesJson(List<LlmMessage> messages, boolean imageInput, Function<LlmMessage, String> serializer) {
+        Conversation base = null;
+        int reused = 0;
+        synchronized (this) {
+            for (Conversation candidate : conversations) {
+                if (candidate.imageInput != imageInput) {
+                    continue;
+                }
+                int common = candidate.commonPrefix(messages);
+                if (common > reused) {
+                    base = candidate;
+                    reused = common;
+                }
+            }
+        }
+
+        List<String> fragments = new ArrayList<>(messages.size());
+        if (base != null) {
+            fragments.addAll(base.fragments.subList(0, reused));
+        }
+        for (int i = reused; i < messages.size(); i++) {
+            fragments.add(serializer.apply(messages.get(i)));
+        }
+
+        synchronized (this) {
+            reusedMessages += reused;
+            serializedMessages += messages.size() - reused;
+            if (base != null) {
+                conversations.remove(base);
+            }
+            conversations.add(0, new Conversation(imageInput, List.copyOf(messages), fragments));
+            while (conversations.size() > MAX_CONVERSATIONS) {
+                conversations.remove(conversations.size() - 1);
+            }
+        }
+        return joinArray(fragments);
+    }
+
+    /**
+     * Returns the JSON array of serialized tool definitions.
+     *
+     * @param tools tool definitions in request order
+     * @param serializer serializes one definition to compact JSON
+     * @return JSON array text
+     */
+    String toolsJson(List<ToolDefinition> tools, Function<ToolDefinition, String> serializer) {
+        List<String> fragments = new ArrayList<>(tools.size());
+        for (ToolDefinition tool : tools) {
+            String fragment;
+            synchronized (this) {
+                fragment = toolFragments.get(tool);
+            }
+            if (fragment == null) {
+                fragment = serializer.apply(tool);
+                synchronized (this) {
+                    toolFragments.put(tool, fragment);
+                }
+            }
+            fragments.add(fragment);
+        }
+        return joinArray(fragments);
+    }
+
+    /**
+     * Replaces the quoted placeholders in a serialized skeleton. A placeholder that is missing,
+     * for example because a request override replaced the field, is left alone.
+     *
+     * @param skeleton body serialized with placeholder strings
+     * @param messagesJson replacement for {@link #MESSAGES_PLACEHOLDER}, or {@code null}
+     * @param toolsJson replacement for {@link #TOOLS_PLACEHOLDER}, or {@code null}
+     * @return final body
+     */
+    static String splice(String skeleton, String messagesJson, String toolsJson) {
+        // Both positions are located before any replacement, so fragment text is never searched
+        String messagesToken = quotedToken(MESSAGES_PLACEHOLDER);
+        String toolsToken = quotedToken(TOOLS_PLACEHOLDER);
+        int messagesAt = messagesJson != null ? skeleton.indexOf(messagesToken) : -1;
+        int toolsAt = toolsJson != null ? skeleton.indexOf(toolsToken) : -1;
+        if (messagesAt < 0 && toolsAt < 0) {
+            return skeleton;
+        }
+
+        StringBuilder result = new StringBuilder(skeleton.length()
+                + (messagesAt >= 0 ? messagesJson.length() : 0)
+                + (toolsAt >= 0 ? toolsJson.length() : 0));
+        int position = 0;
+        boolean messagesFirst = toolsAt < 0 || (messagesAt >= 0 && messagesAt < toolsAt);
+        if (messagesFirst) {
+            position = append(result, skeleton, position, messagesAt, messagesToken, messagesJson);
+            position = append(result, skeleton, position, toolsAt, toolsToken, toolsJson);
+        } else {
+            position = append(result, skeleton, position, toolsAt, toolsToken, toolsJson);
+            position = append(result, skeleton, position, messagesAt, messagesToken, messagesJson);
+        }
+        result.append(skeleton, position, skeleton.length());
+        return result.toString();
+    }
+
+    /**
+     * Returns how many messages were taken from the cache and how many were serialized.
+     */
+    synchronized long[] getMessageCounters() {
+        return new long[] { reusedMessages, serializedMessages };
+    }
+
+    private static int append(StringBuilder result, String skeleton, int position, int at, String token,
+            String replacement) {
+        if (at < 0) {
+            return position;
+        }
+        result.append(skeleton, position, at).append(replacement);
+        return at + token.length();
+    }
+
+    private static String quotedToken(String placeholder) {
+        // Gson writes U+0000 as the six-character escape sequence
+        return '"' + placeholder.replace("\u0000", "\\u0000") + '"'; //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    private static String joinArray(List<String> fragments) {
+        int length = 2 + Math.max(0, fragments.size() - 1);
+        for (String fragment : fragments) {
+            length += fragment.length();
+        }
+        StringBuilder builder = new StringBuilder(length).append('[');
+        for (Iterator<String> iterator = fragments.iterator(); iterator.hasNext();) {
+            builder.append(iterator.next());
+            if (iterator.hasNext()) {
+                builder.append(',');
+            }
+        }
+        return builder.append(']').toString();
+    }
+
+    /**
+     * Messages of one conversation with their serialized fragments.
+     */
+    private static final class Conversation {
+
+        private final boolean imageInput;
+        private final List<LlmMessage> messages;
+        private final List<String> fragments;
+
+        Conversation(boolean imageInput, List<LlmMessage> messages, List<String> fragments) {
+            this.imageInput = imageInput;
+            this.messages = messages;
+            this.fragments = Collections.unmodifiableList(fragments);
+        }
+
+        int commonPrefix(List<LlmMessage> other) {
+            int limit = Math.min(messages.size(), other.size());
+            int index = 0;
+            while (index < limit && sameMessage(messages.get(index), other.get(index))) {
+                index++;
+            }
+            return index;
+        }
+
+        /**
+         * Messages with attachments are never matched: their payload may be read from disk.
+         * Plain messages also match by value, because the system prompt is rebuilt every step.
+         */
+        private static boolean sameMessage(LlmMessage cached, LlmMessage current) {
+            if (cached.hasContentParts() || current.hasContentParts()) {
+                return false;
+            }
+            if (cached == current) {
+                return true;
+            }
+            return !cached.hasToolCalls() && !current.hasToolCalls()
+                    && cached.getRole() == current.getRole()
+                    && Objects.equals(cached.getContent(), current.getContent())
+                    && Objects.equals(cached.getReasoningContent(), current.getReasoningContent())
+                    && Objects.equals(cached.getToolCallId(), current.getToolCallId());
+        }
+    }
+}
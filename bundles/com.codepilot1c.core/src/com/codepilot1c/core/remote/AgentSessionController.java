@@ -1,9 +1,7 @@
 package com.codepilot1c.core.remote;
 
 import java.time.Instant;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -12,6 +10,8 @@ import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -34,6 +34,7 @@ import com.codepilot1c.core.agent.profiles.AgentProfileRegistry;
 import com.codepilot1c.core.internal.VibeCorePlugin;
 import com.codepilot1c.core.logging.LogSanitizer;
 import com.codepilot1c.core.logging.VibeLogger;
+import com.codepilot1c.core.memory.compaction.SpeculativeCompactor;
 import com.codepilot1c.core.model.LlmMessage;
 import com.codepilot1c.core.provider.ILlmProvider;
 import com.codepilot1c.core.provider.LlmProviderRegistry;
@@ -57,19 +58,30 @@ public class AgentSessionController {
 
     private static final VibeLogger.CategoryLogger LOG = VibeLogger.forClass(AgentSessionController.class);
     private static final int MAX_EVENTS = 2_000;
+    /** Window in which consecutive stream chunks are merged into one remote event; 0 disables merging. */
+    private static final long CHUNK_WINDOW_MS = Long.getLong("codepilot1c.remote.chunkWindowMs", 50L); //$NON-NLS-1$
+    private static final int MAX_CHUNK_BATCH_CHARS = 8_192;
+    private static final ScheduledThreadPoolExecutor CHUNK_FLUSHER = createChunkFlusher();
+    /** Token budget of the session history before it is compacted with a pre-computed summary. */
+    private static final int HISTORY_TOKEN_BUDGET = Integer.getInteger("codepilot1c.remote.historyTokenBudget", 64_000); //$NON-NLS-1$
+    private static final int HISTORY_COMPACT_MIN_MESSAGES = 20;
 
     private static AgentSessionController instance;
 
     private final Object lock = new Object();
     private final List<IAgentEventListener> agentListeners = new CopyOnWriteArrayList<>();
     private final List<RemoteEventListener> remoteListeners = new CopyOnWriteArrayList<>();
-    private final Deque<RemoteEvent> eventLog = new ArrayDeque<>();
+    private final RemoteEventLog eventLog = new RemoteEventLog(MAX_EVENTS);
 
     private long nextSequence = 1L;
+    // Stream chunks not yet published; flushed by the window timer or before the next event.
+    private ChunkBatch pendingChunks;
     private String sessionId = UUID.randomUUID().toString();
     private String controllerClientId;
     private String currentProfileId = AgentProfileRegistry.getInstance().getDefaultProfile().getId();
     private List<LlmMessage> conversationHistory = new ArrayList<>();
+    // Summarizes the stable head of the history in the background between runs.
+    private final SpeculativeCompactor historyCompactor = new SpeculativeCompactor();
     private IAgentRunner activeRunner;
     private CompletableFuture<AgentResult> activeTask;
     // Keeps reentrant stop/reset calls from cancelling a runner from its own cleanup callback.
@@ -112,9 +124,7 @@ public class AgentSessionController {
         List<RemoteEvent> backlog;
         synchronized (lock) {
             remoteListeners.add(listener);
-            backlog = eventLog.stream()
-                    .filter(event -> event.getSequence() > fromSequence)
-                    .toList();
+            backlog = eventLog.after(fromSequence);
         }
         backlog.forEach(listener::onRemoteEvent);
     }
@@ -124,11 +134,7 @@ public class AgentSessionController {
     }
 
     public List<RemoteEvent> getEventsAfter(long fromSequence) {
-        synchronized (lock) {
-            return eventLog.stream()
-                    .filter(event -> event.getSequence() > fromSequence)
-                    .toList();
-        }
+        return eventLog.after(fromSequence);
     }
 
     public RemoteBootstrapResponse buildBootstrap(String clientId, IdeSnapshot ideSnapshot) {
@@ -185,6 +191,7 @@ public class AgentSessionController {
             }
             sessionId = UUID.randomUUID().toString();
             conversationHistory = new ArrayList<>();
+            historyCompactor.reset();
             lastErrorMessage = null;
             currentProfileId = normalizedProfile;
             expectedResetEpoch = resetEpoch;
@@ -403,6 +410,7 @@ public class AgentSessionController {
             }
             sessionId = UUID.randomUUID().toString();
             conversationHistory = new ArrayList<>();
+            historyCompactor.reset();
             pendingAgentConfirmation = null;
             pendingRemoteAction = null;
             activeRunner = null;
@@ -531,10 +539,11 @@ public class AgentSessionController {
             cancellationFailure = e;
         }
 
-        RemoteEvent resetEvent = null;
+        List<RemoteEvent> resetEvents = List.of();
         synchronized (lock) {
             if (resetEpoch == ownedResetEpoch) {
                 conversationHistory = new ArrayList<>();
+                historyCompactor.reset();
                 pendingAgentConfirmation = null;
                 pendingRemoteAction = null;
                 currentState = AgentState.IDLE;
@@ -546,12 +555,12 @@ public class AgentSessionController {
                     activeRunner = null;
                     activeTask = null;
                 }
-                resetEvent = appendRemoteEventLocked("session_reset", payload( //$NON-NLS-1$
+                resetEvents = appendRemoteEventLocked("session_reset", payload( //$NON-NLS-1$
                         "reason", reason != null ? reason : "manual")); //$NON-NLS-1$ //$NON-NLS-2$
                 resetInProgress = false;
             }
         }
-        dispatchRemoteEvent(resetEvent);
+        dispatchRemoteEvents(resetEvents);
         if (cancellationFailure != null) {
             throw cancellationFailure;
         }
@@ -713,6 +722,8 @@ public class AgentSessionController {
             ToolRegistry registry = toolRegistrySupplier.get();
             createdRunner = runnerFactory.create(
                     provider, registry, baseConfig.getSystemPromptAddition());
+            // The runner swaps in summaries prepared between runs and keeps preparing them between steps
+            createdRunner.setHistoryCompactor(historyCompactor, historyCompactionPolicy());
         } catch (RuntimeException e) {
             return PromptSubmission.rejected(
                     RemoteCommandResult.error("agent_start_failed", e.getMessage())); //$NON-NLS-1$
@@ -740,6 +751,13 @@ public class AgentSessionController {
             accepted = !resetPreventedAdmission && activeRunner == null && activeTask == null;
             if (accepted) {
                 historySnapshot = new ArrayList<>(conversationHistory);
+                if (!startingFreshSession) {
+                    List<LlmMessage> compacted = historyCompactor.compactIfNeeded(historySnapshot,
+                            historyCompactionPolicy());
+                    if (compacted != null) {
+                        historySnapshot = compacted;
+                    }
+                }
                 activeRunner = submittedRunner;
                 currentState = AgentState.RUNNING;
                 admittedSessionId = sessionId;
@@ -798,6 +816,7 @@ public class AgentSessionController {
                         if (!resetInProgress && resetEpoch == expectedResetEpoch) {
                             if (result != null) {
                                 conversationHistory = new ArrayList<>(result.getConversationHistory());
+                                historyCompactor.observe(conversationHistory, historyCompactionPolicy());
                                 currentState = result.getFinalState();
                                 lastErrorMessage = result.getErrorMessage();
                             } else if (error != null) {
@@ -825,6 +844,10 @@ public class AgentSessionController {
                 submittedTask);
     }
 
+    private static SpeculativeCompactor.Policy historyCompactionPolicy() {
+        return SpeculativeCompactor.Policy.fromPreferences(HISTORY_TOKEN_BUDGET, HISTORY_COMPACT_MIN_MESSAGES);
+    }
+
     private void cleanupRunner(IAgentRunner runner, IAgentEventListener listener) {
         try {
             runner.removeListener(listener);
@@ -913,7 +936,7 @@ public class AgentSessionController {
                     "errorMessage", result.getErrorMessage() != null ? result.getErrorMessage() : ""); //$NON-NLS-1$ //$NON-NLS-2$
         }
 
-        RemoteEvent remoteEvent;
+        List<RemoteEvent> remoteEvents;
         synchronized (lock) {
             if (eventRunner != null && (resetInProgress
                     || resetEpoch != runResetEpoch || activeRunner != eventRunner)) {
@@ -939,11 +962,16 @@ public class AgentSessionController {
                 }
                 lastErrorMessage = result.getErrorMessage();
             }
-            remoteEvent = remoteType != null
-                    ? appendRemoteEventLocked(remoteType, remotePayload)
-                    : null;
+            if (event instanceof StreamChunkEvent streamChunkEvent
+                    && !streamChunkEvent.isComplete() && CHUNK_WINDOW_MS > 0) {
+                remoteEvents = coalesceChunkLocked(streamChunkEvent);
+            } else {
+                remoteEvents = remoteType != null
+                        ? appendRemoteEventLocked(remoteType, remotePayload)
+                        : List.of();
+            }
         }
-        dispatchRemoteEvent(remoteEvent);
+        dispatchRemoteEvents(remoteEvents);
 
         for (IAgentEventListener listener : agentListeners) {
             try {
@@ -1193,44 +1221,127 @@ public class AgentSessionController {
     }
 
     private void emitRemote(String type, Map<String, Object> payload) {
-        RemoteEvent event;
+        List<RemoteEvent> events;
         synchronized (lock) {
-            event = appendRemoteEventLocked(type, payload);
+            events = appendRemoteEventLocked(type, payload);
         }
-        dispatchRemoteEvent(event);
+        dispatchRemoteEvents(events);
     }
 
     private void emitRemoteIfResetEpoch(long expectedResetEpoch,
             String type, Map<String, Object> payload) {
-        RemoteEvent event;
+        List<RemoteEvent> events;
         synchronized (lock) {
-            event = !resetInProgress && resetEpoch == expectedResetEpoch
+            events = !resetInProgress && resetEpoch == expectedResetEpoch
                     ? appendRemoteEventLocked(type, payload)
-                    : null;
+                    : List.of();
         }
-        dispatchRemoteEvent(event);
+        dispatchRemoteEvents(events);
+    }
+
+    /**
+     * Publishes an event, preceded by the pending stream chunks so that the log keeps the order
+     * in which the events happened.
+     */
+    private List<RemoteEvent> appendRemoteEventLocked(String type, Map<String, Object> payload) {
+        RemoteEvent chunks = flushChunksLocked();
+        RemoteEvent event = publishLocked(type, sessionId, payload);
+        return chunks != null ? List.of(chunks, event) : List.of(event);
     }
 
-    private RemoteEvent appendRemoteEventLocked(String type, Map<String, Object> payload) {
+    private RemoteEvent publishLocked(String type, String eventSessionId, Map<String, Object> payload) {
         RemoteEvent event = new RemoteEvent(
-                type, sessionId, nextSequence++, Instant.now(), payload);
-        eventLog.addLast(event);
-        while (eventLog.size() > MAX_EVENTS) {
-            eventLog.removeFirst();
-        }
+                type, eventSessionId, nextSequence++, Instant.now(), payload);
+        eventLog.append(event);
         return event;
     }
 
-    private void dispatchRemoteEvent(RemoteEvent event) {
-        if (event == null) {
-            return;
+    private List<RemoteEvent> coalesceChunkLocked(StreamChunkEvent chunk) {
+        List<RemoteEvent> flushed = new ArrayList<>(2);
+        if (pendingChunks != null && pendingChunks.reasoning != chunk.isReasoning()) {
+            flushed.add(flushChunksLocked());
         }
-        for (RemoteEventListener listener : remoteListeners) {
-            try {
-                listener.onRemoteEvent(event);
-            } catch (Exception e) {
-                LOG.warn("Remote event listener failed: %s", e.getMessage()); //$NON-NLS-1$
+        if (pendingChunks == null) {
+            ChunkBatch batch = new ChunkBatch(sessionId, chunk.isReasoning());
+            pendingChunks = batch;
+            CHUNK_FLUSHER.schedule(() -> flushChunks(batch), CHUNK_WINDOW_MS, TimeUnit.MILLISECONDS);
+        }
+        pendingChunks.add(chunk);
+        if (pendingChunks.content.length() >= MAX_CHUNK_BATCH_CHARS) {
+            flushed.add(flushChunksLocked());
+        }
+        return flushed;
+    }
+
+    private void flushChunks(ChunkBatch batch) {
+        RemoteEvent event;
+        synchronized (lock) {
+            if (pendingChunks != batch) {
+                return;
+            }
+            event = flushChunksLocked();
+        }
+        dispatchRemoteEvents(List.of(event));
+    }
+
+    private RemoteEvent flushChunksLocked() {
+        ChunkBatch batch = pendingChunks;
+        if (batch == null) {
+            return null;
+        }
+        pendingChunks = null;
+        return publishLocked("stream_chunk", batch.sessionId, payload( //$NON-NLS-1$
+                "content", batch.content.toString(), //$NON-NLS-1$
+                "finishReason", batch.finishReason, //$NON-NLS-1$
+                "complete", Boolean.FALSE, //$NON-NLS-1$
+                "chunks", Integer.valueOf(batch.chunks))); //$NON-NLS-1$
+    }
+
+    private void dispatchRemoteEvents(List<RemoteEvent> events) {
+        for (RemoteEvent event : events) {
+            for (RemoteEventListener listener : remoteListeners) {
+                try {
+                    listener.onRemoteEvent(event);
+                } catch (Exception e) {
+                    LOG.warn("Remote event listener failed: %s", e.getMessage()); //$NON-NLS-1$
+                }
+            }
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor createChunkFlusher() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "codepilot1c-remote-events"); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * Consecutive stream chunks waiting to be published as one {@code stream_chunk} event.
+     */
+    private static final class ChunkBatch {
+        private final String sessionId;
+        private final boolean reasoning;
+        private final StringBuilder content = new StringBuilder();
+        private String finishReason;
+        private int chunks;
+
+        private ChunkBatch(String sessionId, boolean reasoning) {
+            this.sessionId = sessionId;
+            this.reasoning = reasoning;
+        }
+
+        private void add(StreamChunkEvent chunk) {
+            if (chunk.getContent() != null) {
+                content.append(chunk.getContent());
+            }
+            if (chunk.getFinishReason() != null) {
+                finishReason = chunk.getFinishReason();
             }
+            chunks++;
         }
     }
 
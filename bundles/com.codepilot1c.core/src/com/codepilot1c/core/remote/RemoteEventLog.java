@@ -0,0 +1,72 @@
+package com.codepilot1c.core.remote;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size ring of the most recent remote events, addressed by sequence number.
+ *
+ * <p>Event {@code n} is stored in slot {@code n % capacity}, so the first event after a given
+ * sequence is found without scanning. There is a single writer, which appends events with
+ * consecutive sequence numbers while holding the controller lock; readers never lock. A reader
+ * first reads the published last sequence and then the slots up to it, skipping any slot the
+ * writer has meanwhile overwritten with a newer event.</p>
+ */
+final class RemoteEventLog {
+
+    private final int capacity;
+    private final AtomicReferenceArray<RemoteEvent> slots;
+    private volatile long lastSequence;
+
+    RemoteEventLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive"); //$NON-NLS-1$
+        }
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Stores an event, evicting the one {@code capacity} sequences older. Must be called by one
+     * thread at a time with increasing sequence numbers.
+     */
+    void append(RemoteEvent event) {
+        long sequence = event.getSequence();
+        if (sequence <= lastSequence) {
+            throw new IllegalArgumentException("Sequence " + sequence + " is not after " + lastSequence); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        slots.set(slot(sequence), event);
+        lastSequence = sequence;
+    }
+
+    /**
+     * Returns the retained events with a sequence greater than {@code fromSequence}, oldest first.
+     */
+    List<RemoteEvent> after(long fromSequence) {
+        long last = lastSequence;
+        if (fromSequence >= last) {
+            return List.of();
+        }
+        long first = Math.max(Math.max(fromSequence, 0L) + 1, last - capacity + 1);
+        List<RemoteEvent> result = new ArrayList<>((int) (last - first + 1));
+        for (long sequence = first; sequence <= last; sequence++) {
+            RemoteEvent event = slots.get(slot(sequence));
+            if (event != null && event.getSequence() == sequence) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the sequence of the newest event, or {@code 0} if nothing was appended.
+     */
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % capacity);
+    }
+}
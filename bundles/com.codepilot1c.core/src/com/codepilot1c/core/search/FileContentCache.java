@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.search;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Byte-bounded LRU of decoded file contents keyed by file path.
+ *
+ * <p>An entry is only served while the caller's modification stamp and charset match the ones it
+ * was loaded with, so a stale entry is never returned even if an invalidation was missed. Texts
+ * larger than a quarter of the budget are returned but not retained.</p>
+ */
+public final class FileContentCache {
+
+    /** Stamp of a missing resource or one without a usable stamp; such reads are never cached. */
+    public static final long NULL_STAMP = -1L;
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * @param maxBytes approximate heap budget for retained texts
+     */
+    public FileContentCache(long maxBytes) {
+        this.maxBytes = Math.max(0L, maxBytes);
+    }
+
+    /**
+     * Returns the content of a file, loading it on a miss.
+     *
+     * @param path stable file key
+     * @param stamp modification stamp, read before {@code loader} runs
+     * @param charset charset the bytes are decoded with
+     * @param loader reads the raw file bytes
+     * @return decoded content
+     * @throws IOException if the loader fails
+     */
+    public FileText get(String path, long stamp, Charset charset, Loader loader) throws IOException {
+        synchronized (this) {
+            Entry entry = entries.get(path);
+            if (entry != null && entry.stamp() == stamp && entry.charset().equals(charset)) {
+                hits.incrementAndGet();
+                return entry.text();
+            }
+        }
+        misses.incrementAndGet();
+        FileText text = FileText.decode(loader.load(), charset);
+        if (stamp != NULL_STAMP) {
+            put(path, new Entry(stamp, charset, text));
+        }
+        return text;
+    }
+
+    /**
+     * Drops the entry of one file.
+     */
+    public synchronized void invalidate(String path) {
+        Entry removed = entries.remove(path);
+        if (removed != null) {
+            bytes -= removed.text().estimatedBytes();
+            invalidations.incrementAndGet();
+        }
+    }
+
+    /**
+     * Drops every entry whose path matches the predicate.
+     */
+    public synchronized void invalidateIf(Predicate<String> pathFilter) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Entry> entry = iterator.next();
+            if (pathFilter.test(entry.getKey())) {
+                bytes -= entry.getValue().text().estimatedBytes();
+                invalidations.incrementAndGet();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops all entries; counters are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Returns the current size and cumulative counters.
+     */
+    public synchronized Stats stats() {
+        return new Stats(entries.size(), bytes, maxBytes, hits.get(), misses.get(), evictions.get(),
+                invalidations.get());
+    }
+
+    private synchronized void put(String path, Entry entry) {
+        long size = entry.text().estimatedBytes();
+        Entry previous = entries.remove(path);
+        if (previous != null) {
+            bytes -= previous.text().estimatedBytes();
+        }
+        if (size > maxBytes / 4) {
+            return;
+        }
+        entries.put(path, entry);
+        bytes += size;
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().text().estimatedBytes();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Reads the raw bytes of a file on a cache miss.
+     */
+    @FunctionalInterface
+    public interface Loader {
+
+        byte[] load() throws IOException;
+    }
+
+    private record Entry(long stamp, Charset charset, FileText text) {
+    }
+
+    /**
+     * Cache size and cumulative counters.
+     *
+     * @param entries retained files
+     * @param bytes approximate heap size of the retained texts
+     * @param maxBytes heap budget
+     * @param hits reads served from memory
+     * @param misses reads that loaded the file
+     * @param evictions entries dropped to stay within the budget
+     * @param invalidations entries dropped because the file changed or was removed
+     */
+    public record Stats(int entries, long bytes, long maxBytes, long hits, long misses, long evictions,
+            long invalidations) {
+
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+}
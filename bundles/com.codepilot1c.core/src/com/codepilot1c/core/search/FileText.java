@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.search;
+
+import java.nio.charset.Charset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable decoded file content with a line-start index.
+ *
+ * <p>Lines follow {@link java.io.BufferedReader#readLine()}: {@code \n}, {@code \r} and {@code \r\n}
+ * terminate a line, terminators are not part of the line, and a terminator at the end of the text
+ * does not start an extra empty line. A leading byte order mark is removed when decoding.</p>
+ */
+public final class FileText {
+
+    private static final char BOM = '\uFEFF';
+
+    private final String text;
+    private final int[] lineStarts;
+
+    private FileText(String text, int[] lineStarts) {
+        this.text = text;
+        this.lineStarts = lineStarts;
+    }
+
+    /**
+     * Decodes file bytes.
+     *
+     * @param bytes raw file content
+     * @param charset declared charset of the file
+     * @return decoded text without a byte order mark
+     */
+    public static FileText decode(byte[] bytes, Charset charset) {
+        return of(new String(bytes, charset));
+    }
+
+    /**
+     * Indexes already decoded text; a leading byte order mark is removed.
+     */
+    public static FileText of(String text) {
+        String content = !text.isEmpty() && text.charAt(0) == BOM ? text.substring(1) : text;
+        return new FileText(content, indexLines(content));
+    }
+
+    /** Returns the full text, line terminators as in the file. */
+    public String text() {
+        return text;
+    }
+
+    /** Returns the number of lines. */
+    public int lineCount() {
+        return lineStarts.length;
+    }
+
+    /**
+     * Returns one line without its terminator.
+     *
+     * @param index zero-based line index
+     */
+    public String line(int index) {
+        if (index < 0 || index >= lineStarts.length) {
+            throw new IndexOutOfBoundsException("Line " + index + " of " + lineStarts.length); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        int start = lineStarts[index];
+        int end = index + 1 < lineStarts.length ? lineStarts[index + 1] : text.length();
+        if (end > start && text.charAt(end - 1) == '\n') {
+            end--;
+        }
+        if (end > start && text.charAt(end - 1) == '\r') {
+            end--;
+        }
+        return text.substring(start, end);
+    }
+
+    /**
+     * Returns a read-only view of all lines; each line is materialized on access.
+     */
+    public List<String> lines() {
+        return new LineView(0, lineStarts.length);
+    }
+
+    /**
+     * Returns a read-only view of a line range.
+     *
+     * @param from first line, zero-based, inclusive
+     * @param to last line, exclusive
+     */
+    public List<String> lines(int from, int to) {
+        if (from < 0 || to > lineStarts.length || from > to) {
+            throw new IndexOutOfBoundsException("Lines " + from + ".." + to + " of " + lineStarts.length); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        }
+        return new LineView(from, to);
+    }
+
+    /**
+     * Returns the text with every line terminated by {@code \n}.
+     */
+    public String normalizedText() {
+        if (text.indexOf('\r') < 0 && (text.isEmpty() || text.charAt(text.length() - 1) == '\n')) {
+            return text;
+        }
+        StringBuilder builder = new StringBuilder(text.length() + 1);
+        for (int i = 0; i < lineStarts.length; i++) {
+            builder.append(line(i)).append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns the approximate heap size of this instance, used to bound caches.
+     */
+    public long estimatedBytes() {
+        return 2L * text.length() + 4L * lineStarts.length + 64L;
+    }
+
+    private static int[] indexLines(String text) {
+        int length = text.length();
+        if (length == 0) {
+            return new int[0];
+        }
+        int[] starts = new int[Math.max(16, length / 32)];
+        int count = 0;
+        int lineStart = 0;
+        while (lineStart < length) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+            }
+            starts[count++] = lineStart;
+            int i = lineStart;
+            while (i < length && text.charAt(i) != '\n' && text.charAt(i) != '\r') {
+                i++;
+            }
+            if (i < length && text.charAt(i) == '\r' && i + 1 < length && text.charAt(i + 1) == '\n') {
+                i++;
+            }
+            lineStart = i + 1;
+        }
+        return Arrays.copyOf(starts, count);
+    }
+
+    private final class LineView extends AbstractList<String> implements RandomAccess {
+
+        private final int from;
+        private final int size;
+
+        LineView(int from, int to) {
+            this.from = from;
+            this.size = to - from;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return line(from + index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
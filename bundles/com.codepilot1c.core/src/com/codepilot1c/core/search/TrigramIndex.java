@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * In-memory trigram posting index keyed by file path.
+ *
+ * <p>Every indexed file version gets a fresh, monotonically increasing id that is appended to the
+ * posting list of each trigram it contains, so posting lists stay sorted without insertion cost.
+ * Replaced or removed versions are tombstoned and dropped from the postings by a compaction once
+ * they outnumber the live entries.</p>
+ *
+ * <p>Candidate sets are always a superset of the files that can match: a file that is not indexed,
+ * or whose stamp differs from the indexed one, is reported as a candidate.</p>
+ */
+public final class TrigramIndex {
+
+    private static final int INITIAL_POSTING_CAPACITY = 4;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry> files = new ConcurrentHashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final BitSet tombstones = new BitSet();
+    private int nextId;
+    private int tombstoneCount;
+
+    /**
+     * Indexes (or re-indexes) the content of a file.
+     *
+     * @param path stable file key
+     * @param stamp modification stamp the content was read at
+     * @param text file content
+     */
+    public void put(String path, long stamp, CharSequence text) {
+        long[] trigrams = extract(text);
+        lock.writeLock().lock();
+        try {
+            Entry previous = files.get(path);
+            if (previous != null) {
+                tombstone(previous.id());
+            }
+            int id = nextId++;
+            for (long trigram : trigrams) {
+                postings.computeIfAbsent(Long.valueOf(trigram), key -> new Postings()).add(id);
+            }
+            files.put(path, new Entry(id, stamp));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a file from the index.
+     */
+    public void remove(String path) {
+        removeIf(path::equals);
+    }
+
+    /**
+     * Removes every file whose path matches the predicate.
+     */
+    public void removeIf(Predicate<String> pathFilter) {
+        lock.writeLock().lock();
+        try {
+            Iterator<Map.Entry<String, Entry>> iterator = files.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Entry> entry = iterator.next();
+                if (pathFilter.test(entry.getKey())) {
+                    tombstone(entry.getValue().id());
+                    iterator.remove();
+                }
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns whether the file is indexed at the given stamp.
+     */
+    public boolean isCurrent(String path, long stamp) {
+        Entry entry = files.get(path);
+        return entry != null && entry.stamp() == stamp;
+    }
+
+    /**
+     * Returns the number of indexed files.
+     */
+    public int size() {
+        return files.size();
+    }
+
+    /**
+     * Returns the number of distinct trigrams with postings.
+     */
+    public int trigramCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            files.clear();
+            postings.clear();
+            tombstones.clear();
+            tombstoneCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Resolves the query against the current postings.
+     */
+    public Candidates candidates(TrigramQuery query) {
+        lock.readLock().lock();
+        try {
+            BitSet matched = new BitSet();
+            for (long[] clause : query.clauses()) {
+                BitSet clauseMatch = intersect(clause);
+                if (clauseMatch != null) {
+                    matched.or(clauseMatch);
+                }
+            }
+            return new Candidates(matched, nextId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet intersect(long[] clause) {
+        Postings[] lists = new Postings[clause.length];
+        for (int i = 0; i < clause.length; i++) {
+            Postings list = postings.get(Long.valueOf(clause[i]));
+            if (list == null) {
+                return null;
+            }
+            lists[i] = list;
+        }
+        Arrays.sort(lists, (left, right) -> Integer.compare(left.size, right.size));
+        BitSet result = new BitSet();
+        Postings smallest = lists[0];
+        for (int i = 0; i < smallest.size; i++) {
+            result.set(smallest.ids[i]);
+        }
+        for (int i = 1; i < lists.length && !result.isEmpty(); i++) {
+            BitSet next = new BitSet();
+            Postings list = lists[i];
+            for (int j = 0; j < list.size; j++) {
+                if (result.get(list.ids[j])) {
+                    next.set(list.ids[j]);
+                }
+            }
+            result = next;
+        }
+        return result;
+    }
+
+    private void tombstone(int id) {
+        if (!tombstones.get(id)) {
+            tombstones.set(id);
+            tombstoneCount++;
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (tombstoneCount == 0 || tombstoneCount < files.size()) {
+            return;
+        }
+        Iterator<Postings> iterator = postings.values().iterator();
+        while (iterator.hasNext()) {
+            Postings list = iterator.next();
+            list.removeAll(tombstones);
+            if (list.size == 0) {
+                iterator.remove();
+            }
+        }
+        tombstones.clear();
+        tombstoneCount = 0;
+    }
+
+    private static long[] extract(CharSequence text) {
+        Set<Long> unique = new HashSet<>();
+        int length = text.length();
+        if (length < 3) {
+            return new long[0];
+        }
+        char first = TrigramQuery.fold(text.charAt(0));
+        char second = TrigramQuery.fold(text.charAt(1));
+        for (int i = 2; i < length; i++) {
+            char third = TrigramQuery.fold(text.charAt(i));
+            if (!isLineBreak(first) && !isLineBreak(second) && !isLineBreak(third)) {
+                unique.add(Long.valueOf(TrigramQuery.key(first, second, third)));
+            }
+            first = second;
+            second = third;
+        }
+        long[] result = new long[unique.size()];
+        int index = 0;
+        for (Long trigram : unique) {
+            result[index++] = trigram.longValue();
+        }
+        return result;
+    }
+
+    private static boolean isLineBreak(char ch) {
+        return ch == '\n' || ch == '\r';
+    }
+
+    private record Entry(int id, long stamp) {
+    }
+
+    /**
+     * Growable sorted id list.
+     */
+    private static final class Postings {
+
+        private int[] ids = new int[INITIAL_POSTING_CAPACITY];
+        private int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        void removeAll(BitSet removed) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!removed.get(ids[i])) {
+                    ids[kept++] = ids[i];
+                }
+            }
+            size = kept;
+            if (ids.length > INITIAL_POSTING_CAPACITY && size < ids.length / 4) {
+                ids = Arrays.copyOf(ids, Math.max(INITIAL_POSTING_CAPACITY, size * 2));
+            }
+        }
+    }
+
+    /**
+     * Result of a query: the files whose indexed content contains every trigram of some clause.
+     */
+    public final class Candidates {
+
+        private final BitSet matched;
+        private final int idLimit;
+
+        private Candidates(BitSet matched, int idLimit) {
+            this.matched = matched;
+            this.idLimit = idLimit;
+        }
+
+        /**
+         * Returns whether the file version may contain a match.
+         *
+         * @param path file key
+         * @param stamp current modification stamp of the file
+         * @return {@code false} only when the indexed content of this exact version cannot match
+         */
+        public boolean mayMatch(String path, long stamp) {
+            Entry entry = files.get(path);
+            if (entry == null || entry.stamp() != stamp || entry.id() >= idLimit) {
+                return true;
+            }
+            return matched.get(entry.id());
+        }
+
+        /**
+         * Returns whether the file is indexed at the given stamp, i.e. whether {@link #mayMatch}
+         * answers from the index rather than by default.
+         */
+        public boolean isIndexed(String path, long stamp) {
+            Entry entry = files.get(path);
+            return entry != null && entry.stamp() == stamp && entry.id() < idLimit;
+        }
+    }
+}
@@ -0,0 +1,359 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Trigram requirements extracted from a search pattern.
+ *
+ * <p>The query is a disjunction of clauses; every clause is a conjunction of trigrams that a line
+ * must contain for the pattern to match it. Extraction is deliberately conservative: only literal
+ * runs that every match must contain are used, and any construct the parser does not fully
+ * understand makes {@link #regex(String)} return {@code null}, which callers treat as "scan every
+ * file".</p>
+ *
+ * <p>Trigrams are built from case-folded characters (see {@link #fold(char)}), so one index serves
+ * both case-sensitive and case-insensitive searches.</p>
+ */
+public final class TrigramQuery {
+
+    private static final String QUANTIFIER_START = "*+?{"; //$NON-NLS-1$
+    private static final String ZERO_WIDTH_OR_CLASS_ESCAPES = "RXbBAGZzdDsSwWhHvVtnrfae"; //$NON-NLS-1$
+
+    private final List<long[]> clauses;
+
+    private TrigramQuery(List<long[]> clauses) {
+        this.clauses = clauses;
+    }
+
+    /**
+     * Builds a query for a plain-text search.
+     *
+     * @param text literal text
+     * @return the query, or {@code null} when the text is too short to narrow the search
+     */
+    public static TrigramQuery literal(String text) {
+        if (text == null) {
+            return null;
+        }
+        Set<Long> trigrams = new LinkedHashSet<>();
+        addTrigrams(text, trigrams);
+        return trigrams.isEmpty() ? null : new TrigramQuery(List.of(toArray(trigrams)));
+    }
+
+    /**
+     * Builds a query for a {@link java.util.regex.Pattern} source string.
+     *
+     * @param regex valid regular expression
+     * @return the query, or {@code null} when the pattern cannot be decomposed into trigrams
+     */
+    public static TrigramQuery regex(String regex) {
+        if (regex == null) {
+            return null;
+        }
+        List<long[]> clauses = new Parser(regex).parse();
+        return clauses == null ? null : new TrigramQuery(List.copyOf(clauses));
+    }
+
+    /**
+     * Returns the clauses of this query. A line can match only if it contains every trigram of at
+     * least one clause.
+     */
+    public List<long[]> clauses() {
+        return clauses;
+    }
+
+    /**
+     * Case-folds a character so that all case variants the regex engine treats as equal map to the
+     * same value.
+     */
+    public static char fold(char ch) {
+        return Character.toLowerCase(Character.toUpperCase(ch));
+    }
+
+    /**
+     * Encodes three already folded characters into a trigram key.
+     */
+    public static long key(char first, char second, char third) {
+        return ((long) first << 32) | ((long) second << 16) | third;
+    }
+
+    static void addTrigrams(CharSequence text, Set<Long> target) {
+        for (int i = 0; i + 2 < text.length(); i++) {
+            target.add(Long.valueOf(key(fold(text.charAt(i)), fold(text.charAt(i + 1)), fold(text.charAt(i + 2)))));
+        }
+    }
+
+    private static long[] toArray(Set<Long> trigrams) {
+        long[] result = new long[trigrams.size()];
+        int index = 0;
+        for (Long trigram : trigrams) {
+            result[index++] = trigram.longValue();
+        }
+        return result;
+    }
+
+    /**
+     * Single-pass scanner over the pattern source. Groups and character classes are skipped as
+     * opaque atoms; top-level alternation splits the query into clauses.
+     */
+    private static final class Parser {
+
+        private final String pattern;
+        private final List<long[]> clauses = new ArrayList<>();
+        private final StringBuilder run = new StringBuilder();
+        private Set<Long> current = new LinkedHashSet<>();
+        private int position;
+
+        Parser(String pattern) {
+            this.pattern = pattern;
+        }
+
+        List<long[]> parse() {
+            int length = pattern.length();
+            while (position < length) {
+                char ch = pattern.charAt(position);
+                switch (ch) {
+                    case '\\' -> {
+                        if (!escape()) {
+                            return null;
+                        }
+                    }
+                    case '[' -> {
+                        if (!skipClass()) {
+                            return null;
+                        }
+                        breakRun();
+                    }
+                    case '(' -> {
+                        if (!skipGroup()) {
+                            return null;
+                        }
+                        breakRun();
+                    }
+                    case '|' -> {
+                        position++;
+                        if (!finishClause()) {
+                            return null;
+                        }
+                    }
+                    case '.', '^', '$' -> {
+                        position++;
+                        breakRun();
+                    }
+                    case ')', '*', '+', '?', '{' -> {
+                        return null;
+                    }
+                    default -> {
+                        position++;
+                        literal(ch);
+                    }
+                }
+            }
+            return finishClause() ? clauses : null;
+        }
+
+        private boolean finishClause() {
+            flushRun();
+            if (current.isEmpty()) {
+                return false;
+            }
+            clauses.add(toArray(current));
+            current = new LinkedHashSet<>();
+            return true;
+        }
+
+        private void literal(char ch) {
+            int quantifier = quantifierMinimum();
+            if (quantifier < 0) {
+                run.append(ch);
+                return;
+            }
+            if (quantifier > 0) {
+                run.append(ch);
+            }
+            flushRun();
+        }
+
+        private void breakRun() {
+            flushRun();
+            quantifierMinimum();
+        }
+
+        private void flushRun() {
+            addTrigrams(run, current);
+            run.setLength(0);
+        }
+
+        /**
+         * Consumes a quantifier at the current position.
+         *
+         * @return {@code -1} when there is no quantifier, otherwise the minimum repetition count
+         */
+        private int quantifierMinimum() {
+            if (position >= pattern.length() || QUANTIFIER_START.indexOf(pattern.charAt(position)) < 0) {
+                return -1;
+            }
+            char ch = pattern.charAt(position++);
+            int minimum;
+            if (ch == '{') {
+                int close = pattern.indexOf('}', position);
+                if (close < 0) {
+                    position = pattern.length();
+                    return 0;
+                }
+                String bounds = pattern.substring(position, close);
+                int comma = bounds.indexOf(',');
+                String lower = (comma >= 0 ? bounds.substring(0, comma) : bounds).trim();
+                try {
+                    minimum = Integer.parseInt(lower);
+                } catch (NumberFormatException e) {
+                    minimum = 0;
+                }
+                position = close + 1;
+            } else {
+                minimum = ch == '+' ? 1 : 0;
+            }
+            if (position < pattern.length() && (pattern.charAt(position) == '?' || pattern.charAt(position) == '+')) {
+                position++;
+            }
+            return minimum;
+        }
+
+        private boolean escape() {
+            if (position + 1 >= pattern.length()) {
+                return false;
+            }
+            char next = pattern.charAt(position + 1);
+            position += 2;
+            if (!Character.isLetterOrDigit(next)) {
+                literal(next);
+                return true;
+            }
+            if (next == 'Q') {
+                return quoted();
+            }
+            if (Character.isDigit(next)) {
+                while (position < pattern.length() && Character.isDigit(pattern.charAt(position))) {
+                    position++;
+                }
+            } else if (next == 'u') {
+                position += 4;
+            } else if (next == 'x' || next == 'p' || next == 'P' || next == 'N') {
+                if (position < pattern.length() && pattern.charAt(position) == '{') {
+                    int close = pattern.indexOf('}', position);
+                    if (close < 0) {
+                        return false;
+                    }
+                    position = close + 1;
+                } else {
+                    position += next == 'x' ? 2 : 1;
+                }
+            } else if (next == 'c') {
+                position++;
+            } else if (next == 'k') {
+                int close = pattern.indexOf('>', position);
+                if (close < 0) {
+                    return false;
+                }
+                position = close + 1;
+            } else if (ZERO_WIDTH_OR_CLASS_ESCAPES.indexOf(next) < 0) {
+                return false;
+            }
+            if (position > pattern.length()) {
+                return false;
+            }
+            breakRun();
+            return true;
+        }
+
+        private boolean quoted() {
+            int end = pattern.indexOf("\\E", position); //$NON-NLS-1$
+            String text = end >= 0 ? pattern.substring(position, end) : pattern.substring(position);
+            position = end >= 0 ? end + 2 : pattern.length();
+            if (text.isEmpty()) {
+                return true;
+            }
+            run.append(text, 0, text.length() - 1);
+            literal(text.charAt(text.length() - 1));
+            return true;
+        }
+
+        private boolean skipClass() {
+            int depth = 0;
+            int length = pattern.length();
+            while (position < length) {
+                char ch = pattern.charAt(position);
+                if (ch == '\\') {
+                    position += 2;
+                    continue;
+                }
+                if (ch == '[') {
+                    depth++;
+                    position++;
+                    if (position < length && pattern.charAt(position) == '^') {
+                        position++;
+                    }
+                    if (position < length && pattern.charAt(position) == ']') {
+                        position++;
+                    }
+                    continue;
+                }
+                position++;
+                if (ch == ']' && --depth == 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean skipGroup() {
+            if (pattern.startsWith("(?", position)) { //$NON-NLS-1$
+                int cursor = position + 2;
+                while (cursor < pattern.length()
+                        && (Character.isLetter(pattern.charAt(cursor)) || pattern.charAt(cursor) == '-')) {
+                    if (pattern.charAt(cursor) == 'x') {
+                        return false;
+                    }
+                    cursor++;
+                }
+            }
+            int depth = 0;
+            int length = pattern.length();
+            while (position < length) {
+                char ch = pattern.charAt(position);
+                if (ch == '\\') {
+                    if (pattern.startsWith("\\Q", position)) { //$NON-NLS-1$
+                        int end = pattern.indexOf("\\E", position + 2); //$NON-NLS-1$
+                        position = end >= 0 ? end + 2 : length;
+                    } else {
+                        position += 2;
+                    }
+                    continue;
+                }
+                if (ch == '[') {
+                    if (!skipClass()) {
+                        return false;
+                    }
+                    continue;
+                }
+                position++;
+                if (ch == '(') {
+                    depth++;
+                } else if (ch == ')' && --depth == 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
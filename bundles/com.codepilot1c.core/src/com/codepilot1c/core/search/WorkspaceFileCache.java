@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.search;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+
+import com.codepilot1c.core.logging.VibeLogger;
+
+/**
+ * Workspace-wide cache of decoded file contents shared by the file and code-analysis tools.
+ *
+ * <p>Entries are keyed by full path and validated against the modification stamp and declared
+ * charset on every read, so the cache is correct even before {@link #start()}. Once started, a
+ * resource change listener drops changed, removed and closed files early to free memory.</p>
+ *
+ * <p>A file changed on disk without a workspace refresh keeps its stamp, so every read first
+ * checks that the file is synchronized with the file system. An out-of-sync file is never served
+ * from the cache, and reads are not forced, so it fails instead of returning stale text that an
+ * edit could write back over the external change.</p>
+ */
+public final class WorkspaceFileCache implements IResourceChangeListener {
+
+    private static final VibeLogger.CategoryLogger LOG = VibeLogger.forClass(WorkspaceFileCache.class);
+
+    private static final long MAX_BYTES = Long.getLong("codepilot1c.fileCache.maxBytes", 64L * 1024 * 1024); //$NON-NLS-1$
+
+    private static final WorkspaceFileCache INSTANCE = new WorkspaceFileCache();
+
+    private final FileContentCache cache = new FileContentCache(MAX_BYTES);
+
+    private WorkspaceFileCache() {
+    }
+
+    /**
+     * Returns the process-wide cache.
+     *
+     * @return shared instance
+     */
+    public static WorkspaceFileCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts delta-driven invalidation.
+     */
+    public void start() {
+        ResourcesPlugin.getWorkspace().addResourceChangeListener(this,
+                IResourceChangeEvent.POST_CHANGE | IResourceChangeEvent.PRE_CLOSE | IResourceChangeEvent.PRE_DELETE);
+    }
+
+    /**
+     * Stops invalidation and drops all entries.
+     */
+    public void stop() {
+        try {
+            ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+        } catch (IllegalStateException e) {
+            LOG.debug("Workspace already closed, skipping listener removal"); //$NON-NLS-1$
+        }
+        FileContentCache.Stats stats = cache.stats();
+        LOG.info("File cache stopped: hits=%d misses=%d hitRate=%.2f evictions=%d invalidations=%d", //$NON-NLS-1$
+                stats.hits(), stats.misses(), stats.hitRate(), stats.evictions(), stats.invalidations());
+        cache.clear();
+    }
+
+    /**
+     * Returns the content of a workspace file decoded with its declared charset.
+     *
+     * @param file workspace file
+     * @return decoded content without a byte order mark
+     * @throws IOException if the file cannot be read or is out of sync with the file system
+     */
+    public FileText read(IFile file) throws IOException {
+        if (!file.isSynchronized(IResource.DEPTH_ZERO)) {
+            cache.invalidate(key(file));
+            return FileText.decode(load(file), charset(file));
+        }
+        // Workspace stamps of existing files are positive; anything else cannot validate an entry.
+        long stamp = file.getModificationStamp();
+        return cache.get(key(file), stamp > 0 ? stamp : FileContentCache.NULL_STAMP, charset(file),
+                () -> load(file));
+    }
+
+    /**
+     * Returns the current size and hit/miss counters.
+     */
+    public FileContentCache.Stats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void resourceChanged(IResourceChangeEvent event) {
+        if (event.getType() == IResourceChangeEvent.PRE_CLOSE
+                || event.getType() == IResourceChangeEvent.PRE_DELETE) {
+            if (event.getResource() instanceof IProject project) {
+                String prefix = project.getFullPath().addTrailingSeparator().toString();
+                cache.invalidateIf(path -> path.startsWith(prefix));
+            }
+            return;
+        }
+        IResourceDelta delta = event.getDelta();
+        if (delta == null || cache.stats().entries() == 0) {
+            return;
+        }
+        try {
+            delta.accept(child -> {
+                if (child.getResource() instanceof IFile file) {
+                    if (child.getKind() == IResourceDelta.REMOVED
+                            || (child.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED
+                                    | IResourceDelta.ENCODING)) != 0) {
+                        cache.invalidate(key(file));
+                    }
+                    return false;
+                }
+                return true;
+            });
+        } catch (CoreException e) {
+            LOG.warn("Failed to process resource delta for file cache: %s", e.getMessage()); //$NON-NLS-1$
+        }
+    }
+
+    private static byte[] load(IFile file) throws IOException {
+        try (InputStream input = file.getContents(false)) {
+            return input.readAllBytes();
+        } catch (CoreException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private static Charset charset(IFile file) {
+        try {
+            return Charset.forName(file.getCharset());
+        } catch (CoreException | IllegalArgumentException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    private static String key(IFile file) {
+        return file.getFullPath().toString();
+    }
+}
@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.search;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+
+import com.codepilot1c.core.logging.VibeLogger;
+
+/**
+ * Workspace-wide trigram index used to skip files that cannot match a text search.
+ *
+ * <p>Backs {@code grep} and {@code edt_search_in_code}. The index is built in the background on the
+ * first search after {@link #start()} and kept current by a resource change listener. Searches never
+ * wait for it: files that are not indexed yet, are too large, or changed since they were indexed
+ * are simply scanned, so results are identical with and without the index.</p>
+ */
+public final class WorkspaceTrigramIndex implements IResourceChangeListener {
+
+    private static final VibeLogger.CategoryLogger LOG = VibeLogger.forClass(WorkspaceTrigramIndex.class);
+
+    private static final Set<String> INDEXED_EXTENSIONS = Set.of(
+            "bsl", "os", "java", "xml", "mdo", "form", "dcs", "dcss", "sdbl", "query"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$
+    private static final int MAX_INDEXED_FILE_BYTES = 4 * 1024 * 1024;
+    private static final long UPDATE_DELAY_MS = 300L;
+
+    private static final WorkspaceTrigramIndex INSTANCE = new WorkspaceTrigramIndex();
+
+    private final TrigramIndex index = new TrigramIndex();
+    private final Set<IFile> pending = new LinkedHashSet<>();
+    private final Object executorLock = new Object();
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong indexedQueries = new AtomicLong();
+    private final AtomicLong fallbackQueries = new AtomicLong();
+    private final AtomicLong filesSkipped = new AtomicLong();
+    private final AtomicLong filesScanned = new AtomicLong();
+    private final AtomicLong filesUnindexed = new AtomicLong();
+    private ScheduledExecutorService executor;
+    private boolean updateScheduled;
+    private volatile boolean tracking;
+    private volatile boolean buildScheduled;
+
+    private WorkspaceTrigramIndex() {
+    }
+
+    /**
+     * Returns the process-wide index.
+     *
+     * @return shared instance
+     */
+    public static WorkspaceTrigramIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts delta tracking. The index itself is built lazily on the first search.
+     */
+    public void start() {
+        ResourcesPlugin.getWorkspace().addResourceChangeListener(this,
+                IResourceChangeEvent.POST_CHANGE | IResourceChangeEvent.PRE_CLOSE | IResourceChangeEvent.PRE_DELETE);
+        tracking = true;
+    }
+
+    /**
+     * Stops delta tracking and drops the index.
+     */
+    public void stop() {
+        tracking = false;
+        buildScheduled = false;
+        try {
+            ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+        } catch (IllegalStateException e) {
+            LOG.debug("Workspace already closed, skipping listener removal"); //$NON-NLS-1$
+        }
+        synchronized (executorLock) {
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+            pending.clear();
+            updateScheduled = false;
+        }
+        index.clear();
+    }
+
+    /**
+     * Returns a file filter for one search.
+     *
+     * @param pattern search text or regular expression
+     * @param regex whether {@code pattern} is a regular expression
+     * @return filter that rejects only files whose indexed content cannot match
+     */
+    public FileFilter filterFor(String pattern, boolean regex) {
+        queries.incrementAndGet();
+        TrigramQuery query = tracking ? (regex ? TrigramQuery.regex(pattern) : TrigramQuery.literal(pattern)) : null;
+        if (query == null) {
+            fallbackQueries.incrementAndGet();
+            return new FileFilter(null);
+        }
+        indexedQueries.incrementAndGet();
+        scheduleBuild();
+        return new FileFilter(index.candidates(query));
+    }
+
+    /**
+     * Returns the current index size and hit/miss counters.
+     */
+    public Stats stats() {
+        return new Stats(index.size(), index.trigramCount(), queries.get(), indexedQueries.get(),
+                fallbackQueries.get(), filesSkipped.get(), filesScanned.get(), filesUnindexed.get());
+    }
+
+    @Override
+    public void resourceChanged(IResourceChangeEvent event) {
+        if (event.getType() == IResourceChangeEvent.PRE_CLOSE
+                || event.getType() == IResourceChangeEvent.PRE_DELETE) {
+            if (event.getResource() instanceof IProject project) {
+                String prefix = project.getFullPath().addTrailingSeparator().toString();
+                index.removeIf(path -> path.startsWith(prefix));
+            }
+            return;
+        }
+        IResourceDelta delta = event.getDelta();
+        if (delta == null || !buildScheduled) {
+            return;
+        }
+        Set<IFile> changed = new LinkedHashSet<>();
+        try {
+            delta.accept(child -> {
+                IResource resource = child.getResource();
+                if (resource instanceof IProject project && (child.getFlags() & IResourceDelta.OPEN) != 0) {
+                    if (project.isOpen()) {
+                        executor().execute(() -> buildProject(project));
+                    }
+                    return false;
+                }
+                if (resource instanceof IFile file) {
+                    if (isIndexable(file)) {
+                        if (child.getKind() == IResourceDelta.REMOVED) {
+                            index.remove(key(file));
+                        } else if (child.getKind() == IResourceDelta.ADDED
+                                || (child.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) != 0) {
+                            changed.add(file);
+                        }
+                    }
+                    return false;
+                }
+                return true;
+            });
+        } catch (CoreException e) {
+            LOG.warn("Failed to process resource delta for trigram index: %s", e.getMessage()); //$NON-NLS-1$
+            return;
+        }
+        if (!changed.isEmpty()) {
+            enqueue(changed);
+        }
+    }
+
+    private void scheduleBuild() {
+        if (buildScheduled) {
+            return;
+        }
+        synchronized (executorLock) {
+            if (buildScheduled || !tracking) {
+                return;
+            }
+            buildScheduled = true;
+            executor().execute(this::buildAll);
+        }
+    }
+
+    private void buildAll() {
+        long startedAt = System.nanoTime();
+        for (IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects()) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            if (project.isOpen()) {
+                buildProject(project);
+            }
+        }
+        LOG.info("Trigram index built: files=%d trigrams=%d elapsedMs=%d", //$NON-NLS-1$
+                index.size(), index.trigramCount(), (System.nanoTime() - startedAt) / 1_000_000L);
+    }
+
+    private void buildProject(IProject project) {
+        try {
+            project.accept(resource -> {
+                if (Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+                if (resource instanceof IFile file) {
+                    if (isIndexable(file) && !index.isCurrent(key(file), file.getModificationStamp())) {
+                        indexFile(file);
+                    }
+                    return false;
+                }
+                return true;
+            });
+        } catch (CoreException e) {
+            LOG.warn("Trigram index build failed for %s: %s", project.getName(), e.getMessage()); //$NON-NLS-1$
+        }
+    }
+
+    private void enqueue(Set<IFile> files) {
+        synchronized (executorLock) {
+            pending.addAll(files);
+            if (updateScheduled || !tracking) {
+                return;
+            }
+            updateScheduled = true;
+            executor().schedule(this::drainPending, UPDATE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void drainPending() {
+        Set<IFile> batch;
+        synchronized (executorLock) {
+            batch = new LinkedHashSet<>(pending);
+            pending.clear();
+            updateScheduled = false;
+        }
+        for (IFile file : batch) {
+            if (file.exists()) {
+                indexFile(file);
+            } else {
+                index.remove(key(file));
+            }
+        }
+    }
+
+    private void indexFile(IFile file) {
+        String key = key(file);
+        long stamp = file.getModificationStamp();
+        try (InputStream input = file.getContents(true)) {
+            byte[] bytes = input.readNBytes(MAX_INDEXED_FILE_BYTES + 1);
+            if (bytes.length > MAX_INDEXED_FILE_BYTES) {
+                index.remove(key);
+                return;
+            }
+            index.put(key, stamp, new String(bytes, charset(file)));
+        } catch (CoreException | IOException e) {
+            LOG.debug("Trigram index skipped %s: %s", key, e.getMessage()); //$NON-NLS-1$
+            index.remove(key);
+        }
+    }
+
+    private ScheduledExecutorService executor() {
+        synchronized (executorLock) {
+            if (executor == null) {
+                executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "codepilot1c-trigram-index"); //$NON-NLS-1$
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+            }
+            return executor;
+        }
+    }
+
+    private static Charset charset(IFile file) {
+        try {
+            return Charset.forName(file.getCharset());
+        } catch (CoreException | IllegalArgumentException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    private static boolean isIndexable(IFile file) {
+        String extension = file.getFileExtension();
+        return extension != null && INDEXED_EXTENSIONS.contains(extension.toLowerCase(Locale.ROOT));
+    }
+
+    private static String key(IFile file) {
+        return file.getFullPath().toString();
+    }
+
+    /**
+     * Per-search candidate check.
+     */
+    public final class FileFilter {
+
+        private final TrigramIndex.Candidates candidates;
+        private int skipped;
+        private int unindexed;
+
+        private FileFilter(TrigramIndex.Candidates candidates) {
+            this.candidates = candidates;
+        }
+
+        /**
+         * Returns whether the file has to be scanned.
+         */
+        public boolean mayMatch(IFile file) {
+            if (candidates == null) {
+                filesScanned.incrementAndGet();
+                return true;
+            }
+            String key = key(file);
+            long stamp = file.getModificationStamp();
+            if (!candidates.isIndexed(key, stamp)) {
+                unindexed++;
+                filesUnindexed.incrementAndGet();
+                filesScanned.incrementAndGet();
+                return true;
+            }
+            if (candidates.mayMatch(key, stamp)) {
+                filesScanned.incrementAndGet();
+                return true;
+            }
+            skipped++;
+            filesSkipped.incrementAndGet();
+            return false;
+        }
+
+        /** Returns whether this search is narrowed by the index at all. */
+        public boolean isIndexed() {
+            return candidates != null;
+        }
+
+        /** Number of files rejected by the index during this search. */
+        public int skipped() {
+            return skipped;
+        }
+
+        /** Number of files scanned because they were not (yet) indexed. */
+        public int unindexed() {
+            return unindexed;
+        }
+    }
+
+    /**
+     * Index size and cumulative counters.
+     *
+     * @param files indexed files
+     * @param trigrams distinct trigrams
+     * @param queries searches that asked for a filter
+     * @param indexedQueries searches narrowed by the index
+     * @param fallbackQueries searches whose pattern could not be decomposed, scanned fully
+     * @param filesSkipped files rejected without reading
+     * @param filesScanned files read and matched
+     * @param filesUnindexed scanned files that were missing from the index or stale
+     */
+    public record Stats(
+            int files,
+            int trigrams,
+            long queries,
+            long indexedQueries,
+            long fallbackQueries,
+            long filesSkipped,
+            long filesScanned,
+            long filesUnindexed) {
+    }
+}
@@ -7,18 +7,27 @@
  */
 package com.codepilot1c.core.session;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -31,6 +40,7 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 
 /**
@@ -45,16 +55,31 @@ import com.google.gson.stream.JsonWriter;
  *   {session-id}.json
  *   {session-id}.json
  *   ...
+ *   sessions.index
  * </pre>
+ *
+ * <p>{@code sessions.index} - манифест кратких сведений (id, заголовок, проект, статус, даты,
+ * число сообщений) с размером и временем изменения файла каждой сессии. Он обновляется при
+ * {@link #save} и {@link #delete}, а списки, фильтр по проекту и очистка читают только его;
+ * тело сессии разбирается, лишь если файл изменился в обход хранилища. Манифест - кэш: при его
+ * повреждении он строится заново.</p>
+ *
+ * <p>Файлы сессий читаются потоково: для краткой информации сообщения пропускаются без
+ * разбора, при загрузке каждое сообщение преобразуется сразу после чтения.</p>
  */
 public class FileSessionStore implements ISessionStore {
 
     private static final VibeLogger.CategoryLogger LOG = VibeLogger.forClass(FileSessionStore.class);
     private static final String SESSIONS_DIR = "sessions";
     private static final String SESSION_EXTENSION = ".json";
+    private static final String INDEX_FILE = "sessions.index";
+    private static final int INDEX_VERSION = 1;
 
     private final Path sessionsDirectory;
     private final Gson gson;
+    private final Gson indexGson;
+    private final Object indexLock = new Object();
+    private Map<String, IndexEntry> index;
 
     /**
      * Создает хранилище в стандартной директории плагина.
@@ -71,6 +96,9 @@ public class FileSessionStore implements ISessionStore {
     public FileSessionStore(Path sessionsDirectory) {
         this.sessionsDirectory = sessionsDirectory;
         this.gson = createGson();
+        this.indexGson = new GsonBuilder()
+                .registerTypeAdapter(Instant.class, new InstantTypeAdapter())
+                .create();
         ensureDirectoryExists();
     }
 
@@ -132,13 +160,24 @@ public class FileSessionStore implements ISessionStore {
         }
 
         Path file = getSessionFile(session.getId());
+        SessionData data = SessionData.from(session);
 
-        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
-            SessionData data = SessionData.from(session);
-            gson.toJson(data, writer);
+        synchronized (indexLock) {
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                gson.toJson(data, writer);
+            } catch (IOException e) {
+                throw new SessionStoreException("Ошибка сохранения сессии: " + session.getId(), e);
+            }
+            try {
+                IndexEntry entry = IndexEntry.of(file, readAttributes(file), data);
+                index().put(entry.fileName, entry);
+                writeIndex();
+            } catch (IOException | IllegalArgumentException e) {
+                // The entry is rebuilt from the file on the next listing
+                index().remove(file.getFileName().toString());
+                logWarning("Не удалось обновить индекс сессий: " + session.getId(), e);
+            }
             logInfo("Сессия сохранена: " + session.getId());
-        } catch (IOException e) {
-            throw new SessionStoreException("Ошибка сохранения сессии: " + session.getId(), e);
         }
     }
 
@@ -154,16 +193,21 @@ public class FileSessionStore implements ISessionStore {
             return Optional.empty();
         }
 
-        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
-            SessionData data = gson.fromJson(reader, SessionData.class);
+        Reader reader;
+        try {
+            reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SessionStoreException("Ошибка загрузки сессии: " + sessionId, e);
+        }
+        try (JsonReader json = new JsonReader(reader)) {
+            List<SessionMessage> messages = new ArrayList<>();
+            SessionData data = readSessionData(json, message -> messages.add(message.toMessage()));
             if (data == null) {
                 return Optional.empty();
             }
-            Session session = data.toSession();
+            Session session = data.toSession(messages);
             logInfo("Сессия загружена: " + sessionId);
             return Optional.of(session);
-        } catch (IOException e) {
-            throw new SessionStoreException("Ошибка загрузки сессии: " + sessionId, e);
         } catch (Exception e) {
             logError("Ошибка парсинга сессии: " + sessionId, e);
             return Optional.empty();
@@ -178,14 +222,20 @@ public class FileSessionStore implements ISessionStore {
 
         Path file = getSessionFile(sessionId);
 
-        try {
-            boolean deleted = Files.deleteIfExists(file);
+        synchronized (indexLock) {
+            boolean deleted;
+            try {
+                deleted = Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new SessionStoreException("Ошибка удаления сессии: " + sessionId, e);
+            }
+            if (index().remove(file.getFileName().toString()) != null || deleted) {
+                writeIndex();
+            }
             if (deleted) {
                 logInfo("Сессия удалена: " + sessionId);
             }
             return deleted;
-        } catch (IOException e) {
-            throw new SessionStoreException("Ошибка удаления сессии: " + sessionId, e);
         }
     }
 
@@ -199,10 +249,8 @@ public class FileSessionStore implements ISessionStore {
 
     @Override
     public List<SessionSummary> listAll() throws SessionStoreException {
-        return listSessionFiles().stream()
-                .map(this::loadSummary)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
+        return currentEntries().stream()
+                .map(IndexEntry::toSummary)
                 .sorted(Comparator.comparing(SessionSummary::getUpdatedAt).reversed())
                 .collect(Collectors.toList());
     }
@@ -213,8 +261,10 @@ public class FileSessionStore implements ISessionStore {
             return new ArrayList<>();
         }
 
-        return listAll().stream()
-                .filter(s -> projectPath.equals(getProjectPathForSession(s.getId())))
+        return currentEntries().stream()
+                .filter(entry -> projectPath.equals(entry.projectPath))
+                .map(IndexEntry::toSummary)
+                .sorted(Comparator.comparing(SessionSummary::getUpdatedAt).reversed())
                 .collect(Collectors.toList());
     }
 
@@ -234,20 +284,26 @@ public class FileSessionStore implements ISessionStore {
         Instant cutoff = Instant.now().minus(Duration.ofDays(maxAgeDays));
         int deleted = 0;
 
-        for (Path file : listSessionFiles()) {
-            try {
-                Optional<SessionSummary> summary = loadSummary(file);
-                if (summary.isPresent()) {
-                    SessionSummary s = summary.get();
-                    // Only purge archived sessions older than cutoff
-                    if (s.getStatus() == Session.SessionStatus.ARCHIVED
-                            && s.getUpdatedAt().isBefore(cutoff)) {
-                        Files.deleteIfExists(file);
-                        deleted++;
-                    }
+        synchronized (indexLock) {
+            refreshIndex();
+            Iterator<IndexEntry> entries = index().values().iterator();
+            while (entries.hasNext()) {
+                IndexEntry entry = entries.next();
+                // Only purge archived sessions older than cutoff
+                if (entry.status() != Session.SessionStatus.ARCHIVED || !entry.updatedAt.isBefore(cutoff)) {
+                    continue;
                 }
-            } catch (IOException e) {
-                logWarning("Не удалось удалить старую сессию: " + file, e);
+                Path file = sessionsDirectory.resolve(entry.fileName);
+                try {
+                    Files.deleteIfExists(file);
+                    entries.remove();
+                    deleted++;
+                } catch (IOException e) {
+                    logWarning("Не удалось удалить старую сессию: " + file, e);
+                }
+            }
+            if (deleted > 0) {
+                writeIndex();
             }
         }
 
@@ -258,6 +314,50 @@ public class FileSessionStore implements ISessionStore {
         return deleted;
     }
 
+    /**
+     * Возвращает актуальные записи манифеста.
+     */
+    private List<IndexEntry> currentEntries() {
+        synchronized (indexLock) {
+            refreshIndex();
+            return new ArrayList<>(index().values());
+        }
+    }
+
+    /**
+     * Сверяет манифест с файлами сессий: записи удаленных файлов отбрасываются, новые и
+     * измененные в обход хранилища файлы читаются заново. Вызывается под {@code indexLock}.
+     */
+    private void refreshIndex() {
+        Map<String, IndexEntry> entries = index();
+        Map<String, IndexEntry> current = new HashMap<>();
+        boolean changed = false;
+        for (Path file : listSessionFiles()) {
+            String fileName = file.getFileName().toString();
+            BasicFileAttributes attributes;
+            try {
+                attributes = readAttributes(file);
+            } catch (IOException e) {
+                continue;
+            }
+            IndexEntry entry = entries.get(fileName);
+            if (entry == null || !entry.matches(attributes)) {
+                Optional<IndexEntry> read = readEntry(file, attributes);
+                if (read.isEmpty()) {
+                    continue;
+                }
+                entry = read.get();
+                changed = true;
+            }
+            current.put(fileName, entry);
+        }
+        if (changed || current.size() != entries.size()) {
+            entries.clear();
+            entries.putAll(current);
+            writeIndex();
+        }
+    }
+
     /**
      * Возвращает список файлов сессий.
      */
@@ -274,13 +374,13 @@ public class FileSessionStore implements ISessionStore {
     }
 
     /**
-     * Загружает краткую информацию о сессии из файла.
+     * Читает краткую информацию о сессии из файла, пропуская сообщения без разбора.
      */
-    private Optional<SessionSummary> loadSummary(Path file) {
-        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
-            SessionData data = gson.fromJson(reader, SessionData.class);
+    private Optional<IndexEntry> readEntry(Path file, BasicFileAttributes attributes) {
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            SessionData data = readSessionData(reader, null);
             if (data != null) {
-                return Optional.of(data.toSummary());
+                return Optional.of(IndexEntry.of(file, attributes, data));
             }
         } catch (Exception e) {
             logWarning("Ошибка чтения сессии: " + file, e);
@@ -289,15 +389,147 @@ public class FileSessionStore implements ISessionStore {
     }
 
     /**
-     * Получает путь к проекту для сессии (для фильтрации).
+     * Потоково читает файл сессии. Сообщения передаются в {@code messageSink} по одному,
+     * а при {@code messageSink == null} только подсчитываются.
+     *
+     * @return данные сессии без списка сообщений или {@code null} для пустого документа
      */
-    private String getProjectPathForSession(String sessionId) {
+    private SessionData readSessionData(JsonReader reader, Consumer<MessageData> messageSink) throws IOException {
+        reader.setLenient(true);
+        JsonToken first;
         try {
-            Optional<Session> session = load(sessionId);
-            return session.map(Session::getProjectPath).orElse(null);
-        } catch (SessionStoreException e) {
+            first = reader.peek();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (first == JsonToken.NULL) {
+            return null;
+        }
+        SessionData data = new SessionData();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id" -> data.id = nextString(reader);
+                case "title" -> data.title = nextString(reader);
+                case "projectPath" -> data.projectPath = nextString(reader);
+                case "projectName" -> data.projectName = nextString(reader);
+                case "status" -> data.status = nextString(reader);
+                case "createdAt" -> data.createdAt = nextInstant(reader);
+                case "updatedAt" -> data.updatedAt = nextInstant(reader);
+                case "systemPrompt" -> data.systemPrompt = nextString(reader);
+                case "agentProfile" -> data.agentProfile = nextString(reader);
+                case "modelId" -> data.modelId = nextString(reader);
+                case "totalTokens" -> data.totalTokens = nextInt(reader);
+                case "messages" -> data.messageCount = readMessages(reader, messageSink);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return data;
+    }
+
+    private int readMessages(JsonReader reader, Consumer<MessageData> messageSink) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return 0;
+        }
+        int count = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (messageSink == null) {
+                reader.skipValue();
+            } else {
+                messageSink.accept(gson.fromJson(reader, MessageData.class));
+            }
+            count++;
+        }
+        reader.endArray();
+        return count;
+    }
+
+    private static String nextString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
             return null;
         }
+        if (token == JsonToken.BOOLEAN) {
+            return Boolean.toString(reader.nextBoolean());
+        }
+        return reader.nextString();
+    }
+
+    private static Instant nextInstant(JsonReader reader) throws IOException {
+        String value = nextString(reader);
+        return value == null || value.isEmpty() ? null : Instant.parse(value);
+    }
+
+    private static int nextInt(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return 0;
+        }
+        return reader.nextInt();
+    }
+
+    /**
+     * Манифест, загружаемый при первом обращении. Вызывается под {@code indexLock}.
+     */
+    private Map<String, IndexEntry> index() {
+        if (index == null) {
+            index = readIndex();
+        }
+        return index;
+    }
+
+    private Map<String, IndexEntry> readIndex() {
+        Map<String, IndexEntry> entries = new HashMap<>();
+        Path file = sessionsDirectory.resolve(INDEX_FILE);
+        if (!Files.isRegularFile(file)) {
+            return entries;
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            IndexFile stored = indexGson.fromJson(reader, IndexFile.class);
+            if (stored != null && stored.version == INDEX_VERSION && stored.entries != null) {
+                for (IndexEntry entry : stored.entries) {
+                    if (entry != null && entry.isValid()) {
+                        entries.put(entry.fileName, entry);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            // Manifest is a cache: it is rebuilt from the session files
+            LOG.debug("Манифест сессий не прочитан, будет построен заново: %s", e.getMessage()); //$NON-NLS-1$
+            entries.clear();
+        }
+        return entries;
+    }
+
+    /**
+     * Атомарно записывает манифест. Вызывается под {@code indexLock}.
+     */
+    private void writeIndex() {
+        IndexFile stored = new IndexFile();
+        stored.version = INDEX_VERSION;
+        stored.entries = new ArrayList<>(index().values());
+        Path target = sessionsDirectory.resolve(INDEX_FILE);
+        Path temporary = sessionsDirectory.resolve(INDEX_FILE + ".tmp"); //$NON-NLS-1$
+        try {
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                indexGson.toJson(stored, writer);
+            }
+            try {
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            logWarning("Не удалось записать манифест сессий", e);
+        }
+    }
+
+    private static BasicFileAttributes readAttributes(Path file) throws IOException {
+        return Files.readAttributes(file, BasicFileAttributes.class);
     }
 
     /**
@@ -339,6 +571,8 @@ public class FileSessionStore implements ISessionStore {
         String modelId;
         int totalTokens;
         List<MessageData> messages;
+        /** Число сообщений при потоковом чтении; не сериализуется. */
+        transient int messageCount;
 
         static SessionData from(Session session) {
             SessionData data = new SessionData();
@@ -356,10 +590,11 @@ public class FileSessionStore implements ISessionStore {
             data.messages = session.getMessages().stream()
                     .map(MessageData::from)
                     .collect(Collectors.toList());
+            data.messageCount = data.messages.size();
             return data;
         }
 
-        Session toSession() {
+        Session toSession(List<SessionMessage> sessionMessages) {
             Session session = new Session(id);
             session.setTitle(title);
             session.setProjectPath(projectPath);
@@ -371,25 +606,80 @@ public class FileSessionStore implements ISessionStore {
             session.setModelId(modelId);
             session.setTotalTokens(totalTokens);
 
-            if (messages != null) {
-                for (MessageData msgData : messages) {
-                    session.addMessage(msgData.toMessage());
-                }
+            for (SessionMessage message : sessionMessages) {
+                session.addMessage(message);
             }
 
             return session;
         }
+    }
+
+    /**
+     * Содержимое файла манифеста.
+     */
+    private static class IndexFile {
+        int version;
+        List<IndexEntry> entries;
+    }
+
+    /**
+     * Запись манифеста: краткая информация о сессии и отметка файла, по которой она проверяется.
+     */
+    private static class IndexEntry {
+        String fileName;
+        long fileSize;
+        long modifiedNanos;
+        String id;
+        String title;
+        String projectPath;
+        String projectName;
+        String status;
+        Instant createdAt;
+        Instant updatedAt;
+        int messageCount;
+
+        static IndexEntry of(Path file, BasicFileAttributes attributes, SessionData data) {
+            IndexEntry entry = new IndexEntry();
+            entry.fileName = file.getFileName().toString();
+            entry.fileSize = attributes.size();
+            entry.modifiedNanos = attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+            entry.id = data.id;
+            entry.title = data.title;
+            entry.projectPath = data.projectPath;
+            entry.projectName = data.projectName;
+            entry.status = data.status;
+            entry.createdAt = data.createdAt;
+            entry.updatedAt = data.updatedAt;
+            entry.messageCount = data.messageCount;
+            if (!entry.isValid()) {
+                throw new IllegalArgumentException("Некорректная сессия: " + entry.fileName);
+            }
+            return entry;
+        }
+
+        boolean isValid() {
+            if (fileName == null || updatedAt == null || status == null) {
+                return false;
+            }
+            try {
+                Session.SessionStatus.valueOf(status);
+                return true;
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+
+        boolean matches(BasicFileAttributes attributes) {
+            return fileSize == attributes.size()
+                    && modifiedNanos == attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        }
+
+        Session.SessionStatus status() {
+            return Session.SessionStatus.valueOf(status);
+        }
 
         SessionSummary toSummary() {
-            return new SessionSummary(
-                    id,
-                    title,
-                    projectName,
-                    Session.SessionStatus.valueOf(status),
-                    createdAt,
-                    updatedAt,
-                    messages != null ? messages.size() : 0
-            );
+            return new SessionSummary(id, title, projectName, status(), createdAt, updatedAt, messageCount);
         }
     }
 
@@ -46,6 +46,7 @@
  * {plugin-state}/sessions/
  *   {session-id}.json
  *   ...
+ *   sessions.index   - манифест кратких сведений для списков
  * </pre>
  *
  * @see com.codepilot1c.core.agent.AgentRunner
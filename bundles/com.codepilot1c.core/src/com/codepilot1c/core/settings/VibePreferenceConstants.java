@@ -144,6 +144,13 @@ public final class VibePreferenceConstants {
     public static final String PREF_MEMORY_EXTRACTION_MODEL = "codepilot.memory.extraction_model"; //$NON-NLS-1$
     public static final String PREF_MEMORY_EXTRACTION_MODEL_DEFAULT = ""; //$NON-NLS-1$
 
+    /**
+     * Model ID used for LLM history compaction, including background pre-computed summaries.
+     * Empty (the default) means "use the active provider's configured model".
+     */
+    public static final String PREF_COMPACTION_MODEL = "codepilot.compaction.model"; //$NON-NLS-1$
+    public static final String PREF_COMPACTION_MODEL_DEFAULT = ""; //$NON-NLS-1$
+
     /**
      * Rolling window size (number of most-recent tool calls) inspected by the
      * tool-repetition detector (Plan 1.2).
@@ -20,12 +20,18 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+import com.codepilot1c.core.agent.prompts.PromptSourceCache;
 import com.codepilot1c.core.agent.prompts.WorkspacePromptSourceResolver;
 
 /**
  * Discovers and parses project, user, and bundled skills.
+ *
+ * <p>Skill directories are read through {@link PromptSourceCache}: discovery is recomputed only
+ * when a skill root, skill directory or skill file changes, and unchanged skill files are not
+ * parsed again.</p>
  */
 public final class SkillCatalog {
 
@@ -34,8 +40,12 @@ public final class SkillCatalog {
             "architect", "validator", //$NON-NLS-1$ //$NON-NLS-2$
             "verify-web-client", "web-e2e-qa"); //$NON-NLS-1$ //$NON-NLS-2$
 
+    /** Skills loaded from the bundle classpath; they cannot change while the bundle is loaded. */
+    private static final Map<String, SkillDefinition> CLASSPATH_SKILLS = new ConcurrentHashMap<>();
+
     private final Path projectRoot;
     private final WorkspacePromptSourceResolver sourceResolver;
+    private final PromptSourceCache cache;
 
     public SkillCatalog() {
         this(resolveDefaultProjectRoot(), resolveDefaultUserHome());
@@ -44,6 +54,7 @@ public final class SkillCatalog {
     public SkillCatalog(Path projectRoot, Path userHome) {
         this.projectRoot = projectRoot;
         this.sourceResolver = new WorkspacePromptSourceResolver(projectRoot, userHome);
+        this.cache = PromptSourceCache.getInstance();
     }
 
     /**
@@ -60,14 +71,18 @@ public final class SkillCatalog {
      * </ol>
      * Within each directory-based scope, an optional {@code SKILL.yaml} file in the same
      * directory as {@code SKILL.md} can override frontmatter values (see
-     * {@link #parseSkillYaml(Path)}).
+     * {@link #parseSkillYaml(String)}).
      */
     public List<SkillDefinition> discoverSkills() {
-        Map<String, SkillDefinition> definitions = new LinkedHashMap<>();
-        addBundledSkills(definitions);
-        sourceResolver.userSkillRoots().forEach(root -> addDirectorySkills(root, SkillDefinition.SourceType.USER, definitions));
-        sourceResolver.projectSkillRoots().forEach(root -> addDirectorySkills(root, SkillDefinition.SourceType.PROJECT, definitions));
-        return List.copyOf(definitions.values());
+        List<Path> userRoots = sourceResolver.userSkillRoots();
+        List<Path> projectRoots = sourceResolver.projectSkillRoots();
+        return cache.derive("skills:" + projectRoot + ':' + userRoots + ':' + projectRoots, () -> { //$NON-NLS-1$
+            Map<String, SkillDefinition> definitions = new LinkedHashMap<>();
+            addBundledSkills(definitions);
+            userRoots.forEach(root -> addDirectorySkills(root, SkillDefinition.SourceType.USER, definitions));
+            projectRoots.forEach(root -> addDirectorySkills(root, SkillDefinition.SourceType.PROJECT, definitions));
+            return List.copyOf(definitions.values());
+        });
     }
 
     public List<SkillDefinition> discoverVisibleSkills(boolean backendSelectedInUi) {
@@ -100,24 +115,33 @@ public final class SkillCatalog {
     }
 
     private Optional<SkillDefinition> loadBundledSkill(ClassLoader loader, String name, String resourcePath) {
+        SkillDefinition classpathSkill = CLASSPATH_SKILLS.get(name);
+        if (classpathSkill != null) {
+            return Optional.of(classpathSkill);
+        }
         try (InputStream input = loader.getResourceAsStream(resourcePath)) {
             if (input != null) {
                 String raw = new String(input.readAllBytes(), StandardCharsets.UTF_8);
-                return Optional.of(parseSkill(raw, name, SkillDefinition.SourceType.BUNDLED, resourcePath));
+                SkillDefinition definition = parseSkill(raw, name, SkillDefinition.SourceType.BUNDLED, resourcePath);
+                CLASSPATH_SKILLS.put(name, definition);
+                return Optional.of(definition);
             }
         } catch (IOException e) {
             // Ignore classpath/resource read issues and try development fallback below.
         }
 
         Path sourcePath = resolveBundledSkillSourcePath(name);
-        if (sourcePath != null && Files.isRegularFile(sourcePath)) {
+        if (sourcePath != null) {
             try {
-                String raw = Files.readString(sourcePath, StandardCharsets.UTF_8);
-                return Optional.of(parseSkill(
-                        raw,
-                        name,
-                        SkillDefinition.SourceType.BUNDLED,
-                        sourcePath.toAbsolutePath().normalize().toString()));
+                PromptSourceCache.Source source = cache.read(sourcePath);
+                if (source != null) {
+                    return Optional.of(cache.memoize("bundled-skill:" + name + ':' + source.path(), source.hash(), //$NON-NLS-1$
+                            () -> parseSkill(
+                                    source.content(),
+                                    name,
+                                    SkillDefinition.SourceType.BUNDLED,
+                                    source.path().toString())));
+                }
             } catch (IOException e) {
                 // Ignore broken bundled skill source and continue discovery.
             }
@@ -127,35 +151,40 @@ public final class SkillCatalog {
     }
 
     private void addDirectorySkills(Path root, SkillDefinition.SourceType type, Map<String, SkillDefinition> definitions) {
-        if (root == null || !Files.isDirectory(root)) {
+        if (root == null) {
             return;
         }
+        for (Path directory : cache.list(root)) {
+            if (!cache.isDirectory(directory)) {
+                continue;
+            }
+            Path skillFile = directory.resolve("SKILL.md"); //$NON-NLS-1$
+            try {
+                PromptSourceCache.Source skill = cache.read(skillFile);
+                if (skill == null) {
+                    continue;
+                }
+                // Optional SKILL.yaml overrides are part of the parsed definition
+                PromptSourceCache.Source yaml = readOptional(directory.resolve("SKILL.yaml")); //$NON-NLS-1$
+                String namespace = "skill:" + type + ':' + skill.path() //$NON-NLS-1$
+                        + ':' + (yaml != null ? yaml.hash() : ""); //$NON-NLS-1$
+                SkillDefinition definition = cache.memoize(namespace, skill.hash(), () -> {
+                    SkillDefinition parsed = parseSkill(skill.content(), directory.getFileName().toString(), type,
+                            skill.path().toString());
+                    return yaml != null ? applyYamlOverrides(parsed, yaml.content()) : parsed;
+                });
+                definitions.put(normalizeName(definition.name()), definition);
+            } catch (IOException e) {
+                // Ignore malformed skill file and keep discovery resilient.
+            }
+        }
+    }
+
+    private PromptSourceCache.Source readOptional(Path file) {
         try {
-            Files.list(root)
-                    .filter(Files::isDirectory)
-                    .forEach(directory -> {
-                        Path skillFile = directory.resolve("SKILL.md"); //$NON-NLS-1$
-                        if (!Files.isRegularFile(skillFile)) {
-                            return;
-                        }
-                        try {
-                            String raw = Files.readString(skillFile, StandardCharsets.UTF_8);
-                            SkillDefinition definition = parseSkill(raw, directory.getFileName().toString(), type,
-                                    skillFile.toAbsolutePath().toString());
-
-                            // Apply optional SKILL.yaml overrides
-                            Path yamlFile = directory.resolve("SKILL.yaml"); //$NON-NLS-1$
-                            if (Files.isRegularFile(yamlFile)) {
-                                definition = applyYamlOverrides(definition, yamlFile);
-                            }
-
-                            definitions.put(normalizeName(definition.name()), definition);
-                        } catch (IOException e) {
-                            // Ignore malformed skill file and keep discovery resilient.
-                        }
-                    });
+            return cache.read(file);
         } catch (IOException e) {
-            // Ignore broken discovery root and keep other layers working.
+            return null;
         }
     }
 
@@ -171,8 +200,8 @@ public final class SkillCatalog {
      *   <li>{@code dependencies.required_tools} &rarr; allowedTools</li>
      * </ul>
      */
-    private SkillDefinition applyYamlOverrides(SkillDefinition base, Path yamlFile) {
-        Map<String, String> yaml = parseSkillYaml(yamlFile);
+    private SkillDefinition applyYamlOverrides(SkillDefinition base, String yamlContent) {
+        Map<String, String> yaml = parseSkillYaml(yamlContent);
         if (yaml.isEmpty()) {
             return base;
         }
@@ -202,20 +231,13 @@ public final class SkillCatalog {
      * child keys are indented with spaces. List values using {@code [...]} inline syntax
      * are stored as the raw bracket string for later parsing by {@link #parseList(String)}.
      *
-     * @param yamlFile path to the SKILL.yaml file
-     * @return flattened key-value map; empty if the file cannot be read or is malformed
+     * @param yamlContent content of the SKILL.yaml file
+     * @return flattened key-value map; empty if the content is malformed
      */
-    private Map<String, String> parseSkillYaml(Path yamlFile) {
+    private Map<String, String> parseSkillYaml(String yamlContent) {
         Map<String, String> result = new LinkedHashMap<>();
-        List<String> lines;
-        try {
-            lines = Files.readAllLines(yamlFile, StandardCharsets.UTF_8);
-        } catch (IOException e) {
-            return result;
-        }
-
         String currentSection = null;
-        for (String line : lines) {
+        for (String line : yamlContent.split("\\R")) { //$NON-NLS-1$
             // Skip blank lines and comments
             String trimmed = line.trim();
             if (trimmed.isEmpty() || trimmed.startsWith("#")) { //$NON-NLS-1$
@@ -13,6 +13,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 
+import com.codepilot1c.core.agent.prompts.PromptSourceCache;
 import com.codepilot1c.core.logging.VibeLogger;
 
 /**
@@ -80,6 +81,7 @@ public class SkillFileService {
         Path skillFile = skillDir.resolve(SKILL_FILE);
         String content = buildSkillMd(name, description, allowedTools, backendOnly, body);
         Files.writeString(skillFile, content, StandardCharsets.UTF_8);
+        PromptSourceCache.getInstance().invalidate(skillDir);
 
         LOG.info("Created user skill: " + skillFile); //$NON-NLS-1$
         return skillFile;
@@ -106,6 +108,7 @@ public class SkillFileService {
         String name = skillMdPath.getParent().getFileName().toString();
         String content = buildSkillMd(name, description, allowedTools, backendOnly, body);
         Files.writeString(skillMdPath, content, StandardCharsets.UTF_8);
+        PromptSourceCache.getInstance().invalidate(skillMdPath);
 
         LOG.info("Updated skill: " + skillMdPath); //$NON-NLS-1$
     }
@@ -133,6 +136,7 @@ public class SkillFileService {
                     }
                 }
             }
+            PromptSourceCache.getInstance().invalidate(dir != null ? dir : skillMdPath);
             LOG.info("Deleted skill: " + skillMdPath); //$NON-NLS-1$
             return true;
         } catch (IOException e) {
@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.tokenizer;
+
+/**
+ * Single-pass token estimate from per-character-class weights.
+ *
+ * @param id          tokenizer identifier
+ * @param calibration the weights
+ */
+public record ApproximateTokenizer(String id, TokenCalibration calibration) implements Tokenizer {
+
+    @Override
+    public boolean isExact() {
+        return false;
+    }
+
+    @Override
+    public int count(String text) {
+        return calibration.estimate(text);
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.tokenizer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Exact byte-pair encoding counter for tiktoken vocabularies.
+ *
+ * <p>Text is split with the family's pre-tokenization pattern and every piece is merged
+ * from its UTF-8 bytes, always joining the adjacent pair with the lowest rank, until no
+ * pair is in the vocabulary. Only the number of resulting tokens is computed. Counts of
+ * recently seen pieces are cached, since source code and transcripts repeat the same
+ * words constantly.</p>
+ *
+ * <p>Pieces longer than {@value #MAX_MERGE_BYTES} bytes (base64 blobs, minified data) are
+ * merged in chunks to keep the quadratic merge loop bounded; this can overcount such
+ * pieces by a token per chunk.</p>
+ */
+public final class BpeTokenizer implements Tokenizer {
+
+    private static final int MAX_MERGE_BYTES = 1_024;
+    private static final int PIECE_CACHE_ENTRIES = 16_384;
+
+    private final String id;
+    private final Map<ByteKey, Integer> ranks;
+    private final Pattern pattern;
+    private final Map<String, Integer> pieceCache = new LinkedHashMap<>(1_024, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+            return size() > PIECE_CACHE_ENTRIES;
+        }
+    };
+
+    private BpeTokenizer(String id, Map<ByteKey, Integer> ranks, Pattern pattern) {
+        this.id = Objects.requireNonNull(id, "id"); //$NON-NLS-1$
+        this.ranks = ranks;
+        this.pattern = Objects.requireNonNull(pattern, "pattern"); //$NON-NLS-1$
+    }
+
+    /**
+     * Loads a vocabulary in tiktoken format: one {@code <base64 token> <rank>} pair per line.
+     *
+     * @param id         tokenizer identifier
+     * @param vocabulary the vocabulary file
+     * @param pattern    pre-tokenization pattern of the vocabulary
+     * @return the tokenizer
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public static BpeTokenizer load(String id, Path vocabulary, Pattern pattern) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(vocabulary, StandardCharsets.US_ASCII)) {
+            return load(id, reader, vocabulary.toString(), pattern);
+        }
+    }
+
+    /**
+     * Loads a vocabulary in tiktoken format from a stream, e.g. a bundle resource.
+     *
+     * @param id         tokenizer identifier
+     * @param vocabulary the vocabulary stream; not closed
+     * @param source     where the stream comes from, for error messages
+     * @param pattern    pre-tokenization pattern of the vocabulary
+     * @return the tokenizer
+     * @throws IOException if the stream cannot be read or is malformed
+     */
+    public static BpeTokenizer load(String id, InputStream vocabulary, String source, Pattern pattern)
+            throws IOException {
+        return load(id, new BufferedReader(new InputStreamReader(vocabulary, StandardCharsets.US_ASCII)), source,
+                pattern);
+    }
+
+    private static BpeTokenizer load(String id, BufferedReader reader, String vocabulary, Pattern pattern)
+            throws IOException {
+        Map<ByteKey, Integer> ranks = new HashMap<>(262_144);
+        Base64.Decoder decoder = Base64.getDecoder();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            int space = line.indexOf(' ');
+            try {
+                byte[] token = decoder.decode(line.substring(0, space));
+                ranks.put(new ByteKey(token, 0, token.length), Integer.valueOf(line.substring(space + 1).trim()));
+            } catch (RuntimeException e) {
+                throw new IOException("Malformed vocabulary line " + lineNumber + " in " + vocabulary, e); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+        }
+        if (ranks.isEmpty()) {
+            throw new IOException("Empty vocabulary: " + vocabulary); //$NON-NLS-1$
+        }
+        return new BpeTokenizer(id, ranks, pattern);
+    }
+
+    /**
+     * Creates a tokenizer from token strings and their ranks; used for small test vocabularies.
+     */
+    static BpeTokenizer fromRanks(String id, Map<String, Integer> tokenRanks, Pattern pattern) {
+        Map<ByteKey, Integer> ranks = new HashMap<>();
+        tokenRanks.forEach((token, rank) -> {
+            byte[] bytes = token.getBytes(StandardCharsets.UTF_8);
+            ranks.put(new ByteKey(bytes, 0, bytes.length), rank);
+        });
+        return new BpeTokenizer(id, ranks, pattern);
+    }
+
+    @Override
+    public String id() {
+        return id;
+    }
+
+    @Override
+    public boolean isExact() {
+        return true;
+    }
+
+    /**
+     * Returns the pre-tokenization pattern.
+     */
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    @Override
+    public int count(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int tokens = 0;
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            tokens += countPiece(matcher.group());
+        }
+        return tokens;
+    }
+
+    /**
+     * Counts tokens of one pre-tokenized piece.
+     */
+    int countPiece(String piece) {
+        synchronized (pieceCache) {
+            Integer cached = pieceCache.get(piece);
+            if (cached != null) {
+                return cached.intValue();
+            }
+        }
+        byte[] bytes = piece.getBytes(StandardCharsets.UTF_8);
+        int tokens = 0;
+        for (int from = 0; from < bytes.length; from += MAX_MERGE_BYTES) {
+            tokens += mergeCount(bytes, from, Math.min(bytes.length, from + MAX_MERGE_BYTES));
+        }
+        synchronized (pieceCache) {
+            pieceCache.put(piece, Integer.valueOf(tokens));
+        }
+        return tokens;
+    }
+
+    private int mergeCount(byte[] bytes, int from, int to) {
+        int length = to - from;
+        if (length <= 1 || ranks.containsKey(new ByteKey(bytes, from, to))) {
+            return 1;
+        }
+        // boundaries[i] is the start of part i; parts are merged by dropping a boundary
+        int[] boundaries = new int[length + 1];
+        for (int i = 0; i <= length; i++) {
+            boundaries[i] = from + i;
+        }
+        int parts = length;
+        int[] pairRanks = new int[length];
+        for (int i = 0; i < parts - 1; i++) {
+            pairRanks[i] = rank(bytes, boundaries[i], boundaries[i + 2]);
+        }
+        while (parts > 1) {
+            int best = -1;
+            int bestRank = Integer.MAX_VALUE;
+            for (int i = 0; i < parts - 1; i++) {
+                if (pairRanks[i] < bestRank) {
+                    bestRank = pairRanks[i];
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            System.arraycopy(boundaries, best + 2, boundaries, best + 1, parts - best - 1);
+            System.arraycopy(pairRanks, best + 1, pairRanks, best, parts - best - 2);
+            parts--;
+            if (best < parts - 1) {
+                pairRanks[best] = rank(bytes, boundaries[best], boundaries[best + 2]);
+            }
+            if (best > 0) {
+                pairRanks[best - 1] = rank(bytes, boundaries[best - 1], boundaries[best + 1]);
+            }
+        }
+        return parts;
+    }
+
+    private int rank(byte[] bytes, int from, int to) {
+        Integer rank = ranks.get(new ByteKey(bytes, from, to));
+        return rank != null ? rank.intValue() : Integer.MAX_VALUE;
+    }
+
+    /**
+     * A byte range usable as a hash key without copying.
+     */
+    private static final class ByteKey {
+
+        private final byte[] bytes;
+        private final int from;
+        private final int to;
+        private final int hash;
+
+        ByteKey(byte[] bytes, int from, int to) {
+            this.bytes = bytes;
+            this.from = from;
+            this.to = to;
+            int h = 1;
+            for (int i = from; i < to; i++) {
+                h = 31 * h + bytes[i];
+            }
+            this.hash = h;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ByteKey other) || hash != other.hash) {
+                return false;
+            }
+            return Arrays.equals(bytes, from, to, other.bytes, other.from, other.to);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.tokenizer;
+
+import java.util.List;
+
+/**
+ * Built-in texts the approximate counter is calibrated on: the kinds of content that
+ * dominate prompts in this product (BSL code, Russian prose, JSON tool results, metadata XML).
+ */
+final class CalibrationCorpus {
+
+    static final List<String> SAMPLES = List.of(
+            """
+            // Проверяет заполнение обязательных реквизитов перед записью документа.
+            Процедура ПередЗаписью(Отказ, РежимЗаписи, РежимПроведения)
+            \tЕсли НЕ ЗначениеЗаполнено(Контрагент) Тогда
+            \t\tОбщегоНазначения.СообщитьПользователю(НСтр("ru = 'Не заполнен контрагент'"), ЭтотОбъект, "Контрагент", , Отказ);
+            \tКонецЕсли;
+            \tСуммаДокумента = Товары.Итог("Сумма");
+            \tДля Каждого СтрокаТовара Из Товары Цикл
+            \t\tСтрокаТовара.СуммаНДС = Окр(СтрокаТовара.Сумма * 20 / 120, 2);
+            \tКонецЦикла;
+            КонецПроцедуры
+            """, //$NON-NLS-1$
+            """
+            Запрос = Новый Запрос;
+            Запрос.Текст =
+            \t"ВЫБРАТЬ
+            \t|\tОстатки.Номенклатура КАК Номенклатура,
+            \t|\tСУММА(Остатки.КоличествоОстаток) КАК Количество
+            \t|ИЗ
+            \t|\tРегистрНакопления.ТоварыНаСкладах.Остатки(&Дата, Склад = &Склад) КАК Остатки
+            \t|СГРУППИРОВАТЬ ПО
+            \t|\tОстатки.Номенклатура";
+            Запрос.УстановитьПараметр("Дата", ТекущаяДатаСеанса());
+            Результат = Запрос.Выполнить().Выгрузить();
+            """, //$NON-NLS-1$
+            """
+            Пользователь попросил добавить проверку остатков при проведении документа \
+            «Реализация товаров и услуг». Я нашёл модуль объекта, изучил процедуру обработки \
+            проведения и предлагаю вынести расчёт в общий модуль, чтобы переиспользовать его \
+            в документе «Перемещение товаров». Изменения затрагивают три файла; тесты проходят.
+            """, //$NON-NLS-1$
+            """
+            I reviewed the posting handler of the sales document and the stock balance register. \
+            The check belongs in the object module, right before the register records are written, \
+            so that a failed check cancels the whole transaction. Let me read the common module first.
+            """, //$NON-NLS-1$
+            """
+            {"status":"ok","results":[{"path":"src/Documents/РеализацияТоваров/ObjectModule.bsl",\
+            "line":142,"preview":"Процедура ОбработкаПроведения(Отказ, Режим)"},{"path":\
+            "src/CommonModules/ОбщегоНазначения/Module.bsl","line":2048,"preview":\
+            "Функция ЗначениеРеквизитаОбъекта(Ссылка, ИмяРеквизита) Экспорт"}],"total":2,"truncated":false}
+            """, //$NON-NLS-1$
+            """
+            <mdclass:Document xmlns:mdclass="http://g5.1c.ru/v8/dt/metadata/mdclass" uuid="7f1c3a52-9d0e-4b8a-a6f1-2c5e8d9b0a13">
+              <name>РеализацияТоваров</name>
+              <synonym><key>ru</key><value>Реализация товаров</value></synonym>
+              <attributes uuid="0b5d2e71-3c4f-4a9e-8d16-5f7a2b3c4d5e"><name>Контрагент</name></attributes>
+            </mdclass:Document>
+            """); //$NON-NLS-1$
+
+    private CalibrationCorpus() {
+    }
+}
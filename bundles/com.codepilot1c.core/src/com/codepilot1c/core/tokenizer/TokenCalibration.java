@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.tokenizer;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+
+/**
+ * Tokens per character for each character class, used by the approximate counter.
+ *
+ * <p>A single fixed chars-per-token ratio is far off for mixed content: Cyrillic letters
+ * cost up to twice as much as Latin ones, digits are split into short groups and JSON or
+ * BSL punctuation rarely merges. Weighting each class separately keeps the estimate within
+ * a few percent of the exact count while still being a single pass over the characters.</p>
+ *
+ * @param latin       weight of Latin letters
+ * @param cyrillic    weight of Cyrillic letters
+ * @param digit       weight of digits
+ * @param punctuation weight of ASCII punctuation and symbols
+ * @param whitespace  weight of whitespace
+ * @param other       weight of every other character (CJK, emoji, rare scripts)
+ */
+public record TokenCalibration(double latin, double cyrillic, double digit, double punctuation,
+        double whitespace, double other) {
+
+    private static final int LATIN = 0;
+    private static final int CYRILLIC = 1;
+    private static final int DIGIT = 2;
+    private static final int PUNCTUATION = 3;
+    private static final int WHITESPACE = 4;
+    private static final int OTHER = 5;
+    private static final int CLASSES = 6;
+
+    /** Minimum characters of a class in the samples before its fitted weight is trusted. */
+    private static final int MIN_FIT_CHARS = 32;
+
+    /**
+     * Estimates the token count of the given text.
+     *
+     * @param text the text, may be null
+     * @return estimated token count, at least 1 for non-empty text
+     */
+    public int estimate(CharSequence text) {
+        if (text == null || text.length() == 0) {
+            return 0;
+        }
+        int[] counts = new int[CLASSES];
+        for (int i = 0; i < text.length(); i++) {
+            counts[classify(text.charAt(i))]++;
+        }
+        double tokens = counts[LATIN] * latin + counts[CYRILLIC] * cyrillic + counts[DIGIT] * digit
+                + counts[PUNCTUATION] * punctuation + counts[WHITESPACE] * whitespace + counts[OTHER] * other;
+        return Math.max(1, (int) Math.ceil(tokens));
+    }
+
+    /**
+     * Fits the weights to an exact byte-pair counter.
+     *
+     * <p>The samples are split with the tokenizer's own pre-tokenization pattern, and the
+     * exact token count of every piece is attributed to its character classes in proportion
+     * to their share of the piece. Classes too rare in the samples keep the fallback weight.</p>
+     *
+     * @param exact    the exact counter
+     * @param samples  representative texts
+     * @param fallback weights for classes the samples do not cover
+     * @return the fitted calibration
+     */
+    public static TokenCalibration fit(BpeTokenizer exact, Iterable<String> samples, TokenCalibration fallback) {
+        double[] tokens = new double[CLASSES];
+        long[] chars = new long[CLASSES];
+        int[] pieceCounts = new int[CLASSES];
+        for (String sample : samples) {
+            Matcher matcher = exact.getPattern().matcher(sample);
+            while (matcher.find()) {
+                String piece = matcher.group();
+                Arrays.fill(pieceCounts, 0);
+                for (int i = 0; i < piece.length(); i++) {
+                    pieceCounts[classify(piece.charAt(i))]++;
+                }
+                int pieceTokens = exact.countPiece(piece);
+                for (int c = 0; c < CLASSES; c++) {
+                    tokens[c] += (double) pieceTokens * pieceCounts[c] / piece.length();
+                    chars[c] += pieceCounts[c];
+                }
+            }
+        }
+        return new TokenCalibration(
+                weight(tokens, chars, LATIN, fallback.latin()),
+                weight(tokens, chars, CYRILLIC, fallback.cyrillic()),
+                weight(tokens, chars, DIGIT, fallback.digit()),
+                weight(tokens, chars, PUNCTUATION, fallback.punctuation()),
+                weight(tokens, chars, WHITESPACE, fallback.whitespace()),
+                weight(tokens, chars, OTHER, fallback.other()));
+    }
+
+    private static double weight(double[] tokens, long[] chars, int characterClass, double fallback) {
+        return chars[characterClass] >= MIN_FIT_CHARS ? tokens[characterClass] / chars[characterClass] : fallback;
+    }
+
+    private static int classify(char c) {
+        if (c < 0x80) {
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                return LATIN;
+            }
+            if (c >= '0' && c <= '9') {
+                return DIGIT;
+            }
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f') {
+                return WHITESPACE;
+            }
+            return PUNCTUATION;
+        }
+        if (c >= 0x0400 && c <= 0x052F) {
+            return CYRILLIC;
+        }
+        if (c >= 0x00C0 && c <= 0x024F) {
+            return LATIN;
+        }
+        if (Character.isWhitespace(c) || c == 0x00A0) {
+            return WHITESPACE;
+        }
+        if (Character.isDigit(c)) {
+            return DIGIT;
+        }
+        return OTHER;
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.tokenizer;
+
+/**
+ * Counts the tokens a model family would produce for a text.
+ */
+public interface Tokenizer {
+
+    /**
+     * Returns a stable identifier, used to key memoized counts.
+     */
+    String id();
+
+    /**
+     * Returns whether counts match the model's own tokenizer rather than an estimate.
+     */
+    boolean isExact();
+
+    /**
+     * Counts tokens in the given text.
+     *
+     * @param text the text, may be null
+     * @return token count, 0 for null or empty text
+     */
+    int count(String text);
+}
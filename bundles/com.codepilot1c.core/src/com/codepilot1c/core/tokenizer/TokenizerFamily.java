@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.tokenizer;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import com.codepilot1c.core.provider.config.ProviderType;
+
+/**
+ * Model families that share a tokenizer.
+ *
+ * <p>Families with a published byte-pair vocabulary name the tiktoken file and the
+ * pre-tokenization pattern needed to count exactly. Every family carries a default
+ * per-character calibration for the approximate counter, used until an exact counter
+ * is available to calibrate against.</p>
+ */
+public enum TokenizerFamily {
+
+    /** GPT-4o, GPT-4.1, GPT-5 and the o-series reasoning models. */
+    O200K("o200k_base", //$NON-NLS-1$
+            "[^\\r\\n\\p{L}\\p{N}]?[\\p{Lu}\\p{Lt}\\p{Lm}\\p{Lo}\\p{M}]*[\\p{Ll}\\p{Lm}\\p{Lo}\\p{M}]+" //$NON-NLS-1$
+                    + "(?i:'s|'t|'re|'ve|'m|'ll|'d)?" //$NON-NLS-1$
+                    + "|[^\\r\\n\\p{L}\\p{N}]?[\\p{Lu}\\p{Lt}\\p{Lm}\\p{Lo}\\p{M}]+[\\p{Ll}\\p{Lm}\\p{Lo}\\p{M}]*" //$NON-NLS-1$
+                    + "(?i:'s|'t|'re|'ve|'m|'ll|'d)?" //$NON-NLS-1$
+                    + "|\\p{N}{1,3}| ?[^\\s\\p{L}\\p{N}]+[\\r\\n/]*|\\s*[\\r\\n]+|\\s+(?!\\S)|\\s+", //$NON-NLS-1$
+            new TokenCalibration(0.23, 0.27, 0.34, 0.60, 0.15, 0.70)),
+
+    /** GPT-4, GPT-3.5 and the third-generation embedding models. */
+    CL100K("cl100k_base", //$NON-NLS-1$
+            "(?i:'s|'t|'re|'ve|'m|'ll|'d)|[^\\r\\n\\p{L}\\p{N}]?\\p{L}+|\\p{N}{1,3}" //$NON-NLS-1$
+                    + "| ?[^\\s\\p{L}\\p{N}]+[\\r\\n]*|\\s*[\\r\\n]+|\\s+(?!\\S)|\\s+", //$NON-NLS-1$
+            new TokenCalibration(0.24, 0.42, 0.34, 0.70, 0.15, 1.00)),
+
+    /** Anthropic Claude models. */
+    CLAUDE(null, null, new TokenCalibration(0.27, 0.45, 0.40, 0.70, 0.15, 1.00)),
+
+    /** Open-weight models: Llama, Qwen, DeepSeek, Mistral, GLM. */
+    OPEN_WEIGHTS(null, null, new TokenCalibration(0.24, 0.33, 0.50, 0.65, 0.15, 0.80)),
+
+    /** Models trained with Russian-heavy vocabularies: GigaChat, YandexGPT. */
+    RUSSIAN(null, null, new TokenCalibration(0.26, 0.24, 0.40, 0.60, 0.15, 1.00)),
+
+    /** Unknown models; deliberately on the high side to avoid overflowing the window. */
+    GENERIC(null, null, new TokenCalibration(0.27, 0.45, 0.50, 0.70, 0.15, 1.00));
+
+    private final String vocabularyName;
+    private final Pattern pattern;
+    private final TokenCalibration defaultCalibration;
+
+    TokenizerFamily(String vocabularyName, String pattern, TokenCalibration defaultCalibration) {
+        this.vocabularyName = vocabularyName;
+        this.pattern = pattern != null ? Pattern.compile(pattern) : null;
+        this.defaultCalibration = defaultCalibration;
+    }
+
+    /**
+     * Returns the tiktoken vocabulary name, or {@code null} if the family has no public vocabulary.
+     */
+    public String getVocabularyName() {
+        return vocabularyName;
+    }
+
+    /**
+     * Returns the pre-tokenization pattern that splits text before byte-pair merging.
+     */
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Returns the calibration used when no exact counter is available.
+     */
+    public TokenCalibration getDefaultCalibration() {
+        return defaultCalibration;
+    }
+
+    /**
+     * Picks the family for a provider type and model name.
+     *
+     * @param type  provider API type, may be null
+     * @param model model name, may be null
+     * @return the family, {@link #GENERIC} if unknown
+     */
+    public static TokenizerFamily resolve(ProviderType type, String model) {
+        String name = model != null ? model.toLowerCase(Locale.ROOT) : ""; //$NON-NLS-1$
+        // Hosted gateways prefix the vendor ("openai/gpt-4o"); only the model part matters
+        int slash = name.lastIndexOf('/');
+        if (slash >= 0) {
+            name = name.substring(slash + 1);
+        }
+        if (name.contains("claude")) { //$NON-NLS-1$
+            return CLAUDE;
+        }
+        if (name.startsWith("gpt-4o") || name.startsWith("gpt-4.1") || name.startsWith("gpt-4.5") //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                || name.startsWith("gpt-5") || name.startsWith("chatgpt") || name.startsWith("gpt-oss") //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                || name.matches("o[1-9](-.*)?") || name.startsWith("codex")) { //$NON-NLS-1$ //$NON-NLS-2$
+            return O200K;
+        }
+        if (name.startsWith("gpt-4") || name.startsWith("gpt-3.5") //$NON-NLS-1$ //$NON-NLS-2$
+                || name.startsWith("text-embedding-3")) { //$NON-NLS-1$
+            return CL100K;
+        }
+        if (name.contains("gigachat") || name.contains("yandex")) { //$NON-NLS-1$ //$NON-NLS-2$
+            return RUSSIAN;
+        }
+        if (name.contains("llama") || name.contains("qwen") || name.contains("deepseek") //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                || name.contains("mistral") || name.contains("mixtral") || name.contains("glm") //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                || name.contains("gemma") || name.contains("phi")) { //$NON-NLS-1$ //$NON-NLS-2$
+            return OPEN_WEIGHTS;
+        }
+        if (type == ProviderType.ANTHROPIC) {
+            return CLAUDE;
+        }
+        if (type == ProviderType.OPENAI_CODEX) {
+            return O200K;
+        }
+        if (type == ProviderType.OLLAMA) {
+            return OPEN_WEIGHTS;
+        }
+        return GENERIC;
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright (c) 2024 Example
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, version 3.
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+package com.codepilot1c.core.tokenizer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.codepilot1c.core.logging.VibeLogger;
+import com.codepilot1c.core.model.LlmMessage;
+import com.codepilot1c.core.model.ToolCall;
+import com.codepilot1c.core.provider.config.LlmProviderConfig;
+import com.codepilot1c.core.provider.config.LlmProviderConfigStore;
+
+/**
+ * Counts tokens for the active model.
+ *
+ * <p>The tokenizer family is picked from the active {@link LlmProviderConfig} and its model
+ * name. Families with a public byte-pair vocabulary count exactly once the tiktoken file
+ * (for example {@code o200k_base.tiktoken}) is found, first among the bundle resources under
+ * {@code resources/tokenizers/}, then in the vocabulary directory ({@value #PROP_VOCABULARY_DIR},
+ * default {@code ~/.codepilot1c/tokenizers}). The vocabularies are large and are not shipped
+ * in the bundle by default; a family without one logs a warning once. Without it,
+ * and for families whose vocabulary is not public, a per-character-class estimate is used;
+ * when an exact counter is available that estimate is recalibrated against it.</p>
+ *
+ * <p>{@link #count(LlmMessage)} memoizes per message instance, so callers that recount a
+ * growing history only pay for new messages. Long texts passed to {@link #count(String)}
+ * are memoized by a fingerprint of their content, which covers prompt sections rebuilt from
+ * unchanged sources without keeping those texts reachable from the cache.</p>
+ */
+public final class TokenizerService {
+
+    /** System property: directory with tiktoken vocabulary files. */
+    public static final String PROP_VOCABULARY_DIR = "codepilot1c.tokenizer.vocabDir"; //$NON-NLS-1$
+
+    /** System property: set to {@code approximate} to never load vocabularies. */
+    public static final String PROP_MODE = "codepilot1c.tokenizer.mode"; //$NON-NLS-1$
+
+    /** Role markers and separators every chat message adds on the wire. */
+    static final int MESSAGE_OVERHEAD_TOKENS = 4;
+
+    private static final String VOCABULARY_SUFFIX = ".tiktoken"; //$NON-NLS-1$
+    private static final String VOCABULARY_RESOURCE_DIR = "resources/tokenizers/"; //$NON-NLS-1$
+    private static final int TEXT_CACHE_MIN_CHARS = 512;
+    private static final int TEXT_CACHE_ENTRIES = 256;
+
+    private static final VibeLogger.CategoryLogger LOG = VibeLogger.forClass(TokenizerService.class);
+
+    private static final TokenizerService INSTANCE = new TokenizerService(defaultVocabularyDirectory(),
+            TokenizerService::activeProviderConfig, !"approximate".equals(System.getProperty(PROP_MODE))); //$NON-NLS-1$
+
+    /**
+     * Memoization counters.
+     *
+     * @param messageHits   message counts served from memory
+     * @param messageMisses messages counted
+     * @param textHits      long texts served from memory
+     * @param textMisses    long texts counted
+     */
+    public record Stats(long messageHits, long messageMisses, long textHits, long textMisses) {
+    }
+
+    private record MessageCount(String tokenizerId, int tokens) {
+    }
+
+    /**
+     * Cache key of a long text: its length, {@link String#hashCode()} and a 64-bit FNV-1a hash.
+     * Two different texts share a key only if all three collide, and the text itself is not retained.
+     */
+    private record TextKey(String tokenizerId, int length, int hash, long fingerprint) {
+
+        static TextKey of(String tokenizerId, String text) {
+            long fingerprint = 0xcbf29ce484222325L;
+            for (int i = 0; i < text.length(); i++) {
+                fingerprint = (fingerprint ^ text.charAt(i)) * 0x100000001b3L;
+            }
+            return new TextKey(tokenizerId, text.length(), text.hashCode(), fingerprint);
+        }
+    }
+
+    private final Path vocabularyDirectory;
+    private final ClassLoader vocabularyResources;
+    private final Supplier<LlmProviderConfig> activeConfig;
+    private final boolean exactEnabled;
+    private final Map<TokenizerFamily, Optional<BpeTokenizer>> exactTokenizers = new ConcurrentHashMap<>();
+    private final Map<TokenizerFamily, ApproximateTokenizer> approximateTokenizers = new ConcurrentHashMap<>();
+    private final Map<LlmMessage, MessageCount> messageCounts = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Map<TextKey, Integer> textCounts = new LinkedHashMap<>(64, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TextKey, Integer> eldest) {
+            return size() > TEXT_CACHE_ENTRIES;
+        }
+    };
+    private final LongAdder messageHits = new LongAdder();
+    private final LongAdder messageMisses = new LongAdder();
+    private final LongAdder textHits = new LongAdder();
+    private final LongAdder textMisses = new LongAdder();
+
+    TokenizerService(Path vocabularyDirectory, Supplier<LlmProviderConfig> activeConfig, boolean exactEnabled) {
+        this(TokenizerService.class.getClassLoader(), vocabularyDirectory, activeConfig, exactEnabled);
+    }
+
+    TokenizerService(ClassLoader vocabularyResources, Path vocabularyDirectory,
+            Supplier<LlmProviderConfig> activeConfig, boolean exactEnabled) {
+        this.vocabularyResources = vocabularyResources;
+        this.vocabularyDirectory = vocabularyDirectory;
+        this.activeConfig = activeConfig;
+        this.exactEnabled = exactEnabled;
+    }
+
+    public static TokenizerService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the tokenizer family of the active provider and model.
+     */
+    public TokenizerFamily getActiveFamily() {
+        LlmProviderConfig config = activeConfig.get();
+        return config != null ? TokenizerFamily.resolve(config.getType(), config.getModel()) : TokenizerFamily.GENERIC;
+    }
+
+    /**
+     * Returns the most accurate tokenizer for a provider configuration.
+     *
+     * @param config provider configuration, may be null
+     * @return exact tokenizer when its vocabulary is installed, otherwise the calibrated estimate
+     */
+    public Tokenizer forConfig(LlmProviderConfig config) {
+        return getTokenizer(config != null
+                ? TokenizerFamily.resolve(config.getType(), config.getModel())
+                : TokenizerFamily.GENERIC);
+    }
+
+    /**
+     * Returns the most accurate tokenizer for a family.
+     */
+    public Tokenizer getTokenizer(TokenizerFamily family) {
+        Optional<BpeTokenizer> exact = exactTokenizer(family);
+        return exact.isPresent() ? exact.get() : getApproximateTokenizer(family);
+    }
+
+    /**
+     * Returns the fast estimating tokenizer for a family, calibrated against the exact one
+     * when its vocabulary is installed.
+     */
+    public Tokenizer getApproximateTokenizer(TokenizerFamily family) {
+        return approximateTokenizers.computeIfAbsent(family, f -> {
+            Optional<BpeTokenizer> exact = exactTokenizer(f);
+            TokenCalibration calibration = exact.isPresent()
+                    ? TokenCalibration.fit(exact.get(), CalibrationCorpus.SAMPLES, f.getDefaultCalibration())
+                    : f.getDefaultCalibration();
+            return new ApproximateTokenizer("approx:" + f.name().toLowerCase(Locale.ROOT), calibration); //$NON-NLS-1$
+        });
+    }
+
+    /**
+     * Counts tokens of a text for the active model.
+     *
+     * @param text the text, may be null
+     * @return token count
+     */
+    public int count(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        Tokenizer tokenizer = getTokenizer(getActiveFamily());
+        if (text.length() < TEXT_CACHE_MIN_CHARS || !tokenizer.isExact()) {
+            return tokenizer.count(text);
+        }
+        TextKey key = TextKey.of(tokenizer.id(), text);
+        synchronized (textCounts) {
+            Integer cached = textCounts.get(key);
+            if (cached != null) {
+                textHits.increment();
+                return cached.intValue();
+            }
+        }
+        textMisses.increment();
+        int tokens = tokenizer.count(text);
+        synchronized (textCounts) {
+            textCounts.put(key, Integer.valueOf(tokens));
+        }
+        return tokens;
+    }
+
+    /**
+     * Estimates tokens of a text for the active model in a single pass, without byte-pair merging.
+     */
+    public int estimate(String text) {
+        return getApproximateTokenizer(getActiveFamily()).count(text);
+    }
+
+    /**
+     * Counts tokens a message contributes to a request: content, tool calls and role overhead.
+     * The result is memoized per message instance and tokenizer.
+     *
+     * @param message the message, may be null
+     * @return token count
+     */
+    public int count(LlmMessage message) {
+        if (message == null) {
+            return 0;
+        }
+        Tokenizer tokenizer = getTokenizer(getActiveFamily());
+        MessageCount cached = messageCounts.get(message);
+        if (cached != null && cached.tokenizerId().equals(tokenizer.id())) {
+            messageHits.increment();
+            return cached.tokens();
+        }
+        messageMisses.increment();
+        int tokens = MESSAGE_OVERHEAD_TOKENS + tokenizer.count(message.getContent());
+        if (message.hasToolCalls()) {
+            for (ToolCall call : message.getToolCalls()) {
+                if (call != null) {
+                    tokens += tokenizer.count(call.getName()) + tokenizer.count(call.getArguments());
+                }
+            }
+        }
+        messageCounts.put(message, new MessageCount(tokenizer.id(), tokens));
+        return tokens;
+    }
+
+    /**
+     * Counts tokens of a message list, recounting only messages not seen before.
+     */
+    public int count(List<LlmMessage> messages) {
+        if (messages == null) {
+            return 0;
+        }
+        int tokens = 0;
+        for (LlmMessage message : messages) {
+            tokens += count(message);
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns memoization counters.
+     */
+    public Stats getStats() {
+        return new Stats(messageHits.sum(), messageMisses.sum(), textHits.sum(), textMisses.sum());
+    }
+
+    private Optional<BpeTokenizer> exactTokenizer(TokenizerFamily family) {
+        if (!exactEnabled || family.getVocabularyName() == null) {
+            return Optional.empty();
+        }
+        return exactTokenizers.computeIfAbsent(family, f -> {
+            String fileName = f.getVocabularyName() + VOCABULARY_SUFFIX;
+            Optional<BpeTokenizer> bundled = bundledTokenizer(f, fileName);
+            if (bundled.isPresent()) {
+                return bundled;
+            }
+            Path file = vocabularyDirectory != null ? vocabularyDirectory.resolve(fileName) : null;
+            if (file == null || !Files.isRegularFile(file)) {
+                LOG.warn("No %s vocabulary bundled or installed in %s, token counts for %s are estimates", //$NON-NLS-1$
+                        fileName, vocabularyDirectory, f);
+                return Optional.empty();
+            }
+            try {
+                BpeTokenizer tokenizer = BpeTokenizer.load(f.getVocabularyName(), file, f.getPattern());
+                LOG.info("Loaded tokenizer vocabulary %s", file); //$NON-NLS-1$
+                return Optional.of(tokenizer);
+            } catch (IOException e) {
+                LOG.warn("Failed to load tokenizer vocabulary " + file + ", using estimates", e); //$NON-NLS-1$ //$NON-NLS-2$
+                return Optional.empty();
+            }
+        });
+    }
+
+    private Optional<BpeTokenizer> bundledTokenizer(TokenizerFamily family, String fileName) {
+        if (vocabularyResources == null) {
+            return Optional.empty();
+        }
+        String resource = VOCABULARY_RESOURCE_DIR + fileName;
+        try (InputStream input = vocabularyResources.getResourceAsStream(resource)) {
+            if (input == null) {
+                return Optional.empty();
+            }
+            BpeTokenizer tokenizer = BpeTokenizer.load(family.getVocabularyName(), input, resource,
+                    family.getPattern());
+            LOG.info("Loaded bundled tokenizer vocabulary %s", resource); //$NON-NLS-1$
+            return Optional.of(tokenizer);
+        } catch (IOException e) {
+            LOG.warn("Failed to load bundled tokenizer vocabulary " + resource + ", trying " //$NON-NLS-1$ //$NON-NLS-2$
+                    + vocabularyDirectory, e);
+            return Optional.empty();
+        }
+    }
+
+    private static Path defaultVocabularyDirectory() {
+        String configured = System.getProperty(PROP_VOCABULARY_DIR);
+        if (configured != null && !configured.isBlank()) {
+            return Path.of(configured);
+        }
+        return Path.of(System.getProperty("user.home"), ".codepilot1c", "tokenizers"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    private static LlmProviderConfig activeProviderConfig() {
+        try {
+            return LlmProviderConfigStore.getInstance().getActiveProvider().orElse(null);
+        } catch (RuntimeException | LinkageError e) {
+            // No preference service outside the running workbench
+            return null;
+        }
+    }
+}
@@ -58,6 +58,7 @@ public class ToolContextGate {
             "delete_metadata", "add_metadata_child", //$NON-NLS-1$ //$NON-NLS-2$
             "create_form", "apply_form_recipe", "inspect_form_layout", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
             "mutate_form_model", "ensure_module_artifact", //$NON-NLS-1$ //$NON-NLS-2$
+            "apply_metadata_batch", //$NON-NLS-1$
             "get_diagnostics", //$NON-NLS-1$
             "workspace_import_project", "import_project_from_infobase", //$NON-NLS-1$ //$NON-NLS-2$
             "git_clone_and_import_project"); //$NON-NLS-1$
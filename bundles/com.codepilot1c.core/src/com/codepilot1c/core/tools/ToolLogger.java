@@ -8,15 +8,13 @@
 package com.codepilot1c.core.tools;
 
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
+import com.codepilot1c.core.logging.AsyncLogAppender;
 import com.codepilot1c.core.logging.VibeLogger;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -33,7 +31,7 @@ import com.google.gson.GsonBuilder;
  *   <li>Контекст агента (шаг, сессия)</li>
  * </ul>
  *
- * <p>Лог файл: ~/.vibe/tool_calls.log</p>
+ * <p>Лог файл: ~/.vibe/tool_calls.log. Запись выполняется асинхронно через {@link AsyncLogAppender}.</p>
  */
 public class ToolLogger {
 
@@ -44,6 +42,8 @@ public class ToolLogger {
     private static ToolLogger instance;
 
     private final File logFile;
+    private final AsyncLogAppender<String> appender = new AsyncLogAppender<>("tool-calls", //$NON-NLS-1$
+            entry -> entry, null, AsyncLogAppender.Settings.fromSystemProperties());
     private final AtomicInteger callCounter = new AtomicInteger(0);
     private final AtomicLong totalExecutionTime = new AtomicLong(0);
     private final AtomicInteger successCount = new AtomicInteger(0);
@@ -62,6 +62,7 @@ public class ToolLogger {
             logDir.mkdirs();
         }
         this.logFile = new File(logDir, "tool_calls.log");
+        appender.setFile(logFile.toPath());
         LOG.info("ToolLogger initialized, log file: %s", logFile.getAbsolutePath());
     }
 
@@ -75,6 +76,16 @@ public class ToolLogger {
         return instance;
     }
 
+    /**
+     * Останавливает поток записи, записывает очередь и закрывает файл лога, если логгер был
+     * создан. Последующие записи игнорируются.
+     */
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.appender.close();
+        }
+    }
+
     /**
      * Устанавливает контекст текущей сессии агента.
      *
@@ -339,23 +350,28 @@ public class ToolLogger {
      * Очищает файл лога.
      */
     public void clearLog() {
-        try (PrintWriter writer = new PrintWriter(logFile)) {
-            writer.print("");
-            LOG.info("Tool log cleared");
-        } catch (IOException e) {
-            LOG.error("Failed to clear tool log: %s", e.getMessage());
-        }
+        appender.clear();
+        LOG.info("Tool log cleared");
+    }
+
+    /**
+     * Записывает в файл все ожидающие записи.
+     */
+    public void flush() {
+        appender.flush();
+    }
+
+    /**
+     * Возвращает число записей, отброшенных из-за переполнения очереди.
+     */
+    public long getDroppedEntryCount() {
+        return appender.getDroppedCount();
     }
 
     // --- Private methods ---
 
     private void writeToLog(String entry) {
-        try (FileWriter fw = new FileWriter(logFile, true);
-             PrintWriter pw = new PrintWriter(fw)) {
-            pw.print(entry);
-        } catch (IOException e) {
-            LOG.error("Failed to write to tool log: %s", e.getMessage());
-        }
+        appender.append(VibeLogger.Level.INFO, entry);
     }
 
     private String formatArgumentValue(Object value) {
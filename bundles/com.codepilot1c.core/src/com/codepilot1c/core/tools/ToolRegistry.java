@@ -18,6 +18,7 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -68,6 +69,8 @@ public class ToolRegistry {
     private static final String TOOL_PROVIDER_EXTENSION_POINT =
             "com.codepilot1c.core.toolProvider"; //$NON-NLS-1$
 
+    private static final int SURFACE_CACHE_LIMIT = 4096;
+
     private static final Object INSTANCE_LOCK = new Object();
     private static volatile ToolRegistry instance;
     private static volatile Function<ToolRegistry, List<ITool>> initializationOverride;
@@ -85,6 +88,9 @@ public class ToolRegistry {
     private ToolArgumentParser argumentParser;
     private ToolExecutionService executionService;
     private volatile ToolSurfaceAugmentor augmentor;
+    private final AtomicLong surfaceGeneration = new AtomicLong();
+    private final Map<SurfaceKey, ToolDefinition> surfaceCache = new ConcurrentHashMap<>();
+    private volatile long surfaceCacheGeneration = -1;
 
     private ToolRegistry() {
         augmentor = ToolSurfaceAugmentor.passthrough();
@@ -245,6 +251,7 @@ public class ToolRegistry {
         defaults.add(new EnsureModuleArtifactTool());
         defaults.add(new UpdateMetadataTool());
         defaults.add(new MutateFormModelTool());
+        defaults.add(new ApplyMetadataBatchTool());
         defaults.add(new DeleteMetadataTool());
         defaults.add(new RenderTemplateTool());
         defaults.add(new InspectTemplateTool());
@@ -346,6 +353,7 @@ public class ToolRegistry {
             if (!tools.containsKey(name)) {
                 return;
             }
+            surfaceGeneration.incrementAndGet();
             ITool dynamic = dynamicTools.get(name);
             if (dynamic != null) {
                 DynamicToolCapability capability = dynamicCapabilities()
@@ -424,6 +432,7 @@ public class ToolRegistry {
                 dynamicTools.put(name, tool);
                 dynamicCapabilities().put(name, trustedCapability);
             }
+            surfaceGeneration.incrementAndGet();
         }
         if (claim != null) {
             try {
@@ -447,6 +456,7 @@ public class ToolRegistry {
             ToolSlot removed = currentSlot(name);
             ITool dynamic = dynamicTools.remove(name);
             dynamicCapabilities().remove(name);
+            surfaceGeneration.incrementAndGet();
             ITool builtIn = tools.get(name);
             if (builtIn != null) {
                 currentSlot(name);
@@ -476,6 +486,7 @@ public class ToolRegistry {
                 ToolSlot removed = currentSlot(name);
                 ITool dynamic = dynamicTools.remove(name);
                 dynamicCapabilities().remove(name);
+                surfaceGeneration.incrementAndGet();
                 ITool builtIn = tools.get(name);
                 if (builtIn != null) {
                     currentSlot(name);
@@ -732,6 +743,7 @@ public class ToolRegistry {
                     conservativeDescriptor(name));
             tools.put(name, tool);
             effectiveSlots().put(name, slot);
+            surfaceGeneration.incrementAndGet();
             return new RegistrationClaim(name, tool, slot, previous,
                     previousDescriptor, previousBuiltIn, null,
                     DynamicToolCapability.NONE, true);
@@ -758,6 +770,7 @@ public class ToolRegistry {
             if (current == null || current.identity() != claim.slot().identity()) {
                 return;
             }
+            surfaceGeneration.incrementAndGet();
 
             if (claim.builtIn()) {
                 if (claim.previousBuiltIn() != null) {
@@ -1000,8 +1013,41 @@ public class ToolRegistry {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns the model-facing definition of a tool.
+     *
+     * <p>Definitions are cached per profile, surface category, tool instance, description and
+     * schema, so the augmentor runs once per tool until one of them changes; the cache is dropped
+     * whenever the {@linkplain #getSurfaceGeneration() surface generation} moves. Repeated calls
+     * return the same {@link ToolDefinition} instance, which lets providers reuse its serialized
+     * form.</p>
+     */
     public ToolDefinition getToolDefinition(ITool tool, ToolSurfaceContext baseContext) {
-        return effectiveAugmentor().augment(tool, contextForTool(tool, baseContext));
+        ToolSurfaceContext context = contextForTool(tool, baseContext);
+        ToolSurfaceAugmentor effective = effectiveAugmentor();
+        long generation = surfaceGeneration.get();
+        if (surfaceCacheGeneration != generation || surfaceCache.size() >= SURFACE_CACHE_LIMIT) {
+            surfaceCache.clear();
+            surfaceCacheGeneration = generation;
+        }
+        SurfaceKey key = new SurfaceKey(tool, effective,
+                context.getProfile() != null ? context.getProfile().getId() : null,
+                context.getCategory(), context.isBuiltIn(),
+                tool.getDescription(), tool.getParameterSchema());
+        return surfaceCache.computeIfAbsent(key, ignored -> effective.augment(tool, context));
+    }
+
+    /**
+     * Cache key of an augmented definition; the tool is compared by identity.
+     */
+    private record SurfaceKey(
+            ITool tool,
+            ToolSurfaceAugmentor augmentor,
+            String profileId,
+            ToolCategory category,
+            boolean builtIn,
+            String description,
+            String schema) {
     }
 
     public ToolSurfaceContext createRuntimeSurfaceContext(AgentProfile profile) {
@@ -1012,6 +1058,17 @@ public class ToolRegistry {
 
     public void setAugmentor(ToolSurfaceAugmentor augmentor) {
         this.augmentor = augmentor != null ? augmentor : ToolSurfaceAugmentor.passthrough();
+        surfaceGeneration.incrementAndGet();
+    }
+
+    /**
+     * Returns a counter that changes whenever a tool is registered or removed or the augmentor
+     * is replaced. Callers may use it to invalidate anything derived from the tool surface.
+     *
+     * @return current surface generation
+     */
+    public long getSurfaceGeneration() {
+        return surfaceGeneration.get();
     }
 
     public ToolSurfaceAugmentor getAugmentor() {
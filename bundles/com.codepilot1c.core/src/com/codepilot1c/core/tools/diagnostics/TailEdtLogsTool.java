@@ -1,5 +1,9 @@
 package com.codepilot1c.core.tools.diagnostics;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -11,7 +15,10 @@ import com.codepilot1c.core.tools.ToolMeta;
 import com.codepilot1c.core.tools.ToolParameters;
 import com.codepilot1c.core.tools.ToolResult;
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 
 @ToolMeta(name = "tail_edt_logs", category = "diagnostics", tags = {"read-only", "edt", "diagnostics"})
 public class TailEdtLogsTool extends AbstractTool {
@@ -27,7 +34,9 @@ public class TailEdtLogsTool extends AbstractTool {
                 "pid": {"type": "integer"},
                 "infobase": {"type": "string"},
                 "errors_only": {"type": "boolean"},
-                "max_lines": {"type": "integer"}
+                "max_lines": {"type": "integer"},
+                "follow": {"type": "boolean"},
+                "cursor": {"type": "string"}
               },
               "required": [],
               "additionalProperties": false
@@ -46,7 +55,8 @@ public class TailEdtLogsTool extends AbstractTool {
 
     @Override
     public String getDescription() {
-        return "Tails EDT and CodePilot workspace logs with filters for project, op id, pid, infobase, and errors."; //$NON-NLS-1$
+        return "Tails EDT and CodePilot workspace logs with filters for project, op id, pid, infobase, and errors. " //$NON-NLS-1$
+                + "Every result carries an opaque cursor; pass it back with follow=true to get only lines appended since."; //$NON-NLS-1$
     }
 
     @Override
@@ -68,7 +78,18 @@ public class TailEdtLogsTool extends AbstractTool {
                         asString(raw.get("infobase")), //$NON-NLS-1$
                         params.optBoolean("errors_only", false), //$NON-NLS-1$
                         params.optInt("max_lines", EdtLogTailService.DEFAULT_MAX_LINES)); //$NON-NLS-1$
-                EdtLogTailService.Result result = service.tail(request);
+                boolean follow = params.optBoolean("follow", false); //$NON-NLS-1$
+                EdtLogTailService.Cursor cursor;
+                try {
+                    cursor = decodeCursor(asString(raw.get("cursor"))); //$NON-NLS-1$
+                } catch (IllegalArgumentException e) {
+                    return ObservabilityToolSupport.failure(opId, TOOL_NAME, "INVALID_ARGUMENT", //$NON-NLS-1$
+                            "cursor is not a value returned by tail_edt_logs", true); //$NON-NLS-1$
+                }
+                // The cursor travels with the caller: the tool instance is shared by all sessions
+                EdtLogTailService.Result result = follow
+                        ? service.follow(request, cursor)
+                        : service.tail(request);
                 JsonObject payload = ObservabilityToolSupport.successEnvelope(opId, TOOL_NAME);
                 JsonObject data = payload.getAsJsonObject("data"); //$NON-NLS-1$
                 data.addProperty("workspace_root", //$NON-NLS-1$
@@ -80,6 +101,8 @@ public class TailEdtLogsTool extends AbstractTool {
                 }
                 data.add("lines", lines); //$NON-NLS-1$
                 data.addProperty("max_lines", request.maxLines()); //$NON-NLS-1$
+                data.addProperty("follow", follow); //$NON-NLS-1$
+                data.addProperty("cursor", encodeCursor(result.cursor())); //$NON-NLS-1$
                 return ObservabilityToolSupport.success(payload);
             } catch (Exception e) {
                 return ObservabilityToolSupport.failure(opId, TOOL_NAME, "LOG_TAIL_FAILED", //$NON-NLS-1$
@@ -88,6 +111,41 @@ public class TailEdtLogsTool extends AbstractTool {
         });
     }
 
+    static String encodeCursor(EdtLogTailService.Cursor cursor) {
+        JsonObject json = new JsonObject();
+        for (Map.Entry<Path, EdtLogTailService.Position> entry : cursor.positions().entrySet()) {
+            JsonArray position = new JsonArray();
+            position.add(entry.getValue().fileId());
+            position.add(entry.getValue().offset());
+            json.add(entry.getKey().toString(), position);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encodeCursor}. Paths in it are only looked up among the
+     * sources the service discovers itself, so a forged cursor cannot widen what is read.
+     */
+    static EdtLogTailService.Cursor decodeCursor(String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return EdtLogTailService.Cursor.empty();
+        }
+        try {
+            String text = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            Map<Path, EdtLogTailService.Position> positions = new LinkedHashMap<>();
+            for (Map.Entry<String, JsonElement> entry : JsonParser.parseString(text).getAsJsonObject().entrySet()) {
+                JsonArray position = entry.getValue().getAsJsonArray();
+                positions.put(Path.of(entry.getKey()), new EdtLogTailService.Position(
+                        position.get(0).getAsString(), position.get(1).getAsLong()));
+            }
+            return new EdtLogTailService.Cursor(positions);
+        } catch (JsonParseException | IllegalStateException | IndexOutOfBoundsException
+                | UnsupportedOperationException e) {
+            throw new IllegalArgumentException("Malformed cursor", e); //$NON-NLS-1$
+        }
+    }
+
     private static String asString(Object value) {
         return value == null ? "" : String.valueOf(value).strip(); //$NON-NLS-1$
     }
@@ -14,10 +14,8 @@ import com.codepilot1c.core.tools.ActiveProjectSupport;
 import com.codepilot1c.core.tools.ToolExecutionContext;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
@@ -40,6 +38,7 @@ import com.codepilot1c.core.edit.SearchReplaceFormat;
 import com.codepilot1c.core.edt.ast.BmSyncHelper;
 import com.codepilot1c.core.logging.LogSanitizer;
 import com.codepilot1c.core.logging.VibeLogger;
+import com.codepilot1c.core.search.WorkspaceFileCache;
 
 /**
  * Tool for editing file contents.
@@ -567,23 +566,13 @@ public class EditFileTool extends AbstractTool {
     }
 
     /**
-     * Reads file content with proper encoding handling.
+     * Reads file content through the shared workspace file cache, decoded with the file's declared
+     * charset and without a BOM.
      */
     private String readFileContent(IFile file) {
-        Charset charset = getFileCharset(file);
-        try (InputStream stream = file.getContents()) {
-            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-            byte[] data = new byte[4096];
-            int read;
-            while ((read = stream.read(data)) != -1) {
-                buffer.write(data, 0, read);
-            }
-            String content = new String(buffer.toByteArray(), charset);
-            if (content.startsWith("\uFEFF")) { //$NON-NLS-1$
-                content = content.substring(1);
-            }
-            return content;
-        } catch (IOException | CoreException e) {
+        try {
+            return WorkspaceFileCache.getInstance().read(file).text();
+        } catch (IOException e) {
             LOG.error("Error reading file %s: %s", file.getFullPath(), e.getMessage()); //$NON-NLS-1$
             return null;
         }
@@ -6,17 +6,16 @@
  * SPDX-License-Identifier: AGPL-3.0-only
  */
 package com.codepilot1c.core.tools.file;
+import com.codepilot1c.core.logging.VibeLogger;
+import com.codepilot1c.core.search.WorkspaceFileCache;
+import com.codepilot1c.core.search.WorkspaceTrigramIndex;
 import com.codepilot1c.core.tools.ToolResult;
 import com.codepilot1c.core.tools.ToolParameters;
 import com.codepilot1c.core.tools.ToolMeta;
 import com.codepilot1c.core.tools.AbstractTool;
 import com.codepilot1c.core.tools.util.ToolResultTruncator;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.InputStreamReader;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -42,6 +41,8 @@ import org.eclipse.core.runtime.CoreException;
 )
 public class GrepTool extends AbstractTool {
 
+    private static final VibeLogger.CategoryLogger LOG = VibeLogger.forClass(GrepTool.class);
+
     private static final String SCHEMA = """
             {
                 "type": "object",
@@ -147,8 +148,14 @@ public class GrepTool extends AbstractTool {
                 }
 
                 List<SearchMatch> matches = new ArrayList<>();
+                WorkspaceTrigramIndex.FileFilter candidates =
+                        WorkspaceTrigramIndex.getInstance().filterFor(patternStr, useRegex);
                 for (IContainer searchRoot : searchRoots) {
-                    searchInContainer(searchRoot, searchPattern, filePattern, contextLines, matches);
+                    searchInContainer(searchRoot, searchPattern, filePattern, contextLines, candidates, matches);
+                }
+                if (candidates.isIndexed()) {
+                    LOG.debug("grep '%s': skipped=%d unindexed=%d", //$NON-NLS-1$
+                            patternStr, candidates.skipped(), candidates.unindexed());
                 }
 
                 return formatResults(patternStr, matches);
@@ -232,6 +239,7 @@ public class GrepTool extends AbstractTool {
 
     private void searchInContainer(IContainer container, Pattern pattern,
                                    String filePattern, int contextLines,
+                                   WorkspaceTrigramIndex.FileFilter candidates,
                                    List<SearchMatch> matches) throws CoreException {
         if (matches.size() >= MAX_RESULTS) {
             return;
@@ -242,7 +250,7 @@ public class GrepTool extends AbstractTool {
             IProject[] projects = ((IWorkspaceRoot) container).getProjects();
             for (IProject project : projects) {
                 if (project.isOpen()) {
-                    searchInContainer(project, pattern, filePattern, contextLines, matches);
+                    searchInContainer(project, pattern, filePattern, contextLines, candidates, matches);
                 }
             }
             return;
@@ -255,10 +263,10 @@ public class GrepTool extends AbstractTool {
             }
 
             if (member instanceof IContainer) {
-                searchInContainer((IContainer) member, pattern, filePattern, contextLines, matches);
+                searchInContainer((IContainer) member, pattern, filePattern, contextLines, candidates, matches);
             } else if (member instanceof IFile) {
                 IFile file = (IFile) member;
-                if (matchesFilePattern(file.getName(), filePattern)) {
+                if (matchesFilePattern(file.getName(), filePattern) && candidates.mayMatch(file)) {
                     searchInFile(file, pattern, contextLines, matches);
                 }
             }
@@ -283,28 +291,13 @@ public class GrepTool extends AbstractTool {
     }
 
     private void searchInFile(IFile file, Pattern pattern, int contextLines,
-                              List<SearchMatch> matches) throws CoreException {
+                              List<SearchMatch> matches) {
         if (matches.size() >= MAX_RESULTS) {
             return;
         }
 
-        // Get file charset
-        Charset charset = getFileCharset(file);
-
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(file.getContents(), charset))) {
-
-            List<String> lines = new ArrayList<>();
-            String line;
-            boolean firstLine = true;
-            while ((line = reader.readLine()) != null) {
-                // Skip BOM on first line
-                if (firstLine && line.startsWith("\uFEFF")) { //$NON-NLS-1$
-                    line = line.substring(1);
-                }
-                firstLine = false;
-                lines.add(line);
-            }
+        try {
+            List<String> lines = WorkspaceFileCache.getInstance().read(file).lines();
 
             for (int i = 0; i < lines.size() && matches.size() < MAX_RESULTS; i++) {
                 Matcher matcher = pattern.matcher(lines.get(i));
@@ -331,21 +324,6 @@ public class GrepTool extends AbstractTool {
         }
     }
 
-    /**
-     * Gets the charset for a file, defaulting to UTF-8.
-     */
-    private Charset getFileCharset(IFile file) {
-        try {
-            String charsetName = file.getCharset();
-            if (charsetName != null) {
-                return Charset.forName(charsetName);
-            }
-        } catch (CoreException | IllegalArgumentException e) {
-            // Use default
-        }
-        return StandardCharsets.UTF_8;
-    }
-
     ToolResult formatResults(String pattern, List<SearchMatch> matches) {
         StringBuilder header = new StringBuilder();
         header.append("**Search results for:** `").append(pattern).append("`\n"); //$NON-NLS-1$ //$NON-NLS-2$
@@ -6,6 +6,7 @@
  * SPDX-License-Identifier: AGPL-3.0-only
  */
 package com.codepilot1c.core.tools.file;
+import com.codepilot1c.core.search.WorkspaceFileCache;
 import com.codepilot1c.core.tools.ToolResult;
 import com.codepilot1c.core.tools.ToolParameters;
 import com.codepilot1c.core.tools.ToolMeta;
@@ -13,13 +14,8 @@ import com.codepilot1c.core.tools.AbstractTool;
 import com.codepilot1c.core.tools.ActiveProjectSupport;
 import com.codepilot1c.core.tools.ToolExecutionContext;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
@@ -28,7 +24,6 @@ import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 
 import com.codepilot1c.core.logging.LogSanitizer;
@@ -257,42 +252,11 @@ public class ReadFileTool extends AbstractTool {
     }
 
     /**
-     * Reads file lines with proper encoding detection.
-     * Handles UTF-8 (with and without BOM) and Windows-1251 for BSL files.
+     * Reads file lines through the shared workspace file cache, decoded with the file's declared
+     * charset (UTF-8 fallback) and without a BOM. The returned list is an indexed view, so range
+     * reads do not split the whole file.
      */
     private List<String> readFileLines(IFile file) throws IOException {
-        List<String> lines = new ArrayList<>();
-
-        // Determine charset - prefer file's declared charset, fallback to UTF-8
-        Charset charset = StandardCharsets.UTF_8;
-        try {
-            String fileCharset = file.getCharset();
-            if (fileCharset != null) {
-                charset = Charset.forName(fileCharset);
-            }
-        } catch (CoreException | IllegalArgumentException e) {
-            // Use default UTF-8
-        }
-
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(file.getContents(), charset))) {
-            String line;
-            // Skip BOM if present
-            boolean firstLine = true;
-            while ((line = reader.readLine()) != null) {
-                if (firstLine) {
-                    // Remove UTF-8 BOM if present
-                    if (line.startsWith("\uFEFF")) { //$NON-NLS-1$
-                        line = line.substring(1);
-                    }
-                    firstLine = false;
-                }
-                lines.add(line);
-            }
-        } catch (CoreException e) {
-            throw new IOException("Cannot read file: " + e.getMessage(), e); //$NON-NLS-1$
-        }
-
-        return lines;
+        return WorkspaceFileCache.getInstance().read(file).lines();
     }
 }
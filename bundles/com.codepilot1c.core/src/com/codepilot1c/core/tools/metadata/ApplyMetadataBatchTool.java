@@ -0,0 +1,260 @@
+package com.codepilot1c.core.tools.metadata;
+import com.codepilot1c.core.tools.ToolResult;
+import com.codepilot1c.core.tools.ToolParameters;
+import com.codepilot1c.core.tools.ToolMeta;
+import com.codepilot1c.core.tools.AbstractTool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.codepilot1c.core.edt.forms.UpdateFormModelRequest;
+import com.codepilot1c.core.edt.metadata.AddMetadataChildRequest;
+import com.codepilot1c.core.edt.metadata.CreateMetadataRequest;
+import com.codepilot1c.core.edt.metadata.EdtMetadataService;
+import com.codepilot1c.core.edt.metadata.MetadataBatchOperation;
+import com.codepilot1c.core.edt.metadata.MetadataBatchRequest;
+import com.codepilot1c.core.edt.metadata.MetadataBatchResult;
+import com.codepilot1c.core.edt.metadata.MetadataChildKind;
+import com.codepilot1c.core.edt.metadata.MetadataKind;
+import com.codepilot1c.core.edt.metadata.MetadataOperationCode;
+import com.codepilot1c.core.edt.metadata.MetadataOperationException;
+import com.codepilot1c.core.edt.metadata.UpdateMetadataRequest;
+import com.codepilot1c.core.edt.validation.MetadataRequestValidationService;
+import com.codepilot1c.core.edt.validation.ValidationOperation;
+import com.codepilot1c.core.logging.LogSanitizer;
+import com.codepilot1c.core.logging.VibeLogger;
+
+/**
+ * Tool for applying several metadata mutations in one BM transaction with a single export.
+ */
+@ToolMeta(name = "apply_metadata_batch", category = "metadata", mutating = true, requiresValidationToken = true, tags = {"workspace", "edt"})
+public class ApplyMetadataBatchTool extends AbstractTool {
+
+    private static final VibeLogger.CategoryLogger LOG = VibeLogger.forClass(ApplyMetadataBatchTool.class);
+
+    private static final String SCHEMA = """
+            {
+              "type": "object",
+              "properties": {
+                "project": {
+                  "type": "string",
+                  "description": "Имя EDT проекта, к которому применяется пакет."
+                },
+                "operations": {
+                  "type": "array",
+                  "description": "Ordered steps applied in ONE transaction: all succeed or none is applied. Each step is {op:create|add_child|update|update_form_model, ...arguments of create_metadata|add_metadata_child|update_metadata|mutate_form_model without project/validation_token}. Later steps may reference objects created by earlier ones. Not supported: FORM children (use create_form) and form operations that generate BSL handler stubs (use mutate_form_model).",
+                  "items": {
+                    "type": "object",
+                    "properties": {
+                      "op": {
+                        "type": "string",
+                        "enum": ["create", "add_child", "update", "update_form_model"]
+                      }
+                    },
+                    "required": ["op"]
+                  }
+                },
+                "validation_token": {
+                  "type": "string",
+                  "description": "Одноразовый токен из edt_validate_request с operation=apply_metadata_batch для этого же пакета."
+                }
+              },
+              "required": ["project", "operations", "validation_token"]
+            }
+            """; //$NON-NLS-1$
+
+    private final EdtMetadataService metadataService;
+    private final MetadataRequestValidationService validationService;
+
+    public ApplyMetadataBatchTool() {
+        this(new EdtMetadataService(), new MetadataRequestValidationService());
+    }
+
+    ApplyMetadataBatchTool(EdtMetadataService metadataService, MetadataRequestValidationService validationService) {
+        this.metadataService = metadataService;
+        this.validationService = validationService;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Применяет пакет изменений метаданных EDT (create/add_child/update/update_form_model) одной транзакцией: " //$NON-NLS-1$
+                + "всё или ничего, одна выгрузка на объект. Используй вместо серии отдельных вызовов при создании " //$NON-NLS-1$
+                + "объекта с множеством реквизитов."; //$NON-NLS-1$
+    }
+
+    @Override
+    public String getParameterSchema() {
+        return SCHEMA;
+    }
+
+    @Override
+    public boolean requiresConfirmation() {
+        return true;
+    }
+
+    @Override
+    public boolean isDestructive() {
+        return true;
+    }
+
+    @Override
+    protected CompletableFuture<ToolResult> doExecute(ToolParameters params) {
+        return CompletableFuture.supplyAsync(() -> {
+            Map<String, Object> parameters = params.getRaw();
+            String opId = LogSanitizer.newId("md-batch"); //$NON-NLS-1$
+            long startedAt = System.currentTimeMillis();
+            LOG.info("[%s] START apply_metadata_batch", opId); //$NON-NLS-1$
+            LOG.debug("[%s] Raw parameters: %s", opId, // $NON-NLS-1$
+                    LogSanitizer.truncate(LogSanitizer.redactSecrets(String.valueOf(parameters)), 4000));
+            try {
+                String projectName = getString(parameters, "project"); //$NON-NLS-1$
+                List<Map<String, Object>> operations = listOfMaps(parameters.get("operations")); //$NON-NLS-1$
+                String validationToken = getString(parameters, "validation_token"); //$NON-NLS-1$
+
+                Map<String, Object> normalizedPayload = validationService.normalizeMetadataBatchPayload(
+                        projectName, operations);
+                Map<String, Object> validatedPayload = validationService.consumeToken(
+                        validationToken,
+                        ValidationOperation.APPLY_METADATA_BATCH,
+                        projectName);
+                if (!validatedPayload.equals(normalizedPayload)) {
+                    LOG.warn("[%s] Input payload differs from validated payload, applying validated payload from token", opId); //$NON-NLS-1$
+                }
+
+                MetadataBatchRequest request = new MetadataBatchRequest(
+                        projectName, toBatchOperations(projectName, listOfMaps(validatedPayload.get("operations")))); //$NON-NLS-1$
+                LOG.info("[%s] Calling EdtMetadataService.applyMetadataBatch(project=%s, operations=%d)", // $NON-NLS-1$
+                        opId, projectName, Integer.valueOf(request.operations().size()));
+                MetadataBatchResult result = metadataService.applyMetadataBatch(request);
+                LOG.info("[%s] SUCCESS in %s, exported=%s", opId, // $NON-NLS-1$
+                        LogSanitizer.formatDuration(System.currentTimeMillis() - startedAt),
+                        result.exportedObjects());
+                return ToolResult.success(result.formatForLlm());
+            } catch (MetadataOperationException e) {
+                LOG.warn("[%s] FAILED in %s: %s (%s)", opId, // $NON-NLS-1$
+                        LogSanitizer.formatDuration(System.currentTimeMillis() - startedAt),
+                        e.getMessage(),
+                        e.getCode());
+                if (e.getCode() == MetadataOperationCode.EDT_TRANSACTION_FAILED) {
+                    LOG.error("[" + opId + "] apply_metadata_batch EDT transaction error details", e); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+                return ToolResult.failure("[" + e.getCode() + "] " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+            } catch (Exception e) {
+                LOG.error("[" + opId + "] apply_metadata_batch failed", e); //$NON-NLS-1$ //$NON-NLS-2$
+                return ToolResult.failure("Ошибка apply_metadata_batch: " + e.getMessage()); //$NON-NLS-1$
+            }
+        });
+    }
+
+    private List<MetadataBatchOperation> toBatchOperations(String projectName, List<Map<String, Object>> operations) {
+        // Extension name-prefix policy (SU189) renames created objects; later steps written against the
+        // requested name are retargeted to the effective one.
+        Map<String, String> renamedTopObjects = new HashMap<>();
+        List<MetadataBatchOperation> result = new ArrayList<>(operations.size());
+        for (Map<String, Object> operation : operations) {
+            MetadataBatchOperation.Type type = MetadataBatchOperation.Type.fromString(asRequiredString(operation, "op")); //$NON-NLS-1$
+            switch (type) {
+                case CREATE -> {
+                    MetadataKind kind = MetadataKind.fromString(asRequiredString(operation, "kind")); //$NON-NLS-1$
+                    String name = asRequiredString(operation, "name"); //$NON-NLS-1$
+                    String effectiveName = metadataService.applyExtensionNamePrefix(projectName, name);
+                    if (!name.equals(effectiveName)) {
+                        renamedTopObjects.put(kind.getFqnPrefix() + "." + name, //$NON-NLS-1$
+                                kind.getFqnPrefix() + "." + effectiveName); //$NON-NLS-1$
+                    }
+                    result.add(MetadataBatchOperation.create(new CreateMetadataRequest(
+                            projectName,
+                            kind,
+                            effectiveName,
+                            asOptionalString(operation, "synonym"), //$NON-NLS-1$
+                            asOptionalString(operation, "comment"), //$NON-NLS-1$
+                            parameterMap(operation.get("properties"))))); //$NON-NLS-1$
+                }
+                case ADD_CHILD -> result.add(MetadataBatchOperation.addChild(new AddMetadataChildRequest(
+                        projectName,
+                        retarget(asRequiredString(operation, "parent_fqn"), renamedTopObjects), //$NON-NLS-1$
+                        MetadataChildKind.fromString(asRequiredString(operation, "child_kind")), //$NON-NLS-1$
+                        asOptionalString(operation, "name"), //$NON-NLS-1$
+                        asOptionalString(operation, "synonym"), //$NON-NLS-1$
+                        asOptionalString(operation, "comment"), //$NON-NLS-1$
+                        parameterMap(operation.get("properties"))))); //$NON-NLS-1$
+                case UPDATE -> result.add(MetadataBatchOperation.update(new UpdateMetadataRequest(
+                        projectName,
+                        retarget(asRequiredString(operation, "target_fqn"), renamedTopObjects), //$NON-NLS-1$
+                        parameterMap(operation.get("changes"))))); //$NON-NLS-1$
+                case UPDATE_FORM_MODEL -> result.add(MetadataBatchOperation.updateFormModel(new UpdateFormModelRequest(
+                        projectName,
+                        retarget(asRequiredString(operation, "form_fqn"), renamedTopObjects), //$NON-NLS-1$
+                        listOfMaps(operation.get("operations"))))); //$NON-NLS-1$
+                default -> throw new MetadataOperationException(
+                        MetadataOperationCode.INVALID_METADATA_CHANGE,
+                        "Unsupported batch op: " + type, false); //$NON-NLS-1$
+            }
+        }
+        return result;
+    }
+
+    private String retarget(String fqn, Map<String, String> renamedTopObjects) {
+        if (fqn == null || renamedTopObjects.isEmpty()) {
+            return fqn;
+        }
+        for (Map.Entry<String, String> entry : renamedTopObjects.entrySet()) {
+            String requested = entry.getKey();
+            if (fqn.equals(requested) || fqn.startsWith(requested + ".")) { //$NON-NLS-1$
+                return entry.getValue() + fqn.substring(requested.length());
+            }
+        }
+        return fqn;
+    }
+
+    private String getString(Map<String, Object> parameters, String key) {
+        Object value = parameters.get(key);
+        return value == null ? null : String.valueOf(value);
+    }
+
+    private String asRequiredString(Map<String, Object> payload, String key) {
+        Object value = payload.get(key);
+        if (value == null) {
+            throw new MetadataOperationException(
+                    MetadataOperationCode.INVALID_METADATA_NAME,
+                    "Required field missing in validated payload: " + key, //$NON-NLS-1$
+                    false);
+        }
+        return String.valueOf(value);
+    }
+
+    private String asOptionalString(Map<String, Object> payload, String key) {
+        Object value = payload.get(key);
+        if (value == null) {
+            return null;
+        }
+        String text = String.valueOf(value);
+        return text.isBlank() ? null : text;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> parameterMap(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return (Map<String, Object>) map;
+        }
+        return Collections.emptyMap();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> listOfMaps(Object value) {
+        if (!(value instanceof List<?> list)) {
+            return List.of();
+        }
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Object item : list) {
+            if (item instanceof Map<?, ?> map) {
+                result.add((Map<String, Object>) map);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,549 @@
+package com.codepilot1c.core.tools.metadata;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+
+import com.codepilot1c.core.internal.VibeCorePlugin;
+import com.codepilot1c.core.logging.VibeLogger;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+/**
+ * Long-lived per-project index of BSL module structure and call sites.
+ *
+ * <p>Backs {@code edt_get_method_call_hierarchy} and {@code edt_get_project_call_graph}. Each module
+ * is parsed once and kept in memory together with its local time stamp. While the service is
+ * started, a workspace {@link IResourceChangeListener} marks touched {@code .bsl} files dirty and
+ * only those files are re-parsed, in the background shortly after the change or at the latest on
+ * the next query. Without the listener (tests, early startup) every query validates time stamps
+ * instead, which still skips re-parsing of unchanged modules.</p>
+ *
+ * <p>Parsed modules are persisted to {@code {plugin-state}/code-index/{project}.json} and reused
+ * after an EDT restart for files whose time stamp did not change.</p>
+ */
+public final class BslCodeIndexService implements IResourceChangeListener {
+
+    private static final VibeLogger.CategoryLogger LOG = VibeLogger.forClass(BslCodeIndexService.class);
+
+    private static final String INDEX_DIR = "code-index"; //$NON-NLS-1$
+    private static final String INDEX_EXTENSION = ".json"; //$NON-NLS-1$
+    private static final int FORMAT_VERSION = 1;
+    private static final long REFRESH_DELAY_MS = 500L;
+    private static final long PERSIST_DELAY_MS = 5_000L;
+    private static final Gson GSON = new Gson();
+
+    private static final BslCodeIndexService INSTANCE = new BslCodeIndexService();
+
+    private final Map<IProject, ProjectCodeIndex> projects = new ConcurrentHashMap<>();
+    private final Object executorLock = new Object();
+    private ScheduledExecutorService executor;
+    private volatile boolean tracking;
+
+    private BslCodeIndexService() {
+    }
+
+    /**
+     * Returns the process-wide index service.
+     *
+     * @return shared instance
+     */
+    public static BslCodeIndexService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts delta tracking and warms up indexes persisted by a previous EDT session in the
+     * background.
+     */
+    public void start() {
+        ResourcesPlugin.getWorkspace().addResourceChangeListener(this,
+                IResourceChangeEvent.POST_CHANGE | IResourceChangeEvent.PRE_CLOSE | IResourceChangeEvent.PRE_DELETE);
+        tracking = true;
+        Path directory = storageDirectory();
+        if (directory == null) {
+            return;
+        }
+        for (IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects()) {
+            if (project.isOpen() && Files.isRegularFile(indexFile(directory, project))) {
+                executor().execute(() -> warmUp(project));
+            }
+        }
+    }
+
+    /**
+     * Stops delta tracking and flushes pending index snapshots to disk.
+     */
+    public void stop() {
+        tracking = false;
+        try {
+            ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+        } catch (IllegalStateException e) {
+            LOG.debug("Workspace already closed, skipping listener removal"); //$NON-NLS-1$
+        }
+        synchronized (executorLock) {
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+        }
+        for (ProjectCodeIndex index : projects.values()) {
+            index.persistIfDirty();
+        }
+        projects.clear();
+    }
+
+    /**
+     * Returns an up-to-date snapshot of the project index, re-parsing only new or changed modules.
+     */
+    Snapshot snapshot(IProject project, ModuleSource source) {
+        ProjectCodeIndex index = projects.computeIfAbsent(project, ProjectCodeIndex::new);
+        return index.synchronize(source);
+    }
+
+    /**
+     * Returns the staleness report of the last synchronized snapshot, or {@code null} when the
+     * project has not been indexed yet.
+     */
+    JsonObject status(IProject project) {
+        ProjectCodeIndex index = projects.get(project);
+        return index != null ? index.statusJson() : null;
+    }
+
+    @Override
+    public void resourceChanged(IResourceChangeEvent event) {
+        if (event.getType() == IResourceChangeEvent.PRE_CLOSE
+                || event.getType() == IResourceChangeEvent.PRE_DELETE) {
+            if (event.getResource() instanceof IProject project) {
+                ProjectCodeIndex removed = projects.remove(project);
+                if (removed != null && event.getType() == IResourceChangeEvent.PRE_CLOSE) {
+                    removed.persistIfDirty();
+                }
+            }
+            return;
+        }
+        IResourceDelta delta = event.getDelta();
+        if (delta == null || projects.isEmpty()) {
+            return;
+        }
+        Set<ProjectCodeIndex> touched = new LinkedHashSet<>();
+        try {
+            delta.accept(child -> {
+                IResource resource = child.getResource();
+                if (resource instanceof IProject project) {
+                    ProjectCodeIndex index = projects.get(project);
+                    if (index == null) {
+                        return false;
+                    }
+                    if ((child.getFlags() & IResourceDelta.OPEN) != 0) {
+                        index.requireFullScan();
+                        touched.add(index);
+                        return false;
+                    }
+                    return true;
+                }
+                if (resource instanceof IFile file && "bsl".equalsIgnoreCase(file.getFileExtension())) { //$NON-NLS-1$
+                    String modulePath = modulePath(file);
+                    ProjectCodeIndex index = projects.get(file.getProject());
+                    if (index != null && modulePath != null && (child.getKind() != IResourceDelta.CHANGED
+                            || (child.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) != 0)) {
+                        index.markDirty(modulePath);
+                        touched.add(index);
+                    }
+                    return false;
+                }
+                return true;
+            });
+        } catch (CoreException e) {
+            LOG.warn("Failed to process resource delta for BSL code index: %s", e.getMessage()); //$NON-NLS-1$
+            projects.values().forEach(ProjectCodeIndex::requireFullScan);
+            return;
+        }
+        for (ProjectCodeIndex index : touched) {
+            index.scheduleRefresh();
+        }
+    }
+
+    private void warmUp(IProject project) {
+        try {
+            snapshot(project, new EdtProjectAnalysisSupport(null).codeIndexSource());
+        } catch (RuntimeException e) {
+            LOG.warn("BSL code index warm-up failed for %s: %s", project.getName(), e.getMessage()); //$NON-NLS-1$
+        }
+    }
+
+    private ScheduledExecutorService executor() {
+        synchronized (executorLock) {
+            if (executor == null) {
+                AtomicLong counter = new AtomicLong();
+                executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "codepilot1c-code-index-" + counter.incrementAndGet()); //$NON-NLS-1$
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            return executor;
+        }
+    }
+
+    private static String modulePath(IFile file) {
+        IPath relative = file.getProjectRelativePath();
+        if (relative == null || relative.segmentCount() < 2 || !"src".equals(relative.segment(0))) { //$NON-NLS-1$
+            return null;
+        }
+        return relative.removeFirstSegments(1).toString();
+    }
+
+    private static Path storageDirectory() {
+        VibeCorePlugin plugin = VibeCorePlugin.getDefault();
+        if (plugin == null) {
+            return null;
+        }
+        return Path.of(plugin.getStateLocation().toOSString()).resolve(INDEX_DIR);
+    }
+
+    private static Path indexFile(Path directory, IProject project) {
+        return directory.resolve(project.getName().replaceAll("[^\\p{L}\\p{N}_.-]", "_") + INDEX_EXTENSION); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * Reads the project module list and parses single modules on behalf of the index.
+     */
+    interface ModuleSource {
+
+        /** Returns all BSL module files of the project. */
+        List<IFile> modules(IProject project);
+
+        /** Returns the module path relative to {@code src/}. */
+        String modulePath(IFile file);
+
+        /** Reads and parses one module. */
+        IndexedModule parse(IFile file);
+    }
+
+    /**
+     * Parsed state of a single module as stored in the index.
+     */
+    record IndexedModule(
+            String fqn,
+            String filePath,
+            long timeStamp,
+            List<EdtProjectAnalysisSupport.MethodInfo> methods,
+            List<EdtProjectAnalysisSupport.CallSite> calls) { }
+
+    /**
+     * Immutable view of the index at one generation.
+     */
+    static final class Snapshot {
+
+        private final ProjectCodeIndex owner;
+        private final List<IndexedModule> modules;
+        private final long generation;
+
+        private Snapshot(ProjectCodeIndex owner, List<IndexedModule> modules, long generation) {
+            this.owner = owner;
+            this.modules = modules;
+            this.generation = generation;
+        }
+
+        /** Modules ordered by FQN, then file path. */
+        List<IndexedModule> modules() {
+            return modules;
+        }
+
+        long generation() {
+            return generation;
+        }
+
+        /**
+         * Returns a value derived from this snapshot, reusing the one computed for the same
+         * generation if it is still cached.
+         */
+        <T> T derive(Class<T> type, Function<Snapshot, T> builder) {
+            return owner.derive(this, type, builder);
+        }
+    }
+
+    private record PersistedIndex(int version, String project, List<IndexedModule> modules) { }
+
+    /**
+     * Index of one project.
+     *
+     * <p>Pending changes live in concurrent fields the workspace listener writes without taking any
+     * lock, so resource deltas never wait for a rebuild. Rebuilds are serialized by {@code syncLock}
+     * and parse into a copy of the module map; the object monitor is held only to read the current
+     * state and to swap in the new snapshot.</p>
+     */
+    private final class ProjectCodeIndex {
+
+        private final IProject project;
+        private final Object syncLock = new Object();
+        private final Set<String> dirtyPaths = ConcurrentHashMap.newKeySet();
+        private final AtomicBoolean fullScanRequired = new AtomicBoolean(true);
+        private final AtomicReference<Instant> firstPendingAt = new AtomicReference<>();
+        private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+        private final Map<Class<?>, Object> derived = new HashMap<>();
+        private volatile ModuleSource lastSource;
+        private Map<String, IndexedModule> modules = new HashMap<>();
+        private List<IndexedModule> ordered = List.of();
+        private boolean loaded;
+        private boolean persistPending;
+        private long generation;
+        private long derivedGeneration = -1L;
+        private String origin = ""; //$NON-NLS-1$
+        private Instant builtAt;
+        private Instant syncedAt;
+        private int lastReparsed;
+        private long lastElapsedMs;
+        private ScheduledFuture<?> persistTask;
+
+        ProjectCodeIndex(IProject project) {
+            this.project = project;
+        }
+
+        Snapshot synchronize(ModuleSource source) {
+            synchronized (syncLock) {
+                long startedAt = System.nanoTime();
+                lastSource = source;
+                boolean restored = false;
+                Map<String, IndexedModule> working;
+                synchronized (this) {
+                    working = new HashMap<>(modules);
+                }
+                if (!loaded) {
+                    loaded = true;
+                    restored = loadPersisted(working);
+                }
+                // Claim pending changes; changes arriving while parsing stay pending for the next sync.
+                firstPendingAt.set(null);
+                boolean fullScan = fullScanRequired.getAndSet(false) || !tracking;
+                List<String> claimed = new ArrayList<>(dirtyPaths);
+                dirtyPaths.removeAll(claimed);
+                int reparsed;
+                try {
+                    reparsed = fullScan ? rescan(source, working) : reparseDirty(source, working, claimed);
+                } catch (RuntimeException e) {
+                    requireFullScan();
+                    throw e;
+                }
+                synchronized (this) {
+                    modules = working;
+                    if (builtAt == null) {
+                        builtAt = Instant.now();
+                        origin = restored ? "disk" : "built"; //$NON-NLS-1$ //$NON-NLS-2$
+                    } else {
+                        origin = reparsed > 0 ? "incremental" : "memory"; //$NON-NLS-1$ //$NON-NLS-2$
+                    }
+                    if (reparsed > 0 || generation == 0L) {
+                        generation++;
+                        ordered = modules.values().stream()
+                                .sorted(Comparator.comparing(IndexedModule::fqn, String.CASE_INSENSITIVE_ORDER)
+                                        .thenComparing(IndexedModule::filePath, String.CASE_INSENSITIVE_ORDER))
+                                .toList();
+                    }
+                    if (reparsed > 0) {
+                        schedulePersist();
+                    }
+                    syncedAt = Instant.now();
+                    lastReparsed = reparsed;
+                    lastElapsedMs = (System.nanoTime() - startedAt) / 1_000_000L;
+                    if (reparsed > 0) {
+                        LOG.debug("BSL code index %s: generation=%d modules=%d reparsed=%d elapsedMs=%d", //$NON-NLS-1$
+                                project.getName(), generation, modules.size(), reparsed, lastElapsedMs);
+                    }
+                    return new Snapshot(this, ordered, generation);
+                }
+            }
+        }
+
+        private int rescan(ModuleSource source, Map<String, IndexedModule> modules) {
+            Map<String, IFile> current = new HashMap<>();
+            for (IFile file : source.modules(project)) {
+                current.put(source.modulePath(file), file);
+            }
+            int changed = 0;
+            if (modules.keySet().retainAll(current.keySet())) {
+                changed++;
+            }
+            for (Map.Entry<String, IFile> entry : current.entrySet()) {
+                IndexedModule existing = modules.get(entry.getKey());
+                long timeStamp = entry.getValue().getLocalTimeStamp();
+                if (existing != null && timeStamp != IResource.NULL_STAMP && existing.timeStamp() == timeStamp) {
+                    continue;
+                }
+                modules.put(entry.getKey(), source.parse(entry.getValue()));
+                changed++;
+            }
+            return changed;
+        }
+
+        private int reparseDirty(ModuleSource source, Map<String, IndexedModule> modules, List<String> paths) {
+            int changed = 0;
+            for (String modulePath : paths) {
+                IFile file = project.getFile("src/" + modulePath); //$NON-NLS-1$
+                if (file != null && file.exists()) {
+                    modules.put(modulePath, source.parse(file));
+                    changed++;
+                } else if (modules.remove(modulePath) != null) {
+                    changed++;
+                }
+            }
+            return changed;
+        }
+
+        synchronized <T> T derive(Snapshot snapshot, Class<T> type, Function<Snapshot, T> builder) {
+            if (derivedGeneration != snapshot.generation()) {
+                derived.clear();
+                derivedGeneration = snapshot.generation();
+            }
+            Object cached = derived.get(type);
+            if (cached == null) {
+                cached = builder.apply(snapshot);
+                derived.put(type, cached);
+            }
+            return type.cast(cached);
+        }
+
+        void markDirty(String modulePath) {
+            dirtyPaths.add(modulePath);
+            firstPendingAt.compareAndSet(null, Instant.now());
+        }
+
+        void requireFullScan() {
+            fullScanRequired.set(true);
+            firstPendingAt.compareAndSet(null, Instant.now());
+        }
+
+        void scheduleRefresh() {
+            ModuleSource source = lastSource;
+            if (source == null || !refreshScheduled.compareAndSet(false, true)) {
+                return;
+            }
+            executor().schedule(() -> {
+                refreshScheduled.set(false);
+                try {
+                    synchronize(source);
+                } catch (RuntimeException e) {
+                    LOG.warn("BSL code index refresh failed for %s: %s", project.getName(), e.getMessage()); //$NON-NLS-1$
+                }
+            }, REFRESH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+
+        synchronized JsonObject statusJson() {
+            JsonObject status = new JsonObject();
+            status.addProperty("tracking", tracking ? "resource_delta" : "stamp_scan"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            status.addProperty("source", origin); //$NON-NLS-1$
+            status.addProperty("generation", generation); //$NON-NLS-1$
+            status.addProperty("modules", modules.size()); //$NON-NLS-1$
+            status.addProperty("reparsed_modules", lastReparsed); //$NON-NLS-1$
+            status.addProperty("sync_elapsed_ms", lastElapsedMs); //$NON-NLS-1$
+            status.addProperty("built_at", builtAt != null ? builtAt.toString() : ""); //$NON-NLS-1$ //$NON-NLS-2$
+            status.addProperty("synced_at", syncedAt != null ? syncedAt.toString() : ""); //$NON-NLS-1$ //$NON-NLS-2$
+            status.addProperty("pending_changes", dirtyPaths.size() + (fullScanRequired.get() ? 1 : 0)); //$NON-NLS-1$
+            Instant pendingSince = firstPendingAt.get();
+            status.addProperty("stale_ms", pendingSince != null //$NON-NLS-1$
+                    ? Math.max(0L, System.currentTimeMillis() - pendingSince.toEpochMilli())
+                    : 0L);
+            return status;
+        }
+
+        private synchronized void schedulePersist() {
+            if (storageDirectory() == null) {
+                return;
+            }
+            persistPending = true;
+            if (persistTask != null && !persistTask.isDone()) {
+                return;
+            }
+            persistTask = executor().schedule(this::persistIfDirty, PERSIST_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+
+        void persistIfDirty() {
+            Path directory = storageDirectory();
+            PersistedIndex payload;
+            synchronized (this) {
+                if (!persistPending || directory == null) {
+                    return;
+                }
+                persistPending = false;
+                payload = new PersistedIndex(FORMAT_VERSION, project.getName(), new ArrayList<>(ordered));
+            }
+            Path target = indexFile(directory, project);
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp"); //$NON-NLS-1$
+            try {
+                Files.createDirectories(directory);
+                try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                    GSON.toJson(payload, writer);
+                }
+                try {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                LOG.warn("Failed to persist BSL code index for %s: %s", project.getName(), e.getMessage()); //$NON-NLS-1$
+            }
+        }
+
+        private boolean loadPersisted(Map<String, IndexedModule> modules) {
+            Path directory = storageDirectory();
+            if (directory == null) {
+                return false;
+            }
+            Path file = indexFile(directory, project);
+            if (!Files.isRegularFile(file)) {
+                return false;
+            }
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                PersistedIndex persisted = GSON.fromJson(reader, PersistedIndex.class);
+                if (persisted == null || persisted.version() != FORMAT_VERSION || persisted.modules() == null
+                        || !project.getName().equals(persisted.project())) {
+                    return false;
+                }
+                for (IndexedModule module : persisted.modules()) {
+                    if (module != null && module.filePath() != null && module.methods() != null
+                            && module.calls() != null) {
+                        modules.put(module.filePath(), module);
+                    }
+                }
+                return !modules.isEmpty();
+            } catch (IOException | RuntimeException e) {
+                LOG.warn("Ignoring unreadable BSL code index %s: %s", file, e.getMessage()); //$NON-NLS-1$
+                modules.clear();
+                return false;
+            }
+        }
+    }
+}
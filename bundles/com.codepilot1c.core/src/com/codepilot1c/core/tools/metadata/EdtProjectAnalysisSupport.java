@@ -1,11 +1,7 @@
 package com.codepilot1c.core.tools.metadata;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.URI;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -37,6 +33,8 @@ import com._1c.g5.v8.dt.metadata.mdclass.Configuration;
 import com.codepilot1c.core.edt.metadata.EdtMetadataGateway;
 import com.codepilot1c.core.edt.runtime.EdtToolErrorCode;
 import com.codepilot1c.core.edt.runtime.EdtToolException;
+import com.codepilot1c.core.search.WorkspaceFileCache;
+import com.codepilot1c.core.search.WorkspaceTrigramIndex;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
@@ -262,8 +260,12 @@ public final class EdtProjectAnalysisSupport {
                 ? Pattern.compile(query, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE)
                 : null;
         JsonArray results = new JsonArray();
+        WorkspaceTrigramIndex.FileFilter candidates =
+                WorkspaceTrigramIndex.getInstance().filterFor(query, regex != null);
         for (IFile file : codeFiles(project, normalizedScope)) {
-            searchFile(file, query, normalizedType, regex, results);
+            if (candidates.mayMatch(file)) {
+                searchFile(file, query, normalizedType, regex, results);
+            }
         }
         JsonObject result = base(projectName);
         result.addProperty("query", query); //$NON-NLS-1$
@@ -557,22 +559,62 @@ public final class EdtProjectAnalysisSupport {
         return calls;
     }
 
+    JsonObject codeIndexStatus(String projectName) {
+        JsonObject status = BslCodeIndexService.getInstance().status(resolveExistingProject(projectName));
+        return status != null ? status : new JsonObject();
+    }
+
+    BslCodeIndexService.ModuleSource codeIndexSource() {
+        return new BslCodeIndexService.ModuleSource() {
+            @Override
+            public List<IFile> modules(IProject project) {
+                return codeFiles(project, "modules").stream() //$NON-NLS-1$
+                        .filter(file -> "bsl".equalsIgnoreCase(file.getFileExtension())) //$NON-NLS-1$
+                        .toList();
+            }
+
+            @Override
+            public String modulePath(IFile file) {
+                return stripSrc(toProjectPath(file));
+            }
+
+            @Override
+            public BslCodeIndexService.IndexedModule parse(IFile file) {
+                return indexModule(file);
+            }
+        };
+    }
+
+    private BslCodeIndexService.IndexedModule indexModule(IFile file) {
+        long timeStamp = file.getLocalTimeStamp();
+        ModuleInfo module = moduleInfo(file);
+        String text = readFile(file);
+        ModuleStructure structure = parseModule(module, text);
+        return new BslCodeIndexService.IndexedModule(
+                module.fqn(),
+                module.filePath(),
+                timeStamp,
+                List.copyOf(structure.methods()),
+                List.copyOf(collectCallSites(structure, text)));
+    }
+
     private CodeIndex buildCodeIndex(IProject project) {
+        BslCodeIndexService.Snapshot snapshot =
+                BslCodeIndexService.getInstance().snapshot(project, codeIndexSource());
+        return snapshot.derive(CodeIndex.class, this::resolveCodeIndex);
+    }
+
+    private CodeIndex resolveCodeIndex(BslCodeIndexService.Snapshot snapshot) {
         Map<MethodKey, MethodInfo> methods = new LinkedHashMap<>();
         Map<MethodKey, Set<MethodKey>> callees = new LinkedHashMap<>();
         Map<MethodKey, Set<MethodKey>> callers = new LinkedHashMap<>();
         Map<String, LinkedHashSet<MethodKey>> byName = new HashMap<>();
         Map<String, MethodKey> byPathAndFqn = new HashMap<>();
-        List<ParsedModule> parsedModules = new ArrayList<>();
         LinkedHashSet<String> modulePaths = new LinkedHashSet<>();
 
-        for (ModuleInfo module : modules(project)) {
-            String text = readFile(module.file());
-            ModuleStructure structure = parseModule(module, text);
-            List<CallSite> calls = collectCallSites(structure, text);
-            parsedModules.add(new ParsedModule(module, calls));
+        for (BslCodeIndexService.IndexedModule module : snapshot.modules()) {
             modulePaths.add(module.filePath());
-            for (MethodInfo method : structure.methods()) {
+            for (MethodInfo method : module.methods()) {
                 MethodKey key = new MethodKey(module.filePath(), method.name());
                 methods.put(key, method);
                 byName.computeIfAbsent(normalize(method.name()), ignored -> new LinkedHashSet<>()).add(key);
@@ -582,9 +624,9 @@ public final class EdtProjectAnalysisSupport {
 
         Map<GraphEdgeKey, LinkedHashSet<Integer>> edgeLines = new LinkedHashMap<>();
         List<UnresolvedCall> unresolvedCalls = new ArrayList<>();
-        for (ParsedModule parsed : parsedModules) {
-            for (CallSite call : parsed.calls()) {
-                MethodKey from = byPathAndFqn.get(methodIdentity(parsed.module().filePath(), call.callerFqn()));
+        for (BslCodeIndexService.IndexedModule module : snapshot.modules()) {
+            for (CallSite call : module.calls()) {
+                MethodKey from = byPathAndFqn.get(methodIdentity(module.filePath(), call.callerFqn()));
                 if (from == null) {
                     continue;
                 }
@@ -793,15 +835,9 @@ public final class EdtProjectAnalysisSupport {
     }
 
     private String readFile(IFile file) {
-        try (InputStream stream = file.getContents();
-                BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
-            StringBuilder builder = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                builder.append(line).append('\n');
-            }
-            return builder.toString();
-        } catch (CoreException | IOException e) {
+        try {
+            return WorkspaceFileCache.getInstance().read(file).normalizedText();
+        } catch (IOException e) {
             throw new EdtToolException(EdtToolErrorCode.EDT_SERVICE_UNAVAILABLE,
                     "Failed to read file " + toProjectPath(file) + ": " + e.getMessage(), e); //$NON-NLS-1$ //$NON-NLS-2$
         }
@@ -1010,14 +1046,12 @@ public final class EdtProjectAnalysisSupport {
 
     private record SectionInfo(String name, int startLine, int endLine) { }
 
-    private record CallSite(String callerFqn, String calleeName, int line) { }
+    record CallSite(String callerFqn, String calleeName, int line) { }
 
     private record MethodKey(String modulePath, String methodName) { }
 
     private record HierarchyNode(MethodKey key, int depth) { }
 
-    private record ParsedModule(ModuleInfo module, List<CallSite> calls) { }
-
     private record GraphEdgeKey(MethodKey source, MethodKey target, String resolution) { }
 
     private record UnresolvedCall(
@@ -1050,7 +1084,7 @@ public final class EdtProjectAnalysisSupport {
         }
     }
 
-    private record MethodInfo(
+    record MethodInfo(
             String fqn,
             String name,
             String kind,
@@ -70,6 +70,7 @@ public class GetMethodCallHierarchyTool extends AbstractTool {
                         params.optString("modulePath", ""), //$NON-NLS-1$ //$NON-NLS-2$
                         params.optString("direction", "both"), //$NON-NLS-1$ //$NON-NLS-2$
                         params.optInt("depth", 1)); //$NON-NLS-1$
+                result.add("index", support.codeIndexStatus(projectName)); //$NON-NLS-1$
                 return ToolResult.success(EdtProjectAnalysisSupport.pretty(result), ToolResult.ToolResultType.CODE, result);
             } catch (ToolParameters.ToolParameterException e) {
                 return failure(projectName, EdtToolErrorCode.INVALID_ARGUMENT.name(), e.getMessage());
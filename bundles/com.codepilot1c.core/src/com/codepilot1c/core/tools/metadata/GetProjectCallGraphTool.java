@@ -65,13 +65,15 @@ public class GetProjectCallGraphTool extends AbstractTool {
                 JsonObject result = support.projectCallGraph(
                         projectName,
                         params.optString("modulePath", "")); //$NON-NLS-1$ //$NON-NLS-2$
+                result.add("index", support.codeIndexStatus(projectName)); //$NON-NLS-1$
                 long elapsedMs = (System.nanoTime() - startedAt) / 1_000_000L;
                 LOG.info(
-                        "[%s] END edt_get_project_call_graph modules=%d methods=%d edges=%d elapsedMs=%d", //$NON-NLS-1$
+                        "[%s] END edt_get_project_call_graph modules=%d methods=%d edges=%d reparsed=%s elapsedMs=%d", //$NON-NLS-1$
                         opId,
                         result.get("project_total_modules").getAsInt(), //$NON-NLS-1$
                         result.get("project_total_methods").getAsInt(), //$NON-NLS-1$
                         result.get("total_edges").getAsInt(), //$NON-NLS-1$
+                        result.getAsJsonObject("index").get("reparsed_modules"), //$NON-NLS-1$ //$NON-NLS-2$
                         elapsedMs);
                 return ToolResult.success(
                         EdtProjectAnalysisSupport.pretty(result),
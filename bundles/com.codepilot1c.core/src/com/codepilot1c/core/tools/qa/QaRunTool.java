@@ -4,25 +4,21 @@ import com.codepilot1c.core.tools.ToolParameters;
 import com.codepilot1c.core.tools.ToolMeta;
 import com.codepilot1c.core.tools.AbstractTool;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -38,6 +34,9 @@ import com.codepilot1c.core.edt.runtime.EdtLaunchConfigurationService;
 import com.codepilot1c.core.edt.runtime.EdtRuntimeService;
 import com.codepilot1c.core.logging.LogSanitizer;
 import com.codepilot1c.core.logging.VibeLogger;
+import com.codepilot1c.core.process.ProcessOptions;
+import com.codepilot1c.core.process.ProcessOutcome;
+import com.codepilot1c.core.process.ProcessRunner;
 import com.codepilot1c.core.internal.VibeCorePlugin;
 import com.codepilot1c.core.qa.QaConfig;
 import com.codepilot1c.core.qa.QaJUnitReport;
@@ -69,6 +68,7 @@ public class QaRunTool extends AbstractTool {
     private static final int MIN_TIMEOUT_SECONDS = 300;
     private static final int MAX_FAILURE_DETAILS = 20;
     private static final int MAX_TAIL_LINES = 200;
+    private static final int TAIL_CAPTURE_BYTES = 256 * 1024;
 
     private static final Pattern STEP_LINE_PATTERN = Pattern.compile(
             "^\\s*(Дано|Когда|Тогда|И|Но|Также|Пусть|Given|When|Then|And|But|\\*)\\b.*", //$NON-NLS-1$
@@ -1082,60 +1082,33 @@ public class QaRunTool extends AbstractTool {
         if (workingDir != null && builder.directory() == null) {
             builder.directory(workingDir);
         }
-        builder.redirectErrorStream(true);
-        Process process = builder.start();
-
-        StreamTee tee = new StreamTee(process, logFile);
-        Thread thread = new Thread(tee, "qa-run-tee"); //$NON-NLS-1$
-        thread.start();
+        ProcessOutcome outcome = ProcessRunner.run(builder, ProcessOptions.builder()
+                .timeout(Duration.ofSeconds(timeoutSeconds))
+                .mergeErrorStream(true)
+                .stdoutLimit(TAIL_CAPTURE_BYTES)
+                .logFile(logFile.toPath())
+                .build());
+        if (outcome.interrupted()) {
+            throw new InterruptedException("QA run interrupted"); //$NON-NLS-1$
+        }
 
-        boolean finished = process.waitFor(timeoutSeconds, TimeUnit.SECONDS);
         TimeoutDiagnostics timeoutDiagnostics = null;
-        if (!finished) {
-            long logSizeBeforeTerminate = safeFileSize(logFile);
-            TerminationSnapshot termination = terminateProcessTree(process);
-            long logSizeAfterTerminate = safeFileSize(logFile);
+        ProcessOutcome.Termination termination = outcome.termination();
+        if (outcome.timedOut() && termination != null) {
             timeoutDiagnostics = new TimeoutDiagnostics(
                     timeoutSeconds,
-                    termination.descendantCount,
-                    termination.aliveDescendantsAfterTerminate,
-                    termination.rootAliveAfterTerminate,
-                    logSizeBeforeTerminate,
-                    logSizeAfterTerminate);
-        }
-        thread.join(5000);
-        int exitCode = finished ? process.exitValue() : -1;
-        List<String> tail = tee.getTailLines();
-
-        return new ProcessResult(exitCode, finished, tail, timeoutDiagnostics);
-    }
-
-    private static TerminationSnapshot terminateProcessTree(Process process) throws InterruptedException {
-        if (process == null) {
-            return new TerminationSnapshot(0, false, 0);
-        }
-        List<ProcessHandle> descendants = process.descendants().collect(Collectors.toList());
-        for (ProcessHandle handle : descendants) {
-            handle.destroy();
-        }
-        process.destroy();
-        process.waitFor(5, TimeUnit.SECONDS);
-        if (process.isAlive()) {
-            for (ProcessHandle handle : descendants) {
-                handle.destroyForcibly();
-            }
-            process.destroyForcibly();
-            process.waitFor(5, TimeUnit.SECONDS);
-        }
-        int aliveDescendantsAfterTerminate = (int) descendants.stream().filter(ProcessHandle::isAlive).count();
-        return new TerminationSnapshot(descendants.size(), process.isAlive(), aliveDescendantsAfterTerminate);
-    }
-
-    private static long safeFileSize(File file) {
-        if (file == null || !file.exists()) {
-            return 0L;
-        }
-        return file.length();
+                    termination.descendantCount(),
+                    termination.aliveDescendants(),
+                    termination.rootAlive(),
+                    termination.bytesBefore(),
+                    termination.bytesAfter());
+        }
+        int exitCode = outcome.finished() ? outcome.exitCode() : -1;
+        List<String> tail = new ArrayList<>(outcome.stdout().tailLines(MAX_TAIL_LINES));
+        if (outcome.stdout().readError() != null) {
+            tail.add("[log-read-error] " + outcome.stdout().readError()); //$NON-NLS-1$
+        }
+        return new ProcessResult(exitCode, outcome.finished(), tail, timeoutDiagnostics);
     }
 
     private static JsonObject buildDryRunResult(String opId, File configFile, List<String> command,
@@ -1489,19 +1462,6 @@ public class QaRunTool extends AbstractTool {
         }
     }
 
-    private static class TerminationSnapshot {
-        private final int descendantCount;
-        private final boolean rootAliveAfterTerminate;
-        private final int aliveDescendantsAfterTerminate;
-
-        private TerminationSnapshot(int descendantCount, boolean rootAliveAfterTerminate,
-                int aliveDescendantsAfterTerminate) {
-            this.descendantCount = descendantCount;
-            this.rootAliveAfterTerminate = rootAliveAfterTerminate;
-            this.aliveDescendantsAfterTerminate = aliveDescendantsAfterTerminate;
-        }
-    }
-
     private static class UnknownStepsSummary {
         private final String mode;
         private final String catalogSource;
@@ -1515,43 +1475,4 @@ public class QaRunTool extends AbstractTool {
             this.issues = issues == null ? List.of() : List.copyOf(issues);
         }
     }
-
-    private static class StreamTee implements Runnable {
-
-        private final Process process;
-        private final File logFile;
-        private final Deque<String> tail = new ArrayDeque<>();
-
-        private StreamTee(Process process, File logFile) {
-            this.process = process;
-            this.logFile = logFile;
-        }
-
-        @Override
-        public void run() {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(),
-                    StandardCharsets.UTF_8));
-                 PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(logFile, true),
-                         StandardCharsets.UTF_8))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    writer.println(line);
-                    appendTail(line);
-                }
-            } catch (IOException e) {
-                appendTail("[log-read-error] " + e.getMessage()); //$NON-NLS-1$
-            }
-        }
-
-        private void appendTail(String line) {
-            if (tail.size() >= MAX_TAIL_LINES) {
-                tail.pollFirst();
-            }
-            tail.addLast(line);
-        }
-
-        private List<String> getTailLines() {
-            return new ArrayList<>(tail);
-        }
-    }
 }
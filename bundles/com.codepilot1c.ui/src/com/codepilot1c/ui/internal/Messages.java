@@ -371,6 +371,8 @@ public class Messages extends NLS {
     public static String McpServersPreferencePage_StatusStarting;
     public static String McpServersPreferencePage_StatusStopped;
     public static String McpServersPreferencePage_StatusError;
+    public static String McpServersPreferencePage_StatusConnectedIn;
+    public static String McpServersPreferencePage_StartupTime;
 
     // MCP server edit dialog
     public static String McpServerEditDialog_TitleAdd;
@@ -54,6 +54,7 @@ public final class ToolDisplayNames {
             case "add_metadata_child" -> "Создание вложенных метаданных EDT"; //$NON-NLS-1$ //$NON-NLS-2$
             case "update_metadata" -> "Обновление метаданных EDT"; //$NON-NLS-1$ //$NON-NLS-2$
             case "mutate_form_model" -> "Изменение модели формы EDT"; //$NON-NLS-1$ //$NON-NLS-2$
+            case "apply_metadata_batch" -> "Пакетное изменение метаданных EDT"; //$NON-NLS-1$ //$NON-NLS-2$
             case "delete_metadata" -> "Удаление метаданных EDT"; //$NON-NLS-1$ //$NON-NLS-2$
             case "edt_diagnostics" -> "EDT диагностика и runtime"; //$NON-NLS-1$ //$NON-NLS-2$
             case "edt_extension_smoke" -> "Smoke расширений EDT"; //$NON-NLS-1$ //$NON-NLS-2$
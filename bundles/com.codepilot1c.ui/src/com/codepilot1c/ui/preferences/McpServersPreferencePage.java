@@ -7,6 +7,7 @@
  */
 package com.codepilot1c.ui.preferences;
 
+import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -73,6 +74,14 @@ public class McpServersPreferencePage extends PreferencePage implements IWorkben
         gd.widthHint = 400;
         description.setLayoutData(gd);
 
+        long startupTimeMs = McpServerManager.getInstance().getStartupTimeMs();
+        if (startupTimeMs >= 0) {
+            Label startupTime = new Label(container, SWT.WRAP);
+            startupTime.setText(MessageFormat.format(Messages.McpServersPreferencePage_StartupTime,
+                String.valueOf(startupTimeMs)));
+            startupTime.setLayoutData(new GridData(SWT.FILL, SWT.TOP, true, false, 2, 1));
+        }
+
         // Table
         createTable(container);
 
@@ -97,7 +106,7 @@ public class McpServersPreferencePage extends PreferencePage implements IWorkben
         createColumn(table, Messages.McpServersPreferencePage_ColumnEnabled, 40);
         createColumn(table, Messages.McpServersPreferencePage_ColumnName, 150);
         createColumn(table, Messages.McpServersPreferencePage_ColumnCommand, 200);
-        createColumn(table, Messages.McpServersPreferencePage_ColumnStatus, 100);
+        createColumn(table, Messages.McpServersPreferencePage_ColumnStatus, 200);
 
         tableViewer.setContentProvider(ArrayContentProvider.getInstance());
         tableViewer.setLabelProvider(new McpServerLabelProvider());
@@ -271,10 +280,19 @@ public class McpServersPreferencePage extends PreferencePage implements IWorkben
             McpServerState state = McpServerManager.getInstance().getServerState(config.getId());
             switch (state) {
                 case RUNNING:
+                    List<String> details = new ArrayList<>();
                     var client = McpServerManager.getInstance().getClient(config.getId());
                     if (client != null && client.getNegotiatedProtocolVersion() != null) {
+                        details.add(client.getNegotiatedProtocolVersion());
+                    }
+                    long connectMs = McpServerManager.getInstance().getServerMetrics(config.getId()).connectMs();
+                    if (connectMs >= 0) {
+                        details.add(MessageFormat.format(Messages.McpServersPreferencePage_StatusConnectedIn,
+                            String.valueOf(connectMs)));
+                    }
+                    if (!details.isEmpty()) {
                         return Messages.McpServersPreferencePage_StatusRunning
-                            + " (" + client.getNegotiatedProtocolVersion() + ")"; //$NON-NLS-1$ //$NON-NLS-2$
+                            + " (" + String.join(", ", details) + ")"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
                     }
                     return Messages.McpServersPreferencePage_StatusRunning;
                 case STARTING:
@@ -70,6 +70,7 @@ import com.codepilot1c.core.agent.prompts.SystemPromptAssembler;
 import com.codepilot1c.core.skills.SkillMentionParser;
 import com.codepilot1c.core.model.LlmAttachment;
 import com.codepilot1c.core.memory.compaction.LlmCompactionService;
+import com.codepilot1c.core.memory.compaction.SpeculativeCompactor;
 import com.codepilot1c.core.session.Session;
 import com.codepilot1c.core.session.SessionManager;
 import com.codepilot1c.core.session.SessionManager.ISessionChangeListener;
@@ -89,6 +90,7 @@ import com.codepilot1c.core.provider.LlmRequestCancellation;
 import com.codepilot1c.core.provider.LlmProviderRegistry;
 import com.codepilot1c.core.provider.ProviderCapabilities;
 import com.codepilot1c.core.settings.VibePreferenceConstants;
+import com.codepilot1c.core.tokenizer.TokenizerService;
 import com.codepilot1c.core.permissions.PermissionManager;
 import com.codepilot1c.core.tools.ToolExecutionService;
 import com.codepilot1c.core.tools.ToolRegistry;
@@ -300,14 +302,15 @@ public class ChatView extends ViewPart {
      */
     private int requestCount = 0;
     private long lastAutoCompactAtMs = 0;
+    /** Prepares history summaries in the background so compaction does not block the UI. */
+    private final SpeculativeCompactor historyCompactor = new SpeculativeCompactor();
     private LlmRequest currentStreamingRequest;
 
-    private static final int CHARS_PER_TOKEN_ESTIMATE = 4;
     private static final int AUTO_COMPACT_MIN_MESSAGES = 20;
     private static final int AUTO_COMPACT_HISTORY_TOKEN_BUDGET = 12000;
     private static final long AUTO_COMPACT_COOLDOWN_MS = 30_000L;
     private static final int COMPACT_TAIL_MESSAGES = 14;
-    private static final String COMPACT_SUMMARY_MARKER = "[COMPACT_SUMMARY]"; //$NON-NLS-1$
+    private static final String COMPACT_SUMMARY_MARKER = SpeculativeCompactor.SUMMARY_MARKER;
     private static final long DEFAULT_MAX_ATTACHMENT_BYTES = 10L * 1024L * 1024L;
     private static final int DEFAULT_MAX_ATTACHMENTS = 5;
     private static final int FILE_PREVIEW_CHAR_LIMIT = 4000;
@@ -1767,6 +1770,7 @@ public class ChatView extends ViewPart {
                             }
                             conversationHistory.add(LlmMessage.assistant(finalContent,
                                     streamingReasoning != null ? streamingReasoning.toString() : null));
+                            observeHistoryGrowth();
                             lastAssistantResponse = finalContent;
 
                             // Check for code blocks
@@ -1951,6 +1955,7 @@ public class ChatView extends ViewPart {
                         LOG.debug("handleResponseWithTools: appending assistant message, length=%d", content.length()); //$NON-NLS-1$
                         appendAssistantMessage(content);
                         conversationHistory.add(LlmMessage.assistant(content, response.getReasoningContent()));
+                        observeHistoryGrowth();
 
                         // Store response and check for code blocks
                         lastAssistantResponse = content;
@@ -3200,6 +3205,7 @@ public class ChatView extends ViewPart {
      */
     private void renderSession(Session restored) {
         conversationHistory.clear();
+        historyCompactor.reset();
         conversationHistory.addAll(restored.toLlmMessages());
         for (SessionMessage msg : restored.getMessages()) {
             String content = msg.getContent();
@@ -3253,6 +3259,7 @@ public class ChatView extends ViewPart {
         }
 
         conversationHistory.clear();
+        historyCompactor.reset();
         // Plan 1.2: full clear is also a turn boundary — drop any pending
         // repetition window so a fresh conversation starts clean.
         toolRepetitionDetector.resetForNewTurn();
@@ -3540,6 +3547,17 @@ public class ChatView extends ViewPart {
     }
 
     private boolean compactConversationHistory(boolean automatic) {
+        return compactConversationHistory(automatic, true);
+    }
+
+    /**
+     * Replaces the head of the history with a summary. An LLM summary is never awaited on the UI
+     * thread: a summary prepared in the background is swapped in when available; otherwise one is
+     * started and automatic compaction is retried on a later send, while manual compaction is
+     * re-applied once the summary arrives. Automatic compaction of a history that already exceeds
+     * the whole token budget does not wait and falls back to the truncation summary.
+     */
+    private boolean compactConversationHistory(boolean automatic, boolean allowDeferred) {
         if (conversationHistory.size() < 2) {
             return false;
         }
@@ -3552,28 +3570,48 @@ public class ChatView extends ViewPart {
 
         int keepFrom = Math.max(0, conversationHistory.size() - tailMessages);
         keepFrom = LlmConversationSanitizer.findSafeCompactionStart(conversationHistory, keepFrom);
-        List<LlmMessage> head = new ArrayList<>(conversationHistory.subList(0, keepFrom));
-        List<LlmMessage> tail = new ArrayList<>(conversationHistory.subList(keepFrom, conversationHistory.size()));
+        int beforeMessages = conversationHistory.size();
+        int beforeTokens = estimateTokensForMessages(conversationHistory);
 
-        // Try LLM-based compaction first if feature flag is enabled
-        LlmCompactionService compactor = LlmCompactionService.getInstance();
-        String summary = null;
-        if (compactor.isEnabled()) {
-            int targetTokens = Math.max(200, estimateTokensForMessages(head) / 4);
-            summary = compactor.compact(head, targetTokens);
+        // Prefer the LLM summary prepared in the background if feature flag is enabled
+        List<LlmMessage> compacted = null;
+        if (LlmCompactionService.getInstance().isEnabled()) {
+            compacted = historyCompactor.take(conversationHistory, keepFrom);
+            if (compacted == null && allowDeferred && !historyCompactor.lastPreparationFailed()) {
+                CompletableFuture<Boolean> pending = historyCompactor.prepare(conversationHistory, keepFrom);
+                if (!automatic) {
+                    pending.thenAccept(ready -> {
+                        Display display = getDisplay();
+                        if (display == null || display.isDisposed()) {
+                            return;
+                        }
+                        display.asyncExec(() -> {
+                            if (!isDisposed() && !compactConversationHistory(false, false)) {
+                                appendSystemMessage(Messages.ChatView_ContextCompactedSkippedNotice);
+                            }
+                        });
+                    });
+                    return true;
+                }
+                if (beforeTokens < AUTO_COMPACT_HISTORY_TOKEN_BUDGET) {
+                    return false;
+                }
+                // Over the whole budget the next request cannot wait for the summary
+                LOG.info("No prepared summary for history over budget (%d tokens), truncating", //$NON-NLS-1$
+                        beforeTokens);
+            }
         }
         // Fall back to existing truncation-based summary
-        if (summary == null || summary.isBlank()) {
-            summary = buildHistorySummary(head);
-        }
-        if (summary.isBlank()) {
-            return false;
+        if (compacted == null) {
+            List<LlmMessage> head = new ArrayList<>(conversationHistory.subList(0, keepFrom));
+            String summary = buildHistorySummary(head);
+            if (summary.isBlank()) {
+                return false;
+            }
+            compacted = new ArrayList<>();
+            compacted.add(LlmMessage.system(COMPACT_SUMMARY_MARKER + "\n" + summary)); //$NON-NLS-1$
+            compacted.addAll(conversationHistory.subList(keepFrom, conversationHistory.size()));
         }
-
-        int beforeTokens = estimateTokensForMessages(conversationHistory);
-        List<LlmMessage> compacted = new ArrayList<>();
-        compacted.add(LlmMessage.system(COMPACT_SUMMARY_MARKER + "\n" + summary)); //$NON-NLS-1$
-        compacted.addAll(tail);
         conversationHistory.clear();
         conversationHistory.addAll(compacted);
         int afterTokens = estimateTokensForMessages(conversationHistory);
@@ -3581,10 +3619,25 @@ public class ChatView extends ViewPart {
         String mode = automatic ? Messages.ChatView_AutoCompactLabel : Messages.ChatView_ManualCompactLabel;
         appendSystemMessage(Messages.ChatView_ContextCompactedNotice + " (" + mode + ")."); //$NON-NLS-1$ //$NON-NLS-2$
         LOG.info("Chat history compacted (%s): messages %d -> %d, tokens %d -> %d", //$NON-NLS-1$
-                mode, head.size() + tail.size(), conversationHistory.size(), beforeTokens, afterTokens);
+                mode, beforeMessages, conversationHistory.size(), beforeTokens, afterTokens);
         return true;
     }
 
+    /**
+     * Lets the background compactor start summarizing the stable head of the history before the
+     * auto-compaction threshold is reached.
+     */
+    private void observeHistoryGrowth() {
+        if (!isAutoCompactEnabled()) {
+            return;
+        }
+        int thresholdPercent = getAutoCompactThresholdPercent();
+        historyCompactor.observe(conversationHistory, new SpeculativeCompactor.Policy(
+                LlmCompactionService.getInstance().isEnabled(), AUTO_COMPACT_HISTORY_TOKEN_BUDGET,
+                thresholdPercent, Math.max(40, thresholdPercent - 15),
+                getCompactionTailMessages(), AUTO_COMPACT_MIN_MESSAGES));
+    }
+
     private String buildHistorySummary(List<LlmMessage> messages) {
         if (messages.isEmpty()) {
             return ""; //$NON-NLS-1$
@@ -3628,26 +3681,14 @@ public class ChatView extends ViewPart {
     }
 
     private int estimateTokensForMessages(List<LlmMessage> messages) {
-        if (messages == null || messages.isEmpty()) {
-            return 0;
-        }
-        int chars = 0;
-        for (LlmMessage message : messages) {
-            if (message == null) {
-                continue;
-            }
-            String content = message.getContent();
-            if (content != null) {
-                chars += content.length();
-            }
-        }
-        return Math.max(0, chars / CHARS_PER_TOKEN_ESTIMATE);
+        // Counts are memoized per message, so only messages added since the last call are tokenized
+        return TokenizerService.getInstance().count(messages);
     }
 
     private LlmResponse.Usage estimateUsageForResponse(LlmRequest request, String content, String reasoning) {
+        TokenizerService tokenizer = TokenizerService.getInstance();
         int input = request != null ? estimateTokensForMessages(request.getMessages()) : 0;
-        int output = ((content == null ? 0 : content.length()) + (reasoning == null ? 0 : reasoning.length()))
-                / CHARS_PER_TOKEN_ESTIMATE;
+        int output = tokenizer.estimate(content) + tokenizer.estimate(reasoning);
         return new LlmResponse.Usage(input, 0, output, Math.max(0, input + output));
     }
 
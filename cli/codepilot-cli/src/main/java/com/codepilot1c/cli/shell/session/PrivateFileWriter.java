@@ -20,11 +20,16 @@ import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Confined, no-follow storage for private UTF-8 files.
@@ -107,6 +112,35 @@ public class PrivateFileWriter {
         }
     }
 
+    /**
+     * Reads at most {@code length} bytes starting at {@code offset}, rejecting links and non-files.
+     * Fewer bytes are returned when the file ends earlier.
+     */
+    public synchronized byte[] readRange(String fileName, long offset, int length) throws IOException {
+        if (offset < 0 || length < 0) throw new IllegalArgumentException("invalid read range"); //$NON-NLS-1$
+        ensureDirectory();
+        Path path = resolve(fileName);
+        requireRegularFile(path);
+        setPosixPermissions(path, FILE_PERMISSIONS);
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        Set<OpenOption> options = Set.of(StandardOpenOption.READ, LinkOption.NOFOLLOW_LINKS);
+        try (var channel = Files.newByteChannel(path, options)) {
+            channel.position(offset);
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                // Continue to EOF or the requested length.
+            }
+        }
+        return buffer.position() == length ? buffer.array() : Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /** Size, modification time and file key of a regular direct child; empty when it does not exist. */
+    public synchronized Optional<FileStamp> stamp(String fileName) throws IOException {
+        ensureDirectory();
+        Path path = resolve(fileName);
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) return Optional.empty();
+        return Optional.of(stamp(requireRegularFile(path)));
+    }
+
     /** Replaces one direct child using a same-directory temporary and an atomic move when available. */
     public synchronized void writeAtomically(String fileName, String content) throws IOException {
         Objects.requireNonNull(content, "content"); //$NON-NLS-1$
@@ -129,8 +163,10 @@ public class PrivateFileWriter {
     /**
      * Appends exactly one line. A separator is inserted first when a previous
      * process left a truncated final line, preserving the next valid record.
+     *
+     * @return the file offset just past the appended line separator
      */
-    public synchronized void appendLine(String fileName, String line, long maximumFileBytes) throws IOException {
+    public synchronized long appendLine(String fileName, String line, long maximumFileBytes) throws IOException {
         Objects.requireNonNull(line, "line"); //$NON-NLS-1$
         if (line.indexOf('\n') >= 0 || line.indexOf('\r') >= 0) {
             throw new IllegalArgumentException("appendLine content must be one line"); //$NON-NLS-1$
@@ -155,13 +191,16 @@ public class PrivateFileWriter {
         options.add(StandardOpenOption.WRITE);
         options.add(StandardOpenOption.APPEND);
         options.add(LinkOption.NOFOLLOW_LINKS);
+        long end;
         try (var channel = openAppendChannel(target, options)) {
             if (needsBoundary) writeFully(channel, ByteBuffer.wrap(new byte[] { '\n' }));
             writeFully(channel, ByteBuffer.wrap(lineBytes));
             writeFully(channel, ByteBuffer.wrap(new byte[] { '\n' }));
+            end = channel.position();
             if (channel instanceof FileChannel fileChannel) fileChannel.force(true);
         }
         setPosixPermissions(target, FILE_PERMISSIONS);
+        return end;
     }
 
     /** Lists regular direct children ending in {@code suffix}; links are never followed. */
@@ -181,6 +220,22 @@ public class PrivateFileWriter {
         return List.copyOf(result);
     }
 
+    /** Stamps of regular direct children ending in {@code suffix}, from one directory scan. */
+    public synchronized Map<String, FileStamp> listFileStamps(String suffix) throws IOException {
+        Objects.requireNonNull(suffix, "suffix"); //$NON-NLS-1$
+        ensureDirectory();
+        Map<String, FileStamp> result = new TreeMap<>();
+        try (var stream = Files.newDirectoryStream(root)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                if (!name.endsWith(suffix)) continue;
+                BasicFileAttributes attributes = attributes(path);
+                if (attributes.isRegularFile() && !attributes.isSymbolicLink()) result.put(name, stamp(attributes));
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
     /** Hook kept protected so failure behavior can be verified without weakening production paths. */
     protected void replaceTemporary(Path temporary, Path target) throws IOException {
         rejectNonRegularTarget(target);
@@ -243,6 +298,12 @@ public class PrivateFileWriter {
         return attributes;
     }
 
+    private static FileStamp stamp(BasicFileAttributes attributes) {
+        Object key = attributes.fileKey();
+        return new FileStamp(attributes.size(), attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+                key == null ? "" : key.toString()); //$NON-NLS-1$
+    }
+
     private static void rejectNonRegularTarget(Path target) throws IOException {
         if (!Files.exists(target, LinkOption.NOFOLLOW_LINKS)) return;
         requireRegularFile(target);
@@ -317,4 +378,15 @@ public class PrivateFileWriter {
             // Windows and other non-POSIX providers: platform-default ACLs only.
         }
     }
+
+    /**
+     * Cheap change detector for a stored file. Atomic replacement yields a new
+     * file key on file systems that expose one, so same-size rewrites within
+     * the timestamp granularity are still noticed there.
+     */
+    public record FileStamp(long size, long modifiedNanos, String fileKey) {
+        public FileStamp {
+            Objects.requireNonNull(fileKey, "fileKey"); //$NON-NLS-1$
+        }
+    }
 }
@@ -5,6 +5,9 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
@@ -15,8 +18,10 @@ import java.time.Instant;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
@@ -38,10 +43,19 @@ import com.google.gson.JsonPrimitive;
  * Secure append-only persistence for provider-neutral CLI agent transcripts.
  *
  * <p>All public lifecycle methods are synchronized. Consequently one store
- * instance serializes append and metadata replacement and recalculates counts
- * from valid JSONL records before each update. If a process fails after the
- * append but before metadata replacement, the next list/resume/append exposes
- * the valid record and its reconciled counts.</p>
+ * instance serializes append and metadata replacement. The metadata file also
+ * records a checkpoint: the transcript byte offset and line count its counts
+ * were taken at. Append, metadata and list only parse transcript records past
+ * that checkpoint, so appending stays constant-time for long sessions. If a
+ * process fails after the append but before metadata replacement, the next
+ * list/resume/append replays that tail and exposes the valid record and its
+ * reconciled counts. A transcript shorter than its checkpoint, or one that
+ * does not break a line at it, is replayed from the start.</p>
+ *
+ * <p>{@link #list()} is served from {@code index.json}, a cache of summaries
+ * keyed by the size, modification time and file key of each metadata and
+ * transcript file. Only sessions whose files changed since the index was
+ * written are read again; the index is never authoritative.</p>
  */
 public final class SessionStore {
     public static final int SCHEMA_VERSION = 1;
@@ -52,11 +66,14 @@ public final class SessionStore {
 
     private static final String META_SUFFIX = ".meta.json"; //$NON-NLS-1$
     private static final String TRANSCRIPT_SUFFIX = ".jsonl"; //$NON-NLS-1$
+    private static final String INDEX_NAME = "index.json"; //$NON-NLS-1$
+    private static final int MAX_INDEX_BYTES = 32 * 1024 * 1024;
 
     private final PrivateFileWriter files;
     private final Function<String, String> redactor;
     private final Consumer<String> warningSink;
     private final Clock clock;
+    private Map<UUID, IndexEntry> index;
 
     public SessionStore(Path root, Function<String, String> redactor) {
         this(new PrivateFileWriter(root), redactor, System.err::println, Clock.systemUTC());
@@ -116,29 +133,36 @@ public final class SessionStore {
                 safeContext.mode(), safeContext.provider(), safeContext.model(),
                 safeContext.endpointFingerprint(), safeContext.mcpEndpointFingerprint(),
                 safeContext.providerEndpointFingerprint(), 0, 0);
-        files.writeAtomically(metaName(id), encodeMetadata(metadata));
+        files.writeAtomically(metaName(id), encodeMetadata(new Checkpoint(metadata, 0, 0)));
         return metadata;
     }
 
     /** Appends one redacted message and then atomically replaces its summary. */
     public synchronized SessionMetadata append(UUID id, AgentMessage message) throws IOException {
         Objects.requireNonNull(message, "message"); //$NON-NLS-1$
-        StoredState state = readState(requireId(id));
+        Tally tally = replay(requireId(id), readCheckpoint(id), null);
         Instant recordedAt = clock.instant();
         JsonObject encoded = encodeMessage(message, recordedAt);
         String line = encoded.toString();
-        if (line.getBytes(StandardCharsets.UTF_8).length > MAX_MESSAGE_BYTES) {
+        int lineBytes = line.getBytes(StandardCharsets.UTF_8).length;
+        if (lineBytes > MAX_MESSAGE_BYTES) {
             throw new IOException("session message exceeds persistence limit"); //$NON-NLS-1$
         }
+        AgentMessage stored = decodeMessage(encoded);
 
         // Append first: metadata can be reconciled from the record after a crash,
         // whereas updating metadata first could permanently overstate a lost append.
-        files.appendLine(transcriptName(id), line, MAX_TRANSCRIPT_BYTES);
-        List<StoredMessage> messages = new ArrayList<>(state.storedMessages());
-        messages.add(new StoredMessage(decodeMessage(encoded), recordedAt));
-        SessionMetadata updated = reconcile(state.metadata(), messages);
-        files.writeAtomically(metaName(id), encodeMetadata(updated));
-        return updated;
+        long expectedEnd = tally.end + (tally.partialLine ? 1 : 0) + lineBytes + 1;
+        long end = files.appendLine(transcriptName(id), line, MAX_TRANSCRIPT_BYTES);
+        if (end == expectedEnd) {
+            tally.terminatePartialLine();
+            tally.addLine(stored, recordedAt, lineBytes + 1);
+        } else {
+            // Someone else wrote to the transcript in between; count what is actually there.
+            tally = replay(id, readCheckpoint(id), null);
+        }
+        files.writeAtomically(metaName(id), encodeMetadata(tally.checkpoint()));
+        return tally.metadata();
     }
 
     public synchronized SessionMetadata append(String id, AgentMessage message) throws IOException {
@@ -146,7 +170,7 @@ public final class SessionStore {
     }
 
     public synchronized SessionMetadata metadata(UUID id) throws IOException {
-        return readState(requireId(id)).metadata();
+        return replay(requireId(id), readCheckpoint(id), null).metadata();
     }
 
     public synchronized SessionMetadata metadata(String id) throws IOException {
@@ -155,18 +179,36 @@ public final class SessionStore {
 
     /** Lists valid session summaries by newest update first, with UUID as a stable tie-breaker. */
     public synchronized List<SessionMetadata> list() throws IOException {
-        List<SessionMetadata> result = new ArrayList<>();
-        for (String fileName : files.listFileNames(META_SUFFIX)) {
+        Map<UUID, IndexEntry> cached = loadIndex();
+        Map<UUID, IndexEntry> current = new HashMap<>();
+        boolean changed = false;
+        // Stamps are taken before reading so that a concurrent change is picked up next time.
+        Map<String, PrivateFileWriter.FileStamp> metaStamps = files.listFileStamps(META_SUFFIX);
+        Map<String, PrivateFileWriter.FileStamp> transcriptStamps = files.listFileStamps(TRANSCRIPT_SUFFIX);
+        for (Map.Entry<String, PrivateFileWriter.FileStamp> meta : metaStamps.entrySet()) {
+            String fileName = meta.getKey();
             Optional<UUID> id = idFromMetaName(fileName);
             if (id.isEmpty()) continue;
-            try {
-                result.add(readState(id.get()).metadata());
-            } catch (UnsupportedSessionSchemaException unsupported) {
-                throw unsupported;
-            } catch (IOException | IllegalArgumentException corrupt) {
-                warn("Skipped corrupt session metadata in " + fileName); //$NON-NLS-1$
+            PrivateFileWriter.FileStamp transcriptStamp = transcriptStamps.get(transcriptName(id.get()));
+            IndexEntry entry = cached.get(id.get());
+            if (entry == null || !entry.matches(meta.getValue(), transcriptStamp)) {
+                try {
+                    entry = new IndexEntry(metadata(id.get()), meta.getValue(), transcriptStamp);
+                    changed = true;
+                } catch (UnsupportedSessionSchemaException unsupported) {
+                    throw unsupported;
+                } catch (IOException | IllegalArgumentException corrupt) {
+                    warn("Skipped corrupt session metadata in " + fileName); //$NON-NLS-1$
+                    continue;
+                }
             }
+            current.put(id.get(), entry);
         }
+        index = current;
+        if (changed || current.size() != cached.size()) writeIndex(current);
+
+        List<SessionMetadata> result = new ArrayList<>();
+        for (IndexEntry entry : current.values()) result.add(entry.metadata());
         result.sort(Comparator.comparing(SessionMetadata::updatedAt).reversed()
                 .thenComparing(metadata -> metadata.id().toString()));
         return List.copyOf(result);
@@ -174,16 +216,18 @@ public final class SessionStore {
 
     public synchronized ResumedSession resume(UUID id, SessionContext current) throws IOException {
         Objects.requireNonNull(current, "current"); //$NON-NLS-1$
-        StoredState state = readState(requireId(id));
+        List<AgentMessage> messages = new ArrayList<>();
+        SessionMetadata metadata = replay(requireId(id), readCheckpoint(id).origin(), messages).metadata();
         SessionContext safeCurrent = redact(current);
-        return new ResumedSession(state.metadata(), state.messages(),
-                SessionMismatch.compare(state.metadata().context(), safeCurrent));
+        return new ResumedSession(metadata, List.copyOf(messages),
+                SessionMismatch.compare(metadata.context(), safeCurrent));
     }
 
     public synchronized ResumedSession resume(UUID id) throws IOException {
-        StoredState state = readState(requireId(id));
-        SessionContext persisted = state.metadata().context();
-        return new ResumedSession(state.metadata(), state.messages(),
+        List<AgentMessage> messages = new ArrayList<>();
+        SessionMetadata metadata = replay(requireId(id), readCheckpoint(id).origin(), messages).metadata();
+        SessionContext persisted = metadata.context();
+        return new ResumedSession(metadata, List.copyOf(messages),
                 SessionMismatch.compare(persisted, persisted));
     }
 
@@ -223,16 +267,22 @@ public final class SessionStore {
         }
     }
 
-    private StoredState readState(UUID id) throws IOException {
-        SessionMetadata stored = readMetadata(id);
-        List<StoredMessage> messages = readMessages(id);
-        return new StoredState(reconcile(stored, messages), messages);
-    }
-
-    private SessionMetadata readMetadata(UUID id) throws IOException {
+    private Checkpoint readCheckpoint(UUID id) throws IOException {
         String name = metaName(id);
         if (!files.exists(name)) throw new NoSuchFileException(name);
         JsonObject object = parseObject(files.readString(name, MAX_METADATA_BYTES), "session metadata"); //$NON-NLS-1$
+        SessionMetadata metadata = decodeMetadata(object, id);
+        if (!object.has("transcriptBytes") || !object.has("transcriptLines")) { //$NON-NLS-1$ //$NON-NLS-2$
+            // Written before checkpoints existed: counts are recalculated from the whole transcript.
+            return new Checkpoint(metadata, 0, 0).origin();
+        }
+        long bytes = longInteger(object, "transcriptBytes"); //$NON-NLS-1$
+        long lines = longInteger(object, "transcriptLines"); //$NON-NLS-1$
+        if (bytes < 0 || lines < 0 || lines > bytes) throw new IOException("invalid session checkpoint"); //$NON-NLS-1$
+        return new Checkpoint(metadata, bytes, lines);
+    }
+
+    private static SessionMetadata decodeMetadata(JsonObject object, UUID id) throws IOException {
         int schema = integer(object, "schemaVersion"); //$NON-NLS-1$
         if (schema != SCHEMA_VERSION) throw new UnsupportedSessionSchemaException(schema);
         try {
@@ -255,48 +305,142 @@ public final class SessionStore {
         }
     }
 
-    private List<StoredMessage> readMessages(UUID id) throws IOException {
+    /**
+     * Folds the transcript records past {@code checkpoint} into its counts. Falls back to
+     * the start of the transcript when the checkpoint no longer describes a line boundary.
+     */
+    private Tally replay(UUID id, Checkpoint checkpoint, List<AgentMessage> sink) throws IOException {
         String name = transcriptName(id);
-        if (!files.exists(name)) return List.of();
-        String content = files.readString(name, MAX_TRANSCRIPT_BYTES);
-        String[] lines = content.split("\\n", -1); //$NON-NLS-1$
-        List<StoredMessage> messages = new ArrayList<>();
-        for (int index = 0; index < lines.length; index++) {
-            String line = lines[index];
-            if (line.endsWith("\r")) line = line.substring(0, line.length() - 1); //$NON-NLS-1$
-            if (line.isEmpty() && index == lines.length - 1) continue;
+        long size = files.stamp(name).map(PrivateFileWriter.FileStamp::size).orElse(0L);
+        if (size > MAX_TRANSCRIPT_BYTES) throw new IOException("private file exceeds read limit"); //$NON-NLS-1$
+        Checkpoint start = checkpoint;
+        if (start.transcriptBytes() > 0 && (size < start.transcriptBytes()
+                || !endsLineAt(name, start.transcriptBytes()))) {
+            warn("Session checkpoint does not match " + name + "; recounting the transcript"); //$NON-NLS-1$ //$NON-NLS-2$
+            start = checkpoint.origin();
+        }
+        Tally tally = new Tally(start);
+        if (size > tally.end) {
+            byte[] tail = files.readRange(name, tally.end, Math.toIntExact(size - tally.end));
+            scan(name, tail, tally, sink);
+        }
+        return tally;
+    }
+
+    private boolean endsLineAt(String name, long offset) throws IOException {
+        byte[] previous = files.readRange(name, offset - 1, 1);
+        return previous.length == 1 && previous[0] == '\n';
+    }
+
+    private void scan(String name, byte[] tail, Tally tally, List<AgentMessage> sink) {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        int lineStart = 0;
+        for (int index = 0; index <= tail.length; index++) {
+            boolean terminated = index < tail.length && tail[index] == '\n';
+            if (index < tail.length && !terminated) continue;
+            if (!terminated && lineStart == tail.length) break;
+            int lineEnd = index > lineStart && tail[index - 1] == '\r' ? index - 1 : index;
+            long lineNumber = tally.lines + 1;
+            StoredMessage stored = null;
             try {
+                String line = decoder.decode(ByteBuffer.wrap(tail, lineStart, lineEnd - lineStart)).toString();
                 JsonObject object = parseObject(line, "session message"); //$NON-NLS-1$
                 int schema = integer(object, "schemaVersion"); //$NON-NLS-1$
                 if (schema != SCHEMA_VERSION) throw new UnsupportedSessionSchemaException(schema);
                 Instant recordedAt = Instant.parse(string(object, "recordedAt")); //$NON-NLS-1$
-                messages.add(new StoredMessage(decodeMessage(object), recordedAt));
+                stored = new StoredMessage(decodeMessage(object), recordedAt);
             } catch (IOException | DateTimeParseException | IllegalArgumentException corrupt) {
-                warn("Skipped corrupt session message at line " + (index + 1) + " in " + name); //$NON-NLS-1$ //$NON-NLS-2$
+                warn("Skipped corrupt session message at line " + lineNumber + " in " + name); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            if (stored != null && sink != null) sink.add(stored.message());
+            if (terminated) {
+                tally.addLine(stored == null ? null : stored.message(),
+                        stored == null ? null : stored.recordedAt(), index + 1 - lineStart);
+            } else {
+                // A final line without a separator is counted like before, but stays
+                // outside the checkpoint until a later append terminates it.
+                tally.addPartialLine(stored == null ? null : stored.message(),
+                        stored == null ? null : stored.recordedAt(), index - lineStart);
             }
+            lineStart = index + 1;
         }
-        return List.copyOf(messages);
     }
 
-    private SessionMetadata reconcile(SessionMetadata metadata, List<StoredMessage> messages) {
-        long turns = 0;
-        String firstUserText = null;
-        Instant updatedAt = metadata.updatedAt();
-        for (StoredMessage stored : messages) {
-            if (stored.recordedAt().isAfter(updatedAt)) updatedAt = stored.recordedAt();
-            if (stored.message() instanceof AgentMessage.Text text && text.role() == AgentMessage.Role.USER) {
-                turns++;
-                if (firstUserText == null) firstUserText = text.content();
+    private Map<UUID, IndexEntry> loadIndex() {
+        if (index != null) return index;
+        Map<UUID, IndexEntry> loaded = new HashMap<>();
+        try {
+            if (files.exists(INDEX_NAME)) {
+                JsonObject object = parseObject(files.readString(INDEX_NAME, MAX_INDEX_BYTES), "session index"); //$NON-NLS-1$
+                if (integer(object, "schemaVersion") != SCHEMA_VERSION) return loaded; //$NON-NLS-1$
+                for (JsonElement element : array(object, "sessions")) { //$NON-NLS-1$
+                    if (!element.isJsonObject()) throw new IOException("invalid session index entry"); //$NON-NLS-1$
+                    IndexEntry entry = decodeIndexEntry(element.getAsJsonObject());
+                    loaded.put(entry.metadata().id(), entry);
+                }
             }
+        } catch (IOException | IllegalArgumentException corrupt) {
+            // The index is only a cache; every session is read again and the index rewritten.
+            loaded.clear();
+        }
+        return loaded;
+    }
+
+    private void writeIndex(Map<UUID, IndexEntry> entries) {
+        JsonArray sessions = new JsonArray();
+        for (IndexEntry entry : entries.values()) {
+            JsonObject encoded = new JsonObject();
+            encoded.add("metadata", metadataJson(entry.metadata())); //$NON-NLS-1$
+            encoded.add("meta", stampJson(entry.metaStamp())); //$NON-NLS-1$
+            if (entry.transcriptStamp() != null) encoded.add("transcript", stampJson(entry.transcriptStamp())); //$NON-NLS-1$
+            sessions.add(encoded);
+        }
+        JsonObject object = new JsonObject();
+        object.addProperty("schemaVersion", SCHEMA_VERSION); //$NON-NLS-1$
+        object.add("sessions", sessions); //$NON-NLS-1$
+        try {
+            files.writeAtomically(INDEX_NAME, object + System.lineSeparator());
+        } catch (IOException failure) {
+            warn("Could not update the session index"); //$NON-NLS-1$
         }
-        String title = firstUserText == null ? metadata.title() : title(firstUserText);
-        return new SessionMetadata(SCHEMA_VERSION, metadata.id(), title, metadata.createdAt(), updatedAt,
-                metadata.mode(), metadata.provider(), metadata.model(), metadata.endpointFingerprint(),
-                metadata.mcpEndpointFingerprint(), metadata.providerEndpointFingerprint(),
-                turns, messages.size());
     }
 
-    private String encodeMetadata(SessionMetadata metadata) {
+    private static IndexEntry decodeIndexEntry(JsonObject object) throws IOException {
+        JsonObject metadata = object(object, "metadata"); //$NON-NLS-1$
+        UUID id;
+        try {
+            id = UUID.fromString(string(metadata, "id")); //$NON-NLS-1$
+        } catch (IllegalArgumentException invalid) {
+            throw new IOException("invalid session index entry", invalid); //$NON-NLS-1$
+        }
+        PrivateFileWriter.FileStamp transcript = object.has("transcript") //$NON-NLS-1$
+                ? decodeStamp(object(object, "transcript")) : null; //$NON-NLS-1$
+        return new IndexEntry(decodeMetadata(metadata, id), decodeStamp(object(object, "meta")), transcript); //$NON-NLS-1$
+    }
+
+    private static JsonObject stampJson(PrivateFileWriter.FileStamp stamp) {
+        JsonObject object = new JsonObject();
+        object.addProperty("size", stamp.size()); //$NON-NLS-1$
+        object.addProperty("modifiedNanos", stamp.modifiedNanos()); //$NON-NLS-1$
+        object.addProperty("fileKey", stamp.fileKey()); //$NON-NLS-1$
+        return object;
+    }
+
+    private static PrivateFileWriter.FileStamp decodeStamp(JsonObject object) throws IOException {
+        return new PrivateFileWriter.FileStamp(longInteger(object, "size"), //$NON-NLS-1$
+                longInteger(object, "modifiedNanos"), string(object, "fileKey")); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    private String encodeMetadata(Checkpoint checkpoint) {
+        JsonObject object = metadataJson(checkpoint.metadata());
+        object.addProperty("transcriptBytes", checkpoint.transcriptBytes()); //$NON-NLS-1$
+        object.addProperty("transcriptLines", checkpoint.transcriptLines()); //$NON-NLS-1$
+        return object + System.lineSeparator();
+    }
+
+    private JsonObject metadataJson(SessionMetadata metadata) {
         JsonObject object = new JsonObject();
         object.addProperty("schemaVersion", SCHEMA_VERSION); //$NON-NLS-1$
         object.addProperty("id", metadata.id().toString()); //$NON-NLS-1$
@@ -315,7 +459,7 @@ public final class SessionStore {
         }
         object.addProperty("turns", metadata.turns()); //$NON-NLS-1$
         object.addProperty("messageCount", metadata.messageCount()); //$NON-NLS-1$
-        return object + System.lineSeparator();
+        return object;
     }
 
     private JsonObject encodeMessage(AgentMessage message, Instant recordedAt) {
@@ -577,13 +721,98 @@ public final class SessionStore {
 
     private record StoredMessage(AgentMessage message, Instant recordedAt) { }
 
-    private record StoredState(SessionMetadata metadata, List<StoredMessage> storedMessages) {
-        StoredState {
-            storedMessages = List.copyOf(storedMessages);
+    /** Persisted summary plus the transcript prefix, in bytes and lines, that it covers. */
+    private record Checkpoint(SessionMetadata metadata, long transcriptBytes, long transcriptLines) {
+        Checkpoint origin() {
+            SessionMetadata m = metadata;
+            return new Checkpoint(new SessionMetadata(SCHEMA_VERSION, m.id(), m.title(), m.createdAt(),
+                    m.updatedAt(), m.mode(), m.provider(), m.model(), m.endpointFingerprint(),
+                    m.mcpEndpointFingerprint(), m.providerEndpointFingerprint(), 0, 0), 0, 0);
+        }
+    }
+
+    /** Title, last update and counts folded over transcript records. */
+    private record Summary(String title, Instant updatedAt, long turns, long messageCount) {
+        Summary plus(AgentMessage message, Instant recordedAt) {
+            if (message == null) return this;
+            Instant latest = recordedAt.isAfter(updatedAt) ? recordedAt : updatedAt;
+            if (message instanceof AgentMessage.Text text && text.role() == AgentMessage.Role.USER) {
+                return new Summary(turns == 0 ? SessionStore.title(text.content()) : title, latest, turns + 1, messageCount + 1);
+            }
+            return new Summary(title, latest, turns, messageCount + 1);
+        }
+    }
+
+    /**
+     * Running replay state. {@code committed} covers the complete lines up to {@code bytes};
+     * {@code current} additionally includes a trailing line without a separator.
+     */
+    private static final class Tally {
+        private final SessionMetadata base;
+        private Summary committed;
+        private Summary current;
+        private long bytes;
+        private long lines;
+        private long end;
+        private boolean partialLine;
+
+        Tally(Checkpoint checkpoint) {
+            SessionMetadata m = checkpoint.metadata();
+            this.base = m;
+            this.committed = new Summary(m.title(), m.updatedAt(), m.turns(), m.messageCount());
+            this.current = committed;
+            this.bytes = checkpoint.transcriptBytes();
+            this.lines = checkpoint.transcriptLines();
+            this.end = bytes;
+        }
+
+        void addLine(AgentMessage message, Instant recordedAt, long lineBytes) {
+            committed = committed.plus(message, recordedAt);
+            current = committed;
+            bytes += lineBytes;
+            lines++;
+            end = bytes;
+        }
+
+        void addPartialLine(AgentMessage message, Instant recordedAt, long lineBytes) {
+            current = committed.plus(message, recordedAt);
+            partialLine = true;
+            end = bytes + lineBytes;
+        }
+
+        /** Accounts for the separator {@link PrivateFileWriter#appendLine} adds after a partial line. */
+        void terminatePartialLine() {
+            if (!partialLine) return;
+            committed = current;
+            bytes = end + 1;
+            lines++;
+            end = bytes;
+            partialLine = false;
         }
 
-        List<AgentMessage> messages() {
-            return storedMessages.stream().map(StoredMessage::message).toList();
+        SessionMetadata metadata() {
+            return summarize(current);
+        }
+
+        Checkpoint checkpoint() {
+            return new Checkpoint(summarize(committed), bytes, lines);
+        }
+
+        private SessionMetadata summarize(Summary summary) {
+            return new SessionMetadata(SCHEMA_VERSION, base.id(), summary.title(), base.createdAt(),
+                    summary.updatedAt(), base.mode(), base.provider(), base.model(), base.endpointFingerprint(),
+                    base.mcpEndpointFingerprint(), base.providerEndpointFingerprint(),
+                    summary.turns(), summary.messageCount());
+        }
+    }
+
+    /** Cached {@link #list()} summary and the file stamps it was read at. */
+    private record IndexEntry(
+            SessionMetadata metadata,
+            PrivateFileWriter.FileStamp metaStamp,
+            PrivateFileWriter.FileStamp transcriptStamp) {
+        boolean matches(PrivateFileWriter.FileStamp meta, PrivateFileWriter.FileStamp transcript) {
+            return metaStamp.equals(meta) && Objects.equals(transcriptStamp, transcript);
         }
     }
 }
@@ -0,0 +1,115 @@
+/* SPDX-License-Identifier: AGPL-3.0-only */
+package com.codepilot1c.cli.shell.session;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import com.codepilot1c.runtime.agent.AgentMessage;
+import com.codepilot1c.runtime.agent.ToolCall;
+import com.codepilot1c.runtime.agent.ToolExecutionResult;
+import com.google.gson.JsonObject;
+
+/**
+ * Manual benchmark for {@link SessionStore} on 10k-message transcripts; not run by surefire.
+ *
+ * <p>Reports append latency per 1k-message block (flat with checkpoints, linear before), the cost of
+ * a full transcript parse at the same sizes (what every append paid before checkpoints), tail replay
+ * after a simulated crash, and {@code list()} over many sessions with a cold and a warm index.
+ * Run {@link #main} with the test classpath.</p>
+ */
+public final class SessionStoreBenchmark {
+    private static final String INSTANCE = "11111111-2222-3333-4444-555555555555"; //$NON-NLS-1$
+    private static final int MESSAGES = 10_000;
+    private static final int BLOCK = 1_000;
+    private static final int SESSIONS = 200;
+
+    private SessionStoreBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path root = Files.createTempDirectory("session-store-benchmark"); //$NON-NLS-1$
+        try {
+            appendAndResume(root.resolve("long")); //$NON-NLS-1$
+            listMany(root.resolve("many")); //$NON-NLS-1$
+        } finally {
+            try (Stream<Path> paths = Files.walk(root)) {
+                for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static void appendAndResume(Path root) throws Exception {
+        SessionStore store = store(root);
+        SessionMetadata metadata = store.create("build", "p", "m", "http://localhost", INSTANCE); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        UUID id = metadata.id();
+        System.out.println("messages  append-avg-us  full-parse-ms"); //$NON-NLS-1$
+        for (int block = 0; block < MESSAGES / BLOCK; block++) {
+            long started = System.nanoTime();
+            for (int index = 0; index < BLOCK; index++) store.append(id, message(block * BLOCK + index));
+            long appendNanos = System.nanoTime() - started;
+            started = System.nanoTime();
+            store.resume(id);
+            long parseNanos = System.nanoTime() - started;
+            System.out.printf(Locale.ROOT, "%8d  %13.1f  %13.1f%n", (block + 1) * BLOCK, //$NON-NLS-1$
+                    appendNanos / 1_000.0 / BLOCK, parseNanos / 1_000_000.0);
+        }
+
+        // Simulate a crash after 100 appends whose metadata replacement never happened.
+        String metaName = id + ".meta.json"; //$NON-NLS-1$
+        String checkpoint = Files.readString(root.resolve(metaName));
+        for (int index = 0; index < 100; index++) store.append(id, message(MESSAGES + index));
+        Files.writeString(root.resolve(metaName), checkpoint);
+        long started = System.nanoTime();
+        SessionMetadata recovered = store(root).metadata(id);
+        System.out.printf(Locale.ROOT, "tail replay of 100 records after crash: %.1f ms (messages=%d)%n", //$NON-NLS-1$
+                (System.nanoTime() - started) / 1_000_000.0, recovered.messageCount());
+    }
+
+    private static void listMany(Path root) throws Exception {
+        SessionStore store = store(root);
+        for (int session = 0; session < SESSIONS; session++) {
+            UUID id = store.create("build", "p", "m", "http://localhost", INSTANCE).id(); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+            for (int index = 0; index < 50; index++) store.append(id, message(index));
+        }
+        long cold = 0;
+        long warm = 0;
+        List<SessionMetadata> listed = List.of();
+        for (int round = 0; round < 5; round++) {
+            Files.deleteIfExists(root.resolve("index.json")); //$NON-NLS-1$
+            long started = System.nanoTime();
+            store(root).list();
+            cold = System.nanoTime() - started;
+            started = System.nanoTime();
+            listed = store(root).list();
+            warm = System.nanoTime() - started;
+        }
+        System.out.printf(Locale.ROOT, "list of %d sessions: cold index %.1f ms, warm index %.1f ms%n", //$NON-NLS-1$
+                listed.size(), cold / 1_000_000.0, warm / 1_000_000.0);
+    }
+
+    private static SessionStore store(Path root) {
+        return new SessionStore(new PrivateFileWriter(root), value -> value, warning -> { }, Clock.systemUTC());
+    }
+
+    private static AgentMessage message(int index) {
+        switch (index % 3) {
+            case 0:
+                return new AgentMessage.Text(AgentMessage.Role.USER, "Question " + index + " about the module"); //$NON-NLS-1$ //$NON-NLS-2$
+            case 1:
+                return new AgentMessage.Assistant(Optional.of("Looking at it"), List.of( //$NON-NLS-1$
+                        new ToolCall("call-" + index, "read_file", "{\"path\":\"src/Module" + index + ".bsl\"}"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+            default:
+                JsonObject data = new JsonObject();
+                data.addProperty("content", "Процедура Тест" + index + "()\n    Возврат;\nКонецПроцедуры"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                return new AgentMessage.Tool("call-" + (index - 1), "read_file", //$NON-NLS-1$ //$NON-NLS-2$
+                        new ToolExecutionResult(false, "OK", "read complete", data)); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+}
@@ -326,6 +326,108 @@ public class SessionStoreTest {
                 .map(AgentMessage.Text.class::cast).map(AgentMessage.Text::content).collect(java.util.stream.Collectors.toSet()).size());
     }
 
+    @Test public void appendReadsOnlyTheCheckpointBoundaryNotTheTranscript() throws Exception {
+        Path root = temporary.newFolder("checkpoint").toPath(); //$NON-NLS-1$
+        CountingWriter writer = new CountingWriter(root);
+        SessionStore store = new SessionStore(writer, FunctionIdentity.INSTANCE, warning -> { },
+                Clock.fixed(START, ZoneOffset.UTC));
+        SessionMetadata metadata = store.create("build", "p", "m", "http://localhost", INSTANCE); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        for (int index = 0; index < 200; index++) {
+            store.append(metadata.id(), new AgentMessage.Text(AgentMessage.Role.USER, "message-" + index)); //$NON-NLS-1$
+        }
+
+        assertTrue("transcript bytes read: " + writer.rangeBytes, writer.rangeBytes <= 200); //$NON-NLS-1$
+        JsonObject onDisk = JsonParser.parseString(
+                Files.readString(root.resolve(metadata.id() + ".meta.json"))).getAsJsonObject(); //$NON-NLS-1$
+        assertEquals(Files.size(root.resolve(metadata.id() + ".jsonl")), onDisk.get("transcriptBytes").getAsLong()); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(200, onDisk.get("transcriptLines").getAsLong()); //$NON-NLS-1$
+        assertEquals(200, store.metadata(metadata.id()).messageCount());
+        assertEquals("message-0", store.metadata(metadata.id()).title()); //$NON-NLS-1$
+    }
+
+    @Test public void replaysOnlyTheTailWrittenAfterTheCheckpoint() throws Exception {
+        Path root = temporary.newFolder("tail").toPath(); //$NON-NLS-1$
+        List<String> warnings = new ArrayList<>();
+        SessionStore store = store(root, Clock.fixed(START, ZoneOffset.UTC), warnings::add);
+        SessionMetadata metadata = store.create("build", "p", "m", "http://localhost", INSTANCE); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        store.append(metadata.id(), new AgentMessage.Text(AgentMessage.Role.USER, "first")); //$NON-NLS-1$
+        store.append(metadata.id(), AgentMessage.Assistant.text("reply")); //$NON-NLS-1$
+        Path transcript = root.resolve(metadata.id() + ".jsonl"); //$NON-NLS-1$
+        String lost = "{\"schemaVersion\":1,\"recordedAt\":\"" + START.plusSeconds(5) //$NON-NLS-1$
+                + "\",\"type\":\"text\",\"role\":\"user\",\"content\":\"after crash\"}\nnot json\n"; //$NON-NLS-1$
+        Files.writeString(transcript, lost, StandardCharsets.UTF_8, java.nio.file.StandardOpenOption.APPEND);
+
+        SessionMetadata recovered = store.metadata(metadata.id());
+        assertEquals(3, recovered.messageCount());
+        assertEquals(2, recovered.turns());
+        assertEquals("first", recovered.title()); //$NON-NLS-1$
+        assertEquals(START.plusSeconds(5), recovered.updatedAt());
+        assertEquals(List.of("Skipped corrupt session message at line 4 in " + metadata.id() + ".jsonl"), warnings); //$NON-NLS-1$ //$NON-NLS-2$
+
+        assertEquals(4, store.append(metadata.id(), AgentMessage.Assistant.text("next")).messageCount()); //$NON-NLS-1$
+        assertEquals(4, store.resume(metadata.id()).messages().size());
+    }
+
+    @Test public void recountsWhenTranscriptNoLongerMatchesCheckpoint() throws Exception {
+        Path root = temporary.newFolder("rewritten").toPath(); //$NON-NLS-1$
+        SessionStore store = store(root, Clock.fixed(START, ZoneOffset.UTC), warning -> { });
+        SessionMetadata metadata = store.create("build", "p", "m", "http://localhost", INSTANCE); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        for (int index = 0; index < 3; index++) {
+            store.append(metadata.id(), new AgentMessage.Text(AgentMessage.Role.USER, "message-" + index)); //$NON-NLS-1$
+        }
+        Path transcript = root.resolve(metadata.id() + ".jsonl"); //$NON-NLS-1$
+        List<String> lines = Files.readAllLines(transcript, StandardCharsets.UTF_8);
+        Files.write(transcript, lines.subList(1, 2), StandardCharsets.UTF_8);
+
+        SessionMetadata recounted = store.metadata(metadata.id());
+        assertEquals(1, recounted.messageCount());
+        assertEquals("message-1", recounted.title()); //$NON-NLS-1$
+        assertEquals(2, store.append(metadata.id(), AgentMessage.Assistant.text("again")).messageCount()); //$NON-NLS-1$
+    }
+
+    @Test public void listIsServedFromIndexAndRereadsOnlyChangedSessions() throws Exception {
+        Path root = temporary.newFolder("index").toPath(); //$NON-NLS-1$
+        MutableClock clock = new MutableClock(START);
+        CountingWriter writer = new CountingWriter(root);
+        SessionStore store = new SessionStore(writer, FunctionIdentity.INSTANCE, warning -> { }, clock);
+        List<SessionMetadata> created = new ArrayList<>();
+        for (int index = 0; index < 3; index++) {
+            clock.advanceSeconds(1);
+            created.add(store.create("build", "p", "m", "http://localhost", INSTANCE)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        }
+        assertEquals(3, store.list().size());
+        assertTrue(Files.exists(root.resolve("index.json"))); //$NON-NLS-1$
+
+        writer.metaReads = 0;
+        store.list();
+        assertEquals(0, writer.metaReads);
+
+        clock.advanceSeconds(1);
+        store.append(created.get(0).id(), new AgentMessage.Text(AgentMessage.Role.USER, "touched")); //$NON-NLS-1$
+        writer.metaReads = 0;
+        List<SessionMetadata> listed = store.list();
+        assertEquals(1, writer.metaReads);
+        assertEquals(created.get(0).id(), listed.get(0).id());
+        assertEquals("touched", listed.get(0).title()); //$NON-NLS-1$
+
+        CountingWriter freshWriter = new CountingWriter(root);
+        SessionStore fresh = new SessionStore(freshWriter, FunctionIdentity.INSTANCE, warning -> { }, clock);
+        assertEquals(listed, fresh.list());
+        assertEquals(0, freshWriter.metaReads);
+    }
+
+    @Test public void rebuildsCorruptIndexWithoutFailingList() throws Exception {
+        Path root = temporary.newFolder("corrupt-index").toPath(); //$NON-NLS-1$
+        SessionStore store = store(root, Clock.fixed(START, ZoneOffset.UTC), warning -> { });
+        SessionMetadata metadata = store.create("build", "p", "m", "http://localhost", INSTANCE); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        store.list();
+        Files.writeString(root.resolve("index.json"), "{\"sessions\":", StandardCharsets.UTF_8); //$NON-NLS-1$ //$NON-NLS-2$
+
+        SessionStore fresh = store(root, Clock.fixed(START, ZoneOffset.UTC), warning -> { });
+        assertEquals(List.of(metadata.id()), fresh.list().stream().map(SessionMetadata::id).toList());
+        assertTrue(JsonParser.parseString(Files.readString(root.resolve("index.json"))).isJsonObject()); //$NON-NLS-1$
+    }
+
     private static SessionStore store(Path root, Clock clock, java.util.function.Consumer<String> warnings) {
         return new SessionStore(new PrivateFileWriter(root), FunctionIdentity.INSTANCE, warnings, clock);
     }
@@ -354,4 +456,19 @@ public class SessionStoreTest {
             super.replaceTemporary(temporary, target);
         }
     }
+
+    private static final class CountingWriter extends PrivateFileWriter {
+        private long rangeBytes;
+        private int metaReads;
+        CountingWriter(Path root) { super(root); }
+        @Override public synchronized byte[] readRange(String fileName, long offset, int length) throws IOException {
+            byte[] bytes = super.readRange(fileName, offset, length);
+            rangeBytes += bytes.length;
+            return bytes;
+        }
+        @Override public synchronized String readString(String fileName, int maximumBytes) throws IOException {
+            if (fileName.endsWith(".meta.json")) metaReads++; //$NON-NLS-1$
+            return super.readString(fileName, maximumBytes);
+        }
+    }
 }